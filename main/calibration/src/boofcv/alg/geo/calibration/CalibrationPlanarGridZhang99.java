@@ -198,12 +198,12 @@ public class CalibrationPlanarGridZhang99 {
 		Zhang99OptimizationFunction func = new Zhang99OptimizationFunction(
 				initial.createNew(), grid,observations);
 
-// Both the numerical and analytical Jacobian appear to provide the same results, but the
-// unit test tolerance is so crude that I trust the numerical Jacobian more
-//		Zhang99OptimizationJacobian jacobian = new Zhang99OptimizationJacobian(
-//				initial.assumeZeroSkew,initial.distortion.length,observations.size(),grid);
+		// The analytical Jacobian finds the same intrinsic parameters as a numerical Jacobian, but is faster
+		// and is split across threads.  A forward difference also can't move a distortion parameter which is zero
+		Zhang99OptimizationJacobian jacobian = new Zhang99OptimizationJacobian(
+				initial.assumeZeroSkew,initial.distortion.length,observations.size(),grid);
 
-		optimizer.setFunction(func,null);
+		optimizer.setFunction(func,jacobian);
 		optimizer.initialize(model,1e-10,1e-25*observations.size());
 
 		for( int i = 0; i < 500; i++ ) {
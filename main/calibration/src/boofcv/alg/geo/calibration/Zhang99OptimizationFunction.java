@@ -18,6 +18,9 @@
 
 package boofcv.alg.geo.calibration;
 
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeTask;
+import boofcv.concurrency.WorkerPool;
 import georegression.geometry.RotationMatrixGenerator;
 import georegression.struct.point.Point2D_F64;
 import georegression.struct.point.Point3D_F64;
@@ -29,7 +32,14 @@ import java.util.ArrayList;
 import java.util.List;
 
 /**
+ * <p>
  * Function for performing non-linear optimization on the Zhang99 calibration parameters.
+ * </p>
+ *
+ * <p>
+ * If {@link BoofConcurrency#USE_CONCURRENT} is true then the views are split across several threads, with
+ * each thread writing to its own part of the residual array.
+ * </p>
  *
  * @author Peter Abeles
  */
@@ -51,6 +61,15 @@ public class Zhang99OptimizationFunction implements FunctionNtoM {
 	// observations
 	private List<List<Point2D_F64>> observations;
 
+	// instances used by other threads which are not currently in use
+	private final WorkerPool<Zhang99OptimizationFunction> workers =
+			new WorkerPool<Zhang99OptimizationFunction>() {
+		@Override
+		protected Zhang99OptimizationFunction createInstance() {
+			return new Zhang99OptimizationFunction(Zhang99OptimizationFunction.this);
+		}
+	};
+
 	/**
 	 * Configurations the optimization function.
 	 *
@@ -76,6 +95,16 @@ public class Zhang99OptimizationFunction implements FunctionNtoM {
 		M = observations.size()*grid.size()*2;
 	}
 
+	/**
+	 * Used to create instances for other threads.  The grid and observations are shared.
+	 */
+	private Zhang99OptimizationFunction( Zhang99OptimizationFunction original ) {
+		this.grid = original.grid;
+		this.observations = original.observations;
+		this.N = original.N;
+		this.M = original.M;
+	}
+
 	@Override
 	public int getN() {
 		return N;
@@ -93,9 +122,31 @@ public class Zhang99OptimizationFunction implements FunctionNtoM {
 		process(param,output);
 	}
 
-	public void process( Zhang99Parameters param , double []residuals ) {
-		int index = 0;
-		for( int indexView = 0; indexView < param.views.length; indexView++ ) {
+	public void process( final Zhang99Parameters param , final double []residuals ) {
+		if( !BoofConcurrency.USE_CONCURRENT ) {
+			process(param, residuals, 0, param.views.length);
+			return;
+		}
+
+		BoofConcurrency.loopBlocks(0, param.views.length, 1, new IntRangeTask() {
+			@Override
+			public void process(int start, int end) {
+				Zhang99OptimizationFunction alg = workers.borrow();
+				try {
+					alg.process(param, residuals, start, end);
+				} finally {
+					workers.release(alg);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Computes the residuals for views from view0 to view1-1
+	 */
+	private void process( Zhang99Parameters param , double []residuals , int view0 , int view1 ) {
+		int index = view0*grid.size()*2;
+		for( int indexView = view0; indexView < view1; indexView++ ) {
 
 			Zhang99Parameters.View v = param.views[indexView];
 
@@ -19,6 +19,9 @@
 package boofcv.alg.geo.calibration;
 
 import boofcv.alg.geo.RodriguesRotationJacobian;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeTask;
+import boofcv.concurrency.WorkerPool;
 import georegression.geometry.GeometryMath_F64;
 import georegression.geometry.RotationMatrixGenerator;
 import georegression.struct.point.Point2D_F64;
@@ -44,6 +47,11 @@ import java.util.List;
  * Jacobian.
  * </p>
  *
+ * <p>
+ * If {@link BoofConcurrency#USE_CONCURRENT} is true then the views are split across several threads, with
+ * each thread writing to its own rows in the Jacobian.
+ * </p>
+ *
  * @author Peter Abeles
  */
 public class Zhang99OptimizationJacobian implements FunctionNtoMxN {
@@ -85,6 +93,15 @@ public class Zhang99OptimizationJacobian implements FunctionNtoMxN {
 
 	Point3D_F64 Xdot = new Point3D_F64();
 
+	// instances used by other threads which are not currently in use
+	private final WorkerPool<Zhang99OptimizationJacobian> workers =
+			new WorkerPool<Zhang99OptimizationJacobian>() {
+		@Override
+		protected Zhang99OptimizationJacobian createInstance() {
+			return new Zhang99OptimizationJacobian(Zhang99OptimizationJacobian.this);
+		}
+	};
+
 	/**
 	 * Configurations the optimization function.
 	 *
@@ -115,6 +132,18 @@ public class Zhang99OptimizationJacobian implements FunctionNtoMxN {
 			c = 0;
 	}
 
+	/**
+	 * Used to create instances for other threads.  The grid is shared.
+	 */
+	private Zhang99OptimizationJacobian( Zhang99OptimizationJacobian original ) {
+		this.assumeZeroSkew = original.assumeZeroSkew;
+		this.numObservedTargets = original.numObservedTargets;
+		this.grid = original.grid;
+		this.numParam = original.numParam;
+		this.numFuncs = original.numFuncs;
+		this.radial = new double[original.radial.length];
+	}
+
 	@Override
 	public int getN() {
 		return numParam;
@@ -126,7 +155,29 @@ public class Zhang99OptimizationJacobian implements FunctionNtoMxN {
 	}
 
 	@Override
-	public void process(double[] input, double[] output) {
+	public void process(final double[] input, final double[] output) {
+		if( !BoofConcurrency.USE_CONCURRENT ) {
+			process(input, output, 0, numObservedTargets);
+			return;
+		}
+
+		BoofConcurrency.loopBlocks(0, numObservedTargets, 1, new IntRangeTask() {
+			@Override
+			public void process(int start, int end) {
+				Zhang99OptimizationJacobian alg = workers.borrow();
+				try {
+					alg.process(input, output, start, end);
+				} finally {
+					workers.release(alg);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Computes the rows in the Jacobian for views from view0 to view1-1
+	 */
+	private void process(double[] input, double[] output, int view0 , int view1 ) {
 		int index = 0;
 
 		// extract calibration matrix parameters
@@ -142,7 +193,8 @@ public class Zhang99OptimizationJacobian implements FunctionNtoMxN {
 			radial[i] = input[index++];
 		}
 
-		for( int indexView = 0; indexView < numObservedTargets; indexView++ ) {
+		index += view0*6;
+		for( int indexView = view0; indexView < view1; indexView++ ) {
 
 			// extract rotation and translation parameters
 			double rodX = input[index++];
@@ -18,8 +18,12 @@
 
 package boofcv.alg.geo.calibration;
 
+import georegression.geometry.RotationMatrixGenerator;
 import georegression.misc.test.GeometryUnitTest;
 import georegression.struct.point.Point2D_F64;
+import org.ddogleg.optimization.FactoryOptimization;
+import org.ddogleg.optimization.UnconstrainedLeastSquares;
+import org.ejml.data.DenseMatrix64F;
 import org.junit.Test;
 
 import java.util.List;
@@ -124,6 +128,63 @@ public class TestCalibrationPlanarGridZhang99 {
 		checkEquals(expected, found, initial);
 	}
 
+	/**
+	 * Compares the analytical Jacobian against the numerical Jacobian it replaced.  The views are tilted so that
+	 * every parameter can be observed.  Both should find the same intrinsic parameters.  A forward difference can't
+	 * move a distortion parameter which starts at zero, so the analytical Jacobian should also do at least as well.
+	 */
+	@Test
+	public void optimizedParam_sameAsNumerical() {
+		PlanarCalibrationTarget config = GenericCalibrationGrid.createStandardConfig();
+		List<Point2D_F64> grid = config.points;
+		Zhang99Parameters expected = GenericCalibrationGrid.createStandardParam(true,2,5,rand);
+		for( Zhang99Parameters.View v : expected.views ) {
+			DenseMatrix64F R = RotationMatrixGenerator.eulerXYZ((rand.nextDouble()-0.5),(rand.nextDouble()-0.5),
+					(rand.nextDouble()-0.5)*0.5,null);
+			RotationMatrixGenerator.matrixToRodrigues(R,v.rotation);
+		}
+
+		List<List<Point2D_F64>> observations = GenericCalibrationGrid.createObservations(expected,grid);
+
+		Helper alg = new Helper(config,true,2);
+		Zhang99Parameters initial = alg.initialParam(observations);
+
+		// optimize with the numerical Jacobian and the same settings
+		Zhang99OptimizationFunction func = new Zhang99OptimizationFunction(initial.createNew(),grid,observations);
+		UnconstrainedLeastSquares optimizer = FactoryOptimization.leastSquaresLM(1e-3,true);
+		double model[] = new double[ initial.size() ];
+		initial.convertToParam(model);
+		optimizer.setFunction(func,null);
+		optimizer.initialize(model,1e-10,1e-25*observations.size());
+		for( int i = 0; i < 500 && !optimizer.iterate(); i++ ) {}
+		Zhang99Parameters numerical = initial.createNew();
+		numerical.setFromParam(optimizer.getParameters());
+
+		Zhang99Parameters found = initial.createNew();
+		assertTrue(alg.optimizedParam(observations, grid, initial, found,null));
+
+		assertEquals(numerical.a,found.a,Math.abs(numerical.a)*1e-6);
+		assertEquals(numerical.b,found.b,Math.abs(numerical.b)*1e-6);
+		assertEquals(numerical.x0,found.x0,Math.abs(numerical.x0)*1e-6);
+		assertEquals(numerical.y0,found.y0,Math.abs(numerical.y0)*1e-6);
+		assertTrue(computeCost(func,found) <= computeCost(func,numerical));
+
+		checkIntrinsicOnly(expected,found,1e-8,1e-8);
+	}
+
+	private static double computeCost( Zhang99OptimizationFunction func , Zhang99Parameters param ) {
+		double input[] = new double[ param.size() ];
+		double residuals[] = new double[ func.getM() ];
+		param.convertToParam(input);
+		func.process(input,residuals);
+
+		double total = 0;
+		for( double r : residuals ) {
+			total += r*r;
+		}
+		return total;
+	}
+
 	private void checkIntrinsicOnly(Zhang99Parameters initial,
 									Zhang99Parameters found , double tolK , double tolD ) {
 		assertEquals(initial.a,found.a,Math.abs(initial.a)*tolK);
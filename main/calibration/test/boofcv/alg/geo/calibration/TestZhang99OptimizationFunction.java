@@ -18,6 +18,8 @@
 
 package boofcv.alg.geo.calibration;
 
+import boofcv.testing.BoofTesting;
+import boofcv.testing.CompareConcurrent;
 import georegression.geometry.RotationMatrixGenerator;
 import georegression.struct.point.Point2D_F64;
 import georegression.struct.point.Point3D_F64;
@@ -107,4 +109,42 @@ public class TestZhang99OptimizationFunction {
 		return ret;
 	}
 
+	/**
+	 * Compute the residuals with and without threads.  Should be identical
+	 */
+	@Test
+	public void concurrent() {
+		PlanarCalibrationTarget config = GenericCalibrationGrid.createStandardConfig();
+		Zhang99Parameters param = GenericCalibrationGrid.createStandardParam(false, 2, 7, rand);
+
+		List<Point2D_F64> gridPts = config.points;
+		List<List<Point2D_F64>> observations = new ArrayList<List<Point2D_F64>>();
+		for( int i = 0; i < param.views.length; i++ ) {
+			observations.add( estimate(param,param.views[i],gridPts));
+		}
+		// residuals shouldn't be zero
+		param.a += 2;
+
+		final Zhang99Parameters input = param;
+		final Zhang99OptimizationFunction alg =
+				new Zhang99OptimizationFunction( param.createNew(),gridPts,observations );
+
+		new CompareConcurrent<double[]>() {
+			@Override
+			protected double[] createOutput() {
+				return new double[ alg.getM()];
+			}
+
+			@Override
+			protected void process(double[] output) {
+				alg.process(input,output);
+			}
+
+			@Override
+			protected void compare(double[] expected, double[] found) {
+				BoofTesting.assertEquals(expected,found,0);
+			}
+		}.perform();
+	}
+
 }
@@ -19,6 +19,8 @@
 package boofcv.alg.geo.calibration;
 
 import boofcv.factory.calib.FactoryPlanarCalibrationTarget;
+import boofcv.testing.BoofTesting;
+import boofcv.testing.CompareConcurrent;
 import georegression.struct.point.Point2D_F64;
 import org.ddogleg.optimization.JacobianChecker;
 import org.junit.Test;
@@ -71,4 +73,36 @@ public class TestZhang99OptimizationJacobian {
 //		JacobianChecker.jacobianPrint(func, alg, dataParam, 1e-3);
 		assertTrue(JacobianChecker.jacobian(func, alg, dataParam, 1e-3));
 	}
+
+	/**
+	 * Compute the Jacobian with and without threads.  Should be identical
+	 */
+	@Test
+	public void concurrent() {
+		PlanarCalibrationTarget config = FactoryPlanarCalibrationTarget.gridSquare(1, 1, 30, 30);
+		Zhang99Parameters param = GenericCalibrationGrid.createStandardParam(false, 2, 7, rand);
+
+		final double dataParam[] = new double[ param.size() ];
+		param.convertToParam(dataParam);
+
+		final Zhang99OptimizationJacobian alg = new Zhang99OptimizationJacobian(
+				false,param.distortion.length,param.views.length,config.points);
+
+		new CompareConcurrent<double[]>() {
+			@Override
+			protected double[] createOutput() {
+				return new double[ alg.getM()*alg.getN() ];
+			}
+
+			@Override
+			protected void process(double[] output) {
+				alg.process(dataParam,output);
+			}
+
+			@Override
+			protected void compare(double[] expected, double[] found) {
+				BoofTesting.assertEquals(expected,found,0);
+			}
+		}.perform();
+	}
 }
@@ -19,10 +19,13 @@
 package boofcv.alg.feature.associate;
 
 import boofcv.abst.feature.associate.AssociateDescription;
+import boofcv.abst.feature.associate.ScoreAssociatePackedEuclideanSq_F64;
 import boofcv.abst.feature.associate.ScoreAssociation;
 import boofcv.factory.feature.associate.FactoryAssociation;
 import boofcv.misc.Performer;
 import boofcv.misc.ProfileOperation;
+import boofcv.struct.feature.PackedTupleDesc_F64;
+import boofcv.struct.feature.TupleDesc_B;
 import boofcv.struct.feature.TupleDesc_F64;
 import org.ddogleg.struct.FastQueue;
 
@@ -38,6 +41,7 @@ public class BenchmarkAssociationSpeedRandom {
 	static final Random rand = new Random(234234);
 	static final int DOF = 50;
 	static final int NUM_FEATURES = 1000;
+	static final int NUM_BITS = 256;
 
 	static final FastQueue<TupleDesc_F64> listA = createSet();
 	static final FastQueue<TupleDesc_F64> listB = createSet();
@@ -65,6 +69,103 @@ public class BenchmarkAssociationSpeedRandom {
 		}
 	}
 
+	public static class GeneralBinary implements Performer {
+
+		AssociateDescription<TupleDesc_B> alg;
+		String name;
+		FastQueue<TupleDesc_B> src;
+		FastQueue<TupleDesc_B> dst;
+
+		public GeneralBinary(String name, AssociateDescription<TupleDesc_B> alg,
+							 FastQueue<TupleDesc_B> src, FastQueue<TupleDesc_B> dst) {
+			this.alg = alg;
+			this.name = name;
+			this.src = src;
+			this.dst = dst;
+		}
+
+		@Override
+		public void process() {
+			alg.setSource(src);
+			alg.setDestination(dst);
+			alg.associate();
+		}
+
+		@Override
+		public String getName() {
+			return name;
+		}
+	}
+
+	public static class GreedyPacked implements Performer {
+
+		AssociateGreedyPacked<PackedTupleDesc_F64> alg;
+		PackedTupleDesc_F64 packedA;
+		PackedTupleDesc_F64 packedB;
+
+		public GreedyPacked(boolean backwards) {
+			alg = new AssociateGreedyPacked<PackedTupleDesc_F64>(
+					new ScoreAssociatePackedEuclideanSq_F64(),backwards,32,256);
+			packedA = pack(listA);
+			packedB = pack(listB);
+		}
+
+		@Override
+		public void process() {
+			alg.associate(packedA,packedB);
+		}
+
+		@Override
+		public String getName() {
+			return alg.isBackwardsValidation() ? "Greedy Packed Backwards" : "Greedy Packed";
+		}
+	}
+
+	private static PackedTupleDesc_F64 pack( FastQueue<TupleDesc_F64> list ) {
+		PackedTupleDesc_F64 ret = new PackedTupleDesc_F64(DOF,list.size);
+		for( int i = 0; i < list.size; i++ ) {
+			ret.append(list.get(i));
+		}
+		return ret;
+	}
+
+	/**
+	 * Creates a set of random binary descriptors
+	 */
+	private static FastQueue<TupleDesc_B> createSetBinary( int total ) {
+		FastQueue<TupleDesc_B> ret = new FastQueue<TupleDesc_B>(total,TupleDesc_B.class, true) {
+			@Override
+			protected TupleDesc_B createInstance() {
+				return new TupleDesc_B(NUM_BITS);
+			}
+		};
+
+		for( int i = 0; i < total; i++ ) {
+			TupleDesc_B t = ret.grow();
+			for( int j = 0; j < t.data.length; j++ ) {
+				t.data[j] = rand.nextInt();
+			}
+		}
+		return ret;
+	}
+
+	/**
+	 * Creates a set of queries by flipping a few bits in descriptors from the database
+	 */
+	private static FastQueue<TupleDesc_B> createQueries( FastQueue<TupleDesc_B> database , int total , int flipped ) {
+		FastQueue<TupleDesc_B> ret = new FastQueue<TupleDesc_B>(total,TupleDesc_B.class, false);
+
+		for( int i = 0; i < total; i++ ) {
+			TupleDesc_B t = database.get(rand.nextInt(database.size)).copy();
+			for( int j = 0; j < flipped; j++ ) {
+				int bit = rand.nextInt(NUM_BITS);
+				t.data[bit/32] ^= 1 << (bit%32);
+			}
+			ret.add(t);
+		}
+		return ret;
+	}
+
 	private static FastQueue<TupleDesc_F64> createSet() {
 		FastQueue<TupleDesc_F64> ret = new FastQueue<TupleDesc_F64>(10,TupleDesc_F64.class, true) {
 				@Override
@@ -90,7 +191,32 @@ public class BenchmarkAssociationSpeedRandom {
 
 		ProfileOperation.printOpsPerSec(new General("Greedy", FactoryAssociation.greedy(score, Double.MAX_VALUE, false)),TEST_TIME);
 		ProfileOperation.printOpsPerSec(new General("Greedy Backwards", FactoryAssociation.greedy(score, Double.MAX_VALUE, true)),TEST_TIME);
+		ProfileOperation.printOpsPerSec(new General("Greedy Streaming", FactoryAssociation.greedyStreaming(score, Double.MAX_VALUE, false, 1.0)),TEST_TIME);
+		ProfileOperation.printOpsPerSec(new General("Greedy Streaming Backwards", FactoryAssociation.greedyStreaming(score, Double.MAX_VALUE, true, 1.0)),TEST_TIME);
+		ProfileOperation.printOpsPerSec(new GreedyPacked(false),TEST_TIME);
+		ProfileOperation.printOpsPerSec(new GreedyPacked(true),TEST_TIME);
 		ProfileOperation.printOpsPerSec(new General("Random Forest", FactoryAssociation.kdRandomForest(DOF,500,15,5,1233445565)),TEST_TIME);
-		
+
+		// Binary descriptors.  The destination is a large database and source descriptors are noisy copies
+		ScoreAssociation<TupleDesc_B> scoreB = FactoryAssociation.scoreHamming(TupleDesc_B.class);
+		for( int databaseSize : new int[]{NUM_FEATURES,10000,100000} ) {
+			FastQueue<TupleDesc_B> dst = createSetBinary(databaseSize);
+			FastQueue<TupleDesc_B> src = createQueries(dst, NUM_FEATURES, 20);
+
+			System.out.println();
+			System.out.println("=========  Binary "+NUM_BITS+" bits ========== Database "+databaseSize);
+			System.out.println();
+
+			// greedy stores a score for every pair, which won't fit in memory for the largest database
+			if( databaseSize <= 10000 )
+				ProfileOperation.printOpsPerSec(new GeneralBinary("Greedy Hamming",
+						FactoryAssociation.greedy(scoreB, Double.MAX_VALUE, false),src,dst),TEST_TIME);
+			ProfileOperation.printOpsPerSec(new GeneralBinary("Greedy Streaming Hamming",
+					FactoryAssociation.greedyStreaming(scoreB, Double.MAX_VALUE, false, 1.0),src,dst),TEST_TIME);
+			for( int numTables : new int[]{16,32} ) {
+				ProfileOperation.printOpsPerSec(new GeneralBinary("Multi-Index "+numTables,
+						FactoryAssociation.hammingMultiIndex(NUM_BITS, numTables, Double.MAX_VALUE), src, dst),TEST_TIME);
+			}
+		}
 	}
 }
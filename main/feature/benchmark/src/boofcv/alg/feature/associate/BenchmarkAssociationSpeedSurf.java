@@ -26,6 +26,7 @@ import boofcv.factory.feature.associate.FactoryAssociation;
 import boofcv.factory.feature.detdesc.FactoryDetectDescribe;
 import boofcv.misc.Performer;
 import boofcv.misc.ProfileOperation;
+import boofcv.struct.feature.AssociatedIndex;
 import boofcv.struct.feature.TupleDesc_F64;
 import boofcv.struct.image.ImageDataType;
 import boofcv.struct.image.ImageFloat32;
@@ -88,6 +89,36 @@ public class BenchmarkAssociationSpeedSurf {
 		}
 	}
 
+	/**
+	 * Fraction of the matches found by the reference algorithm which are also found by the approximate algorithm
+	 */
+	public double recall( AssociateDescription<TupleDesc_F64> reference , AssociateDescription<TupleDesc_F64> alg ) {
+		reference.setSource(listA);
+		reference.setDestination(listB);
+		reference.associate();
+		alg.setSource(listA);
+		alg.setDestination(listB);
+		alg.associate();
+
+		int[] truth = new int[listA.size];
+		for( int i = 0; i < truth.length; i++ )
+			truth[i] = -1;
+		FastQueue<AssociatedIndex> matches = reference.getMatches();
+		for( int i = 0; i < matches.size; i++ ) {
+			truth[matches.get(i).src] = matches.get(i).dst;
+		}
+
+		int found = 0;
+		matches = alg.getMatches();
+		for( int i = 0; i < matches.size; i++ ) {
+			AssociatedIndex a = matches.get(i);
+			if( truth[a.src] == a.dst )
+				found++;
+		}
+
+		return found/(double)reference.getMatches().size;
+	}
+
 	private FastQueue<TupleDesc_F64> createSet( String imageName ) {
 
 		try {
@@ -122,6 +153,20 @@ public class BenchmarkAssociationSpeedSurf {
 				FactoryAssociation.greedy(score, Double.MAX_VALUE,  true)),TEST_TIME);
 		ProfileOperation.printOpsPerSec(app.createProfile("Random Forest",
 				FactoryAssociation.kdRandomForest(DOF, 500, 15, 5, 1233445565)),TEST_TIME);
-		
+
+		// speed vs recall of the kd-forest for different search budgets.  Recall is relative to greedy
+		int maxChecks[] = new int[]{32,64,128,256,512};
+		for( int checks : maxChecks ) {
+			AssociateDescription<TupleDesc_F64> forest =
+					FactoryAssociation.kdForestBbf(checks, 4, 5, 1.0, false, 1233445565);
+			AssociateDescription<TupleDesc_F64> greedy = FactoryAssociation.greedy(score, Double.MAX_VALUE, false);
+			System.out.printf("KD Forest BBF checks = %4d  recall = %5.3f%n",checks,app.recall(greedy,forest));
+			ProfileOperation.printOpsPerSec(app.createProfile("KD Forest BBF "+checks, forest),TEST_TIME);
+		}
+
+		AssociateDescription<TupleDesc_F64> forest = FactoryAssociation.kdForestBbf(128, 4, 5, 0.8, true, 1233445565);
+		System.out.printf("KD Forest BBF Ratio+Backwards  recall = %5.3f%n",
+				app.recall(FactoryAssociation.greedy(score, Double.MAX_VALUE, true),forest));
+		ProfileOperation.printOpsPerSec(app.createProfile("KD Forest BBF Ratio+Backwards", forest),TEST_TIME);
 	}
 }
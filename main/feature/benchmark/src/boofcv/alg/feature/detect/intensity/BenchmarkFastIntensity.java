@@ -18,13 +18,17 @@
 
 package boofcv.alg.feature.detect.intensity;
 
+import boofcv.alg.feature.detect.extract.NonMaxCandidateStrict;
 import boofcv.alg.feature.detect.intensity.impl.ImplFastHelper_U8;
 import boofcv.alg.feature.detect.intensity.impl.ImplFastIntensity12;
 import boofcv.alg.feature.detect.intensity.impl.ImplFastIntensity9;
 import boofcv.alg.misc.GImageMiscOps;
+import boofcv.concurrency.BoofConcurrency;
 import boofcv.core.image.GeneralizedImageOps;
+import boofcv.factory.feature.detect.intensity.FactoryIntensityPointAlg;
 import boofcv.misc.PerformerBase;
 import boofcv.misc.ProfileOperation;
+import boofcv.struct.QueueCorner;
 import boofcv.struct.image.ImageFloat32;
 import boofcv.struct.image.ImageSingleBand;
 import boofcv.struct.image.ImageUInt8;
@@ -35,14 +39,18 @@ import java.util.Random;
  * @author Peter Abeles
  */
 public class BenchmarkFastIntensity< T extends ImageSingleBand> {
-	static int imgWidth = 640;
-	static int imgHeight = 480;
 	static long TEST_TIME = 1000;
 
+	int imgWidth;
+	int imgHeight;
+
 	T input;
 	ImageFloat32 intensity;
+	QueueCorner found = new QueueCorner(10);
 
-	public BenchmarkFastIntensity(Class<T> imageType) {
+	public BenchmarkFastIntensity(Class<T> imageType, int imgWidth, int imgHeight) {
+		this.imgWidth = imgWidth;
+		this.imgHeight = imgHeight;
 		input = GeneralizedImageOps.createSingleBand(imageType,imgWidth,imgHeight);
 		intensity = new ImageFloat32(input.width,input.height);
 
@@ -77,19 +85,75 @@ public class BenchmarkFastIntensity< T extends ImageSingleBand> {
 		}
 	}
 
+	/**
+	 * Intensity image followed by non-maximum suppression.  Same output as {@link FAST9_DETECT}
+	 */
+	public class FAST9_NONMAX extends PerformerBase {
+		ImplFastIntensity9<ImageUInt8> corner = new ImplFastIntensity9<ImageUInt8>(new ImplFastHelper_U8(60));
+		NonMaxCandidateStrict nonmax = new NonMaxCandidateStrict();
+
+		public FAST9_NONMAX() {
+			nonmax.setSearchRadius(1);
+			nonmax.setBorder(corner.getIgnoreBorder());
+		}
+
+		@Override
+		public void process() {
+			corner.process((ImageUInt8)input,intensity);
+			found.reset();
+			nonmax.process(intensity,null,corner.getCandidates(),null,found);
+		}
+	}
+
+	public class FAST9_DETECT extends PerformerBase {
+		ImplFastIntensity9<ImageUInt8> corner = new ImplFastIntensity9<ImageUInt8>(new ImplFastHelper_U8(60));
+
+		@Override
+		public void process() {
+			corner.detect((ImageUInt8)input,0,found);
+		}
+	}
+
+	public class FAST9_MT extends PerformerBase {
+		FastCornerIntensityConcurrent<ImageUInt8> corner = FactoryIntensityPointAlg.fastConcurrent(60,9,ImageUInt8.class);
+
+		@Override
+		public void process() {
+			corner.process((ImageUInt8)input,intensity);
+		}
+	}
+
+	public class FAST9_DETECT_MT extends PerformerBase {
+		FastCornerIntensityConcurrent<ImageUInt8> corner = FactoryIntensityPointAlg.fastConcurrent(60,9,ImageUInt8.class);
+
+		@Override
+		public void process() {
+			corner.detect((ImageUInt8)input,0,found);
+		}
+	}
+
 	public void evaluate() {
 		System.out.println("=========  Profile Image Size " + imgWidth + " x " + imgHeight + " ==========");
 		System.out.println();
 
+		BoofConcurrency.USE_CONCURRENT = false;
 		ProfileOperation.printOpsPerSec(new FAST_NAIVE_9(), TEST_TIME);
 		ProfileOperation.printOpsPerSec(new FAST9(), TEST_TIME);
 		ProfileOperation.printOpsPerSec(new FAST12(), TEST_TIME);
-
+		ProfileOperation.printOpsPerSec(new FAST9_NONMAX(), TEST_TIME);
+		ProfileOperation.printOpsPerSec(new FAST9_DETECT(), TEST_TIME);
+
+		BoofConcurrency.USE_CONCURRENT = true;
+		System.out.println("  threads = "+BoofConcurrency.getMaxThreads());
+		ProfileOperation.printOpsPerSec(new FAST9_MT(), TEST_TIME);
+		ProfileOperation.printOpsPerSec(new FAST9_DETECT_MT(), TEST_TIME);
+		BoofConcurrency.USE_CONCURRENT = false;
+		System.out.println();
 	}
 
 	public static void main( String args[] ) {
-		BenchmarkFastIntensity benchmark = new BenchmarkFastIntensity(ImageUInt8.class);
-
-		benchmark.evaluate();
+		new BenchmarkFastIntensity<ImageUInt8>(ImageUInt8.class,640,480).evaluate();
+		new BenchmarkFastIntensity<ImageUInt8>(ImageUInt8.class,1920,1080).evaluate();
+		new BenchmarkFastIntensity<ImageUInt8>(ImageUInt8.class,3840,2160).evaluate();
 	}
 }
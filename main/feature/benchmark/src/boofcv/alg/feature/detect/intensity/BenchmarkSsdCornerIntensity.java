@@ -19,11 +19,14 @@
 package boofcv.alg.feature.detect.intensity;
 
 import boofcv.alg.feature.detect.intensity.impl.*;
+import boofcv.alg.filter.derivative.GradientSobel;
 import boofcv.alg.misc.ImageMiscOps;
 import boofcv.misc.PerformerBase;
 import boofcv.misc.ProfileOperation;
+import boofcv.struct.BoofDefaults;
 import boofcv.struct.image.ImageFloat32;
 import boofcv.struct.image.ImageSInt16;
+import boofcv.struct.image.ImageUInt8;
 
 import java.util.Random;
 
@@ -40,6 +43,8 @@ public class BenchmarkSsdCornerIntensity {
 
 	static ImageFloat32 intensity = new ImageFloat32(imgWidth,imgHeight);
 
+	static ImageFloat32 image_F32;
+	static ImageUInt8 image_U8;
 	static ImageFloat32 derivX_F32;
 	static ImageFloat32 derivY_F32;
 	static ImageFloat32 derivXX_F32;
@@ -115,6 +120,66 @@ public class BenchmarkSsdCornerIntensity {
 		}
 	}
 
+	/**
+	 * Computes the gradient and then the intensity, as is done by default in a detector
+	 */
+	public static class KLT_Sobel_F32 extends PerformerBase {
+		ImplShiTomasiCorner_F32 corner = new ImplShiTomasiCorner_F32(windowRadius);
+
+		@Override
+		public void process() {
+			GradientSobel.process(image_F32,derivX_F32,derivY_F32,BoofDefaults.borderDerivative_F32());
+			corner.process(derivX_F32, derivY_F32,intensity);
+		}
+	}
+
+	public static class KLT_Sobel_U8 extends PerformerBase {
+		ImplShiTomasiCorner_S16 corner = new ImplShiTomasiCorner_S16(windowRadius);
+
+		@Override
+		public void process() {
+			GradientSobel.process(image_U8,derivX_I16,derivY_I16,BoofDefaults.borderDerivative_I32());
+			corner.process(derivX_I16, derivY_I16,intensity);
+		}
+	}
+
+	public static class KLT_Fused_F32 extends PerformerBase {
+		ImplShiTomasiCornerFused_F32 corner = new ImplShiTomasiCornerFused_F32(windowRadius);
+
+		@Override
+		public void process() {
+			corner.process(image_F32,intensity);
+		}
+	}
+
+	public static class KLT_Fused_U8 extends PerformerBase {
+		ImplShiTomasiCornerFused_U8 corner = new ImplShiTomasiCornerFused_U8(windowRadius);
+
+		@Override
+		public void process() {
+			corner.process(image_U8,intensity);
+		}
+	}
+
+	public static class Harris_Sobel_U8 extends PerformerBase {
+		ImplHarrisCorner_S16 corner = new ImplHarrisCorner_S16(windowRadius, 0.04f);
+
+		@Override
+		public void process() {
+			GradientSobel.process(image_U8,derivX_I16,derivY_I16,BoofDefaults.borderDerivative_I32());
+			corner.process(derivX_I16, derivY_I16,intensity);
+		}
+	}
+
+	public static class Harris_Fused_U8 extends PerformerBase {
+		ImplHarrisCornerFused_U8 corner = new ImplHarrisCornerFused_U8(windowRadius, 0.04f);
+
+		@Override
+		public void process() {
+			corner.process(image_U8,intensity);
+		}
+	}
+
 	public static class KitRos_F32 extends PerformerBase {
 
 		@Override
@@ -132,6 +197,8 @@ public class BenchmarkSsdCornerIntensity {
 
 
 	public static void main(String args[]) {
+		image_F32 = new ImageFloat32(imgWidth, imgHeight);
+		image_U8 = new ImageUInt8(imgWidth, imgHeight);
 		derivX_F32 = new ImageFloat32(imgWidth, imgHeight);
 		derivY_F32 = new ImageFloat32(imgWidth, imgHeight);
 		derivXX_F32 = new ImageFloat32(imgWidth, imgHeight);
@@ -143,6 +210,8 @@ public class BenchmarkSsdCornerIntensity {
 		derivYY_I16 = new ImageSInt16(imgWidth, imgHeight);
 		derivXY_I16 = new ImageSInt16(imgWidth, imgHeight);
 
+		ImageMiscOps.fillUniform(image_F32, rand, 0, 255);
+		ImageMiscOps.fillUniform(image_U8, rand, 0, 255);
 		ImageMiscOps.fillUniform(derivX_F32, rand, 0, 255);
 		ImageMiscOps.fillUniform(derivY_F32, rand, 0, 255);
 		ImageMiscOps.fillUniform(derivXX_F32, rand, 0, 255);
@@ -166,6 +235,12 @@ public class BenchmarkSsdCornerIntensity {
 		ProfileOperation.printOpsPerSec(new Harris_I16(), TEST_TIME);
 		ProfileOperation.printOpsPerSec(new KitRos_I16(), TEST_TIME);
 		ProfileOperation.printOpsPerSec(new KLT_Naive_I16(), TEST_TIME);
+		ProfileOperation.printOpsPerSec(new KLT_Sobel_F32(), TEST_TIME);
+		ProfileOperation.printOpsPerSec(new KLT_Fused_F32(), TEST_TIME);
+		ProfileOperation.printOpsPerSec(new KLT_Sobel_U8(), TEST_TIME);
+		ProfileOperation.printOpsPerSec(new KLT_Fused_U8(), TEST_TIME);
+		ProfileOperation.printOpsPerSec(new Harris_Sobel_U8(), TEST_TIME);
+		ProfileOperation.printOpsPerSec(new Harris_Fused_U8(), TEST_TIME);
 
 	}
 }
@@ -18,10 +18,13 @@
 
 package boofcv.alg.feature.detect.interest;
 
+import boofcv.abst.feature.detect.interest.ConfigFastHessian;
 import boofcv.alg.feature.detect.intensity.IntegralImageFeatureIntensity;
 import boofcv.alg.feature.detect.intensity.impl.ImplIntegralImageFeatureIntensity;
 import boofcv.alg.misc.ImageMiscOps;
 import boofcv.alg.transform.ii.IntegralImageOps;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.factory.feature.detect.interest.FactoryInterestPointAlgs;
 import boofcv.misc.PerformerBase;
 import boofcv.misc.ProfileOperation;
 import boofcv.struct.image.ImageFloat32;
@@ -62,6 +65,30 @@ public class BenchmarkFastHessianFeatureIntensity {
 		}
 	}
 
+	/**
+	 * Entire detector, including non-maximum suppression, across all the octaves
+	 */
+	public static class Detector extends PerformerBase {
+		FastHessianFeatureDetector<ImageFloat32> alg;
+		String name;
+
+		public Detector( boolean concurrent ) {
+			BoofConcurrency.USE_CONCURRENT = concurrent;
+			alg = FactoryInterestPointAlgs.fastHessian(new ConfigFastHessian(1, 2, -1, 1, 9, 4, 4));
+			name = concurrent ? "Detector_MT" : "Detector";
+		}
+
+		@Override
+		public void process() {
+			alg.detect(integral);
+		}
+
+		@Override
+		public String getName() {
+			return name;
+		}
+	}
+
 	public static void main(String args[]) {
 		ImageMiscOps.fillUniform(original,rand,0,200);
 		IntegralImageOps.transform(original,integral);
@@ -72,5 +99,10 @@ public class BenchmarkFastHessianFeatureIntensity {
 
 		ProfileOperation.printOpsPerSec(new Naive(), TEST_TIME);
 		ProfileOperation.printOpsPerSec(new Standard(), TEST_TIME);
+
+		System.out.println("     threads = "+BoofConcurrency.getMaxThreads());
+		ProfileOperation.printOpsPerSec(new Detector(false), TEST_TIME);
+		ProfileOperation.printOpsPerSec(new Detector(true), TEST_TIME);
+		BoofConcurrency.USE_CONCURRENT = false;
 	}
 }
@@ -18,9 +18,16 @@
 
 package boofcv.alg.feature.disparity;
 
+import boofcv.abst.feature.disparity.ConfigSgm;
+import boofcv.abst.feature.disparity.StereoDisparity;
 import boofcv.alg.feature.disparity.impl.*;
+import boofcv.alg.filter.blur.BlurImageOps;
 import boofcv.alg.misc.GImageMiscOps;
+import boofcv.concurrency.BoofConcurrency;
 import boofcv.core.image.GeneralizedImageOps;
+import boofcv.factory.feature.disparity.DisparityAlgorithms;
+import boofcv.factory.feature.disparity.FactoryStereoDisparity;
+import boofcv.factory.feature.disparity.SgmErrorType;
 import boofcv.misc.PerformerBase;
 import boofcv.misc.ProfileOperation;
 import boofcv.struct.image.ImageFloat32;
@@ -120,6 +127,160 @@ public class BenchmarkDisparityAlgs {
 		}
 	}
 
+	public static class Sgm extends PerformerBase {
+
+		String name;
+		StereoDisparity<ImageUInt8,ImageUInt8> alg;
+
+		public Sgm( SgmErrorType error , int paths ) {
+			ConfigSgm config = new ConfigSgm(min,max,error);
+			config.paths = paths;
+			alg = FactoryStereoDisparity.sgm(config,ImageUInt8.class);
+			name = "SGM "+error+" paths "+paths;
+		}
+
+		@Override
+		public void process() {
+			alg.process(left,right);
+		}
+
+		@Override
+		public String getName() {
+			return name;
+		}
+	}
+
+	public static class Concurrent_U8 extends PerformerBase {
+
+		boolean five;
+		int numThreads;
+		DisparityScoreConcurrent<ImageUInt8,ImageUInt8> alg;
+
+		public Concurrent_U8(final boolean five , int numThreads ) {
+			this.five = five;
+			this.numThreads = numThreads;
+			alg = new DisparityScoreConcurrent<ImageUInt8,ImageUInt8>(createU8(five),20) {
+				@Override
+				protected DisparityScoreRowFormat<ImageUInt8, ImageUInt8> createAlg() {
+					return createU8(five);
+				}
+			};
+		}
+
+		@Override
+		public void process() {
+			alg.process(left,right, outU8);
+		}
+
+		@Override
+		public String getName() {
+			return (five ? "Five_U8" : "Rect_U8")+" threads "+numThreads;
+		}
+	}
+
+	private static DisparityScoreRowFormat<ImageUInt8,ImageUInt8> createU8( boolean five ) {
+		DisparitySelect<int[],ImageUInt8> compDisp =
+				new ImplSelectRectStandard_S32_U8(250,2,0.1);
+		if( five )
+			return new ImplDisparityScoreSadRectFive_U8<ImageUInt8>(min,max,radiusX,radiusY,compDisp);
+		else
+			return new ImplDisparityScoreSadRect_U8<ImageUInt8>(min,max,radiusX,radiusY,compDisp);
+	}
+
+	/**
+	 * Shows how the concurrent algorithm scales with the number of threads
+	 */
+	public static void threadScaling() {
+		int maxThreads = Runtime.getRuntime().availableProcessors();
+
+		System.out.println();
+		System.out.println("=========  Thread Scaling.  Processors "+maxThreads);
+		System.out.println();
+
+		BoofConcurrency.USE_CONCURRENT = true;
+		for( int numThreads = 1; numThreads <= maxThreads; numThreads *= 2 ) {
+			BoofConcurrency.setMaxThreads(numThreads);
+			ProfileOperation.printOpsPerSec(new Concurrent_U8(false,numThreads),TEST_TIME);
+			ProfileOperation.printOpsPerSec(new Concurrent_U8(true,numThreads),TEST_TIME);
+		}
+		BoofConcurrency.USE_CONCURRENT = false;
+		BoofConcurrency.setMaxThreads(maxThreads);
+	}
+
+	/**
+	 * Compares the accuracy of dense algorithms on a synthetic stereo pair with known disparity.  The scene
+	 * is a slanted plane with a box in front of it and a region with weak texture along the bottom.
+	 */
+	public static void accuracy() {
+		ImageUInt8 noise = new ImageUInt8(width,height);
+		ImageUInt8 left = new ImageUInt8(width,height);
+		ImageUInt8 right = new ImageUInt8(width,height);
+		GImageMiscOps.fillUniform(noise, rand, 0, 255);
+		BlurImageOps.gaussian(noise, left, -1, 2, null);
+
+		int truth[] = new int[width*height];
+		for( int y = 0; y < height; y++ ) {
+			for( int x = 0; x < width; x++ ) {
+				int d = max/5 + (int)(max*0.2*x/width);
+				if( x > width/3 && x < 2*width/3 && y > height/4 && y < 3*height/4 )
+					d = (int)(max*0.7);
+				truth[y*width+x] = d;
+				if( y > height*4/5 )
+					left.set(x, y, 100 + left.get(x,y)/40);
+			}
+		}
+
+		// render the right image, with closer surfaces occluding ones further away
+		GImageMiscOps.fillUniform(right, rand, 0, 255);
+		int closest[] = new int[width*height];
+		for( int y = 0; y < height; y++ ) {
+			for( int x = 0; x < width; x++ ) {
+				int d = truth[y*width+x];
+				int xr = x - d;
+				if( xr >= 0 && d >= closest[y*width+xr] ) {
+					closest[y*width+xr] = d;
+					right.set(xr, y, left.get(x,y));
+				}
+			}
+		}
+		GImageMiscOps.addGaussian(right, rand, 3, 0, 255);
+
+		System.out.println();
+		System.out.println("=========  Accuracy.  Fraction of pixels within one of the true disparity");
+		System.out.println();
+
+		StereoDisparity<ImageUInt8,ImageUInt8> rect = FactoryStereoDisparity.regionWta(
+				DisparityAlgorithms.RECT,min,max,3,3,30,1,0.1,ImageUInt8.class);
+		StereoDisparity<ImageUInt8,ImageUInt8> five = FactoryStereoDisparity.regionWta(
+				DisparityAlgorithms.RECT_FIVE,min,max,2,2,30,1,0.1,ImageUInt8.class);
+
+		printAccuracy("Rect", rect, left, right, truth);
+		printAccuracy("Five", five, left, right, truth);
+		printAccuracy("SGM CENSUS", FactoryStereoDisparity.sgm(
+				new ConfigSgm(min,max,SgmErrorType.CENSUS),ImageUInt8.class), left, right, truth);
+		printAccuracy("SGM ABSOLUTE_DIFFERENCE", FactoryStereoDisparity.sgm(
+				new ConfigSgm(min,max,SgmErrorType.ABSOLUTE_DIFFERENCE),ImageUInt8.class), left, right, truth);
+	}
+
+	private static void printAccuracy( String name , StereoDisparity<ImageUInt8,ImageUInt8> alg ,
+									   ImageUInt8 left , ImageUInt8 right , int truth[] ) {
+		alg.process(left, right);
+		ImageUInt8 disparity = alg.getDisparity();
+
+		int total = 0, correct = 0, invalid = 0;
+		for( int y = 0; y < height; y++ ) {
+			for( int x = max; x < width; x++ ) {
+				total++;
+				int d = disparity.get(x,y);
+				if( d > max-min )
+					invalid++;
+				else if( Math.abs(d + min - truth[y*width+x]) <= 1 )
+					correct++;
+			}
+		}
+		System.out.printf("%-25s correct %5.3f  invalid %5.3f\n", name, correct/(double)total, invalid/(double)total);
+	}
+
 	public static void main( String argsp[ ] ) {
 		System.out.println("=========  Image Size "+ width +" "+height+"  disparity "+max);
 		System.out.println();
@@ -135,6 +296,13 @@ public class BenchmarkDisparityAlgs {
 		ProfileOperation.printOpsPerSec(new EfficientSad_F32(),TEST_TIME);
 		ProfileOperation.printOpsPerSec(new EfficientSubpixelSad(),TEST_TIME);
 		ProfileOperation.printOpsPerSec(new Naive(), TEST_TIME);
+		ProfileOperation.printOpsPerSec(new Sgm(SgmErrorType.CENSUS,8), TEST_TIME);
+		ProfileOperation.printOpsPerSec(new Sgm(SgmErrorType.CENSUS,16), TEST_TIME);
+		ProfileOperation.printOpsPerSec(new Sgm(SgmErrorType.ABSOLUTE_DIFFERENCE,8), TEST_TIME);
+
+		accuracy();
+
+		threadScaling();
 
 	}
 }
@@ -18,13 +18,18 @@
 
 package boofcv.alg.feature.template;
 
+import boofcv.alg.feature.detect.template.TemplateDiffSquared;
+import boofcv.alg.feature.detect.template.TemplateIntensityIntegral;
 import boofcv.alg.feature.detect.template.TemplateMatchingIntensity;
+import boofcv.alg.feature.detect.template.TemplateNCC;
 import boofcv.alg.misc.GImageMiscOps;
+import boofcv.concurrency.BoofConcurrency;
 import boofcv.core.image.GeneralizedImageOps;
 import boofcv.factory.feature.detect.template.FactoryTemplateMatching;
 import boofcv.factory.feature.detect.template.TemplateScoreType;
 import boofcv.misc.Performer;
 import boofcv.misc.ProfileOperation;
+import boofcv.struct.ImageRectangle;
 import boofcv.struct.image.ImageFloat32;
 import boofcv.struct.image.ImageSingleBand;
 import boofcv.struct.image.ImageUInt8;
@@ -34,6 +39,7 @@ import java.util.Random;
 /**
  * @author Peter Abeles
  */
+@SuppressWarnings("unchecked")
 public class BenchmarkTemplateIntensity<T extends ImageSingleBand> {
 
 	Random rand = new Random(234);
@@ -46,10 +52,10 @@ public class BenchmarkTemplateIntensity<T extends ImageSingleBand> {
 	T image;
 	T template;
 
-	public BenchmarkTemplateIntensity(Class<T> imageType) {
+	public BenchmarkTemplateIntensity(Class<T> imageType, int templateWidth , int templateHeight ) {
 		this.imageType = imageType;
 		image = GeneralizedImageOps.createSingleBand(imageType,width,height);
-		template = GeneralizedImageOps.createSingleBand(imageType,20,30);
+		template = GeneralizedImageOps.createSingleBand(imageType,templateWidth,templateHeight);
 
 		GImageMiscOps.fillUniform(image, rand, 0, 200);
 		GImageMiscOps.fillUniform(template, rand, 0, 200);
@@ -60,14 +66,28 @@ public class BenchmarkTemplateIntensity<T extends ImageSingleBand> {
 		TemplateMatchingIntensity<T> alg;
 		String name;
 
+		boolean concurrent;
+
 		public TemplatePerformer(TemplateScoreType type) {
-			this.alg = FactoryTemplateMatching.createIntensity(type,imageType);
-			this.name = type.toString();
+			this(FactoryTemplateMatching.createIntensity(type,imageType),type.toString());
+		}
+
+		public TemplatePerformer(TemplateMatchingIntensity<T> alg, String name) {
+			this.alg = alg;
+			this.name = name;
+		}
+
+		public TemplatePerformer concurrent() {
+			concurrent = true;
+			name += " Concurrent";
+			return this;
 		}
 
 		@Override
 		public void process() {
+			BoofConcurrency.USE_CONCURRENT = concurrent;
 			alg.process(image,template);
+			BoofConcurrency.USE_CONCURRENT = false;
 		}
 
 		@Override
@@ -78,21 +98,46 @@ public class BenchmarkTemplateIntensity<T extends ImageSingleBand> {
 
 	public void evaluateAll() {
 		System.out.println("=========  Profile Image Size " + width + " x " + height + " ========== "+imageType.getSimpleName());
+		System.out.println("           Template Size " + template.width + " x " + template.height);
 		System.out.println();
 
 		ProfileOperation.printOpsPerSec(new TemplatePerformer(TemplateScoreType.SUM_DIFF_SQ), TEST_TIME);
 		ProfileOperation.printOpsPerSec(new TemplatePerformer(TemplateScoreType.NCC), TEST_TIME);
+		ProfileOperation.printOpsPerSec(new TemplatePerformer(TemplateScoreType.NCC).concurrent(), TEST_TIME);
+		ProfileOperation.printOpsPerSec(new TemplatePerformer(createDirect(TemplateScoreType.SUM_DIFF_SQ),"SUM_DIFF_SQ Direct"), TEST_TIME);
+		ProfileOperation.printOpsPerSec(new TemplatePerformer(createDirect(TemplateScoreType.NCC),"NCC Direct"), TEST_TIME);
+
+		// only search inside a small region
+		TemplateIntensityIntegral<T> roi = (TemplateIntensityIntegral<T>)
+				FactoryTemplateMatching.createIntensity(TemplateScoreType.NCC,imageType);
+		roi.setSearchRegion(new ImageRectangle(width/4,height/4,width/2,height/2));
+		ProfileOperation.printOpsPerSec(new TemplatePerformer(roi,"NCC Region"), TEST_TIME);
+	}
+
+	/**
+	 * Creates the implementations which compute every score directly
+	 */
+	private TemplateMatchingIntensity<T> createDirect( TemplateScoreType type ) {
+		boolean isU8 = imageType == ImageUInt8.class;
+		if( type == TemplateScoreType.SUM_DIFF_SQ )
+			return (TemplateMatchingIntensity<T>)(isU8 ? new TemplateDiffSquared.U8() : new TemplateDiffSquared.F32());
+		else
+			return (TemplateMatchingIntensity<T>)(isU8 ? new TemplateNCC.U8() : new TemplateNCC.F32());
 	}
 
 	public static void main( String args[] ) {
 		BenchmarkTemplateIntensity<ImageUInt8>
-				benchmark_U8 = new BenchmarkTemplateIntensity<ImageUInt8>(ImageUInt8.class);
+				benchmark_U8 = new BenchmarkTemplateIntensity<ImageUInt8>(ImageUInt8.class,20,30);
 
 		benchmark_U8.evaluateAll();
 
 		BenchmarkTemplateIntensity<ImageFloat32>
-				benchmark_F32 = new BenchmarkTemplateIntensity<ImageFloat32>(ImageFloat32.class);
+				benchmark_F32 = new BenchmarkTemplateIntensity<ImageFloat32>(ImageFloat32.class,20,30);
 
 		benchmark_F32.evaluateAll();
+
+		benchmark_U8 = new BenchmarkTemplateIntensity<ImageUInt8>(ImageUInt8.class,64,64);
+
+		benchmark_U8.evaluateAll();
 	}
 }
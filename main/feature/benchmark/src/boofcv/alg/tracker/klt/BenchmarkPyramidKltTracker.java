@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.tracker.klt;
+
+import boofcv.abst.filter.derivative.ImageGradient;
+import boofcv.alg.filter.blur.BlurImageOps;
+import boofcv.alg.misc.GImageMiscOps;
+import boofcv.alg.transform.pyramid.PyramidOps;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.factory.filter.derivative.FactoryDerivative;
+import boofcv.factory.interpolate.FactoryInterpolation;
+import boofcv.factory.transform.pyramid.FactoryPyramid;
+import boofcv.misc.PerformerBase;
+import boofcv.misc.ProfileOperation;
+import boofcv.struct.image.ImageFloat32;
+import boofcv.struct.pyramid.PyramidDiscrete;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Benchmarks tracking a list of features with {@link PyramidKltTracker} as the number of threads is changed.
+ *
+ * @author Peter Abeles
+ */
+public class BenchmarkPyramidKltTracker {
+	static final long TEST_TIME = 1000;
+	static final Random rand = new Random(234234);
+
+	static final int width = 1280;
+	static final int height = 720;
+	static final int numFeatures = 2500;
+	static final int featureRadius = 3;
+
+	static PyramidDiscrete<ImageFloat32> pyramid;
+	static ImageFloat32[] derivX;
+	static ImageFloat32[] derivY;
+
+	public static class TrackList extends PerformerBase {
+		int numThreads;
+		PyramidKltTracker<ImageFloat32,ImageFloat32> tracker;
+		List<PyramidKltFeature> features = new ArrayList<PyramidKltFeature>();
+		float[] initial = new float[numFeatures*2];
+		KltTrackFault[] faults = new KltTrackFault[numFeatures];
+
+		public TrackList(int numThreads) {
+			this.numThreads = numThreads;
+
+			KltTracker<ImageFloat32,ImageFloat32> klt = new KltTracker<ImageFloat32,ImageFloat32>(
+					FactoryInterpolation.bilinearRectangle(ImageFloat32.class),
+					FactoryInterpolation.bilinearRectangle(ImageFloat32.class),
+					KltConfig.createDefault());
+			tracker = new PyramidKltTracker<ImageFloat32,ImageFloat32>(klt);
+			tracker.setImage(pyramid,derivX,derivY);
+
+			// spread the features out across the image and offset them from where they were described
+			Random rand = new Random(234);
+			for( int i = 0; i < numFeatures; i++ ) {
+				PyramidKltFeature f = new PyramidKltFeature(pyramid.getNumLayers(),featureRadius);
+				f.setPosition(20 + rand.nextFloat()*(width-40), 20 + rand.nextFloat()*(height-40));
+				tracker.setDescription(f);
+				initial[i*2] = f.x + rand.nextFloat()*4-2;
+				initial[i*2+1] = f.y + rand.nextFloat()*4-2;
+				features.add(f);
+			}
+		}
+
+		@Override
+		public void process() {
+			for( int i = 0; i < numFeatures; i++ ) {
+				PyramidKltFeature f = features.get(i);
+				f.setPosition(initial[i*2],initial[i*2+1]);
+				f.maxLayer = pyramid.getNumLayers()-1;
+			}
+			tracker.track(features,faults,false);
+		}
+
+		@Override
+		public String getName() {
+			return "Threads "+numThreads;
+		}
+	}
+
+	public static void main( String args[] ) {
+		ImageFloat32 noise = new ImageFloat32(width,height);
+		ImageFloat32 image = new ImageFloat32(width,height);
+		GImageMiscOps.fillUniform(noise, rand, 0, 255);
+		BlurImageOps.gaussian(noise, image, -1, 3, null);
+
+		pyramid = FactoryPyramid.discreteGaussian(new int[]{1,2,4,8},-1,2,true,ImageFloat32.class);
+		pyramid.process(image);
+		derivX = PyramidOps.declareOutput(pyramid,ImageFloat32.class);
+		derivY = PyramidOps.declareOutput(pyramid,ImageFloat32.class);
+		ImageGradient<ImageFloat32,ImageFloat32> gradient =
+				FactoryDerivative.sobel(ImageFloat32.class,ImageFloat32.class);
+		PyramidOps.gradient(pyramid,gradient,derivX,derivY);
+
+		int maxThreads = Runtime.getRuntime().availableProcessors();
+
+		System.out.println("=========  Image Size "+width+" "+height+"  features "+numFeatures+
+				"  processors "+maxThreads);
+		System.out.println();
+
+		ProfileOperation.printOpsPerSec(new TrackList(1),TEST_TIME);
+
+		BoofConcurrency.USE_CONCURRENT = true;
+		for( int numThreads = 2; numThreads <= maxThreads; numThreads *= 2 ) {
+			BoofConcurrency.setMaxThreads(numThreads);
+			ProfileOperation.printOpsPerSec(new TrackList(numThreads),TEST_TIME);
+		}
+	}
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.abst.feature.associate;
+
+import boofcv.alg.feature.associate.FindUnassociated;
+import boofcv.alg.feature.associate.HammingMultiIndex;
+import boofcv.struct.feature.AssociatedIndex;
+import boofcv.struct.feature.MatchScoreType;
+import boofcv.struct.feature.TupleDesc_B;
+import org.ddogleg.struct.FastQueue;
+import org.ddogleg.struct.GrowQueue_I32;
+
+/**
+ * Associates binary descriptors using {@link HammingMultiIndex}.  Destination features are added to the index
+ * and each source feature is matched to the destination feature with the smallest Hamming distance.  The results
+ * are identical to brute force greedy association using {@link ScoreAssociateHamming_B} without backwards
+ * validation, but only a fraction of the destination features are examined when there is a good match.
+ * The fit score is the Hamming distance.
+ *
+ * @author Peter Abeles
+ */
+public class AssociateHammingMultiIndex implements AssociateDescription<TupleDesc_B> {
+
+	private HammingMultiIndex index;
+
+	// references to input lists
+	private FastQueue<TupleDesc_B> listSrc;
+	private FastQueue<TupleDesc_B> listDst;
+
+	// maximum allowed Hamming distance, inclusive
+	private int maxDistance = Integer.MAX_VALUE;
+
+	private FastQueue<AssociatedIndex> matches = new FastQueue<AssociatedIndex>(100,AssociatedIndex.class,true);
+
+	// indexes of unassociated features
+	private GrowQueue_I32 unassocSrc = new GrowQueue_I32();
+	// creates a list of unassociated features from the list of matches
+	private FindUnassociated unassociated = new FindUnassociated();
+
+	/**
+	 * Specifies the index
+	 *
+	 * @param index Used to search for the closest destination feature.
+	 */
+	public AssociateHammingMultiIndex( HammingMultiIndex index ) {
+		this.index = index;
+	}
+
+	@Override
+	public void setSource(FastQueue<TupleDesc_B> listSrc) {
+		this.listSrc = listSrc;
+	}
+
+	@Override
+	public void setDestination(FastQueue<TupleDesc_B> listDst) {
+		this.listDst = listDst;
+
+		// after a reset, indexes are assigned in the order descriptors are added
+		index.reset();
+		for( int i = 0; i < listDst.size; i++ ) {
+			index.add(listDst.data[i]);
+		}
+	}
+
+	@Override
+	public void associate() {
+		matches.reset();
+		unassocSrc.reset();
+
+		for( int i = 0; i < listSrc.size; i++ ) {
+			if( index.searchNearest(listSrc.data[i],1,maxDistance) == 0 ) {
+				unassocSrc.add(i);
+			} else {
+				matches.grow().setAssociation(i,index.getResultIndex().get(0),index.getResultDistance().get(0));
+			}
+		}
+	}
+
+	@Override
+	public FastQueue<AssociatedIndex> getMatches() {
+		return matches;
+	}
+
+	@Override
+	public GrowQueue_I32 getUnassociatedSource() {
+		return unassocSrc;
+	}
+
+	@Override
+	public GrowQueue_I32 getUnassociatedDestination() {
+		return unassociated.checkDestination(matches,listDst.size);
+	}
+
+	/**
+	 * Matches must have a Hamming distance less than the threshold
+	 */
+	@Override
+	public void setThreshold(double score) {
+		if( score >= Integer.MAX_VALUE )
+			maxDistance = Integer.MAX_VALUE;
+		else
+			maxDistance = (int)Math.ceil(score)-1;
+	}
+
+	@Override
+	public MatchScoreType getScoreType() {
+		return MatchScoreType.NORM_ERROR;
+	}
+
+	@Override
+	public boolean uniqueSource() {
+		return true;
+	}
+
+	@Override
+	public boolean uniqueDestination() {
+		return false;
+	}
+
+	public HammingMultiIndex getIndex() {
+		return index;
+	}
+}
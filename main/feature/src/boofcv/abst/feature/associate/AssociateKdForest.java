@@ -0,0 +1,248 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.abst.feature.associate;
+
+import boofcv.alg.feature.associate.FindUnassociated;
+import boofcv.alg.feature.associate.RandomKdForest;
+import boofcv.struct.feature.AssociatedIndex;
+import boofcv.struct.feature.MatchScoreType;
+import boofcv.struct.feature.TupleDesc;
+import boofcv.struct.feature.TupleDesc_F32;
+import boofcv.struct.feature.TupleDesc_F64;
+import org.ddogleg.struct.FastQueue;
+import org.ddogleg.struct.GrowQueue_I32;
+
+/**
+ * <p>
+ * Approximate association of {@link TupleDesc_F64} and {@link TupleDesc_F32} descriptors using a forest of
+ * randomized K-D trees, see {@link RandomKdForest}.  A forest is constructed from the destination features and
+ * each source feature is matched to its approximate nearest neighbor, making it much faster than
+ * {@link WrapAssociateGreedy} for large sets of features.  Unlike the greedy algorithm no matrix containing
+ * every possible score is stored.  The fit score is the Euclidean distance.
+ * </p>
+ *
+ * <p>
+ * Optionally, a ratio test and backwards validation can be applied.  The ratio test rejects a match if
+ * the distance to the best match divided by the distance to the second best is more than the specified ratio.
+ * Backwards validation constructs a second forest from the source features and rejects a match if the
+ * destination feature's nearest neighbor isn't the source feature which matched it.
+ * </p>
+ *
+ * <p>
+ * Descriptors are copied into a packed array of doubles when the source and destination are specified.
+ * </p>
+ *
+ * @param <D> Feature description type.
+ *
+ * @author Peter Abeles
+ */
+public class AssociateKdForest<D extends TupleDesc> implements AssociateDescription<D> {
+
+	// nearest neighbor search for destination and source features
+	private RandomKdForest forestDst;
+	private RandomKdForest forestSrc;
+
+	// maximum number of points which are checked in a search
+	private int maxChecks;
+	// ratio between the best and second best distance.  1.0 = disabled
+	private double ratioTest;
+	// if true backwards validation is done
+	private boolean backwardsValidation;
+
+	// maximum distance away two points can be
+	private double maxDistance = Double.MAX_VALUE;
+
+	// references to input lists
+	private FastQueue<D> listSrc;
+	private FastQueue<D> listDst;
+
+	// descriptors copied into packed arrays
+	private double[] packedSrc = new double[0];
+	private double[] packedDst = new double[0];
+	private int N;
+
+	// true if the source forest needs to be constructed
+	private boolean dirtySrc;
+
+	// cache of backwards matches for each dst. -2 = not computed yet
+	private int[] backwards = new int[0];
+
+	private FastQueue<AssociatedIndex> matches = new FastQueue<AssociatedIndex>(100,AssociatedIndex.class,true);
+
+	// indexes of unassociated features
+	private GrowQueue_I32 unassocSrc = new GrowQueue_I32();
+	// creates a list of unassociated features from the list of matches
+	private FindUnassociated unassociated = new FindUnassociated();
+
+	/**
+	 * Configures association
+	 *
+	 * @param maxChecks Maximum number of features which are checked when searching.  Controls speed and accuracy.
+	 * @param numTrees Number of trees in the forest.  Try 4 to 8.
+	 * @param numConsiderSplit Number of axes with the largest variance which the split is randomly selected from.  Try 5.
+	 * @param ratioTest Maximum allowed ratio between the best and second best match distance.  Try 0.8.
+	 *                  Set to 1.0 to disable.
+	 * @param backwardsValidation If true then backwards validation is performed.
+	 * @param randomSeed Seed for the random number generator.
+	 */
+	public AssociateKdForest(int maxChecks, int numTrees, int numConsiderSplit,
+							 double ratioTest, boolean backwardsValidation, long randomSeed ) {
+		if( ratioTest <= 0 || ratioTest > 1 )
+			throw new IllegalArgumentException("ratioTest must be more than zero and less than or equal to one");
+		this.maxChecks = maxChecks;
+		this.ratioTest = ratioTest;
+		this.backwardsValidation = backwardsValidation;
+
+		forestDst = new RandomKdForest(numTrees,numConsiderSplit,randomSeed);
+		if( backwardsValidation )
+			forestSrc = new RandomKdForest(numTrees,numConsiderSplit,randomSeed+1);
+	}
+
+	@Override
+	public void setSource(FastQueue<D> listSrc) {
+		this.listSrc = listSrc;
+		packedSrc = pack(listSrc,packedSrc);
+		dirtySrc = true;
+	}
+
+	@Override
+	public void setDestination(FastQueue<D> listDst) {
+		this.listDst = listDst;
+		packedDst = pack(listDst,packedDst);
+		forestDst.setPoints(packedDst,listDst.size,N);
+	}
+
+	/**
+	 * Copies the descriptors into a packed array, declaring a new array if needed
+	 */
+	private double[] pack( FastQueue<D> list , double[] packed ) {
+		if( list.size == 0 )
+			return packed;
+
+		N = list.data[0].size();
+		if( packed.length < list.size*N )
+			packed = new double[list.size*N];
+
+		for( int i = 0, index = 0; i < list.size; i++ , index += N ) {
+			D d = list.data[i];
+			if( d instanceof TupleDesc_F64 ) {
+				System.arraycopy(((TupleDesc_F64)d).value,0,packed,index,N);
+			} else if( d instanceof TupleDesc_F32 ) {
+				float[] value = ((TupleDesc_F32)d).value;
+				for( int k = 0; k < N; k++ ) {
+					packed[index+k] = value[k];
+				}
+			} else {
+				for( int k = 0; k < N; k++ ) {
+					packed[index+k] = d.getDouble(k);
+				}
+			}
+		}
+
+		return packed;
+	}
+
+	@Override
+	public void associate() {
+		matches.reset();
+		unassocSrc.reset();
+
+		if( backwardsValidation ) {
+			if( dirtySrc ) {
+				forestSrc.setPoints(packedSrc,listSrc.size,N);
+				dirtySrc = false;
+			}
+			if( backwards.length < listDst.size )
+				backwards = new int[listDst.size];
+			for( int i = 0; i < listDst.size; i++ ) {
+				backwards[i] = -2;
+			}
+		}
+
+		double ratioSq = ratioTest*ratioTest;
+
+		for( int i = 0; i < listSrc.size; i++ ) {
+			if( !forestDst.search(packedSrc,i*N,maxChecks) ) {
+				unassocSrc.add(i);
+				continue;
+			}
+
+			int dst = forestDst.getBestIndex();
+			double distance = Math.sqrt(forestDst.getBestDistanceSq());
+
+			if( distance >= maxDistance ||
+					(ratioTest < 1 && forestDst.getBestDistanceSq() > ratioSq*forestDst.getSecondDistanceSq()) ||
+					(backwardsValidation && lookupBackwards(dst) != i) ) {
+				unassocSrc.add(i);
+				continue;
+			}
+
+			matches.grow().setAssociation(i,dst,distance);
+		}
+	}
+
+	/**
+	 * Finds the nearest source feature to the destination feature.  Results are cached since a destination
+	 * feature can be the best match for several source features.
+	 */
+	private int lookupBackwards( int dst ) {
+		if( backwards[dst] == -2 ) {
+			if( forestSrc.search(packedDst,dst*N,maxChecks) )
+				backwards[dst] = forestSrc.getBestIndex();
+			else
+				backwards[dst] = -1;
+		}
+		return backwards[dst];
+	}
+
+	@Override
+	public FastQueue<AssociatedIndex> getMatches() {
+		return matches;
+	}
+
+	@Override
+	public GrowQueue_I32 getUnassociatedSource() {
+		return unassocSrc;
+	}
+
+	@Override
+	public GrowQueue_I32 getUnassociatedDestination() {
+		return unassociated.checkDestination(matches,listDst.size);
+	}
+
+	@Override
+	public void setThreshold(double score) {
+		this.maxDistance = score;
+	}
+
+	@Override
+	public MatchScoreType getScoreType() {
+		return MatchScoreType.NORM_ERROR;
+	}
+
+	@Override
+	public boolean uniqueSource() {
+		return true;
+	}
+
+	@Override
+	public boolean uniqueDestination() {
+		return backwardsValidation;
+	}
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.abst.feature.associate;
+
+import boofcv.struct.feature.MatchScoreType;
+import boofcv.struct.feature.PackedTupleDesc;
+
+/**
+ * Scores the fit quality between two descriptors inside of {@link PackedTupleDesc} sets.  Same as
+ * {@link ScoreAssociation} but descriptors are referred to by their index, so no object is needed
+ * for each descriptor.  A lower score always indicates a better match.
+ *
+ * @param <P> Type of packed descriptor set.
+ *
+ * @author Peter Abeles
+ */
+public interface ScoreAssociatePacked<P extends PackedTupleDesc> {
+
+	/**
+	 * Compute the fit score between the two features.  A better fit score will have a lower value.
+	 *
+	 * @param a Set containing the first feature
+	 * @param indexA Index of the first feature
+	 * @param b Set containing the second feature
+	 * @param indexB Index of the second feature
+	 * @return Quality of fit score.  Lower is better.
+	 */
+	public double score( P a , int indexA , P b , int indexB );
+
+	/**
+	 * Specifies the type of score which is returned.
+	 *
+	 * @return Type of association score.
+	 */
+	public MatchScoreType getScoreType();
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.abst.feature.associate;
+
+import boofcv.alg.feature.associate.DescriptorDistance;
+import boofcv.struct.feature.MatchScoreType;
+import boofcv.struct.feature.PackedTupleDesc_F64;
+
+/**
+ * Scores packed descriptors based on Euclidean distance squared
+ *
+ * @see {@link DescriptorDistance#euclideanSq(double[], int, double[], int, int)}
+ *
+ * @author Peter Abeles
+ */
+public class ScoreAssociatePackedEuclideanSq_F64 implements ScoreAssociatePacked<PackedTupleDesc_F64> {
+	@Override
+	public double score(PackedTupleDesc_F64 a, int indexA, PackedTupleDesc_F64 b, int indexB) {
+		return DescriptorDistance.euclideanSq(a.data, indexA*a.stride, b.data, indexB*b.stride, a.stride);
+	}
+
+	@Override
+	public MatchScoreType getScoreType() {
+		return MatchScoreType.NORM_ERROR;
+	}
+}
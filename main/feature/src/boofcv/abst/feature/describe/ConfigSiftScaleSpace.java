@@ -45,6 +45,10 @@ public class ConfigSiftScaleSpace implements Configuration {
 	 * Should the input image be doubled? Try false.
 	 */
 	public boolean doubleInputImage = false;
+	/**
+	 * If true a recursive approximation of Gaussian blur is used, which is faster for large amounts of blur.
+	 */
+	public boolean recursiveBlur = false;
 
 	public ConfigSiftScaleSpace(float blurSigma, int numScales, int numOctaves, boolean doubleInputImage) {
 		this.blurSigma = blurSigma;
@@ -18,21 +18,21 @@
 
 package boofcv.abst.feature.detect.intensity;
 
-import boofcv.alg.feature.detect.intensity.FastCornerIntensity;
+import boofcv.alg.feature.detect.intensity.FastCornerInterface;
 import boofcv.struct.QueueCorner;
 import boofcv.struct.image.ImageSingleBand;
 
 /**
- * Wrapper around children of {@link boofcv.alg.feature.detect.intensity.FastCornerIntensity}.
- * 
+ * Wrapper around implementations of {@link FastCornerInterface}.
+ *
  * @author Peter Abeles
  */
 public class WrapperFastCornerIntensity<I extends ImageSingleBand, D extends ImageSingleBand>
 		extends BaseGeneralFeatureIntensity<I,D>
 {
-	FastCornerIntensity<I> alg;
+	FastCornerInterface<I> alg;
 
-	public WrapperFastCornerIntensity(FastCornerIntensity<I> alg) {
+	public WrapperFastCornerIntensity(FastCornerInterface<I> alg) {
 		this.alg = alg;
 	}
 
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.abst.feature.disparity;
+
+import boofcv.factory.feature.disparity.SgmErrorType;
+import boofcv.struct.Configuration;
+
+/**
+ * Configuration for Semi-Global Matching (SGM) dense stereo disparity.
+ *
+ * @see boofcv.alg.feature.disparity.SgmStereoDisparity
+ *
+ * @author Peter Abeles
+ */
+public class ConfigSgm implements Configuration {
+
+	/**
+	 * Minimum disparity that it will check. Must be &ge; 0 and &lt; maxDisparity
+	 */
+	public int minDisparity = 0;
+
+	/**
+	 * Maximum disparity that it will calculate, exclusive.  (maxDisparity-minDisparity) must be &le; 254.
+	 */
+	public int maxDisparity = 64;
+
+	/**
+	 * Matching cost between two pixels.
+	 */
+	public SgmErrorType errorType = SgmErrorType.CENSUS;
+
+	/**
+	 * Radius of the region used to compute the matching cost.  For census the region can have at most 64 pixels
+	 * excluding the center, e.g. radius 3.  For absolute difference it can be zero.
+	 */
+	public int errorRadius = 2;
+
+	/**
+	 * Penalty for a change in disparity of one between neighboring pixels.  If &lt; 0 then a value appropriate
+	 * for the error type is selected.
+	 */
+	public int penaltySmall = -1;
+
+	/**
+	 * Penalty for a change in disparity of more than one between neighboring pixels.  If &lt; 0 then a value
+	 * appropriate for the error type is selected.
+	 */
+	public int penaltyLarge = -1;
+
+	/**
+	 * Number of paths the cost is aggregated along.  8 or 16.
+	 */
+	public int paths = 8;
+
+	/**
+	 * Tolerance for how different the left to right associated values can be.  Disable with a value &lt; 0.
+	 */
+	public int validateRtoL = 1;
+
+	/**
+	 * Tolerance for how similar the best cost is to the second best.  Disable with a value &le; 0.
+	 */
+	public double uniqueness = 0.05;
+
+	/**
+	 * Number of rows processed at once.  Bounds memory usage.  If &le; 0 the whole image is processed at once,
+	 * which requires width*height*(maxDisparity-minDisparity)*4 bytes.
+	 */
+	public int bandHeight = 96;
+
+	/**
+	 * Number of rows each band is extended above and below.  Larger values more closely approximate processing
+	 * the whole image at once.
+	 */
+	public int bandOverlap = 16;
+
+	public ConfigSgm(int minDisparity, int maxDisparity, SgmErrorType errorType) {
+		this.minDisparity = minDisparity;
+		this.maxDisparity = maxDisparity;
+		this.errorType = errorType;
+	}
+
+	public ConfigSgm() {
+	}
+
+	@Override
+	public void checkValidity() {
+		if( minDisparity < 0 || minDisparity >= maxDisparity )
+			throw new IllegalArgumentException("Min disparity must be >= 0 and < maxDisparity");
+		if( maxDisparity - minDisparity > 254 )
+			throw new IllegalArgumentException("The range of disparities must be less than 255");
+		if( paths != 8 && paths != 16 )
+			throw new IllegalArgumentException("Number of paths must be 8 or 16");
+		if( errorRadius < 0 )
+			throw new IllegalArgumentException("Error radius must be >= 0");
+		if( bandOverlap < 0 )
+			throw new IllegalArgumentException("Band overlap must be >= 0");
+	}
+}
@@ -21,7 +21,8 @@ package boofcv.alg.feature;
 import boofcv.abst.feature.describe.DescribeRegionPoint;
 import boofcv.abst.feature.detdesc.DetectDescribeMulti;
 import boofcv.abst.feature.detdesc.DetectDescribePoint;
-import boofcv.struct.feature.TupleDesc;
+import boofcv.abst.feature.describe.DescriptorInfo;
+import boofcv.struct.feature.*;
 import org.ddogleg.struct.FastQueue;
 
 /**
@@ -75,4 +76,50 @@ public class UtilFeature {
 			}
 		};
 	}
+
+	/**
+	 * Creates a {@link PackedTupleDesc} which can store descriptors computed by the provided algorithm.
+	 *
+	 * @param info Describes the descriptor
+	 * @param initialMax Number of descriptors which can be stored before the array needs to grow
+	 * @return Packed descriptor set
+	 */
+	@SuppressWarnings("unchecked")
+	public static <TD extends TupleDesc>
+	PackedTupleDesc<TD> createPacked( DescriptorInfo<TD> info , int initialMax ) {
+		Class<TD> type = info.getDescriptionType();
+		TD example = info.createDescription();
+
+		if( type == TupleDesc_F64.class ) {
+			return (PackedTupleDesc)new PackedTupleDesc_F64(example.size(),initialMax);
+		} else if( type == TupleDesc_F32.class ) {
+			return (PackedTupleDesc)new PackedTupleDesc_F32(example.size(),initialMax);
+		} else if( type == TupleDesc_B.class ) {
+			return (PackedTupleDesc)new PackedTupleDesc_B(example.size(),initialMax);
+		} else {
+			throw new IllegalArgumentException("No packed set for descriptor type "+type.getSimpleName());
+		}
+	}
+
+	/**
+	 * Describes the point and adds the descriptor to the end of the packed set.  The same storage descriptor can be
+	 * used for every point, so no memory is declared for each feature.
+	 *
+	 * @param alg Computes the descriptor
+	 * @param x Coordinate of the point.
+	 * @param y Coordinate of the point.
+	 * @param orientation Direction the feature is pointing at in radians.
+	 * @param scale Scale at which the feature was found.
+	 * @param work Storage for the descriptor before it's copied into the set.
+	 * @param output (output) The descriptor is appended to this set if successful
+	 * @return true if a descriptor was computed and added to the set
+	 */
+	public static <TD extends TupleDesc>
+	boolean describe( DescribeRegionPoint<?,TD> alg , double x , double y , double orientation , double scale ,
+					  TD work , PackedTupleDesc<TD> output ) {
+		if( !alg.process(x,y,orientation,scale,work) )
+			return false;
+		output.append(work);
+		return true;
+	}
 }
@@ -0,0 +1,244 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.feature.associate;
+
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeTask;
+import boofcv.concurrency.WorkerPool;
+import org.ddogleg.struct.GrowQueue_F64;
+import org.ddogleg.struct.GrowQueue_I32;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Greedy association engine used by {@link AssociateGreedyStreaming} and {@link AssociateGreedyPacked}.  Features
+ * are referred to by their index and scored by {@link #score(int, int)}, which lets each variant access its
+ * descriptors directly without wrapping indexes in objects.  See {@link AssociateGreedyStreaming} for a
+ * description of the algorithm.
+ *
+ * @author Peter Abeles
+ */
+abstract class AssociateGreedyBlocks {
+
+	// number of source and destination features in a block
+	private int blockSrc;
+	private int blockDst;
+
+	// if true backwardsValidation is done
+	private boolean backwardsValidation;
+
+	// maximum allowed ratio between the best and second best score.  1.0 = disabled
+	private double ratioTest = 1.0;
+
+	// output.  quality of fit score and index of the associated destination feature
+	private GrowQueue_F64 fitQuality;
+	private GrowQueue_I32 pairs;
+
+	// score of the second best match for each source feature
+	private double[] secondRow = new double[0];
+
+	// best and second best score for each destination feature after the results of all threads are merged
+	private BestColumnScores columns = new BestColumnScores();
+
+	// column results for each thread.  Contains all which have been used during the current call
+	private final List<BestColumnScores> active = new ArrayList<BestColumnScores>();
+	private final WorkerPool<BestColumnScores> available = new WorkerPool<BestColumnScores>() {
+		@Override
+		protected BestColumnScores createInstance() {
+			return new BestColumnScores();
+		}
+	};
+
+	// number of destination features in the current call
+	private int numDst;
+
+	/**
+	 * Configure association
+	 *
+	 * @param backwardsValidation If true then backwards validation is performed.
+	 * @param blockSrc Number of source features in a block.
+	 * @param blockDst Number of destination features in a block.
+	 * @param fitQuality Storage for the fit score of each source feature.
+	 * @param pairs Storage for the matching destination index of each source feature.
+	 */
+	protected AssociateGreedyBlocks(boolean backwardsValidation, int blockSrc, int blockDst,
+									GrowQueue_F64 fitQuality, GrowQueue_I32 pairs) {
+		if( blockSrc <= 0 || blockDst <= 0 )
+			throw new IllegalArgumentException("Block sizes must be more than zero");
+		this.backwardsValidation = backwardsValidation;
+		this.blockSrc = blockSrc;
+		this.blockDst = blockDst;
+		this.fitQuality = fitQuality;
+		this.pairs = pairs;
+	}
+
+	/**
+	 * Computes the fit score between two features.  Must be thread safe if concurrency is turned on.
+	 *
+	 * @param indexSrc Index of the source feature.
+	 * @param indexDst Index of the destination feature.
+	 * @return Fit score.  Lower is better.
+	 */
+	protected abstract double score( int indexSrc , int indexDst );
+
+	/**
+	 * Associates every source feature against every destination feature.
+	 *
+	 * @param numSrc Number of source features.
+	 * @param numDst Number of destination features.
+	 * @param maxFitError Worst allowed fit score to associate.
+	 */
+	public void associate( int numSrc , int numDst , final double maxFitError ) {
+		this.numDst = numDst;
+
+		fitQuality.reset();
+		pairs.reset();
+		fitQuality.resize(numSrc);
+		pairs.resize(numSrc);
+		if( secondRow.length < numSrc )
+			secondRow = new double[numSrc];
+
+		if( BoofConcurrency.USE_CONCURRENT ) {
+			BoofConcurrency.loopBlocks(0,numSrc,blockSrc,new IntRangeTask() {
+				@Override
+				public void process(int start, int end) {
+					BestColumnScores c = borrow();
+					processRows(start,end,c,maxFitError);
+				}
+			});
+			// merge the column results from each thread
+			columns.reset(numDst);
+			for( int i = 0; i < active.size(); i++ ) {
+				columns.merge(active.get(i),numDst);
+			}
+			for( int i = 0; i < active.size(); i++ ) {
+				available.release(active.get(i));
+			}
+			active.clear();
+		} else {
+			columns.reset(numDst);
+			processRows(0,numSrc,columns,maxFitError);
+		}
+
+		for( int i = 0; i < numSrc; i++ ) {
+			int match = pairs.data[i];
+			if( match == -1 )
+				continue;
+
+			double bestScore = fitQuality.data[i];
+			boolean reject = ratioTest < 1.0 && bestScore > ratioTest*secondRow[i];
+
+			// Backwards validation.  No other source feature can have a score as good or better
+			if( !reject && backwardsValidation ) {
+				if( !columns.isValid(match,i,bestScore) )
+					reject = true;
+			}
+
+			if( reject ) {
+				pairs.data[i] = -1;
+				fitQuality.data[i] = Double.MAX_VALUE;
+			}
+		}
+	}
+
+	/**
+	 * Scores source features from start to end against all the destination features, one block at a time
+	 */
+	private void processRows( int start , int end , BestColumnScores c , double maxFitError ) {
+		for( int i = start; i < end; i++ ) {
+			pairs.data[i] = -1;
+			fitQuality.data[i] = Double.MAX_VALUE;
+			secondRow[i] = Double.MAX_VALUE;
+		}
+
+		for( int i0 = start; i0 < end; i0 += blockSrc ) {
+			int i1 = Math.min(end, i0 + blockSrc);
+			for( int j0 = 0; j0 < numDst; j0 += blockDst ) {
+				int j1 = Math.min(numDst, j0 + blockDst);
+
+				for( int i = i0; i < i1; i++ ) {
+					double best = fitQuality.data[i];
+					double second = secondRow[i];
+					int bestIndex = pairs.data[i];
+
+					for( int j = j0; j < j1; j++ ) {
+						double fit = score(i,j);
+
+						if( fit < best ) {
+							second = best;
+							best = fit;
+							bestIndex = j;
+						} else if( fit < second ) {
+							second = fit;
+						}
+
+						if( fit < c.best[j] ) {
+							c.second[j] = c.best[j];
+							c.best[j] = fit;
+							c.bestIndex[j] = i;
+						} else if( fit < c.second[j] ) {
+							c.second[j] = fit;
+						}
+					}
+
+					fitQuality.data[i] = best;
+					secondRow[i] = second;
+					pairs.data[i] = bestIndex;
+				}
+			}
+		}
+
+		// only the best is considered a match and only if it's less than the max error
+		for( int i = start; i < end; i++ ) {
+			if( !(fitQuality.data[i] < maxFitError) ) {
+				pairs.data[i] = -1;
+				fitQuality.data[i] = maxFitError;
+			}
+		}
+	}
+
+	private BestColumnScores borrow() {
+		BestColumnScores c = available.borrow();
+		synchronized ( active ) {
+			active.add(c);
+		}
+		c.reset(numDst);
+		return c;
+	}
+
+	/**
+	 * Specifies the maximum allowed ratio between the best and second best score.
+	 *
+	 * @param ratioTest Ratio from 0 to 1.  Set to 1.0 to disable.
+	 */
+	public void setRatioTest(double ratioTest) {
+		if( ratioTest <= 0 || ratioTest > 1 )
+			throw new IllegalArgumentException("ratioTest must be more than zero and less than or equal to one");
+		this.ratioTest = ratioTest;
+	}
+
+	public double getRatioTest() {
+		return ratioTest;
+	}
+
+	public boolean isBackwardsValidation() {
+		return backwardsValidation;
+	}
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.feature.associate;
+
+import boofcv.abst.feature.associate.ScoreAssociatePacked;
+import boofcv.struct.feature.PackedTupleDesc;
+import org.ddogleg.struct.GrowQueue_F64;
+import org.ddogleg.struct.GrowQueue_I32;
+
+/**
+ * <p>
+ * Brute force greedy association for descriptors stored inside of {@link PackedTupleDesc} sets.  Descriptors are
+ * referred to by their index and scored directly using {@link ScoreAssociatePacked}, using the same blocked
+ * algorithm as {@link AssociateGreedyStreaming}.  Results are identical to {@link AssociateGreedyStreaming}
+ * applied to a list of the same descriptors.
+ * </p>
+ *
+ * @param <P> Type of packed descriptor set.
+ *
+ * @author Peter Abeles
+ */
+public class AssociateGreedyPacked<P extends PackedTupleDesc> {
+
+	// scores descriptors by index
+	private ScoreAssociatePacked<P> score;
+
+	// stores the quality of fit score
+	private GrowQueue_F64 fitQuality = new GrowQueue_F64(100);
+	// stores indexes of associated
+	private GrowQueue_I32 pairs = new GrowQueue_I32(100);
+	// worst allowed fit score to associate
+	private double maxFitError = Double.MAX_VALUE;
+
+	private AssociateGreedyBlocks alg;
+
+	// sets being associated
+	private P src;
+	private P dst;
+
+	/**
+	 * Configure association
+	 *
+	 * @param score Computes the association score.
+	 * @param backwardsValidation If true then backwards validation is performed.
+	 * @param blockSrc Number of source features in a block.  Try 32.
+	 * @param blockDst Number of destination features in a block.  Try 256.
+	 */
+	public AssociateGreedyPacked(ScoreAssociatePacked<P> score, boolean backwardsValidation,
+								 int blockSrc, int blockDst) {
+		this.score = score;
+		alg = new AssociateGreedyBlocks(backwardsValidation,blockSrc,blockDst,fitQuality,pairs) {
+			@Override
+			protected double score(int indexSrc, int indexDst) {
+				return AssociateGreedyPacked.this.score.score(src,indexSrc,dst,indexDst);
+			}
+		};
+	}
+
+	/**
+	 * Associates the two sets objects against each other by minimizing fit score.
+	 *
+	 * @param src Source set.
+	 * @param dst Destination set.
+	 */
+	public void associate( P src , P dst ) {
+		this.src = src;
+		this.dst = dst;
+
+		alg.associate(src.size(),dst.size(),maxFitError);
+	}
+
+	/**
+	 * @see AssociateGreedy#getPairs()
+	 */
+	public int[] getPairs() {
+		return pairs.data;
+	}
+
+	/**
+	 * @see AssociateGreedy#getFitQuality()
+	 */
+	public double[] getFitQuality() {
+		return fitQuality.data;
+	}
+
+	public void setMaxFitError(double maxFitError) {
+		this.maxFitError = maxFitError;
+	}
+
+	/**
+	 * @see AssociateGreedyStreaming#setRatioTest(double)
+	 */
+	public void setRatioTest(double ratioTest) {
+		alg.setRatioTest(ratioTest);
+	}
+
+	public boolean isBackwardsValidation() {
+		return alg.isBackwardsValidation();
+	}
+
+	public ScoreAssociatePacked<P> getScore() {
+		return score;
+	}
+}
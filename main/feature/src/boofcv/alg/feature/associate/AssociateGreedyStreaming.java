@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.feature.associate;
+
+import boofcv.abst.feature.associate.ScoreAssociation;
+import boofcv.concurrency.BoofConcurrency;
+import org.ddogleg.struct.FastQueue;
+
+/**
+ * <p>
+ * Variant of {@link AssociateGreedy} which doesn't store the score of every possible pair.  Instead only the best
+ * and second best score for each source and destination feature is saved, which is all that's needed for backwards
+ * validation and a ratio test, so memory usage is O(N+M) instead of O(N*M).  When the ratio test is disabled the
+ * output is identical to {@link AssociateGreedy}.
+ * </p>
+ *
+ * <p>
+ * Features are compared in blocks so that a block of destination features stays inside the CPU cache while it is
+ * compared against a block of source features.  When {@link BoofConcurrency#USE_CONCURRENT} is true the source
+ * features are split between threads, in which case the {@link ScoreAssociation} must be thread safe.
+ * </p>
+ *
+ * <p>
+ * The ratio test rejects a match if its score divided by the score of the second best match is more than the
+ * specified ratio.  The ratio is applied to the scores directly, which must not be negative.  If the score is the
+ * Euclidean distance squared then the ratio should be squared too.
+ * </p>
+ *
+ * @param <D> Feature description type.
+ *
+ * @author Peter Abeles
+ */
+public class AssociateGreedyStreaming<D> extends AssociateGreedy<D> {
+
+	// scores features by their index in the input lists
+	private AssociateGreedyBlocks alg;
+
+	// references to the input lists
+	private FastQueue<D> src;
+	private FastQueue<D> dst;
+
+	/**
+	 * Configure association
+	 *
+	 * @param score Computes the association score.
+	 * @param backwardsValidation If true then backwards validation is performed.
+	 * @param blockSrc Number of source features in a block.  Try 32.
+	 * @param blockDst Number of destination features in a block.  Try 256.
+	 */
+	public AssociateGreedyStreaming(ScoreAssociation<D> score, boolean backwardsValidation,
+									int blockSrc, int blockDst) {
+		super(score, backwardsValidation);
+		alg = new AssociateGreedyBlocks(backwardsValidation,blockSrc,blockDst,fitQuality,pairs) {
+			@Override
+			protected double score(int indexSrc, int indexDst) {
+				return AssociateGreedyStreaming.this.score.score(src.data[indexSrc],dst.data[indexDst]);
+			}
+		};
+	}
+
+	/**
+	 * Associates the two sets objects against each other by minimizing fit score.
+	 *
+	 * @param src Source list.
+	 * @param dst Destination list.
+	 */
+	@Override
+	public void associate( FastQueue<D> src , FastQueue<D> dst ) {
+		this.src = src;
+		this.dst = dst;
+
+		alg.associate(src.size,dst.size,maxFitError);
+	}
+
+	/**
+	 * Specifies the maximum allowed ratio between the best and second best score.
+	 *
+	 * @param ratioTest Ratio from 0 to 1.  Set to 1.0 to disable.
+	 */
+	public void setRatioTest(double ratioTest) {
+		alg.setRatioTest(ratioTest);
+	}
+
+	public double getRatioTest() {
+		return alg.getRatioTest();
+	}
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.feature.associate;
+
+/**
+ * Best and second best score for each destination feature.  Used by greedy association algorithms which
+ * don't store the score of every possible pair.
+ *
+ * @author Peter Abeles
+ */
+class BestColumnScores {
+	double[] best = new double[0];
+	double[] second = new double[0];
+	int[] bestIndex = new int[0];
+
+	void reset( int size ) {
+		if( best.length < size ) {
+			best = new double[size];
+			second = new double[size];
+			bestIndex = new int[size];
+		}
+		for( int i = 0; i < size; i++ ) {
+			best[i] = Double.MAX_VALUE;
+			second[i] = Double.MAX_VALUE;
+			bestIndex[i] = -1;
+		}
+	}
+
+	/**
+	 * Combines the results of another thread with this one
+	 */
+	void merge( BestColumnScores o , int size ) {
+		for( int i = 0; i < size; i++ ) {
+			if( o.best[i] < best[i] ) {
+				second[i] = Math.min(best[i],o.second[i]);
+				best[i] = o.best[i];
+				bestIndex[i] = o.bestIndex[i];
+			} else {
+				second[i] = Math.min(second[i],o.best[i]);
+			}
+		}
+	}
+
+	/**
+	 * Checks to see if the source feature is a unique best match for the destination feature.  No other
+	 * source feature can have a score as good or better.
+	 */
+	boolean isValid( int dst , int src , double score ) {
+		return bestIndex[dst] == src && second[dst] > score;
+	}
+}
@@ -202,6 +202,106 @@ public class DescriptorDistance {
 		return score;
 	}
 
+	/**
+	 * Returns the Euclidean distance squared between two descriptors inside of packed arrays.
+	 *
+	 * @see boofcv.struct.feature.PackedTupleDesc_F64
+	 *
+	 * @param a Array containing the first descriptor
+	 * @param offsetA Index of the first descriptor's first element
+	 * @param b Array containing the second descriptor
+	 * @param offsetB Index of the second descriptor's first element
+	 * @param N Number of elements in a descriptor
+	 * @return Euclidean distance squared
+	 */
+	public static double euclideanSq( double[] a , int offsetA , double[] b , int offsetB , int N ) {
+		double total = 0;
+		for( int i = 0; i < N; i++ ) {
+			double d = a[offsetA+i]-b[offsetB+i];
+			total += d*d;
+		}
+
+		return total;
+	}
+
+	/**
+	 * Returns the Euclidean distance squared between two descriptors inside of packed arrays.
+	 *
+	 * @see boofcv.struct.feature.PackedTupleDesc_F32
+	 *
+	 * @param a Array containing the first descriptor
+	 * @param offsetA Index of the first descriptor's first element
+	 * @param b Array containing the second descriptor
+	 * @param offsetB Index of the second descriptor's first element
+	 * @param N Number of elements in a descriptor
+	 * @return Euclidean distance squared
+	 */
+	public static double euclideanSq( float[] a , int offsetA , float[] b , int offsetB , int N ) {
+		float total = 0;
+		for( int i = 0; i < N; i++ ) {
+			double d = a[offsetA+i]-b[offsetB+i];
+			total += d*d;
+		}
+
+		return total;
+	}
+
+	/**
+	 * Sum of absolute difference (SAD) score between two descriptors inside of packed arrays.
+	 *
+	 * @param a Array containing the first descriptor
+	 * @param offsetA Index of the first descriptor's first element
+	 * @param b Array containing the second descriptor
+	 * @param offsetB Index of the second descriptor's first element
+	 * @param N Number of elements in a descriptor
+	 * @return SAD score
+	 */
+	public static double sad( double[] a , int offsetA , double[] b , int offsetB , int N ) {
+		double total = 0;
+		for( int i = 0; i < N; i++ ) {
+			total += Math.abs( a[offsetA+i] - b[offsetB+i]);
+		}
+		return total;
+	}
+
+	/**
+	 * Sum of absolute difference (SAD) score between two descriptors inside of packed arrays.
+	 *
+	 * @param a Array containing the first descriptor
+	 * @param offsetA Index of the first descriptor's first element
+	 * @param b Array containing the second descriptor
+	 * @param offsetB Index of the second descriptor's first element
+	 * @param N Number of elements in a descriptor
+	 * @return SAD score
+	 */
+	public static float sad( float[] a , int offsetA , float[] b , int offsetB , int N ) {
+		float total = 0;
+		for( int i = 0; i < N; i++ ) {
+			total += Math.abs( a[offsetA+i] - b[offsetB+i]);
+		}
+		return total;
+	}
+
+	/**
+	 * Computes the hamming distance between two binary descriptors inside of packed arrays.
+	 *
+	 * @see boofcv.struct.feature.PackedTupleDesc_B
+	 *
+	 * @param a Array containing the first descriptor
+	 * @param offsetA Index of the first descriptor's first element
+	 * @param b Array containing the second descriptor
+	 * @param offsetB Index of the second descriptor's first element
+	 * @param N Number of ints in a descriptor
+	 * @return The hamming distance
+	 */
+	public static int hamming( int[] a , int offsetA , int[] b , int offsetB , int N ) {
+		int score = 0;
+		for( int i = 0; i < N; i++ ) {
+			score += Integer.bitCount(a[offsetA+i] ^ b[offsetB+i]);
+		}
+		return score;
+	}
+
 	/**
 	 * Computes the hamming distance.  A bit = 0 is a match and 1 is not match
 	 *
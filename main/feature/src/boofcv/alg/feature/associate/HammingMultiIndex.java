@@ -0,0 +1,377 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.feature.associate;
+
+import boofcv.struct.feature.TupleDesc_B;
+import org.ddogleg.struct.GrowQueue_I32;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Exact K-nearest neighbor search in Hamming space for binary descriptors using multi-index hashing [1].  Each
+ * descriptor is split into m disjoint substrings and each substring is used as the key into its own hash table.  If
+ * two descriptors are within a Hamming distance of r, then by the pigeonhole principle at least one of their
+ * substrings must be within a distance of floor(r/m).  A search probes the buckets at increasing substring
+ * distances from the query's substrings and stops once no descriptor left unchecked can be closer than the
+ * K-th best or within the maximum distance.  For large databases only a small fraction of the descriptors are
+ * compared against the query.
+ * </p>
+ *
+ * <p>
+ * Descriptors can be added and removed incrementally.  When added a descriptor is copied into a packed array and
+ * is assigned an index, which is how it is referred to in the search results.  The indexes of removed descriptors
+ * are recycled.  Each table has 2<sup>s</sup> buckets, where s is the number of bits in a substring, so the number
+ * of tables should be selected so that s is close to log<sub>2</sub> of the number of descriptors.
+ * </p>
+ *
+ * <p>
+ * [1] Norouzi, M., Punjani, A., and Fleet, D. J. "Fast Search in Hamming Space with Multi-Index Hashing" CVPR 2012
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class HammingMultiIndex {
+
+	// number of bits in a descriptor and number of ints used to store it
+	private int numBits;
+	private int numWords;
+
+	// number of hash tables and the bits in each substring
+	private int numTables;
+	private int[] subOffset;
+	private int[] subLength;
+	private int maxSubLength;
+
+	// buckets[table][key] = list of descriptor indexes.  Arrays are lazily declared
+	private int[][][] buckets;
+	private int[][] bucketSize;
+
+	// packed copy of all the descriptors
+	private int[] packed = new int[0];
+	// which indexes are being used
+	private boolean[] used = new boolean[0];
+	// indexes which have been removed and can be recycled
+	private GrowQueue_I32 unused = new GrowQueue_I32();
+	// total number of indexes, including unused ones
+	private int numIndexes;
+	// number of descriptors in the index
+	private int size;
+
+	// used to mark descriptors which have been checked during the current search
+	private int[] visited = new int[0];
+	private int visitedStamp;
+
+	// search results sorted by distance
+	private GrowQueue_I32 resultIndex = new GrowQueue_I32();
+	private GrowQueue_I32 resultDistance = new GrowQueue_I32();
+
+	// number of descriptors whose full distance was computed in the most recent search
+	private int numChecks;
+
+	/**
+	 * Configures the index
+	 *
+	 * @param numBits Number of bits in each descriptor.
+	 * @param numTables Number of hash tables the descriptor is split into.  Each substring can be at most 24 bits.
+	 */
+	public HammingMultiIndex( int numBits , int numTables ) {
+		if( numTables <= 0 || numTables > numBits )
+			throw new IllegalArgumentException("numTables must be from 1 to numBits");
+
+		this.numBits = numBits;
+		this.numWords = (numBits+31)/32;
+		this.numTables = numTables;
+
+		// distribute the bits as evenly as possible between the tables
+		subOffset = new int[numTables];
+		subLength = new int[numTables];
+		for( int i = 0, offset = 0; i < numTables; i++ ) {
+			subOffset[i] = offset;
+			subLength[i] = numBits/numTables + (i < numBits%numTables ? 1 : 0);
+			offset += subLength[i];
+		}
+		maxSubLength = subLength[0];
+		if( maxSubLength > 24 )
+			throw new IllegalArgumentException("Substrings are too long.  Increase the number of tables.");
+
+		buckets = new int[numTables][1 << maxSubLength][];
+		bucketSize = new int[numTables][1 << maxSubLength];
+	}
+
+	/**
+	 * Removes all the descriptors
+	 */
+	public void reset() {
+		for( int i = 0; i < numTables; i++ ) {
+			Arrays.fill(bucketSize[i],0);
+		}
+		Arrays.fill(used,0,numIndexes,false);
+		unused.reset();
+		numIndexes = 0;
+		size = 0;
+	}
+
+	/**
+	 * Adds a descriptor to the index.  The descriptor is copied.
+	 *
+	 * @param desc The descriptor.  Not modified.
+	 * @return The index assigned to the descriptor
+	 */
+	public int add( TupleDesc_B desc ) {
+		checkDescriptor(desc);
+
+		int index;
+		if( unused.size > 0 ) {
+			index = unused.data[--unused.size];
+		} else {
+			index = numIndexes++;
+			if( used.length < numIndexes ) {
+				int length = Math.max(16,numIndexes*2);
+				packed = Arrays.copyOf(packed,length*numWords);
+				used = Arrays.copyOf(used,length);
+				visited = Arrays.copyOf(visited,length);
+			}
+		}
+
+		System.arraycopy(desc.data,0,packed,index*numWords,numWords);
+		used[index] = true;
+		size++;
+
+		for( int table = 0; table < numTables; table++ ) {
+			int key = substring(packed,index*numWords,table);
+
+			int[] bucket = buckets[table][key];
+			int n = bucketSize[table][key];
+			if( bucket == null ) {
+				bucket = buckets[table][key] = new int[4];
+			} else if( bucket.length == n ) {
+				bucket = buckets[table][key] = Arrays.copyOf(bucket,n*2);
+			}
+			bucket[n] = index;
+			bucketSize[table][key] = n+1;
+		}
+
+		return index;
+	}
+
+	/**
+	 * Removes a descriptor from the index.  Its index can be assigned to a descriptor which is added later on.
+	 *
+	 * @param index Index of the descriptor that was returned by {@link #add}
+	 */
+	public void remove( int index ) {
+		if( !contains(index) )
+			throw new IllegalArgumentException("Index is not in use: "+index);
+
+		for( int table = 0; table < numTables; table++ ) {
+			int key = substring(packed,index*numWords,table);
+
+			int[] bucket = buckets[table][key];
+			int n = bucketSize[table][key];
+			for( int i = 0; i < n; i++ ) {
+				if( bucket[i] == index ) {
+					bucket[i] = bucket[n-1];
+					break;
+				}
+			}
+			bucketSize[table][key] = n-1;
+		}
+
+		used[index] = false;
+		unused.add(index);
+		size--;
+	}
+
+	/**
+	 * Returns true if the index is assigned to a descriptor
+	 */
+	public boolean contains( int index ) {
+		return index >= 0 && index < numIndexes && used[index];
+	}
+
+	/**
+	 * Finds the K descriptors which are closest to the query and have a distance which is less than or equal
+	 * to maxDistance.  The search is exact and ties are resolved by selecting the lowest index.  Results are
+	 * sorted by distance and can be accessed using {@link #getResultIndex()} and {@link #getResultDistance()}.
+	 *
+	 * @param query The query descriptor.  Not modified.
+	 * @param K Maximum number of neighbors to find
+	 * @param maxDistance Maximum Hamming distance of a neighbor, inclusive
+	 * @return Number of neighbors found
+	 */
+	public int searchNearest( TupleDesc_B query , int K , int maxDistance ) {
+		checkDescriptor(query);
+
+		resultIndex.reset();
+		resultDistance.reset();
+		numChecks = 0;
+
+		if( size == 0 || K <= 0 || maxDistance < 0 )
+			return 0;
+
+		if( ++visitedStamp == Integer.MAX_VALUE ) {
+			Arrays.fill(visited,0);
+			visitedStamp = 1;
+		}
+
+		int[] q = query.data;
+
+		for( int radius = 0; radius <= maxSubLength; radius++ ) {
+			for( int table = 0; table < numTables; table++ ) {
+				int length = subLength[table];
+
+				if( radius <= length ) {
+					int key = substring(q,0,table);
+
+					// go through all the keys which differ from the query by radius bits
+					int mask = (1 << radius)-1;
+					int limit = 1 << length;
+					while( mask < limit ) {
+						checkBucket(q,table,key^mask,K,maxDistance);
+						if( mask == 0 )
+							break;
+						int c = mask & -mask;
+						int r = mask + c;
+						mask = (((r ^ mask) >>> 2) / c) | r;
+					}
+				}
+
+				// Lower bound on the distance of any descriptor not checked yet.  Substrings in tables which have
+				// been searched at this radius must differ by at least radius+1 bits, the others by radius bits.
+				int bound = (radius+1)*(table+1) + radius*(numTables-table-1);
+				if( bound > maxDistance )
+					return resultIndex.size;
+				if( resultIndex.size == K && resultDistance.data[K-1] < bound )
+					return resultIndex.size;
+			}
+		}
+
+		return resultIndex.size;
+	}
+
+	/**
+	 * Computes the distance to every descriptor in the bucket which has not been checked yet
+	 */
+	private void checkBucket( int[] query , int table , int key , int K , int maxDistance ) {
+		int[] bucket = buckets[table][key];
+		int n = bucketSize[table][key];
+
+		for( int i = 0; i < n; i++ ) {
+			int index = bucket[i];
+			if( visited[index] == visitedStamp )
+				continue;
+			visited[index] = visitedStamp;
+			numChecks++;
+
+			int distance = 0;
+			for( int w = 0, j = index*numWords; w < numWords; w++ , j++ ) {
+				distance += Integer.bitCount(query[w] ^ packed[j]);
+			}
+
+			if( distance <= maxDistance )
+				addResult(index,distance,K);
+		}
+	}
+
+	/**
+	 * Inserts the result into the sorted list of results if it's one of the K best
+	 */
+	private void addResult( int index , int distance , int K ) {
+		int n = resultIndex.size;
+		if( n == K ) {
+			if( !isBetter(distance,index,resultDistance.data[n-1],resultIndex.data[n-1]) )
+				return;
+			n--;
+		} else {
+			resultIndex.add(0);
+			resultDistance.add(0);
+		}
+
+		int i = n;
+		while( i > 0 && isBetter(distance,index,resultDistance.data[i-1],resultIndex.data[i-1]) ) {
+			resultIndex.data[i] = resultIndex.data[i-1];
+			resultDistance.data[i] = resultDistance.data[i-1];
+			i--;
+		}
+		resultIndex.data[i] = index;
+		resultDistance.data[i] = distance;
+	}
+
+	private static boolean isBetter( int distanceA , int indexA , int distanceB , int indexB ) {
+		return distanceA < distanceB || (distanceA == distanceB && indexA < indexB);
+	}
+
+	/**
+	 * Extracts the substring which is used as the key for the specified table
+	 */
+	private int substring( int[] data , int start , int table ) {
+		int offset = subOffset[table];
+		int word = offset >>> 5;
+		int shift = offset & 31;
+
+		long bits = data[start+word] & 0xFFFFFFFFL;
+		if( shift + subLength[table] > 32 )
+			bits |= (data[start+word+1] & 0xFFFFFFFFL) << 32;
+
+		return (int)((bits >>> shift) & ((1L << subLength[table])-1));
+	}
+
+	private void checkDescriptor( TupleDesc_B desc ) {
+		if( desc.numBits != numBits )
+			throw new IllegalArgumentException("Unexpected number of bits in descriptor. Found "+
+					desc.numBits+" expected "+numBits);
+	}
+
+	/**
+	 * Indexes of the neighbors found in the most recent search, sorted by distance
+	 */
+	public GrowQueue_I32 getResultIndex() {
+		return resultIndex;
+	}
+
+	/**
+	 * Hamming distance of the neighbors found in the most recent search
+	 */
+	public GrowQueue_I32 getResultDistance() {
+		return resultDistance;
+	}
+
+	/**
+	 * Number of descriptors whose distance was computed in the most recent search
+	 */
+	public int getNumChecks() {
+		return numChecks;
+	}
+
+	/**
+	 * Number of descriptors in the index
+	 */
+	public int size() {
+		return size;
+	}
+
+	public int getNumBits() {
+		return numBits;
+	}
+
+	public int getNumTables() {
+		return numTables;
+	}
+}
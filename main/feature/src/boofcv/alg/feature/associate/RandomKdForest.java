@@ -0,0 +1,433 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.feature.associate;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * <p>
+ * Approximate nearest neighbor search using a forest of randomized K-D trees and a best-bin-first (BBF) search
+ * which is shared between all the trees [1].  When a tree is constructed the split axis at each node is randomly
+ * selected from the axes with the largest variance and the split value is the mean.  During a search the trees
+ * are first descended to a leaf and the branches not taken are put into a single priority queue, ordered by their
+ * distance from the query.  The closest branches are then explored until the maximum number of points have been
+ * checked or no branch can contain a closer point.
+ * </p>
+ *
+ * <p>
+ * Both the closest and second closest point are found, allowing a ratio test to be performed.  Points are stored in
+ * a single packed array, where point i starts at element i*N and N is the number of elements in a point.  All nodes
+ * are stored in arrays of primitives so building and searching the trees creates very little garbage.
+ * </p>
+ *
+ * <p>
+ * [1] Silpa-Anan, C. and Hartley, R. "Optimised KD-trees for fast image descriptor matching" CVPR 2008
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class RandomKdForest {
+
+	// number of points used to estimate the variance along each axis
+	private static final int VARIANCE_SAMPLES = 100;
+
+	// number of trees in the forest
+	private int numTrees;
+	// the split axis is randomly selected from this number of axes with the largest variance
+	private int numConsiderSplit;
+	private Random rand;
+
+	// reference to the packed points and their dimension
+	private double[] points;
+	private int numPoints;
+	private int N;
+
+	// Description of each node in each tree.  For leaves splitAxis is -1 and left is the index of the point.
+	private int[][] splitAxis;
+	private double[][] splitValue;
+	private int[][] left;
+	private int[][] right;
+
+	// order of points while a tree is being constructed
+	private int[] order = new int[0];
+	// stack of nodes waiting to be constructed: node, first point, last point
+	private int[] stack = new int[0];
+	// variance along each axis and mean value
+	private double[] variance = new double[0];
+	private double[] mean = new double[0];
+	private int[] candidates = new int[0];
+
+	// priority queue used by best-bin-first.  Binary heap ordered by distance
+	private double[] heapDistance = new double[16];
+	private int[] heapTree = new int[16];
+	private int[] heapNode = new int[16];
+	private int heapSize;
+
+	// used to mark points which have been checked during the current search
+	private int[] visited = new int[0];
+	private int visitedStamp;
+
+	// number of points checked during the current search
+	private int numChecks;
+
+	// results of the most recent search
+	private int bestIndex;
+	private double bestDistanceSq;
+	private double secondDistanceSq;
+
+	/**
+	 * Configures the forest
+	 *
+	 * @param numTrees Number of trees in the forest.  Try 4 to 8.
+	 * @param numConsiderSplit Number of axes with the largest variance which the split is randomly selected from.  Try 5.
+	 * @param randomSeed Seed for the random number generator.
+	 */
+	public RandomKdForest(int numTrees, int numConsiderSplit, long randomSeed) {
+		if( numTrees <= 0 )
+			throw new IllegalArgumentException("Must have at least one tree");
+		if( numConsiderSplit <= 0 )
+			throw new IllegalArgumentException("numConsiderSplit must be more than zero");
+		this.numTrees = numTrees;
+		this.numConsiderSplit = numConsiderSplit;
+		this.rand = new Random(randomSeed);
+
+		splitAxis = new int[numTrees][0];
+		splitValue = new double[numTrees][0];
+		left = new int[numTrees][0];
+		right = new int[numTrees][0];
+	}
+
+	/**
+	 * Specifies the set of points which are searched and constructs the trees.  A reference to the points
+	 * array is saved and it must not be modified until the next call.
+	 *
+	 * @param points Packed array of points.  Point i starts at element i*N.
+	 * @param numPoints Number of points
+	 * @param N Number of elements in each point
+	 */
+	public void setPoints( double[] points , int numPoints , int N ) {
+		this.points = points;
+		this.numPoints = numPoints;
+		this.N = N;
+
+		if( numPoints == 0 )
+			return;
+
+		int numNodes = 2*numPoints-1;
+		if( order.length < numPoints ) {
+			order = new int[numPoints];
+			stack = new int[3*numNodes];
+			visited = new int[numPoints];
+		}
+		if( variance.length < N ) {
+			variance = new double[N];
+			mean = new double[N];
+			candidates = new int[N];
+		}
+
+		for( int tree = 0; tree < numTrees; tree++ ) {
+			if( splitAxis[tree].length < numNodes ) {
+				splitAxis[tree] = new int[numNodes];
+				splitValue[tree] = new double[numNodes];
+				left[tree] = new int[numNodes];
+				right[tree] = new int[numNodes];
+			}
+			constructTree(tree);
+		}
+
+		// all the points are marked as being visited in an old search
+		Arrays.fill(visited,0,numPoints,0);
+		visitedStamp = 0;
+	}
+
+	/**
+	 * Builds a single tree.  The points are shuffled first so that the variance can be estimated from the first
+	 * few points in each node.
+	 */
+	private void constructTree( int tree ) {
+		int[] axis = splitAxis[tree];
+		double[] value = splitValue[tree];
+		int[] l = left[tree];
+		int[] r = right[tree];
+
+		for( int i = 0; i < numPoints; i++ ) {
+			order[i] = i;
+		}
+		for( int i = numPoints-1; i > 0; i-- ) {
+			int j = rand.nextInt(i+1);
+			int tmp = order[i]; order[i] = order[j]; order[j] = tmp;
+		}
+
+		int numNodes = 1;
+		int stackSize = 0;
+		stack[stackSize++] = 0; stack[stackSize++] = 0; stack[stackSize++] = numPoints;
+
+		while( stackSize > 0 ) {
+			int end = stack[--stackSize];
+			int start = stack[--stackSize];
+			int node = stack[--stackSize];
+
+			if( end-start == 1 ) {
+				axis[node] = -1;
+				l[node] = order[start];
+				continue;
+			}
+
+			int selected = selectSplitAxis(start, end);
+			double split = mean[selected];
+
+			// partition the points so that ones less than the split value come first
+			int middle = start;
+			for( int i = start; i < end; i++ ) {
+				int p = order[i];
+				if( points[p*N+selected] < split ) {
+					order[i] = order[middle];
+					order[middle++] = p;
+				}
+			}
+
+			// All the points have the same value along this axis.  Any split is valid so just cut it in half
+			if( middle == start || middle == end ) {
+				middle = (start+end)/2;
+				split = points[order[start]*N+selected];
+			}
+
+			axis[node] = selected;
+			value[node] = split;
+			l[node] = numNodes++;
+			r[node] = numNodes++;
+
+			stack[stackSize++] = l[node]; stack[stackSize++] = start; stack[stackSize++] = middle;
+			stack[stackSize++] = r[node]; stack[stackSize++] = middle; stack[stackSize++] = end;
+		}
+	}
+
+	/**
+	 * Estimates the variance along each axis from a sample of the points and randomly selects one
+	 * of the axes with the largest variance.  The mean of each axis is left in {@link #mean}.
+	 */
+	private int selectSplitAxis( int start , int end ) {
+		int count = Math.min(VARIANCE_SAMPLES,end-start);
+
+		Arrays.fill(mean,0,N,0);
+		Arrays.fill(variance,0,N,0);
+
+		for( int i = 0; i < count; i++ ) {
+			int index = order[start+i]*N;
+			for( int k = 0; k < N; k++ ) {
+				mean[k] += points[index+k];
+			}
+		}
+		for( int k = 0; k < N; k++ ) {
+			mean[k] /= count;
+		}
+		for( int i = 0; i < count; i++ ) {
+			int index = order[start+i]*N;
+			for( int k = 0; k < N; k++ ) {
+				double d = points[index+k] - mean[k];
+				variance[k] += d*d;
+			}
+		}
+
+		// find the axes with the largest variance using a partial insertion sort
+		int numCandidates = Math.min(numConsiderSplit,N);
+		int found = 0;
+		for( int k = 0; k < N; k++ ) {
+			if( found == numCandidates && variance[k] <= variance[candidates[found-1]] )
+				continue;
+			int i = found < numCandidates ? found++ : found-1;
+			while( i > 0 && variance[candidates[i-1]] < variance[k] ) {
+				candidates[i] = candidates[i-1];
+				i--;
+			}
+			candidates[i] = k;
+		}
+
+		return candidates[rand.nextInt(numCandidates)];
+	}
+
+	/**
+	 * Searches for the closest and second closest point to the query.
+	 *
+	 * @param query Array containing the query point
+	 * @param offset Index of the query's first element in the array
+	 * @param maxChecks Maximum number of points whose distance is computed.  Controls speed and accuracy.
+	 * @return true if a point was found
+	 */
+	public boolean search( double[] query , int offset , int maxChecks ) {
+		bestIndex = -1;
+		bestDistanceSq = Double.MAX_VALUE;
+		secondDistanceSq = Double.MAX_VALUE;
+		numChecks = 0;
+		heapSize = 0;
+
+		if( numPoints == 0 )
+			return false;
+
+		if( ++visitedStamp == Integer.MAX_VALUE ) {
+			Arrays.fill(visited,0,numPoints,0);
+			visitedStamp = 1;
+		}
+
+		for( int tree = 0; tree < numTrees; tree++ ) {
+			descend(query, offset, tree, 0, 0);
+		}
+
+		while( heapSize > 0 && numChecks < maxChecks ) {
+			// the closest remaining branch can't contain a point closer than the second best
+			if( heapDistance[0] >= secondDistanceSq )
+				break;
+			int tree = heapTree[0];
+			int node = heapNode[0];
+			double distance = heapDistance[0];
+			popHeap();
+			descend(query, offset, tree, node, distance);
+		}
+
+		return true;
+	}
+
+	/**
+	 * Descends from the node to a leaf, adding the branches which were not taken to the priority queue
+	 *
+	 * @param lowerBound Lower bound on the squared distance of points in this node from the query.
+	 */
+	private void descend( double[] query , int offset , int tree , int node , double lowerBound ) {
+		int[] axis = splitAxis[tree];
+		double[] value = splitValue[tree];
+		int[] l = left[tree];
+		int[] r = right[tree];
+
+		while( axis[node] >= 0 ) {
+			double diff = query[offset+axis[node]] - value[node];
+			int near,far;
+			if( diff < 0 ) {
+				near = l[node]; far = r[node];
+			} else {
+				near = r[node]; far = l[node];
+			}
+			double farDistance = Math.max(lowerBound,diff*diff);
+			if( farDistance < secondDistanceSq )
+				pushHeap(farDistance,tree,far);
+			node = near;
+		}
+
+		int p = l[node];
+		if( visited[p] == visitedStamp )
+			return;
+		visited[p] = visitedStamp;
+		numChecks++;
+
+		// compute the distance, but give up once it's known not to be one of the two best
+		int index = p*N;
+		double distance = 0;
+		for( int k = 0; k < N && distance < secondDistanceSq; k++ ) {
+			double d = query[offset+k] - points[index+k];
+			distance += d*d;
+		}
+
+		if( distance < bestDistanceSq ) {
+			secondDistanceSq = bestDistanceSq;
+			bestDistanceSq = distance;
+			bestIndex = p;
+		} else if( distance < secondDistanceSq ) {
+			secondDistanceSq = distance;
+		}
+	}
+
+	private void pushHeap( double distance , int tree , int node ) {
+		if( heapSize == heapDistance.length ) {
+			heapDistance = Arrays.copyOf(heapDistance,heapSize*2);
+			heapTree = Arrays.copyOf(heapTree,heapSize*2);
+			heapNode = Arrays.copyOf(heapNode,heapSize*2);
+		}
+
+		int i = heapSize++;
+		while( i > 0 ) {
+			int parent = (i-1)/2;
+			if( heapDistance[parent] <= distance )
+				break;
+			heapDistance[i] = heapDistance[parent];
+			heapTree[i] = heapTree[parent];
+			heapNode[i] = heapNode[parent];
+			i = parent;
+		}
+		heapDistance[i] = distance;
+		heapTree[i] = tree;
+		heapNode[i] = node;
+	}
+
+	private void popHeap() {
+		heapSize--;
+		double distance = heapDistance[heapSize];
+		int tree = heapTree[heapSize];
+		int node = heapNode[heapSize];
+
+		int i = 0;
+		while( true ) {
+			int child = 2*i+1;
+			if( child >= heapSize )
+				break;
+			if( child+1 < heapSize && heapDistance[child+1] < heapDistance[child] )
+				child++;
+			if( distance <= heapDistance[child] )
+				break;
+			heapDistance[i] = heapDistance[child];
+			heapTree[i] = heapTree[child];
+			heapNode[i] = heapNode[child];
+			i = child;
+		}
+		heapDistance[i] = distance;
+		heapTree[i] = tree;
+		heapNode[i] = node;
+	}
+
+	/**
+	 * Index of the closest point found in the most recent search.  -1 if none were found.
+	 */
+	public int getBestIndex() {
+		return bestIndex;
+	}
+
+	/**
+	 * Euclidean distance squared of the closest point found
+	 */
+	public double getBestDistanceSq() {
+		return bestDistanceSq;
+	}
+
+	/**
+	 * Euclidean distance squared of the second closest point found.  Double.MAX_VALUE if there is only one point.
+	 */
+	public double getSecondDistanceSq() {
+		return secondDistanceSq;
+	}
+
+	/**
+	 * Number of points whose distance was computed in the most recent search
+	 */
+	public int getNumChecks() {
+		return numChecks;
+	}
+
+	public int getNumTrees() {
+		return numTrees;
+	}
+}
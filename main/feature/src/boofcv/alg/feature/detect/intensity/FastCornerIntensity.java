@@ -64,7 +64,7 @@ import boofcv.struct.image.ImageSingleBand;
  *
  * @author Peter Abeles
  */
-public abstract class FastCornerIntensity<T extends ImageSingleBand> implements FeatureIntensity<T> {
+public abstract class FastCornerIntensity<T extends ImageSingleBand> implements FastCornerInterface<T> {
 
 	// radius of the circle being sampled
 	protected static final int radius = 3;
@@ -83,6 +83,9 @@ public abstract class FastCornerIntensity<T extends ImageSingleBand> implements
 	// Used to sample the image and compute the score
 	protected FastHelper<T> helper;
 
+	// score of the previous, current, and next row.  Used when detecting corners directly
+	private float[] rowPrev,rowCurr,rowNext;
+
 	/**
 	 * Constructor
 	 *
@@ -92,6 +95,7 @@ public abstract class FastCornerIntensity<T extends ImageSingleBand> implements
 		this.helper = helper;
 	}
 
+	@Override
 	public QueueCorner getCandidates() {
 		return candidates;
 	}
@@ -106,8 +110,41 @@ public abstract class FastCornerIntensity<T extends ImageSingleBand> implements
 		return radius;
 	}
 
+	@Override
 	public void process( T image , ImageFloat32 intensity ) {
 		candidates.reset();
+		setImage(image);
+		processRows(radius, image.height - radius, intensity, candidates);
+	}
+
+	/**
+	 * <p>
+	 * Detects corners without computing a dense intensity image.  A corner is returned if its score is &ge; the
+	 * threshold and more than the score of its 8 neighbors.  Pixels which are not corners have a score of zero.
+	 * The results are identical to calling {@link #process} followed by
+	 * {@link boofcv.alg.feature.detect.extract.NonMaxCandidateStrict} with a search radius of one.
+	 * </p>
+	 *
+	 * <p>
+	 * Only three rows of scores are kept in memory, which is much faster for large images since there is no need
+	 * to write and then read back a full intensity image.
+	 * </p>
+	 *
+	 * @param image Input image
+	 * @param threshold Minimum score of a corner
+	 * @param found (Output) Storage for the detected corners.  Reset before corners are added.
+	 */
+	@Override
+	public void detect( T image , float threshold , QueueCorner found ) {
+		found.reset();
+		setImage(image);
+		detectRows(radius, image.height - radius, threshold, found);
+	}
+
+	/**
+	 * Specifies the input image and updates the pixel offsets if needed
+	 */
+	protected void setImage( T image ) {
 		this.image = image;
 
 		if( stride != image.stride ) {
@@ -115,8 +152,14 @@ public abstract class FastCornerIntensity<T extends ImageSingleBand> implements
 			offsets = DiscretizedCircle.imageOffsets(radius, image.stride);
 		}
 		helper.setImage(image,offsets);
+	}
 
-		for (int y = radius; y < image.height-radius; y++) {
+	/**
+	 * Computes the intensity of the rows from y0 to y1 and adds corners to the candidate list in raster order.
+	 * {@link #setImage} must be called first.
+	 */
+	protected void processRows( int y0 , int y1 , ImageFloat32 intensity , QueueCorner candidates ) {
+		for (int y = y0; y < y1; y++) {
 			int indexIntensity = intensity.startIndex + y*intensity.stride + radius;
 			int index = image.startIndex + y*image.stride + radius;
 			for (int x = radius; x < image.width-radius; x++, index++,indexIntensity++) {
@@ -136,6 +179,83 @@ public abstract class FastCornerIntensity<T extends ImageSingleBand> implements
 		}
 	}
 
+	/**
+	 * Detects corners in the rows from y0 to y1 and adds them to the found list in raster order.  The rows
+	 * just outside of the range are scored too, since they are needed for non-maximum suppression.
+	 * {@link #setImage} must be called first.
+	 */
+	protected void detectRows( int y0 , int y1 , float threshold , QueueCorner found ) {
+		if( y0 >= y1 || image.width <= 2*radius )
+			return;
+
+		int width = image.width;
+		if( rowPrev == null || rowPrev.length < width ) {
+			rowPrev = new float[width];
+			rowCurr = new float[width];
+			rowNext = new float[width];
+		}
+
+		// rows outside the image's valid region have no corners
+		if( y0 > radius )
+			scoreRow(y0-1,rowPrev);
+		else
+			fillZero(rowPrev);
+		scoreRow(y0,rowCurr);
+
+		for( int y = y0; y < y1; y++ ) {
+			if( y+1 < image.height-radius )
+				scoreRow(y+1,rowNext);
+			else
+				fillZero(rowNext);
+
+			for( int x = radius; x < width-radius; x++ ) {
+				float v = rowCurr[x];
+				if( v == 0 || v < threshold )
+					continue;
+
+				if( v > rowCurr[x-1] && v > rowCurr[x+1] &&
+						v > rowPrev[x-1] && v > rowPrev[x] && v > rowPrev[x+1] &&
+						v > rowNext[x-1] && v > rowNext[x] && v > rowNext[x+1] )
+					found.add(x,y);
+			}
+
+			float[] tmp = rowPrev;
+			rowPrev = rowCurr;
+			rowCurr = rowNext;
+			rowNext = tmp;
+		}
+	}
+
+	/**
+	 * Computes the score of every pixel in the row.  Pixels inside the border are set to zero.
+	 */
+	private void scoreRow( int y , float[] scores ) {
+		int width = image.width;
+		for( int x = 0; x < radius; x++ ) {
+			scores[x] = 0;
+			scores[width-x-1] = 0;
+		}
+
+		int index = image.startIndex + y*image.stride + radius;
+		for (int x = radius; x < width-radius; x++, index++) {
+
+			helper.setThresholds(index);
+
+			if( checkLower(index) ) {
+				scores[x] = helper.scoreLower(index);
+			} else if( checkUpper(index)) {
+				scores[x] = helper.scoreUpper(index);
+			} else {
+				scores[x] = 0;
+			}
+		}
+	}
+
+	private void fillZero( float[] scores ) {
+		for( int i = 0; i < scores.length; i++ )
+			scores[i] = 0;
+	}
+
 	/**
 	 * Checks to see if the specified pixel qualifies as a corner with lower values
 	 */
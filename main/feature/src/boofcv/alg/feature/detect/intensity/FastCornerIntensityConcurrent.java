@@ -0,0 +1,222 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.feature.detect.intensity;
+
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeTask;
+import boofcv.concurrency.WorkerPool;
+import boofcv.struct.QueueCorner;
+import boofcv.struct.image.ImageFloat32;
+import boofcv.struct.image.ImageSingleBand;
+import georegression.struct.point.Point2D_I16;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>
+ * Computes {@link FastCornerIntensity} concurrently by splitting the image into horizontal strips.  Each strip is
+ * processed by its own instance of the single threaded algorithm, created by {@link #createAlg()}, since the helper
+ * which samples the image is not thread safe.  Corners found in a strip are written into that strip's own {@link QueueCorner}
+ * and once all the strips are done the lists are concatenated in order of strip.  The output is identical to
+ * the single threaded algorithm, including the order of the corners.
+ * </p>
+ *
+ * <p>
+ * The number of strips is determined by {@link BoofConcurrency}.  If {@link BoofConcurrency#USE_CONCURRENT} is
+ * false then the whole image is processed by a single instance.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public abstract class FastCornerIntensityConcurrent<T extends ImageSingleBand> implements FastCornerInterface<T> {
+
+	// minimum number of rows in a strip
+	private int minRows;
+
+	// used to process images which are too small to split up
+	private FastCornerIntensity<T> prototype;
+
+	// algorithms which are not currently being used by a thread
+	private final WorkerPool<FastCornerIntensity<T>> workers = new WorkerPool<FastCornerIntensity<T>>() {
+		@Override
+		protected FastCornerIntensity<T> createInstance() {
+			return createAlg();
+		}
+	};
+
+	// list of pixels that might be corners
+	private QueueCorner candidates = new QueueCorner(10);
+
+	// storage for the corners found in each strip.  Only the first numStrips are in use
+	private final List<Strip> strips = new ArrayList<Strip>();
+	private int numStrips;
+
+	/**
+	 * Configures the concurrent algorithm
+	 *
+	 * @param prototype An instance of the algorithm.  It will be used to process one of the strips.
+	 * @param minRows Minimum number of rows in a strip.  Try 20.
+	 */
+	protected FastCornerIntensityConcurrent( FastCornerIntensity<T> prototype , int minRows ) {
+		this.prototype = prototype;
+		this.minRows = Math.max(1,minRows);
+		workers.release(prototype);
+	}
+
+	/**
+	 * Creates a new instance of the algorithm, configured the same as the prototype.  Each instance must have
+	 * its own {@link boofcv.alg.feature.detect.intensity.impl.FastHelper}.
+	 */
+	protected abstract FastCornerIntensity<T> createAlg();
+
+	/**
+	 * Computes the intensity image and the list of candidate corners.  See {@link FastCornerIntensity#process}.
+	 */
+	@Override
+	public void process( final T image , final ImageFloat32 intensity ) {
+		int radius = prototype.getIgnoreBorder();
+
+		if( !BoofConcurrency.USE_CONCURRENT || image.height <= 2*radius + minRows ) {
+			candidates.reset();
+			prototype.setImage(image);
+			prototype.processRows(radius, image.height - radius, intensity, candidates);
+			return;
+		}
+
+		numStrips = 0;
+		BoofConcurrency.loopBlocks(radius, image.height - radius, minRows, new IntRangeTask() {
+			@Override
+			public void process(int start, int end) {
+				Strip strip = grabStrip(start);
+				FastCornerIntensity<T> alg = workers.borrow();
+				try {
+					alg.setImage(image);
+					alg.processRows(start, end, intensity, strip.corners);
+				} finally {
+					workers.release(alg);
+				}
+			}
+		});
+		mergeStrips(candidates);
+	}
+
+	/**
+	 * Detects corners without computing a dense intensity image.  See {@link FastCornerIntensity#detect}.
+	 */
+	@Override
+	public void detect( final T image , final float threshold , QueueCorner found ) {
+		int radius = prototype.getIgnoreBorder();
+
+		if( !BoofConcurrency.USE_CONCURRENT || image.height <= 2*radius + minRows ) {
+			prototype.detect(image, threshold, found);
+			return;
+		}
+
+		numStrips = 0;
+		BoofConcurrency.loopBlocks(radius, image.height - radius, minRows, new IntRangeTask() {
+			@Override
+			public void process(int start, int end) {
+				Strip strip = grabStrip(start);
+				FastCornerIntensity<T> alg = workers.borrow();
+				try {
+					alg.setImage(image);
+					alg.detectRows(start, end, threshold, strip.corners);
+				} finally {
+					workers.release(alg);
+				}
+			}
+		});
+		mergeStrips(found);
+	}
+
+	/**
+	 * Returns storage for the strip starting at row y0
+	 */
+	private Strip grabStrip( int y0 ) {
+		synchronized ( strips ) {
+			Strip s;
+			if( numStrips < strips.size() ) {
+				s = strips.get(numStrips);
+			} else {
+				s = new Strip();
+				strips.add(s);
+			}
+			numStrips++;
+			s.y0 = y0;
+			s.corners.reset();
+			return s;
+		}
+	}
+
+	/**
+	 * Adds the corners in each strip to the output list, from the top of the image down
+	 */
+	private void mergeStrips( QueueCorner output ) {
+		output.reset();
+		for( int i = 0; i < numStrips; i++ ) {
+			Strip best = null;
+			// the number of strips is small, so a selection sort is fine
+			for( int j = 0; j < numStrips; j++ ) {
+				Strip s = strips.get(j);
+				if( !s.merged && (best == null || s.y0 < best.y0) )
+					best = s;
+			}
+			best.merged = true;
+
+			for( int j = 0; j < best.corners.size; j++ ) {
+				Point2D_I16 p = best.corners.data[j];
+				output.add(p.x,p.y);
+			}
+		}
+		for( int i = 0; i < numStrips; i++ ) {
+			strips.get(i).merged = false;
+		}
+	}
+
+	@Override
+	public QueueCorner getCandidates() {
+		return candidates;
+	}
+
+	@Override
+	public int getRadius() {
+		return prototype.getRadius();
+	}
+
+	@Override
+	public int getIgnoreBorder() {
+		return prototype.getIgnoreBorder();
+	}
+
+	public int getMinRows() {
+		return minRows;
+	}
+
+	/**
+	 * Corners found inside a strip
+	 */
+	private static class Strip {
+		// first row in the strip
+		int y0;
+		QueueCorner corners = new QueueCorner(10);
+		// used when merging the strips
+		boolean merged;
+	}
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.feature.detect.intensity;
+
+import boofcv.struct.QueueCorner;
+import boofcv.struct.image.ImageFloat32;
+import boofcv.struct.image.ImageSingleBand;
+
+/**
+ * Interface for algorithms which compute the FAST corner intensity.  Implemented by the single threaded
+ * {@link FastCornerIntensity} and by {@link FastCornerIntensityConcurrent}.
+ *
+ * @author Peter Abeles
+ */
+public interface FastCornerInterface<T extends ImageSingleBand> extends FeatureIntensity<T> {
+
+	/**
+	 * Computes the intensity image and the list of pixels which might be corners.
+	 *
+	 * @param image Input image
+	 * @param intensity (Output) Corner intensity image
+	 */
+	public void process( T image , ImageFloat32 intensity );
+
+	/**
+	 * Detects corners without computing a dense intensity image.  A corner is returned if its score is &ge; the
+	 * threshold and more than the score of its 8 neighbors.
+	 *
+	 * @param image Input image
+	 * @param threshold Minimum score of a corner
+	 * @param found (Output) Storage for the detected corners.  Reset before corners are added.
+	 */
+	public void detect( T image , float threshold , QueueCorner found );
+
+	/**
+	 * Pixels which might be corners, found by the most recent call to {@link #process}.
+	 */
+	public QueueCorner getCandidates();
+}
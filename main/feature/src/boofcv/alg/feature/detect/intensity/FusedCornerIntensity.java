@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.feature.detect.intensity;
+
+import boofcv.struct.image.ImageFloat32;
+import boofcv.struct.image.ImageSingleBand;
+
+/**
+ * <p>
+ * Computes the same corner intensity as a {@link GradientCornerIntensity} with a uniform window, but directly from
+ * the input image.  The Sobel gradient, the windowed sums of the gradient products, and the corner intensity
+ * are all computed in a single pass through the image using a few rows of buffers.  Only the input image is read
+ * and only the intensity image is written, avoiding the derivative and intermediate sum images.
+ * </p>
+ *
+ * <p>
+ * The image gradient is computed as if the image border was extended, which produces the same results
+ * as {@link boofcv.alg.filter.derivative.GradientSobel} with an {@link boofcv.core.image.border.BorderType#EXTENDED}
+ * border, the default when computing the gradient.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public interface FusedCornerIntensity<T extends ImageSingleBand> extends FeatureIntensity<T> {
+
+	/**
+	 * Computes feature intensity image.
+	 *
+	 * @param image Input image.  Not modified.
+	 * @param intensity Output intensity image.  Pixels inside the ignore border are not modified.
+	 */
+	public void process(T image , ImageFloat32 intensity );
+}
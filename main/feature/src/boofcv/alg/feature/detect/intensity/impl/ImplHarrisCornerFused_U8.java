@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.feature.detect.intensity.impl;
+
+/**
+ * <p>
+ * Harris corner intensity computed using {@link ImplSsdCornerFused_U8}.  Same as {@link ImplHarrisCorner_S16}.
+ * </p>
+ *
+ * @author Peter Abeles
+ * @see boofcv.alg.feature.detect.intensity.HarrisCornerIntensity
+ */
+public class ImplHarrisCornerFused_U8 extends ImplSsdCornerFused_U8 {
+
+	// tuning parameter
+	float kappa;
+
+	public ImplHarrisCornerFused_U8(int windowRadius, float kappa) {
+		super(windowRadius);
+		this.kappa = kappa;
+	}
+
+	public void setKappa(float kappa) {
+		this.kappa = kappa;
+	}
+
+	@Override
+	protected float computeIntensity() {
+		// det(A) - kappa*trace(A)^2
+		float trace = totalXX + totalYY;
+		return (totalXX * totalYY - totalXY * totalXY) - kappa * trace*trace;
+	}
+
+	public float getKappa() {
+		return kappa;
+	}
+}
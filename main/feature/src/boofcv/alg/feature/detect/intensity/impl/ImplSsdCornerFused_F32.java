@@ -0,0 +1,234 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.feature.detect.intensity.impl;
+
+import boofcv.alg.InputSanityCheck;
+import boofcv.alg.feature.detect.intensity.FusedCornerIntensity;
+import boofcv.struct.image.ImageFloat32;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Implementation of {@link FusedCornerIntensity} for {@link ImageFloat32}.  Produces the same results, up to
+ * floating point rounding along the image border, as computing the gradient with
+ * {@link boofcv.alg.filter.derivative.GradientSobel} and then processing it with {@link ImplSsdCorner_F32}.
+ * </p>
+ *
+ * <p>
+ * Each row is processed once.  The gradient of the row is computed, followed by the sum of gradient products inside
+ * the window along the row.  These horizontal sums are saved in a circular buffer containing the last 2*radius+1 rows
+ * and are used to update the sum across the window for each column.  Once enough rows have been processed the
+ * intensity is computed for the row at the window's center.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public abstract class ImplSsdCornerFused_F32 implements FusedCornerIntensity<ImageFloat32> {
+
+	// radius of detected features
+	protected int radius;
+
+	// gradient of the row being processed
+	private float derivX[] = new float[0];
+	private float derivY[] = new float[0];
+
+	// horizontal sums of gradient products for the most recent rows.  circular buffer
+	private float horizXX[][];
+	private float horizXY[][];
+	private float horizYY[][];
+
+	// sum of gradient products inside the window for each column
+	private float sumXX[] = new float[0];
+	private float sumXY[] = new float[0];
+	private float sumYY[] = new float[0];
+
+	// defines the A matrix, from which the eigenvalues are computed
+	protected float totalXX, totalYY, totalXY;
+
+	protected ImplSsdCornerFused_F32( int windowRadius ) {
+		this.radius = windowRadius;
+
+		int windowWidth = radius*2+1;
+		horizXX = new float[windowWidth][0];
+		horizXY = new float[windowWidth][0];
+		horizYY = new float[windowWidth][0];
+	}
+
+	/**
+	 * Computes the pixel's corner intensity.
+	 * @return corner intensity.
+	 */
+	protected abstract float computeIntensity();
+
+	@Override
+	public void process(ImageFloat32 image, ImageFloat32 intensity) {
+		InputSanityCheck.checkSameShape(image,intensity);
+
+		final int width = image.width;
+		final int height = image.height;
+		final int windowWidth = radius*2+1;
+
+		if( width < windowWidth || height < windowWidth )
+			return;
+
+		declareStorage(width);
+
+		final float inten[] = intensity.data;
+
+		for( int y = 0; y < height; y++ ) {
+			gradientRow(image,y);
+
+			int slot = y % windowWidth;
+			updateSums(horizXX[slot],horizXY[slot],horizYY[slot],width);
+
+			if( y < windowWidth-1 )
+				continue;
+
+			// compute the intensity at the window's center row
+			int indexOut = intensity.startIndex + (y-radius)*intensity.stride + radius;
+			for( int x = radius; x < width-radius; x++ ) {
+				totalXX = sumXX[x];
+				totalXY = sumXY[x];
+				totalYY = sumYY[x];
+
+				inten[indexOut++] = computeIntensity();
+			}
+		}
+	}
+
+	/**
+	 * Computes the Sobel gradient along a row, with the image border extended
+	 */
+	private void gradientRow( ImageFloat32 image , int y ) {
+		final float data[] = image.data;
+		final int width = image.width;
+
+		int indexT = image.startIndex + Math.max(y-1,0)*image.stride;
+		int indexC = image.startIndex + y*image.stride;
+		int indexB = image.startIndex + Math.min(y+1,image.height-1)*image.stride;
+
+		for( int x = 1; x < width-1; x++ ) {
+			float t0 = data[indexT+x-1], t1 = data[indexT+x], t2 = data[indexT+x+1];
+			float c0 = data[indexC+x-1],                      c2 = data[indexC+x+1];
+			float b0 = data[indexB+x-1], b1 = data[indexB+x], b2 = data[indexB+x+1];
+
+			float v = (b2 - t0)*0.25f;
+			float w = (b0 - t2)*0.25f;
+
+			derivY[x] = (b1 - t1)*0.5f + v + w;
+			derivX[x] = (c2 - c0)*0.5f + v - w;
+		}
+
+		gradientBorder(data,indexT,indexC,indexB,0,0,Math.min(1,width-1));
+		gradientBorder(data,indexT,indexC,indexB,width-1,Math.max(0,width-2),width-1);
+	}
+
+	private void gradientBorder( float data[] , int indexT , int indexC , int indexB , int x , int x0 , int x2 ) {
+		float t0 = data[indexT+x0], t1 = data[indexT+x], t2 = data[indexT+x2];
+		float c0 = data[indexC+x0],                      c2 = data[indexC+x2];
+		float b0 = data[indexB+x0], b1 = data[indexB+x], b2 = data[indexB+x2];
+
+		float v = (b2 - t0)*0.25f;
+		float w = (b0 - t2)*0.25f;
+
+		derivY[x] = (b1 - t1)*0.5f + v + w;
+		derivX[x] = (c2 - c0)*0.5f + v - w;
+	}
+
+	/**
+	 * Computes the horizontal sums for the current row, replaces the oldest row in the circular buffer
+	 * with it, and updates the sum inside the window for each column.
+	 */
+	private void updateSums( float hXX[] , float hXY[] , float hYY[] , int width ) {
+		final int windowWidth = radius*2+1;
+
+		float totalXX = 0, totalXY = 0, totalYY = 0;
+		for( int x = 0; x < windowWidth; x++ ) {
+			float dx = derivX[x];
+			float dy = derivY[x];
+
+			totalXX += dx*dx;
+			totalXY += dx*dy;
+			totalYY += dy*dy;
+		}
+
+		int x = radius;
+		while( true ) {
+			// same order of operations as ImplSsdCorner_F32 to reduce rounding differences
+			sumXX[x] = sumXX[x] - hXX[x] + totalXX;
+			sumXY[x] = sumXY[x] - hXY[x] + totalXY;
+			sumYY[x] = sumYY[x] - hYY[x] + totalYY;
+			hXX[x] = totalXX;
+			hXY[x] = totalXY;
+			hYY[x] = totalYY;
+
+			if( ++x >= width-radius )
+				break;
+
+			float dx = derivX[x-radius-1];
+			float dy = derivY[x-radius-1];
+
+			totalXX -= dx*dx;
+			totalXY -= dx*dy;
+			totalYY -= dy*dy;
+
+			dx = derivX[x+radius];
+			dy = derivY[x+radius];
+
+			totalXX += dx*dx;
+			totalXY += dx*dy;
+			totalYY += dy*dy;
+		}
+	}
+
+	private void declareStorage( int width ) {
+		if( derivX.length < width ) {
+			derivX = new float[width];
+			derivY = new float[width];
+			sumXX = new float[width];
+			sumXY = new float[width];
+			sumYY = new float[width];
+			for( int i = 0; i < horizXX.length; i++ ) {
+				horizXX[i] = new float[width];
+				horizXY[i] = new float[width];
+				horizYY[i] = new float[width];
+			}
+		} else {
+			Arrays.fill(sumXX,0);
+			Arrays.fill(sumXY,0);
+			Arrays.fill(sumYY,0);
+			for( int i = 0; i < horizXX.length; i++ ) {
+				Arrays.fill(horizXX[i],0);
+				Arrays.fill(horizXY[i],0);
+				Arrays.fill(horizYY[i],0);
+			}
+		}
+	}
+
+	@Override
+	public int getRadius() {
+		return radius;
+	}
+
+	@Override
+	public int getIgnoreBorder() {
+		return radius;
+	}
+}
@@ -85,11 +85,11 @@ import java.util.List;
 public class FastHessianFeatureDetector<II extends ImageSingleBand> {
 
 	// finds features from 2D intensity image
-	private NonMaxSuppression extractor;
+	protected NonMaxSuppression extractor;
 	// sorts feature by their intensity
 	private SelectNBestFeatures sortBest;
 	// the maximum number of returned feature per scale
-	private int maxFeaturesPerScale;
+	protected int maxFeaturesPerScale;
 
 	// local sub-space
 	private ImageFloat32 intensity[];
@@ -97,19 +97,19 @@ public class FastHessianFeatureDetector<II extends ImageSingleBand> {
 	private QueueCorner foundFeatures = new QueueCorner(100);
 
 	// List of found feature points
-	private FastQueue<ScalePoint> foundPoints = new FastQueue<ScalePoint>(10,ScalePoint.class,true);
+	protected FastQueue<ScalePoint> foundPoints = new FastQueue<ScalePoint>(10,ScalePoint.class,true);
 
 	// size of detected feature at the smallest scale
-	private int initialSize;
+	protected int initialSize;
 	// the number of octaves it examines
-	private int numberOfOctaves;
+	protected int numberOfOctaves;
 
 	// local variables that are predeclared
-	private int sizes[];
+	protected int sizes[];
 
 	// how often the image is sampled in the first octave
 	// a value of 1 would mean every pixel is sampled
-	private int initialSampleRate;
+	protected int initialSampleRate;
 
 	/**
 	 * <p>
@@ -229,16 +229,42 @@ public class FastHessianFeatureDetector<II extends ImageSingleBand> {
 		int index1 = (spaceIndex + 1) % 3;
 		int index2 = (spaceIndex + 2) % 3;
 
-		ImageBorder_F32 inten0 = (ImageBorder_F32)FactoryImageBorderAlgs.value(intensity[index0], 0);
-		ImageFloat32 inten1 = intensity[index1];
-		ImageBorder_F32 inten2 = (ImageBorder_F32)FactoryImageBorderAlgs.value(intensity[index2], 0);
+		findLocalScaleSpaceMax(intensity[index0],intensity[index1],intensity[index2],size[level-1],size[level],skip,
+				extractor,sortBest,maxFeaturesPerScale,foundFeatures,foundPoints);
+	}
+
+	/**
+	 * Looks for features which are local maximums in the middle intensity image and in scale-space.  Found
+	 * features are added to the end of the list.
+	 *
+	 * @param lower Intensity of the next smaller feature size
+	 * @param middle Intensity of the feature size which features are detected in
+	 * @param upper Intensity of the next larger feature size
+	 * @param sizeLower Size of the next smaller feature
+	 * @param sizeMiddle Size of the feature which is being detected
+	 * @param skip How many pixels are skipped over.
+	 * @param extractor Finds local maximums in 2D.  Its ignore border is modified.
+	 * @param sortBest Selects the most intense features.  If null all features are used.
+	 * @param maxFeatures Maximum number of features which are added.  Only used if sortBest isn't null.
+	 * @param foundFeatures Storage for 2D local maximums
+	 * @param foundPoints (Output) Detected features.
+	 */
+	protected static void findLocalScaleSpaceMax( ImageFloat32 lower , ImageFloat32 middle , ImageFloat32 upper ,
+												  int sizeLower , int sizeMiddle , int skip ,
+												  NonMaxSuppression extractor , SelectNBestFeatures sortBest ,
+												  int maxFeatures ,
+												  QueueCorner foundFeatures , FastQueue<ScalePoint> foundPoints ) {
+
+		ImageBorder_F32 inten0 = (ImageBorder_F32)FactoryImageBorderAlgs.value(lower, 0);
+		ImageFloat32 inten1 = middle;
+		ImageBorder_F32 inten2 = (ImageBorder_F32)FactoryImageBorderAlgs.value(upper, 0);
 
 		// find local maximums in image 2D space.  Borders need to be ignored since
 		// false positives are found around them as an artifact of pixels outside being
 		// treated as being zero.
 		foundFeatures.reset();
-		extractor.setIgnoreBorder(size[level] / (2 * skip)+extractor.getSearchRadius());
-		extractor.process(intensity[index1],null,null,null,foundFeatures);
+		extractor.setIgnoreBorder(sizeMiddle / (2 * skip)+extractor.getSearchRadius());
+		extractor.process(middle,null,null,null,foundFeatures);
 
 		// number of features which can be added
 		int numberRemaining;
@@ -246,16 +272,16 @@ public class FastHessianFeatureDetector<II extends ImageSingleBand> {
 		// if configured to do so, only select the features with the highest intensity
 		QueueCorner features;
 		if( sortBest != null ) {
-			sortBest.process(intensity[index1],foundFeatures,true);
+			sortBest.process(middle,foundFeatures,true);
 			features = sortBest.getBestCorners();
-			numberRemaining = maxFeaturesPerScale;
+			numberRemaining = maxFeatures;
 		} else {
 			features = foundFeatures;
 			numberRemaining = Integer.MAX_VALUE;
 		}
 
-		int levelSize = size[level];
-		int sizeStep = levelSize-size[level-1];
+		int levelSize = sizeMiddle;
+		int sizeStep = levelSize-sizeLower;
 
 		// see if these local maximums are also a maximum in scale-space
 		for( int i = 0; i < features.size && numberRemaining > 0; i++ ) {
@@ -0,0 +1,269 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.feature.detect.interest;
+
+import boofcv.abst.feature.detect.extract.NonMaxSuppression;
+import boofcv.alg.feature.detect.extract.SelectNBestFeatures;
+import boofcv.alg.feature.detect.intensity.GIntegralImageFeatureIntensity;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeTask;
+import boofcv.concurrency.WorkerPool;
+import boofcv.struct.QueueCorner;
+import boofcv.struct.feature.ScalePoint;
+import boofcv.struct.image.ImageFloat32;
+import boofcv.struct.image.ImageSingleBand;
+import org.ddogleg.struct.FastQueue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>
+ * Concurrent implementation of {@link FastHessianFeatureDetector}.  Processing is done in two steps.  First the
+ * Hessian intensity is computed for every feature size in every octave, with each octave having its own set of
+ * intensity images.  Then local maximums are found in each octave and feature size which has a smaller and larger
+ * size.  The work in each step is divided into one bin per thread, with the bins balanced by the number of pixels
+ * in each task.
+ * </p>
+ *
+ * <p>
+ * Each task writes the features it finds into its own list.  Once all the tasks are done the lists are combined
+ * in the same order they would have been found by the single threaded algorithm.  The output is identical to the
+ * single threaded algorithm and does not depend on the number of threads.
+ * </p>
+ *
+ * <p>
+ * Each thread needs its own {@link NonMaxSuppression}, which are created by {@link #createExtractor()}.  If
+ * {@link BoofConcurrency#USE_CONCURRENT} is false or there is only one thread then the single threaded algorithm
+ * is used.  Memory usage is higher than the single threaded algorithm since all the intensity images are saved.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public abstract class FastHessianFeatureDetectorConcurrent<II extends ImageSingleBand>
+		extends FastHessianFeatureDetector<II>
+{
+	// intensity image for each octave and feature size
+	private List<ImageFloat32[]> octaveIntensity = new ArrayList<ImageFloat32[]>();
+
+	// feature sizes and sample rate of each octave which is processed
+	private int octaveSizes[][];
+	private int octaveSkip[];
+	private int numOctaves;
+
+	// features found by each scale-space detection task
+	private List<FastQueue<ScalePoint>> taskPoints = new ArrayList<FastQueue<ScalePoint>>();
+
+	// which bin each task has been assigned to
+	private int taskBin[] = new int[0];
+	private long binCost[] = new long[0];
+
+	// workers which are not currently being used by a thread
+	private final WorkerPool<Worker> workers = new WorkerPool<Worker>() {
+		@Override
+		protected Worker createInstance() {
+			return new Worker(createExtractor());
+		}
+	};
+
+	/**
+	 * See {@link FastHessianFeatureDetector} for a description of each parameter.
+	 *
+	 * @param extractor Feature extractor used to find local maximums in 2D image.  Used by one of the threads.
+	 */
+	protected FastHessianFeatureDetectorConcurrent(NonMaxSuppression extractor, int maxFeaturesPerScale,
+												   int initialSampleRate, int initialSize,
+												   int numberScalesPerOctave,
+												   int numberOfOctaves) {
+		super(extractor, maxFeaturesPerScale, initialSampleRate, initialSize, numberScalesPerOctave, numberOfOctaves);
+		workers.release(new Worker(extractor));
+
+		octaveSizes = new int[numberOfOctaves][numberScalesPerOctave];
+		octaveSkip = new int[numberOfOctaves];
+	}
+
+	/**
+	 * Creates a new extractor, configured the same as the one passed into the constructor.
+	 */
+	protected abstract NonMaxSuppression createExtractor();
+
+	@Override
+	public void detect( final II integral ) {
+		// with a single thread saving all the intensity images only adds overhead
+		if( !BoofConcurrency.USE_CONCURRENT || BoofConcurrency.getMaxThreads() <= 1 ) {
+			super.detect(integral);
+			return;
+		}
+
+		foundPoints.reset();
+		selectOctaves(integral.width,integral.height);
+
+		final int numScales = sizes.length;
+
+		// compute the intensity for every feature size
+		final int numIntensity = numOctaves*numScales;
+		int numBins = assignBins(numIntensity,numScales,integral.width,integral.height);
+
+		BoofConcurrency.loopBlocks(0,numBins,1,new IntRangeTask() {
+			@Override
+			public void process(int start, int end) {
+				for( int task = 0; task < numIntensity; task++ ) {
+					if( taskBin[task] < start || taskBin[task] >= end )
+						continue;
+					int octave = task/numScales;
+					int i = task%numScales;
+					GIntegralImageFeatureIntensity.hessian(integral, octaveSkip[octave],
+							octaveSizes[octave][i], octaveIntensity.get(octave)[i]);
+				}
+			}
+		});
+
+		// find features in each feature size which has a smaller and larger size
+		final int numLevels = numScales-2;
+		final int numDetect = numOctaves*numLevels;
+		while( taskPoints.size() < numDetect )
+			taskPoints.add(new FastQueue<ScalePoint>(10,ScalePoint.class,true));
+		numBins = assignBins(numDetect,numLevels,integral.width,integral.height);
+
+		BoofConcurrency.loopBlocks(0,numBins,1,new IntRangeTask() {
+			@Override
+			public void process(int start, int end) {
+				Worker w = workers.borrow();
+				try {
+					for( int task = 0; task < numDetect; task++ ) {
+						if( taskBin[task] < start || taskBin[task] >= end )
+							continue;
+						int octave = task/numLevels;
+						int level = task%numLevels + 1;
+						ImageFloat32[] inten = octaveIntensity.get(octave);
+						int[] size = octaveSizes[octave];
+
+						FastQueue<ScalePoint> points = taskPoints.get(task);
+						points.reset();
+						findLocalScaleSpaceMax(inten[level-1],inten[level],inten[level+1],
+								size[level-1],size[level],octaveSkip[octave],
+								w.extractor,w.sortBest,maxFeaturesPerScale,w.foundFeatures,points);
+					}
+				} finally {
+					workers.release(w);
+				}
+			}
+		});
+
+		// combine the results in the same order as the single threaded algorithm
+		for( int task = 0; task < numDetect; task++ ) {
+			FastQueue<ScalePoint> points = taskPoints.get(task);
+			for( int i = 0; i < points.size; i++ ) {
+				foundPoints.grow().set(points.get(i));
+			}
+		}
+	}
+
+	/**
+	 * Determines the feature sizes and sample rate of each octave which will be processed and makes sure
+	 * there is an intensity image for each one.  Same logic as the single threaded algorithm.
+	 */
+	private void selectOctaves( int width , int height ) {
+		int skip = initialSampleRate;
+		int sizeStep = 6;
+		int octaveSize = initialSize;
+
+		numOctaves = 0;
+		for( int octave = 0; octave < numberOfOctaves; octave++ ) {
+			int[] size = octaveSizes[octave];
+			for( int i = 0; i < size.length; i++ ) {
+				size[i] = octaveSize + i*sizeStep;
+			}
+			// if the maximum kernel size is larger than the image don't process
+			// the image any more
+			int maxSize = size[size.length-1];
+			if( maxSize > width || maxSize > height )
+				break;
+
+			octaveSkip[octave] = skip;
+			if( octaveIntensity.size() <= octave ) {
+				ImageFloat32[] inten = new ImageFloat32[size.length];
+				for( int i = 0; i < inten.length; i++ ) {
+					inten[i] = new ImageFloat32(width/skip,height/skip);
+				}
+				octaveIntensity.add(inten);
+			} else {
+				ImageFloat32[] inten = octaveIntensity.get(octave);
+				for( int i = 0; i < inten.length; i++ ) {
+					inten[i].reshape(width/skip,height/skip);
+				}
+			}
+
+			numOctaves++;
+			skip += skip;
+			octaveSize += sizeStep;
+			sizeStep += sizeStep;
+		}
+	}
+
+	/**
+	 * Assigns tasks to bins so that each bin has about the same number of pixels to process.  Larger tasks
+	 * are assigned first, each to the bin with the fewest pixels.  Tasks are ordered by octave.
+	 *
+	 * @param numTasks Total number of tasks
+	 * @param tasksPerOctave Number of tasks in each octave
+	 * @return Number of bins
+	 */
+	private int assignBins( int numTasks , int tasksPerOctave , int width , int height ) {
+		int numBins = Math.max(1,Math.min(BoofConcurrency.getMaxThreads(),numTasks));
+
+		if( taskBin.length < numTasks )
+			taskBin = new int[numTasks];
+		if( binCost.length < numBins )
+			binCost = new long[numBins];
+		for( int i = 0; i < numBins; i++ )
+			binCost[i] = 0;
+
+		// the number of pixels decreases with each octave, so tasks are already sorted by cost
+		for( int task = 0; task < numTasks; task++ ) {
+			int skip = octaveSkip[task/tasksPerOctave];
+			long cost = (long)(width/skip)*(height/skip);
+
+			int best = 0;
+			for( int i = 1; i < numBins; i++ ) {
+				if( binCost[i] < binCost[best] )
+					best = i;
+			}
+			taskBin[task] = best;
+			binCost[best] += cost;
+		}
+
+		return numBins;
+	}
+
+	/**
+	 * Storage used by a single thread when searching for local maximums
+	 */
+	private class Worker {
+		NonMaxSuppression extractor;
+		SelectNBestFeatures sortBest;
+		QueueCorner foundFeatures = new QueueCorner(100);
+
+		Worker(NonMaxSuppression extractor) {
+			this.extractor = extractor;
+			if( maxFeaturesPerScale > 0 )
+				sortBest = new SelectNBestFeatures(maxFeaturesPerScale);
+		}
+	}
+}
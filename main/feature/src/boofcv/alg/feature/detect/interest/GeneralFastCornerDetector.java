@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.feature.detect.interest;
+
+import boofcv.abst.feature.detect.extract.NonMaxSuppression;
+import boofcv.abst.feature.detect.intensity.WrapperFastCornerIntensity;
+import boofcv.alg.feature.detect.intensity.FastCornerInterface;
+import boofcv.struct.image.ImageSingleBand;
+
+/**
+ * <p>
+ * {@link GeneralFeatureDetector} for FAST corners.  When possible the corners are found using
+ * {@link FastCornerInterface#detect}, which applies non-maximum suppression while scanning the image
+ * and never writes the intensity image.  That is only possible when the extractor uses a search radius of one,
+ * all the features are requested and no features are excluded.  Otherwise the intensity image is computed and the
+ * extractor is used like any other detector.  The extractor must use the strict rule and only detect maximums.
+ * </p>
+ *
+ * <p>
+ * NOTE: When corners are detected directly the intensity image is not updated.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class GeneralFastCornerDetector<I extends ImageSingleBand, D extends ImageSingleBand>
+		extends GeneralFeatureDetector<I,D>
+{
+	// computes the corner intensity or detects them directly
+	FastCornerInterface<I> alg;
+
+	/**
+	 * Configures the detector
+	 *
+	 * @param alg FAST corner algorithm.
+	 * @param extractor Extracts maximums from the intensity image using the strict rule.
+	 */
+	public GeneralFastCornerDetector(FastCornerInterface<I> alg, NonMaxSuppression extractor) {
+		super(new WrapperFastCornerIntensity<I, D>(alg), extractor);
+		this.alg = alg;
+	}
+
+	@Override
+	public void process(I image, D derivX, D derivY, D derivXX, D derivYY, D derivXY) {
+		if( !isDetectDirect() ) {
+			super.process(image, derivX, derivY, derivXX, derivYY, derivXY);
+			return;
+		}
+
+		foundMinimum.reset();
+		alg.detect(image, extractor.getThresholdMaximum(), foundMaximum);
+	}
+
+	/**
+	 * Returns true if the corners will be detected without computing the intensity image
+	 */
+	public boolean isDetectDirect() {
+		return extractor.getSearchRadius() == 1 && maxFeatures <= 0 && excludeMaximum == null;
+	}
+}
@@ -19,6 +19,8 @@
 package boofcv.alg.feature.detect.interest;
 
 import boofcv.abst.filter.derivative.ImageGradient;
+import boofcv.alg.filter.blur.BlurImageOps;
+import boofcv.alg.filter.blur.impl.ImplGaussianRecursive;
 import boofcv.alg.filter.convolve.ConvolveNormalized;
 import boofcv.alg.misc.PixelMath;
 import boofcv.factory.filter.derivative.FactoryDerivative;
@@ -84,6 +86,9 @@ public class SiftImageScaleSpace {
 	// storage for applying blur
 	protected ImageFloat32 storage;
 
+	// should blur be applied using a recursive filter
+	private boolean recursiveBlur = false;
+
 	/**
 	 * Configures the scale-space.
 	 *
@@ -216,9 +221,15 @@ public class SiftImageScaleSpace {
 	 * the output image
 	 */
 	private void blurImage( ImageFloat32 input , ImageFloat32 output , double sigma ) {
+		storage.reshape(input.width,input.height);
+
+		if( recursiveBlur && sigma >= ImplGaussianRecursive.MIN_SIGMA ) {
+			BlurImageOps.gaussianRecursive(input,output,sigma,-1,storage);
+			return;
+		}
+
 		Kernel1D_F32 kernel = FactoryKernelGaussian.gaussian(Kernel1D_F32.class, sigma, -1);
 
-		storage.reshape(input.width,input.height);
 		ConvolveNormalized.horizontal(kernel, input, storage);
 		ConvolveNormalized.vertical(kernel,storage,output);
 	}
@@ -319,6 +330,21 @@ public class SiftImageScaleSpace {
 		}
 	}
 
+	/**
+	 * If true then Gaussian blur is approximated using a recursive filter, see
+	 * {@link BlurImageOps#gaussianRecursive(ImageFloat32, ImageFloat32, double, int, ImageFloat32)}.  Its cost
+	 * does not depend on sigma, making it faster for the larger amounts of blur applied to later scales.
+	 * Amounts of blur which are too small for the recursive filter are still applied using convolution.
+	 * By default this is false.
+	 */
+	public void setRecursiveBlur(boolean recursiveBlur) {
+		this.recursiveBlur = recursiveBlur;
+	}
+
+	public boolean isRecursiveBlur() {
+		return recursiveBlur;
+	}
+
 	public int getNumOctaves() {
 		return numOctaves;
 	}
@@ -0,0 +1,492 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.feature.detect.template;
+
+import boofcv.alg.filter.convolve.ConvolveFourier;
+import boofcv.alg.misc.ImageMiscOps;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeTask;
+import boofcv.factory.feature.detect.template.TemplateScoreType;
+import boofcv.struct.ImageRectangle;
+import boofcv.struct.image.ImageFloat32;
+import boofcv.struct.image.ImageFloat64;
+import boofcv.struct.image.ImageSingleBand;
+import boofcv.struct.image.ImageUInt8;
+
+/**
+ * <p>
+ * Template matching which computes the image statistics for each window in constant time using integral images.
+ * Both {@link TemplateScoreType#SUM_DIFF_SQ} and {@link TemplateScoreType#NCC} can be expanded into the sum and sum
+ * of squares of the image inside the window, statistics of the template, and the cross term between the image
+ * and the template.  The first two are found using integral images of the image and its square.  Only the cross
+ * term has a cost which depends on the template's size.  For small templates it is computed one row at a time
+ * with loops that access the image and template in sequential order.  Templates with at least
+ * {@link #FOURIER_MIN_AREA} pixels compute it in the frequency domain using {@link ConvolveFourier}, which has a
+ * cost that doesn't depend on the template's size.
+ * </p>
+ *
+ * <p>
+ * The scores are the same as {@link TemplateDiffSquared} and {@link TemplateNCC}, up to numerical precision.
+ * A region of interest can be specified, in which case only the image around the region is processed.
+ * If {@link BoofConcurrency#USE_CONCURRENT} is true then the rows are split across several threads.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public abstract class TemplateIntensityIntegral<T extends ImageSingleBand>
+		implements TemplateMatchingIntensity<T>
+{
+	/**
+	 * Templates with this many pixels or more compute the cross term in the frequency domain
+	 */
+	public static int FOURIER_MIN_AREA = 144;
+
+	// which score is computed
+	private TemplateScoreType type;
+
+	// Match intensity image
+	private ImageFloat32 intensity = new ImageFloat32(1, 1);
+
+	// offset from pixel intensity coordinate to top left corner of template
+	private int offsetX;
+	private int offsetY;
+
+	// region of interest in intensity image coordinates.  x1 and y1 are exclusive
+	private boolean useRegion = false;
+	private int regionX0,regionY0,regionX1,regionY1;
+
+	// integral image of the image and the image squared.  Has an extra row and column of zeros at the top and left
+	private double integral[] = new double[0];
+	private double integralSq[] = new double[0];
+	private int integralStride;
+
+	// used to compute the cross term for large templates
+	private ConvolveFourier fourier;
+	private ImageFloat64 imageF64 = new ImageFloat64(1,1);
+	private ImageFloat64 templateF64 = new ImageFloat64(1,1);
+	private ImageFloat64 crossF64 = new ImageFloat64(1,1);
+	private boolean useFourier;
+
+	// statistics of the template
+	protected int templateWidth,templateHeight;
+	private double area;
+	private double templateSumSq;
+	private double templateMean;
+	private double templateSigma;
+
+	/**
+	 * Specifies which score is computed
+	 *
+	 * @param type Type of error function
+	 */
+	protected TemplateIntensityIntegral(TemplateScoreType type) {
+		this.type = type;
+	}
+
+	/**
+	 * Only compute the intensity inside the specified region.  Outside the region the intensity is set to
+	 * -Float.MAX_VALUE.
+	 *
+	 * @param region Region in intensity image coordinates, upper extent is exclusive.  If null the whole image is
+	 *               processed.
+	 */
+	public void setSearchRegion( ImageRectangle region ) {
+		if( region == null ) {
+			useRegion = false;
+		} else {
+			useRegion = true;
+			regionX0 = region.x0;
+			regionY0 = region.y0;
+			regionX1 = region.x1;
+			regionY1 = region.y1;
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public void process(T image, T template) {
+		intensity.reshape(image.width, image.height);
+
+		offsetX = template.width / 2;
+		offsetY = template.height / 2;
+
+		// range of the template's top left corner
+		int x0 = 0, y0 = 0;
+		int x1 = image.width - template.width + 1;
+		int y1 = image.height - template.height + 1;
+
+		if( useRegion ) {
+			ImageMiscOps.fill(intensity,-Float.MAX_VALUE);
+			x0 = Math.max(x0,regionX0-offsetX);
+			y0 = Math.max(y0,regionY0-offsetY);
+			x1 = Math.min(x1,regionX1-offsetX);
+			y1 = Math.min(y1,regionY1-offsetY);
+		}
+
+		if( x1 <= x0 || y1 <= y0 )
+			return;
+
+		// only the part of the image which the template will be compared against is processed
+		T sub = (T)image.subimage(x0,y0,x1+template.width-1,y1+template.height-1);
+		ImageFloat32 output = intensity.subimage(x0+offsetX,y0+offsetY,x1+offsetX,y1+offsetY);
+
+		setupTemplate(template);
+		computeIntegral(sub);
+
+		useFourier = area >= FOURIER_MIN_AREA;
+		if( useFourier )
+			computeCrossFourier(sub, output.width, output.height);
+
+		computeScores(sub, output);
+	}
+
+	/**
+	 * Computes the cross term for every template location in the frequency domain
+	 */
+	private void computeCrossFourier( T image , int width , int height ) {
+		if( fourier == null )
+			fourier = new ConvolveFourier();
+
+		imageF64.reshape(image.width,image.height);
+		for( int y = 0; y < image.height; y++ ) {
+			int index = y*imageF64.stride;
+			for( int x = 0; x < image.width; x++ )
+				imageF64.data[index+x] = getImageValue(image,x,y);
+		}
+
+		templateF64.reshape(templateWidth,templateHeight);
+		for( int i = 0; i < templateWidth*templateHeight; i++ )
+			templateF64.data[i] = getTemplateValue(i);
+
+		crossF64.reshape(width,height);
+		fourier.correlateValid(imageF64,templateF64,crossF64);
+	}
+
+	/**
+	 * Computes the score for each row in the output image, possibly concurrently
+	 */
+	private void computeScores( final T image , final ImageFloat32 output ) {
+		IntRangeTask task = new IntRangeTask() {
+			@Override
+			public void process(int start, int end) {
+				double cross[] = new double[output.width];
+				RowCross rowCross = useFourier ? null : createRowCross(output.width);
+				for( int y = start; y < end; y++ ) {
+					computeRow(image, y, cross, rowCross, output);
+				}
+			}
+		};
+
+		if( BoofConcurrency.USE_CONCURRENT ) {
+			BoofConcurrency.loopBlocks(0,output.height,Math.max(1,(int)(50000/(area*output.width))),task);
+		} else {
+			task.process(0,output.height);
+		}
+	}
+
+	/**
+	 * Computes the score for every template location in the row
+	 */
+	private void computeRow( T image , int y , double cross[] , RowCross rowCross , ImageFloat32 output ) {
+		if( useFourier ) {
+			System.arraycopy(crossF64.data,y*crossF64.stride,cross,0,output.width);
+		} else {
+			for( int x = 0; x < output.width; x++ )
+				cross[x] = 0;
+
+			rowCross.process(image, y, output.width, cross);
+		}
+
+		int indexOut = output.startIndex + y*output.stride;
+		int indexTop = y*integralStride;
+		int indexBottom = (y+templateHeight)*integralStride;
+
+		for( int x = 0; x < output.width; x++ ) {
+			int tl = indexTop + x;
+			int tr = tl + templateWidth;
+			int bl = indexBottom + x;
+			int br = bl + templateWidth;
+
+			double sum = integral[br] - integral[tr] - integral[bl] + integral[tl];
+			double sumSq = integralSq[br] - integralSq[tr] - integralSq[bl] + integralSq[tl];
+
+			if( type == TemplateScoreType.SUM_DIFF_SQ ) {
+				output.data[indexOut+x] = (float)-(sumSq - 2*cross[x] + templateSumSq);
+			} else {
+				double mean = sum/area;
+				double variance = sumSq/area - mean*mean;
+				double sigma = variance > 0 ? Math.sqrt(variance) : 0;
+
+				double denominator = sigma*templateSigma;
+				if( denominator == 0 ) {
+					output.data[indexOut+x] = 0;
+				} else {
+					double top = cross[x] - area*mean*templateMean;
+					output.data[indexOut+x] = (float)(top/denominator);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Computes statistics of the template and saves a copy of it for computing the cross term.
+	 */
+	private void setupTemplate( T template ) {
+		templateWidth = template.width;
+		templateHeight = template.height;
+		area = template.width*template.height;
+
+		copyTemplate(template);
+
+		double sum = 0;
+		templateSumSq = 0;
+		for( int y = 0; y < template.height; y++ ) {
+			for( int x = 0; x < template.width; x++ ) {
+				double value = getTemplateValue(x + y*template.width);
+				sum += value;
+				templateSumSq += value*value;
+			}
+		}
+
+		templateMean = sum/area;
+		double variance = templateSumSq/area - templateMean*templateMean;
+		templateSigma = variance > 0 ? Math.sqrt(variance) : 0;
+	}
+
+	/**
+	 * Computes the integral image of the image and of the image squared
+	 */
+	private void computeIntegral( T image ) {
+		integralStride = image.width+1;
+		int N = integralStride*(image.height+1);
+		if( integral.length < N ) {
+			integral = new double[N];
+			integralSq = new double[N];
+		}
+
+		for( int x = 0; x < integralStride; x++ ) {
+			integral[x] = 0;
+			integralSq[x] = 0;
+		}
+
+		for( int y = 0; y < image.height; y++ ) {
+			int indexOut = (y+1)*integralStride;
+			int indexPrev = indexOut - integralStride;
+
+			integral[indexOut] = 0;
+			integralSq[indexOut] = 0;
+
+			double rowSum = 0, rowSumSq = 0;
+			for( int x = 0; x < image.width; x++ ) {
+				double value = getImageValue(image,x,y);
+				rowSum += value;
+				rowSumSq += value*value;
+				integral[indexOut+x+1] = integral[indexPrev+x+1] + rowSum;
+				integralSq[indexOut+x+1] = integralSq[indexPrev+x+1] + rowSumSq;
+			}
+		}
+	}
+
+	/**
+	 * Copies the template into internal storage for computing the cross term
+	 */
+	protected abstract void copyTemplate( T template );
+
+	/**
+	 * Returns the value of the template from internal storage
+	 *
+	 * @param index index of the pixel, x + y*width
+	 */
+	protected abstract double getTemplateValue( int index );
+
+	protected abstract double getImageValue( T image , int x , int y );
+
+	/**
+	 * Creates the cross term calculator used by a single thread
+	 *
+	 * @param length Maximum number of template locations in a row
+	 */
+	protected abstract RowCross createRowCross( int length );
+
+	/**
+	 * Computes the cross term one row at a time.  Each thread has its own instance so that the storage
+	 * for a row is only declared once.
+	 */
+	protected abstract class RowCross {
+		/**
+		 * Adds the sum of the template multiplied by the image for each template location in the row.
+		 *
+		 * @param image Image being processed
+		 * @param y Template's top left corner y-coordinate
+		 * @param length Number of template locations in the row
+		 * @param cross Storage for the cross term.  Initially filled with zeros.
+		 */
+		public abstract void process( T image , int y , int length , double cross[] );
+	}
+
+	@Override
+	public ImageFloat32 getIntensity() {
+		return intensity;
+	}
+
+	@Override
+	public boolean isBorderProcessed() {
+		return false;
+	}
+
+	@Override
+	public int getOffsetX() {
+		return offsetX;
+	}
+
+	@Override
+	public int getOffsetY() {
+		return offsetY;
+	}
+
+	public TemplateScoreType getType() {
+		return type;
+	}
+
+	public static class F32 extends TemplateIntensityIntegral<ImageFloat32> {
+
+		float templateData[] = new float[0];
+
+		public F32(TemplateScoreType type) {
+			super(type);
+		}
+
+		@Override
+		protected void copyTemplate(ImageFloat32 template) {
+			int N = template.width*template.height;
+			if( templateData.length < N )
+				templateData = new float[N];
+
+			for( int y = 0; y < template.height; y++ ) {
+				System.arraycopy(template.data,template.startIndex + y*template.stride,
+						templateData,y*template.width,template.width);
+			}
+		}
+
+		@Override
+		protected double getTemplateValue(int index) {
+			return templateData[index];
+		}
+
+		@Override
+		protected double getImageValue(ImageFloat32 image, int x, int y) {
+			return image.data[image.startIndex + y*image.stride + x];
+		}
+
+		@Override
+		protected RowCross createRowCross(final int maxLength) {
+			return new RowCross() {
+				float rowCross[] = new float[maxLength];
+
+				@Override
+				public void process(ImageFloat32 image, int y, int length, double[] cross) {
+					for( int v = 0; v < templateHeight; v++ ) {
+						int indexRow = image.startIndex + (y+v)*image.stride;
+						int indexTemplate = v*templateWidth;
+
+						for( int x = 0; x < length; x++ )
+							rowCross[x] = 0;
+
+						// loop through the template first so that the inner loop is a simple multiply add over the row
+						for( int u = 0; u < templateWidth; u++ ) {
+							float t = templateData[indexTemplate+u];
+							int indexImage = indexRow + u;
+							for( int x = 0; x < length; x++ ) {
+								rowCross[x] += image.data[indexImage+x]*t;
+							}
+						}
+
+						for( int x = 0; x < length; x++ )
+							cross[x] += rowCross[x];
+					}
+				}
+			};
+		}
+	}
+
+	public static class U8 extends TemplateIntensityIntegral<ImageUInt8> {
+
+		int templateData[] = new int[0];
+
+		public U8(TemplateScoreType type) {
+			super(type);
+		}
+
+		@Override
+		protected void copyTemplate(ImageUInt8 template) {
+			int N = template.width*template.height;
+			if( templateData.length < N )
+				templateData = new int[N];
+
+			for( int y = 0; y < template.height; y++ ) {
+				int indexIn = template.startIndex + y*template.stride;
+				int indexOut = y*template.width;
+				for( int x = 0; x < template.width; x++ ) {
+					templateData[indexOut+x] = template.data[indexIn+x] & 0xFF;
+				}
+			}
+		}
+
+		@Override
+		protected double getTemplateValue(int index) {
+			return templateData[index];
+		}
+
+		@Override
+		protected double getImageValue(ImageUInt8 image, int x, int y) {
+			return image.data[image.startIndex + y*image.stride + x] & 0xFF;
+		}
+
+		@Override
+		protected RowCross createRowCross(final int maxLength) {
+			return new RowCross() {
+				int rowCross[] = new int[maxLength];
+
+				@Override
+				public void process(ImageUInt8 image, int y, int length, double[] cross) {
+					for( int v = 0; v < templateHeight; v++ ) {
+						int indexRow = image.startIndex + (y+v)*image.stride;
+						int indexTemplate = v*templateWidth;
+
+						for( int x = 0; x < length; x++ )
+							rowCross[x] = 0;
+
+						// loop through the template first so that the inner loop is a simple multiply add over the row.
+						// a row can't overflow unless the template is more than 33,000 pixels wide
+						for( int u = 0; u < templateWidth; u++ ) {
+							int t = templateData[indexTemplate+u];
+							int indexImage = indexRow + u;
+							for( int x = 0; x < length; x++ ) {
+								rowCross[x] += (image.data[indexImage+x] & 0xFF)*t;
+							}
+						}
+
+						for( int x = 0; x < length; x++ )
+							cross[x] += rowCross[x];
+					}
+				}
+			};
+		}
+	}
+}
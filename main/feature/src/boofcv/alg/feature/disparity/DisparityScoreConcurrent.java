@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.feature.disparity;
+
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeTask;
+import boofcv.concurrency.WorkerPool;
+import boofcv.struct.image.ImageSingleBand;
+
+/**
+ * <p>
+ * Computes disparity concurrently by splitting the image into horizontal strips.  Each strip is processed by its own
+ * instance of a {@link DisparityScoreRowFormat} algorithm, along with its own {@link DisparitySelect}, which are
+ * created by {@link #createAlg()}.  A strip's input sub-images are extended above and below by the y-axis border so
+ * that each output row is computed by exactly one strip using the same pixels as the single threaded algorithm.
+ * Results are identical to the single threaded algorithm for integer images.  For floating point images the scores
+ * are summed in a different order, which can cause small differences.
+ * </p>
+ *
+ * <p>
+ * The number of strips is determined by {@link BoofConcurrency}.  If {@link BoofConcurrency#USE_CONCURRENT} is
+ * false then the whole image is processed by a single instance.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public abstract class DisparityScoreConcurrent<Input extends ImageSingleBand, Disparity extends ImageSingleBand>
+	extends DisparityScoreRowFormat<Input,Disparity>
+{
+	// minimum number of output rows in a strip
+	private int minRows;
+
+	// used to look up border, type and other information
+	private DisparityScoreRowFormat<Input,Disparity> prototype;
+
+	// algorithms which are not currently being used by a thread
+	private final WorkerPool<DisparityScoreRowFormat<Input,Disparity>> workers =
+			new WorkerPool<DisparityScoreRowFormat<Input,Disparity>>() {
+		@Override
+		protected DisparityScoreRowFormat<Input,Disparity> createInstance() {
+			return createAlg();
+		}
+	};
+
+	/**
+	 * Configures the concurrent algorithm
+	 *
+	 * @param prototype An instance of the algorithm.  It will be used to process one of the strips.
+	 * @param minRows Minimum number of output rows in a strip.  Try 20.
+	 */
+	protected DisparityScoreConcurrent( DisparityScoreRowFormat<Input,Disparity> prototype , int minRows ) {
+		super(prototype.getMinDisparity(), prototype.getMaxDisparity(),
+				prototype.getRadiusX(), prototype.getRadiusY());
+		this.prototype = prototype;
+		this.minRows = Math.max(1,minRows);
+		workers.release(prototype);
+	}
+
+	/**
+	 * Creates a new instance of the algorithm, configured the same as the prototype.  Each instance must have
+	 * its own {@link DisparitySelect}.
+	 */
+	protected abstract DisparityScoreRowFormat<Input,Disparity> createAlg();
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public void _process( final Input left , final Input right , final Disparity disparity ) {
+		final int border = prototype.getBorderY();
+
+		// all the output rows are processed in the same strip
+		if( !BoofConcurrency.USE_CONCURRENT || left.height <= 2*border + minRows ) {
+			DisparityScoreRowFormat<Input,Disparity> alg = workers.borrow();
+			try {
+				alg.process(left,right,disparity);
+			} finally {
+				workers.release(alg);
+			}
+			return;
+		}
+
+		BoofConcurrency.loopBlocks(border, left.height - border, minRows, new IntRangeTask() {
+			@Override
+			public void process(int start, int end) {
+				// extend the strip so that output rows from start to end are computed
+				int y0 = start - border;
+				int y1 = end + border;
+
+				DisparityScoreRowFormat<Input,Disparity> alg = workers.borrow();
+				try {
+					alg.process((Input)left.subimage(0,y0,left.width,y1),
+							(Input)right.subimage(0,y0,right.width,y1),
+							(Disparity)disparity.subimage(0,y0,disparity.width,y1));
+				} finally {
+					workers.release(alg);
+				}
+			}
+		});
+	}
+
+	@Override
+	public Class<Input> getInputType() {
+		return prototype.getInputType();
+	}
+
+	@Override
+	public Class<Disparity> getDisparityType() {
+		return prototype.getDisparityType();
+	}
+
+	@Override
+	public int getBorderX() {
+		return prototype.getBorderX();
+	}
+
+	@Override
+	public int getBorderY() {
+		return prototype.getBorderY();
+	}
+
+	public int getMinRows() {
+		return minRows;
+	}
+}
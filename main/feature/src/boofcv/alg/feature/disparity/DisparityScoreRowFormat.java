@@ -119,6 +119,14 @@ public abstract class DisparityScoreRowFormat
 		return maxDisparity;
 	}
 
+	public int getRadiusX() {
+		return radiusX;
+	}
+
+	public int getRadiusY() {
+		return radiusY;
+	}
+
 	public int getBorderX() {
 		return radiusX;
 	}
@@ -0,0 +1,242 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.feature.disparity;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Aggregates the matching cost along 8 or 16 paths for Semi-Global Matching (SGM) [1].  Along each path the cost
+ * of pixel p at disparity d is computed recursively from the previous pixel q on the path:<br>
+ * L(p,d) = C(p,d) + min( L(q,d) , L(q,d-1) + P1 , L(q,d+1) + P1 , min<sub>i</sub> L(q,i) + P2 ) - min<sub>i</sub> L(q,i)<br>
+ * where P1 is the penalty for a small change in disparity and P2 the penalty for a large change.  The
+ * aggregated cost is the sum of L across all the paths.  8 paths move horizontally, vertically, and diagonally.
+ * 16 paths adds paths which move two pixels along one axis for each pixel along the other.
+ * </p>
+ *
+ * <p>
+ * Cost volumes use the same format as {@link SgmCostFunction}.  Subtracting the minimum keeps L &le; maxCost + P2,
+ * which allows path costs to be stored in a short and the sum to be stored in a short which is interpreted as an
+ * unsigned value, as long as numPaths*(maxCost + P2) &le; 65535.  Only the previous two rows of L are saved for
+ * each path.
+ * </p>
+ *
+ * <p>
+ * [1] Hirschmuller, H. "Stereo processing by semiglobal matching and mutual information." IEEE Transactions
+ * on Pattern Analysis and Machine Intelligence 30.2 (2008): 328-341.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class SgmCostAggregation {
+
+	// directions along which paths move.  (dx,dy)
+	private static final int[][] PATHS_8 = new int[][]{
+			{1,0},{-1,0},{0,1},{0,-1},{1,1},{-1,1},{1,-1},{-1,-1}};
+	private static final int[][] PATHS_16 = new int[][]{
+			{1,0},{-1,0},{0,1},{0,-1},{1,1},{-1,1},{1,-1},{-1,-1},
+			{2,1},{-2,1},{2,-1},{-2,-1},{1,2},{-1,2},{1,-2},{-1,-2}};
+
+	// number of rows of L which are saved
+	private static final int RING = 3;
+
+	// penalty for small and large changes in disparity
+	private int penaltySmall, penaltyLarge;
+
+	private int[][] paths;
+
+	// shape of the cost volume
+	private int width, height, rangeDisparity;
+
+	// cost along the path for the most recent rows
+	private short[] pathCost = new short[0];
+	// minimum cost along the path for each pixel in the most recent rows
+	private int[] pathMin = new int[0];
+
+	/**
+	 * Configures the aggregation
+	 *
+	 * @param penaltySmall Penalty for a change in disparity of one.  P1
+	 * @param penaltyLarge Penalty for a change in disparity of more than one.  P2
+	 * @param numPaths Number of paths.  8 or 16
+	 */
+	public SgmCostAggregation(int penaltySmall, int penaltyLarge, int numPaths) {
+		if( numPaths == 8 )
+			paths = PATHS_8;
+		else if( numPaths == 16 )
+			paths = PATHS_16;
+		else
+			throw new IllegalArgumentException("Number of paths must be 8 or 16");
+		if( penaltySmall < 0 || penaltyLarge < penaltySmall )
+			throw new IllegalArgumentException("Penalties must be >= 0 and the large penalty >= the small penalty");
+
+		this.penaltySmall = penaltySmall;
+		this.penaltyLarge = penaltyLarge;
+	}
+
+	/**
+	 * Checks to see if the aggregated cost could overflow with the specified maximum cost
+	 */
+	public void checkOverflow( int maxCost ) {
+		if( paths.length*(maxCost + penaltyLarge) > 0xFFFF )
+			throw new IllegalArgumentException("Aggregated cost can overflow.  numPaths*(maxCost + P2) must be <= 65535");
+	}
+
+	/**
+	 * Aggregates the cost along all the paths.
+	 *
+	 * @param cost (Input) Cost volume
+	 * @param width Number of columns in the cost volume
+	 * @param height Number of rows in the cost volume
+	 * @param rangeDisparity Number of disparities in the cost volume
+	 * @param sum (Output) Sum of the cost along all the paths.  The value of each element is unsigned.
+	 */
+	public void process( short[] cost , int width , int height , int rangeDisparity , short[] sum ) {
+		this.width = width;
+		this.height = height;
+		this.rangeDisparity = rangeDisparity;
+
+		int N = RING*width*rangeDisparity;
+		if( pathCost.length < N ) {
+			pathCost = new short[N];
+			pathMin = new int[RING*width];
+		}
+
+		Arrays.fill(sum,0,width*height*rangeDisparity,(short)0);
+
+		for( int i = 0; i < paths.length; i++ ) {
+			aggregate(paths[i][0], paths[i][1], cost, sum);
+		}
+	}
+
+	/**
+	 * Computes the cost along all the paths which move in the specified direction and adds it to the sum.
+	 * Rows and columns are traversed so that the previous pixel along the path has already been processed.
+	 */
+	private void aggregate( int dx , int dy , short[] cost , short[] sum ) {
+		int y0,y1,stepY;
+		if( dy >= 0 ) {
+			y0 = 0; y1 = height; stepY = 1;
+		} else {
+			y0 = height-1; y1 = -1; stepY = -1;
+		}
+		int x0,x1,stepX;
+		if( dx >= 0 ) {
+			x0 = 0; x1 = width; stepX = 1;
+		} else {
+			x0 = width-1; x1 = -1; stepX = -1;
+		}
+
+		for( int y = y0; y != y1; y += stepY ) {
+			int prevY = y - dy;
+			boolean validY = prevY >= 0 && prevY < height;
+			int ringRow = (y % RING)*width;
+			int ringPrevRow = validY ? (prevY % RING)*width : 0;
+
+			for( int x = x0; x != x1; x += stepX ) {
+				int prevX = x - dx;
+				int indexCost = (y*width + x)*rangeDisparity;
+				int indexPath = (ringRow + x)*rangeDisparity;
+
+				if( validY && prevX >= 0 && prevX < width ) {
+					int prev = ringPrevRow + prevX;
+					pathMin[ringRow + x] = computeCost(cost, indexCost,
+							prev*rangeDisparity, pathMin[prev], indexPath, sum);
+				} else {
+					// start of the path
+					pathMin[ringRow + x] = copyCost(cost, indexCost, indexPath, sum);
+				}
+			}
+		}
+	}
+
+	/**
+	 * The first pixel along the path.  L(p,d) = C(p,d)
+	 *
+	 * @return minimum cost
+	 */
+	private int copyCost( short[] cost , int indexCost , int indexPath , short[] sum ) {
+		int best = Integer.MAX_VALUE;
+		for( int d = 0; d < rangeDisparity; d++ ) {
+			int c = cost[indexCost+d];
+			pathCost[indexPath+d] = (short)c;
+			sum[indexCost+d] = (short)((sum[indexCost+d] & 0xFFFF) + c);
+			if( c < best )
+				best = c;
+		}
+		return best;
+	}
+
+	/**
+	 * Computes the cost along the path using the previous pixel along the path
+	 *
+	 * @return minimum cost
+	 */
+	private int computeCost( short[] cost , int indexCost , int indexPrev , int minPrev , int indexPath , short[] sum ) {
+		final short[] pathCost = this.pathCost;
+		final int penaltySmall = this.penaltySmall;
+		final int limit = minPrev + penaltyLarge;
+		final int lastD = rangeDisparity-1;
+
+		if( lastD == 0 ) {
+			int l = cost[indexCost] + Math.min(pathCost[indexPrev],limit) - minPrev;
+			pathCost[indexPath] = (short)l;
+			sum[indexCost] = (short)((sum[indexCost] & 0xFFFF) + l);
+			return l;
+		}
+
+		// first and last disparity only have one neighbor
+		int v = Math.min(pathCost[indexPrev], pathCost[indexPrev+1] + penaltySmall);
+		int l = cost[indexCost] + Math.min(v,limit) - minPrev;
+		pathCost[indexPath] = (short)l;
+		sum[indexCost] = (short)((sum[indexCost] & 0xFFFF) + l);
+		int best = l;
+
+		for( int d = 1; d < lastD; d++ ) {
+			int a = pathCost[indexPrev+d-1];
+			int b = pathCost[indexPrev+d];
+			int c = pathCost[indexPrev+d+1];
+
+			v = Math.min(b, Math.min(a,c) + penaltySmall);
+			l = cost[indexCost+d] + Math.min(v,limit) - minPrev;
+			pathCost[indexPath+d] = (short)l;
+			sum[indexCost+d] = (short)((sum[indexCost+d] & 0xFFFF) + l);
+			best = Math.min(best,l);
+		}
+
+		v = Math.min(pathCost[indexPrev+lastD], pathCost[indexPrev+lastD-1] + penaltySmall);
+		l = cost[indexCost+lastD] + Math.min(v,limit) - minPrev;
+		pathCost[indexPath+lastD] = (short)l;
+		sum[indexCost+lastD] = (short)((sum[indexCost+lastD] & 0xFFFF) + l);
+
+		return Math.min(best,l);
+	}
+
+	public int getPenaltySmall() {
+		return penaltySmall;
+	}
+
+	public int getPenaltyLarge() {
+		return penaltyLarge;
+	}
+
+	public int getNumPaths() {
+		return paths.length;
+	}
+}
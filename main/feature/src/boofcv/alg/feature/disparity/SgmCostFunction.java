@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.feature.disparity;
+
+import boofcv.struct.image.ImageSingleBand;
+
+/**
+ * <p>
+ * Computes the matching cost between pixels in the left and right image for use in {@link SgmStereoDisparity}.
+ * Costs are computed for a band of rows at a time and written into a cost volume stored in a short[] array.  The
+ * cost for pixel (x,y) at disparity d is stored at index ((y-y0)*width + x)*rangeDisparity + (d-minDisparity), where
+ * y0 is the first row in the band.  If the matching pixel in the right image (x-d) is outside the image then
+ * the cost is set to {@link #getMaxCost()}.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public interface SgmCostFunction<T extends ImageSingleBand> {
+
+	/**
+	 * Specifies the range of disparities and the input images.  Any precomputation involving the whole image
+	 * is done here.
+	 *
+	 * @param left Left rectified image
+	 * @param right Right rectified image
+	 * @param minDisparity Minimum disparity, inclusive.
+	 * @param maxDisparity Maximum disparity, exclusive.
+	 */
+	public void initialize( T left , T right , int minDisparity , int maxDisparity );
+
+	/**
+	 * Computes the cost for all the pixels in the band of rows.
+	 *
+	 * @param y0 First row in the band, inclusive.
+	 * @param y1 Last row in the band, exclusive.
+	 * @param cost Output cost volume.  Must be at least (y1-y0)*width*rangeDisparity in size.
+	 */
+	public void process( int y0 , int y1 , short[] cost );
+
+	/**
+	 * The largest possible value of the cost.
+	 */
+	public int getMaxCost();
+
+	public Class<T> getInputType();
+}
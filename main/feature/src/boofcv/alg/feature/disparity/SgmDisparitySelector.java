@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.feature.disparity;
+
+import boofcv.struct.image.ImageFloat32;
+import boofcv.struct.image.ImageSingleBand;
+import boofcv.struct.image.ImageUInt8;
+
+/**
+ * <p>
+ * Selects the disparity with the smallest aggregated cost computed by {@link SgmCostAggregation}.  The output
+ * disparity image uses the same format as {@link DisparitySelect}.  If the output is {@link ImageFloat32} the
+ * disparity is refined to sub-pixel accuracy by fitting a parabola to the cost of the best disparity and its
+ * two neighbors.  If the output is {@link ImageUInt8} then it's pixel accurate.
+ * </p>
+ *
+ * <p>
+ * Validation Filters:<br>
+ * <b>right To Left</b> validates the disparity by seeing if the matched pixel on the right has the same pixel on
+ * the left as its optimal solution, within tolerance.<br>
+ * <b>uniqueness</b> Tolerance for how similar the best cost is to the second best, excluding the neighbors of
+ * the best.  Reject if uniqueness &ge; (C2-C1)/C1, where C2 = second best cost and C1 = best cost.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class SgmDisparitySelector {
+
+	// tolerance for right to left validation. if < 0 then it's disabled
+	private int rightToLeftTolerance;
+	// uniqueness threshold. if <= 0 then it's disabled
+	private double uniqueness;
+
+	private int minDisparity, rangeDisparity;
+
+	/**
+	 * Configures validation
+	 *
+	 * @param rightToLeftTolerance Tolerance for how different the left to right associated values can be.
+	 *                             Disable with a value < 0.  Try 1
+	 * @param uniqueness Tolerance for how similar the best cost is to the second best.  Disable with a value <= 0.
+	 *                   Try 0.05
+	 */
+	public SgmDisparitySelector(int rightToLeftTolerance, double uniqueness) {
+		this.rightToLeftTolerance = rightToLeftTolerance;
+		this.uniqueness = uniqueness;
+	}
+
+	/**
+	 * Selects the disparity for each pixel in the band of rows
+	 *
+	 * @param sum Aggregated cost, interpreted as unsigned.  Same format as {@link SgmCostFunction}
+	 * @param minDisparity Minimum disparity, inclusive
+	 * @param maxDisparity Maximum disparity, exclusive
+	 * @param bandY0 Image row that the first row in the cost volume corresponds to
+	 * @param y0 First image row which is written to, inclusive
+	 * @param y1 Last image row which is written to, exclusive
+	 * @param disparity Output disparity image.  {@link ImageUInt8} or {@link ImageFloat32}
+	 */
+	public void process( short[] sum , int minDisparity , int maxDisparity , int bandY0 , int y0 , int y1 ,
+						 ImageSingleBand disparity ) {
+		this.minDisparity = minDisparity;
+		this.rangeDisparity = maxDisparity - minDisparity;
+
+		final int width = disparity.width;
+		final int invalid = rangeDisparity + 1;
+
+		ImageUInt8 dispU8 = disparity instanceof ImageUInt8 ? (ImageUInt8)disparity : null;
+		ImageFloat32 dispF32 = disparity instanceof ImageFloat32 ? (ImageFloat32)disparity : null;
+		if( dispU8 == null && dispF32 == null )
+			throw new IllegalArgumentException("Disparity image must be ImageUInt8 or ImageFloat32");
+
+		for( int y = y0; y < y1; y++ ) {
+			int indexRow = (y-bandY0)*width;
+			int indexOut = disparity.startIndex + y*disparity.stride;
+
+			for( int x = 0; x < width; x++ , indexOut++ ) {
+				// disparities with a matching pixel inside the right image
+				int localRange = Math.min(rangeDisparity, x - minDisparity + 1);
+
+				int best = invalid;
+				int indexCost = (indexRow + x)*rangeDisparity;
+				if( localRange > 0 ) {
+					best = selectBest(sum, indexCost, localRange);
+
+					if( best != invalid && rightToLeftTolerance >= 0 ) {
+						int bestRtoL = selectRightToLeft(sum, indexRow, width, x - best - minDisparity);
+						if( Math.abs(bestRtoL-best) > rightToLeftTolerance )
+							best = invalid;
+					}
+				}
+
+				if( dispU8 != null ) {
+					dispU8.data[indexOut] = (byte)best;
+				} else if( best == invalid || best == 0 || best == localRange-1 ) {
+					dispF32.data[indexOut] = best;
+				} else {
+					dispF32.data[indexOut] = best + subpixel(sum, indexCost + best);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Finds the disparity with the lowest cost and applies the uniqueness test
+	 *
+	 * @return The best disparity or invalid if it failed the uniqueness test
+	 */
+	private int selectBest( short[] sum , int indexCost , int localRange ) {
+		int best = 0;
+		int scoreBest = sum[indexCost] & 0xFFFF;
+		for( int d = 1; d < localRange; d++ ) {
+			int s = sum[indexCost+d] & 0xFFFF;
+			if( s < scoreBest ) {
+				scoreBest = s;
+				best = d;
+			}
+		}
+
+		if( uniqueness > 0 && localRange >= 3 ) {
+			// find the second best, excluding the neighbors of the best
+			int secondBest = Integer.MAX_VALUE;
+			for( int d = 0; d < best-1; d++ ) {
+				int s = sum[indexCost+d] & 0xFFFF;
+				if( s < secondBest )
+					secondBest = s;
+			}
+			for( int d = best+2; d < localRange; d++ ) {
+				int s = sum[indexCost+d] & 0xFFFF;
+				if( s < secondBest )
+					secondBest = s;
+			}
+
+			if( secondBest != Integer.MAX_VALUE && secondBest - scoreBest <= uniqueness*scoreBest )
+				return rangeDisparity+1;
+		}
+
+		return best;
+	}
+
+	/**
+	 * Finds the best disparity for a pixel in the right image by searching along the diagonal in the cost volume.
+	 */
+	private int selectRightToLeft( short[] sum , int indexRow , int width , int xRight ) {
+		// largest disparity with a matching pixel inside the left image
+		int localRange = Math.min(rangeDisparity, width - xRight - minDisparity);
+
+		int best = 0;
+		int scoreBest = Integer.MAX_VALUE;
+		for( int d = 0; d < localRange; d++ ) {
+			int xLeft = xRight + d + minDisparity;
+			int s = sum[(indexRow + xLeft)*rangeDisparity + d] & 0xFFFF;
+			if( s < scoreBest ) {
+				scoreBest = s;
+				best = d;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Fits a parabola to the best cost and its two neighbors and returns the offset of its minimum
+	 */
+	private float subpixel( short[] sum , int index ) {
+		int c0 = sum[index-1] & 0xFFFF;
+		int c1 = sum[index] & 0xFFFF;
+		int c2 = sum[index+1] & 0xFFFF;
+
+		int denominator = c0 - 2*c1 + c2;
+		if( denominator <= 0 )
+			return 0;
+		return (c0 - c2)/(2.0f*denominator);
+	}
+
+	public int getRightToLeftTolerance() {
+		return rightToLeftTolerance;
+	}
+
+	public double getUniqueness() {
+		return uniqueness;
+	}
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.feature.disparity;
+
+import boofcv.alg.InputSanityCheck;
+import boofcv.struct.image.ImageSingleBand;
+
+/**
+ * <p>
+ * Dense stereo disparity using Semi-Global Matching (SGM) [1].  The matching cost between pixels is computed by a
+ * {@link SgmCostFunction}, aggregated along several paths across the image by {@link SgmCostAggregation}, then
+ * the best disparity is selected by {@link SgmDisparitySelector}.  Compared to matching rectangular regions
+ * SGM produces smoother disparity images which preserve object boundaries better, at the cost of additional
+ * computations and memory.
+ * </p>
+ *
+ * <p>
+ * The cost volumes require width*height*rangeDisparity*4 bytes, which is too large for high resolution images.
+ * To bound memory the image can be processed in bands of rows.  Each band is extended by an overlap above and below
+ * and the cost is aggregated inside the extended band only.  The disparity is then selected for the rows inside
+ * the band.  Since paths which cross a band's border are truncated at the end of the overlap the results are an
+ * approximation of processing the whole image at once, but with a sufficiently large overlap the difference is small.
+ * </p>
+ *
+ * <p>
+ * [1] Hirschmuller, H. "Stereo processing by semiglobal matching and mutual information." IEEE Transactions
+ * on Pattern Analysis and Machine Intelligence 30.2 (2008): 328-341.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class SgmStereoDisparity<Input extends ImageSingleBand, Disparity extends ImageSingleBand> {
+
+	// computes the matching cost
+	private SgmCostFunction<Input> costFunction;
+	// aggregates the cost along paths
+	private SgmCostAggregation aggregation;
+	// selects the disparity
+	private SgmDisparitySelector selector;
+
+	// minimum and maximum disparity that will be checked
+	private int minDisparity, maxDisparity;
+
+	// number of rows in a band. if <= 0 then the whole image is processed at once
+	private int bandHeight;
+	// number of rows a band is extended above and below
+	private int bandOverlap;
+
+	private Class<Disparity> disparityType;
+
+	// cost volume and aggregated cost volume
+	private short[] cost = new short[0];
+	private short[] sum = new short[0];
+
+	/**
+	 * Configures SGM
+	 *
+	 * @param minDisparity Minimum disparity that it will check. Must be >= 0 and < maxDisparity
+	 * @param maxDisparity Maximum disparity that it will calculate. Must be > 0
+	 * @param costFunction Computes the matching cost
+	 * @param aggregation Aggregates the cost along paths
+	 * @param selector Selects the best disparity
+	 * @param bandHeight Number of rows in a band.  If <= 0 then the whole image is processed at once.
+	 * @param bandOverlap Number of rows each band is extended above and below.  Try 32.
+	 * @param disparityType Type of disparity image.  {@link boofcv.struct.image.ImageUInt8} for pixel
+	 *                      accuracy or {@link boofcv.struct.image.ImageFloat32} for sub-pixel accuracy.
+	 */
+	public SgmStereoDisparity(int minDisparity, int maxDisparity,
+							  SgmCostFunction<Input> costFunction,
+							  SgmCostAggregation aggregation,
+							  SgmDisparitySelector selector,
+							  int bandHeight, int bandOverlap,
+							  Class<Disparity> disparityType ) {
+		if( maxDisparity <= 0 )
+			throw new IllegalArgumentException("Max disparity must be greater than zero");
+		if( minDisparity < 0 || minDisparity >= maxDisparity )
+			throw new IllegalArgumentException("Min disparity must be >= 0 and < maxDisparity");
+		if( maxDisparity - minDisparity > 254 )
+			throw new IllegalArgumentException("The range of disparities must be less than 255");
+		if( bandOverlap < 0 )
+			throw new IllegalArgumentException("Band overlap must be >= 0");
+		aggregation.checkOverflow(costFunction.getMaxCost());
+
+		this.minDisparity = minDisparity;
+		this.maxDisparity = maxDisparity;
+		this.costFunction = costFunction;
+		this.aggregation = aggregation;
+		this.selector = selector;
+		this.bandHeight = bandHeight;
+		this.bandOverlap = bandOverlap;
+		this.disparityType = disparityType;
+	}
+
+	/**
+	 * Computes disparity between two stereo images
+	 *
+	 * @param left Left rectified stereo image. Input
+	 * @param right Right rectified stereo image. Input
+	 * @param disparity Disparity between the two images. Output
+	 */
+	public void process( Input left , Input right , Disparity disparity ) {
+		InputSanityCheck.checkSameShape(left, right, disparity);
+
+		if( maxDisparity > left.width )
+			throw new IllegalArgumentException(
+					"The maximum disparity is too large for this image size: max size "+left.width);
+
+		final int width = left.width;
+		final int height = left.height;
+		final int rangeDisparity = maxDisparity - minDisparity;
+
+		int band = bandHeight <= 0 || bandHeight >= height ? height : bandHeight;
+		int overlap = band == height ? 0 : bandOverlap;
+
+		int N = Math.min(height, band + 2*overlap)*width*rangeDisparity;
+		if( cost.length < N ) {
+			// discard the old arrays first to reduce peak memory
+			cost = null;
+			sum = null;
+			cost = new short[N];
+			sum = new short[N];
+		}
+
+		costFunction.initialize(left, right, minDisparity, maxDisparity);
+
+		for( int y0 = 0; y0 < height; y0 += band ) {
+			int y1 = Math.min(height, y0 + band);
+
+			// extend the band
+			int bandY0 = Math.max(0, y0 - overlap);
+			int bandY1 = Math.min(height, y1 + overlap);
+
+			costFunction.process(bandY0, bandY1, cost);
+			aggregation.process(cost, width, bandY1 - bandY0, rangeDisparity, sum);
+			selector.process(sum, minDisparity, maxDisparity, bandY0, y0, y1, disparity);
+		}
+	}
+
+	public int getMinDisparity() {
+		return minDisparity;
+	}
+
+	public int getMaxDisparity() {
+		return maxDisparity;
+	}
+
+	public int getBandHeight() {
+		return bandHeight;
+	}
+
+	public int getBandOverlap() {
+		return bandOverlap;
+	}
+
+	public Class<Input> getInputType() {
+		return costFunction.getInputType();
+	}
+
+	public Class<Disparity> getDisparityType() {
+		return disparityType;
+	}
+
+	public SgmCostFunction<Input> getCostFunction() {
+		return costFunction;
+	}
+
+	public SgmCostAggregation getAggregation() {
+		return aggregation;
+	}
+
+	public SgmDisparitySelector getSelector() {
+		return selector;
+	}
+}
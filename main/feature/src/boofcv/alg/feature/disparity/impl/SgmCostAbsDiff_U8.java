@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.feature.disparity.impl;
+
+import boofcv.alg.feature.disparity.SgmCostFunction;
+import boofcv.struct.image.ImageUInt8;
+
+/**
+ * <p>
+ * Sum of absolute difference (SAD) matching cost for {@link boofcv.alg.feature.disparity.SgmStereoDisparity}.
+ * The absolute difference is summed inside a square region and divided by the number of pixels, which keeps
+ * the cost from 0 to 255.  With a radius of zero this is the absolute difference between two pixels.  Pixels
+ * outside the image are handled by using the closest pixel inside the image.
+ * </p>
+ *
+ * <p>
+ * Vertical sums are updated incrementally from one row to the next and the horizontal sum is computed with
+ * a sliding window, making the cost of each element independent of the region's size.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class SgmCostAbsDiff_U8 implements SgmCostFunction<ImageUInt8> {
+
+	// radius of the square region
+	private int radius;
+
+	private ImageUInt8 left, right;
+	private int minDisparity, rangeDisparity;
+
+	// sum along the vertical axis of the absolute difference for each disparity.  index = d*width + x
+	private int[] verticalSum = new int[0];
+
+	/**
+	 * Specifies the size of the region
+	 *
+	 * @param radius Radius of the square region.  Can be zero.
+	 */
+	public SgmCostAbsDiff_U8(int radius) {
+		if( radius < 0 )
+			throw new IllegalArgumentException("Radius must be >= 0");
+		this.radius = radius;
+	}
+
+	@Override
+	public void initialize(ImageUInt8 left, ImageUInt8 right, int minDisparity, int maxDisparity) {
+		this.left = left;
+		this.right = right;
+		this.minDisparity = minDisparity;
+		this.rangeDisparity = maxDisparity - minDisparity;
+
+		int N = rangeDisparity*left.width;
+		if( verticalSum.length < N )
+			verticalSum = new int[N];
+	}
+
+	@Override
+	public void process(int y0, int y1, short[] cost) {
+		final int width = left.width;
+		final int regionWidth = 2*radius+1;
+		final int area = regionWidth*regionWidth;
+		final int maxCost = getMaxCost();
+
+		for( int d = 0; d < rangeDisparity; d++ ) {
+			int indexSum = d*width;
+			for( int x = 0; x < width; x++ )
+				verticalSum[indexSum+x] = 0;
+		}
+
+		// initialize the vertical sum for the first row
+		for( int i = -radius; i <= radius; i++ ) {
+			addRow(y0+i,1);
+		}
+
+		for( int y = y0; y < y1; y++ ) {
+			if( y > y0 ) {
+				addRow(y-radius-1,-1);
+				addRow(y+radius,1);
+			}
+
+			int indexCost = (y-y0)*width*rangeDisparity;
+			for( int d = 0; d < rangeDisparity; d++ ) {
+				int indexSum = d*width;
+				int disparity = d + minDisparity;
+
+				// horizontal sum at the first column
+				int sum = 0;
+				for( int i = -radius; i <= radius; i++ ) {
+					sum += verticalSum[indexSum + clamp(i,width)];
+				}
+
+				int index = indexCost + d;
+				for( int x = 0; x < width; x++ , index += rangeDisparity ) {
+					if( x < disparity )
+						cost[index] = (short)maxCost;
+					else
+						cost[index] = (short)(sum/area);
+
+					sum += verticalSum[indexSum + clamp(x+radius+1,width)];
+					sum -= verticalSum[indexSum + clamp(x-radius,width)];
+				}
+			}
+		}
+	}
+
+	/**
+	 * Adds or subtracts the absolute difference along the specified row to the vertical sums
+	 */
+	private void addRow( int y , int sign ) {
+		y = clamp(y,left.height);
+		final int width = left.width;
+		int indexLeft = left.startIndex + y*left.stride;
+		int indexRight = right.startIndex + y*right.stride;
+
+		for( int d = 0; d < rangeDisparity; d++ ) {
+			int disparity = d + minDisparity;
+			int indexSum = d*width;
+
+			// columns without a matching pixel inside the right image use the first column
+			int valueR = right.data[indexRight] & 0xFF;
+			int end = Math.min(disparity,width);
+			for( int x = 0; x < end; x++ ) {
+				verticalSum[indexSum+x] += sign*Math.abs((left.data[indexLeft+x] & 0xFF) - valueR);
+			}
+			for( int x = end; x < width; x++ ) {
+				int diff = (left.data[indexLeft+x] & 0xFF) - (right.data[indexRight+x-disparity] & 0xFF);
+				verticalSum[indexSum+x] += sign*Math.abs(diff);
+			}
+		}
+	}
+
+	private static int clamp( int value , int length ) {
+		if( value < 0 )
+			return 0;
+		if( value >= length )
+			return length-1;
+		return value;
+	}
+
+	@Override
+	public int getMaxCost() {
+		return 255;
+	}
+
+	@Override
+	public Class<ImageUInt8> getInputType() {
+		return ImageUInt8.class;
+	}
+
+	public int getRadius() {
+		return radius;
+	}
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.feature.disparity.impl;
+
+import boofcv.alg.feature.disparity.SgmCostFunction;
+import boofcv.struct.image.ImageUInt8;
+
+/**
+ * <p>
+ * Census transform based matching cost for {@link boofcv.alg.feature.disparity.SgmStereoDisparity}.  Each pixel
+ * is described by a bit string where each bit indicates if a pixel in the surrounding rectangular region has a
+ * smaller value than the center pixel.  The cost is the hamming distance between the bit strings.  Census is
+ * insensitive to changes in gain and bias between the two cameras.  Pixels outside the image are handled by
+ * using the closest pixel inside the image.
+ * </p>
+ *
+ * <p>
+ * The census transform of both images is computed for each band of rows and stored in a long[] array,
+ * which limits the region to 64 pixels, excluding the center.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class SgmCostCensus_U8 implements SgmCostFunction<ImageUInt8> {
+
+	// radius of the census region
+	private int radiusX, radiusY;
+
+	// census transform of each image for rows inside the band
+	private long[] censusLeft = new long[0];
+	private long[] censusRight = new long[0];
+
+	private ImageUInt8 left, right;
+	private int width, height;
+	private int minDisparity, rangeDisparity;
+
+	/**
+	 * Specifies the size of the census region
+	 *
+	 * @param radiusX Radius of the region along the x-axis.
+	 * @param radiusY Radius of the region along the y-axis.
+	 */
+	public SgmCostCensus_U8(int radiusX, int radiusY) {
+		if( (2*radiusX+1)*(2*radiusY+1)-1 > 64 )
+			throw new IllegalArgumentException("Census region can have at most 64 pixels, excluding the center");
+		this.radiusX = radiusX;
+		this.radiusY = radiusY;
+	}
+
+	@Override
+	public void initialize(ImageUInt8 left, ImageUInt8 right, int minDisparity, int maxDisparity) {
+		this.left = left;
+		this.right = right;
+		this.width = left.width;
+		this.height = left.height;
+		this.minDisparity = minDisparity;
+		this.rangeDisparity = maxDisparity - minDisparity;
+	}
+
+	/**
+	 * Computes the census transform of every pixel in the band of rows
+	 */
+	protected void transform( ImageUInt8 image , int y0 , int y1 , long[] census ) {
+		int regionWidth = 2*radiusX+1;
+		int[] offsetX = new int[regionWidth];
+
+		// border pixels are handled by clamping the coordinates of rows and columns
+		int[] rowIndex = new int[2*radiusY+1];
+
+		for( int y = y0; y < y1; y++ ) {
+			for( int i = -radiusY; i <= radiusY; i++ ) {
+				int yy = Math.min(height-1,Math.max(0,y+i));
+				rowIndex[i+radiusY] = image.startIndex + yy*image.stride;
+			}
+			int indexCenter = image.startIndex + y*image.stride;
+			int indexOut = (y-y0)*width;
+
+			for( int x = 0; x < width; x++ ) {
+				boolean inside = x >= radiusX && x < width-radiusX;
+				for( int i = -radiusX; i <= radiusX; i++ ) {
+					offsetX[i+radiusX] = inside ? x+i : Math.min(width-1,Math.max(0,x+i));
+				}
+
+				int center = image.data[indexCenter+x] & 0xFF;
+				long bits = 0;
+				for( int i = 0; i < rowIndex.length; i++ ) {
+					int index = rowIndex[i];
+					for( int j = 0; j < regionWidth; j++ ) {
+						// skip the center pixel
+						if( i == radiusY && j == radiusX )
+							continue;
+						bits <<= 1;
+						if( (image.data[index+offsetX[j]] & 0xFF) < center )
+							bits |= 1;
+					}
+				}
+				census[indexOut++] = bits;
+			}
+		}
+	}
+
+	@Override
+	public void process(int y0, int y1, short[] cost) {
+		int maxCost = getMaxCost();
+
+		int N = (y1-y0)*width;
+		if( censusLeft.length < N ) {
+			censusLeft = new long[N];
+			censusRight = new long[N];
+		}
+
+		transform(left, y0, y1, censusLeft);
+		transform(right, y0, y1, censusRight);
+
+		for( int y = y0; y < y1; y++ ) {
+			int indexImage = (y-y0)*width;
+			int indexCost = (y-y0)*width*rangeDisparity;
+
+			for( int x = 0; x < width; x++ ) {
+				long l = censusLeft[indexImage + x];
+
+				// number of disparities with a matching pixel inside the right image
+				int localRange = Math.max(0,Math.min(rangeDisparity, x - minDisparity + 1));
+
+				int indexRight = indexImage + x - minDisparity;
+				for( int d = 0; d < localRange; d++ ) {
+					cost[indexCost++] = (short)Long.bitCount(l ^ censusRight[indexRight--]);
+				}
+				for( int d = localRange; d < rangeDisparity; d++ ) {
+					cost[indexCost++] = (short)maxCost;
+				}
+			}
+		}
+	}
+
+	@Override
+	public int getMaxCost() {
+		return (2*radiusX+1)*(2*radiusY+1)-1;
+	}
+
+	@Override
+	public Class<ImageUInt8> getInputType() {
+		return ImageUInt8.class;
+	}
+
+	public int getRadiusX() {
+		return radiusX;
+	}
+
+	public int getRadiusY() {
+		return radiusY;
+	}
+}
@@ -91,6 +91,16 @@ public class KltTracker<InputImage extends ImageSingleBand, DerivativeImage exte
 		this.config = config;
 	}
 
+	/**
+	 * Creates a new tracker with the same configuration.  The interpolation algorithms are copied so that the
+	 * new tracker can be used by a different thread at the same time as this one.
+	 *
+	 * @return A new tracker which doesn't share any internal state with this one.
+	 */
+	public KltTracker<InputImage, DerivativeImage> copy() {
+		return new KltTracker<InputImage, DerivativeImage>(interpInput.copy(), interpDeriv.copy(), config);
+	}
+
 	/**
 	 * Sets the current image it should be tracking with.
 	 *
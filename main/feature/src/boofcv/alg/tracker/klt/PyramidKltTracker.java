@@ -18,9 +18,14 @@
 
 package boofcv.alg.tracker.klt;
 
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeTask;
+import boofcv.concurrency.WorkerPool;
 import boofcv.struct.image.ImageSingleBand;
 import boofcv.struct.pyramid.ImagePyramid;
 
+import java.util.List;
+
 /**
  * <p>
  * A pyramid Kanade-Lucas-Tomasi (KLT) tracker that allows features to be tracker over a larger region than the basic
@@ -34,6 +39,13 @@ import boofcv.struct.pyramid.ImagePyramid;
  * partial features then so can the pyramid tracker.
  * </p>
  *
+ * <p>
+ * Lists of features can be tracked at once using {@link #track(java.util.List, KltTrackFault[], boolean)}.  If
+ * {@link BoofConcurrency#USE_CONCURRENT} is true then the list is split across several threads.  Each thread uses
+ * its own copy of the basic tracker while the image pyramids are shared.  Since features are tracked independently
+ * the results are the same as tracking them one at a time.
+ * </p>
+ *
  * @author Peter Abeles
  */
 public class PyramidKltTracker<InputImage extends ImageSingleBand, DerivativeImage extends ImageSingleBand> {
@@ -46,6 +58,18 @@ public class PyramidKltTracker<InputImage extends ImageSingleBand, DerivativeIma
 	DerivativeImage[] derivX;
 	DerivativeImage[] derivY;
 
+	// minimum number of features processed by a thread
+	private static final int MIN_BLOCK = 20;
+
+	// trackers used to process a list of features which are not currently being used by a thread
+	private final WorkerPool<PyramidKltTracker<InputImage, DerivativeImage>> workers =
+			new WorkerPool<PyramidKltTracker<InputImage, DerivativeImage>>() {
+		@Override
+		protected PyramidKltTracker<InputImage, DerivativeImage> createInstance() {
+			return new PyramidKltTracker<InputImage, DerivativeImage>(tracker.copy());
+		}
+	};
+
 	public PyramidKltTracker(KltTracker<InputImage, DerivativeImage> tracker) {
 		this.tracker = tracker;
 	}
@@ -155,6 +179,104 @@ public class PyramidKltTracker<InputImage extends ImageSingleBand, DerivativeIma
 		}
 	}
 
+	/**
+	 * <p>
+	 * Sets the description of every feature in the list.  Equivalent to calling {@link #setDescription} for
+	 * each feature, but the work can be split across several threads.
+	 * </p>
+	 *
+	 * @param features Features whose descriptions are being setup.
+	 * @param valid (Output) Storage for the value returned by {@link #setDescription} for each feature.
+	 *              Must be at least as long as the list.  Can be null.
+	 */
+	public void setDescription( final List<PyramidKltFeature> features , final boolean[] valid ) {
+		if( valid != null && valid.length < features.size() )
+			throw new IllegalArgumentException("Output array is too small");
+
+		if( !BoofConcurrency.USE_CONCURRENT ) {
+			setDescription(features, valid, 0, features.size());
+			return;
+		}
+
+		BoofConcurrency.loopBlocks(0, features.size(), MIN_BLOCK, new IntRangeTask() {
+			@Override
+			public void process(int start, int end) {
+				PyramidKltTracker<InputImage, DerivativeImage> alg = borrow();
+				try {
+					alg.setDescription(features, valid, start, end);
+				} finally {
+					workers.release(alg);
+				}
+			}
+		});
+	}
+
+	private void setDescription( List<PyramidKltFeature> features , boolean[] valid , int start , int end ) {
+		for( int i = start; i < end; i++ ) {
+			boolean ret = setDescription(features.get(i));
+			if( valid != null )
+				valid[i] = ret;
+		}
+	}
+
+	/**
+	 * <p>
+	 * Tracks every feature in the list.  Equivalent to calling {@link #track(PyramidKltFeature)} for each
+	 * feature, but the work can be split across several threads.
+	 * </p>
+	 *
+	 * @param features The features being tracked.
+	 * @param faults (Output) Storage for the value returned by {@link #track(PyramidKltFeature)} for each feature.
+	 *               Must be at least as long as the list.
+	 * @param updateDescription If true then the description of features which were successfully tracked
+	 *                          is updated using the current image.
+	 */
+	public void track( final List<PyramidKltFeature> features , final KltTrackFault[] faults ,
+					   final boolean updateDescription ) {
+		if( faults.length < features.size() )
+			throw new IllegalArgumentException("Output array is too small");
+
+		if( !BoofConcurrency.USE_CONCURRENT ) {
+			track(features, faults, updateDescription, 0, features.size());
+			return;
+		}
+
+		BoofConcurrency.loopBlocks(0, features.size(), MIN_BLOCK, new IntRangeTask() {
+			@Override
+			public void process(int start, int end) {
+				PyramidKltTracker<InputImage, DerivativeImage> alg = borrow();
+				try {
+					alg.track(features, faults, updateDescription, start, end);
+				} finally {
+					workers.release(alg);
+				}
+			}
+		});
+	}
+
+	private void track( List<PyramidKltFeature> features , KltTrackFault[] faults , boolean updateDescription ,
+						int start , int end ) {
+		for( int i = start; i < end; i++ ) {
+			PyramidKltFeature f = features.get(i);
+			KltTrackFault ret = track(f);
+			if( updateDescription && ret == KltTrackFault.SUCCESS )
+				setDescription(f);
+			faults[i] = ret;
+		}
+	}
+
+	/**
+	 * Gets a tracker which isn't being used by another thread and points it at the current images
+	 */
+	private PyramidKltTracker<InputImage, DerivativeImage> borrow() {
+		PyramidKltTracker<InputImage, DerivativeImage> alg = workers.borrow();
+
+		alg.image = image;
+		alg.derivX = derivX;
+		alg.derivY = derivY;
+		return alg;
+	}
+
 	private void setupKltTracker(int layer) {
 		if (derivX != null)
 			tracker.setImage(image.getLayer(layer), derivX[layer], derivY[layer]);
@@ -20,6 +20,8 @@ package boofcv.factory.feature.associate;
 
 import boofcv.abst.feature.associate.*;
 import boofcv.alg.feature.associate.AssociateGreedy;
+import boofcv.alg.feature.associate.AssociateGreedyStreaming;
+import boofcv.alg.feature.associate.HammingMultiIndex;
 import boofcv.struct.feature.*;
 import org.ddogleg.nn.FactoryNearestNeighbor;
 import org.ddogleg.nn.NearestNeighbor;
@@ -56,6 +58,32 @@ public class FactoryAssociation {
 	}
 
 
+	/**
+	 * Brute force greedy association which only stores the best and second best score for each feature, instead
+	 * of the score for every possible pair.  Produces the same results as {@link #greedy} when the ratio test is
+	 * disabled.  Can use multiple threads, see {@link boofcv.concurrency.BoofConcurrency}.
+	 * See {@link AssociateGreedyStreaming} for details.
+	 *
+	 * @param score Computes the fit score between two features.
+	 * @param maxError Maximum allowed error/fit score between two features.  To disable set to Double.MAX_VALUE
+	 * @param backwardsValidation If true associations are validated by associating in the reverse direction.  If the
+	 *                  forward and reverse matches fit an association is excepted.
+	 * @param ratioTest Maximum allowed ratio between the best and second best score.  Set to 1.0 to disable.
+	 * @param <D> Data structure being associated
+	 * @return Greedy association with O(N+M) memory
+	 */
+	public static <D> AssociateDescription<D>
+	greedyStreaming( ScoreAssociation<D> score ,
+					 double maxError ,
+					 boolean backwardsValidation ,
+					 double ratioTest )
+	{
+		AssociateGreedyStreaming<D> alg = new AssociateGreedyStreaming<D>(score,backwardsValidation,32,256);
+		alg.setMaxFitError(maxError);
+		alg.setRatioTest(ratioTest);
+		return new WrapAssociateGreedy<D>(alg);
+	}
+
 	/**
 	 * Approximate association using a K-D tree degree of moderate size (10-15) that uses a best-bin-first search
 	 * order.
@@ -99,6 +127,53 @@ public class FactoryAssociation {
 		return new AssociateNearestNeighbor<TupleDesc_F64>(nn,dimension);
 	}
 
+	/**
+	 * Approximate association using a forest of randomized K-D trees which are searched together using
+	 * best-bin-first.  Designed for large sets of high dimensional descriptors, e.g. SURF and SIFT.  Unlike
+	 * {@link #kdRandomForest} it supports a ratio test and backwards validation and works with
+	 * {@link TupleDesc_F32} descriptors.  The fit score is the Euclidean distance.
+	 *
+	 * @see AssociateKdForest
+	 * @see boofcv.alg.feature.associate.RandomKdForest
+	 *
+	 * @param maxChecks Maximum number of features which are checked when searching.  Controls speed and accuracy.
+	 *                  Try 200.
+	 * @param numTrees Number of trees in the forest.  Try 4 to 8.
+	 * @param numConsiderSplit Number of axes with the largest variance which the split is randomly selected from.  Try 5.
+	 * @param ratioTest Maximum allowed ratio between the best and second best match distance.  Try 0.8.
+	 *                  Set to 1.0 to disable.
+	 * @param backwardsValidation If true associations are validated by associating in the reverse direction.
+	 * @param randomSeed Seed used by random number generator
+	 * @return Association using approximate nearest neighbor
+	 */
+	public static <D extends TupleDesc> AssociateDescription<D> kdForestBbf( int maxChecks ,
+																		   int numTrees ,
+																		   int numConsiderSplit ,
+																		   double ratioTest ,
+																		   boolean backwardsValidation ,
+																		   long randomSeed ) {
+		return new AssociateKdForest<D>(maxChecks,numTrees,numConsiderSplit,ratioTest,backwardsValidation,randomSeed);
+	}
+
+	/**
+	 * Exact association of binary descriptors using multi-index hashing.  Much faster than brute force
+	 * association when there is a large number of destination features and matches have a small Hamming distance.
+	 *
+	 * @see AssociateHammingMultiIndex
+	 * @see HammingMultiIndex
+	 *
+	 * @param numBits Number of bits in the descriptor.
+	 * @param numTables Number of hash tables.  Select so that numBits/numTables is close to log2 of the number
+	 *                  of destination features, e.g. 16 for 256-bit BRIEF.
+	 * @param maxError Maximum allowed Hamming distance.  To disable set to Double.MAX_VALUE
+	 * @return Association using multi-index hashing
+	 */
+	public static AssociateDescription<TupleDesc_B> hammingMultiIndex( int numBits , int numTables , double maxError ) {
+		AssociateHammingMultiIndex ret = new AssociateHammingMultiIndex(new HammingMultiIndex(numBits,numTables));
+		ret.setThreshold(maxError);
+		return ret;
+	}
+
 	/**
 	 * Given a feature descriptor type it returns a "reasonable" default {@link ScoreAssociation}.
 	 *
@@ -133,6 +133,7 @@ public class FactoryDescribeRegionPoint {
 
 		SiftImageScaleSpace ss = new SiftImageScaleSpace(configSS.blurSigma, configSS.numScales, configSS.numOctaves,
 				configSS.doubleInputImage);
+		ss.setRecursiveBlur(configSS.recursiveBlur);
 
 		DescribePointSift alg = FactoryDescribePointAlgs.sift(configDescribe);
 
@@ -76,6 +76,7 @@ public class FactoryDetectDescribe {
 
 		SiftImageScaleSpace ss = new SiftImageScaleSpace(configSS.blurSigma, configSS.numScales, configSS.numOctaves,
 				configSS.doubleInputImage);
+		ss.setRecursiveBlur(configSS.recursiveBlur);
 
 		SiftDetector detector = FactoryInterestPointAlgs.siftDetector(configDetector);
 
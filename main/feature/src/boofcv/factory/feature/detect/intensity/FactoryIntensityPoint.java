@@ -21,6 +21,7 @@ package boofcv.factory.feature.detect.intensity;
 import boofcv.abst.feature.detect.intensity.*;
 import boofcv.abst.filter.blur.MedianImageFilter;
 import boofcv.alg.feature.detect.intensity.FastCornerIntensity;
+import boofcv.alg.feature.detect.intensity.FastCornerIntensityConcurrent;
 import boofcv.alg.feature.detect.intensity.HarrisCornerIntensity;
 import boofcv.alg.feature.detect.intensity.HessianBlobIntensity;
 import boofcv.alg.feature.detect.intensity.ShiTomasiCornerIntensity;
@@ -38,7 +39,8 @@ import boofcv.struct.image.ImageSingleBand;
 public class FactoryIntensityPoint {
 
 	/**
-	 * Feature intensity for Fast corner detector.  See {@link FastCornerIntensity} for more details.
+	 * Feature intensity for Fast corner detector.  See {@link FastCornerIntensity} for more details.  The image is
+	 * processed concurrently if {@link boofcv.concurrency.BoofConcurrency#USE_CONCURRENT} is true.
 	 *
 	 * @param pixelTol How different pixels need to be to be considered part of a corner. Image dependent.  Try 20 to start.
 	 * @param minCont Minimum number of continue pixels in a circle for it ot be a corner.  11 or 12 are good numbers.
@@ -49,7 +51,7 @@ public class FactoryIntensityPoint {
 	 */
 	public static <I extends ImageSingleBand, D extends ImageSingleBand>
 	GeneralFeatureIntensity<I,D>  fast( int pixelTol, int minCont, Class<I> imageType ) {
-		FastCornerIntensity<I> alg =  FactoryIntensityPointAlg.fast(pixelTol, minCont, imageType);
+		FastCornerIntensityConcurrent<I> alg =  FactoryIntensityPointAlg.fastConcurrent(pixelTol, minCont, imageType);
 		return new WrapperFastCornerIntensity<I, D>(alg);
 	}
 
@@ -19,9 +19,12 @@
 package boofcv.factory.feature.detect.intensity;
 
 import boofcv.alg.feature.detect.intensity.FastCornerIntensity;
+import boofcv.alg.feature.detect.intensity.FastCornerIntensityConcurrent;
+import boofcv.alg.feature.detect.intensity.FusedCornerIntensity;
 import boofcv.alg.feature.detect.intensity.HarrisCornerIntensity;
 import boofcv.alg.feature.detect.intensity.ShiTomasiCornerIntensity;
 import boofcv.alg.feature.detect.intensity.impl.*;
+import boofcv.concurrency.BoofConcurrency;
 import boofcv.struct.image.ImageFloat32;
 import boofcv.struct.image.ImageSInt16;
 import boofcv.struct.image.ImageSingleBand;
@@ -70,6 +73,27 @@ public class FactoryIntensityPointAlg {
 		}
 	}
 
+	/**
+	 * Creates a {@link FastCornerIntensityConcurrent}, which splits the image up into strips that are each processed by
+	 * an instance created with {@link #fast}.  If {@link BoofConcurrency#USE_CONCURRENT} is false when the image is
+	 * processed then a single instance processes the whole image.
+	 *
+	 * @param pixelTol How different pixels need to be to be considered part of a corner. Image dependent.  Try 20 to start.
+	 * @param minCont Minimum number of continue pixels in a circle for it ot be a corner.  11 or 12 are good numbers.
+	 * @param imageType Type of input image it is computed form.
+	 * @return Concurrent fast corner
+	 */
+	public static <T extends ImageSingleBand>
+	FastCornerIntensityConcurrent<T> fastConcurrent(final int pixelTol, final int minCont, final Class<T> imageType)
+	{
+		return new FastCornerIntensityConcurrent<T>(fast(pixelTol, minCont, imageType),20) {
+			@Override
+			protected FastCornerIntensity<T> createAlg() {
+				return fast(pixelTol, minCont, imageType);
+			}
+		};
+	}
+
 	/**
 	 * Common interface for creating a {@link boofcv.alg.feature.detect.intensity.HarrisCornerIntensity} from different
 	 * image types.
@@ -123,4 +147,45 @@ public class FactoryIntensityPointAlg {
 		} else
 			throw new IllegalArgumentException("Unknown image type "+derivType);
 	}
+
+	/**
+	 * Creates a {@link FusedCornerIntensity} which computes the Harris corner intensity directly from the input
+	 * image in a single pass.  Produces the same results as an unweighted {@link #harris} which is given the
+	 * image's Sobel gradient.
+	 *
+	 * @param windowRadius Size of the feature it is detects,Try 2.
+	 * @param kappa Tuning parameter, typically a small number around 0.04
+	 * @param imageType Type of input image.
+	 * @return Harris corner
+	 */
+	public static <T extends ImageSingleBand>
+	FusedCornerIntensity<T> harrisFused(int windowRadius, float kappa, Class<T> imageType)
+	{
+		if( imageType == ImageFloat32.class )
+			return (FusedCornerIntensity<T>)new ImplHarrisCornerFused_F32(windowRadius,kappa);
+		else if( imageType == ImageUInt8.class )
+			return (FusedCornerIntensity<T>)new ImplHarrisCornerFused_U8(windowRadius,kappa);
+		else
+			throw new IllegalArgumentException("Unknown image type "+imageType);
+	}
+
+	/**
+	 * Creates a {@link FusedCornerIntensity} which computes the Shi-Tomasi corner intensity directly from the input
+	 * image in a single pass.  Produces the same results as an unweighted {@link #shiTomasi} which is given the
+	 * image's Sobel gradient.
+	 *
+	 * @param windowRadius Size of the feature it detects, Try 2.
+	 * @param imageType Type of input image.
+	 * @return KLT corner
+	 */
+	public static <T extends ImageSingleBand>
+	FusedCornerIntensity<T> shiTomasiFused(int windowRadius, Class<T> imageType)
+	{
+		if( imageType == ImageFloat32.class )
+			return (FusedCornerIntensity<T>)new ImplShiTomasiCornerFused_F32(windowRadius);
+		else if( imageType == ImageUInt8.class )
+			return (FusedCornerIntensity<T>)new ImplShiTomasiCornerFused_U8(windowRadius);
+		else
+			throw new IllegalArgumentException("Unknown image type "+imageType);
+	}
 }
@@ -24,8 +24,11 @@ import boofcv.abst.feature.detect.interest.ConfigFast;
 import boofcv.abst.feature.detect.interest.ConfigGeneralDetector;
 import boofcv.abst.filter.blur.MedianImageFilter;
 import boofcv.alg.feature.detect.intensity.FastCornerIntensity;
+import boofcv.alg.feature.detect.intensity.FastCornerIntensityConcurrent;
+import boofcv.alg.feature.detect.intensity.FusedCornerIntensity;
 import boofcv.alg.feature.detect.intensity.GradientCornerIntensity;
 import boofcv.alg.feature.detect.intensity.HessianBlobIntensity;
+import boofcv.alg.feature.detect.interest.GeneralFastCornerDetector;
 import boofcv.alg.feature.detect.interest.GeneralFeatureDetector;
 import boofcv.factory.feature.detect.extract.FactoryFeatureExtractor;
 import boofcv.factory.feature.detect.intensity.FactoryIntensityPoint;
@@ -81,6 +84,40 @@ public class FactoryDetectPoint {
 		return createGeneral(cornerIntensity, configDetector);
 	}
 
+	/**
+	 * Detects Harris corners using an unweighted window.  The gradient and corner intensity are computed directly from
+	 * the input image in a single pass, which is faster than {@link #createHarris} but produces the same features
+	 * as when the gradient is computed using a Sobel operator.  Image derivatives are not needed.
+	 *
+	 * @param configDetector Configuration for feature detector.
+	 * @param imageType       Type of input image.
+	 * @see FusedCornerIntensity
+	 */
+	public static <T extends ImageSingleBand, D extends ImageSingleBand>
+	GeneralFeatureDetector<T, D> createHarrisFused(ConfigGeneralDetector configDetector, Class<T> imageType) {
+		FusedCornerIntensity<T> cornerIntensity =
+				FactoryIntensityPointAlg.harrisFused(configDetector.radius, 0.04f, imageType);
+		GeneralFeatureIntensity<T, D> intensity = new WrapperFusedCornerIntensity<T, D>(cornerIntensity);
+		return createGeneral(intensity, configDetector);
+	}
+
+	/**
+	 * Detects Shi-Tomasi corners using an unweighted window.  The gradient and corner intensity are computed directly
+	 * from the input image in a single pass, which is faster than {@link #createShiTomasi} but produces the same
+	 * features as when the gradient is computed using a Sobel operator.  Image derivatives are not needed.
+	 *
+	 * @param configDetector Configuration for feature detector.
+	 * @param imageType       Type of input image.
+	 * @see FusedCornerIntensity
+	 */
+	public static <T extends ImageSingleBand, D extends ImageSingleBand>
+	GeneralFeatureDetector<T, D> createShiTomasiFused(ConfigGeneralDetector configDetector, Class<T> imageType) {
+		FusedCornerIntensity<T> cornerIntensity =
+				FactoryIntensityPointAlg.shiTomasiFused(configDetector.radius, imageType);
+		GeneralFeatureIntensity<T, D> intensity = new WrapperFusedCornerIntensity<T, D>(cornerIntensity);
+		return createGeneral(intensity, configDetector);
+	}
+
 	/**
 	 * Detects Kitchen and Rosenfeld corners.
 	 *
@@ -95,7 +132,9 @@ public class FactoryDetectPoint {
 	}
 
 	/**
-	 * Creates a Fast corner detector.
+	 * Creates a Fast corner detector.  If the search radius is one, all features are requested and none are excluded
+	 * then corners are detected without computing the intensity image, see {@link GeneralFastCornerDetector}.
+	 * The image is processed concurrently if {@link boofcv.concurrency.BoofConcurrency#USE_CONCURRENT} is true.
 	 *
 	 * @param configFast Configuration for FAST feature detector
 	 * @param configDetector Configuration for feature extractor.
@@ -113,11 +152,15 @@ public class FactoryDetectPoint {
 
 		ConfigGeneralDetector d = configDetector;
 
-		FastCornerIntensity<T> alg = FactoryIntensityPointAlg.fast(configFast.pixelTol, configFast.minContinuous, imageType);
-		GeneralFeatureIntensity<T, D> intensity = new WrapperFastCornerIntensity<T, D>(alg);
+		FastCornerIntensityConcurrent<T> alg =
+				FactoryIntensityPointAlg.fastConcurrent(configFast.pixelTol, configFast.minContinuous, imageType);
 		ConfigGeneralDetector configExtract =
-				new ConfigGeneralDetector(d.maxFeatures,d.radius,d.threshold,0,true,false,true);
-		return createGeneral(intensity, configExtract);
+				new ConfigGeneralDetector(d.maxFeatures,d.radius,d.threshold,d.radius,true,false,true);
+		NonMaxSuppression extractor = FactoryFeatureExtractor.nonmax(configExtract);
+		GeneralFeatureDetector<T, D> det = new GeneralFastCornerDetector<T, D>(alg, extractor);
+		det.setMaxFeatures(configExtract.maxFeatures);
+
+		return det;
 	}
 
 	/**
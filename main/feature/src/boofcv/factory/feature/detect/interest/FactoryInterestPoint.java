@@ -151,6 +151,7 @@ public class FactoryInterestPoint {
 
 		SiftImageScaleSpace ss = new SiftImageScaleSpace(configSS.blurSigma, configSS.numScales, configSS.numOctaves,
 				configSS.doubleInputImage);
+		ss.setRecursiveBlur(configSS.recursiveBlur);
 
 		return new WrapSiftDetector(alg,ss);
 	}
@@ -31,6 +31,7 @@ import boofcv.alg.feature.detect.intensity.GradientCornerIntensity;
 import boofcv.alg.feature.detect.intensity.HessianBlobIntensity;
 import boofcv.alg.feature.detect.interest.*;
 import boofcv.alg.filter.derivative.GImageDerivativeOps;
+import boofcv.concurrency.BoofConcurrency;
 import boofcv.core.image.inst.FactoryImageGenerator;
 import boofcv.factory.feature.detect.extract.FactoryFeatureExtractor;
 import boofcv.factory.feature.detect.intensity.FactoryIntensityPointAlg;
@@ -158,7 +159,8 @@ public class FactoryInterestPointAlgs {
 	}
 
 	/**
-	 * Creates a Fast Hessian blob detector used by SURF.
+	 * Creates a Fast Hessian blob detector used by SURF.  If {@link BoofConcurrency#USE_CONCURRENT} is true then
+	 * a {@link FastHessianFeatureDetectorConcurrent} is returned.
 	 *
 	 * @param config Configuration for detector. Pass in null for default options.
 	 * @param <II> Integral Image
@@ -171,8 +173,20 @@ public class FactoryInterestPointAlgs {
 			config = new ConfigFastHessian();
 		config.checkValidity();
 
-		NonMaxSuppression extractor = FactoryFeatureExtractor.nonmax(
-				new ConfigExtract(config.extractRadius, config.detectThreshold, 5, true));
+		final ConfigExtract configExtract =
+				new ConfigExtract(config.extractRadius, config.detectThreshold, 5, true);
+		NonMaxSuppression extractor = FactoryFeatureExtractor.nonmax(configExtract);
+
+		if( BoofConcurrency.USE_CONCURRENT ) {
+			return new FastHessianFeatureDetectorConcurrent<II>(extractor, config.maxFeaturesPerScale,
+					config.initialSampleSize, config.initialSize, config.numberScalesPerOctave, config.numberOfOctaves) {
+				@Override
+				protected NonMaxSuppression createExtractor() {
+					return FactoryFeatureExtractor.nonmax(configExtract);
+				}
+			};
+		}
+
 		return new FastHessianFeatureDetector<II>(extractor, config.maxFeaturesPerScale,
 				config.initialSampleSize, config.initialSize, config.numberScalesPerOctave, config.numberOfOctaves);
 	}
@@ -19,6 +19,7 @@
 package boofcv.factory.feature.detect.template;
 
 import boofcv.alg.feature.detect.template.TemplateDiffSquared;
+import boofcv.alg.feature.detect.template.TemplateIntensityIntegral;
 import boofcv.alg.feature.detect.template.TemplateMatching;
 import boofcv.alg.feature.detect.template.TemplateMatchingIntensity;
 import boofcv.alg.feature.detect.template.TemplateNCC;
@@ -66,6 +67,31 @@ public class FactoryTemplateMatching {
 		throw new IllegalArgumentException("Type not found: " + type);
 	}
 
+	/**
+	 * Creates {@link TemplateMatchingIntensity} of the specified type which computes image statistics using
+	 * integral images, see {@link TemplateIntensityIntegral}.  Faster than {@link #createIntensity} for all but
+	 * the smallest templates.  Scores agree with {@link #createIntensity} up to floating point round off.
+	 *
+	 * @param type      Type of error function
+	 * @param imageType Image type being processed
+	 * @return {@link TemplateMatchingIntensity} of the specified type.
+	 */
+	public static <T extends ImageSingleBand>
+	TemplateMatchingIntensity<T> createIntensityIntegral(TemplateScoreType type, Class<T> imageType) {
+		switch (type) {
+			case SUM_DIFF_SQ:
+			case NCC:
+				if (imageType == ImageUInt8.class) {
+					return (TemplateMatchingIntensity<T>) new TemplateIntensityIntegral.U8(type);
+				} else if (imageType == ImageFloat32.class) {
+					return (TemplateMatchingIntensity<T>) new TemplateIntensityIntegral.F32(type);
+				} else {
+					throw new IllegalArgumentException("Image type not supported. " + imageType.getSimpleName());
+				}
+		}
+		throw new IllegalArgumentException("Type not found: " + type);
+	}
+
 	/**
 	 * Creates an instance of {@link TemplateMatching} for the specified score type.
 	 *
@@ -79,4 +105,19 @@ public class FactoryTemplateMatching {
 
 		return new TemplateMatching<T>(intensity);
 	}
+
+	/**
+	 * Creates an instance of {@link TemplateMatching} for the specified score type which uses
+	 * {@link #createIntensityIntegral}.
+	 *
+	 * @param type      Type of error function
+	 * @param imageType Image type being processed
+	 * @return {@link TemplateMatching} of the specified type.
+	 */
+	public static <T extends ImageSingleBand>
+	TemplateMatching<T> createMatcherIntegral(TemplateScoreType type, Class<T> imageType) {
+		TemplateMatchingIntensity<T> intensity = createIntensityIntegral(type, imageType);
+
+		return new TemplateMatching<T>(intensity);
+	}
 }
@@ -18,14 +18,16 @@
 
 package boofcv.factory.feature.disparity;
 
+import boofcv.abst.feature.disparity.ConfigSgm;
 import boofcv.abst.feature.disparity.StereoDisparity;
 import boofcv.abst.feature.disparity.StereoDisparitySparse;
 import boofcv.abst.feature.disparity.WrapDisparitySadRect;
+import boofcv.abst.feature.disparity.WrapDisparitySgm;
 import boofcv.abst.feature.disparity.WrapDisparitySparseSadRect;
-import boofcv.alg.feature.disparity.DisparityScoreRowFormat;
-import boofcv.alg.feature.disparity.DisparitySelect;
-import boofcv.alg.feature.disparity.DisparitySparseScoreSadRect;
-import boofcv.alg.feature.disparity.DisparitySparseSelect;
+import boofcv.alg.feature.disparity.*;
+import boofcv.alg.feature.disparity.impl.SgmCostAbsDiff_U8;
+import boofcv.alg.feature.disparity.impl.SgmCostCensus_U8;
+import boofcv.concurrency.BoofConcurrency;
 import boofcv.struct.image.ImageFloat32;
 import boofcv.struct.image.ImageSInt16;
 import boofcv.struct.image.ImageSingleBand;
@@ -78,13 +80,41 @@ public class FactoryStereoDisparity {
 	 * @return Rectangular region based WTA disparity.algorithm.
 	 */
 	public static <T extends ImageSingleBand> StereoDisparity<T,ImageUInt8>
-	regionWta( DisparityAlgorithms whichAlg ,
-			   int minDisparity , int maxDisparity,
-			   int regionRadiusX, int regionRadiusY ,
-			   double maxPerPixelError ,
-			   int validateRtoL ,
-			   double texture ,
-			   Class<T> imageType ) {
+	regionWta( final DisparityAlgorithms whichAlg ,
+			   final int minDisparity , final int maxDisparity,
+			   final int regionRadiusX, final int regionRadiusY ,
+			   final double maxPerPixelError ,
+			   final int validateRtoL ,
+			   final double texture ,
+			   final Class<T> imageType ) {
+
+		DisparityScoreRowFormat<T,ImageUInt8> alg = scoreRegionWta(whichAlg,minDisparity,maxDisparity,
+				regionRadiusX,regionRadiusY,maxPerPixelError,validateRtoL,texture,imageType);
+
+		if( BoofConcurrency.USE_CONCURRENT ) {
+			alg = new DisparityScoreConcurrent<T,ImageUInt8>(alg,20) {
+				@Override
+				protected DisparityScoreRowFormat<T,ImageUInt8> createAlg() {
+					return scoreRegionWta(whichAlg,minDisparity,maxDisparity,
+							regionRadiusX,regionRadiusY,maxPerPixelError,validateRtoL,texture,imageType);
+				}
+			};
+		}
+
+		return new WrapDisparitySadRect<T,ImageUInt8>(alg);
+	}
+
+	/**
+	 * Creates the single threaded algorithm used by {@link #regionWta}
+	 */
+	private static <T extends ImageSingleBand> DisparityScoreRowFormat<T,ImageUInt8>
+	scoreRegionWta( DisparityAlgorithms whichAlg ,
+					int minDisparity , int maxDisparity,
+					int regionRadiusX, int regionRadiusY ,
+					double maxPerPixelError ,
+					int validateRtoL ,
+					double texture ,
+					Class<T> imageType ) {
 
 		double maxError = (regionRadiusX*2+1)*(regionRadiusY*2+1)*maxPerPixelError;
 
@@ -137,7 +167,7 @@ public class FactoryStereoDisparity {
 		if( alg == null)
 			throw new RuntimeException("Image type not supported: "+imageType.getSimpleName() );
 
-		return new WrapDisparitySadRect<T,ImageUInt8>(alg);
+		return alg;
 	}
 
 	/**
@@ -161,7 +191,35 @@ public class FactoryStereoDisparity {
 	 * @return Rectangular region based WTA disparity.algorithm.
 	 */
 	public static <T extends ImageSingleBand> StereoDisparity<T,ImageFloat32>
-	regionSubpixelWta( DisparityAlgorithms whichAlg ,
+	regionSubpixelWta( final DisparityAlgorithms whichAlg ,
+					   final int minDisparity , final int maxDisparity,
+					   final int regionRadiusX, final int regionRadiusY ,
+					   final double maxPerPixelError ,
+					   final int validateRtoL ,
+					   final double texture ,
+					   final Class<T> imageType ) {
+
+		DisparityScoreRowFormat<T,ImageFloat32> alg = scoreRegionSubpixelWta(whichAlg,minDisparity,maxDisparity,
+				regionRadiusX,regionRadiusY,maxPerPixelError,validateRtoL,texture,imageType);
+
+		if( BoofConcurrency.USE_CONCURRENT ) {
+			alg = new DisparityScoreConcurrent<T,ImageFloat32>(alg,20) {
+				@Override
+				protected DisparityScoreRowFormat<T,ImageFloat32> createAlg() {
+					return scoreRegionSubpixelWta(whichAlg,minDisparity,maxDisparity,
+							regionRadiusX,regionRadiusY,maxPerPixelError,validateRtoL,texture,imageType);
+				}
+			};
+		}
+
+		return new WrapDisparitySadRect<T,ImageFloat32>(alg);
+	}
+
+	/**
+	 * Creates the single threaded algorithm used by {@link #regionSubpixelWta}
+	 */
+	private static <T extends ImageSingleBand> DisparityScoreRowFormat<T,ImageFloat32>
+	scoreRegionSubpixelWta( DisparityAlgorithms whichAlg ,
 					   int minDisparity , int maxDisparity,
 					   int regionRadiusX, int regionRadiusY ,
 					   double maxPerPixelError ,
@@ -220,7 +278,7 @@ public class FactoryStereoDisparity {
 		if( alg == null)
 			throw new RuntimeException("Image type not supported: "+imageType.getSimpleName() );
 
-		return new WrapDisparitySadRect<T,ImageFloat32>(alg);
+		return alg;
 	}
 
 	/**
@@ -273,4 +331,73 @@ public class FactoryStereoDisparity {
 		} else
 			throw new RuntimeException("Image type not supported: "+imageType.getSimpleName() );
 	}
+
+	/**
+	 * <p>
+	 * Dense disparity using Semi-Global Matching (SGM) with pixel level accuracy.  Produces smoother disparity
+	 * images than the region based algorithms at the cost of additional computations.
+	 * </p>
+	 *
+	 * @param config Configuration for SGM.  If null the default is used.
+	 * @param imageType Type of input image.  Only {@link ImageUInt8} is supported.
+	 * @return SGM disparity algorithm
+	 */
+	public static <T extends ImageSingleBand> StereoDisparity<T,ImageUInt8>
+	sgm( ConfigSgm config , Class<T> imageType ) {
+		return new WrapDisparitySgm<T,ImageUInt8>(createSgm(config,imageType,ImageUInt8.class));
+	}
+
+	/**
+	 * <p>
+	 * Dense disparity using Semi-Global Matching (SGM) with sub-pixel accuracy.
+	 * </p>
+	 *
+	 * @param config Configuration for SGM.  If null the default is used.
+	 * @param imageType Type of input image.  Only {@link ImageUInt8} is supported.
+	 * @return SGM disparity algorithm
+	 */
+	public static <T extends ImageSingleBand> StereoDisparity<T,ImageFloat32>
+	sgmSubpixel( ConfigSgm config , Class<T> imageType ) {
+		return new WrapDisparitySgm<T,ImageFloat32>(createSgm(config,imageType,ImageFloat32.class));
+	}
+
+	private static <T extends ImageSingleBand, D extends ImageSingleBand> SgmStereoDisparity<T,D>
+	createSgm( ConfigSgm config , Class<T> imageType , Class<D> disparityType ) {
+		if( config == null )
+			config = new ConfigSgm();
+		config.checkValidity();
+
+		if( imageType != ImageUInt8.class )
+			throw new IllegalArgumentException("Image type not supported: "+imageType.getSimpleName());
+
+		SgmCostFunction cost;
+		int penaltySmall,penaltyLarge;
+		switch( config.errorType ) {
+			case CENSUS:
+				cost = new SgmCostCensus_U8(config.errorRadius,config.errorRadius);
+				// the census cost increases with the region's size
+				penaltySmall = Math.max(1,cost.getMaxCost()/3);
+				penaltyLarge = 4*cost.getMaxCost();
+				break;
+
+			case ABSOLUTE_DIFFERENCE:
+				cost = new SgmCostAbsDiff_U8(config.errorRadius);
+				penaltySmall = 8; penaltyLarge = 80;
+				break;
+
+			default:
+				throw new IllegalArgumentException("Unknown error type "+config.errorType);
+		}
+
+		if( config.penaltySmall >= 0 )
+			penaltySmall = config.penaltySmall;
+		if( config.penaltyLarge >= 0 )
+			penaltyLarge = config.penaltyLarge;
+
+		SgmCostAggregation aggregation = new SgmCostAggregation(penaltySmall,penaltyLarge,config.paths);
+		SgmDisparitySelector selector = new SgmDisparitySelector(config.validateRtoL,config.uniqueness);
+
+		return new SgmStereoDisparity<T,D>(config.minDisparity,config.maxDisparity,cost,aggregation,selector,
+				config.bandHeight,config.bandOverlap,disparityType);
+	}
 }
@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.factory.feature.disparity;
+
+/**
+ * Types of matching cost used by Semi-Global Matching
+ *
+ * @see boofcv.alg.feature.disparity.SgmStereoDisparity
+ *
+ * @author Peter Abeles
+ */
+public enum SgmErrorType {
+	/**
+	 * Hamming distance between census transforms.  Robust to differences in gain and bias.
+	 *
+	 * @see boofcv.alg.feature.disparity.impl.SgmCostCensus_U8
+	 */
+	CENSUS,
+	/**
+	 * Absolute difference averaged across a square region
+	 *
+	 * @see boofcv.alg.feature.disparity.impl.SgmCostAbsDiff_U8
+	 */
+	ABSOLUTE_DIFFERENCE
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.struct.feature;
+
+/**
+ * <p>
+ * Stores a set of tuple descriptors inside a single array.  The elements in descriptor i start at index i*stride
+ * and are contiguous.  Compared to a list of descriptors, where each has its own array, descriptors are next to
+ * each other in memory and no objects are declared for each descriptor.  Distance functions which operate on
+ * packed arrays can be found in {@link boofcv.alg.feature.associate.DescriptorDistance}.
+ * </p>
+ *
+ * <p>
+ * Descriptors are added by copying them from a {@link TupleDesc}, which is typically a single instance that's
+ * reused while describing all the features.
+ * </p>
+ *
+ * @param <Desc> Type of descriptor which is stored
+ *
+ * @author Peter Abeles
+ */
+public interface PackedTupleDesc<Desc extends TupleDesc> {
+
+	/**
+	 * Removes all the descriptors.  Memory is not released.
+	 */
+	public void reset();
+
+	/**
+	 * Adds a copy of the descriptor to the end of the set.
+	 *
+	 * @param d The descriptor.  Not modified.
+	 */
+	public void append( Desc d );
+
+	/**
+	 * Copies a descriptor from the set into the provided storage.
+	 *
+	 * @param index Which descriptor
+	 * @param output (output) Storage for the descriptor
+	 */
+	public void getCopy( int index , Desc output );
+
+	/**
+	 * Creates a new descriptor with the same length as the descriptors in this set.
+	 */
+	public Desc createDescription();
+
+	/**
+	 * Number of descriptors in the set.
+	 */
+	public int size();
+
+	/**
+	 * Number of elements in each descriptor.
+	 */
+	public int getNumElements();
+
+	/**
+	 * Number of array elements between the start of consecutive descriptors.
+	 */
+	public int getStride();
+
+	/**
+	 * Type of descriptor that's stored.
+	 */
+	public Class<Desc> getDescriptionType();
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.struct.feature;
+
+import java.util.Arrays;
+
+/**
+ * Packed set of {@link TupleDesc_B} descriptors.  Each descriptor is stored in stride ints, using the same
+ * bit order as {@link TupleDesc_B}.  See {@link PackedTupleDesc}.
+ *
+ * @author Peter Abeles
+ */
+public class PackedTupleDesc_B implements PackedTupleDesc<TupleDesc_B> {
+	/**
+	 * Bits of all the descriptors.  Descriptor i starts at i*stride.
+	 */
+	public int[] data;
+	/**
+	 * Number of ints used to store each descriptor
+	 */
+	public int stride;
+	/**
+	 * Number of bits in each descriptor
+	 */
+	public int numBits;
+	/**
+	 * Number of descriptors
+	 */
+	public int size;
+
+	/**
+	 * Declares storage
+	 *
+	 * @param numBits Number of bits in each descriptor
+	 * @param initialMax Number of descriptors which can be stored before the array needs to grow
+	 */
+	public PackedTupleDesc_B( int numBits , int initialMax ) {
+		this.numBits = numBits;
+		this.stride = (numBits+31)/32;
+		this.data = new int[stride*Math.max(1,initialMax)];
+	}
+
+	@Override
+	public void reset() {
+		size = 0;
+	}
+
+	/**
+	 * Adds space for a new descriptor to the end of the set and returns the index of its first element.
+	 * The new descriptor's elements are not initialized.
+	 */
+	public int grow() {
+		int offset = size*stride;
+		if( offset + stride > data.length )
+			data = Arrays.copyOf(data,Math.max(stride,data.length*2));
+		size++;
+		return offset;
+	}
+
+	@Override
+	public void append( TupleDesc_B d ) {
+		if( d.numBits != numBits )
+			throw new IllegalArgumentException("Unexpected number of bits");
+		int offset = grow();
+		System.arraycopy(d.data,0,data,offset,stride);
+	}
+
+	@Override
+	public void getCopy( int index , TupleDesc_B output ) {
+		System.arraycopy(data,index*stride,output.data,0,stride);
+	}
+
+	/**
+	 * Copies the descriptor into the specified index, overwriting the previous value.
+	 */
+	public void set( int index , TupleDesc_B d ) {
+		if( index < 0 || index >= size )
+			throw new IllegalArgumentException("Index out of bounds: "+index);
+		System.arraycopy(d.data,0,data,index*stride,stride);
+	}
+
+	@Override
+	public TupleDesc_B createDescription() {
+		return new TupleDesc_B(numBits);
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public int getNumElements() {
+		return numBits;
+	}
+
+	@Override
+	public int getStride() {
+		return stride;
+	}
+
+	@Override
+	public Class<TupleDesc_B> getDescriptionType() {
+		return TupleDesc_B.class;
+	}
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.struct.feature;
+
+import java.util.Arrays;
+
+/**
+ * Packed set of {@link TupleDesc_F32} descriptors.  See {@link PackedTupleDesc}.
+ *
+ * @author Peter Abeles
+ */
+public class PackedTupleDesc_F32 implements PackedTupleDesc<TupleDesc_F32> {
+	/**
+	 * Elements of all the descriptors.  Descriptor i starts at i*stride.
+	 */
+	public float[] data;
+	/**
+	 * Number of elements in each descriptor
+	 */
+	public int stride;
+	/**
+	 * Number of descriptors
+	 */
+	public int size;
+
+	/**
+	 * Declares storage
+	 *
+	 * @param numElements Number of elements in each descriptor
+	 * @param initialMax Number of descriptors which can be stored before the array needs to grow
+	 */
+	public PackedTupleDesc_F32( int numElements , int initialMax ) {
+		this.stride = numElements;
+		this.data = new float[numElements*Math.max(1,initialMax)];
+	}
+
+	@Override
+	public void reset() {
+		size = 0;
+	}
+
+	/**
+	 * Adds space for a new descriptor to the end of the set and returns the index of its first element.
+	 * The new descriptor's elements are not initialized.
+	 */
+	public int grow() {
+		int offset = size*stride;
+		if( offset + stride > data.length )
+			data = Arrays.copyOf(data,Math.max(stride,data.length*2));
+		size++;
+		return offset;
+	}
+
+	@Override
+	public void append( TupleDesc_F32 d ) {
+		if( d.value.length != stride )
+			throw new IllegalArgumentException("Unexpected descriptor length");
+		int offset = grow();
+		System.arraycopy(d.value,0,data,offset,stride);
+	}
+
+	@Override
+	public void getCopy( int index , TupleDesc_F32 output ) {
+		System.arraycopy(data,index*stride,output.value,0,stride);
+	}
+
+	/**
+	 * Copies the descriptor into the specified index, overwriting the previous value.
+	 */
+	public void set( int index , TupleDesc_F32 d ) {
+		if( index < 0 || index >= size )
+			throw new IllegalArgumentException("Index out of bounds: "+index);
+		System.arraycopy(d.value,0,data,index*stride,stride);
+	}
+
+	@Override
+	public TupleDesc_F32 createDescription() {
+		return new TupleDesc_F32(stride);
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public int getNumElements() {
+		return stride;
+	}
+
+	@Override
+	public int getStride() {
+		return stride;
+	}
+
+	@Override
+	public Class<TupleDesc_F32> getDescriptionType() {
+		return TupleDesc_F32.class;
+	}
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.abst.feature.associate;
+
+import boofcv.alg.feature.associate.AssociateGreedy;
+import boofcv.alg.feature.associate.HammingMultiIndex;
+import boofcv.struct.feature.AssociatedIndex;
+import boofcv.struct.feature.TupleDesc_B;
+import org.ddogleg.struct.FastQueue;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestAssociateHammingMultiIndex {
+
+	Random rand = new Random(234);
+
+	/**
+	 * Results should be identical to greedy association without backwards validation
+	 */
+	@Test
+	public void compareToGreedy() {
+		FastQueue<TupleDesc_B> dst = new FastQueue<TupleDesc_B>(TupleDesc_B.class,false);
+		FastQueue<TupleDesc_B> src = new FastQueue<TupleDesc_B>(TupleDesc_B.class,false);
+
+		for( int i = 0; i < 200; i++ ) {
+			TupleDesc_B d = new TupleDesc_B(128);
+			for( int j = 0; j < d.data.length; j++ )
+				d.data[j] = rand.nextInt();
+			dst.add(d);
+		}
+		for( int i = 0; i < 100; i++ ) {
+			TupleDesc_B d = dst.get(rand.nextInt(dst.size)).copy();
+			for( int j = 0; j < 10; j++ ) {
+				int bit = rand.nextInt(128);
+				d.data[bit/32] ^= 1 << (bit%32);
+			}
+			src.add(d);
+		}
+
+		for( double threshold : new double[]{Double.MAX_VALUE,8} ) {
+			AssociateGreedy<TupleDesc_B> greedy = new AssociateGreedy<TupleDesc_B>(new ScoreAssociateHamming_B(),false);
+			greedy.setMaxFitError(threshold);
+			AssociateDescription<TupleDesc_B> expected = new WrapAssociateGreedy<TupleDesc_B>(greedy);
+			AssociateDescription<TupleDesc_B> alg = new AssociateHammingMultiIndex(new HammingMultiIndex(128,8));
+			alg.setThreshold(threshold);
+
+			expected.setSource(src); expected.setDestination(dst); expected.associate();
+			alg.setSource(src); alg.setDestination(dst); alg.associate();
+
+			FastQueue<AssociatedIndex> a = expected.getMatches();
+			FastQueue<AssociatedIndex> b = alg.getMatches();
+			assertEquals(a.size,b.size);
+			for( int i = 0; i < a.size; i++ ) {
+				assertEquals(a.get(i).src,b.get(i).src);
+				assertEquals(a.get(i).dst,b.get(i).dst);
+				assertEquals(a.get(i).fitScore,b.get(i).fitScore,1e-8);
+			}
+			assertEquals(expected.getUnassociatedSource().size,alg.getUnassociatedSource().size);
+			assertEquals(expected.getUnassociatedDestination().size,alg.getUnassociatedDestination().size);
+		}
+	}
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.abst.feature.associate;
+
+import boofcv.struct.feature.AssociatedIndex;
+import boofcv.struct.feature.TupleDesc_F32;
+import boofcv.struct.feature.TupleDesc_F64;
+import org.ddogleg.struct.FastQueue;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestAssociateKdForest {
+
+	Random rand = new Random(234);
+
+	@Test
+	public void normal() {
+		new StandardTests() {
+			@Override
+			public AssociateDescription<TupleDesc_F64> createAlg() {
+				return new AssociateKdForest<TupleDesc_F64>(100,2,1,1.0,false,234);
+			}
+		}.allTests();
+	}
+
+	@Test
+	public void backwards() {
+		new StandardTests() {
+			@Override
+			public AssociateDescription<TupleDesc_F64> createAlg() {
+				return new AssociateKdForest<TupleDesc_F64>(100,2,1,1.0,true,234);
+			}
+		}.allTests();
+	}
+
+	/**
+	 * With a large enough search budget the results should be identical to greedy association
+	 */
+	@Test
+	public void compareToGreedy() {
+		FastQueue<TupleDesc_F64> src = randomSet(150, 16);
+		FastQueue<TupleDesc_F64> dst = randomSet(120, 16);
+
+		for( int i = 0; i < 2; i++ ) {
+			boolean backwards = i == 1;
+			AssociateDescription<TupleDesc_F64> greedy = new WrapAssociateGreedy<TupleDesc_F64>(
+					new boofcv.alg.feature.associate.AssociateGreedy<TupleDesc_F64>(
+							new ScoreAssociateEuclidean_F64(),backwards));
+			AssociateDescription<TupleDesc_F64> alg =
+					new AssociateKdForest<TupleDesc_F64>(1000,4,5,1.0,backwards,234);
+
+			greedy.setSource(src); greedy.setDestination(dst); greedy.associate();
+			alg.setSource(src); alg.setDestination(dst); alg.associate();
+
+			FastQueue<AssociatedIndex> expected = greedy.getMatches();
+			FastQueue<AssociatedIndex> found = alg.getMatches();
+
+			assertEquals(expected.size,found.size);
+			for( int j = 0; j < expected.size; j++ ) {
+				assertEquals(expected.get(j).src,found.get(j).src);
+				assertEquals(expected.get(j).dst,found.get(j).dst);
+				assertEquals(expected.get(j).fitScore,found.get(j).fitScore,1e-8);
+			}
+			assertEquals(src.size-found.size,alg.getUnassociatedSource().size);
+		}
+	}
+
+	/**
+	 * Ambiguous matches should be rejected by the ratio test
+	 */
+	@Test
+	public void ratioTest() {
+		FastQueue<TupleDesc_F64> src = new FastQueue<TupleDesc_F64>(TupleDesc_F64.class,false);
+		FastQueue<TupleDesc_F64> dst = new FastQueue<TupleDesc_F64>(TupleDesc_F64.class,false);
+
+		src.add(c(0)); src.add(c(10));
+		dst.add(c(0.1)); dst.add(c(5)); dst.add(c(9)); dst.add(c(11.1));
+
+		AssociateKdForest<TupleDesc_F64> alg = new AssociateKdForest<TupleDesc_F64>(100,2,1,0.8,false,234);
+		alg.setSource(src);
+		alg.setDestination(dst);
+		alg.associate();
+
+		// src[1] is almost the same distance from dst[2] and dst[3]
+		assertEquals(1,alg.getMatches().size);
+		assertEquals(0,alg.getMatches().get(0).src);
+		assertEquals(0,alg.getMatches().get(0).dst);
+		assertEquals(1,alg.getUnassociatedSource().size);
+		assertEquals(1,alg.getUnassociatedSource().get(0));
+	}
+
+	/**
+	 * Make sure F32 descriptors produce the same results as F64
+	 */
+	@Test
+	public void tupleF32() {
+		FastQueue<TupleDesc_F64> src64 = randomSet(50, 8);
+		FastQueue<TupleDesc_F64> dst64 = randomSet(60, 8);
+		FastQueue<TupleDesc_F32> src32 = convert(src64);
+		FastQueue<TupleDesc_F32> dst32 = convert(dst64);
+
+		AssociateKdForest<TupleDesc_F64> alg64 = new AssociateKdForest<TupleDesc_F64>(1000,2,3,1.0,false,234);
+		AssociateKdForest<TupleDesc_F32> alg32 = new AssociateKdForest<TupleDesc_F32>(1000,2,3,1.0,false,234);
+
+		alg64.setSource(src64); alg64.setDestination(dst64); alg64.associate();
+		alg32.setSource(src32); alg32.setDestination(dst32); alg32.associate();
+
+		assertEquals(alg64.getMatches().size,alg32.getMatches().size);
+		for( int i = 0; i < alg64.getMatches().size; i++ ) {
+			assertEquals(alg64.getMatches().get(i).dst,alg32.getMatches().get(i).dst);
+			assertEquals(alg64.getMatches().get(i).fitScore,alg32.getMatches().get(i).fitScore,1e-4);
+		}
+		assertTrue(alg64.getMatches().size > 0);
+	}
+
+	private FastQueue<TupleDesc_F64> randomSet( int num , int N ) {
+		FastQueue<TupleDesc_F64> ret = new FastQueue<TupleDesc_F64>(TupleDesc_F64.class,false);
+		for( int i = 0; i < num; i++ ) {
+			TupleDesc_F64 d = new TupleDesc_F64(N);
+			for( int j = 0; j < N; j++ )
+				d.value[j] = (float)rand.nextDouble();
+			ret.add(d);
+		}
+		return ret;
+	}
+
+	private FastQueue<TupleDesc_F32> convert( FastQueue<TupleDesc_F64> list ) {
+		FastQueue<TupleDesc_F32> ret = new FastQueue<TupleDesc_F32>(TupleDesc_F32.class,false);
+		for( int i = 0; i < list.size; i++ ) {
+			TupleDesc_F64 a = list.get(i);
+			TupleDesc_F32 b = new TupleDesc_F32(a.size());
+			for( int j = 0; j < a.size(); j++ )
+				b.value[j] = (float)a.value[j];
+			ret.add(b);
+		}
+		return ret;
+	}
+
+	private static TupleDesc_F64 c(double value) {
+		TupleDesc_F64 s = new TupleDesc_F64(1);
+		s.value[0] = value;
+		return s;
+	}
+
+	private static abstract class StandardTests extends StandardAssociateDescriptionChecks<TupleDesc_F64> {
+		public StandardTests() {
+			super(TupleDesc_F64.class);
+		}
+
+		@Override
+		protected TupleDesc_F64 c(double value) {
+			return TestAssociateKdForest.c(value);
+		}
+	}
+}
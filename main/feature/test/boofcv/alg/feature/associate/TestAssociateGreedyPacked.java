@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.feature.associate;
+
+import boofcv.abst.feature.associate.ScoreAssociateEuclideanSq_F64;
+import boofcv.abst.feature.associate.ScoreAssociateHamming_B;
+import boofcv.abst.feature.associate.ScoreAssociatePackedEuclideanSq_F64;
+import boofcv.abst.feature.associate.ScoreAssociatePackedHamming_B;
+import boofcv.struct.feature.PackedTupleDesc_B;
+import boofcv.struct.feature.PackedTupleDesc_F64;
+import boofcv.struct.feature.TupleDesc_B;
+import boofcv.struct.feature.TupleDesc_F64;
+import org.ddogleg.struct.FastQueue;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestAssociateGreedyPacked {
+
+	Random rand = new Random(234);
+
+	/**
+	 * Compare against greedy association of the same descriptors stored in lists
+	 */
+	@Test
+	public void compareToGreedy_F64() {
+		for( int trial = 0; trial < 2; trial++ ) {
+			boolean backwards = trial == 1;
+
+			FastQueue<TupleDesc_F64> src = new FastQueue<TupleDesc_F64>(TupleDesc_F64.class,false);
+			FastQueue<TupleDesc_F64> dst = new FastQueue<TupleDesc_F64>(TupleDesc_F64.class,false);
+			PackedTupleDesc_F64 packedSrc = new PackedTupleDesc_F64(4,10);
+			PackedTupleDesc_F64 packedDst = new PackedTupleDesc_F64(4,10);
+
+			for( int i = 0; i < 80; i++ ) {
+				TupleDesc_F64 d = new TupleDesc_F64(4);
+				for( int j = 0; j < 4; j++ )
+					d.value[j] = rand.nextInt(3);
+				if( i < 50 ) {
+					src.add(d); packedSrc.append(d);
+				} else {
+					dst.add(d); packedDst.append(d);
+				}
+			}
+
+			AssociateGreedy<TupleDesc_F64> expected =
+					new AssociateGreedy<TupleDesc_F64>(new ScoreAssociateEuclideanSq_F64(),backwards);
+			AssociateGreedyPacked<PackedTupleDesc_F64> alg = new AssociateGreedyPacked<PackedTupleDesc_F64>(
+					new ScoreAssociatePackedEuclideanSq_F64(),backwards,7,9);
+			expected.setMaxFitError(3);
+			alg.setMaxFitError(3);
+
+			expected.associate(src,dst);
+			alg.associate(packedSrc,packedDst);
+
+			for( int i = 0; i < src.size; i++ ) {
+				assertEquals(expected.getPairs()[i],alg.getPairs()[i]);
+				assertEquals(expected.getFitQuality()[i],alg.getFitQuality()[i],1e-8);
+			}
+		}
+	}
+
+	@Test
+	public void compareToGreedy_B() {
+		FastQueue<TupleDesc_B> src = new FastQueue<TupleDesc_B>(TupleDesc_B.class,false);
+		FastQueue<TupleDesc_B> dst = new FastQueue<TupleDesc_B>(TupleDesc_B.class,false);
+		PackedTupleDesc_B packedSrc = new PackedTupleDesc_B(40,10);
+		PackedTupleDesc_B packedDst = new PackedTupleDesc_B(40,10);
+
+		for( int i = 0; i < 80; i++ ) {
+			TupleDesc_B d = new TupleDesc_B(40);
+			d.data[0] = rand.nextInt();
+			d.data[1] = rand.nextInt(256);
+			if( i < 30 ) {
+				src.add(d); packedSrc.append(d);
+			} else {
+				dst.add(d); packedDst.append(d);
+			}
+		}
+
+		AssociateGreedy<TupleDesc_B> expected = new AssociateGreedy<TupleDesc_B>(new ScoreAssociateHamming_B(),true);
+		AssociateGreedyPacked<PackedTupleDesc_B> alg = new AssociateGreedyPacked<PackedTupleDesc_B>(
+				new ScoreAssociatePackedHamming_B(),true,32,256);
+
+		expected.associate(src,dst);
+		alg.associate(packedSrc,packedDst);
+
+		for( int i = 0; i < src.size; i++ ) {
+			assertEquals(expected.getPairs()[i],alg.getPairs()[i]);
+			assertEquals(expected.getFitQuality()[i],alg.getFitQuality()[i],1e-8);
+		}
+	}
+}
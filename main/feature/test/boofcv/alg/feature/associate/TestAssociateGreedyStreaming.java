@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.feature.associate;
+
+import boofcv.abst.feature.associate.ScoreAssociateSad_F64;
+import boofcv.abst.feature.associate.ScoreAssociation;
+import boofcv.testing.CompareConcurrent;
+import boofcv.struct.feature.TupleDesc_F64;
+import org.ddogleg.struct.FastQueue;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestAssociateGreedyStreaming {
+
+	Random rand = new Random(234);
+
+	// integer descriptors and SAD create lots of ties
+	ScoreAssociation<TupleDesc_F64> score = new ScoreAssociateSad_F64();
+
+	/**
+	 * Results should be identical to AssociateGreedy for all the different settings
+	 */
+	@Test
+	public void compareToGreedy() {
+		for( int trial = 0; trial < 2; trial++ ) {
+			boolean backwards = trial == 1;
+			for( double maxError : new double[]{Double.MAX_VALUE,4} ) {
+				compareToGreedy(backwards,maxError,70,45,7,16);
+				compareToGreedy(backwards,maxError,45,70,100,100);
+				compareToGreedy(backwards,maxError,1,1,7,16);
+				compareToGreedy(backwards,maxError,0,10,7,16);
+				compareToGreedy(backwards,maxError,10,0,7,16);
+			}
+		}
+	}
+
+	/**
+	 * Same as compareToGreedy but with the source split between threads
+	 */
+	@Test
+	public void compareToGreedy_concurrent() {
+		CompareConcurrent.runConcurrent(3, new Runnable() {
+			@Override
+			public void run() {
+				compareToGreedy();
+			}
+		});
+	}
+
+	private void compareToGreedy( boolean backwards , double maxError , int numSrc , int numDst ,
+								  int blockSrc , int blockDst ) {
+		FastQueue<TupleDesc_F64> src = createData(numSrc);
+		FastQueue<TupleDesc_F64> dst = createData(numDst);
+
+		AssociateGreedy<TupleDesc_F64> expected = new AssociateGreedy<TupleDesc_F64>(score,backwards);
+		expected.setMaxFitError(maxError);
+		AssociateGreedyStreaming<TupleDesc_F64> alg =
+				new AssociateGreedyStreaming<TupleDesc_F64>(score,backwards,blockSrc,blockDst);
+		alg.setMaxFitError(maxError);
+
+		expected.associate(src,dst);
+		// call it twice to make sure it's correctly reset
+		alg.associate(dst,src);
+		alg.associate(src,dst);
+
+		for( int i = 0; i < numSrc; i++ ) {
+			assertEquals(expected.getPairs()[i],alg.getPairs()[i]);
+			assertEquals(expected.getFitQuality()[i],alg.getFitQuality()[i],1e-8);
+		}
+	}
+
+	@Test
+	public void ratioTest() {
+		FastQueue<TupleDesc_F64> src = createData(0,10);
+		FastQueue<TupleDesc_F64> dst = createData(1,5,9,12);
+
+		AssociateGreedyStreaming<TupleDesc_F64> alg = new AssociateGreedyStreaming<TupleDesc_F64>(score,false,2,2);
+		alg.setRatioTest(0.4);
+		alg.associate(src,dst);
+
+		// ratio of 1/5 passes but 1/2 doesn't
+		assertEquals(0,alg.getPairs()[0]);
+		assertEquals(-1,alg.getPairs()[1]);
+		assertEquals(Double.MAX_VALUE,alg.getFitQuality()[1],1e-8);
+
+		alg.setRatioTest(0.8);
+		alg.associate(src,dst);
+		assertEquals(0,alg.getPairs()[0]);
+		assertEquals(2,alg.getPairs()[1]);
+	}
+
+	private FastQueue<TupleDesc_F64> createData( int num ) {
+		FastQueue<TupleDesc_F64> ret = new FastQueue<TupleDesc_F64>(10,TupleDesc_F64.class, false);
+
+		for( int i = 0; i < num; i++ ) {
+			TupleDesc_F64 t = new TupleDesc_F64(3);
+			for( int j = 0; j < 3; j++ )
+				t.value[j] = rand.nextInt(4);
+			ret.add(t);
+		}
+
+		return ret;
+	}
+
+	private FastQueue<TupleDesc_F64> createData( double ...values ) {
+		FastQueue<TupleDesc_F64> ret = new FastQueue<TupleDesc_F64>(10,TupleDesc_F64.class, false);
+
+		for( int i = 0; i < values.length; i++ ) {
+			TupleDesc_F64 t = new TupleDesc_F64(1);
+			t.value[0] = values[i];
+			ret.add(t);
+		}
+
+		return ret;
+	}
+}
@@ -277,4 +277,54 @@ public class TestDescriptorDistance {
 
 		return distance;
 	}
+
+	@Test
+	public void euclideanSq_packed_F64() {
+		double[] a = new double[]{0,1,2,3,4,5};
+		double[] b = new double[]{0,0,2,-1,7,-8,10};
+
+		assertEquals(195, DescriptorDistance.euclideanSq(a, 1, b, 2, 5), 1e-4);
+	}
+
+	@Test
+	public void euclideanSq_packed_F32() {
+		float[] a = new float[]{0,1,2,3,4,5};
+		float[] b = new float[]{0,0,2,-1,7,-8,10};
+
+		assertEquals(195, DescriptorDistance.euclideanSq(a, 1, b, 2, 5), 1e-4);
+	}
+
+	@Test
+	public void sad_packed_F64() {
+		double[] a = new double[]{0,1,2,3,4,5};
+		double[] b = new double[]{0,0,2,-1,7,-8,10};
+
+		assertEquals(25, DescriptorDistance.sad(a, 1, b, 2, 5), 1e-4);
+	}
+
+	@Test
+	public void sad_packed_F32() {
+		float[] a = new float[]{0,1,2,3,4,5};
+		float[] b = new float[]{0,0,2,-1,7,-8,10};
+
+		assertEquals(25, DescriptorDistance.sad(a, 1, b, 2, 5), 1e-4);
+	}
+
+	@Test
+	public void hamming_packed() {
+		TupleDesc_B a = new TupleDesc_B(70);
+		TupleDesc_B b = new TupleDesc_B(70);
+		for( int i = 0; i < a.data.length; i++ ) {
+			a.data[i] = rand.nextInt();
+			b.data[i] = rand.nextInt();
+		}
+
+		int[] packedA = new int[a.data.length+1];
+		int[] packedB = new int[b.data.length+2];
+		System.arraycopy(a.data,0,packedA,1,a.data.length);
+		System.arraycopy(b.data,0,packedB,2,b.data.length);
+
+		int expected = DescriptorDistance.hamming(a,b);
+		assertEquals(expected, DescriptorDistance.hamming(packedA, 1, packedB, 2, a.data.length));
+	}
 }
@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.feature.associate;
+
+import boofcv.struct.feature.TupleDesc_B;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestHammingMultiIndex {
+
+	Random rand = new Random(234);
+
+	/**
+	 * Compare K-NN results against a brute force search for different number of tables and bits
+	 */
+	@Test
+	public void compareToBruteForce() {
+		compareToBruteForce(64,4,1,64);
+		compareToBruteForce(64,4,3,64);
+		compareToBruteForce(100,7,3,64);
+		compareToBruteForce(256,16,5,40);
+		compareToBruteForce(256,16,2,10);
+		compareToBruteForce(33,33,2,5);
+	}
+
+	private void compareToBruteForce( int numBits , int numTables , int K , int maxDistance ) {
+		List<TupleDesc_B> database = new ArrayList<TupleDesc_B>();
+		HammingMultiIndex alg = new HammingMultiIndex(numBits,numTables);
+
+		for( int i = 0; i < 300; i++ ) {
+			TupleDesc_B d = random(numBits);
+			database.add(d);
+			assertEquals(i,alg.add(d));
+		}
+		// make sure there are some ties
+		database.add(database.get(10).copy());
+		alg.add(database.get(10));
+
+		for( int trial = 0; trial < 100; trial++ ) {
+			TupleDesc_B query = database.get(rand.nextInt(database.size())).copy();
+			flipBits(query, rand.nextInt(numBits/2));
+
+			int found = alg.searchNearest(query,K,maxDistance);
+
+			// brute force K-NN with ties resolved by index
+			int[] bestIndex = new int[K];
+			int[] bestDistance = new int[K];
+			int numBest = 0;
+			for( int i = 0; i < database.size(); i++ ) {
+				int d = DescriptorDistance.hamming(query,database.get(i));
+				if( d > maxDistance )
+					continue;
+				if( numBest < K ) {
+					bestIndex[numBest] = i; bestDistance[numBest] = d; numBest++;
+				} else if( d < bestDistance[K-1] ) {
+					bestIndex[K-1] = i; bestDistance[K-1] = d;
+				} else {
+					continue;
+				}
+				for( int j = numBest-1; j > 0 && bestDistance[j] < bestDistance[j-1]; j-- ) {
+					int t = bestIndex[j]; bestIndex[j] = bestIndex[j-1]; bestIndex[j-1] = t;
+					t = bestDistance[j]; bestDistance[j] = bestDistance[j-1]; bestDistance[j-1] = t;
+				}
+			}
+
+			assertEquals(numBest,found);
+			for( int i = 0; i < numBest; i++ ) {
+				assertEquals(bestIndex[i],alg.getResultIndex().get(i));
+				assertEquals(bestDistance[i],alg.getResultDistance().get(i));
+			}
+		}
+	}
+
+	/**
+	 * Close matches should be found after checking only a few descriptors
+	 */
+	@Test
+	public void sublinear() {
+		HammingMultiIndex alg = new HammingMultiIndex(256,16);
+		List<TupleDesc_B> database = new ArrayList<TupleDesc_B>();
+		for( int i = 0; i < 5000; i++ ) {
+			TupleDesc_B d = random(256);
+			database.add(d);
+			alg.add(d);
+		}
+
+		TupleDesc_B query = database.get(1234).copy();
+		flipBits(query,10);
+
+		assertEquals(1,alg.searchNearest(query,1,256));
+		assertEquals(1234,alg.getResultIndex().get(0));
+		assertTrue(alg.getNumChecks() < 50);
+	}
+
+	@Test
+	public void addRemove() {
+		HammingMultiIndex alg = new HammingMultiIndex(64,4);
+
+		TupleDesc_B a = random(64);
+		TupleDesc_B b = random(64);
+		TupleDesc_B c = random(64);
+
+		assertEquals(0,alg.add(a));
+		assertEquals(1,alg.add(b));
+		assertEquals(2,alg.add(c));
+		assertEquals(3,alg.size());
+
+		alg.remove(1);
+		assertFalse(alg.contains(1));
+		assertEquals(2,alg.size());
+
+		// b should no longer be found
+		alg.searchNearest(b,3,64);
+		assertEquals(2,alg.getResultIndex().size);
+		for( int i = 0; i < 2; i++ )
+			assertTrue(alg.getResultIndex().get(i) != 1);
+
+		// the removed index should be recycled
+		assertEquals(1,alg.add(b));
+		assertEquals(1,alg.searchNearest(b,1,0));
+		assertEquals(1,alg.getResultIndex().get(0));
+
+		alg.reset();
+		assertEquals(0,alg.size());
+		assertEquals(0,alg.searchNearest(b,1,64));
+		assertEquals(0,alg.add(c));
+	}
+
+	/**
+	 * Nothing beyond the maximum distance should be returned
+	 */
+	@Test
+	public void maxDistance() {
+		HammingMultiIndex alg = new HammingMultiIndex(64,4);
+
+		TupleDesc_B a = random(64);
+		alg.add(a);
+
+		TupleDesc_B query = a.copy();
+		flipBits(query,5);
+		int d = DescriptorDistance.hamming(a,query);
+
+		assertEquals(0,alg.searchNearest(query,1,d-1));
+		assertEquals(1,alg.searchNearest(query,1,d));
+		assertEquals(d,alg.getResultDistance().get(0));
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void wrongNumberOfBits() {
+		HammingMultiIndex alg = new HammingMultiIndex(64,4);
+		alg.add(random(65));
+	}
+
+	private TupleDesc_B random( int numBits ) {
+		TupleDesc_B d = new TupleDesc_B(numBits);
+		for( int i = 0; i < numBits; i++ ) {
+			if( rand.nextBoolean() )
+				d.data[i/32] |= 1 << (i%32);
+		}
+		return d;
+	}
+
+	private void flipBits( TupleDesc_B d , int num ) {
+		for( int i = 0; i < num; i++ ) {
+			int bit = rand.nextInt(d.numBits);
+			d.data[bit/32] ^= 1 << (bit%32);
+		}
+	}
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.feature.associate;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestRandomKdForest {
+
+	Random rand = new Random(234);
+
+	/**
+	 * If the number of checks is more than the number of points the solution should be exact
+	 */
+	@Test
+	public void exactWhenExhaustive() {
+		int N = 8, numPoints = 200;
+		double[] points = randomPoints(numPoints, N);
+
+		RandomKdForest alg = new RandomKdForest(3,4,234);
+		alg.setPoints(points,numPoints,N);
+
+		double[] query = new double[N+2];
+		for( int trial = 0; trial < 50; trial++ ) {
+			for( int i = 0; i < query.length; i++ )
+				query[i] = rand.nextDouble()*10;
+
+			assertTrue(alg.search(query,2,numPoints));
+
+			// brute force solution
+			int best = -1;
+			double bestD = Double.MAX_VALUE, secondD = Double.MAX_VALUE;
+			for( int i = 0; i < numPoints; i++ ) {
+				double d = distanceSq(query,2,points,i*N,N);
+				if( d < bestD ) {
+					secondD = bestD; bestD = d; best = i;
+				} else if( d < secondD ) {
+					secondD = d;
+				}
+			}
+
+			assertEquals(best,alg.getBestIndex());
+			assertEquals(bestD,alg.getBestDistanceSq(),1e-8);
+			assertEquals(secondD,alg.getSecondDistanceSq(),1e-8);
+			assertTrue(alg.getNumChecks() <= numPoints);
+		}
+	}
+
+	/**
+	 * Points from the set should find themselves with a small number of checks
+	 */
+	@Test
+	public void findSelf() {
+		int N = 20, numPoints = 500;
+		double[] points = randomPoints(numPoints, N);
+
+		RandomKdForest alg = new RandomKdForest(4,5,234);
+		alg.setPoints(points,numPoints,N);
+
+		for( int i = 0; i < numPoints; i++ ) {
+			assertTrue(alg.search(points,i*N,20));
+			assertEquals(i,alg.getBestIndex());
+			assertEquals(0,alg.getBestDistanceSq(),1e-8);
+			assertTrue(alg.getNumChecks() <= 20);
+		}
+	}
+
+	/**
+	 * Many identical points.  Makes sure construction terminates and a point is found
+	 */
+	@Test
+	public void duplicatePoints() {
+		int N = 3, numPoints = 50;
+		double[] points = new double[N*numPoints];
+
+		RandomKdForest alg = new RandomKdForest(2,2,234);
+		alg.setPoints(points,numPoints,N);
+
+		assertTrue(alg.search(new double[]{1,0,0},0,10));
+		assertEquals(1,alg.getBestDistanceSq(),1e-8);
+		assertEquals(1,alg.getSecondDistanceSq(),1e-8);
+	}
+
+	@Test
+	public void noPoints() {
+		RandomKdForest alg = new RandomKdForest(2,2,234);
+		alg.setPoints(new double[0],0,3);
+
+		assertFalse(alg.search(new double[3],0,10));
+		assertEquals(-1,alg.getBestIndex());
+	}
+
+	/**
+	 * Call set points multiple times with different sizes
+	 */
+	@Test
+	public void changePoints() {
+		RandomKdForest alg = new RandomKdForest(2,2,234);
+
+		alg.setPoints(randomPoints(100,4),100,4);
+
+		double[] points = randomPoints(10,4);
+		alg.setPoints(points,10,4);
+		for( int i = 0; i < 10; i++ ) {
+			assertTrue(alg.search(points,i*4,10));
+			assertEquals(i,alg.getBestIndex());
+		}
+	}
+
+	private double[] randomPoints( int numPoints , int N ) {
+		double[] points = new double[numPoints*N];
+		for( int i = 0; i < points.length; i++ )
+			points[i] = rand.nextDouble()*10;
+		return points;
+	}
+
+	private static double distanceSq( double[] a , int offsetA , double[] b , int offsetB , int N ) {
+		double total = 0;
+		for( int i = 0; i < N; i++ ) {
+			double d = a[offsetA+i]-b[offsetB+i];
+			total += d*d;
+		}
+		return total;
+	}
+}
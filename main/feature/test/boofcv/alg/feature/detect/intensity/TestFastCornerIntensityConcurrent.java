@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.feature.detect.intensity;
+
+import boofcv.alg.feature.detect.intensity.impl.ImplFastHelper_F32;
+import boofcv.alg.feature.detect.intensity.impl.ImplFastHelper_U8;
+import boofcv.alg.feature.detect.intensity.impl.ImplFastIntensity9;
+import boofcv.alg.misc.GImageMiscOps;
+import boofcv.core.image.GeneralizedImageOps;
+import boofcv.struct.QueueCorner;
+import boofcv.struct.image.ImageFloat32;
+import boofcv.struct.image.ImageSingleBand;
+import boofcv.struct.image.ImageUInt8;
+import boofcv.testing.BoofTesting;
+import boofcv.testing.CompareConcurrent;
+import georegression.struct.point.Point2D_I16;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+@SuppressWarnings("unchecked")
+public class TestFastCornerIntensityConcurrent {
+
+	Random rand = new Random(234);
+
+	int width = 60;
+	int height = 83;
+
+	/**
+	 * The concurrent algorithm should produce the exact same intensity image and candidates, in the same order
+	 */
+	@Test
+	public void process_compareToSingle() {
+		for( Class type : new Class[]{ImageUInt8.class,ImageFloat32.class}) {
+			final ImageSingleBand input = createImage(type);
+
+			ImageFloat32 expected = new ImageFloat32(width,height);
+			final ImageFloat32 found = new ImageFloat32(width,height);
+
+			FastCornerIntensity single = createSingle(type);
+			single.process(input,expected);
+
+			final Helper alg = new Helper(type,5);
+			CompareConcurrent.runConcurrent(3, new Runnable() {
+				@Override
+				public void run() {
+					// process twice to make sure the strips are reset
+					alg.process(input, found);
+					alg.process(input, found);
+				}
+			});
+
+			BoofTesting.assertEquals(expected, found, 0);
+			assertTrue(single.getCandidates().size > 0);
+			checkIdentical(single.getCandidates(), alg.getCandidates());
+		}
+	}
+
+	/**
+	 * Direct detection should produce the same corners, in the same order
+	 */
+	@Test
+	public void detect_compareToSingle() {
+		for( Class type : new Class[]{ImageUInt8.class,ImageFloat32.class}) {
+			final ImageSingleBand input = createImage(type);
+
+			QueueCorner expected = new QueueCorner(10);
+			final QueueCorner found = new QueueCorner(10);
+
+			FastCornerIntensity single = createSingle(type);
+			single.detect(input,10,expected);
+
+			final Helper alg = new Helper(type,5);
+			CompareConcurrent.runConcurrent(3, new Runnable() {
+				@Override
+				public void run() {
+					alg.detect(input, 10, found);
+					alg.detect(input, 10, found);
+				}
+			});
+
+			assertTrue(expected.size > 0);
+			checkIdentical(expected, found);
+		}
+	}
+
+	/**
+	 * If concurrency is turned off the prototype should process the whole image
+	 */
+	@Test
+	public void notConcurrent() {
+		ImageSingleBand input = createImage(ImageUInt8.class);
+
+		ImageFloat32 expected = new ImageFloat32(width,height);
+		ImageFloat32 found = new ImageFloat32(width,height);
+
+		FastCornerIntensity single = createSingle(ImageUInt8.class);
+		single.process(input,expected);
+
+		Helper alg = new Helper(ImageUInt8.class,5);
+		alg.process(input, found);
+		BoofTesting.assertEquals(expected, found, 0);
+		checkIdentical(single.getCandidates(), alg.getCandidates());
+
+		QueueCorner expectedDetect = new QueueCorner(10);
+		QueueCorner foundDetect = new QueueCorner(10);
+		single.detect(input, 10, expectedDetect);
+		alg.detect(input, 10, foundDetect);
+		checkIdentical(expectedDetect, foundDetect);
+		assertEquals(0, alg.numCreated);
+	}
+
+	private ImageSingleBand createImage( Class type ) {
+		ImageSingleBand input = GeneralizedImageOps.createSingleBand(type,width,height);
+		GImageMiscOps.fillUniform(input, rand, 0, 50);
+		return input;
+	}
+
+	private static FastCornerIntensity createSingle( Class type ) {
+		if( type == ImageUInt8.class )
+			return new ImplFastIntensity9<ImageUInt8>(new ImplFastHelper_U8(15));
+		else
+			return new ImplFastIntensity9<ImageFloat32>(new ImplFastHelper_F32(15));
+	}
+
+	private void checkIdentical( QueueCorner expected , QueueCorner found ) {
+		assertEquals(expected.size, found.size);
+		for( int i = 0; i < expected.size; i++ ) {
+			Point2D_I16 e = expected.get(i);
+			Point2D_I16 f = found.get(i);
+			assertEquals(e.x, f.x);
+			assertEquals(e.y, f.y);
+		}
+	}
+
+	private static class Helper extends FastCornerIntensityConcurrent {
+		Class type;
+		int numCreated = 0;
+
+		private Helper(Class type, int minRows) {
+			super(createSingle(type), minRows);
+			this.type = type;
+		}
+
+		@Override
+		protected FastCornerIntensity createAlg() {
+			numCreated++;
+			return createSingle(type);
+		}
+	}
+}
@@ -19,9 +19,11 @@
 package boofcv.alg.feature.detect.intensity.impl;
 
 import boofcv.alg.feature.detect.intensity.DetectorFastNaive;
+import boofcv.alg.feature.detect.extract.NonMaxCandidateStrict;
 import boofcv.alg.feature.detect.intensity.FastCornerIntensity;
 import boofcv.alg.misc.GImageMiscOps;
 import boofcv.misc.DiscretizedCircle;
+import boofcv.struct.QueueCorner;
 import boofcv.struct.image.ImageFloat32;
 import boofcv.struct.image.ImageUInt8;
 import georegression.struct.point.Point2D_I16;
@@ -72,6 +74,42 @@ public abstract class GenericImplFastIntensity {
 		}
 	}
 
+	/**
+	 * Detecting corners directly should produce the same results as computing the intensity image and
+	 * then applying a strict non-maximum suppression with a radius of one
+	 */
+	@Test
+	public void detect() {
+		ImageUInt8 input = new ImageUInt8(40,50);
+		GImageMiscOps.fillUniform(input, rand, 0, 50);
+		ImageFloat32 intensity = new ImageFloat32(input.width,input.height);
+
+		for( float threshold : new float[]{0,60} ) {
+			alg.process(input,intensity);
+
+			NonMaxCandidateStrict nonmax = new NonMaxCandidateStrict();
+			nonmax.setSearchRadius(1);
+			nonmax.setBorder(alg.getIgnoreBorder());
+			nonmax.setThresholdMax(threshold);
+			QueueCorner expected = new QueueCorner(10);
+			nonmax.process(intensity,null,alg.getCandidates(),null,expected);
+
+			QueueCorner found = new QueueCorner(10);
+			found.add(1,2);
+			alg.detect(input,threshold,found);
+
+			assertTrue(expected.size > 0);
+			assertEquals(expected.size,found.size);
+			for( int i = 0; i < expected.size(); i++ ) {
+				Point2D_I16 e = expected.get(i);
+				Point2D_I16 f = found.get(i);
+
+				assertEquals(e.x,f.x);
+				assertEquals(e.y,f.y);
+			}
+		}
+	}
+
 	@Test
 	public void checkIntensity() {
 		ImageUInt8 input = new ImageUInt8(40,50);
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.feature.detect.intensity.impl;
+
+import boofcv.alg.feature.detect.intensity.GenericCornerIntensityTests;
+import boofcv.alg.feature.detect.intensity.GradientCornerIntensity;
+import boofcv.alg.filter.derivative.GradientSobel;
+import boofcv.alg.misc.ImageMiscOps;
+import boofcv.struct.BoofDefaults;
+import boofcv.struct.image.ImageFloat32;
+import boofcv.testing.BoofTesting;
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestImplSsdCornerFused_F32 extends GenericCornerIntensityTests {
+
+	Random rand = new Random(234);
+
+	ImplSsdCornerFused_F32 detector = new ImplShiTomasiCornerFused_F32(1);
+
+	@Test
+	public void genericTests() {
+		performAllTests();
+	}
+
+	/**
+	 * Compare against computing the gradient first and then the intensity
+	 */
+	@Test
+	public void compareToSeparate() {
+		for( int radius = 1; radius <= 3; radius++ ) {
+			compareToSeparate(new ImplShiTomasiCornerFused_F32(radius), new ImplShiTomasiCorner_F32(radius), 30, 25);
+			compareToSeparate(new ImplHarrisCornerFused_F32(radius,0.04f), new ImplHarrisCorner_F32(radius,0.04f), 30, 25);
+		}
+		// image which is barely large enough
+		compareToSeparate(new ImplShiTomasiCornerFused_F32(2), new ImplShiTomasiCorner_F32(2), 5, 5);
+	}
+
+	/**
+	 * The image is too small for the window and nothing should be processed
+	 */
+	@Test
+	public void tooSmall() {
+		ImageFloat32 input = new ImageFloat32(4,6);
+		ImageMiscOps.fillUniform(input, rand, 0, 100);
+
+		ImageFloat32 found = new ImageFloat32(4,6);
+		new ImplShiTomasiCornerFused_F32(2).process(input,found);
+
+		BoofTesting.assertEquals(new ImageFloat32(4,6),found,0);
+	}
+
+	private void compareToSeparate( ImplSsdCornerFused_F32 fused , GradientCornerIntensity<ImageFloat32> separate ,
+									int width , int height ) {
+		ImageFloat32 input = new ImageFloat32(width,height);
+		ImageMiscOps.fillUniform(input, rand, 0, 100);
+
+		ImageFloat32 derivX = new ImageFloat32(width,height);
+		ImageFloat32 derivY = new ImageFloat32(width,height);
+		GradientSobel.process(input,derivX,derivY, BoofDefaults.borderDerivative_F32());
+
+		ImageFloat32 expected = new ImageFloat32(width,height);
+		separate.process(derivX,derivY,expected);
+
+		ImageFloat32 found = new ImageFloat32(width,height);
+		fused.process(BoofTesting.createSubImageOf(input),found);
+		BoofTesting.assertEqualsRelative(expected, found, 1e-3);
+
+		// process it again to make sure the internal state is reset
+		found = BoofTesting.createSubImageOf(found);
+		fused.process(input,found);
+		BoofTesting.assertEqualsRelative(expected, found, 1e-3);
+	}
+
+	@Override
+	public void computeIntensity(ImageFloat32 intensity) {
+		detector.process(imageF,intensity);
+	}
+
+	@Override
+	protected void computeDerivatives() {
+	}
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.feature.detect.intensity.impl;
+
+import boofcv.alg.feature.detect.intensity.GenericCornerIntensityTests;
+import boofcv.alg.feature.detect.intensity.GradientCornerIntensity;
+import boofcv.alg.filter.derivative.GradientSobel;
+import boofcv.alg.misc.ImageMiscOps;
+import boofcv.struct.BoofDefaults;
+import boofcv.struct.image.ImageFloat32;
+import boofcv.struct.image.ImageSInt16;
+import boofcv.struct.image.ImageUInt8;
+import boofcv.testing.BoofTesting;
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestImplSsdCornerFused_U8 extends GenericCornerIntensityTests {
+
+	Random rand = new Random(234);
+
+	ImplSsdCornerFused_U8 detector = new ImplShiTomasiCornerFused_U8(1);
+
+	@Test
+	public void genericTests() {
+		performAllTests();
+	}
+
+	/**
+	 * Compare against computing the gradient first and then the intensity
+	 */
+	@Test
+	public void compareToSeparate() {
+		for( int radius = 1; radius <= 3; radius++ ) {
+			compareToSeparate(new ImplShiTomasiCornerFused_U8(radius), new ImplShiTomasiCorner_S16(radius), 30, 25);
+			compareToSeparate(new ImplHarrisCornerFused_U8(radius,0.04f), new ImplHarrisCorner_S16(radius,0.04f), 30, 25);
+		}
+		// image which is barely large enough
+		compareToSeparate(new ImplShiTomasiCornerFused_U8(2), new ImplShiTomasiCorner_S16(2), 5, 5);
+	}
+
+	/**
+	 * The image is too small for the window and nothing should be processed
+	 */
+	@Test
+	public void tooSmall() {
+		ImageUInt8 input = new ImageUInt8(4,6);
+		ImageMiscOps.fillUniform(input, rand, 0, 100);
+
+		ImageFloat32 found = new ImageFloat32(4,6);
+		new ImplShiTomasiCornerFused_U8(2).process(input,found);
+
+		BoofTesting.assertEquals(new ImageFloat32(4,6),found,0);
+	}
+
+	private void compareToSeparate( ImplSsdCornerFused_U8 fused , GradientCornerIntensity<ImageSInt16> separate ,
+									int width , int height ) {
+		ImageUInt8 input = new ImageUInt8(width,height);
+		ImageMiscOps.fillUniform(input, rand, 0, 100);
+
+		ImageSInt16 derivX = new ImageSInt16(width,height);
+		ImageSInt16 derivY = new ImageSInt16(width,height);
+		GradientSobel.process(input,derivX,derivY, BoofDefaults.borderDerivative_I32());
+
+		ImageFloat32 expected = new ImageFloat32(width,height);
+		separate.process(derivX,derivY,expected);
+
+		ImageFloat32 found = new ImageFloat32(width,height);
+		fused.process(BoofTesting.createSubImageOf(input),found);
+		BoofTesting.assertEqualsRelative(expected, found, 0);
+
+		// process it again to make sure the internal state is reset
+		found = BoofTesting.createSubImageOf(found);
+		fused.process(input,found);
+		BoofTesting.assertEqualsRelative(expected, found, 0);
+	}
+
+	@Override
+	public void computeIntensity(ImageFloat32 intensity) {
+		detector.process(imageI,intensity);
+	}
+
+	@Override
+	protected void computeDerivatives() {
+	}
+}
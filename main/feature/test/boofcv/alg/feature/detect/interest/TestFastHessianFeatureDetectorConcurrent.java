@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.feature.detect.interest;
+
+import boofcv.abst.feature.detect.extract.ConfigExtract;
+import boofcv.abst.feature.detect.extract.NonMaxSuppression;
+import boofcv.alg.misc.ImageMiscOps;
+import boofcv.alg.transform.ii.IntegralImageOps;
+import boofcv.factory.feature.detect.extract.FactoryFeatureExtractor;
+import boofcv.struct.feature.ScalePoint;
+import boofcv.struct.image.ImageFloat32;
+import boofcv.testing.CompareConcurrent;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestFastHessianFeatureDetectorConcurrent {
+
+	Random rand = new Random(234);
+
+	/**
+	 * Should produce the exact same features in the same order as the single threaded algorithm, independent
+	 * of the number of threads
+	 */
+	@Test
+	public void compareToSingle() {
+		final ImageFloat32 integral = createIntegral(150,120);
+
+		for( final int maxFeatures : new int[]{-1,5}) {
+			FastHessianFeatureDetector<ImageFloat32> single = createSingle(maxFeatures);
+			single.detect(integral);
+			final List<ScalePoint> expected = single.getFoundPoints();
+			assertTrue(expected.size() > 10);
+
+			for( int numThreads = 2; numThreads <= 4; numThreads++ ) {
+				CompareConcurrent.runConcurrent(numThreads, new Runnable() {
+					@Override
+					public void run() {
+						Helper alg = new Helper(maxFeatures);
+						// call it twice to make sure the internal storage is correctly reset
+						alg.detect(createIntegral(200,180));
+						alg.detect(integral);
+
+						checkIdentical(expected,alg.getFoundPoints());
+					}
+				});
+			}
+		}
+	}
+
+	/**
+	 * If concurrency is turned off the single threaded code should be used
+	 */
+	@Test
+	public void notConcurrent() {
+		ImageFloat32 integral = createIntegral(150,120);
+
+		FastHessianFeatureDetector<ImageFloat32> single = createSingle(-1);
+		single.detect(integral);
+
+		Helper alg = new Helper(-1);
+		alg.detect(integral);
+
+		checkIdentical(single.getFoundPoints(),alg.getFoundPoints());
+		assertEquals(0,alg.numCreated);
+	}
+
+	private ImageFloat32 createIntegral( int width , int height ) {
+		ImageFloat32 input = new ImageFloat32(width,height);
+		ImageMiscOps.fillUniform(input,rand,0,100);
+		// add blobs so there are features at larger scales too
+		for( int i = 0; i < 10; i++ ) {
+			int r = 2+rand.nextInt(10);
+			int x = rand.nextInt(width-2*r);
+			int y = rand.nextInt(height-2*r);
+			ImageMiscOps.fillRectangle(input,200,x,y,2*r,2*r);
+		}
+		return IntegralImageOps.transform(input,null);
+	}
+
+	private void checkIdentical( List<ScalePoint> expected , List<ScalePoint> found ) {
+		assertEquals(expected.size(),found.size());
+		for( int i = 0; i < expected.size(); i++ ) {
+			ScalePoint e = expected.get(i);
+			ScalePoint f = found.get(i);
+
+			assertEquals(e.x,f.x,0);
+			assertEquals(e.y,f.y,0);
+			assertEquals(e.scale,f.scale,0);
+		}
+	}
+
+	private static NonMaxSuppression createNonMax() {
+		return FactoryFeatureExtractor.nonmax(new ConfigExtract(1, 1, 5, true));
+	}
+
+	private static FastHessianFeatureDetector<ImageFloat32> createSingle( int maxFeatures ) {
+		return new FastHessianFeatureDetector<ImageFloat32>(createNonMax(),maxFeatures,1,9,4,4);
+	}
+
+	private static class Helper extends FastHessianFeatureDetectorConcurrent<ImageFloat32> {
+		int numCreated = 0;
+
+		private Helper( int maxFeatures ) {
+			super(createNonMax(),maxFeatures,1,9,4,4);
+		}
+
+		@Override
+		protected NonMaxSuppression createExtractor() {
+			numCreated++;
+			return createNonMax();
+		}
+	}
+}
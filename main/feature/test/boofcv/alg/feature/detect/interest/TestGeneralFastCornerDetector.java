@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.feature.detect.interest;
+
+import boofcv.abst.feature.detect.extract.ConfigExtract;
+import boofcv.abst.feature.detect.extract.NonMaxSuppression;
+import boofcv.abst.feature.detect.intensity.WrapperFastCornerIntensity;
+import boofcv.alg.misc.ImageMiscOps;
+import boofcv.factory.feature.detect.extract.FactoryFeatureExtractor;
+import boofcv.factory.feature.detect.intensity.FactoryIntensityPointAlg;
+import boofcv.struct.QueueCorner;
+import boofcv.struct.image.ImageUInt8;
+import georegression.struct.point.Point2D_I16;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestGeneralFastCornerDetector {
+
+	Random rand = new Random(234);
+
+	int width = 60;
+	int height = 83;
+
+	/**
+	 * Detecting the corners directly should produce the same results as using the intensity image
+	 */
+	@Test
+	public void compareToGeneral() {
+		ImageUInt8 input = new ImageUInt8(width,height);
+		ImageMiscOps.fillUniform(input, rand, 0, 50);
+
+		GeneralFastCornerDetector<ImageUInt8,ImageUInt8> alg =
+				new GeneralFastCornerDetector<ImageUInt8,ImageUInt8>(
+						FactoryIntensityPointAlg.fastConcurrent(15, 9, ImageUInt8.class), createExtractor());
+		GeneralFeatureDetector<ImageUInt8,ImageUInt8> expected = new GeneralFeatureDetector<ImageUInt8,ImageUInt8>(
+				new WrapperFastCornerIntensity<ImageUInt8,ImageUInt8>(
+						FactoryIntensityPointAlg.fast(15, 9, ImageUInt8.class)), createExtractor());
+
+		assertTrue(alg.isDetectDirect());
+
+		expected.process(input, null, null, null, null, null);
+		alg.process(input, null, null, null, null, null);
+
+		assertTrue(expected.getMaximums().size > 0);
+		checkSameSet(expected.getMaximums(), alg.getMaximums());
+		assertEquals(0, alg.getMinimums().size);
+	}
+
+	/**
+	 * If only the best features are requested the intensity image has to be computed
+	 */
+	@Test
+	public void maxFeatures_notDirect() {
+		ImageUInt8 input = new ImageUInt8(width,height);
+		ImageMiscOps.fillUniform(input, rand, 0, 50);
+
+		GeneralFastCornerDetector<ImageUInt8,ImageUInt8> alg =
+				new GeneralFastCornerDetector<ImageUInt8,ImageUInt8>(
+						FactoryIntensityPointAlg.fastConcurrent(15, 9, ImageUInt8.class), createExtractor());
+		alg.setMaxFeatures(5);
+
+		assertFalse(alg.isDetectDirect());
+
+		alg.process(input, null, null, null, null, null);
+		assertEquals(5, alg.getMaximums().size);
+	}
+
+	private NonMaxSuppression createExtractor() {
+		return FactoryFeatureExtractor.nonmax(new ConfigExtract(1, 10, 1, true, false, true));
+	}
+
+	/**
+	 * The block extractor finds the corners in a different order, so only the sets are compared
+	 */
+	private void checkSameSet( QueueCorner expected , QueueCorner found ) {
+		assertEquals(expected.size, found.size);
+		for( int i = 0; i < expected.size; i++ ) {
+			Point2D_I16 e = expected.get(i);
+			boolean matched = false;
+			for( int j = 0; j < found.size && !matched; j++ ) {
+				Point2D_I16 f = found.get(j);
+				matched = e.x == f.x && e.y == f.y;
+			}
+			assertTrue(matched);
+		}
+	}
+}
@@ -192,4 +192,31 @@ public class TestSiftImageScaleSpace {
 			assertEquals(sum1,sum2,1e-6);
 		}
 	}
+
+	/**
+	 * The recursive approximation should produce a scale-space which is very similar to the one created
+	 * using convolution
+	 */
+	@Test
+	public void recursiveBlur() {
+		ImageFloat32 input = new ImageFloat32(80,70);
+		GImageMiscOps.fillUniform(input, rand, 0, 100);
+
+		SiftImageScaleSpace expected = new SiftImageScaleSpace(1.6f, 5, 2, false);
+		SiftImageScaleSpace found = new SiftImageScaleSpace(1.6f, 5, 2, false);
+		found.setRecursiveBlur(true);
+		assertTrue(found.isRecursiveBlur());
+
+		expected.constructPyramid(input);
+		found.constructPyramid(input);
+
+		for( int i = 0; i < 10; i++ ) {
+			ImageFloat32 a = expected.getPyramidLayer(i);
+			ImageFloat32 b = found.getPyramidLayer(i);
+
+			assertEquals(a.width,b.width);
+			// the border is handled differently
+			BoofTesting.assertEqualsInner(a,b,2,8,8,false);
+		}
+	}
 }
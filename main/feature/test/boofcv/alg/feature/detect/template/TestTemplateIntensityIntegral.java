@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.feature.detect.template;
+
+import boofcv.alg.misc.GImageMiscOps;
+import boofcv.core.image.GeneralizedImageOps;
+import boofcv.factory.feature.detect.template.TemplateScoreType;
+import boofcv.struct.ImageRectangle;
+import boofcv.struct.image.ImageFloat32;
+import boofcv.struct.image.ImageSingleBand;
+import boofcv.struct.image.ImageUInt8;
+import boofcv.testing.BoofTesting;
+import boofcv.testing.CompareConcurrent;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestTemplateIntensityIntegral {
+
+	Random rand = new Random(234);
+
+	@Test
+	public void instanceF32() {
+		for( TemplateScoreType type : TemplateScoreType.values() ) {
+			new GeneralTemplateMatchTests<ImageFloat32>(
+					new TemplateIntensityIntegral.F32(type), ImageFloat32.class) {
+			}.allTests();
+		}
+	}
+
+	@Test
+	public void instanceU8() {
+		for( TemplateScoreType type : TemplateScoreType.values() ) {
+			new GeneralTemplateMatchTests<ImageUInt8>(
+					new TemplateIntensityIntegral.U8(type), ImageUInt8.class) {
+			}.allTests();
+		}
+	}
+
+	/**
+	 * Compare against the implementations which compute the score directly
+	 */
+	@Test
+	public void compareToDirect() {
+		compareToDirect(new TemplateIntensityIntegral.F32(TemplateScoreType.SUM_DIFF_SQ),
+				new TemplateDiffSquared.F32(), ImageFloat32.class);
+		compareToDirect(new TemplateIntensityIntegral.U8(TemplateScoreType.SUM_DIFF_SQ),
+				new TemplateDiffSquared.U8(), ImageUInt8.class);
+		compareToDirect(new TemplateIntensityIntegral.F32(TemplateScoreType.NCC),
+				new TemplateNCC.F32(), ImageFloat32.class);
+		compareToDirect(new TemplateIntensityIntegral.U8(TemplateScoreType.NCC),
+				new TemplateNCC.U8(), ImageUInt8.class);
+	}
+
+	private <T extends ImageSingleBand>
+	void compareToDirect( TemplateMatchingIntensity<T> alg , TemplateMatchingIntensity<T> direct , Class<T> type ) {
+		T image = GeneralizedImageOps.createSingleBand(type, 40, 35);
+		T template = GeneralizedImageOps.createSingleBand(type, 7, 6);
+		GImageMiscOps.fillUniform(image, rand, 0, 200);
+		GImageMiscOps.fillUniform(template, rand, 0, 200);
+
+		alg.process(image, template);
+		direct.process(image, template);
+
+		ImageFloat32 found = alg.getIntensity();
+		ImageFloat32 expected = direct.getIntensity();
+
+		// the direct implementations skip the last row and column
+		int x0 = direct.getOffsetX(), y0 = direct.getOffsetY();
+		int x1 = x0 + image.width - template.width;
+		int y1 = y0 + image.height - template.height;
+
+		for( int y = y0; y < y1; y++ ) {
+			for( int x = x0; x < x1; x++ ) {
+				float e = expected.get(x,y);
+				assertEquals(e, found.get(x,y), Math.abs(e)*1e-4f + 1e-2f);
+			}
+		}
+	}
+
+	/**
+	 * Computing the cross term in the frequency domain should produce the same results
+	 */
+	@Test
+	public void fourier() {
+		int before = TemplateIntensityIntegral.FOURIER_MIN_AREA;
+		try {
+			for( int i = 0; i < 2; i++ ) {
+				TemplateIntensityIntegral.FOURIER_MIN_AREA = i == 0 ? 0 : Integer.MAX_VALUE;
+				compareToDirect(new TemplateIntensityIntegral.F32(TemplateScoreType.SUM_DIFF_SQ),
+						new TemplateDiffSquared.F32(), ImageFloat32.class);
+				compareToDirect(new TemplateIntensityIntegral.U8(TemplateScoreType.NCC),
+						new TemplateNCC.U8(), ImageUInt8.class);
+			}
+		} finally {
+			TemplateIntensityIntegral.FOURIER_MIN_AREA = before;
+		}
+	}
+
+	/**
+	 * Only the region of interest should be processed and the results should be the same as processing the
+	 * whole image
+	 */
+	@Test
+	public void searchRegion() {
+		ImageFloat32 image = new ImageFloat32(40,35);
+		ImageFloat32 template = new ImageFloat32(6,5);
+		GImageMiscOps.fillUniform(image, rand, 0, 200);
+		GImageMiscOps.fillUniform(template, rand, 0, 200);
+
+		TemplateIntensityIntegral.F32 alg = new TemplateIntensityIntegral.F32(TemplateScoreType.NCC);
+		alg.process(image,template);
+		ImageFloat32 expected = alg.getIntensity().clone();
+
+		// region extends past the image border
+		ImageRectangle region = new ImageRectangle(10,2,30,40);
+		alg.setSearchRegion(region);
+		alg.process(image,template);
+		ImageFloat32 found = alg.getIntensity();
+
+		int y1 = image.height - template.height + alg.getOffsetY() + 1;
+		for( int y = 0; y < image.height; y++ ) {
+			for( int x = 0; x < image.width; x++ ) {
+				if( x >= region.x0 && x < region.x1 && y >= 3 && y < y1 ) {
+					assertEquals(expected.get(x,y),found.get(x,y),1e-4f);
+				} else if( x < region.x0 || x >= region.x1 || y < region.y0 ) {
+					assertEquals(-Float.MAX_VALUE,found.get(x,y),0);
+				}
+			}
+		}
+
+		// turn it back off.  The border isn't defined so only compare inside
+		alg.setSearchRegion(null);
+		alg.process(image,template);
+		int x0 = alg.getOffsetX(), y0 = alg.getOffsetY();
+		int x1 = x0 + image.width - template.width + 1;
+		BoofTesting.assertEquals(expected.subimage(x0,y0,x1,y1),alg.getIntensity().subimage(x0,y0,x1,y1),1e-4f);
+	}
+
+	@Test
+	public void concurrent() {
+		final ImageUInt8 image = new ImageUInt8(60,90);
+		final ImageUInt8 template = new ImageUInt8(6,5);
+		GImageMiscOps.fillUniform(image, rand, 0, 200);
+		GImageMiscOps.fillUniform(template, rand, 0, 200);
+
+		final TemplateIntensityIntegral.U8 alg = new TemplateIntensityIntegral.U8(TemplateScoreType.NCC);
+		alg.process(image,template);
+		final ImageFloat32 expected = alg.getIntensity().clone();
+
+		CompareConcurrent.runConcurrent(3, new Runnable() {
+			@Override
+			public void run() {
+				alg.process(image,template);
+			}
+		});
+		BoofTesting.assertEquals(expected,alg.getIntensity(),0);
+	}
+}
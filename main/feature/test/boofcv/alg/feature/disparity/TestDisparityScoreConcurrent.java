@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.feature.disparity;
+
+import boofcv.alg.feature.disparity.impl.*;
+import boofcv.alg.misc.GImageMiscOps;
+import boofcv.struct.image.ImageFloat32;
+import boofcv.struct.image.ImageSingleBand;
+import boofcv.struct.image.ImageUInt8;
+import boofcv.testing.BoofTesting;
+import boofcv.testing.CompareConcurrent;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Peter Abeles
+ */
+@SuppressWarnings("unchecked")
+public class TestDisparityScoreConcurrent {
+
+	Random rand = new Random(234);
+
+	int width = 50;
+	int height = 83;
+
+	/**
+	 * The concurrent algorithm should produce the exact same results as the single threaded one
+	 */
+	@Test
+	public void compareToSingle_U8() {
+		ImageUInt8 left = new ImageUInt8(width,height);
+		ImageUInt8 right = new ImageUInt8(width,height);
+		GImageMiscOps.fillUniform(left, rand, 0, 30);
+		GImageMiscOps.fillUniform(right, rand, 0, 30);
+
+		compareToSingle(left,right,false);
+		compareToSingle(left,right,true);
+	}
+
+	@Test
+	public void compareToSingle_F32() {
+		ImageFloat32 left = new ImageFloat32(width,height);
+		ImageFloat32 right = new ImageFloat32(width,height);
+		GImageMiscOps.fillUniform(left, rand, 0, 30);
+		GImageMiscOps.fillUniform(right, rand, 0, 30);
+
+		compareToSingle(left,right,false);
+		compareToSingle(left,right,true);
+	}
+
+	/**
+	 * If concurrency is turned off the prototype should process the whole image
+	 */
+	@Test
+	public void notConcurrent() {
+		ImageUInt8 left = new ImageUInt8(width,height);
+		ImageUInt8 right = new ImageUInt8(width,height);
+		GImageMiscOps.fillUniform(left, rand, 0, 30);
+		GImageMiscOps.fillUniform(right, rand, 0, 30);
+
+		ImageUInt8 expected = new ImageUInt8(width,height);
+		ImageUInt8 found = new ImageUInt8(width,height);
+
+		createSingle(ImageUInt8.class,false).process(left, right, expected);
+
+		Helper alg = new Helper(ImageUInt8.class,false,5);
+		alg.process(left, right, found);
+
+		BoofTesting.assertEquals(expected, found, 0);
+		assertEquals(0, alg.numCreated);
+	}
+
+	private void compareToSingle( final ImageSingleBand left , final ImageSingleBand right , final boolean five ) {
+		ImageUInt8 expected = new ImageUInt8(width,height);
+		final ImageUInt8 found = new ImageUInt8(width,height);
+		// pixels which are written to by one algorithm but not the other will be detected
+		GImageMiscOps.fill(expected,200);
+		GImageMiscOps.fill(found,200);
+
+		createSingle(left.getClass(),five).process(left, right, expected);
+
+		CompareConcurrent.runConcurrent(3, new Runnable() {
+			@Override
+			public void run() {
+				Helper alg = new Helper(left.getClass(),five,5);
+				alg.process(left, right, found);
+			}
+		});
+
+		BoofTesting.assertEquals(expected, found, 0);
+	}
+
+	private static DisparityScoreRowFormat createSingle( Class type , boolean five ) {
+		if( type == ImageUInt8.class ) {
+			DisparitySelect select = new ImplSelectRectStandard_S32_U8(-1,2,0.1);
+			if( five )
+				return new ImplDisparityScoreSadRectFive_U8(1,10,2,3,select);
+			else
+				return new ImplDisparityScoreSadRect_U8(1,10,2,3,select);
+		} else {
+			DisparitySelect select = new ImplSelectRectStandard_F32_U8(-1,2,0.1);
+			if( five )
+				return new ImplDisparityScoreSadRectFive_F32(1,10,2,3,select);
+			else
+				return new ImplDisparityScoreSadRect_F32(1,10,2,3,select);
+		}
+	}
+
+	private static class Helper extends DisparityScoreConcurrent {
+		Class type;
+		boolean five;
+		int numCreated = 0;
+
+		private Helper(Class type, boolean five, int minRows) {
+			super(createSingle(type,five), minRows);
+			this.type = type;
+			this.five = five;
+		}
+
+		@Override
+		protected synchronized DisparityScoreRowFormat createAlg() {
+			numCreated++;
+			return createSingle(type,five);
+		}
+	}
+}
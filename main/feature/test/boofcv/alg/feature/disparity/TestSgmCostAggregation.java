@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.feature.disparity;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestSgmCostAggregation {
+
+	Random rand = new Random(234);
+
+	int width = 15;
+	int height = 12;
+	int range = 7;
+
+	/**
+	 * Compare against a naive implementation which follows each path from its start
+	 */
+	@Test
+	public void compareToNaive() {
+		compareToNaive(8);
+		compareToNaive(16);
+	}
+
+	private void compareToNaive( int numPaths ) {
+		short[] cost = new short[width*height*range];
+		for( int i = 0; i < cost.length; i++ )
+			cost[i] = (short)rand.nextInt(30);
+
+		SgmCostAggregation alg = new SgmCostAggregation(3,20,numPaths);
+		short[] found = new short[cost.length];
+		alg.process(cost, width, height, range, found);
+
+		int[][] paths = numPaths == 8 ?
+				new int[][]{{1,0},{-1,0},{0,1},{0,-1},{1,1},{-1,1},{1,-1},{-1,-1}} :
+				new int[][]{{1,0},{-1,0},{0,1},{0,-1},{1,1},{-1,1},{1,-1},{-1,-1},
+						{2,1},{-2,1},{2,-1},{-2,-1},{1,2},{-1,2},{1,-2},{-1,-2}};
+
+		for( int y = 0; y < height; y++ ) {
+			for( int x = 0; x < width; x++ ) {
+				for( int d = 0; d < range; d++ ) {
+					int expected = 0;
+					for( int[] p : paths ) {
+						expected += naive(cost, x, y, p[0], p[1], 3, 20)[d];
+					}
+					assertEquals(expected, found[(y*width+x)*range+d] & 0xFFFF);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Recursively computes the cost along the path
+	 */
+	private int[] naive( short[] cost , int x , int y , int dx , int dy , int P1 , int P2 ) {
+		int index = (y*width+x)*range;
+		int[] L = new int[range];
+
+		int px = x - dx, py = y - dy;
+		if( px < 0 || px >= width || py < 0 || py >= height ) {
+			for( int d = 0; d < range; d++ )
+				L[d] = cost[index+d];
+			return L;
+		}
+
+		int[] prev = naive(cost, px, py, dx, dy, P1, P2);
+		int minPrev = Integer.MAX_VALUE;
+		for( int d = 0; d < range; d++ )
+			minPrev = Math.min(minPrev,prev[d]);
+
+		for( int d = 0; d < range; d++ ) {
+			int v = prev[d];
+			if( d > 0 ) v = Math.min(v, prev[d-1]+P1);
+			if( d < range-1 ) v = Math.min(v, prev[d+1]+P1);
+			v = Math.min(v, minPrev+P2);
+			L[d] = cost[index+d] + v - minPrev;
+		}
+		return L;
+	}
+
+	/**
+	 * A single disparity is a special case
+	 */
+	@Test
+	public void singleDisparity() {
+		short[] cost = new short[width*height];
+		for( int i = 0; i < cost.length; i++ )
+			cost[i] = (short)rand.nextInt(30);
+
+		short[] found = new short[cost.length];
+		new SgmCostAggregation(3,20,8).process(cost, width, height, 1, found);
+
+		// the path cost is always the cost of the pixel
+		for( int i = 0; i < cost.length; i++ )
+			assertEquals(8*cost[i], found[i]);
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void checkOverflow() {
+		new SgmCostAggregation(10,8000,16).checkOverflow(255);
+	}
+}
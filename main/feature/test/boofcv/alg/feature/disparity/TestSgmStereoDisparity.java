@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.feature.disparity;
+
+import boofcv.alg.feature.disparity.impl.SgmCostAbsDiff_U8;
+import boofcv.alg.feature.disparity.impl.SgmCostCensus_U8;
+import boofcv.alg.filter.blur.BlurImageOps;
+import boofcv.alg.misc.ImageMiscOps;
+import boofcv.struct.image.ImageFloat32;
+import boofcv.struct.image.ImageSingleBand;
+import boofcv.struct.image.ImageUInt8;
+import boofcv.testing.BoofTesting;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestSgmStereoDisparity {
+
+	Random rand = new Random(234);
+
+	int width = 60;
+	int height = 45;
+
+	int minDisparity = 2;
+	int maxDisparity = 14;
+	int trueDisparity = 7;
+
+	ImageUInt8 left = new ImageUInt8(width,height);
+	ImageUInt8 right = new ImageUInt8(width,height);
+
+	public TestSgmStereoDisparity() {
+		ImageUInt8 noise = new ImageUInt8(width+trueDisparity,height);
+		ImageUInt8 texture = new ImageUInt8(width+trueDisparity,height);
+		ImageMiscOps.fillUniform(noise, rand, 0, 255);
+		BlurImageOps.mean(noise, texture, 1, null);
+
+		// the right image is the left image shifted by the true disparity
+		for( int y = 0; y < height; y++ ) {
+			for( int x = 0; x < width; x++ ) {
+				left.set(x, y, texture.get(x, y));
+				right.set(x, y, texture.get(x+trueDisparity, y));
+			}
+		}
+	}
+
+	/**
+	 * Uniform disparity should be found everywhere a match is possible
+	 */
+	@Test
+	public void uniformDisparity() {
+		uniformDisparity(new SgmCostCensus_U8(2,2), ImageUInt8.class);
+		uniformDisparity(new SgmCostAbsDiff_U8(1), ImageUInt8.class);
+		uniformDisparity(new SgmCostCensus_U8(2,2), ImageFloat32.class);
+	}
+
+	private <D extends ImageSingleBand>
+	void uniformDisparity( SgmCostFunction<ImageUInt8> cost , Class<D> disparityType ) {
+		SgmStereoDisparity<ImageUInt8,D> alg = create(cost, 0, 0, disparityType);
+
+		D disparity = createDisparity(disparityType);
+		alg.process(left, right, disparity);
+
+		int invalid = maxDisparity - minDisparity + 1;
+		// sub-pixel estimates should still be closest to the true integer disparity
+		double tol = disparityType == ImageFloat32.class ? 0.5 : 0;
+		for( int y = 0; y < height; y++ ) {
+			// no possible match
+			for( int x = 0; x < minDisparity; x++ )
+				assertEquals(invalid, get(disparity, x, y), 1e-8);
+			// the true disparity can't be reached until this column.  Along the right border the left image
+			// is clamped while the right image isn't
+			for( int x = maxDisparity; x < width-2; x++ )
+				assertEquals(x+" "+y,trueDisparity - minDisparity, get(disparity, x, y), tol);
+		}
+	}
+
+	/**
+	 * If the overlap covers the whole image then processing it in bands should produce the same solution
+	 */
+	@Test
+	public void bands_fullOverlap() {
+		ImageUInt8 expected = new ImageUInt8(width,height);
+		ImageUInt8 found = new ImageUInt8(width,height);
+
+		// add noise so that the solution isn't trivial
+		ImageMiscOps.addUniform(right, rand, -20, 20);
+
+		create(new SgmCostCensus_U8(2,2), 0, 0, ImageUInt8.class).process(left, right, expected);
+		create(new SgmCostCensus_U8(2,2), 10, height, ImageUInt8.class).process(left, right, found);
+
+		BoofTesting.assertEquals(expected, found, 0);
+	}
+
+	/**
+	 * With a partial overlap the solution should be close
+	 */
+	@Test
+	public void bands_partialOverlap() {
+		ImageUInt8 found = new ImageUInt8(width,height);
+
+		create(new SgmCostCensus_U8(2,2), 7, 4, ImageUInt8.class).process(left, right, found);
+
+		int total = 0;
+		for( int y = 0; y < height; y++ ) {
+			for( int x = maxDisparity; x < width; x++ ) {
+				if( found.get(x,y) == trueDisparity - minDisparity )
+					total++;
+			}
+		}
+		assertTrue(total >= 0.95*height*(width-maxDisparity));
+	}
+
+	/**
+	 * Sub-images should produce the same results
+	 */
+	@Test
+	public void subimage() {
+		ImageUInt8 expected = new ImageUInt8(width,height);
+		ImageUInt8 found = BoofTesting.createSubImageOf(expected);
+
+		SgmStereoDisparity<ImageUInt8,ImageUInt8> alg =
+				create(new SgmCostAbsDiff_U8(1), 10, 5, ImageUInt8.class);
+
+		alg.process(left, right, expected);
+		alg.process(BoofTesting.createSubImageOf(left), BoofTesting.createSubImageOf(right), found);
+
+		BoofTesting.assertEquals(expected, found, 0);
+	}
+
+	private <D extends ImageSingleBand> SgmStereoDisparity<ImageUInt8,D>
+	create( SgmCostFunction<ImageUInt8> cost , int bandHeight , int bandOverlap , Class<D> disparityType ) {
+		SgmCostAggregation aggregation = new SgmCostAggregation(4,50,8);
+		SgmDisparitySelector selector = new SgmDisparitySelector(1,0.05);
+
+		return new SgmStereoDisparity<ImageUInt8,D>(minDisparity,maxDisparity,cost,aggregation,selector,
+				bandHeight,bandOverlap,disparityType);
+	}
+
+	private <D extends ImageSingleBand> D createDisparity( Class<D> type ) {
+		if( type == ImageUInt8.class )
+			return (D)new ImageUInt8(width,height);
+		return (D)new ImageFloat32(width,height);
+	}
+
+	private double get( ImageSingleBand image , int x , int y ) {
+		if( image instanceof ImageUInt8 )
+			return ((ImageUInt8)image).get(x,y);
+		return ((ImageFloat32)image).get(x,y);
+	}
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.feature.disparity.impl;
+
+import boofcv.alg.misc.ImageMiscOps;
+import boofcv.struct.image.ImageUInt8;
+import boofcv.testing.BoofTesting;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestSgmCostAbsDiff_U8 {
+
+	Random rand = new Random(234);
+
+	int width = 20;
+	int height = 15;
+
+	/**
+	 * Compares the cost against a naive implementation for a band of rows
+	 */
+	@Test
+	public void compareToNaive() {
+		ImageUInt8 left = new ImageUInt8(width,height);
+		ImageUInt8 right = new ImageUInt8(width,height);
+		ImageMiscOps.fillUniform(left, rand, 0, 100);
+		ImageMiscOps.fillUniform(right, rand, 0, 100);
+
+		for( int radius = 0; radius <= 2; radius++ ) {
+			compareToNaive(left, right, radius);
+			compareToNaive(BoofTesting.createSubImageOf(left), BoofTesting.createSubImageOf(right), radius);
+		}
+	}
+
+	private void compareToNaive( ImageUInt8 left , ImageUInt8 right , int radius ) {
+		int minDisparity = 2, maxDisparity = 8, range = maxDisparity-minDisparity;
+		// the band touches the image border
+		int y0 = 0, y1 = 9;
+
+		SgmCostAbsDiff_U8 alg = new SgmCostAbsDiff_U8(radius);
+
+		short[] cost = new short[(y1-y0)*width*range];
+		alg.initialize(left, right, minDisparity, maxDisparity);
+		alg.process(y0, y1, cost);
+
+		int area = (2*radius+1)*(2*radius+1);
+		for( int y = y0; y < y1; y++ ) {
+			for( int x = 0; x < width; x++ ) {
+				for( int d = minDisparity; d < maxDisparity; d++ ) {
+					int found = cost[((y-y0)*width+x)*range + d-minDisparity];
+					if( x - d < 0 ) {
+						assertEquals(255, found);
+					} else {
+						int sum = 0;
+						for( int i = -radius; i <= radius; i++ ) {
+							for( int j = -radius; j <= radius; j++ ) {
+								int yy = clamp(y+i,height);
+								int xx = clamp(x+j,width);
+								sum += Math.abs(left.get(xx,yy) - right.get(Math.max(0,xx-d),yy));
+							}
+						}
+						assertEquals(sum/area, found);
+					}
+				}
+			}
+		}
+	}
+
+	private static int clamp( int value , int length ) {
+		return Math.min(length-1,Math.max(0,value));
+	}
+}
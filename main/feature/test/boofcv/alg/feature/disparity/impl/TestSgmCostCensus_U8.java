@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.feature.disparity.impl;
+
+import boofcv.alg.misc.ImageMiscOps;
+import boofcv.struct.image.ImageUInt8;
+import boofcv.testing.BoofTesting;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestSgmCostCensus_U8 {
+
+	Random rand = new Random(234);
+
+	int width = 20;
+	int height = 15;
+
+	/**
+	 * Compares the cost against a naive implementation for a band of rows
+	 */
+	@Test
+	public void compareToNaive() {
+		ImageUInt8 left = new ImageUInt8(width,height);
+		ImageUInt8 right = new ImageUInt8(width,height);
+		ImageMiscOps.fillUniform(left, rand, 0, 100);
+		ImageMiscOps.fillUniform(right, rand, 0, 100);
+
+		compareToNaive(left, right);
+		compareToNaive(BoofTesting.createSubImageOf(left), BoofTesting.createSubImageOf(right));
+	}
+
+	private void compareToNaive( ImageUInt8 left , ImageUInt8 right ) {
+		int minDisparity = 2, maxDisparity = 8, range = maxDisparity-minDisparity;
+		int y0 = 3, y1 = 9;
+
+		SgmCostCensus_U8 alg = new SgmCostCensus_U8(2,1);
+		assertEquals(14, alg.getMaxCost());
+
+		short[] cost = new short[(y1-y0)*width*range];
+		alg.initialize(left, right, minDisparity, maxDisparity);
+		alg.process(y0, y1, cost);
+
+		for( int y = y0; y < y1; y++ ) {
+			for( int x = 0; x < width; x++ ) {
+				for( int d = minDisparity; d < maxDisparity; d++ ) {
+					int found = cost[((y-y0)*width+x)*range + d-minDisparity];
+					if( x - d < 0 )
+						assertEquals(14, found);
+					else
+						assertEquals(Long.bitCount(census(left,x,y)^census(right,x-d,y)), found);
+				}
+			}
+		}
+	}
+
+	private long census( ImageUInt8 image , int x , int y ) {
+		int center = image.get(x,y);
+		long bits = 0;
+		for( int i = -1; i <= 1; i++ ) {
+			for( int j = -2; j <= 2; j++ ) {
+				if( i == 0 && j == 0 )
+					continue;
+				int xx = Math.min(width-1,Math.max(0,x+j));
+				int yy = Math.min(height-1,Math.max(0,y+i));
+				bits <<= 1;
+				if( image.get(xx,yy) < center )
+					bits |= 1;
+			}
+		}
+		return bits;
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void regionTooLarge() {
+		new SgmCostCensus_U8(4,4);
+	}
+}
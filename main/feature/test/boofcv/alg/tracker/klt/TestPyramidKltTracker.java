@@ -22,9 +22,14 @@ import boofcv.alg.filter.derivative.GradientSobel;
 import boofcv.alg.misc.ImageMiscOps;
 import boofcv.core.image.border.BorderIndex1D_Extend;
 import boofcv.core.image.border.ImageBorder1D_F32;
+import boofcv.testing.CompareConcurrent;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
@@ -192,4 +197,68 @@ public class TestPyramidKltTracker extends PyramidKltTestBase {
 
 		assertTrue( tracker.track(feature) == KltTrackFault.LARGE_ERROR);
 	}
+
+	/**
+	 * Tracking a list of features across several threads should produce the same results as tracking
+	 * them one at a time
+	 */
+	@Test
+	public void track_list() {
+		tracker.setImage(pyramid,derivX,derivY);
+
+		final List<PyramidKltFeature> expected = createFeatures(60);
+		final List<PyramidKltFeature> found = createFeatures(60);
+
+		final boolean valid[] = new boolean[found.size()];
+		final KltTrackFault faults[] = new KltTrackFault[found.size()];
+
+		CompareConcurrent.runConcurrent(3, new Runnable() {
+			@Override
+			public void run() {
+				tracker.setDescription(found, valid);
+				for( int i = 0; i < expected.size(); i++ ) {
+					assertTrue(valid[i] == tracker.setDescription(expected.get(i)));
+				}
+
+				// move the features away from where they were described
+				for( int i = 0; i < expected.size(); i++ ) {
+					float dx = rand.nextFloat()*2-1, dy = rand.nextFloat()*2-1;
+					PyramidKltFeature e = expected.get(i), f = found.get(i);
+					e.setPosition(e.x+dx,e.y+dy);
+					f.setPosition(f.x+dx,f.y+dy);
+				}
+
+				tracker.track(found, faults, true);
+			}
+		});
+
+		int numSuccess = 0;
+		for( int i = 0; i < expected.size(); i++ ) {
+			PyramidKltFeature e = expected.get(i), f = found.get(i);
+			KltTrackFault ret = tracker.track(e);
+			if( ret == KltTrackFault.SUCCESS ) {
+				tracker.setDescription(e);
+				numSuccess++;
+			}
+
+			assertTrue(ret == faults[i]);
+			assertEquals(e.x, f.x, 0);
+			assertEquals(e.y, f.y, 0);
+			assertEquals(e.maxLayer, f.maxLayer);
+			assertEquals(e.desc[0].Gxx, f.desc[0].Gxx, 0);
+		}
+		// sanity check
+		assertTrue(numSuccess > 0);
+	}
+
+	private List<PyramidKltFeature> createFeatures( int total ) {
+		Random rand = new Random(2345);
+		List<PyramidKltFeature> list = new ArrayList<PyramidKltFeature>();
+		for( int i = 0; i < total; i++ ) {
+			PyramidKltFeature feature = new PyramidKltFeature(pyramid.getNumLayers(),featureReadius);
+			feature.setPosition(cornerX + rand.nextFloat()*30-15, cornerY + rand.nextFloat()*30-15);
+			list.add(feature);
+		}
+		return list;
+	}
 }
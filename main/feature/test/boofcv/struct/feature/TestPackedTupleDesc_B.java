@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.struct.feature;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestPackedTupleDesc_B {
+
+	Random rand = new Random(234);
+
+	@Test
+	public void appendAndCopy() {
+		PackedTupleDesc_B alg = new PackedTupleDesc_B(40,1);
+		assertEquals(2,alg.getStride());
+		assertEquals(40,alg.getNumElements());
+
+		TupleDesc_B[] expected = new TupleDesc_B[10];
+		for( int i = 0; i < expected.length; i++ ) {
+			expected[i] = alg.createDescription();
+			for( int j = 0; j < expected[i].data.length; j++ )
+				expected[i].data[j] = rand.nextInt();
+			alg.append(expected[i]);
+		}
+		assertEquals(10,alg.size());
+
+		TupleDesc_B found = alg.createDescription();
+		for( int i = 0; i < expected.length; i++ ) {
+			alg.getCopy(i,found);
+			for( int j = 0; j < found.data.length; j++ )
+				assertEquals(expected[i].data[j],found.data[j]);
+		}
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void append_wrongSize() {
+		PackedTupleDesc_B alg = new PackedTupleDesc_B(40,1);
+		alg.append(new TupleDesc_B(41));
+	}
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.struct.feature;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestPackedTupleDesc_F64 {
+
+	@Test
+	public void appendAndCopy() {
+		PackedTupleDesc_F64 alg = new PackedTupleDesc_F64(3,1);
+
+		TupleDesc_F64 d = alg.createDescription();
+		assertEquals(3,d.size());
+
+		// add enough that the array needs to grow
+		for( int i = 0; i < 10; i++ ) {
+			d.set(i,i+1,i+2);
+			alg.append(d);
+		}
+		assertEquals(10,alg.size());
+
+		for( int i = 0; i < 10; i++ ) {
+			alg.getCopy(i,d);
+			assertEquals(i,d.value[0],1e-8);
+			assertEquals(i+2,d.value[2],1e-8);
+			assertEquals(i+1,alg.data[i*alg.stride+1],1e-8);
+		}
+
+		d.set(-1,-2,-3);
+		alg.set(4,d);
+		alg.getCopy(4,d);
+		assertEquals(-2,d.value[1],1e-8);
+
+		alg.reset();
+		assertEquals(0,alg.size());
+		assertEquals(0,alg.grow());
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void append_wrongSize() {
+		PackedTupleDesc_F64 alg = new PackedTupleDesc_F64(3,1);
+		alg.append(new TupleDesc_F64(4));
+	}
+}
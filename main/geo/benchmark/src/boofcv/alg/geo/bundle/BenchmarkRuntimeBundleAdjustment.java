@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.geo.bundle;
+
+import boofcv.abst.geo.BundleAdjustmentCalibrated;
+import boofcv.abst.geo.bundle.BundleAdjustmentCalibratedDense;
+import boofcv.abst.geo.bundle.BundleAdjustmentCalibratedSparse;
+import boofcv.misc.PerformerBase;
+import boofcv.misc.ProfileOperation;
+import georegression.struct.point.Point2D_F64;
+import georegression.struct.point.Point3D_F64;
+import georegression.struct.se.Se3_F64;
+import georegression.transform.se.SePointOps_F64;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares the runtime of dense and sparse bundle adjustment on synthetic scenes.  The camera moves along the x-axis
+ * and each point is seen by several consecutive views, like a camera moving through a scene.  The same
+ * number of iterations is run each time.
+ *
+ * @author Peter Abeles
+ */
+public class BenchmarkRuntimeBundleAdjustment {
+	static final long TEST_TIME = 2000;
+	static final int ITERATIONS = 5;
+	// number of views which observe each point
+	static final int VIEWS_PER_POINT = 5;
+
+	Random rand = new Random(234);
+
+	// noisy initial estimate of the model
+	CalibratedPoseAndPoint initial;
+	// model which is optimized
+	CalibratedPoseAndPoint model = new CalibratedPoseAndPoint();
+	List<ViewPointObservations> observations;
+
+	public class Dense extends PerformerBase {
+		BundleAdjustmentCalibrated alg = new BundleAdjustmentCalibratedDense(0,ITERATIONS);
+
+		@Override
+		public void process() {
+			copy(initial,model);
+			alg.process(model,observations);
+		}
+	}
+
+	public class Sparse extends PerformerBase {
+		BundleAdjustmentCalibrated alg = new BundleAdjustmentCalibratedSparse(0,ITERATIONS);
+
+		@Override
+		public void process() {
+			copy(initial,model);
+			alg.process(model,observations);
+		}
+	}
+
+	/**
+	 * Creates a scene where the first view is known and everything else has noise added to it
+	 */
+	public void createScene( int numViews , int numPoints ) {
+		initial = new CalibratedPoseAndPoint();
+		initial.configure(numViews,numPoints);
+		observations = new ArrayList<ViewPointObservations>();
+
+		for( int i = 0; i < numViews; i++ ) {
+			initial.getWorldToCamera(i).getT().set(-i,0,0);
+			observations.add(new ViewPointObservations());
+		}
+		initial.setViewKnown(0,true);
+
+		Point3D_F64 cameraPt = new Point3D_F64();
+		for( int i = 0; i < numPoints; i++ ) {
+			int firstView = rand.nextInt(Math.max(1,numViews-VIEWS_PER_POINT+1));
+			int lastView = Math.min(numViews,firstView+VIEWS_PER_POINT);
+
+			// in front of all the views which see it
+			Point3D_F64 p = initial.getPoint(i);
+			p.x = (firstView+lastView-1)/2.0 + rand.nextGaussian()*0.5;
+			p.y = rand.nextGaussian()*2;
+			p.z = 10 + rand.nextDouble()*10;
+
+			for( int view = firstView; view < lastView; view++ ) {
+				SePointOps_F64.transform(initial.getWorldToCamera(view),p,cameraPt);
+				Point2D_F64 obs = new Point2D_F64(cameraPt.x/cameraPt.z,cameraPt.y/cameraPt.z);
+				observations.get(view).getPoints().grow().set(i,obs);
+			}
+		}
+
+		for( int i = 1; i < numViews; i++ ) {
+			Se3_F64 v = initial.getWorldToCamera(i);
+			v.getT().x += rand.nextGaussian()*0.01;
+			v.getT().y += rand.nextGaussian()*0.01;
+			v.getT().z += rand.nextGaussian()*0.01;
+		}
+		for( int i = 0; i < numPoints; i++ ) {
+			Point3D_F64 p = initial.getPoint(i);
+			p.x += rand.nextGaussian()*0.05;
+			p.y += rand.nextGaussian()*0.05;
+			p.z += rand.nextGaussian()*0.2;
+		}
+	}
+
+	private static void copy( CalibratedPoseAndPoint src , CalibratedPoseAndPoint dst ) {
+		if( dst.getNumViews() != src.getNumViews() || dst.getNumPoints() != src.getNumPoints() )
+			dst.configure(src.getNumViews(),src.getNumPoints());
+		for( int i = 0; i < src.getNumViews(); i++ ) {
+			dst.getWorldToCamera(i).set(src.getWorldToCamera(i));
+			dst.setViewKnown(i,src.isViewKnown(i));
+		}
+		for( int i = 0; i < src.getNumPoints(); i++ ) {
+			dst.getPoint(i).set(src.getPoint(i));
+		}
+	}
+
+	public void runAll() {
+		System.out.println("=========  Profile iterations "+ITERATIONS);
+		System.out.println();
+
+		int views[]  = new int[]{10 , 20  , 100  , 500};
+		int points[] = new int[]{200, 500 , 10000, 100000};
+
+		for( int i = 0; i < views.length; i++ ) {
+			createScene(views[i],points[i]);
+			System.out.println("views "+views[i]+" points "+points[i]);
+
+			// the dense Jacobian is too large for the bigger scenes
+			if( points[i] <= 500 )
+				ProfileOperation.printOpsPerSec(new Dense(), TEST_TIME);
+			ProfileOperation.printOpsPerSec(new Sparse(), TEST_TIME);
+		}
+
+		System.out.println();
+		System.out.println("Done");
+	}
+
+	public static void main( String args[] ) {
+		BenchmarkRuntimeBundleAdjustment alg = new BenchmarkRuntimeBundleAdjustment();
+
+		alg.runAll();
+	}
+}
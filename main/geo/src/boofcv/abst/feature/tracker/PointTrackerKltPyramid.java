@@ -35,6 +35,8 @@ import java.util.List;
 /**
  * Wrapper around {@link boofcv.alg.tracker.klt.PyramidKltTracker} for {@link PointTracker}.  Every track
  * will have the same size and shaped descriptor.  If any fault is encountered the track will be dropped.
+ * Tracks are processed as a batch, which is split across threads when
+ * {@link boofcv.concurrency.BoofConcurrency#USE_CONCURRENT} is true.
  *
  * @author Peter Abeles
  */
@@ -63,6 +65,11 @@ public class PointTrackerKltPyramid<I extends ImageSingleBand,D extends ImageSin
 	protected List<PyramidKltFeature> dropped = new ArrayList<PyramidKltFeature>();
 	// feature data available for future tracking
 	protected List<PyramidKltFeature> unused = new ArrayList<PyramidKltFeature>();
+	// features which are being considered as new tracks
+	protected List<PyramidKltFeature> candidates = new ArrayList<PyramidKltFeature>();
+
+	// results from tracking each feature in the active list
+	protected KltTrackFault[] faults = new KltTrackFault[0];
 
 	// the tracker
 	protected PyramidKltTracker<I, D> tracker;
@@ -180,15 +187,21 @@ public class PointTrackerKltPyramid<I extends ImageSingleBand,D extends ImageSin
 		while( unused.size() < found.size() )
 			addTrackToUnused();
 
+		candidates.clear();
 		for (int i = 0; i < found.size() && !unused.isEmpty(); i++) {
 			Point2D_I16 pt = found.get(i);
 
-			// set up pyramid description
 			PyramidKltFeature t = unused.remove(unused.size() - 1);
 			t.x = pt.x * scaleBottom;
 			t.y = pt.y * scaleBottom;
+			candidates.add(t);
+		}
 
-			tracker.setDescription(t);
+		// set up pyramid descriptions
+		tracker.setDescription(candidates, null);
+
+		for (int i = 0; i < candidates.size(); i++) {
+			PyramidKltFeature t = candidates.get(i);
 
 			// set up point description
 			PointTrack p = t.getCookie();
@@ -234,23 +247,34 @@ public class PointTrackerKltPyramid<I extends ImageSingleBand,D extends ImageSin
 		}
 		PyramidOps.gradient(basePyramid, gradient, derivX,derivY);
 
-		// track features
+		// track features and update the description of ones which were successful
 		tracker.setImage(basePyramid,derivX,derivY);
-		for( int i = 0; i < active.size(); ) {
+		growFaults(active.size());
+		tracker.track(active, faults, true);
+
+		// remove tracks which failed while preserving the order of the active list
+		int numActive = 0;
+		for( int i = 0; i < active.size(); i++ ) {
 			PyramidKltFeature t = active.get(i);
-			KltTrackFault ret = tracker.track(t);
 
-			if( ret == KltTrackFault.SUCCESS ) {
-				tracker.setDescription(t);
+			if( faults[i] == KltTrackFault.SUCCESS ) {
 				PointTrack p = t.getCookie();
 				p.set(t.x,t.y);
-				i++;
+				active.set(numActive++, t);
 			} else {
-				active.remove(i);
 				dropped.add( t );
 				unused.add( t );
 			}
 		}
+		active.subList(numActive, active.size()).clear();
+	}
+
+	/**
+	 * Makes sure the array of tracking results is large enough
+	 */
+	protected void growFaults( int length ) {
+		if( faults.length < length )
+			faults = new KltTrackFault[length];
 	}
 
 	@Override
@@ -83,11 +83,13 @@ public class PointTrackerTwoPassKltPyramid<I extends ImageSingleBand,D extends I
 		active.clear();
 
 		tracker.setImage(basePyramid,derivX,derivY);
+		growFaults(originalActive.size());
+		tracker.track(originalActive, faults, false);
+
 		for( int i = 0; i < originalActive.size(); i++ ) {
 			PyramidKltFeature t = originalActive.get(i);
-			KltTrackFault ret = tracker.track(t);
 
-			if( ret == KltTrackFault.SUCCESS ) {
+			if( faults[i] == KltTrackFault.SUCCESS ) {
 				active.add(t);
 				PointTrack p = t.getCookie();
 				p.set(t.x,t.y);
@@ -102,11 +104,12 @@ public class PointTrackerTwoPassKltPyramid<I extends ImageSingleBand,D extends I
 		candidateDrop.clear();
 		active.clear();
 
+		tracker.track(originalActive, faults, false);
+
 		for( int i = 0; i < originalActive.size(); i++ ) {
 			PyramidKltFeature t = originalActive.get(i);
-			KltTrackFault ret = tracker.track(t);
 
-			if( ret == KltTrackFault.SUCCESS ) {
+			if( faults[i] == KltTrackFault.SUCCESS ) {
 				active.add(t);
 				PointTrack p = t.getCookie();
 				p.set(t.x,t.y);
@@ -118,10 +121,7 @@ public class PointTrackerTwoPassKltPyramid<I extends ImageSingleBand,D extends I
 
 	@Override
 	public void finishTracking() {
-		for( int i = 0; i < active.size(); i++ ) {
-			PyramidKltFeature t = active.get(i);
-			tracker.setDescription(t);
-		}
+		tracker.setDescription(active, null);
 
 		for( int i = 0; i < candidateDrop.size(); i++ ) {
 			PyramidKltFeature t = candidateDrop.get(i);
@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.abst.geo.bundle;
+
+import boofcv.abst.geo.BundleAdjustmentCalibrated;
+import boofcv.alg.geo.bundle.CalibPoseAndPointSchurLM;
+import boofcv.alg.geo.bundle.CalibratedPoseAndPoint;
+import boofcv.alg.geo.bundle.ViewPointObservations;
+
+import java.util.List;
+
+/**
+ * Performs bundle adjustment using sparse matrices and the Schur complement.  Scales to problems with hundreds
+ * of views and many thousands of points.  See {@link CalibPoseAndPointSchurLM} for details.
+ *
+ * @author Peter Abeles
+ */
+public class BundleAdjustmentCalibratedSparse
+		implements BundleAdjustmentCalibrated
+{
+	// minimization algorithm
+	CalibPoseAndPointSchurLM minimizer;
+
+	double convergenceTol;
+
+	public BundleAdjustmentCalibratedSparse(double convergenceTol,
+											int maxIterations ) {
+		this.convergenceTol = convergenceTol;
+		minimizer = new CalibPoseAndPointSchurLM(convergenceTol,0,maxIterations);
+	}
+
+	@Override
+	public boolean process(CalibratedPoseAndPoint initialModel,
+						   List<ViewPointObservations> observations)
+	{
+		// same convention as the dense implementation
+		minimizer.setGtol(convergenceTol*observations.size());
+		minimizer.process(initialModel,observations);
+
+		return true;
+	}
+
+	public CalibPoseAndPointSchurLM getMinimizer() {
+		return minimizer;
+	}
+}
@@ -53,6 +53,18 @@ public class NormalizedToPixelError {
 		this.skew = skew;
 	}
 
+	public double getFx() {
+		return fx;
+	}
+
+	public double getFy() {
+		return fy;
+	}
+
+	public double getSkew() {
+		return skew;
+	}
+
 	public double errorSq( Point2D_F64 a , Point2D_F64 b ) {
 		double dy = (b.y - a.y);
 		double dx = (b.x - a.x)*fx + dy*skew;
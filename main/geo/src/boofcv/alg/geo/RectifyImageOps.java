@@ -22,6 +22,8 @@ import boofcv.alg.distort.*;
 import boofcv.alg.geo.rectify.RectifyCalibrated;
 import boofcv.alg.geo.rectify.RectifyFundamental;
 import boofcv.alg.interpolate.InterpolatePixel;
+import boofcv.alg.interpolate.TypeInterpolate;
+import boofcv.concurrency.BoofConcurrency;
 import boofcv.factory.distort.FactoryDistort;
 import boofcv.factory.interpolate.FactoryInterpolation;
 import boofcv.struct.calib.IntrinsicParameters;
@@ -464,7 +466,9 @@ public class RectifyImageOps {
 
 	/**
 	 * Creates an {@link ImageDistort} for rectifying an image given its radial distortion and
-	 * rectification matrix.
+	 * rectification matrix.  If {@link BoofConcurrency#USE_CONCURRENT} is true then the returned
+	 * distort will process the image concurrently.  Use {@link DistortImageOps#distortPair} to rectify
+	 * both images in a stereo pair at the same time.
 	 *
 	 * @param param Intrinsic parameters.
 	 * @param rectify Transform for rectifying the image.
@@ -475,10 +479,14 @@ public class RectifyImageOps {
 	rectifyImage(IntrinsicParameters param,
 				 DenseMatrix64F rectify , Class<T> imageType)
 	{
-		InterpolatePixel<T> interp = FactoryInterpolation.bilinearPixel(imageType);
-
 		// only compute the transform once
-		ImageDistort<T> ret = FactoryDistort.distortCached(interp,null,imageType);
+		ImageDistort<T> ret;
+		if( BoofConcurrency.USE_CONCURRENT ) {
+			ret = FactoryDistort.distortConcurrent(TypeInterpolate.BILINEAR,true,64,imageType);
+		} else {
+			InterpolatePixel<T> interp = FactoryInterpolation.bilinearPixel(imageType);
+			ret = FactoryDistort.distortCached(interp,null,imageType);
+		}
 
 		PointTransform_F32 transform = transformRectToPixel_F32(param, rectify);
 
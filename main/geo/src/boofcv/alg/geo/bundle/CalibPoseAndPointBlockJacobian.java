@@ -0,0 +1,259 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.geo.bundle;
+
+import boofcv.alg.geo.RodriguesRotationJacobian;
+import georegression.geometry.RotationMatrixGenerator;
+import georegression.struct.point.Point2D_F64;
+import georegression.struct.se.Se3_F64;
+import georegression.struct.so.Rodrigues;
+import org.ejml.data.DenseMatrix64F;
+
+import java.util.List;
+
+/**
+ * <p>
+ * Computes the residuals and a block sparse Jacobian for bundle adjustment with known calibration.  The
+ * parametrization is the same as {@link CalibPoseAndPointRodriguesCodec} and residuals are ordered the same
+ * as {@link CalibPoseAndPointResiduals}.  Each observation only depends on the pose of one view and the location
+ * of one point.  Instead of a dense Jacobian, two blocks are saved for each observation: a 2x6 block for the
+ * view's Rodrigues and translation parameters and a 2x3 block for the point.
+ * </p>
+ *
+ * <p>
+ * Observations are copied into arrays when {@link #configure} is called.  Storage is only
+ * declared when a larger problem is encountered, so repeated calls do not create new memory.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class CalibPoseAndPointBlockJacobian {
+
+	// number of camera views
+	int numViews;
+	// number of points in world coordinates
+	int numPoints;
+	// number of views with unknown extrinsic parameters
+	int numViewsUnknown;
+	// number of observations across all views
+	int numObservations;
+
+	// index of each view's parameters in the unknown views or -1 if it's known
+	int viewToUnknown[] = new int[0];
+	// index of the first observation in each view.  numViews+1 elements
+	int viewObsStart[] = new int[0];
+	// which point each observation is of
+	int obsPoint[] = new int[0];
+	// observed location in normalized image coordinates.  x and y interleaved
+	double obsNorm[] = new double[0];
+
+	// rotation matrix and translation of each view.  9 and 3 elements for each view
+	double viewR[] = new double[0];
+	double viewT[] = new double[0];
+
+	// partials of each observation with respect to the view's parameters.  2x6 row major for each observation
+	double jacView[] = new double[0];
+	// partials of each observation with respect to the point's location.  2x3 row major for each observation
+	double jacPoint[] = new double[0];
+
+	// used to compute the Jacobian from Rodrigues coordinates
+	RodriguesRotationJacobian rodJacobian = new RodriguesRotationJacobian();
+	Rodrigues rodrigues = new Rodrigues();
+	DenseMatrix64F R = new DenseMatrix64F(3,3);
+
+	/**
+	 * Copies the observations and known view locations into internal data structures.
+	 *
+	 * @param model Model being optimized.  Used to look up which views are known and their location.
+	 * @param observations Observations of points in each view.
+	 */
+	public void configure( CalibratedPoseAndPoint model , List<ViewPointObservations> observations ) {
+		numViews = model.getNumViews();
+		numPoints = model.getNumPoints();
+		if( observations.size() < numViews )
+			throw new IllegalArgumentException("Fewer views in 'observations' than in the model");
+
+		if( viewToUnknown.length < numViews ) {
+			viewToUnknown = new int[numViews];
+			viewObsStart = new int[numViews+1];
+			viewR = new double[numViews*9];
+			viewT = new double[numViews*3];
+		}
+
+		numViewsUnknown = 0;
+		numObservations = 0;
+		for( int view = 0; view < numViews; view++ ) {
+			viewObsStart[view] = numObservations;
+			numObservations += observations.get(view).points.size;
+
+			if( model.isViewKnown(view) ) {
+				viewToUnknown[view] = -1;
+				Se3_F64 se = model.getWorldToCamera(view);
+				System.arraycopy(se.getR().data,0,viewR,view*9,9);
+				viewT[view*3  ] = se.getT().x;
+				viewT[view*3+1] = se.getT().y;
+				viewT[view*3+2] = se.getT().z;
+			} else {
+				viewToUnknown[view] = numViewsUnknown++;
+			}
+		}
+		viewObsStart[numViews] = numObservations;
+
+		if( obsPoint.length < numObservations ) {
+			obsPoint = new int[numObservations];
+			obsNorm = new double[numObservations*2];
+			jacView = new double[numObservations*12];
+			jacPoint = new double[numObservations*6];
+		}
+
+		int index = 0;
+		for( int view = 0; view < numViews; view++ ) {
+			ViewPointObservations obs = observations.get(view);
+			for( int i = 0; i < obs.points.size; i++ , index++ ) {
+				PointIndexObservation o = obs.points.data[i];
+				if( o.pointIndex < 0 || o.pointIndex >= numPoints )
+					throw new IllegalArgumentException("Observation references a point which does not exist");
+				obsPoint[index] = o.pointIndex;
+				Point2D_F64 p = o.obs;
+				obsNorm[index*2  ] = p.x;
+				obsNorm[index*2+1] = p.y;
+			}
+		}
+	}
+
+	/**
+	 * Computes the residuals and optionally the Jacobian blocks for the parameters.
+	 *
+	 * @param param Encoded parameters.  See {@link CalibPoseAndPointRodriguesCodec}.
+	 * @param residuals (Output) Residual for each observation.  Must have 2*numObservations elements.
+	 * @param computeJacobian If true the Jacobian blocks are updated.
+	 * @return Sum of the residuals squared
+	 */
+	public double process( double param[] , double residuals[] , boolean computeJacobian ) {
+		int indexFirstPoint = numViewsUnknown*6;
+		double sum = 0;
+
+		for( int view = 0; view < numViews; view++ ) {
+			int unknown = viewToUnknown[view];
+			if( unknown >= 0 ) {
+				int i = unknown*6;
+				double rodX = param[i], rodY = param[i+1], rodZ = param[i+2];
+				rodrigues.setParamVector(rodX,rodY,rodZ);
+				RotationMatrixGenerator.rodriguesToMatrix(rodrigues,R);
+				System.arraycopy(R.data,0,viewR,view*9,9);
+				viewT[view*3  ] = param[i+3];
+				viewT[view*3+1] = param[i+4];
+				viewT[view*3+2] = param[i+5];
+				if( computeJacobian )
+					rodJacobian.process(rodX,rodY,rodZ);
+			}
+
+			int r = view*9;
+			double r00 = viewR[r  ], r01 = viewR[r+1], r02 = viewR[r+2];
+			double r10 = viewR[r+3], r11 = viewR[r+4], r12 = viewR[r+5];
+			double r20 = viewR[r+6], r21 = viewR[r+7], r22 = viewR[r+8];
+			double tx = viewT[view*3], ty = viewT[view*3+1], tz = viewT[view*3+2];
+
+			for( int k = viewObsStart[view]; k < viewObsStart[view+1]; k++ ) {
+				int indexPt = indexFirstPoint + obsPoint[k]*3;
+				double X = param[indexPt], Y = param[indexPt+1], Z = param[indexPt+2];
+
+				// location of point in camera view
+				double cx = r00*X + r01*Y + r02*Z + tx;
+				double cy = r10*X + r11*Y + r12*Z + ty;
+				double cz = r20*X + r21*Y + r22*Z + tz;
+
+				double rx = cx/cz - obsNorm[k*2];
+				double ry = cy/cz - obsNorm[k*2+1];
+				residuals[k*2  ] = rx;
+				residuals[k*2+1] = ry;
+				sum += rx*rx + ry*ry;
+
+				if( !computeJacobian )
+					continue;
+
+				// partial of the projection with respect to the point in the camera frame
+				// [ 1/z   0   -x/z^2 ]
+				// [  0   1/z  -y/z^2 ]
+				double divZ = 1.0/cz;
+				double px = -cx*divZ*divZ;
+				double py = -cy*divZ*divZ;
+
+				int j = k*6;
+				jacPoint[j  ] = divZ*r00 + px*r20;
+				jacPoint[j+1] = divZ*r01 + px*r21;
+				jacPoint[j+2] = divZ*r02 + px*r22;
+				jacPoint[j+3] = divZ*r10 + py*r20;
+				jacPoint[j+4] = divZ*r11 + py*r21;
+				jacPoint[j+5] = divZ*r12 + py*r22;
+
+				if( unknown < 0 )
+					continue;
+
+				j = k*12;
+				addRodrigues(rodJacobian.Rx,X,Y,Z,divZ,px,py,j);
+				addRodrigues(rodJacobian.Ry,X,Y,Z,divZ,px,py,j+1);
+				addRodrigues(rodJacobian.Rz,X,Y,Z,divZ,px,py,j+2);
+
+				// translation
+				jacView[j+3] = divZ;
+				jacView[j+4] = 0;
+				jacView[j+5] = px;
+				jacView[j+9] = 0;
+				jacView[j+10] = divZ;
+				jacView[j+11] = py;
+			}
+		}
+
+		return sum;
+	}
+
+	/**
+	 * Partial for a Rodrigues parameter.  Computed by multiplying the projection's partial by dot(R)*X.
+	 */
+	private void addRodrigues( DenseMatrix64F Rj , double X , double Y , double Z ,
+							   double divZ , double px , double py , int index ) {
+		double dx = Rj.data[0]*X + Rj.data[1]*Y + Rj.data[2]*Z;
+		double dy = Rj.data[3]*X + Rj.data[4]*Y + Rj.data[5]*Z;
+		double dz = Rj.data[6]*X + Rj.data[7]*Y + Rj.data[8]*Z;
+
+		jacView[index  ] = divZ*dx + px*dz;
+		jacView[index+6] = divZ*dy + py*dz;
+	}
+
+	public int getNumViews() {
+		return numViews;
+	}
+
+	public int getNumPoints() {
+		return numPoints;
+	}
+
+	public int getNumViewsUnknown() {
+		return numViewsUnknown;
+	}
+
+	public int getNumObservations() {
+		return numObservations;
+	}
+
+	public int getParamLength() {
+		return numViewsUnknown*6 + numPoints*3;
+	}
+}
@@ -18,6 +18,9 @@
 
 package boofcv.alg.geo.bundle;
 
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeTask;
+import boofcv.concurrency.WorkerPool;
 import georegression.struct.point.Point3D_F64;
 import georegression.struct.se.Se3_F64;
 import georegression.transform.se.SePointOps_F64;
@@ -37,11 +40,19 @@ import java.util.List;
  * cost(P) = (1/(m*n))*&sum;<sub>i</sub> &sum;<sub>j</sub> ||x<sub>j</sub> - (1/z)*[R<sub>i</sub>|T<sub>i</sub>]*X<sub>j</sub>||<sup>2</sup>
  * </p>
  *
+ * <p>
+ * If {@link BoofConcurrency#USE_CONCURRENT} is true then the views are split across several threads.  The
+ * residuals for each view are contiguous, so each thread writes to its own part of the output array.
+ * </p>
+ *
  * @author Peter Abeles
  */
 public class CalibPoseAndPointResiduals
 	implements FunctionNtoM
 {
+	// minimum number of point observations processed by a thread
+	private static final int MIN_BLOCK = 500;
+
 	// decodes parameterized model
 	ModelCodec<CalibratedPoseAndPoint> codec;
 
@@ -53,9 +64,21 @@ public class CalibPoseAndPointResiduals
 	// number of observations.  2 for each point in each view
 	int numObservations;
 
+	// index of the first residual for each view
+	int viewOutputStart[] = new int[0];
+
 	// local variable which stores the predicted location of the feature in the camera frame
 	Point3D_F64 cameraPt = new Point3D_F64();
 
+	// instances used by other threads which are not currently in use
+	private final WorkerPool<CalibPoseAndPointResiduals> workers =
+			new WorkerPool<CalibPoseAndPointResiduals>() {
+		@Override
+		protected CalibPoseAndPointResiduals createInstance() {
+			return new CalibPoseAndPointResiduals();
+		}
+	};
+
 	/**
 	 * Configures the residual function.
 	 *
@@ -70,8 +93,13 @@ public class CalibPoseAndPointResiduals
 		this.codec = codec;
 		this.observations = obs;
 
+		int numViews = model.getNumViews();
+		if( viewOutputStart.length < numViews )
+			viewOutputStart = new int[numViews];
+
 		numObservations = 0;
-		for( int view = 0; view < model.getNumViews(); view++ ) {
+		for( int view = 0; view < numViews; view++ ) {
+			viewOutputStart[view] = numObservations;
 			numObservations += obs.get(view).getPoints().size()*2;
 		}
 	}
@@ -94,10 +122,37 @@ public class CalibPoseAndPointResiduals
 		process(model,output);
 	}
 
-	public void process(CalibratedPoseAndPoint model , double[] output) {
-		int outputIndex = 0;
+	public void process(final CalibratedPoseAndPoint model , final double[] output) {
+		int numViews = model.getNumViews();
 
-		for( int view = 0; view < model.getNumViews(); view++) {
+		if( !BoofConcurrency.USE_CONCURRENT || numViews <= 1 ) {
+			process(model, output, 0, numViews);
+			return;
+		}
+
+		int minBlock = Math.max(1,MIN_BLOCK*numViews/Math.max(1,numObservations/2));
+		BoofConcurrency.loopBlocks(0, numViews, minBlock, new IntRangeTask() {
+			@Override
+			public void process(int start, int end) {
+				CalibPoseAndPointResiduals alg = borrow();
+				try {
+					alg.process(model, output, start, end);
+				} finally {
+					workers.release(alg);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Computes the residuals for views from view0 to view1-1
+	 */
+	private void process(CalibratedPoseAndPoint model , double[] output , int view0 , int view1 ) {
+		if( view0 >= view1 )
+			return;
+		int outputIndex = viewOutputStart[view0];
+
+		for( int view = view0; view < view1; view++) {
 			Se3_F64 worldToCamera = model.getWorldToCamera(view);
 
 			FastQueue<PointIndexObservation> observedPts = observations.get(view).getPoints();
@@ -114,4 +169,15 @@ public class CalibPoseAndPointResiduals
 			}
 		}
 	}
+
+	/**
+	 * Gets an instance which isn't being used by another thread and points it at the current problem
+	 */
+	private CalibPoseAndPointResiduals borrow() {
+		CalibPoseAndPointResiduals alg = workers.borrow();
+
+		alg.observations = observations;
+		alg.viewOutputStart = viewOutputStart;
+		return alg;
+	}
 }
@@ -19,6 +19,9 @@
 package boofcv.alg.geo.bundle;
 
 import boofcv.alg.geo.RodriguesRotationJacobian;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeTask;
+import boofcv.concurrency.WorkerPool;
 import georegression.geometry.GeometryMath_F64;
 import georegression.geometry.RotationMatrixGenerator;
 import georegression.struct.point.Point3D_F64;
@@ -32,12 +35,22 @@ import java.util.Arrays;
 import java.util.List;
 
 /**
+ * <p>
  * Computes the Jacobian for {@link CalibPoseAndPointResiduals}.
+ * </p>
+ *
+ * <p>
+ * If {@link BoofConcurrency#USE_CONCURRENT} is true then the views are split across several threads.  The rows
+ * for each view are contiguous, so each thread writes to its own part of the output matrix.
+ * </p>
  *
  * @author Peter Abeles
  */
 public class CalibPoseAndPointRodriguesJacobian implements FunctionNtoMxN {
 
+	// minimum number of point observations processed by a thread
+	private static final int MIN_BLOCK = 200;
+
 	// if the extrinsic parameters are known, specify them here
 	Se3_F64 extrinsic[];
 	// observed location of features in each view
@@ -54,6 +67,11 @@ public class CalibPoseAndPointRodriguesJacobian implements FunctionNtoMxN {
 	// total number of parameters being optimized
 	int numParameters;
 
+	// index of the first parameter for each view or -1 if the view is known
+	int viewParamStart[] = new int[0];
+	// index of the first observation in each view
+	int viewObsStart[] = new int[0];
+
 	// used to compute the Jacobian from Rodrigues coordinates
 	RodriguesRotationJacobian rodJacobian = new RodriguesRotationJacobian();
 
@@ -79,7 +97,16 @@ public class CalibPoseAndPointRodriguesJacobian implements FunctionNtoMxN {
 
 	// reference to output Jacobian matrix
 	double[] output;
-	
+
+	// instances used by other threads which are not currently in use
+	private final WorkerPool<CalibPoseAndPointRodriguesJacobian> workers =
+			new WorkerPool<CalibPoseAndPointRodriguesJacobian>() {
+		@Override
+		protected CalibPoseAndPointRodriguesJacobian createInstance() {
+			return new CalibPoseAndPointRodriguesJacobian();
+		}
+	};
+
 	public void configure( List<ViewPointObservations> observations , int numPoints , Se3_F64 ...extrinsic) {
 		if( extrinsic.length < observations.size() )
 			throw new RuntimeException("knownExtrinsic length is less than the number of views in 'observations'");
@@ -89,11 +116,19 @@ public class CalibPoseAndPointRodriguesJacobian implements FunctionNtoMxN {
 		this.numViews = observations.size();
 		this.numPoints = numPoints;
 		
+		if( viewParamStart.length < numViews ) {
+			viewParamStart = new int[numViews];
+			viewObsStart = new int[numViews];
+		}
+
 		numViewsUnknown = 0;
 		numObservations = 0;
 		for( int i = 0; i < numViews; i++ ) {
+			viewObsStart[i] = numObservations;
 			if( extrinsic[i] == null )
-				numViewsUnknown++;
+				viewParamStart[i] = 6*numViewsUnknown++;
+			else
+				viewParamStart[i] = -1;
 			numObservations += observations.get(i).points.size;
 		}
 		
@@ -112,16 +147,43 @@ public class CalibPoseAndPointRodriguesJacobian implements FunctionNtoMxN {
 	}
 
 	@Override
-	public void process(double[] input, double[] output) {
+	public void process(final double[] input, final double[] output) {
+		if( !BoofConcurrency.USE_CONCURRENT || numViews <= 1 ) {
+			process(input, output, 0, numViews);
+			return;
+		}
+
+		int minBlock = Math.max(1,MIN_BLOCK*numViews/Math.max(1,numObservations));
+		BoofConcurrency.loopBlocks(0, numViews, minBlock, new IntRangeTask() {
+			@Override
+			public void process(int start, int end) {
+				CalibPoseAndPointRodriguesJacobian alg = borrow();
+				try {
+					alg.process(input, output, start, end);
+				} finally {
+					workers.release(alg);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Computes the rows in the Jacobian for views from view0 to view1-1
+	 */
+	private void process(double[] input, double[] output, int view0 , int view1 ) {
+		if( view0 >= view1 )
+			return;
+
 		this.output = output;
-		int paramIndex = 0;
-		countPointObs = 0;
-		
-		Arrays.fill(output,0);
-		
+		countPointObs = viewObsStart[view0];
+
+		int rowEnd = view1 < numViews ? viewObsStart[view1]*2 : numObservations*2;
+		Arrays.fill(output,countPointObs*2*numParameters,rowEnd*numParameters,0);
+
 		// first decode the transformation
-		for( int i = 0; i < numViews; i++ ) {
+		for( int i = view0; i < view1; i++ ) {
 			if( extrinsic[i] == null ) {
+				int paramIndex = viewParamStart[i];
 				double rodX = input[paramIndex++];
 				double rodY = input[paramIndex++];
 				double rodZ = input[paramIndex++];
@@ -282,4 +344,23 @@ public class CalibPoseAndPointRodriguesJacobian implements FunctionNtoMxN {
 		output[indexX++] = -R.data[8]*divZ2*cameraPt.x + R.data[2]/cameraPt.z;
 		output[indexY++] = -R.data[8]*divZ2*cameraPt.y + R.data[5]/cameraPt.z;
 	}
+
+	/**
+	 * Gets an instance which isn't being used by another thread and points it at the current problem
+	 */
+	private CalibPoseAndPointRodriguesJacobian borrow() {
+		CalibPoseAndPointRodriguesJacobian alg = workers.borrow();
+
+		alg.extrinsic = extrinsic;
+		alg.observations = observations;
+		alg.numViews = numViews;
+		alg.numPoints = numPoints;
+		alg.numViewsUnknown = numViewsUnknown;
+		alg.numObservations = numObservations;
+		alg.numParameters = numParameters;
+		alg.indexFirstPoint = indexFirstPoint;
+		alg.viewParamStart = viewParamStart;
+		alg.viewObsStart = viewObsStart;
+		return alg;
+	}
 }
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.geo.bundle;
+
+import java.util.List;
+
+/**
+ * <p>
+ * Sparse Levenberg-Marquardt bundle adjustment with known calibration which takes advantage of the problem's
+ * block structure.  Points are eliminated using the Schur complement, see {@link PoseAndPointSchurLM}.  Each
+ * observation is a point's normalized image coordinate, giving two residuals.
+ * </p>
+ *
+ * <p>
+ * Parameters are encoded using {@link CalibPoseAndPointRodriguesCodec} and the Jacobian is computed by
+ * {@link CalibPoseAndPointBlockJacobian}.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class CalibPoseAndPointSchurLM extends PoseAndPointSchurLM {
+
+	// converts to and from a parameterized version of the model
+	private CalibPoseAndPointRodriguesCodec codec = new CalibPoseAndPointRodriguesCodec();
+	// computes residuals and the block Jacobian
+	private CalibPoseAndPointBlockJacobian jacobian = new CalibPoseAndPointBlockJacobian();
+
+	// parameters and candidate parameters
+	private double param[] = new double[0];
+	private double candidate[] = new double[0];
+
+	// unknown camera of each observation or -1 if its view is known
+	private int obsCamera[] = new int[0];
+
+	/**
+	 * Configures the optimization
+	 *
+	 * @param ftol Stops when the relative change in the cost function is less than this.  Try 1e-12.
+	 * @param gtol Stops when the largest element in the gradient is less than this.  Try 1e-12.
+	 * @param maxIterations Maximum number of iterations.
+	 */
+	public CalibPoseAndPointSchurLM( double ftol , double gtol , int maxIterations ) {
+		super(2, ftol, gtol, maxIterations);
+	}
+
+	/**
+	 * Refines the model using the observations.
+	 *
+	 * @param model Initial estimate.  Modified on output with refined results.
+	 * @param observations Observation of points in each view. Normalized image coordinates.
+	 * @return true if the cost function didn't increase
+	 */
+	public boolean process( CalibratedPoseAndPoint model , List<ViewPointObservations> observations ) {
+		jacobian.configure(model, observations);
+
+		int numObs = jacobian.getNumObservations();
+		int N = jacobian.getParamLength();
+
+		if( param.length < N ) {
+			param = new double[N];
+			candidate = new double[N];
+		}
+		if( obsCamera.length < numObs )
+			obsCamera = new int[numObs];
+
+		// camera each observation belongs to
+		int numViews = jacobian.getNumViews();
+		for( int view = 0; view < numViews; view++ ) {
+			int camera = jacobian.viewToUnknown[view];
+			for( int k = jacobian.viewObsStart[view]; k < jacobian.viewObsStart[view+1]; k++ ) {
+				obsCamera[k] = camera;
+			}
+		}
+
+		configure(jacobian.getNumViewsUnknown(),jacobian.getNumPoints(),numObs,obsCamera,jacobian.obsPoint);
+
+		codec.configure(model.getNumViews(),numPoints,numCameras,model.getKnownArray());
+		codec.encode(model,param);
+
+		boolean success = optimize();
+
+		codec.decode(param, model);
+
+		return success;
+	}
+
+	@Override
+	protected double computeResidualsAndJacobian() {
+		double cost = jacobian.process(param, residuals, true);
+		jacView = jacobian.jacView;
+		jacPoint = jacobian.jacPoint;
+		return cost;
+	}
+
+	@Override
+	protected double computeCandidateCost(double[] step) {
+		int N = jacobian.getParamLength();
+		for( int i = 0; i < N; i++ ) {
+			candidate[i] = param[i] + step[i];
+		}
+		return jacobian.process(candidate, residuals, false);
+	}
+
+	@Override
+	protected void acceptCandidate() {
+		double[] tmp = param; param = candidate; candidate = tmp;
+	}
+}
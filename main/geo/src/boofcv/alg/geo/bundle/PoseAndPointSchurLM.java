@@ -0,0 +1,931 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.geo.bundle;
+
+import org.ddogleg.struct.GrowQueue_I32;
+import org.ejml.data.DenseMatrix64F;
+import org.ejml.factory.LinearSolver;
+import org.ejml.factory.LinearSolverFactory;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Sparse Levenberg-Marquardt for bundle adjustment problems where each observation only depends on one view and
+ * one point.  The normal equations J<sup>T</sup>J consist of 6x6 blocks for each view, 3x3 blocks for each point,
+ * and a 6x3 block for each observation which couples them:
+ * </p>
+ *
+ * <pre>
+ * [ U   W ] [ &delta;c ]   [ -g<sub>c</sub> ]
+ * [ W<sup>T</sup>  V ] [ &delta;p ] = [ -g<sub>p</sub> ]
+ * </pre>
+ *
+ * <p>
+ * V is block diagonal and easily inverted.  The points are eliminated using the Schur complement, leaving the
+ * reduced camera system S = U - W*V<sup>-1</sup>*W<sup>T</sup>, which only has a non-zero block for pairs
+ * of views that observe the same point.  S is solved using a dense Cholesky decomposition if it's small,
+ * otherwise it's kept in a block sparse format and solved with preconditioned conjugate gradient (PCG).  The
+ * point updates are then found by back substitution.  Damping is done by scaling the diagonal of J<sup>T</sup>J.
+ * </p>
+ *
+ * <p>
+ * Children define how residuals are computed and how a step is applied to the views, which allows different
+ * observation models and view parametrizations to share the same solver.  Each observation has a fixed number of
+ * residuals, e.g. 2 for a monocular camera and 4 for a stereo camera.  The Jacobian of each observation is saved
+ * in row-major order in {@link #jacView} (residuals x 6) and {@link #jacPoint} (residuals x 3).  The step
+ * contains the parameters for every unknown view followed by the parameters for every point.
+ * </p>
+ *
+ * <p>
+ * Memory is proportional to the number of observations plus the number of view pairs.  Work buffers are only
+ * declared when a larger problem is encountered, so repeated calls on problems of similar size don't create new
+ * memory.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public abstract class PoseAndPointSchurLM {
+
+	// number of residuals in each observation
+	private int obsLength;
+
+	// convergence tolerance for relative change in the cost function
+	private double ftol;
+	// convergence tolerance for the largest gradient element
+	private double gtol;
+	// maximum number of iterations
+	private int maxIterations;
+	// maximum amount of time it can run for in nanoseconds. If <= 0 then there is no limit
+	private long maxTime;
+
+	// if the reduced camera system has more parameters than this PCG is used instead of Cholesky
+	private int maxDenseParameters = 1200;
+	// maximum number of PCG iterations
+	private int maxIterationsPCG = 1000;
+	// PCG stops when the norm of its residual is reduced by this amount
+	private double tolerancePCG = 1e-10;
+
+	// number of unknown views, points, and observations
+	protected int numCameras;
+	protected int numPoints;
+	protected int numObs;
+
+	// unknown camera and point of each observation.  Camera is -1 if the view is known
+	private int obsCamera[];
+	private int obsPoint[];
+
+	/**
+	 * Residuals of each observation.  Written to by children.
+	 */
+	protected double residuals[] = new double[0];
+	/**
+	 * Jacobian of each observation's residuals with respect to its view and point.  Declared by children.
+	 */
+	protected double jacView[];
+	protected double jacPoint[];
+
+	// step for camera then point parameters
+	private double step[] = new double[0];
+	// gradient J'*r and diagonal of J'*J, in the same order as the step
+	private double gradient[] = new double[0];
+	private double diagonal[] = new double[0];
+
+	// J'*J blocks for each camera (6x6) and point (3x3)
+	private double U[] = new double[0];
+	private double V[] = new double[0];
+	// inverse of damped V
+	private double Vinv[] = new double[0];
+
+	// observations of each point, sorted by camera.  CSR format
+	private int pointObsStart[] = new int[0];
+	private int pointObs[] = new int[0];
+	// observations of each camera.  CSR format
+	private int cameraObsStart[] = new int[0];
+	private int cameraObs[] = new int[0];
+
+	// structure of the upper triangle of the reduced camera system in CSR format.  Columns in a row are sorted
+	// and the diagonal is always the first element
+	private int rowStart[] = new int[0];
+	private GrowQueue_I32 colIndex = new GrowQueue_I32();
+	// 6x6 blocks in the reduced camera system
+	private double S[] = new double[0];
+	// right hand side of the reduced camera system
+	private double rhs[] = new double[0];
+
+	// W*inv(V) for each observation of the point being processed.  6x3 each
+	private double Y[] = new double[0];
+	// W for each observation of the point being processed.  6x3 each
+	private double W[] = new double[0];
+
+	// used when building the reduced camera system's structure
+	private int marker[] = new int[0];
+
+	// dense solver for the reduced camera system
+	private DenseMatrix64F denseS = new DenseMatrix64F(1,1);
+	private DenseMatrix64F denseB = new DenseMatrix64F(1,1);
+	private DenseMatrix64F denseX = new DenseMatrix64F(1,1);
+	private LinearSolver<DenseMatrix64F> denseSolver;
+	private int denseSolverSize = -1;
+
+	// PCG storage
+	private double pcgR[] = new double[0];
+	private double pcgZ[] = new double[0];
+	private double pcgP[] = new double[0];
+	private double pcgQ[] = new double[0];
+	// inverse of the diagonal blocks, used as a preconditioner
+	private double precond[] = new double[0];
+	private double work6x6[] = new double[36];
+
+	// damping parameter
+	private double lambda;
+	// sum of residuals squared before and after optimization
+	private double initialCost;
+	private double cost;
+	// number of iterations in the last call to optimize
+	private int iterations;
+
+	/**
+	 * Configures the optimization
+	 *
+	 * @param obsLength Number of residuals in each observation.
+	 * @param ftol Stops when the relative change in the cost function is less than this.
+	 * @param gtol Stops when the largest element in the gradient is less than this.
+	 * @param maxIterations Maximum number of iterations.
+	 */
+	protected PoseAndPointSchurLM( int obsLength , double ftol , double gtol , int maxIterations ) {
+		this.obsLength = obsLength;
+		this.ftol = ftol;
+		this.gtol = gtol;
+		this.maxIterations = maxIterations;
+	}
+
+	/**
+	 * Computes the residuals and Jacobian at the current parameters.  Residuals are saved in {@link #residuals}
+	 * and the Jacobian in {@link #jacView} and {@link #jacPoint}.
+	 *
+	 * @return Sum of residuals squared
+	 */
+	protected abstract double computeResidualsAndJacobian();
+
+	/**
+	 * Applies the step to the current parameters and saves the results as the candidate.  {@link #residuals} can
+	 * be used as storage, but the current parameters and Jacobian must not be modified.
+	 *
+	 * @param step Step for every unknown view followed by every point
+	 * @return Sum of residuals squared at the candidate
+	 */
+	protected abstract double computeCandidateCost( double step[] );
+
+	/**
+	 * The candidate parameters become the current parameters
+	 */
+	protected abstract void acceptCandidate();
+
+	/**
+	 * Declares memory and computes the structure of the problem.  Must be called before {@link #optimize}.
+	 *
+	 * @param numCameras Number of unknown views
+	 * @param numPoints Number of points
+	 * @param numObs Number of observations
+	 * @param obsCamera Unknown view of each observation or -1 if the view is known
+	 * @param obsPoint Point of each observation
+	 */
+	protected void configure( int numCameras , int numPoints , int numObs , int obsCamera[] , int obsPoint[] ) {
+		this.numCameras = numCameras;
+		this.numPoints = numPoints;
+		this.numObs = numObs;
+		this.obsCamera = obsCamera;
+		this.obsPoint = obsPoint;
+		int N = numCameras*6 + numPoints*3;
+
+		if( step.length < N ) {
+			step = new double[N];
+			gradient = new double[N];
+			diagonal = new double[N];
+		}
+		if( residuals.length < numObs*obsLength )
+			residuals = new double[numObs*obsLength];
+		if( pointObs.length < numObs ) {
+			pointObs = new int[numObs];
+			cameraObs = new int[numObs];
+		}
+		if( U.length < numCameras*36 ) {
+			U = new double[numCameras*36];
+			rhs = new double[numCameras*6];
+			pcgR = new double[numCameras*6];
+			pcgZ = new double[numCameras*6];
+			pcgP = new double[numCameras*6];
+			pcgQ = new double[numCameras*6];
+			precond = new double[numCameras*36];
+			marker = new int[numCameras];
+		}
+		if( rowStart.length < numCameras+1 ) {
+			rowStart = new int[numCameras+1];
+			cameraObsStart = new int[numCameras+1];
+		}
+		if( V.length < numPoints*9 ) {
+			V = new double[numPoints*9];
+			Vinv = new double[numPoints*9];
+			pointObsStart = new int[numPoints+1];
+		}
+
+		// observations of each point and camera
+		Arrays.fill(pointObsStart,0,numPoints+1,0);
+		Arrays.fill(cameraObsStart,0,numCameras+1,0);
+		for( int k = 0; k < numObs; k++ ) {
+			pointObsStart[obsPoint[k]+1]++;
+			if( obsCamera[k] >= 0 )
+				cameraObsStart[obsCamera[k]+1]++;
+		}
+		int maxPointObs = 0;
+		for( int i = 0; i < numPoints; i++ ) {
+			maxPointObs = Math.max(maxPointObs,pointObsStart[i+1]);
+			pointObsStart[i+1] += pointObsStart[i];
+		}
+		for( int i = 0; i < numCameras; i++ ) {
+			cameraObsStart[i+1] += cameraObsStart[i];
+		}
+		// the start is used to track where the next observation goes
+		for( int k = 0; k < numObs; k++ ) {
+			pointObs[pointObsStart[obsPoint[k]]++] = k;
+			if( obsCamera[k] >= 0 )
+				cameraObs[cameraObsStart[obsCamera[k]]++] = k;
+		}
+		// shift start back to where they should be
+		for( int i = numPoints; i > 0; i-- ) {
+			pointObsStart[i] = pointObsStart[i-1];
+		}
+		pointObsStart[0] = 0;
+		for( int i = numCameras; i > 0; i-- ) {
+			cameraObsStart[i] = cameraObsStart[i-1];
+		}
+		cameraObsStart[0] = 0;
+
+		// the reduced camera system only saves the upper triangle, which requires observations of a point
+		// to be sorted by camera.  Lists are short so insertion sort is used
+		for( int point = 0; point < numPoints; point++ ) {
+			for( int i = pointObsStart[point]+1; i < pointObsStart[point+1]; i++ ) {
+				int k = pointObs[i];
+				int j = i-1;
+				while( j >= pointObsStart[point] && obsCamera[pointObs[j]] > obsCamera[k] ) {
+					pointObs[j+1] = pointObs[j];
+					j--;
+				}
+				pointObs[j+1] = k;
+			}
+		}
+
+		if( Y.length < maxPointObs*18 ) {
+			Y = new double[maxPointObs*18];
+			W = new double[maxPointObs*18];
+		}
+
+		// find which pairs of cameras observe the same point
+		colIndex.reset();
+		Arrays.fill(marker,0,numCameras,-1);
+		for( int a = 0; a < numCameras; a++ ) {
+			rowStart[a] = colIndex.size;
+			colIndex.add(a);
+			marker[a] = a;
+			for( int idx = cameraObsStart[a]; idx < cameraObsStart[a+1]; idx++ ) {
+				int point = obsPoint[cameraObs[idx]];
+				for( int i = pointObsStart[point]; i < pointObsStart[point+1]; i++ ) {
+					int b = obsCamera[pointObs[i]];
+					if( b > a && marker[b] != a ) {
+						marker[b] = a;
+						colIndex.add(b);
+					}
+				}
+			}
+			Arrays.sort(colIndex.data,rowStart[a]+1,colIndex.size);
+		}
+		rowStart[numCameras] = colIndex.size;
+
+		if( S.length < colIndex.size*36 )
+			S = new double[colIndex.size*36];
+	}
+
+	/**
+	 * Minimizes the sum of residuals squared starting from the current parameters.  If a time limit has been
+	 * set it's checked before each stage of an iteration.
+	 *
+	 * @return true if the cost function didn't increase
+	 */
+	protected boolean optimize() {
+		long startTime = System.nanoTime();
+
+		initialCost = cost = computeResidualsAndJacobian();
+		double maxGradient = computeNormalEquations();
+
+		lambda = 1e-3;
+		double nu = 2;
+
+		for( iterations = 0; iterations < maxIterations; iterations++ ) {
+			if( maxGradient <= gtol || cost == 0 )
+				break;
+			if( isOutOfTime(startTime) )
+				break;
+
+			if( !computeStep() ) {
+				lambda *= nu;
+				nu *= 2;
+				if( lambda > 1e20 )
+					break;
+				continue;
+			}
+			if( isOutOfTime(startTime) )
+				break;
+
+			double candidateCost = computeCandidateCost(step);
+
+			// predicted reduction in 0.5*cost
+			int N = numCameras*6 + numPoints*3;
+			double predicted = 0;
+			for( int i = 0; i < N; i++ ) {
+				predicted += step[i]*(lambda*diagonal[i]*step[i] - gradient[i]);
+			}
+			predicted *= 0.5;
+
+			double actual = 0.5*(cost - candidateCost);
+
+			if( predicted > 0 && actual > 0 ) {
+				acceptCandidate();
+
+				double previousCost = cost;
+				cost = candidateCost;
+
+				double rho = actual/predicted;
+				double a = 2*rho - 1;
+				lambda *= Math.max(1.0/3.0, 1 - a*a*a);
+				nu = 2;
+
+				if( previousCost - cost <= ftol*previousCost )
+					break;
+				if( isOutOfTime(startTime) )
+					break;
+
+				cost = computeResidualsAndJacobian();
+				maxGradient = computeNormalEquations();
+			} else {
+				lambda *= nu;
+				nu *= 2;
+				if( lambda > 1e20 )
+					break;
+			}
+		}
+
+		return cost <= initialCost;
+	}
+
+	private boolean isOutOfTime( long startTime ) {
+		return maxTime > 0 && System.nanoTime() - startTime >= maxTime;
+	}
+
+	/**
+	 * Computes the blocks in J'*J, the gradient, and the diagonal.
+	 *
+	 * @return Largest absolute value of an element in the gradient
+	 */
+	private double computeNormalEquations() {
+		int N = numCameras*6 + numPoints*3;
+		int firstPoint = numCameras*6;
+		Arrays.fill(U,0,numCameras*36,0);
+		Arrays.fill(V,0,numPoints*9,0);
+		Arrays.fill(gradient,0,N,0);
+
+		for( int k = 0; k < numObs; k++ ) {
+			int indexR = k*obsLength;
+
+			// point block
+			int indexB = k*obsLength*3;
+			int indexV = obsPoint[k]*9;
+			int indexG = firstPoint + obsPoint[k]*3;
+			for( int i = 0; i < 3; i++ ) {
+				for( int j = 0; j < 3; j++ ) {
+					double sum = 0;
+					for( int r = 0; r < obsLength; r++ ) {
+						sum += jacPoint[indexB+r*3+i]*jacPoint[indexB+r*3+j];
+					}
+					V[indexV+i*3+j] += sum;
+				}
+				double g = 0;
+				for( int r = 0; r < obsLength; r++ ) {
+					g += jacPoint[indexB+r*3+i]*residuals[indexR+r];
+				}
+				gradient[indexG+i] += g;
+			}
+
+			int camera = obsCamera[k];
+			if( camera < 0 )
+				continue;
+
+			// camera block
+			int indexA = k*obsLength*6;
+			int indexU = camera*36;
+			indexG = camera*6;
+			for( int i = 0; i < 6; i++ ) {
+				for( int j = 0; j < 6; j++ ) {
+					double sum = 0;
+					for( int r = 0; r < obsLength; r++ ) {
+						sum += jacView[indexA+r*6+i]*jacView[indexA+r*6+j];
+					}
+					U[indexU+i*6+j] += sum;
+				}
+				double g = 0;
+				for( int r = 0; r < obsLength; r++ ) {
+					g += jacView[indexA+r*6+i]*residuals[indexR+r];
+				}
+				gradient[indexG+i] += g;
+			}
+		}
+
+		for( int camera = 0; camera < numCameras; camera++ ) {
+			for( int i = 0; i < 6; i++ ) {
+				diagonal[camera*6+i] = U[camera*36+i*7];
+			}
+		}
+		for( int point = 0; point < numPoints; point++ ) {
+			for( int i = 0; i < 3; i++ ) {
+				diagonal[firstPoint+point*3+i] = V[point*9+i*4];
+			}
+		}
+
+		double max = 0;
+		for( int i = 0; i < N; i++ ) {
+			// keeps the damped system positive definite when a parameter has no influence
+			diagonal[i] = Math.max(diagonal[i],1e-9);
+			max = Math.max(max,Math.abs(gradient[i]));
+		}
+		return max;
+	}
+
+	/**
+	 * Computes the step by solving the damped normal equations using the Schur complement.
+	 *
+	 * @return true if successful
+	 */
+	private boolean computeStep() {
+		int firstPoint = numCameras*6;
+
+		// invert the damped point blocks
+		for( int point = 0; point < numPoints; point++ ) {
+			int index = point*9;
+			int indexD = firstPoint + point*3;
+			if( !invertSymm3(V, index, lambda*diagonal[indexD], lambda*diagonal[indexD+1],
+					lambda*diagonal[indexD+2], Vinv) )
+				return false;
+		}
+
+		if( numCameras > 0 ) {
+			computeReducedCameraSystem();
+
+			boolean success;
+			if( numCameras*6 <= maxDenseParameters )
+				success = solveDense();
+			else
+				success = solvePCG();
+			if( !success )
+				return false;
+		}
+
+		// back substitution for the points: dp = inv(V)*(-gp - W'*dc)
+		for( int point = 0; point < numPoints; point++ ) {
+			int indexG = firstPoint + point*3;
+			double b0 = -gradient[indexG], b1 = -gradient[indexG+1], b2 = -gradient[indexG+2];
+
+			for( int i = pointObsStart[point]; i < pointObsStart[point+1]; i++ ) {
+				int k = pointObs[i];
+				int camera = obsCamera[k];
+				if( camera < 0 )
+					continue;
+
+				// W'*dc = B'*(A*dc)
+				int indexA = k*obsLength*6;
+				int indexB = k*obsLength*3;
+				int indexC = camera*6;
+				for( int r = 0; r < obsLength; r++ ) {
+					double a = 0;
+					for( int j = 0; j < 6; j++ ) {
+						a += jacView[indexA+r*6+j]*step[indexC+j];
+					}
+					b0 -= jacPoint[indexB+r*3  ]*a;
+					b1 -= jacPoint[indexB+r*3+1]*a;
+					b2 -= jacPoint[indexB+r*3+2]*a;
+				}
+			}
+
+			int index = point*9;
+			step[indexG  ] = Vinv[index  ]*b0 + Vinv[index+1]*b1 + Vinv[index+2]*b2;
+			step[indexG+1] = Vinv[index+3]*b0 + Vinv[index+4]*b1 + Vinv[index+5]*b2;
+			step[indexG+2] = Vinv[index+6]*b0 + Vinv[index+7]*b1 + Vinv[index+8]*b2;
+		}
+
+		return true;
+	}
+
+	/**
+	 * Computes S = U - W*inv(V)*W' and rhs = -gc + W*inv(V)*gp, only saving the upper triangle of S
+	 */
+	private void computeReducedCameraSystem() {
+		int firstPoint = numCameras*6;
+		Arrays.fill(S,0,colIndex.size*36,0);
+
+		// damped camera blocks
+		for( int camera = 0; camera < numCameras; camera++ ) {
+			int indexS = rowStart[camera]*36;
+			System.arraycopy(U,camera*36,S,indexS,36);
+			for( int i = 0; i < 6; i++ ) {
+				S[indexS+i*7] += lambda*diagonal[camera*6+i];
+				rhs[camera*6+i] = -gradient[camera*6+i];
+			}
+		}
+
+		for( int point = 0; point < numPoints; point++ ) {
+			int start = pointObsStart[point];
+			int end = pointObsStart[point+1];
+			int indexV = point*9;
+			int indexG = firstPoint + point*3;
+			double g0 = gradient[indexG], g1 = gradient[indexG+1], g2 = gradient[indexG+2];
+
+			// compute W = A'*B and Y = W*inv(V) for each observation of an unknown camera
+			for( int i = start; i < end; i++ ) {
+				int k = pointObs[i];
+				if( obsCamera[k] < 0 )
+					continue;
+				int indexA = k*obsLength*6;
+				int indexB = k*obsLength*3;
+				int indexW = (i-start)*18;
+				for( int r = 0; r < 6; r++ ) {
+					double w0 = 0, w1 = 0, w2 = 0;
+					for( int m = 0; m < obsLength; m++ ) {
+						double a = jacView[indexA+m*6+r];
+						w0 += a*jacPoint[indexB+m*3  ];
+						w1 += a*jacPoint[indexB+m*3+1];
+						w2 += a*jacPoint[indexB+m*3+2];
+					}
+					W[indexW+r*3  ] = w0;
+					W[indexW+r*3+1] = w1;
+					W[indexW+r*3+2] = w2;
+					Y[indexW+r*3  ] = w0*Vinv[indexV  ] + w1*Vinv[indexV+3] + w2*Vinv[indexV+6];
+					Y[indexW+r*3+1] = w0*Vinv[indexV+1] + w1*Vinv[indexV+4] + w2*Vinv[indexV+7];
+					Y[indexW+r*3+2] = w0*Vinv[indexV+2] + w1*Vinv[indexV+5] + w2*Vinv[indexV+8];
+				}
+			}
+
+			for( int i = start; i < end; i++ ) {
+				int a = obsCamera[pointObs[i]];
+				if( a < 0 )
+					continue;
+				int indexY = (i-start)*18;
+
+				// rhs_a += Y*gp
+				for( int r = 0; r < 6; r++ ) {
+					rhs[a*6+r] += Y[indexY+r*3]*g0 + Y[indexY+r*3+1]*g1 + Y[indexY+r*3+2]*g2;
+				}
+
+				// S_ab -= Y_i*W_j'.  Observations are sorted by camera so a <= b
+				for( int j = i; j < end; j++ ) {
+					int b = obsCamera[pointObs[j]];
+					int indexW = (j-start)*18;
+					int indexS = findBlock(a,b)*36;
+					subtractMultTransB(Y, indexY, W, indexW, indexS);
+					// the same camera observed the point twice.  The lower triangle isn't saved so
+					// the transposed term needs to be added here
+					if( a == b && i != j )
+						subtractMultTransB(Y, indexW, W, indexY, indexS);
+				}
+			}
+		}
+	}
+
+	/**
+	 * S[indexS] -= A*B' where A and B are 6x3
+	 */
+	private void subtractMultTransB( double A[] , int indexA , double B[] , int indexB , int indexS ) {
+		for( int r = 0; r < 6; r++ ) {
+			double a0 = A[indexA+r*3], a1 = A[indexA+r*3+1], a2 = A[indexA+r*3+2];
+			int indexRow = indexS + r*6;
+			for( int c = 0; c < 6; c++ ) {
+				S[indexRow+c] -= a0*B[indexB+c*3] + a1*B[indexB+c*3+1] + a2*B[indexB+c*3+2];
+			}
+		}
+	}
+
+	/**
+	 * Returns the index of block (a,b) in the upper triangle of the reduced camera system
+	 */
+	private int findBlock( int a , int b ) {
+		if( a == b )
+			return rowStart[a];
+		int index = Arrays.binarySearch(colIndex.data,rowStart[a]+1,rowStart[a+1],b);
+		if( index < 0 )
+			throw new RuntimeException("BUG! Block not in structure");
+		return index;
+	}
+
+	/**
+	 * Solves the reduced camera system using a dense Cholesky decomposition
+	 */
+	private boolean solveDense() {
+		int N = numCameras*6;
+		denseS.reshape(N,N);
+		denseB.reshape(N,1);
+		denseX.reshape(N,1);
+
+		for( int a = 0; a < numCameras; a++ ) {
+			for( int idx = rowStart[a]; idx < rowStart[a+1]; idx++ ) {
+				int b = colIndex.data[idx];
+				int indexS = idx*36;
+				for( int r = 0; r < 6; r++ ) {
+					for( int c = 0; c < 6; c++ ) {
+						double v = S[indexS+r*6+c];
+						denseS.data[(a*6+r)*N + b*6+c] = v;
+						denseS.data[(b*6+c)*N + a*6+r] = v;
+					}
+				}
+			}
+		}
+		// the dense matrix isn't zeroed, so fill in blocks which aren't in the structure
+		for( int a = 0; a < numCameras; a++ ) {
+			int idx = rowStart[a]+1;
+			for( int b = a+1; b < numCameras; b++ ) {
+				if( idx < rowStart[a+1] && colIndex.data[idx] == b ) {
+					idx++;
+					continue;
+				}
+				for( int r = 0; r < 6; r++ ) {
+					for( int c = 0; c < 6; c++ ) {
+						denseS.data[(a*6+r)*N + b*6+c] = 0;
+						denseS.data[(b*6+c)*N + a*6+r] = 0;
+					}
+				}
+			}
+		}
+		System.arraycopy(rhs,0,denseB.data,0,N);
+
+		if( denseSolverSize != N ) {
+			denseSolver = LinearSolverFactory.symmPosDef(N);
+			denseSolverSize = N;
+		}
+		if( !denseSolver.setA(denseS) )
+			return false;
+		denseSolver.solve(denseB,denseX);
+
+		System.arraycopy(denseX.data,0,step,0,N);
+		return true;
+	}
+
+	/**
+	 * Solves the reduced camera system using preconditioned conjugate gradient with a block Jacobi
+	 * preconditioner.
+	 */
+	private boolean solvePCG() {
+		int N = numCameras*6;
+
+		for( int a = 0; a < numCameras; a++ ) {
+			if( !invertSymm6(S, rowStart[a]*36, precond, a*36) )
+				return false;
+		}
+
+		// x = 0, r = b
+		Arrays.fill(step,0,N,0);
+		System.arraycopy(rhs,0,pcgR,0,N);
+		double normB = dot(rhs,rhs,N);
+		if( normB == 0 )
+			return true;
+
+		applyPreconditioner(pcgR,pcgZ);
+		System.arraycopy(pcgZ,0,pcgP,0,N);
+		double rz = dot(pcgR,pcgZ,N);
+
+		for( int iter = 0; iter < maxIterationsPCG; iter++ ) {
+			multS(pcgP,pcgQ);
+			double pq = dot(pcgP,pcgQ,N);
+			if( pq <= 0 )
+				return false;
+			double alpha = rz/pq;
+			for( int i = 0; i < N; i++ ) {
+				step[i] += alpha*pcgP[i];
+				pcgR[i] -= alpha*pcgQ[i];
+			}
+
+			if( dot(pcgR,pcgR,N) <= tolerancePCG*tolerancePCG*normB )
+				break;
+
+			applyPreconditioner(pcgR,pcgZ);
+			double rzNext = dot(pcgR,pcgZ,N);
+			double beta = rzNext/rz;
+			rz = rzNext;
+			for( int i = 0; i < N; i++ ) {
+				pcgP[i] = pcgZ[i] + beta*pcgP[i];
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * out = S*x, where only the upper triangle of S is saved
+	 */
+	private void multS( double x[] , double out[] ) {
+		Arrays.fill(out,0,numCameras*6,0);
+		for( int a = 0; a < numCameras; a++ ) {
+			for( int idx = rowStart[a]; idx < rowStart[a+1]; idx++ ) {
+				int b = colIndex.data[idx];
+				int indexS = idx*36;
+				for( int r = 0; r < 6; r++ ) {
+					double sum = 0;
+					for( int c = 0; c < 6; c++ ) {
+						sum += S[indexS+r*6+c]*x[b*6+c];
+					}
+					out[a*6+r] += sum;
+				}
+				if( a != b ) {
+					for( int c = 0; c < 6; c++ ) {
+						double sum = 0;
+						for( int r = 0; r < 6; r++ ) {
+							sum += S[indexS+r*6+c]*x[a*6+r];
+						}
+						out[b*6+c] += sum;
+					}
+				}
+			}
+		}
+	}
+
+	private void applyPreconditioner( double r[] , double z[] ) {
+		for( int a = 0; a < numCameras; a++ ) {
+			int indexP = a*36;
+			for( int i = 0; i < 6; i++ ) {
+				double sum = 0;
+				for( int j = 0; j < 6; j++ ) {
+					sum += precond[indexP+i*6+j]*r[a*6+j];
+				}
+				z[a*6+i] = sum;
+			}
+		}
+	}
+
+	private static double dot( double a[] , double b[] , int N ) {
+		double sum = 0;
+		for( int i = 0; i < N; i++ ) {
+			sum += a[i]*b[i];
+		}
+		return sum;
+	}
+
+	/**
+	 * Inverts a symmetric 3x3 matrix after adding to its diagonal.
+	 *
+	 * @return false if the matrix isn't positive definite
+	 */
+	private static boolean invertSymm3( double M[] , int index , double d0 , double d1 , double d2 ,
+										double output[] ) {
+		double a = M[index  ]+d0, b = M[index+1], c = M[index+2];
+		double e = M[index+4]+d1, f = M[index+5];
+		double i = M[index+8]+d2;
+
+		double c00 = e*i - f*f;
+		double c01 = c*f - b*i;
+		double c02 = b*f - c*e;
+		double det = a*c00 + b*c01 + c*c02;
+		if( !(det > 0) || !(a > 0) )
+			return false;
+
+		double c11 = a*i - c*c;
+		double c12 = b*c - a*f;
+		double c22 = a*e - b*b;
+
+		output[index  ] = c00/det; output[index+1] = c01/det; output[index+2] = c02/det;
+		output[index+3] = c01/det; output[index+4] = c11/det; output[index+5] = c12/det;
+		output[index+6] = c02/det; output[index+7] = c12/det; output[index+8] = c22/det;
+		return true;
+	}
+
+	/**
+	 * Inverts a symmetric positive definite 6x6 matrix using a Cholesky decomposition
+	 *
+	 * @return false if the matrix isn't positive definite
+	 */
+	private boolean invertSymm6( double M[] , int indexM , double output[] , int indexO ) {
+		double L[] = work6x6;
+		// decompose M = L*L'
+		for( int i = 0; i < 6; i++ ) {
+			for( int j = 0; j <= i; j++ ) {
+				double sum = M[indexM+i*6+j];
+				for( int k = 0; k < j; k++ ) {
+					sum -= L[i*6+k]*L[j*6+k];
+				}
+				if( i == j ) {
+					if( !(sum > 0) )
+						return false;
+					L[i*6+i] = Math.sqrt(sum);
+				} else {
+					L[i*6+j] = sum/L[j*6+j];
+				}
+			}
+		}
+
+		// solve for each column of the identity matrix
+		for( int col = 0; col < 6; col++ ) {
+			// forward substitution L*y = e
+			for( int i = 0; i < 6; i++ ) {
+				double sum = i == col ? 1 : 0;
+				for( int k = 0; k < i; k++ ) {
+					sum -= L[i*6+k]*output[indexO+k*6+col];
+				}
+				output[indexO+i*6+col] = sum/L[i*6+i];
+			}
+			// backward substitution L'*x = y
+			for( int i = 5; i >= 0; i-- ) {
+				double sum = output[indexO+i*6+col];
+				for( int k = i+1; k < 6; k++ ) {
+					sum -= L[k*6+i]*output[indexO+k*6+col];
+				}
+				output[indexO+i*6+col] = sum/L[i*6+i];
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * If the reduced camera system has more parameters than this then PCG is used instead of a
+	 * dense Cholesky decomposition.  Default is 1200.
+	 */
+	public void setMaxDenseParameters(int maxDenseParameters) {
+		this.maxDenseParameters = maxDenseParameters;
+	}
+
+	public int getMaxDenseParameters() {
+		return maxDenseParameters;
+	}
+
+	public void setFtol(double ftol) {
+		this.ftol = ftol;
+	}
+
+	public void setGtol(double gtol) {
+		this.gtol = gtol;
+	}
+
+	public void setMaxIterations(int maxIterations) {
+		this.maxIterations = maxIterations;
+	}
+
+	public void setMaxIterationsPCG(int maxIterationsPCG) {
+		this.maxIterationsPCG = maxIterationsPCG;
+	}
+
+	public void setTolerancePCG(double tolerancePCG) {
+		this.tolerancePCG = tolerancePCG;
+	}
+
+	/**
+	 * Specifies the maximum amount of time the optimization can take.  This is a soft limit.  The time is checked
+	 * before computing a step, before evaluating it, and before computing the next Jacobian, so it can be
+	 * exceeded by the time it takes to do one of those.  Setup which is done before the optimization starts isn't
+	 * included.
+	 *
+	 * @param milliseconds Maximum time in milliseconds.  If &le; 0 then there is no limit.
+	 */
+	public void setMaxTime(long milliseconds) {
+		this.maxTime = milliseconds*1000000L;
+	}
+
+	/**
+	 * Sum of the residuals squared at the start of the last optimization
+	 */
+	public double getInitialCost() {
+		return initialCost;
+	}
+
+	/**
+	 * Sum of the residuals squared after the last optimization
+	 */
+	public double getCost() {
+		return cost;
+	}
+
+	/**
+	 * Number of iterations in the last optimization
+	 */
+	public int getIterations() {
+		return iterations;
+	}
+}
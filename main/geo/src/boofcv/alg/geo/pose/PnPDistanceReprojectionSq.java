@@ -71,6 +71,13 @@ public class PnPDistanceReprojectionSq implements DistanceModelMonoPixels<Se3_F6
 		pixelError = new NormalizedToPixelError(fx,fy,skew);
 	}
 
+	/**
+	 * Returns the intrinsic parameters used to compute the error in pixels
+	 */
+	public NormalizedToPixelError getPixelError() {
+		return pixelError;
+	}
+
 	@Override
 	public void setModel(Se3_F64 worldToCamera) {
 		this.worldToCamera = worldToCamera;
@@ -20,6 +20,7 @@ package boofcv.factory.geo;
 
 import boofcv.abst.geo.*;
 import boofcv.abst.geo.bundle.BundleAdjustmentCalibratedDense;
+import boofcv.abst.geo.bundle.BundleAdjustmentCalibratedSparse;
 import boofcv.abst.geo.f.*;
 import boofcv.abst.geo.h.LeastSquaresHomography;
 import boofcv.abst.geo.h.WrapHomographyLinear;
@@ -65,6 +66,18 @@ public class FactoryMultiView {
 		return new BundleAdjustmentCalibratedDense(tol,maxIterations);
 	}
 
+	/**
+	 * Creates bundle adjustment for a camera with a know and fixed intrinsic calibration which takes advantage
+	 * of the problem's sparse structure.  Should be used instead of {@link #bundleCalibrated} on larger problems.
+	 *
+	 * @param tol Convergence tolerance.  Try 1e-8
+	 * @param maxIterations Maximum number of iterations. Try 200 or more
+	 * @return Bundle Adjustment
+	 */
+	public static BundleAdjustmentCalibrated bundleCalibratedSparse(double tol , int maxIterations) {
+		return new BundleAdjustmentCalibratedSparse(tol,maxIterations);
+	}
+
 	/**
 	 * Returns an algorithm for estimating a homography matrix given a set of
 	 * {@link AssociatedPair}.
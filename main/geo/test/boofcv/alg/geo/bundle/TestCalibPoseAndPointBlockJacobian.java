@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.geo.bundle;
+
+import georegression.struct.se.Se3_F64;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static boofcv.abst.geo.bundle.TestBundleAdjustmentCalibratedDense.createModel;
+import static boofcv.abst.geo.bundle.TestBundleAdjustmentCalibratedDense.createObservations;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestCalibPoseAndPointBlockJacobian {
+
+	Random rand = new Random(48854);
+	int numPoints = 5;
+
+	CalibPoseAndPointRodriguesCodec codec = new CalibPoseAndPointRodriguesCodec();
+
+	@Test
+	public void allUnknown() {
+		compareToDense(false,false,false);
+	}
+
+	@Test
+	public void someKnown() {
+		compareToDense(true,false,true);
+	}
+
+	/**
+	 * Compare the residuals and the Jacobian to the dense implementation
+	 */
+	private void compareToDense( boolean ...known ) {
+		int numViews = known.length;
+		CalibratedPoseAndPoint model = createModel(numViews,numPoints,rand);
+		List<ViewPointObservations> observations = createObservations(model,numViews,numPoints);
+		// don't want the residuals to be zero
+		for( int i = 0; i < numPoints; i++ ) {
+			model.getPoint(i).x += rand.nextGaussian()*0.01;
+		}
+
+		Se3_F64 extrinsic[] = new Se3_F64[numViews];
+		for( int i = 0; i < numViews; i++ ) {
+			model.setViewKnown(i,known[i]);
+			if( known[i] ) {
+				extrinsic[i] = new Se3_F64();
+				extrinsic[i].set(model.getWorldToCamera(i));
+			}
+		}
+
+		codec.configure(numViews,numPoints,model.getNumUnknownViews(),known);
+		double param[] = new double[ codec.getParamLength() ];
+		codec.encode(model,param);
+
+		CalibPoseAndPointResiduals func = new CalibPoseAndPointResiduals();
+		func.configure(codec,model,observations);
+		CalibPoseAndPointRodriguesJacobian dense = new CalibPoseAndPointRodriguesJacobian();
+		dense.configure(observations,numPoints,extrinsic);
+
+		int M = func.getM(), N = func.getN();
+		double expectedResiduals[] = new double[M];
+		double expectedJacobian[] = new double[M*N];
+		func.process(param,expectedResiduals);
+		dense.process(param,expectedJacobian);
+
+		CalibPoseAndPointBlockJacobian alg = new CalibPoseAndPointBlockJacobian();
+		alg.configure(model,observations);
+		assertEquals(N,alg.getParamLength());
+		assertEquals(M,alg.getNumObservations()*2);
+
+		double residuals[] = new double[M];
+		double cost = alg.process(param,residuals,true);
+
+		double expectedCost = 0;
+		for( int i = 0; i < M; i++ ) {
+			assertEquals(expectedResiduals[i],residuals[i],1e-8);
+			expectedCost += expectedResiduals[i]*expectedResiduals[i];
+		}
+		assertEquals(expectedCost,cost,1e-8);
+
+		int firstPoint = model.getNumUnknownViews()*6;
+		for( int k = 0; k < alg.getNumObservations(); k++ ) {
+			int view = 0;
+			while( alg.viewObsStart[view+1] <= k )
+				view++;
+			int camera = alg.viewToUnknown[view];
+			int point = alg.obsPoint[k];
+
+			for( int row = 0; row < 2; row++ ) {
+				int indexRow = (k*2+row)*N;
+				for( int i = 0; i < 3; i++ ) {
+					assertEquals(expectedJacobian[indexRow+firstPoint+point*3+i],alg.jacPoint[k*6+row*3+i],1e-8);
+				}
+				if( camera >= 0 ) {
+					for( int i = 0; i < 6; i++ ) {
+						assertEquals(expectedJacobian[indexRow+camera*6+i],alg.jacView[k*12+row*6+i],1e-8);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * The Jacobian should not be modified when it isn't requested
+	 */
+	@Test
+	public void residualsOnly() {
+		CalibratedPoseAndPoint model = createModel(2,numPoints,rand);
+		List<ViewPointObservations> observations = createObservations(model,2,numPoints);
+
+		codec.configure(2,numPoints,2,model.getKnownArray());
+		double param[] = new double[ codec.getParamLength() ];
+		codec.encode(model,param);
+
+		CalibPoseAndPointBlockJacobian alg = new CalibPoseAndPointBlockJacobian();
+		alg.configure(model,observations);
+		double residuals[] = new double[ alg.getNumObservations()*2 ];
+		alg.process(param,residuals,false);
+
+		for( int i = 0; i < alg.getNumObservations()*6; i++ )
+			assertEquals(0,alg.jacPoint[i],1e-8);
+		for( int i = 0; i < alg.getNumObservations()*12; i++ )
+			assertEquals(0,alg.jacView[i],1e-8);
+	}
+}
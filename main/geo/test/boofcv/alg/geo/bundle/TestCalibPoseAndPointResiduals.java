@@ -19,6 +19,8 @@
 package boofcv.alg.geo.bundle;
 
 import boofcv.alg.geo.GeoTestingOps;
+import boofcv.testing.BoofTesting;
+import boofcv.testing.CompareConcurrent;
 import georegression.struct.point.Point2D_F64;
 import georegression.struct.point.Point3D_F64;
 import georegression.struct.se.Se3_F64;
@@ -29,6 +31,8 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
 
+import static boofcv.abst.geo.bundle.TestBundleAdjustmentCalibratedDense.createModel;
+import static boofcv.abst.geo.bundle.TestBundleAdjustmentCalibratedDense.createObservations;
 import static boofcv.alg.geo.bundle.TestCalibPoseAndPointRodiguesCodec.configure;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
@@ -96,4 +100,38 @@ public class TestCalibPoseAndPointResiduals {
 
 		assertTrue(GeoTestingOps.residualError(residuals) > 1e-8);
 	}
+
+	/**
+	 * Compute the residuals with and without threads.  Should be identical
+	 */
+	@Test
+	public void concurrent() {
+		int numViews = 6;
+		int numPoints = 150;
+
+		final CalibratedPoseAndPoint model = createModel(numViews,numPoints,rand);
+		List<ViewPointObservations> obs = createObservations(model,numViews,numPoints);
+		for( int i = 0; i < numPoints; i++ )
+			model.getPoint(i).x += rand.nextGaussian()*0.01;
+
+		final CalibPoseAndPointResiduals alg = new CalibPoseAndPointResiduals();
+		alg.configure(null,model,obs);
+
+		new CompareConcurrent<double[]>() {
+			@Override
+			protected double[] createOutput() {
+				return new double[alg.getM()];
+			}
+
+			@Override
+			protected void process(double[] output) {
+				alg.process(model,output);
+			}
+
+			@Override
+			protected void compare(double[] expected, double[] found) {
+				BoofTesting.assertEquals(expected,found,0);
+			}
+		}.perform();
+	}
 }
@@ -18,10 +18,13 @@
 
 package boofcv.alg.geo.bundle;
 
+import boofcv.testing.BoofTesting;
+import boofcv.testing.CompareConcurrent;
 import georegression.struct.se.Se3_F64;
 import org.ddogleg.optimization.JacobianChecker;
 import org.junit.Test;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
 
@@ -86,4 +89,50 @@ public class TestCalibPoseAndPointRodiguesJacobian {
 //		JacobianChecker.jacobianPrint(func, alg, param, 1e-6);
 		assertTrue(JacobianChecker.jacobian(func, alg, param, 1e-4));
 	}
+
+	/**
+	 * Compute the Jacobian with and without threads.  Should be identical
+	 */
+	@Test
+	public void concurrent() {
+		int numViews = 6;
+		int numPoints = 150;
+
+		CalibratedPoseAndPoint model = createModel(numViews,numPoints,rand);
+		List<ViewPointObservations> observations = createObservations(model,numViews,numPoints);
+
+		Se3_F64 extrinsic[] = new Se3_F64[numViews];
+		for( int i = 0; i < numViews; i += 2 ) {
+			model.setViewKnown(i,true);
+			extrinsic[i] = new Se3_F64();
+			extrinsic[i].set(model.getWorldToCamera(i));
+		}
+
+		codec.configure(numViews,numPoints,model.getNumUnknownViews(),model.getKnownArray());
+		final double []param = new double[ codec.getParamLength() ];
+		codec.encode(model,param);
+
+		final CalibPoseAndPointRodriguesJacobian alg = new CalibPoseAndPointRodriguesJacobian();
+		alg.configure(observations,numPoints,extrinsic);
+
+		new CompareConcurrent<double[]>() {
+			@Override
+			protected double[] createOutput() {
+				double[] output = new double[ alg.getM()*alg.getN() ];
+				// make sure it's filled in with zeros
+				Arrays.fill(output,2);
+				return output;
+			}
+
+			@Override
+			protected void process(double[] output) {
+				alg.process(param,output);
+			}
+
+			@Override
+			protected void compare(double[] expected, double[] found) {
+				BoofTesting.assertEquals(expected,found,0);
+			}
+		}.perform();
+	}
 }
@@ -0,0 +1,247 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.geo.bundle;
+
+import boofcv.abst.geo.bundle.BundleAdjustmentCalibratedDense;
+import boofcv.alg.geo.GeoTestingOps;
+import georegression.struct.point.Point2D_F64;
+import georegression.struct.point.Point3D_F64;
+import georegression.struct.se.Se3_F64;
+import georegression.transform.se.SePointOps_F64;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static boofcv.abst.geo.bundle.TestBundleAdjustmentCalibratedDense.createModel;
+import static boofcv.abst.geo.bundle.TestBundleAdjustmentCalibratedDense.createObservations;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestCalibPoseAndPointSchurLM {
+
+	Random rand = new Random(234);
+
+	/**
+	 * Each view only sees some of the points, so the reduced camera system is sparse.  Should converge
+	 * to the true solution when using the dense and the PCG solver.
+	 */
+	@Test
+	public void sparseStructure() {
+		for( int maxDense : new int[]{1000,0} ) {
+			CalibratedPoseAndPoint model = createModel(8,40,rand);
+			List<ViewPointObservations> observations = createObservationsWindow(model,10);
+			// first view is known to remove the gauge freedom
+			model.setViewKnown(0,true);
+
+			addNoise(model,1);
+
+			CalibPoseAndPointSchurLM alg = new CalibPoseAndPointSchurLM(1e-15,1e-15,200);
+			alg.setMaxDenseParameters(maxDense);
+
+			assertTrue(computeError(model,observations) > 1e-6);
+			assertTrue(alg.process(model,observations));
+			assertEquals(0,computeError(model,observations),1e-8);
+			assertEquals(0,alg.getCost(),1e-8);
+		}
+	}
+
+	/**
+	 * The dense and PCG solvers should produce the same solution after each iteration
+	 */
+	@Test
+	public void compareDenseToPCG() {
+		CalibratedPoseAndPoint original = createModel(6,30,rand);
+		List<ViewPointObservations> observations = createObservationsWindow(original,12);
+		addNoise(original,0);
+
+		for( int iterations = 1; iterations <= 3; iterations++ ) {
+			CalibratedPoseAndPoint modelDense = copy(original);
+			CalibratedPoseAndPoint modelPCG = copy(original);
+
+			CalibPoseAndPointSchurLM dense = new CalibPoseAndPointSchurLM(0,0,iterations);
+			CalibPoseAndPointSchurLM pcg = new CalibPoseAndPointSchurLM(0,0,iterations);
+			pcg.setMaxDenseParameters(0);
+			pcg.setTolerancePCG(1e-14);
+
+			dense.process(modelDense,observations);
+			pcg.process(modelPCG,observations);
+
+			for( int i = 0; i < original.getNumViews(); i++ ) {
+				Se3_F64 a = modelDense.getWorldToCamera(i);
+				Se3_F64 b = modelPCG.getWorldToCamera(i);
+				assertEquals(0,a.getT().distance(b.getT()),1e-8);
+			}
+			for( int i = 0; i < original.getNumPoints(); i++ ) {
+				assertEquals(0,modelDense.getPoint(i).distance(modelPCG.getPoint(i)),1e-8);
+			}
+		}
+	}
+
+	/**
+	 * Should produce a result which is at least as good as the dense bundle adjustment
+	 */
+	@Test
+	public void compareToDenseBundle() {
+		CalibratedPoseAndPoint original = createModel(3,10,rand);
+		List<ViewPointObservations> observations = createObservations(original,3,10);
+		original.setViewKnown(0,true);
+		addNoise(original,1);
+		// noise in the observations so the solution isn't perfect
+		for( ViewPointObservations v : observations ) {
+			for( int i = 0; i < v.getPoints().size; i++ ) {
+				Point2D_F64 p = v.getPoints().get(i).obs;
+				p.x += rand.nextGaussian()*0.001;
+				p.y += rand.nextGaussian()*0.001;
+			}
+		}
+
+		CalibratedPoseAndPoint modelDense = copy(original);
+		CalibratedPoseAndPoint modelSparse = copy(original);
+
+		new BundleAdjustmentCalibratedDense(1e-12,500).process(modelDense,observations);
+		new CalibPoseAndPointSchurLM(1e-15,1e-15,500).process(modelSparse,observations);
+
+		double errorDense = computeError(modelDense,observations);
+		double errorSparse = computeError(modelSparse,observations);
+
+		assertTrue(errorSparse <= errorDense*1.001);
+	}
+
+	/**
+	 * All the views are known, so only the points are optimized
+	 */
+	@Test
+	public void allViewsKnown() {
+		CalibratedPoseAndPoint model = createModel(3,10,rand);
+		List<ViewPointObservations> observations = createObservations(model,3,10);
+		for( int i = 0; i < 3; i++ )
+			model.setViewKnown(i,true);
+
+		for( int i = 0; i < 10; i++ ) {
+			model.getPoint(i).x += rand.nextGaussian()*0.01;
+			model.getPoint(i).z += rand.nextGaussian()*0.05;
+		}
+
+		CalibPoseAndPointSchurLM alg = new CalibPoseAndPointSchurLM(1e-15,1e-15,200);
+		assertTrue(alg.process(model,observations));
+		assertEquals(0,computeError(model,observations),1e-8);
+	}
+
+	/**
+	 * Processing a smaller problem after a larger one should produce the same results as a new instance
+	 */
+	@Test
+	public void reuse() {
+		CalibratedPoseAndPoint large = createModel(6,30,rand);
+		List<ViewPointObservations> observationsLarge = createObservationsWindow(large,12);
+		addNoise(large,0);
+
+		CalibratedPoseAndPoint small = createModel(3,10,rand);
+		List<ViewPointObservations> observationsSmall = createObservations(small,3,10);
+		addNoise(small,0);
+		CalibratedPoseAndPoint smallCopy = copy(small);
+
+		CalibPoseAndPointSchurLM alg = new CalibPoseAndPointSchurLM(0,0,5);
+		alg.process(large,observationsLarge);
+		alg.process(small,observationsSmall);
+
+		new CalibPoseAndPointSchurLM(0,0,5).process(smallCopy,observationsSmall);
+
+		for( int i = 0; i < small.getNumViews(); i++ ) {
+			Se3_F64 a = small.getWorldToCamera(i);
+			Se3_F64 b = smallCopy.getWorldToCamera(i);
+			assertEquals(0,a.getT().distance(b.getT()),1e-12);
+		}
+		for( int i = 0; i < small.getNumPoints(); i++ ) {
+			assertEquals(0,small.getPoint(i).distance(smallCopy.getPoint(i)),1e-12);
+		}
+	}
+
+	/**
+	 * Adds noise to all the unknown views starting at 'firstView' and all the points
+	 */
+	private void addNoise( CalibratedPoseAndPoint model , int firstView ) {
+		for( int i = firstView; i < model.getNumViews(); i++ ) {
+			Se3_F64 v = model.getWorldToCamera(i);
+			v.getT().x += rand.nextGaussian()*0.01;
+			v.getT().y += rand.nextGaussian()*0.01;
+		}
+		for( int i = 0; i < model.getNumPoints(); i++ ) {
+			Point3D_F64 p = model.getPoint(i);
+			p.x += rand.nextGaussian()*0.005;
+			p.y += rand.nextGaussian()*0.005;
+			p.z += rand.nextGaussian()*0.02;
+		}
+	}
+
+	private CalibratedPoseAndPoint copy( CalibratedPoseAndPoint model ) {
+		CalibratedPoseAndPoint ret = new CalibratedPoseAndPoint();
+		ret.configure(model.getNumViews(),model.getNumPoints());
+		for( int i = 0; i < model.getNumViews(); i++ ) {
+			ret.getWorldToCamera(i).set(model.getWorldToCamera(i));
+			ret.setViewKnown(i,model.isViewKnown(i));
+		}
+		for( int i = 0; i < model.getNumPoints(); i++ ) {
+			ret.getPoint(i).set(model.getPoint(i));
+		}
+		return ret;
+	}
+
+	/**
+	 * Each view observes a contiguous set of points which overlaps with the next view's
+	 */
+	private List<ViewPointObservations> createObservationsWindow( CalibratedPoseAndPoint model , int width ) {
+		int numViews = model.getNumViews();
+		int numPoints = model.getNumPoints();
+		int stride = (numPoints-width)/(numViews-1);
+
+		List<ViewPointObservations> ret = new ArrayList<ViewPointObservations>();
+		Point3D_F64 cameraPt = new Point3D_F64();
+		for( int view = 0; view < numViews; view++ ) {
+			ViewPointObservations l = new ViewPointObservations();
+			Se3_F64 v = model.getWorldToCamera(view);
+
+			int start = view*stride;
+			int end = view == numViews-1 ? numPoints : start + width;
+			for( int j = start; j < end; j++ ) {
+				SePointOps_F64.transform(v,model.getPoint(j),cameraPt);
+				l.getPoints().grow().set(j,new Point2D_F64(cameraPt.x/cameraPt.z,cameraPt.y/cameraPt.z));
+			}
+			ret.add(l);
+		}
+		return ret;
+	}
+
+	private double computeError( CalibratedPoseAndPoint model ,
+								 List<ViewPointObservations> observations )
+	{
+		CalibPoseAndPointResiduals func = new CalibPoseAndPointResiduals();
+		func.configure(null,model,observations);
+		double residuals[] = new double[ func.getM() ];
+
+		func.process(model,residuals);
+
+		return GeoTestingOps.residualError(residuals);
+	}
+}
@@ -19,6 +19,8 @@
 package boofcv.alg.distort;
 
 import boofcv.alg.interpolate.InterpolatePixel;
+import boofcv.alg.interpolate.TypeInterpolate;
+import boofcv.concurrency.BoofConcurrency;
 import boofcv.core.image.GeneralizedImageOps;
 import boofcv.core.image.border.BorderType;
 import boofcv.core.image.border.FactoryImageBorder;
@@ -31,6 +33,7 @@ import boofcv.struct.distort.PixelTransform_F32;
 import boofcv.struct.image.ImageFloat32;
 import boofcv.struct.image.ImageSingleBand;
 import georegression.struct.homo.Homography2D_F32;
+import georegression.struct.point.Point2D_F32;
 
 import java.util.Random;
 
@@ -38,18 +41,20 @@ import java.util.Random;
  * @author Peter Abeles
  */
 public class BenchmarkImageDistort<T extends ImageSingleBand> {
-	public static final int imgWidth = 640;
-	public static final int imgHeight = 480;
-
 	public static final int TEST_TIME = 1000;
 
+	int imgWidth;
+	int imgHeight;
+
 	Class<T> imageType;
 	
 	public T src_F32;
 	public T dst_F32;
 
-	public BenchmarkImageDistort(Class<T> imageType) {
+	public BenchmarkImageDistort(Class<T> imageType, int imgWidth , int imgHeight ) {
 		this.imageType = imageType;
+		this.imgWidth = imgWidth;
+		this.imgHeight = imgHeight;
 		src_F32 = GeneralizedImageOps.createSingleBand(imageType,imgWidth,imgHeight);
 		dst_F32 = GeneralizedImageOps.createSingleBand(imageType,imgWidth,imgHeight);
 	}
@@ -108,6 +113,105 @@ public class BenchmarkImageDistort<T extends ImageSingleBand> {
 		}
 	}
 
+	public class MapSharedBilinear_F32 extends PerformerBase {
+		ImageDistort<T> alg;
+
+		public MapSharedBilinear_F32( PixelTransformCached_F32 shared ) {
+			InterpolatePixel<T> interp = FactoryInterpolation.bilinearPixel(imageType);
+			ImageBorder<T> border = FactoryImageBorder.general(imageType, BorderType.EXTENDED);
+
+			alg = FactoryDistort.distortCached(interp,border,imageType);
+			alg.setModel(new PixelTransformCached_F32(shared));
+		}
+
+		@Override
+		public void process() {
+			alg.apply(src_F32, dst_F32);
+		}
+	}
+
+	public class PrecomputedBilinear_F32 extends PerformerBase {
+		ImageDistort<T> alg;
+
+		public PrecomputedBilinear_F32( PixelTransformCached_F32 shared ) {
+			InterpolatePixel<T> interp = FactoryInterpolation.bilinearPixel(imageType);
+			ImageBorder<T> border = FactoryImageBorder.general(imageType, BorderType.EXTENDED);
+
+			alg = FactoryDistort.distort(interp,border,imageType);
+			alg.setModel(new PixelTransformCached_F32(shared));
+		}
+
+		@Override
+		public void process() {
+			alg.apply(src_F32, dst_F32);
+		}
+	}
+
+	public class ConcurrentBilinear_F32 extends PerformerBase {
+		ImageDistort<T> alg;
+
+		public ConcurrentBilinear_F32( PixelTransformCached_F32 shared ) {
+			alg = FactoryDistort.distortConcurrent(TypeInterpolate.BILINEAR,false,64,imageType);
+			alg.setModel(new PixelTransformCached_F32(shared));
+		}
+
+		@Override
+		public void process() {
+			alg.apply(src_F32, dst_F32);
+		}
+	}
+
+	public class ConcurrentPair_F32 extends PerformerBase {
+		ImageDistort<T> algA,algB;
+		T dstB;
+
+		public ConcurrentPair_F32( PixelTransformCached_F32 shared ) {
+			algA = FactoryDistort.distortConcurrent(TypeInterpolate.BILINEAR,false,64,imageType);
+			algA.setModel(new PixelTransformCached_F32(shared));
+			algB = FactoryDistort.distortConcurrent(TypeInterpolate.BILINEAR,false,64,imageType);
+			algB.setModel(new PixelTransformCached_F32(shared));
+			dstB = (T)dst_F32._createNew(imgWidth,imgHeight);
+		}
+
+		@Override
+		public void process() {
+			DistortImageOps.distortPair(algA,src_F32,dst_F32,algB,src_F32,dstB);
+		}
+	}
+
+	/**
+	 * Compares the amount of memory used by the packed map against one object per pixel
+	 */
+	private void memory( PixelTransform_F32 tran ) {
+		long before = usedMemory();
+		PixelTransformCached_F32 packed = new PixelTransformCached_F32(imgWidth,imgHeight,tran);
+		long afterPacked = usedMemory();
+
+		Point2D_F32 objects[] = new Point2D_F32[imgWidth*imgHeight];
+		int index = 0;
+		for( int y = 0; y < imgHeight; y++ ) {
+			for( int x = 0; x < imgWidth; x++ ) {
+				tran.compute(x,y);
+				objects[index++] = new Point2D_F32(tran.distX,tran.distY);
+			}
+		}
+		long afterObjects = usedMemory();
+
+		System.out.printf("Map memory: packed %6.2f MB   objects %6.2f MB\n",
+				(afterPacked-before)/1024.0/1024.0,(afterObjects-afterPacked)/1024.0/1024.0);
+		// make sure the maps are not garbage collected before being measured
+		if( packed.getMap().length != objects.length*2 )
+			throw new RuntimeException("Unexpected map size");
+		System.out.println();
+	}
+
+	private static long usedMemory() {
+		Runtime runtime = Runtime.getRuntime();
+		for( int i = 0; i < 3; i++ )
+			System.gc();
+		return runtime.totalMemory()-runtime.freeMemory();
+	}
+
 	private void benchmark() {
 		Random rand = new Random(234);
 
@@ -119,16 +223,57 @@ public class BenchmarkImageDistort<T extends ImageSingleBand> {
 		System.out.println("=========  Profile Image Size " + imgWidth + " x " + imgHeight + " ==========");
 		System.out.println();
 
+		PixelTransform_F32 tran = new PixelTransformHomography_F32(affine);
+		memory(tran);
+		PixelTransformCached_F32 shared = new PixelTransformCached_F32(imgWidth,imgHeight,tran);
+
 		ProfileOperation.printOpsPerSec(new MapBilinear_F32(affine),TEST_TIME);
+		ProfileOperation.printOpsPerSec(new MapSharedBilinear_F32(shared),TEST_TIME);
+		ProfileOperation.printOpsPerSec(new PrecomputedBilinear_F32(shared),TEST_TIME);
 		ProfileOperation.printOpsPerSec(new HomographyBilinear_F32(affine),TEST_TIME);
 		ProfileOperation.printOpsPerSec(new HomographyBilinearCrop_F32(affine),TEST_TIME);
 
 	}
 
 
+	/**
+	 * Compares single threaded and concurrent throughput for a single image and a stereo pair
+	 */
+	private void benchmarkConcurrent( int threads ) {
+		Random rand = new Random(234);
+
+		Homography2D_F32 affine = new Homography2D_F32((float)rand.nextGaussian(),(float)rand.nextGaussian(),
+				(float)rand.nextGaussian(),(float)rand.nextGaussian(),(float)rand.nextGaussian(),
+				(float)rand.nextGaussian(),(float)rand.nextGaussian(),(float)rand.nextGaussian(),
+				(float)rand.nextGaussian());
+
+		PixelTransform_F32 tran = new PixelTransformHomography_F32(affine);
+		PixelTransformCached_F32 shared = new PixelTransformCached_F32(imgWidth,imgHeight,tran);
+
+		BoofConcurrency.setMaxThreads(threads);
+
+		System.out.println("=========  Concurrent " + imgWidth + " x " + imgHeight + "  threads = "+threads+" ==========");
+		System.out.println();
+
+		BoofConcurrency.USE_CONCURRENT = false;
+		ProfileOperation.printOpsPerSec(new MapSharedBilinear_F32(shared),TEST_TIME);
+		ProfileOperation.printOpsPerSec(new ConcurrentBilinear_F32(shared),TEST_TIME);
+		ProfileOperation.printOpsPerSec(new ConcurrentPair_F32(shared),TEST_TIME);
+		// each image in the pair is processed in its own thread
+		System.out.println("Image level concurrency:");
+		BoofConcurrency.USE_CONCURRENT = true;
+		ProfileOperation.printOpsPerSec(new ConcurrentPair_F32(shared),TEST_TIME);
+		BoofConcurrency.USE_CONCURRENT = false;
+		System.out.println();
+	}
+
 	public static void main( String args[] ) {
-		BenchmarkImageDistort benchmark = new BenchmarkImageDistort(ImageFloat32.class);
+		BenchmarkImageDistort benchmark = new BenchmarkImageDistort(ImageFloat32.class,640,480);
 
 		benchmark.benchmark();
+
+		int threads = Runtime.getRuntime().availableProcessors();
+		new BenchmarkImageDistort(ImageFloat32.class,1920,1080).benchmarkConcurrent(threads);
+		new BenchmarkImageDistort(ImageFloat32.class,3840,2160).benchmarkConcurrent(threads);
 	}
 }
@@ -19,6 +19,7 @@
 package boofcv.alg.filter.binary;
 
 import boofcv.alg.misc.ImageMiscOps;
+import boofcv.concurrency.BoofConcurrency;
 import boofcv.misc.PerformerBase;
 import boofcv.misc.ProfileOperation;
 import boofcv.struct.image.ImageSInt32;
@@ -27,7 +28,7 @@ import boofcv.struct.image.ImageUInt8;
 import java.util.Random;
 
 /**
- * Benchmark for different convolution operations.
+ * Benchmark for different blob labeling algorithms.
  *
  * @author Peter Abeles
  */
@@ -63,6 +64,38 @@ public class BenchmarkBinaryBlobLabeling {
 		}
 	}
 
+	public static class UnionFind8 extends PerformerBase {
+
+		LinearUnionFindLabel alg = new LinearUnionFindLabel(8);
+
+		@Override
+		public void process() {
+			alg.process(input,output);
+		}
+	}
+
+	public static class UnionFind4 extends PerformerBase {
+
+		LinearUnionFindLabel alg = new LinearUnionFindLabel(4);
+
+		@Override
+		public void process() {
+			alg.process(input,output);
+		}
+	}
+
+	public static class UnionFind8Concurrent extends PerformerBase {
+
+		LinearUnionFindLabel alg = new LinearUnionFindLabel(8);
+
+		@Override
+		public void process() {
+			BoofConcurrency.USE_CONCURRENT = true;
+			alg.process(input,output);
+			BoofConcurrency.USE_CONCURRENT = false;
+		}
+	}
+
 	public static void main(String args[]) {
 		System.out.println("=========  Profile Image Size "+ imgWidth +" x "+ imgHeight  +" ==========");
 
@@ -80,6 +113,9 @@ public class BenchmarkBinaryBlobLabeling {
 
 		ProfileOperation.printOpsPerSec(new NewAlg8(), TEST_TIME);
 		ProfileOperation.printOpsPerSec(new NewAlg4(), TEST_TIME);
+		ProfileOperation.printOpsPerSec(new UnionFind8(), TEST_TIME);
+		ProfileOperation.printOpsPerSec(new UnionFind4(), TEST_TIME);
+		ProfileOperation.printOpsPerSec(new UnionFind8Concurrent(), TEST_TIME);
 
 	}
 }
@@ -21,6 +21,7 @@ package boofcv.alg.filter.binary;
 import boofcv.alg.filter.binary.impl.ImplBinaryInnerOps;
 import boofcv.alg.filter.binary.impl.ImplBinaryNaiveOps;
 import boofcv.alg.misc.ImageMiscOps;
+import boofcv.struct.image.ImageBinaryPacked;
 import boofcv.struct.image.ImageUInt8;
 import com.google.caliper.Runner;
 import com.google.caliper.SimpleBenchmark;
@@ -38,12 +39,20 @@ public class BenchmarkBinaryOps extends SimpleBenchmark {
 
 	static ImageUInt8 input = new ImageUInt8(imgWidth, imgHeight);
 	static ImageUInt8 output = new ImageUInt8(imgWidth, imgHeight);
+	static ImageUInt8 inputB = new ImageUInt8(imgWidth, imgHeight);
+
+	static ImageBinaryPacked packed = new ImageBinaryPacked(imgWidth, imgHeight);
+	static ImageBinaryPacked packedB = new ImageBinaryPacked(imgWidth, imgHeight);
+	static ImageBinaryPacked packedOut = new ImageBinaryPacked(imgWidth, imgHeight);
 
 	public BenchmarkBinaryOps() {
 		Random rand = new Random(234);
 		// test structures and unstructured images
 		// naive is some times faster in unstructured because it can escape earlier
 		ImageMiscOps.fillUniform(input, rand, 0, 1);
+		ImageMiscOps.fillUniform(inputB, rand, 0, 1);
+		BinaryImageOps.pack(input, packed);
+		BinaryImageOps.pack(inputB, packedB);
 //		ImageMiscOps.fillRectangle(input,1,100,200,150,100);
 	}
 
@@ -173,6 +182,96 @@ public class BenchmarkBinaryOps extends SimpleBenchmark {
 		return 0;
 	}
 
+	public int timePackedErode4(int reps) {
+		for( int i = 0; i < reps; i++ )
+			BinaryImageOps.erode4(packed, packedOut);
+		return 0;
+	}
+
+	public int timePackedErode8(int reps) {
+		for( int i = 0; i < reps; i++ )
+			BinaryImageOps.erode8(packed, packedOut);
+		return 0;
+	}
+
+	public int timePackedDilate4(int reps) {
+		for( int i = 0; i < reps; i++ )
+			BinaryImageOps.dilate4(packed, packedOut);
+		return 0;
+	}
+
+	public int timePackedDilate8(int reps) {
+		for( int i = 0; i < reps; i++ )
+			BinaryImageOps.dilate8(packed, packedOut);
+		return 0;
+	}
+
+	public int timePackedEdge4(int reps) {
+		for( int i = 0; i < reps; i++ )
+			BinaryImageOps.edge4(packed, packedOut);
+		return 0;
+	}
+
+	public int timePackedEdge8(int reps) {
+		for( int i = 0; i < reps; i++ )
+			BinaryImageOps.edge8(packed, packedOut);
+		return 0;
+	}
+
+	public int timePackedRemovePointNoise(int reps) {
+		for( int i = 0; i < reps; i++ )
+			BinaryImageOps.removePointNoise(packed, packedOut);
+		return 0;
+	}
+
+	public int timeLogicAnd(int reps) {
+		for( int i = 0; i < reps; i++ )
+			BinaryImageOps.logicAnd(input, inputB, output);
+		return 0;
+	}
+
+	public int timePackedLogicAnd(int reps) {
+		for( int i = 0; i < reps; i++ )
+			BinaryImageOps.logicAnd(packed, packedB, packedOut);
+		return 0;
+	}
+
+	public int timeLogicOr(int reps) {
+		for( int i = 0; i < reps; i++ )
+			BinaryImageOps.logicOr(input, inputB, output);
+		return 0;
+	}
+
+	public int timePackedLogicOr(int reps) {
+		for( int i = 0; i < reps; i++ )
+			BinaryImageOps.logicOr(packed, packedB, packedOut);
+		return 0;
+	}
+
+	public int timeLogicXor(int reps) {
+		for( int i = 0; i < reps; i++ )
+			BinaryImageOps.logicXor(input, inputB, output);
+		return 0;
+	}
+
+	public int timePackedLogicXor(int reps) {
+		for( int i = 0; i < reps; i++ )
+			BinaryImageOps.logicXor(packed, packedB, packedOut);
+		return 0;
+	}
+
+	public int timePack(int reps) {
+		for( int i = 0; i < reps; i++ )
+			BinaryImageOps.pack(input, packedOut);
+		return 0;
+	}
+
+	public int timeUnpack(int reps) {
+		for( int i = 0; i < reps; i++ )
+			BinaryImageOps.unpack(packed, output);
+		return 0;
+	}
+
 	public static void main(String args[]) {
 		System.out.println("=========  Profile Image Size " + imgWidth + " x " + imgHeight + " ==========");
 
@@ -19,8 +19,11 @@
 package boofcv.alg.filter.binary;
 
 import boofcv.alg.misc.ImageMiscOps;
+import boofcv.core.image.ConvertImage;
+import boofcv.struct.image.ImageFloat32;
 import boofcv.struct.image.ImageSInt32;
 import boofcv.struct.image.ImageUInt8;
+import com.google.caliper.Param;
 import com.google.caliper.Runner;
 import com.google.caliper.SimpleBenchmark;
 
@@ -40,6 +43,14 @@ public class BenchmarkThresholding extends SimpleBenchmark {
 	static ImageSInt32 output_S32 = new ImageSInt32(imgWidth, imgHeight);
 	static ImageUInt8 output_U8 = new ImageUInt8(imgWidth, imgHeight);
 	static ImageUInt8 work = new ImageUInt8(imgWidth, imgHeight);
+	static ImageUInt8 work2 = new ImageUInt8(imgWidth, imgHeight);
+
+	static ImageFloat32 input_F32 = new ImageFloat32(imgWidth, imgHeight);
+	static ImageFloat32 work_F32 = new ImageFloat32(imgWidth, imgHeight);
+	static ImageFloat32 work2_F32 = new ImageFloat32(imgWidth, imgHeight);
+
+	// width of the local region
+	@Param({"5", "11", "21", "51", "101"}) private int width;
 
 	static int threshLower = 20;
 	static int threshUpper = 30;
@@ -48,6 +59,7 @@ public class BenchmarkThresholding extends SimpleBenchmark {
 	public BenchmarkThresholding() {
 		Random rand = new Random(234);
 		ImageMiscOps.fillUniform(input, rand, 0, 100);
+		ConvertImage.convert(input, input_F32);
 	}
 
 	public int timeThreshold(int reps) {
@@ -56,6 +68,37 @@ public class BenchmarkThresholding extends SimpleBenchmark {
 		return 0;
 	}
 
+	public int timeLocalMean_U8(int reps) {
+		for( int i = 0; i < reps; i++ )
+			ThresholdImageOps.localMean(input, output_U8, width/2, 0.95f, true, work, work2);
+		return 0;
+	}
+
+	public int timeLocalMean_F32(int reps) {
+		for( int i = 0; i < reps; i++ )
+			ThresholdImageOps.localMean(input_F32, output_U8, width/2, 0.95f, true, work_F32, work2_F32);
+		return 0;
+	}
+
+	public int timeLocalGaussian_U8(int reps) {
+		for( int i = 0; i < reps; i++ )
+			ThresholdImageOps.localGaussian(input, output_U8, width/2, 0.95f, true, work, work2);
+		return 0;
+	}
+
+	public int timeLocalGaussian_F32(int reps) {
+		for( int i = 0; i < reps; i++ )
+			ThresholdImageOps.localGaussian(input_F32, output_U8, width/2, 0.95f, true, work_F32, work2_F32);
+		return 0;
+	}
+
+	public int timeLocalSauvola_F32(int reps) {
+		ThresholdSauvola alg = new ThresholdSauvola(width/2, 0.3f, true);
+		for( int i = 0; i < reps; i++ )
+			alg.process(input_F32, output_U8);
+		return 0;
+	}
+
 	public static void main(String args[]) {
 
 		System.out.println("=========  Profile Image Size " + imgWidth + " x " + imgHeight + " ==========");
@@ -18,13 +18,12 @@
 
 package boofcv.alg.filter.blur;
 
-import boofcv.alg.filter.blur.impl.ImplMedianHistogramInner;
-import boofcv.alg.filter.blur.impl.ImplMedianHistogramInnerNaive;
-import boofcv.alg.filter.blur.impl.ImplMedianSortNaive;
+import boofcv.alg.filter.blur.impl.*;
 import boofcv.alg.misc.ImageMiscOps;
 import boofcv.struct.image.ImageFloat32;
 import boofcv.struct.image.ImageSInt16;
 import boofcv.struct.image.ImageSInt32;
+import boofcv.struct.image.ImageUInt16;
 import boofcv.struct.image.ImageUInt8;
 import com.google.caliper.Param;
 import com.google.caliper.Runner;
@@ -48,14 +47,21 @@ public class BenchmarkMedianFilter extends SimpleBenchmark {
 	static ImageUInt8 out_I8 = new ImageUInt8(imgWidth,imgHeight);
 	static ImageSInt16 out_I16 = new ImageSInt16(imgWidth,imgHeight);
 	static ImageSInt32 out_I32 = new ImageSInt32(imgWidth,imgHeight);
+	static ImageUInt16 imgU16 = new ImageUInt16(imgWidth,imgHeight);
+	static ImageUInt16 out_U16 = new ImageUInt16(imgWidth,imgHeight);
+
+	static ImplMedianHistogramConstant_U8 constant_U8 = new ImplMedianHistogramConstant_U8();
+	static ImplMedianHistogramConstant_U16 constant_U16 = new ImplMedianHistogramConstant_U16();
+	static ImplMedianRankTile_F32 rankTile_F32 = new ImplMedianRankTile_F32();
 
 	// iterate through different sized kernel radius
-	@Param({"1", "2", "3", "5","10"}) private int radius;
+	@Param({"1", "2", "3", "5", "7", "10", "15"}) private int radius;
 
 	public BenchmarkMedianFilter() {
 		Random rand = new Random(234);
 		ImageMiscOps.fillUniform(imgInt8,rand, 0, 100);
 		ImageMiscOps.fillUniform(imgFloat32,rand,0,200);
+		ImageMiscOps.fillUniform(imgU16,rand,0,60000);
 	}
 
 	public int timeBlurImageOps_I8(int reps) {
@@ -70,6 +76,12 @@ public class BenchmarkMedianFilter extends SimpleBenchmark {
 		return 0;
 	}
 
+	public int timeBlurImageOps_U16(int reps) {
+		for( int i = 0; i < reps; i++ )
+			BlurImageOps.median(imgU16,out_U16,radius);
+		return 0;
+	}
+
 	public int timeHistogramNaive_I8(int reps) {
 		for( int i = 0; i < reps; i++ )
 			ImplMedianHistogramInnerNaive.process(imgInt8, out_I8, radius, null, null);
@@ -82,12 +94,36 @@ public class BenchmarkMedianFilter extends SimpleBenchmark {
 		return 0;
 	}
 
+	public int timeHistogramConstant_I8(int reps) {
+		for( int i = 0; i < reps; i++ )
+			constant_U8.process(imgInt8,out_I8,radius);
+		return 0;
+	}
+
+	public int timeHistogramConstant_U16(int reps) {
+		for( int i = 0; i < reps; i++ )
+			constant_U16.process(imgU16,out_U16,radius);
+		return 0;
+	}
+
+	public int timeRankTile_F32(int reps) {
+		for( int i = 0; i < reps; i++ )
+			rankTile_F32.process(imgFloat32,out_F32,radius);
+		return 0;
+	}
+
 	public int timeSortNaive_I8(int reps) {
 		for( int i = 0; i < reps; i++ )
 			ImplMedianSortNaive.process(imgInt8,out_I8,radius,null);
 		return 0;
 	}
 
+	public int timeSortNaive_U16(int reps) {
+		for( int i = 0; i < reps; i++ )
+			ImplMedianSortNaive.process(imgU16,out_U16,radius,null);
+		return 0;
+	}
+
 	public int timeSortNaive_F32(int reps) {
 		for( int i = 0; i < reps; i++ )
 			ImplMedianSortNaive.process(imgFloat32,out_F32,radius,null);
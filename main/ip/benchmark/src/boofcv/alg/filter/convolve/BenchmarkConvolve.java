@@ -20,6 +20,7 @@ package boofcv.alg.filter.convolve;
 
 import boofcv.alg.filter.convolve.noborder.*;
 import boofcv.alg.misc.ImageMiscOps;
+import boofcv.concurrency.BoofConcurrency;
 import boofcv.core.image.border.BorderIndex1D_Extend;
 import boofcv.core.image.border.ImageBorder1D_I32;
 import boofcv.factory.filter.kernel.FactoryKernelGaussian;
@@ -62,6 +63,8 @@ public class BenchmarkConvolve extends SimpleBenchmark {
 
 	// iterate through different sized kernel radius
 	@Param({"1", "2"}) private int radius;
+	// number of threads used by the concurrent algorithms
+	@Param({"1", "2", "4", "8"}) private int threads;
 
 	public BenchmarkConvolve() {
 		ImageMiscOps.fillUniform(input_U8,rand,0,20);
@@ -74,6 +77,7 @@ public class BenchmarkConvolve extends SimpleBenchmark {
 		kernelI32 = FactoryKernelGaussian.gaussian(Kernel1D_I32.class,-1,radius);
 		kernel2D_F32 = FactoryKernelGaussian.gaussian(Kernel2D_F32.class,-1,radius);
 		kernel2D_I32 = FactoryKernelGaussian.gaussian(Kernel2D_I32.class, -1, radius);
+		BoofConcurrency.setMaxThreads(threads);
 	}
 
 	public int timeHorizontal_F32(int reps) {
@@ -235,6 +239,42 @@ public class BenchmarkConvolve extends SimpleBenchmark {
 		return 0;
 	}
 
+	public int timeHorizontal_MT_F32(int reps) {
+		for( int i = 0; i < reps; i++ )
+			ConvolveImageNoBorder_MT.horizontal(kernelF32, input_F32, out_F32, false);
+		return 0;
+	}
+
+	public int timeVertical_MT_F32(int reps) {
+		for( int i = 0; i < reps; i++ )
+			ConvolveImageNoBorder_MT.vertical(kernelF32, input_F32, out_F32, false);
+		return 0;
+	}
+
+	public int timeConvolve2D_MT_F32(int reps) {
+		for( int i = 0; i < reps; i++ )
+			ConvolveImageNoBorder_MT.convolve(kernel2D_F32, input_F32, out_F32);
+		return 0;
+	}
+
+	public int timeHorizontal_MT_U8_I16(int reps) {
+		for( int i = 0; i < reps; i++ )
+			ConvolveImageNoBorder_MT.horizontal(kernelI32, input_U8, out_S16, false);
+		return 0;
+	}
+
+	public int timeVertical_MT_U8_I16(int reps) {
+		for( int i = 0; i < reps; i++ )
+			ConvolveImageNoBorder_MT.vertical(kernelI32, input_U8, out_S16, false);
+		return 0;
+	}
+
+	public int timeConvolve2D_MT_U8_I16(int reps) {
+		for( int i = 0; i < reps; i++ )
+			ConvolveImageNoBorder_MT.convolve(kernel2D_I32, input_U8, out_S16);
+		return 0;
+	}
+
 	public int timeBox_U8_S32_Vertical6(int reps) {
 		for( int i = 0; i < reps; i++ )
 			ImplConvolveBox.vertical(input_U8, out_S32,radius,false);
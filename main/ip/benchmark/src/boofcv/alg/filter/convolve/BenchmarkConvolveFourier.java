@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.filter.convolve;
+
+import boofcv.alg.misc.ImageMiscOps;
+import boofcv.alg.transform.fft.FourierTransformReal2D;
+import boofcv.core.image.border.BorderIndex1D_Extend;
+import boofcv.core.image.border.ImageBorder1D_F32;
+import boofcv.core.image.border.ImageBorder_F32;
+import boofcv.factory.filter.kernel.FactoryKernelGaussian;
+import boofcv.struct.convolve.Kernel1D_F32;
+import boofcv.struct.convolve.Kernel2D_F32;
+import boofcv.struct.image.ImageFloat32;
+import com.google.caliper.Param;
+import com.google.caliper.Runner;
+import com.google.caliper.SimpleBenchmark;
+
+import java.util.Random;
+
+/**
+ * Compares spatial and frequency domain convolution for different kernel sizes.  Used to find the crossover point
+ * in {@link ConvolveImageAuto}.
+ *
+ * @author Peter Abeles
+ */
+public class BenchmarkConvolveFourier extends SimpleBenchmark {
+	static private int imgWidth = 640;
+	static private int imgHeight = 480;
+
+	static private Kernel2D_F32 kernel2D;
+	static private Kernel1D_F32 kernel1D;
+	static private ImageFloat32 input;
+	static private ImageFloat32 output;
+	static private ImageFloat32 storage;
+	static private ImageBorder_F32 border = new ImageBorder1D_F32(BorderIndex1D_Extend.class);
+
+	static private ConvolveFourier fourier = new ConvolveFourier();
+	static private FourierTransformReal2D transform = new FourierTransformReal2D(imgWidth,imgHeight);
+	static private double spectrum[] = transform.createSpectrum();
+
+	// iterate through different sized kernel radius
+	@Param({"1", "2", "3", "5", "7", "10", "15", "25", "40"}) private int radius;
+
+	public BenchmarkConvolveFourier() {
+		input = new ImageFloat32(imgWidth,imgHeight);
+		output = new ImageFloat32(imgWidth,imgHeight);
+		storage = new ImageFloat32(imgWidth,imgHeight);
+
+		Random rand = new Random(234234);
+		ImageMiscOps.fillUniform(input,rand,0,200);
+	}
+
+	@Override protected void setUp() throws Exception {
+		kernel1D = FactoryKernelGaussian.gaussian(Kernel1D_F32.class,-1,radius);
+		kernel2D = FactoryKernelGaussian.gaussian(Kernel2D_F32.class,-1,radius);
+	}
+
+	public int timeSpatial2D(int reps) {
+		for( int i = 0; i < reps; i++ )
+			ConvolveWithBorder.convolve(kernel2D,input,output,border);
+		return 0;
+	}
+
+	public int timeSpatialSeparable(int reps) {
+		for( int i = 0; i < reps; i++ ) {
+			ConvolveWithBorder.horizontal(kernel1D,input,storage,border);
+			ConvolveWithBorder.vertical(kernel1D,storage,output,border);
+		}
+		return 0;
+	}
+
+	public int timeFourier(int reps) {
+		for( int i = 0; i < reps; i++ )
+			fourier.convolve(kernel2D,input,output,border);
+		return 0;
+	}
+
+	public int timeFourierNoCache(int reps) {
+		for( int i = 0; i < reps; i++ )
+			new ConvolveFourier().convolve(kernel2D,input,output,border);
+		return 0;
+	}
+
+	public int timeAuto(int reps) {
+		for( int i = 0; i < reps; i++ )
+			ConvolveImageAuto.convolve(kernel2D,input,output,border,fourier);
+		return 0;
+	}
+
+	public int timeTransformForwardInverse(int reps) {
+		for( int i = 0; i < reps; i++ ) {
+			transform.forward(input,spectrum);
+			transform.inverse(spectrum,output);
+		}
+		return 0;
+	}
+
+	public static void main( String args[] ) {
+		System.out.println("=========  Profile Image Size "+imgWidth+" x "+imgHeight+" ==========");
+
+		Runner.main(BenchmarkConvolveFourier.class, args);
+	}
+}
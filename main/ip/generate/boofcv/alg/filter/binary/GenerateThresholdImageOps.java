@@ -41,6 +41,10 @@ public class GenerateThresholdImageOps extends CodeGeneratorBase {
 		printAll(AutoTypeImage.U16);
 		printAll(AutoTypeImage.S32);
 
+		printLocal(AutoTypeImage.F32);
+		printLocal(AutoTypeImage.U8);
+		printBoxRadius();
+
 		out.print("\n" +
 				"}\n");
 	}
@@ -48,7 +52,8 @@ public class GenerateThresholdImageOps extends CodeGeneratorBase {
 	private void printPreamble() throws FileNotFoundException {
 		setOutputFile(className);
 		out.print("import boofcv.alg.InputSanityCheck;\n" +
-				"import boofcv.misc.BoofMiscOps;\n" +
+				"import boofcv.alg.filter.blur.BlurImageOps;\n" +
+				"import boofcv.factory.filter.kernel.FactoryKernelGaussian;\n" +
 				"import boofcv.struct.image.*;\n" +
 				"\n" +
 				"/**\n" +
@@ -122,6 +127,117 @@ public class GenerateThresholdImageOps extends CodeGeneratorBase {
 				"\t}\n\n");
 	}
 
+	public void printLocal( AutoTypeImage imageIn ) {
+		out.print(
+				"\t/**\n" +
+				"\t * Thresholds the image using a locally adaptive threshold that is computed using a local square region centered\n" +
+				"\t * on each pixel.  The threshold is equal to the average value of the surrounding pixels times the scale.\n" +
+				"\t * If down is true then b(x,y) = I(x,y) <= T(x,y) ? 1 : 0.  Otherwise b(x,y) = I(x,y) >= T(x,y) ? 1 : 0.\n" +
+				"\t * The mean is computed using a box filter so the cost per pixel does not depend on the radius.\n" +
+				"\t *\n" +
+				"\t * @param input Input image.  Not modified.\n" +
+				"\t * @param output (Optional) Output binary image.  If null a new image will be declared. Modified.\n" +
+				"\t * @param radius Radius of the square region.\n" +
+				"\t * @param scale Scale factor applied to the local mean.  Try 0.95.\n" +
+				"\t * @param down Should it threshold up or down.\n" +
+				"\t * @param storage1 (Optional) Storage for intermediate results.  If null a new image will be declared. Modified.\n" +
+				"\t * @param storage2 (Optional) Storage for intermediate results.  If null a new image will be declared. Modified.\n" +
+				"\t * @return Thresholded image.\n" +
+				"\t */\n" +
+				"\tpublic static ImageUInt8 localMean( "+imageIn.getImageName()+" input , ImageUInt8 output ,\n" +
+				"\t\t\t\t\t\t\t\t\t\tint radius , float scale , boolean down ,\n" +
+				"\t\t\t\t\t\t\t\t\t\t"+imageIn.getImageName()+" storage1 , "+imageIn.getImageName()+" storage2 ) {\n" +
+				"\t\toutput = InputSanityCheck.checkDeclare(input,output,ImageUInt8.class);\n" +
+				"\t\tstorage1 = InputSanityCheck.checkDeclare(input,storage1,"+imageIn.getImageName()+".class);\n" +
+				"\t\tstorage2 = InputSanityCheck.checkDeclare(input,storage2,"+imageIn.getImageName()+".class);\n" +
+				"\n" +
+				"\t\t"+imageIn.getImageName()+" mean = storage1;\n" +
+				"\n" +
+				"\t\tBlurImageOps.mean(input,mean,radius,storage2);\n" +
+				"\n" +
+				"\t\treturn thresholdLocal(input, mean, scale, down, output);\n" +
+				"\t}\n" +
+				"\n" +
+				"\t/**\n" +
+				"\t * Thresholds the image using a locally adaptive threshold that is computed using a Gaussian weighted average\n" +
+				"\t * of the surrounding pixels times the scale.  If down is true then b(x,y) = I(x,y) <= T(x,y) ? 1 : 0.\n" +
+				"\t * Otherwise b(x,y) = I(x,y) >= T(x,y) ? 1 : 0.  The Gaussian is approximated by applying a box filter three\n" +
+				"\t * times, so the cost per pixel does not depend on the radius.\n" +
+				"\t *\n" +
+				"\t * @param input Input image.  Not modified.\n" +
+				"\t * @param output (Optional) Output binary image.  If null a new image will be declared. Modified.\n" +
+				"\t * @param radius Radius of the Gaussian kernel.  Sigma is selected based on the radius.\n" +
+				"\t * @param scale Scale factor applied to the local mean.  Try 0.95.\n" +
+				"\t * @param down Should it threshold up or down.\n" +
+				"\t * @param storage1 (Optional) Storage for intermediate results.  If null a new image will be declared. Modified.\n" +
+				"\t * @param storage2 (Optional) Storage for intermediate results.  If null a new image will be declared. Modified.\n" +
+				"\t * @return Thresholded image.\n" +
+				"\t */\n" +
+				"\tpublic static ImageUInt8 localGaussian( "+imageIn.getImageName()+" input , ImageUInt8 output ,\n" +
+				"\t\t\t\t\t\t\t\t\t\t\tint radius , float scale , boolean down ,\n" +
+				"\t\t\t\t\t\t\t\t\t\t\t"+imageIn.getImageName()+" storage1 , "+imageIn.getImageName()+" storage2 ) {\n" +
+				"\t\toutput = InputSanityCheck.checkDeclare(input,output,ImageUInt8.class);\n" +
+				"\t\tstorage1 = InputSanityCheck.checkDeclare(input,storage1,"+imageIn.getImageName()+".class);\n" +
+				"\t\tstorage2 = InputSanityCheck.checkDeclare(input,storage2,"+imageIn.getImageName()+".class);\n" +
+				"\n" +
+				"\t\t"+imageIn.getImageName()+" blur = storage1;\n" +
+				"\n" +
+				"\t\tint boxRadius = boxRadiusForGaussian(radius);\n" +
+				"\t\tBlurImageOps.mean(input,blur,boxRadius,storage2);\n" +
+				"\t\tBlurImageOps.mean(blur,blur,boxRadius,storage2);\n" +
+				"\t\tBlurImageOps.mean(blur,blur,boxRadius,storage2);\n" +
+				"\n" +
+				"\t\treturn thresholdLocal(input, blur, scale, down, output);\n" +
+				"\t}\n" +
+				"\n" +
+				"\t/**\n" +
+				"\t * Pixels are compared against the local threshold, e.g. b(x,y) = I(x,y) <= T(x,y)*scale\n" +
+				"\t */\n" +
+				"\tprivate static ImageUInt8 thresholdLocal( "+imageIn.getImageName()+" input , "+imageIn.getImageName()+" mean ,\n" +
+				"\t\t\t\t\t\t\t\t\t\t\t  float scale , boolean down , ImageUInt8 output ) {\n" +
+				"\t\tfor( int y = 0; y < input.height; y++ ) {\n" +
+				"\t\t\tint indexIn = input.startIndex + y*input.stride;\n" +
+				"\t\t\tint indexMean = mean.startIndex + y*mean.stride;\n" +
+				"\t\t\tint indexOut = output.startIndex + y*output.stride;\n" +
+				"\n" +
+				"\t\t\tint end = indexIn + input.width;\n" +
+				"\n" +
+				"\t\t\tif( down ) {\n" +
+				"\t\t\t\tfor( ; indexIn < end; indexIn++ , indexMean++ , indexOut++ ) {\n" +
+				"\t\t\t\t\tif( (input.data[indexIn]"+imageIn.getBitWise()+") <= (mean.data[indexMean]"+imageIn.getBitWise()+")*scale )\n" +
+				"\t\t\t\t\t\toutput.data[indexOut] = 1;\n" +
+				"\t\t\t\t\telse\n" +
+				"\t\t\t\t\t\toutput.data[indexOut] = 0;\n" +
+				"\t\t\t\t}\n" +
+				"\t\t\t} else {\n" +
+				"\t\t\t\tfor( ; indexIn < end; indexIn++ , indexMean++ , indexOut++ ) {\n" +
+				"\t\t\t\t\tif( (input.data[indexIn]"+imageIn.getBitWise()+") >= (mean.data[indexMean]"+imageIn.getBitWise()+")*scale )\n" +
+				"\t\t\t\t\t\toutput.data[indexOut] = 1;\n" +
+				"\t\t\t\t\telse\n" +
+				"\t\t\t\t\t\toutput.data[indexOut] = 0;\n" +
+				"\t\t\t\t}\n" +
+				"\t\t\t}\n" +
+				"\t\t}\n" +
+				"\n" +
+				"\t\treturn output;\n" +
+				"\t}\n" +
+				"\n");
+	}
+
+	public void printBoxRadius() {
+		out.print(
+				"\t/**\n" +
+				"\t * Selects the radius of a box filter which, when applied three times, approximates a Gaussian with the\n" +
+				"\t * specified radius.  Each pass of a box with width w has a variance of (w*w-1)/12.\n" +
+				"\t */\n" +
+				"\tprivate static int boxRadiusForGaussian( int radius ) {\n" +
+				"\t\tdouble sigma = FactoryKernelGaussian.sigmaForRadius(radius,0);\n" +
+				"\t\tdouble width = Math.sqrt(12.0*sigma*sigma/3.0 + 1.0);\n" +
+				"\t\treturn Math.max(1,(int)Math.round((width-1.0)/2.0));\n" +
+				"\t}\n" +
+				"\n");
+	}
+
 	public static void main( String args[] ) throws FileNotFoundException {
 		GenerateThresholdImageOps app = new GenerateThresholdImageOps();
 		app.generate();
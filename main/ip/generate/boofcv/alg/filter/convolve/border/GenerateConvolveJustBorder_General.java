@@ -48,6 +48,7 @@ public class GenerateConvolveJustBorder_General {
 		printPreamble();
 
 		createMethod(AutoTypeImage.F32);
+		createMethod(AutoTypeImage.F64);
 		createMethod(AutoTypeImage.I16);
 		createMethod(AutoTypeImage.S32);
 
@@ -64,6 +65,10 @@ public class GenerateConvolveJustBorder_General {
 			typeKernel = "I32";
 			dataKernel = "int";
 			typeInput = "ImageBorder_I32";
+		} else if( imageOut == AutoTypeImage.F64 ) {
+			typeKernel = "F64";
+			dataKernel = "double";
+			typeInput = "ImageBorder_F64";
 		} else {
 			typeKernel = "F32";
 			dataKernel = "float";
@@ -102,10 +107,13 @@ public class GenerateConvolveJustBorder_General {
 		out.print("package boofcv.alg.filter.convolve.border;\n" +
 				"\n" +
 				"import boofcv.core.image.border.ImageBorder_F32;\n" +
+				"import boofcv.core.image.border.ImageBorder_F64;\n" +
 				"import boofcv.core.image.border.ImageBorder_I32;\n" +
 				"import boofcv.struct.convolve.Kernel1D_F32;\n" +
+				"import boofcv.struct.convolve.Kernel1D_F64;\n" +
 				"import boofcv.struct.convolve.Kernel1D_I32;\n" +
 				"import boofcv.struct.convolve.Kernel2D_F32;\n" +
+				"import boofcv.struct.convolve.Kernel2D_F64;\n" +
 				"import boofcv.struct.convolve.Kernel2D_I32;\n" +
 				"import boofcv.struct.image.*;\n" +
 				"\n" +
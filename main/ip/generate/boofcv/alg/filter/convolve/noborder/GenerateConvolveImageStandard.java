@@ -48,6 +48,7 @@ public class GenerateConvolveImageStandard extends CodeGeneratorBase {
 		printPreamble();
 		printAllOps(AutoTypeImage.F32, AutoTypeImage.F32, false, false);
 		printAllOps(AutoTypeImage.F32, AutoTypeImage.F32, false, true);
+		printAllOps(AutoTypeImage.F64, AutoTypeImage.F64, false, false);
 		printAllOps(AutoTypeImage.U8, AutoTypeImage.I16, false, false);
 		printAllOps(AutoTypeImage.U8, AutoTypeImage.S32, false, false);
 		printAllOps(AutoTypeImage.S16,AutoTypeImage.I16,false, false);
@@ -63,8 +64,10 @@ public class GenerateConvolveImageStandard extends CodeGeneratorBase {
 	private void printPreamble() throws FileNotFoundException {
 		setOutputFile(className);
 		out.print("import boofcv.struct.convolve.Kernel1D_F32;\n" +
+				"import boofcv.struct.convolve.Kernel1D_F64;\n" +
 				"import boofcv.struct.convolve.Kernel1D_I32;\n" +
 				"import boofcv.struct.convolve.Kernel2D_F32;\n" +
+				"import boofcv.struct.convolve.Kernel2D_F64;\n" +
 				"import boofcv.struct.convolve.Kernel2D_I32;\n" +
 				"import boofcv.struct.image.*;\n");
 		out.println();
@@ -87,15 +90,16 @@ public class GenerateConvolveImageStandard extends CodeGeneratorBase {
 	private void printAllOps(AutoTypeImage input, AutoTypeImage output, boolean hasDivide, boolean hasBound)
 	{
 		boolean isInteger = input.isInteger();
+		boolean isDouble = input == AutoTypeImage.F64;
 
 		typeCast = output.getTypeCastFromSum();
-		kernelType = isInteger ? "I32" : "F32";
+		kernelType = isInteger ? "I32" : (isDouble ? "F64" : "F32");
 		inputType = input.getImageName();
 		outputType = output.getImageName();
-		kernelData = isInteger ? "int" : "float";
+		kernelData = isInteger ? "int" : (isDouble ? "double" : "float");
 		inputData = input.getDataType();
 		outputData = output.getDataType();
-		sumType = isInteger ? "int" : "float";
+		sumType = kernelData;
 		bitWise = input.getBitWise();
 		this.hasDivide = hasDivide;
 		this.hasBound = hasBound;
@@ -20,14 +20,14 @@ package boofcv.abst.filter.blur;
 
 import boofcv.alg.filter.blur.BlurImageOps;
 import boofcv.struct.image.ImageSingleBand;
-import boofcv.testing.BoofTesting;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 
 /**
  * Simplified interface for using a median filter.  Reflections are used to look up a function inside
- * of {@link BlurImageOps} which is then invoked later on.
+ * of {@link BlurImageOps} which is then invoked later on.  The constant time median filter used for large
+ * radii is saved and reused between calls.
  *
  * @author Peter Abeles
  */
@@ -37,6 +37,8 @@ public class MedianImageFilter<T extends ImageSingleBand> implements BlurFilter<
 	private Method m;
 	// size of the blur region
 	private int radius;
+	// constant time median filter passed in as storage
+	private Object storage;
 
 	Class<T> imageType;
 
@@ -44,10 +46,29 @@ public class MedianImageFilter<T extends ImageSingleBand> implements BlurFilter<
 		this.radius = radius;
 		this.imageType = imageType;
 
-		m = BoofTesting.findMethod(BlurImageOps.class,"median",imageType,imageType,int.class);
+		for( Method candidate : BlurImageOps.class.getMethods() ) {
+			Class<?> params[] = candidate.getParameterTypes();
+			if( candidate.getName().equals("median") && params.length == 4 &&
+					params[0] == imageType && params[1] == imageType && params[2] == int.class ) {
+				m = candidate;
+				break;
+			}
+		}
 
 		if( m == null )
 			throw new IllegalArgumentException("Can't find matching function for image type "+imageType.getSimpleName());
+
+		try {
+			storage = m.getParameterTypes()[3].getConstructor().newInstance();
+		} catch (InstantiationException e) {
+			throw new RuntimeException(e);
+		} catch (IllegalAccessException e) {
+			throw new RuntimeException(e);
+		} catch (InvocationTargetException e) {
+			throw new RuntimeException(e);
+		} catch (NoSuchMethodException e) {
+			throw new RuntimeException(e);
+		}
 	}
 
 	/**
@@ -68,7 +89,7 @@ public class MedianImageFilter<T extends ImageSingleBand> implements BlurFilter<
 	@Override
 	public void process(T input, T output) {
 		try {
-			m.invoke(null,input,output,radius);
+			m.invoke(null,input,output,radius,storage);
 		} catch (IllegalAccessException e) {
 			throw new RuntimeException(e);
 		} catch (InvocationTargetException e) {
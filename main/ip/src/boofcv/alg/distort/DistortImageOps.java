@@ -21,6 +21,8 @@ package boofcv.alg.distort;
 import boofcv.alg.distort.impl.DistortSupport;
 import boofcv.alg.interpolate.InterpolatePixel;
 import boofcv.alg.interpolate.TypeInterpolate;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeTask;
 import boofcv.core.image.border.FactoryImageBorder;
 import boofcv.core.image.border.ImageBorder;
 import boofcv.factory.distort.FactoryDistort;
@@ -257,6 +259,46 @@ public class DistortImageOps {
 			distortion.apply(input.getBand(band),output.getBand(band));
 	}
 
+	/**
+	 * Applies two independent distortions, e.g. rectifying the left and right images in a stereo pair.
+	 * If both are {@link ImageDistortConcurrent} the images are processed one after the other, each split
+	 * into tiles across all the threads.  Otherwise, if {@link BoofConcurrency#USE_CONCURRENT} is true then
+	 * each image is processed in its own thread.  The two distorters must not share any internal state.
+	 *
+	 * @param distortA Distortion applied to the first image.
+	 * @param inputA First input image. Not modified.
+	 * @param outputA First output image. Modified.
+	 * @param distortB Distortion applied to the second image.
+	 * @param inputB Second input image. Not modified.
+	 * @param outputB Second output image. Modified.
+	 */
+	public static <T extends ImageBase>
+	void distortPair( final ImageDistort<T> distortA , final T inputA , final T outputA ,
+					  final ImageDistort<T> distortB , final T inputB , final T outputB )
+	{
+		// Nested loops are run in the calling thread, so splitting the pair up would limit the tiled
+		// distorters to two threads
+		boolean tiled = distortA instanceof ImageDistortConcurrent && distortB instanceof ImageDistortConcurrent;
+
+		if( !BoofConcurrency.USE_CONCURRENT || tiled ) {
+			distortA.apply(inputA,outputA);
+			distortB.apply(inputB,outputB);
+			return;
+		}
+
+		BoofConcurrency.loopBlocks(0,2,1,new IntRangeTask() {
+			@Override
+			public void process(int start, int end) {
+				for( int i = start; i < end; i++ ) {
+					if( i == 0 )
+						distortA.apply(inputA,outputA);
+					else
+						distortB.apply(inputB,outputB);
+				}
+			}
+		});
+	}
+
 	/**
 	 * Finds an axis-aligned bounding box which would contain a image after it has been transformed.
 	 * A sanity check is done to made sure it is contained inside the destination image's bounds.
@@ -22,12 +22,19 @@ import boofcv.alg.interpolate.InterpolatePixel;
 import boofcv.core.image.border.ImageBorder;
 import boofcv.struct.distort.PixelTransform_F32;
 import boofcv.struct.image.ImageSingleBand;
-import georegression.struct.point.Point2D_F32;
 
 /**
+ * <p>
  * Except for very simple functions, computing the per pixel distortion is an expensive operation.
  * To overcome this problem the distortion is computed once and cached.  Then when the image is distorted
  * again the save results are simply recalled and not computed again.
+ * </p>
+ *
+ * <p>
+ * The distortion is stored in a packed float array, see {@link PixelTransformCached_F32}.  If the model is
+ * already a {@link PixelTransformCached_F32} of the correct size then its map is used directly, allowing
+ * a single map to be shared between several distorters.  Changing the model discards the cache.
+ * </p>
  *
  * @author Peter Abeles
  */
@@ -35,7 +42,8 @@ public abstract class ImageDistortCache<T extends ImageSingleBand> implements Im
 
 	// size of output image
 	private int width=-1,height=-1;
-	private Point2D_F32 map[];
+	// packed (x,y) source pixel coordinate for each pixel in the output image
+	private float map[];
 	// sub pixel interpolation
 	private InterpolatePixel<T> interp;
 	// handle the image border
@@ -65,6 +73,9 @@ public abstract class ImageDistortCache<T extends ImageSingleBand> implements Im
 	@Override
 	public void setModel(PixelTransform_F32 dstToSrc) {
 		this.dstToSrc = dstToSrc;
+		// the cached map is no longer valid
+		this.width = -1;
+		this.map = null;
 	}
 
 	@Override
@@ -95,17 +106,12 @@ public abstract class ImageDistortCache<T extends ImageSingleBand> implements Im
 		if( width == -1 ) {
 			width = dstImg.width;
 			height = dstImg.height;
-			map = new Point2D_F32[width*height];
-			for( int i = 0; i < map.length; i++ ) {
-				map[i] = new Point2D_F32();
-			}
 
-			int index = 0;
-			for( int y = 0; y < height; y++ ) {
-				for( int x = 0; x < width; x++ ) {
-					dstToSrc.compute(x,y);
-					map[index++].set(dstToSrc.distX,dstToSrc.distY);
-				}
+			if( dstToSrc instanceof PixelTransformCached_F32 &&
+					((PixelTransformCached_F32)dstToSrc).isCompatible(width,height) ) {
+				map = ((PixelTransformCached_F32)dstToSrc).getMap();
+			} else {
+				map = new PixelTransformCached_F32(width,height,dstToSrc).getMap();
 			}
 		} else if( dstImg.width != width || dstImg.height != height )
 			throw new IllegalArgumentException("Unexpected dstImg dimension");
@@ -129,16 +135,18 @@ public abstract class ImageDistortCache<T extends ImageSingleBand> implements Im
 
 		for( int y = y0; y < y1; y++ ) {
 			int indexDst = dstImg.startIndex + dstImg.stride*y + x0;
+			int indexMap = (width*y + x0)*2;
 			for( int x = x0; x < x1; x++ , indexDst++ ) {
-				Point2D_F32 s = map[indexDst];
+				float sx = map[indexMap++];
+				float sy = map[indexMap++];
 
-				if( s.x < minInterpX || s.x >= maxInterpX || s.y < minInterpY || s.y >= maxInterpY ) {
-					if( s.x < 0f || s.x >= widthF || s.y < 0f || s.y >= heightF )
-						assign(indexDst,(float)border.getGeneral((int)s.x,(int)s.y));
+				if( sx < minInterpX || sx >= maxInterpX || sy < minInterpY || sy >= maxInterpY ) {
+					if( sx < 0f || sx >= widthF || sy < 0f || sy >= heightF )
+						assign(indexDst,(float)border.getGeneral((int)sx,(int)sy));
 					else
-						assign(indexDst,interp.get(s.x, s.y));
+						assign(indexDst,interp.get(sx, sy));
 				} else {
-					assign(indexDst,interp.get_unsafe(s.x, s.y));
+					assign(indexDst,interp.get_unsafe(sx, sy));
 				}
 			}
 		}
@@ -155,14 +163,16 @@ public abstract class ImageDistortCache<T extends ImageSingleBand> implements Im
 
 		for( int y = y0; y < y1; y++ ) {
 			int indexDst = dstImg.startIndex + dstImg.stride*y + x0;
+			int indexMap = (width*y + x0)*2;
 			for( int x = x0; x < x1; x++ , indexDst++ ) {
-				Point2D_F32 s = map[indexDst];
+				float sx = map[indexMap++];
+				float sy = map[indexMap++];
 
-				if( s.x < minInterpX || s.x >= maxInterpX || s.y < minInterpY || s.y >= maxInterpY ) {
-					if( s.x >= 0f && s.x < widthF && s.y >= 0f && s.y < heightF )
-						assign(indexDst,interp.get(s.x, s.y));
+				if( sx < minInterpX || sx >= maxInterpX || sy < minInterpY || sy >= maxInterpY ) {
+					if( sx >= 0f && sx < widthF && sy >= 0f && sy < heightF )
+						assign(indexDst,interp.get(sx, sy));
 				} else {
-					assign(indexDst,interp.get_unsafe(s.x, s.y));
+					assign(indexDst,interp.get_unsafe(sx, sy));
 				}
 			}
 		}
@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.distort;
+
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeTask;
+import boofcv.concurrency.WorkerPool;
+import boofcv.struct.distort.PixelTransform_F32;
+import boofcv.struct.image.ImageSingleBand;
+
+/**
+ * <p>
+ * Applies an {@link ImageDistort} concurrently by splitting the output image into square tiles.  Tiles are
+ * ordered row-major and each thread is given a contiguous run of tiles using {@link BoofConcurrency}.  The
+ * tile size should be small enough that the destination tile and the region of the source image it samples
+ * from both fit inside the CPU cache.
+ * </p>
+ *
+ * <p>
+ * Each thread uses its own distort instance, created by {@link #createDistort()}, since interpolation and
+ * transform instances are not thread safe.  The distortion is precomputed into a {@link PixelTransformCached_F32}
+ * the first time it is applied, or used directly if the model is already a {@link PixelTransformCached_F32}
+ * for the output image's size.  All the threads then read from the same map.  Changing the model discards the map.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public abstract class ImageDistortConcurrent<T extends ImageSingleBand> implements ImageDistort<T> {
+
+	// width and height of a tile in pixels
+	private int tileSize;
+
+	// distortion model from the dst to src image
+	private PixelTransform_F32 dstToSrc;
+	// precomputed distortion for every pixel in the output image
+	private PixelTransformCached_F32 cached;
+
+	// distorters which are not currently being used by a thread
+	private final WorkerPool<Worker> workers = new WorkerPool<Worker>() {
+		@Override
+		protected Worker createInstance() {
+			return new Worker(createDistort());
+		}
+	};
+
+	/**
+	 * Configures the tile size
+	 *
+	 * @param tileSize Width and height of a tile in pixels.  Try 64.
+	 */
+	protected ImageDistortConcurrent( int tileSize ) {
+		if( tileSize <= 0 )
+			throw new IllegalArgumentException("Tile size must be more than zero");
+		this.tileSize = tileSize;
+	}
+
+	/**
+	 * Creates a new distort instance which will be used by a single thread.  The returned
+	 * instance must not share interpolation or border instances with any other.  Can be called by
+	 * several threads at the same time.
+	 */
+	protected abstract ImageDistort<T> createDistort();
+
+	@Override
+	public void setModel(PixelTransform_F32 dstToSrc) {
+		this.dstToSrc = dstToSrc;
+		// the precomputed map is no longer valid
+		this.cached = null;
+	}
+
+	@Override
+	public void apply(T srcImg, T dstImg) {
+		apply(srcImg, dstImg, 0, 0, dstImg.width, dstImg.height);
+	}
+
+	@Override
+	public void apply(final T srcImg, final T dstImg, final int dstX0, final int dstY0, int dstX1, int dstY1) {
+		if( cached == null ) {
+			if( dstToSrc instanceof PixelTransformCached_F32 &&
+					((PixelTransformCached_F32)dstToSrc).isCompatible(dstImg.width,dstImg.height) ) {
+				cached = (PixelTransformCached_F32)dstToSrc;
+			} else {
+				cached = new PixelTransformCached_F32(dstImg.width,dstImg.height,dstToSrc);
+			}
+		} else if( !cached.isCompatible(dstImg.width,dstImg.height) )
+			throw new IllegalArgumentException("Unexpected dstImg dimension");
+
+		final int numCols = (dstX1-dstX0+tileSize-1)/tileSize;
+		final int numRows = (dstY1-dstY0+tileSize-1)/tileSize;
+
+		if( numCols <= 0 || numRows <= 0 )
+			return;
+
+		final int x1 = dstX1, y1 = dstY1;
+
+		BoofConcurrency.loopBlocks(0, numCols*numRows, 1, new IntRangeTask() {
+			@Override
+			public void process(int start, int end) {
+				Worker w = borrow();
+				try {
+					for( int tile = start; tile < end; tile++ ) {
+						int tx0 = dstX0 + (tile % numCols)*tileSize;
+						int ty0 = dstY0 + (tile / numCols)*tileSize;
+						int tx1 = Math.min(x1, tx0 + tileSize);
+						int ty1 = Math.min(y1, ty0 + tileSize);
+
+						w.alg.apply(srcImg, dstImg, tx0, ty0, tx1, ty1);
+					}
+				} finally {
+					workers.release(w);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Gets a distort which isn't being used by another thread and makes sure it's using the latest map
+	 */
+	private Worker borrow() {
+		Worker w = workers.borrow();
+
+		if( w.model == null || w.model.getMap() != cached.getMap() ) {
+			w.model = new PixelTransformCached_F32(cached);
+			w.alg.setModel(w.model);
+		}
+
+		return w;
+	}
+
+	public int getTileSize() {
+		return tileSize;
+	}
+
+	/**
+	 * Distort used by a single thread and its view of the shared map
+	 */
+	private class Worker {
+		ImageDistort<T> alg;
+		PixelTransformCached_F32 model;
+
+		Worker(ImageDistort<T> alg) {
+			this.alg = alg;
+		}
+	}
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.distort;
+
+import boofcv.struct.distort.PixelTransform_F32;
+
+/**
+ * <p>
+ * Precomputes the output of another {@link PixelTransform_F32} for every pixel inside an image and
+ * stores the results in a single packed float array.  For each pixel the x and y coordinates are stored
+ * next to each other, in row-major order.  This avoids creating one object per pixel and is much more cache
+ * friendly when the map is traversed.
+ * </p>
+ *
+ * <p>
+ * The map can be shared between several instances, e.g. one for each thread or distorter, by using the
+ * {@link #PixelTransformCached_F32(PixelTransformCached_F32) copy constructor}.  The map is treated as read only
+ * after it has been computed, but each instance has its own output so a single instance should not be
+ * used by more than one thread at a time.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class PixelTransformCached_F32 extends PixelTransform_F32 {
+
+	// size of the image the map was computed for
+	private int width;
+	private int height;
+
+	// packed (x,y) coordinates for each pixel
+	private float map[];
+
+	/**
+	 * Computes the map by applying the transform to every pixel in the image.
+	 *
+	 * @param width Image width
+	 * @param height Image height
+	 * @param transform The transform which is being cached.  Not modified.
+	 */
+	public PixelTransformCached_F32( int width , int height , PixelTransform_F32 transform ) {
+		this.width = width;
+		this.height = height;
+		this.map = new float[width*height*2];
+
+		int index = 0;
+		for( int y = 0; y < height; y++ ) {
+			for( int x = 0; x < width; x++ ) {
+				transform.compute(x,y);
+				map[index++] = transform.distX;
+				map[index++] = transform.distY;
+			}
+		}
+	}
+
+	/**
+	 * Creates a new instance which references the same map as the original.  No data is copied.
+	 *
+	 * @param original The transform whose map is to be shared.
+	 */
+	public PixelTransformCached_F32( PixelTransformCached_F32 original ) {
+		this.width = original.width;
+		this.height = original.height;
+		this.map = original.map;
+	}
+
+	@Override
+	public void compute(int x, int y) {
+		if( x < 0 || y < 0 || x >= width || y >= height )
+			throw new IllegalArgumentException("Pixel is outside of the cached map");
+
+		int index = (y*width + x)*2;
+		distX = map[index];
+		distY = map[index+1];
+	}
+
+	/**
+	 * Returns true if the map was computed for an image of the specified size
+	 */
+	public boolean isCompatible( int width , int height ) {
+		return this.width == width && this.height == height;
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * Internal array containing the packed map.  Should not be modified.
+	 */
+	public float[] getMap() {
+		return map;
+	}
+}
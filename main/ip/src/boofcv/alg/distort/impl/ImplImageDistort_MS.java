@@ -24,7 +24,8 @@ import boofcv.struct.image.ImageSingleBand;
 import boofcv.struct.image.MultiSpectral;
 
 /**
- * Implementation of {@link ImageDistort} for {@link MultiSpectral} images.
+ * Implementation of {@link ImageDistort} for {@link MultiSpectral} images.  The same single band distort
+ * is used for every band, so if it caches the distortion the cache is computed once and shared by all the bands.
  * 
  * @author Peter Abeles
  */
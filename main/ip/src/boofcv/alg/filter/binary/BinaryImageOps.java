@@ -21,7 +21,10 @@ package boofcv.alg.filter.binary;
 import boofcv.alg.InputSanityCheck;
 import boofcv.alg.filter.binary.impl.ImplBinaryBorderOps;
 import boofcv.alg.filter.binary.impl.ImplBinaryInnerOps;
+import boofcv.alg.filter.binary.impl.ImplBinaryPackedOps;
 import boofcv.alg.misc.ImageMiscOps;
+import boofcv.struct.image.ImageBase;
+import boofcv.struct.image.ImageBinaryPacked;
 import boofcv.struct.image.ImageSInt32;
 import boofcv.struct.image.ImageUInt8;
 import georegression.struct.point.Point2D_I32;
@@ -41,6 +44,11 @@ import java.util.Random;
  * NOTE: If an element's value is not zero or one then each function's behavior is undefined.
  * </p>
  *
+ * <p>
+ * Most operations are also provided for {@link ImageBinaryPacked}, which stores 64 pixels in each long and
+ * processes them all at once.  Use {@link #pack} and {@link #unpack} to convert between the two formats.
+ * </p>
+ *
  * @author Peter Abeles
  */
 /*
@@ -276,6 +284,229 @@ public class BinaryImageOps {
 		return output;
 	}
 
+	/**
+	 * For each pixel it applies the logical 'and' operator between two images.  Packed image version.
+	 *
+	 * @param inputA First input image. Not modified.
+	 * @param inputB Second input image. Not modified.
+	 * @param output Output image. Can be same as either input.  If null a new instance will be declared, Modified.
+	 * @return Output of logical operation.
+	 */
+	public static ImageBinaryPacked logicAnd( ImageBinaryPacked inputA , ImageBinaryPacked inputB ,
+											ImageBinaryPacked output )
+	{
+		InputSanityCheck.checkSameShape(inputA,inputB);
+		output = checkDeclare(inputA, output);
+
+		ImplBinaryPackedOps.logicAnd(inputA, inputB, output);
+
+		return output;
+	}
+
+	/**
+	 * For each pixel it applies the logical 'or' operator between two images.  Packed image version.
+	 *
+	 * @param inputA First input image. Not modified.
+	 * @param inputB Second input image. Not modified.
+	 * @param output Output image. Can be same as either input.  If null a new instance will be declared, Modified.
+	 * @return Output of logical operation.
+	 */
+	public static ImageBinaryPacked logicOr( ImageBinaryPacked inputA , ImageBinaryPacked inputB ,
+											ImageBinaryPacked output )
+	{
+		InputSanityCheck.checkSameShape(inputA,inputB);
+		output = checkDeclare(inputA, output);
+
+		ImplBinaryPackedOps.logicOr(inputA, inputB, output);
+
+		return output;
+	}
+
+	/**
+	 * For each pixel it applies the logical 'xor' operator between two images.  Packed image version.
+	 *
+	 * @param inputA First input image. Not modified.
+	 * @param inputB Second input image. Not modified.
+	 * @param output Output image. Can be same as either input.  If null a new instance will be declared, Modified.
+	 * @return Output of logical operation.
+	 */
+	public static ImageBinaryPacked logicXor( ImageBinaryPacked inputA , ImageBinaryPacked inputB ,
+											ImageBinaryPacked output )
+	{
+		InputSanityCheck.checkSameShape(inputA,inputB);
+		output = checkDeclare(inputA, output);
+
+		ImplBinaryPackedOps.logicXor(inputA, inputB, output);
+
+		return output;
+	}
+
+	/**
+	 * Erodes an image according to a 4-neighborhood.  Unless a pixel is connected to all its neighbors its value
+	 * is set to zero.  Packed image version.
+	 *
+	 * @param input  Input image. Not modified.
+	 * @param output If not null, the output image.  Can be the same as the input.  If null a new image is declared
+	 *               and returned.  Modified.
+	 * @return Output image.
+	 */
+	public static ImageBinaryPacked erode4(ImageBinaryPacked input, ImageBinaryPacked output) {
+		output = checkDeclare(input, output);
+
+		ImplBinaryPackedOps.erode4(input, output);
+
+		return output;
+	}
+
+	/**
+	 * Dilates an image according to a 4-neighborhood.  If a pixel is connected to any other pixel then its output
+	 * value will be one.  Packed image version.
+	 *
+	 * @param input  Input image. Not modified.
+	 * @param output If not null, the output image.  Can be the same as the input.  If null a new image is declared
+	 *               and returned.  Modified.
+	 * @return Output image.
+	 */
+	public static ImageBinaryPacked dilate4(ImageBinaryPacked input, ImageBinaryPacked output) {
+		output = checkDeclare(input, output);
+
+		ImplBinaryPackedOps.dilate4(input, output);
+
+		return output;
+	}
+
+	/**
+	 * Binary operation which is designed to remove all pixels but ones which are on the edge of an object.
+	 * The edge is defined as lying on the object and not being surrounded by a pixel along a 4-neighborhood.  Packed image version.
+	 *
+	 * @param input  Input image. Not modified.
+	 * @param output If not null, the output image.  Can be the same as the input.  If null a new image is declared
+	 *               and returned.  Modified.
+	 * @return Output image.
+	 */
+	public static ImageBinaryPacked edge4(ImageBinaryPacked input, ImageBinaryPacked output) {
+		output = checkDeclare(input, output);
+
+		ImplBinaryPackedOps.edge4(input, output);
+
+		return output;
+	}
+
+	/**
+	 * Erodes an image according to a 8-neighborhood.  Unless a pixel is connected to all its neighbors its value
+	 * is set to zero.  Packed image version.
+	 *
+	 * @param input  Input image. Not modified.
+	 * @param output If not null, the output image.  Can be the same as the input.  If null a new image is declared
+	 *               and returned.  Modified.
+	 * @return Output image.
+	 */
+	public static ImageBinaryPacked erode8(ImageBinaryPacked input, ImageBinaryPacked output) {
+		output = checkDeclare(input, output);
+
+		ImplBinaryPackedOps.erode8(input, output);
+
+		return output;
+	}
+
+	/**
+	 * Dilates an image according to a 8-neighborhood.  If a pixel is connected to any other pixel then its output
+	 * value will be one.  Packed image version.
+	 *
+	 * @param input  Input image. Not modified.
+	 * @param output If not null, the output image.  Can be the same as the input.  If null a new image is declared
+	 *               and returned.  Modified.
+	 * @return Output image.
+	 */
+	public static ImageBinaryPacked dilate8(ImageBinaryPacked input, ImageBinaryPacked output) {
+		output = checkDeclare(input, output);
+
+		ImplBinaryPackedOps.dilate8(input, output);
+
+		return output;
+	}
+
+	/**
+	 * Binary operation which is designed to remove all pixels but ones which are on the edge of an object.
+	 * The edge is defined as lying on the object and not being surrounded by 8 pixels.  Packed image version.
+	 *
+	 * @param input  Input image. Not modified.
+	 * @param output If not null, the output image.  Can be the same as the input.  If null a new image is declared
+	 *               and returned.  Modified.
+	 * @return Output image.
+	 */
+	public static ImageBinaryPacked edge8(ImageBinaryPacked input, ImageBinaryPacked output) {
+		output = checkDeclare(input, output);
+
+		ImplBinaryPackedOps.edge8(input, output);
+
+		return output;
+	}
+
+	/**
+	 * Binary operation which is designed to remove small bits of spurious noise.  An 8-neighborhood is used.
+	 * If a pixel is connected to less than 2 neighbors then its value zero.  If connected to more than 6 then
+	 * its value is one.  Otherwise it retains its original value.  Packed image version.
+	 *
+	 * @param input  Input image. Not modified.
+	 * @param output If not null, the output image.  Can be the same as the input.  If null a new image is declared
+	 *               and returned.  Modified.
+	 * @return Output image.
+	 */
+	public static ImageBinaryPacked removePointNoise(ImageBinaryPacked input, ImageBinaryPacked output) {
+		output = checkDeclare(input, output);
+
+		ImplBinaryPackedOps.removePointNoise(input, output);
+
+		return output;
+	}
+
+	/**
+	 * Converts a binary image into a packed binary image.
+	 *
+	 * @param input Input binary image. Any non-zero value is true.  Not modified.
+	 * @param output (Optional) Output packed image.  If null a new image is declared.  Modified.
+	 * @return The packed image.
+	 */
+	public static ImageBinaryPacked pack( ImageUInt8 input , ImageBinaryPacked output ) {
+		output = checkDeclare(input, output);
+
+		ImplBinaryPackedOps.pack(input, output);
+
+		return output;
+	}
+
+	/**
+	 * Converts a packed binary image into a binary image with values of 0 and 1.
+	 *
+	 * @param input Input packed image. Not modified.
+	 * @param output (Optional) Output binary image.  If null a new image is declared.  Modified.
+	 * @return The binary image.
+	 */
+	public static ImageUInt8 unpack( ImageBinaryPacked input , ImageUInt8 output ) {
+		if( output == null ) {
+			output = new ImageUInt8(input.width,input.height);
+		} else {
+			InputSanityCheck.checkSameShape(input,output);
+		}
+
+		ImplBinaryPackedOps.unpack(input, output);
+
+		return output;
+	}
+
+	/**
+	 * Declares a packed image of the same shape as the input if the output is null, otherwise checks its shape.
+	 */
+	private static ImageBinaryPacked checkDeclare( ImageBase input , ImageBinaryPacked output ) {
+		if( output == null ) {
+			return new ImageBinaryPacked(input.width,input.height);
+		} else {
+			InputSanityCheck.checkSameShape(input,output);
+			return output;
+		}
+	}
+
 	/**
 	 * <p>
 	 * Given a binary image, connect together pixels to form blobs/clusters using the specified connectivity rule.
@@ -309,6 +540,31 @@ public class BinaryImageOps {
 		return alg.getContours().toList();
 	}
 
+	/**
+	 * Given a binary image, connect together pixels to form blobs/clusters using the specified connectivity rule.
+	 * The found blobs are labeled in the output image.  Contours are not computed, making this faster than
+	 * {@link #contour(boofcv.struct.image.ImageUInt8, int, boofcv.struct.image.ImageSInt32)}.  Labels are
+	 * assigned in the same order.
+	 *
+	 * @see LinearUnionFindLabel
+	 *
+	 * @param input Input binary image.  Not modified.
+	 * @param rule Connectivity rule.  Can be 4 or 8.  8 is more commonly used.
+	 * @param output (Optional) Output labeled image. If null, an image will be declared internally.  Modified.
+	 * @return Number of blobs found.
+	 */
+	public static int labelBlobs(ImageUInt8 input, int rule, ImageSInt32 output) {
+		if( output == null ) {
+			output = new ImageSInt32(input.width,input.height);
+		} else {
+			InputSanityCheck.checkSameShape(input,output);
+		}
+
+		LinearUnionFindLabel alg = new LinearUnionFindLabel(rule);
+		alg.process(input,output);
+		return alg.getNumberOfBlobs();
+	}
+
 	/**
 	 * Used to change the labels in a labeled binary image.
 	 *
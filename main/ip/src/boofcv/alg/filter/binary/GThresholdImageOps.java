@@ -18,6 +18,7 @@
 
 package boofcv.alg.filter.binary;
 
+import boofcv.core.image.ConvertImage;
 import boofcv.struct.image.*;
 
 
@@ -48,4 +49,92 @@ public class GThresholdImageOps {
 			throw new IllegalArgumentException("Unknown image type: "+input.getClass().getSimpleName());
 		}
 	}
+
+	/**
+	 * Applies a threshold computed from the mean of the local square region around each pixel.
+	 * See {@link ThresholdImageOps#localMean(ImageUInt8, ImageUInt8, int, float, boolean, ImageUInt8, ImageUInt8)}
+	 *
+	 * @param input Input image.  Not modified.
+	 * @param output (Optional) Output binary image.  If null a new image will be declared. Modified.
+	 * @param radius Radius of the square region.
+	 * @param scale Scale factor applied to the local mean.  Try 0.95.
+	 * @param down Should it threshold up or down.
+	 * @param storage1 (Optional) Storage for intermediate results.  If null a new image will be declared. Modified.
+	 * @param storage2 (Optional) Storage for intermediate results.  If null a new image will be declared. Modified.
+	 * @return Thresholded image.
+	 */
+	public static <T extends ImageSingleBand>
+	ImageUInt8 localMean( T input , ImageUInt8 output ,
+						  int radius , double scale , boolean down ,
+						  T storage1 , T storage2 )
+	{
+		if( input instanceof ImageFloat32 ) {
+			return ThresholdImageOps.localMean((ImageFloat32)input,output,radius,(float)scale,down,
+					(ImageFloat32)storage1,(ImageFloat32)storage2);
+		} else if( input instanceof ImageUInt8 ) {
+			return ThresholdImageOps.localMean((ImageUInt8)input,output,radius,(float)scale,down,
+					(ImageUInt8)storage1,(ImageUInt8)storage2);
+		} else {
+			throw new IllegalArgumentException("Unknown image type: "+input.getClass().getSimpleName());
+		}
+	}
+
+	/**
+	 * Applies a threshold computed from the Gaussian weighted mean of the region around each pixel.
+	 * See {@link ThresholdImageOps#localGaussian(ImageUInt8, ImageUInt8, int, float, boolean, ImageUInt8, ImageUInt8)}
+	 *
+	 * @param input Input image.  Not modified.
+	 * @param output (Optional) Output binary image.  If null a new image will be declared. Modified.
+	 * @param radius Radius of the Gaussian kernel.
+	 * @param scale Scale factor applied to the local mean.  Try 0.95.
+	 * @param down Should it threshold up or down.
+	 * @param storage1 (Optional) Storage for intermediate results.  If null a new image will be declared. Modified.
+	 * @param storage2 (Optional) Storage for intermediate results.  If null a new image will be declared. Modified.
+	 * @return Thresholded image.
+	 */
+	public static <T extends ImageSingleBand>
+	ImageUInt8 localGaussian( T input , ImageUInt8 output ,
+							  int radius , double scale , boolean down ,
+							  T storage1 , T storage2 )
+	{
+		if( input instanceof ImageFloat32 ) {
+			return ThresholdImageOps.localGaussian((ImageFloat32)input,output,radius,(float)scale,down,
+					(ImageFloat32)storage1,(ImageFloat32)storage2);
+		} else if( input instanceof ImageUInt8 ) {
+			return ThresholdImageOps.localGaussian((ImageUInt8)input,output,radius,(float)scale,down,
+					(ImageUInt8)storage1,(ImageUInt8)storage2);
+		} else {
+			throw new IllegalArgumentException("Unknown image type: "+input.getClass().getSimpleName());
+		}
+	}
+
+	/**
+	 * Applies {@link ThresholdSauvola Sauvola} thresholding to the input image.  Intended for use with
+	 * images which have values from 0 to 255.
+	 *
+	 * @param input Input image.  Not modified.
+	 * @param output (Optional) Output binary image.  If null a new image will be declared. Modified.
+	 * @param radius Radius of the local region.
+	 * @param k Positive parameter which controls the effect of the standard deviation.  Try 0.3
+	 * @param down Should it threshold up or down.
+	 * @return Thresholded image.
+	 */
+	public static <T extends ImageSingleBand>
+	ImageUInt8 localSauvola( T input , ImageUInt8 output , int radius , float k , boolean down )
+	{
+		ThresholdSauvola alg = new ThresholdSauvola(radius,k,down);
+
+		if( output == null )
+			output = new ImageUInt8(input.width,input.height);
+
+		if( input instanceof ImageFloat32 ) {
+			alg.process((ImageFloat32)input,output);
+		} else if( input instanceof ImageUInt8 ) {
+			alg.process(ConvertImage.convert((ImageUInt8)input,(ImageFloat32)null),output);
+		} else {
+			throw new IllegalArgumentException("Unknown image type: "+input.getClass().getSimpleName());
+		}
+
+		return output;
+	}
 }
@@ -0,0 +1,559 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.filter.binary;
+
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeTask;
+import boofcv.struct.ImageRectangle;
+import boofcv.struct.image.ImageSInt32;
+import boofcv.struct.image.ImageUInt8;
+import georegression.struct.point.Point2D_F64;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>
+ * Labels blobs in a binary image using union-find and computes the area, bounding box, and centroid of each blob.
+ * Unlike {@link LinearContourLabelChang2004} contours are not traced, which makes it a better choice when only
+ * the labeled image and simple blob statistics are needed.  Blobs can be defined using a 4 or 8 connect rule.
+ * </p>
+ *
+ * <p>
+ * The image is scanned once in raster order and each pixel is given a provisional label based on the pixels
+ * above and to the left of it using the decision tree from [1].  When two provisional labels are found to be
+ * connected their sets are merged.  Pixels are processed as horizontal runs, which allows the statistics to be
+ * updated once per run instead of once per pixel.  The sets are then flattened into the final labels and the
+ * labeled image is updated in a second pass.  Blob labels start at 1 and are assigned in the order which a blob
+ * is first encountered in a raster scan, the same as {@link LinearContourLabelChang2004}.  Background pixels are
+ * given a value of 0.
+ * </p>
+ *
+ * <p>
+ * If {@link BoofConcurrency#USE_CONCURRENT} is true then the image is split into horizontal strips which are
+ * labeled independently.  Provisional labels which touch across the boundary between strips are then merged
+ * before the final labels are assigned.  The output is identical to when it is run in a single thread.
+ * </p>
+ *
+ * <p>
+ * [1] Kesheng Wu, Ekow Otoo, and Kenji Suzuki, "Optimizing two-pass connected-component labeling algorithms"
+ * Pattern Analysis and Applications, 2009
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class LinearUnionFindLabel {
+
+	// connectivity rule.  4 or 8
+	private int rule;
+
+	// minimum number of rows in a strip when running concurrently
+	private int minRows = 32;
+
+	// provisional labels and statistics for each strip
+	private List<LabelData> strips = new ArrayList<LabelData>();
+	// provisional labels from all the strips combined together
+	private LabelData merged = new LabelData();
+	// contains the final labels and blob statistics
+	private LabelData results;
+
+	// number of blobs found
+	private int numBlobs;
+
+	/**
+	 * Configures the algorithm.
+	 *
+	 * @param rule Connectivity rule.  4 or 8
+	 */
+	public LinearUnionFindLabel( int rule ) {
+		if( rule != 4 && rule != 8 )
+			throw new IllegalArgumentException("Connectivity rule must be 4 or 8");
+		this.rule = rule;
+	}
+
+	/**
+	 * Labels the blobs in the binary image and computes their statistics.
+	 *
+	 * @param binary Input binary image.  Any non-zero value is considered to be part of a blob. Not modified.
+	 * @param labeled Output. Labeled image.  Modified.
+	 */
+	public void process( final ImageUInt8 binary , final ImageSInt32 labeled ) {
+		if( binary.width != labeled.width || binary.height != labeled.height )
+			throw new IllegalArgumentException("Input and output images must have the same shape");
+
+		int numStrips = 1;
+		if( BoofConcurrency.USE_CONCURRENT )
+			numStrips = Math.max(1,Math.min(BoofConcurrency.getMaxThreads(), binary.height/minRows));
+
+		while( strips.size() < numStrips )
+			strips.add(new LabelData());
+
+		if( numStrips == 1 ) {
+			LabelData strip = strips.get(0);
+			strip.y0 = 0;
+			strip.y1 = binary.height;
+			labelStrip(binary, labeled, strip);
+			results = strip;
+		} else {
+			for( int i = 0; i < numStrips; i++ ) {
+				LabelData strip = strips.get(i);
+				strip.y0 = (int)((long)binary.height*i/numStrips);
+				strip.y1 = (int)((long)binary.height*(i+1)/numStrips);
+			}
+
+			BoofConcurrency.loopBlocks(0,numStrips,1,new IntRangeTask() {
+				@Override
+				public void process(int start, int end) {
+					for( int i = start; i < end; i++ )
+						labelStrip(binary, labeled, strips.get(i));
+				}
+			});
+
+			mergeStrips(labeled, numStrips);
+			results = merged;
+		}
+
+		numBlobs = flatten(results);
+
+		if( numStrips == 1 ) {
+			relabel(labeled, strips.get(0), results.parent);
+		} else {
+			BoofConcurrency.loopBlocks(0,numStrips,1,new IntRangeTask() {
+				@Override
+				public void process(int start, int end) {
+					for( int i = start; i < end; i++ )
+						relabel(labeled, strips.get(i), results.parent);
+				}
+			});
+		}
+	}
+
+	/**
+	 * Assigns provisional labels to all the pixels inside the strip and computes statistics for each
+	 * provisional label.  Labels start at 1 and only pixels inside the strip are considered.
+	 */
+	private void labelStrip( ImageUInt8 binary , ImageSInt32 labeled , LabelData strip ) {
+		strip.reset();
+
+		final byte[] dataIn = binary.data;
+		final int[] dataOut = labeled.data;
+		final int width = binary.width;
+		final int strideOut = labeled.stride;
+
+		for( int y = strip.y0; y < strip.y1; y++ ) {
+			int indexIn = binary.startIndex + y*binary.stride;
+			int indexOut = labeled.startIndex + y*strideOut;
+			// index of the row above in the output image
+			int indexUp = indexOut - strideOut;
+			boolean first = y == strip.y0;
+
+			int x = 0;
+			while( x < width ) {
+				if( dataIn[indexIn+x] == 0 ) {
+					dataOut[indexOut+x] = 0;
+					x++;
+					continue;
+				}
+
+				// first pixel in the run
+				int x0 = x;
+				int label;
+				if( first ) {
+					label = strip.createLabel();
+				} else if( rule == 8 ) {
+					int b = dataOut[indexUp+x];
+					if( b != 0 ) {
+						label = b;
+					} else {
+						int a = x > 0 ? dataOut[indexUp+x-1] : 0;
+						int c = x < width-1 ? dataOut[indexUp+x+1] : 0;
+						if( a != 0 ) {
+							label = c != 0 ? strip.union(a,c) : a;
+						} else if( c != 0 ) {
+							label = c;
+						} else {
+							label = strip.createLabel();
+						}
+					}
+				} else {
+					int b = dataOut[indexUp+x];
+					label = b != 0 ? b : strip.createLabel();
+				}
+				dataOut[indexOut+x] = label;
+				x++;
+
+				// the rest of the run.  Only need to check for new connections above
+				if( first ) {
+					while( x < width && dataIn[indexIn+x] != 0 ) {
+						dataOut[indexOut+x] = label;
+						x++;
+					}
+				} else if( rule == 8 ) {
+					while( x < width && dataIn[indexIn+x] != 0 ) {
+						if( x < width-1 && dataOut[indexUp+x] == 0 ) {
+							int c = dataOut[indexUp+x+1];
+							if( c != 0 )
+								label = strip.union(label,c);
+						}
+						dataOut[indexOut+x] = label;
+						x++;
+					}
+				} else {
+					while( x < width && dataIn[indexIn+x] != 0 ) {
+						int b = dataOut[indexUp+x];
+						if( b != 0 && dataOut[indexUp+x-1] == 0 )
+							label = strip.union(label,b);
+						dataOut[indexOut+x] = label;
+						x++;
+					}
+				}
+
+				strip.addRun(label,x0,x,y);
+			}
+		}
+	}
+
+	/**
+	 * Combines provisional labels from all the strips into a single set and merges labels which are connected
+	 * across the boundary between strips.
+	 */
+	private void mergeStrips( ImageSInt32 labeled , int numStrips ) {
+		merged.reset();
+
+		for( int i = 0; i < numStrips; i++ ) {
+			LabelData strip = strips.get(i);
+			strip.offset = merged.size;
+			merged.append(strip);
+		}
+
+		final int width = labeled.width;
+		final int[] data = labeled.data;
+
+		for( int i = 1; i < numStrips; i++ ) {
+			LabelData strip = strips.get(i);
+			int offset = strip.offset;
+			int offsetUp = strips.get(i-1).offset;
+
+			int index = labeled.startIndex + strip.y0*labeled.stride;
+			int indexUp = index - labeled.stride;
+
+			for( int x = 0; x < width; x++ ) {
+				int label = data[index+x];
+				if( label == 0 )
+					continue;
+				label += offset;
+
+				if( rule == 8 ) {
+					int x0 = Math.max(0,x-1);
+					int x1 = Math.min(width,x+2);
+					for( int j = x0; j < x1; j++ ) {
+						int up = data[indexUp+j];
+						if( up != 0 )
+							label = merged.union(label,up+offsetUp);
+					}
+				} else {
+					int up = data[indexUp+x];
+					if( up != 0 )
+						merged.union(label,up+offsetUp);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Converts each provisional label into its final label and combines the statistics of provisional labels
+	 * which belong to the same blob.  After this function has been called parent contains the final label
+	 * for each provisional label and the statistics for blob 'i' are stored at index 'i'.
+	 *
+	 * @return Number of blobs
+	 */
+	private static int flatten( LabelData data ) {
+		int count = 0;
+		int[] parent = data.parent;
+
+		// A set's root is always its smallest label and the final label is never more than the provisional
+		// label, so statistics can be moved in place without overwriting anything which hasn't been processed
+		for( int i = 1; i <= data.size; i++ ) {
+			if( parent[i] == i ) {
+				count++;
+				parent[i] = count;
+				data.copy(i,count);
+			} else {
+				int label = parent[parent[i]];
+				parent[i] = label;
+				data.merge(i,label);
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Replaces provisional labels inside the strip with their final labels
+	 */
+	private static void relabel( ImageSInt32 labeled , LabelData strip , int[] finalLabels ) {
+		final int offset = strip.offset;
+		final int[] data = labeled.data;
+
+		for( int y = strip.y0; y < strip.y1; y++ ) {
+			int index = labeled.startIndex + y*labeled.stride;
+			int end = index + labeled.width;
+
+			for( ; index < end; index++ ) {
+				int label = data[index];
+				if( label != 0 )
+					data[index] = finalLabels[label+offset];
+			}
+		}
+	}
+
+	/**
+	 * Number of blobs found in the image.  Blob labels go from 1 to this number, inclusive.
+	 */
+	public int getNumberOfBlobs() {
+		return numBlobs;
+	}
+
+	/**
+	 * Number of pixels in the blob.
+	 *
+	 * @param label Blob label.  1 to number of blobs, inclusive.
+	 */
+	public int getArea( int label ) {
+		checkLabel(label);
+		return results.area[label];
+	}
+
+	/**
+	 * Returns the bounding box around the blob.  The upper extent is exclusive.
+	 *
+	 * @param label Blob label.  1 to number of blobs, inclusive.
+	 * @param rectangle (Optional) Storage for the bounding box. Modified.
+	 * @return The bounding box.
+	 */
+	public ImageRectangle getBoundingBox( int label , ImageRectangle rectangle ) {
+		checkLabel(label);
+		if( rectangle == null )
+			rectangle = new ImageRectangle();
+		rectangle.set(results.minX[label],results.minY[label],results.maxX[label]+1,results.maxY[label]+1);
+		return rectangle;
+	}
+
+	/**
+	 * Returns the centroid of the blob, the mean of its pixel coordinates.
+	 *
+	 * @param label Blob label.  1 to number of blobs, inclusive.
+	 * @param centroid (Optional) Storage for the centroid. Modified.
+	 * @return The centroid.
+	 */
+	public Point2D_F64 getCentroid( int label , Point2D_F64 centroid ) {
+		checkLabel(label);
+		if( centroid == null )
+			centroid = new Point2D_F64();
+		double area = results.area[label];
+		centroid.set(results.sumX[label]/area,results.sumY[label]/area);
+		return centroid;
+	}
+
+	private void checkLabel( int label ) {
+		if( label < 1 || label > numBlobs )
+			throw new IllegalArgumentException("Label out of range.  label = "+label);
+	}
+
+	public int getRule() {
+		return rule;
+	}
+
+	public int getMinRows() {
+		return minRows;
+	}
+
+	/**
+	 * Minimum number of rows in a strip when running concurrently.
+	 */
+	public void setMinRows(int minRows) {
+		this.minRows = Math.max(1,minRows);
+	}
+
+	/**
+	 * Union-find structure for provisional labels and the statistics of each label.  Index 0 is the background.
+	 */
+	private static class LabelData {
+		// rows in the image which are processed, y1 is exclusive
+		int y0,y1;
+		// offset of this strip's labels when they are merged with the other strips
+		int offset;
+
+		// number of labels
+		int size;
+
+		// parent of each label.  The parent always has a smaller label and a root is its own parent.
+		int parent[] = new int[0];
+
+		int area[] = new int[0];
+		int minX[] = new int[0];
+		int maxX[] = new int[0];
+		int minY[] = new int[0];
+		int maxY[] = new int[0];
+		long sumX[] = new long[0];
+		long sumY[] = new long[0];
+
+		public void reset() {
+			size = 0;
+			offset = 0;
+			parent = grow(parent, 1);
+			parent[0] = 0;
+		}
+
+		/**
+		 * Adds a new label which is not connected to any other labels
+		 */
+		public int createLabel() {
+			int label = ++size;
+			if( label >= parent.length )
+				resize(Math.max(64, label*2));
+
+			parent[label] = label;
+			area[label] = 0;
+			minX[label] = Integer.MAX_VALUE;
+			maxX[label] = -1;
+			minY[label] = Integer.MAX_VALUE;
+			maxY[label] = -1;
+			sumX[label] = 0;
+			sumY[label] = 0;
+			return label;
+		}
+
+		/**
+		 * Adds the run of pixels from x0 to x1, exclusive, in row y to the label's statistics
+		 */
+		public void addRun( int label , int x0 , int x1 , int y ) {
+			int length = x1-x0;
+			area[label] += length;
+			sumX[label] += (long)(x0+x1-1)*length/2;
+			sumY[label] += (long)y*length;
+			if( x0 < minX[label] ) minX[label] = x0;
+			if( x1-1 > maxX[label] ) maxX[label] = x1-1;
+			if( y < minY[label] ) minY[label] = y;
+			if( y > maxY[label] ) maxY[label] = y;
+		}
+
+		/**
+		 * Finds the root of the set the label belongs to and compresses the path
+		 */
+		public int find( int label ) {
+			int root = label;
+			while( parent[root] != root )
+				root = parent[root];
+
+			while( parent[label] != root ) {
+				int next = parent[label];
+				parent[label] = root;
+				label = next;
+			}
+			return root;
+		}
+
+		/**
+		 * Merges the two sets together.  The root with the smaller label becomes the root of the merged set.
+		 *
+		 * @return The root of the merged set
+		 */
+		public int union( int a , int b ) {
+			int rootA = find(a);
+			int rootB = find(b);
+
+			if( rootA < rootB ) {
+				parent[rootB] = rootA;
+				return rootA;
+			} else {
+				parent[rootA] = rootB;
+				return rootB;
+			}
+		}
+
+		/**
+		 * Adds all the labels in the strip to the end of this one
+		 */
+		public void append( LabelData strip ) {
+			int offset = size;
+			if( size + strip.size >= parent.length )
+				resize(Math.max(size + strip.size + 1, parent.length*2));
+
+			for( int i = 1; i <= strip.size; i++ ) {
+				parent[offset+i] = strip.parent[i] + offset;
+			}
+			System.arraycopy(strip.area,1,area,offset+1,strip.size);
+			System.arraycopy(strip.minX,1,minX,offset+1,strip.size);
+			System.arraycopy(strip.maxX,1,maxX,offset+1,strip.size);
+			System.arraycopy(strip.minY,1,minY,offset+1,strip.size);
+			System.arraycopy(strip.maxY,1,maxY,offset+1,strip.size);
+			System.arraycopy(strip.sumX,1,sumX,offset+1,strip.size);
+			System.arraycopy(strip.sumY,1,sumY,offset+1,strip.size);
+
+			size += strip.size;
+		}
+
+		public void copy( int src , int dst ) {
+			area[dst] = area[src];
+			minX[dst] = minX[src];
+			maxX[dst] = maxX[src];
+			minY[dst] = minY[src];
+			maxY[dst] = maxY[src];
+			sumX[dst] = sumX[src];
+			sumY[dst] = sumY[src];
+		}
+
+		public void merge( int src , int dst ) {
+			area[dst] += area[src];
+			if( minX[src] < minX[dst] ) minX[dst] = minX[src];
+			if( maxX[src] > maxX[dst] ) maxX[dst] = maxX[src];
+			if( minY[src] < minY[dst] ) minY[dst] = minY[src];
+			if( maxY[src] > maxY[dst] ) maxY[dst] = maxY[src];
+			sumX[dst] += sumX[src];
+			sumY[dst] += sumY[src];
+		}
+
+		private void resize( int length ) {
+			parent = grow(parent,length);
+			area = grow(area,length);
+			minX = grow(minX,length);
+			maxX = grow(maxX,length);
+			minY = grow(minY,length);
+			maxY = grow(maxY,length);
+			sumX = grow(sumX,length);
+			sumY = grow(sumY,length);
+		}
+
+		private static int[] grow( int[] array , int length ) {
+			if( array.length >= length )
+				return array;
+			int[] ret = new int[length];
+			System.arraycopy(array,0,ret,0,array.length);
+			return ret;
+		}
+
+		private static long[] grow( long[] array , int length ) {
+			if( array.length >= length )
+				return array;
+			long[] ret = new long[length];
+			System.arraycopy(array,0,ret,0,array.length);
+			return ret;
+		}
+	}
+}
@@ -19,6 +19,8 @@
 package boofcv.alg.filter.binary;
 
 import boofcv.alg.InputSanityCheck;
+import boofcv.alg.filter.blur.BlurImageOps;
+import boofcv.factory.filter.kernel.FactoryKernelGaussian;
 import boofcv.struct.image.*;
 
 /**
@@ -334,5 +336,201 @@ public class ThresholdImageOps {
 		return output;
 	}
 
+	/**
+	 * Thresholds the image using a locally adaptive threshold that is computed using a local square region centered
+	 * on each pixel.  The threshold is equal to the average value of the surrounding pixels times the scale.
+	 * If down is true then b(x,y) = I(x,y) <= T(x,y) ? 1 : 0.  Otherwise b(x,y) = I(x,y) >= T(x,y) ? 1 : 0.
+	 * The mean is computed using a box filter so the cost per pixel does not depend on the radius.
+	 *
+	 * @param input Input image.  Not modified.
+	 * @param output (Optional) Output binary image.  If null a new image will be declared. Modified.
+	 * @param radius Radius of the square region.
+	 * @param scale Scale factor applied to the local mean.  Try 0.95.
+	 * @param down Should it threshold up or down.
+	 * @param storage1 (Optional) Storage for intermediate results.  If null a new image will be declared. Modified.
+	 * @param storage2 (Optional) Storage for intermediate results.  If null a new image will be declared. Modified.
+	 * @return Thresholded image.
+	 */
+	public static ImageUInt8 localMean( ImageFloat32 input , ImageUInt8 output ,
+										int radius , float scale , boolean down ,
+										ImageFloat32 storage1 , ImageFloat32 storage2 ) {
+		output = InputSanityCheck.checkDeclare(input,output,ImageUInt8.class);
+		storage1 = InputSanityCheck.checkDeclare(input,storage1,ImageFloat32.class);
+		storage2 = InputSanityCheck.checkDeclare(input,storage2,ImageFloat32.class);
+
+		ImageFloat32 mean = storage1;
+
+		BlurImageOps.mean(input,mean,radius,storage2);
+
+		return thresholdLocal(input, mean, scale, down, output);
+	}
+
+	/**
+	 * Thresholds the image using a locally adaptive threshold that is computed using a Gaussian weighted average
+	 * of the surrounding pixels times the scale.  If down is true then b(x,y) = I(x,y) <= T(x,y) ? 1 : 0.
+	 * Otherwise b(x,y) = I(x,y) >= T(x,y) ? 1 : 0.  The Gaussian is approximated by applying a box filter three
+	 * times, so the cost per pixel does not depend on the radius.
+	 *
+	 * @param input Input image.  Not modified.
+	 * @param output (Optional) Output binary image.  If null a new image will be declared. Modified.
+	 * @param radius Radius of the Gaussian kernel.  Sigma is selected based on the radius.
+	 * @param scale Scale factor applied to the local mean.  Try 0.95.
+	 * @param down Should it threshold up or down.
+	 * @param storage1 (Optional) Storage for intermediate results.  If null a new image will be declared. Modified.
+	 * @param storage2 (Optional) Storage for intermediate results.  If null a new image will be declared. Modified.
+	 * @return Thresholded image.
+	 */
+	public static ImageUInt8 localGaussian( ImageFloat32 input , ImageUInt8 output ,
+											int radius , float scale , boolean down ,
+											ImageFloat32 storage1 , ImageFloat32 storage2 ) {
+		output = InputSanityCheck.checkDeclare(input,output,ImageUInt8.class);
+		storage1 = InputSanityCheck.checkDeclare(input,storage1,ImageFloat32.class);
+		storage2 = InputSanityCheck.checkDeclare(input,storage2,ImageFloat32.class);
+
+		ImageFloat32 blur = storage1;
+
+		int boxRadius = boxRadiusForGaussian(radius);
+		BlurImageOps.mean(input,blur,boxRadius,storage2);
+		BlurImageOps.mean(blur,blur,boxRadius,storage2);
+		BlurImageOps.mean(blur,blur,boxRadius,storage2);
+
+		return thresholdLocal(input, blur, scale, down, output);
+	}
+
+	/**
+	 * Pixels are compared against the local threshold, e.g. b(x,y) = I(x,y) <= T(x,y)*scale
+	 */
+	private static ImageUInt8 thresholdLocal( ImageFloat32 input , ImageFloat32 mean ,
+											  float scale , boolean down , ImageUInt8 output ) {
+		for( int y = 0; y < input.height; y++ ) {
+			int indexIn = input.startIndex + y*input.stride;
+			int indexMean = mean.startIndex + y*mean.stride;
+			int indexOut = output.startIndex + y*output.stride;
+
+			int end = indexIn + input.width;
+
+			if( down ) {
+				for( ; indexIn < end; indexIn++ , indexMean++ , indexOut++ ) {
+					if( (input.data[indexIn]) <= (mean.data[indexMean])*scale )
+						output.data[indexOut] = 1;
+					else
+						output.data[indexOut] = 0;
+				}
+			} else {
+				for( ; indexIn < end; indexIn++ , indexMean++ , indexOut++ ) {
+					if( (input.data[indexIn]) >= (mean.data[indexMean])*scale )
+						output.data[indexOut] = 1;
+					else
+						output.data[indexOut] = 0;
+				}
+			}
+		}
+
+		return output;
+	}
+
+	/**
+	 * Thresholds the image using a locally adaptive threshold that is computed using a local square region centered
+	 * on each pixel.  The threshold is equal to the average value of the surrounding pixels times the scale.
+	 * If down is true then b(x,y) = I(x,y) <= T(x,y) ? 1 : 0.  Otherwise b(x,y) = I(x,y) >= T(x,y) ? 1 : 0.
+	 * The mean is computed using a box filter so the cost per pixel does not depend on the radius.
+	 *
+	 * @param input Input image.  Not modified.
+	 * @param output (Optional) Output binary image.  If null a new image will be declared. Modified.
+	 * @param radius Radius of the square region.
+	 * @param scale Scale factor applied to the local mean.  Try 0.95.
+	 * @param down Should it threshold up or down.
+	 * @param storage1 (Optional) Storage for intermediate results.  If null a new image will be declared. Modified.
+	 * @param storage2 (Optional) Storage for intermediate results.  If null a new image will be declared. Modified.
+	 * @return Thresholded image.
+	 */
+	public static ImageUInt8 localMean( ImageUInt8 input , ImageUInt8 output ,
+										int radius , float scale , boolean down ,
+										ImageUInt8 storage1 , ImageUInt8 storage2 ) {
+		output = InputSanityCheck.checkDeclare(input,output,ImageUInt8.class);
+		storage1 = InputSanityCheck.checkDeclare(input,storage1,ImageUInt8.class);
+		storage2 = InputSanityCheck.checkDeclare(input,storage2,ImageUInt8.class);
+
+		ImageUInt8 mean = storage1;
+
+		BlurImageOps.mean(input,mean,radius,storage2);
+
+		return thresholdLocal(input, mean, scale, down, output);
+	}
+
+	/**
+	 * Thresholds the image using a locally adaptive threshold that is computed using a Gaussian weighted average
+	 * of the surrounding pixels times the scale.  If down is true then b(x,y) = I(x,y) <= T(x,y) ? 1 : 0.
+	 * Otherwise b(x,y) = I(x,y) >= T(x,y) ? 1 : 0.  The Gaussian is approximated by applying a box filter three
+	 * times, so the cost per pixel does not depend on the radius.
+	 *
+	 * @param input Input image.  Not modified.
+	 * @param output (Optional) Output binary image.  If null a new image will be declared. Modified.
+	 * @param radius Radius of the Gaussian kernel.  Sigma is selected based on the radius.
+	 * @param scale Scale factor applied to the local mean.  Try 0.95.
+	 * @param down Should it threshold up or down.
+	 * @param storage1 (Optional) Storage for intermediate results.  If null a new image will be declared. Modified.
+	 * @param storage2 (Optional) Storage for intermediate results.  If null a new image will be declared. Modified.
+	 * @return Thresholded image.
+	 */
+	public static ImageUInt8 localGaussian( ImageUInt8 input , ImageUInt8 output ,
+											int radius , float scale , boolean down ,
+											ImageUInt8 storage1 , ImageUInt8 storage2 ) {
+		output = InputSanityCheck.checkDeclare(input,output,ImageUInt8.class);
+		storage1 = InputSanityCheck.checkDeclare(input,storage1,ImageUInt8.class);
+		storage2 = InputSanityCheck.checkDeclare(input,storage2,ImageUInt8.class);
+
+		ImageUInt8 blur = storage1;
+
+		int boxRadius = boxRadiusForGaussian(radius);
+		BlurImageOps.mean(input,blur,boxRadius,storage2);
+		BlurImageOps.mean(blur,blur,boxRadius,storage2);
+		BlurImageOps.mean(blur,blur,boxRadius,storage2);
+
+		return thresholdLocal(input, blur, scale, down, output);
+	}
+
+	/**
+	 * Pixels are compared against the local threshold, e.g. b(x,y) = I(x,y) <= T(x,y)*scale
+	 */
+	private static ImageUInt8 thresholdLocal( ImageUInt8 input , ImageUInt8 mean ,
+											  float scale , boolean down , ImageUInt8 output ) {
+		for( int y = 0; y < input.height; y++ ) {
+			int indexIn = input.startIndex + y*input.stride;
+			int indexMean = mean.startIndex + y*mean.stride;
+			int indexOut = output.startIndex + y*output.stride;
+
+			int end = indexIn + input.width;
+
+			if( down ) {
+				for( ; indexIn < end; indexIn++ , indexMean++ , indexOut++ ) {
+					if( (input.data[indexIn]& 0xFF) <= (mean.data[indexMean]& 0xFF)*scale )
+						output.data[indexOut] = 1;
+					else
+						output.data[indexOut] = 0;
+				}
+			} else {
+				for( ; indexIn < end; indexIn++ , indexMean++ , indexOut++ ) {
+					if( (input.data[indexIn]& 0xFF) >= (mean.data[indexMean]& 0xFF)*scale )
+						output.data[indexOut] = 1;
+					else
+						output.data[indexOut] = 0;
+				}
+			}
+		}
+
+		return output;
+	}
+
+	/**
+	 * Selects the radius of a box filter which, when applied three times, approximates a Gaussian with the
+	 * specified radius.  Each pass of a box with width w has a variance of (w*w-1)/12.
+	 */
+	private static int boxRadiusForGaussian( int radius ) {
+		double sigma = FactoryKernelGaussian.sigmaForRadius(radius,0);
+		double width = Math.sqrt(12.0*sigma*sigma/3.0 + 1.0);
+		return Math.max(1,(int)Math.round((width-1.0)/2.0));
+	}
+
 
 }
@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.filter.binary;
+
+import boofcv.alg.InputSanityCheck;
+import boofcv.alg.filter.blur.BlurImageOps;
+import boofcv.struct.image.ImageFloat32;
+import boofcv.struct.image.ImageUInt8;
+
+/**
+ * <p>
+ * Sauvola binary thresholding.  The threshold is adjusted using the local mean and standard deviation, which
+ * makes it more robust to uneven lighting than a global threshold and less likely to segment out background noise
+ * than a threshold computed using just the local mean.  Both statistics are found with box filters so the cost
+ * per pixel does not depend on the radius.
+ * </p>
+ *
+ * <p>
+ * T(x,y) = m(x,y) * [ 1 + k*( s(x,y)/R - 1 ) ]<br>
+ * where m(x,y) and s(x,y) are the local mean and standard deviation, and R is the dynamic range of the standard
+ * deviation, which is 128 for images with values from 0 to 255.
+ * </p>
+ *
+ * <p>
+ * Sauvola, J. and Pietikäinen, M. "Adaptive document image binarization" Pattern Recognition 33(2), 2000
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class ThresholdSauvola {
+
+	// positive parameter which controls how much the standard deviation affects the threshold
+	private float k;
+	// radius of the local region
+	private int radius;
+	// dynamic range of the standard deviation
+	private float R = 128;
+	// if true inliers are below the threshold
+	private boolean down;
+
+	// storage for intermediate results
+	private ImageFloat32 inputPow2 = new ImageFloat32(1,1);
+	private ImageFloat32 inputMean = new ImageFloat32(1,1);
+	private ImageFloat32 inputPow2Mean = new ImageFloat32(1,1);
+	private ImageFloat32 tmp = new ImageFloat32(1,1);
+
+	/**
+	 * Configures the algorithm
+	 *
+	 * @param radius Radius of the local region.
+	 * @param k Positive parameter which controls the effect of the standard deviation.  Try 0.3
+	 * @param down If true inliers are below the threshold and false they are above the threshold.
+	 */
+	public ThresholdSauvola(int radius, float k, boolean down) {
+		if( radius <= 0 )
+			throw new IllegalArgumentException("Radius must be > 0");
+		this.k = k;
+		this.radius = radius;
+		this.down = down;
+	}
+
+	/**
+	 * Converts the input image into a binary image.
+	 *
+	 * @param input Input image.  Not modified.
+	 * @param output Output binary image.  Modified.
+	 */
+	public void process( ImageFloat32 input , ImageUInt8 output ) {
+		InputSanityCheck.checkSameShape(input, output);
+
+		inputPow2.reshape(input.width,input.height);
+		inputMean.reshape(input.width,input.height);
+		inputPow2Mean.reshape(input.width,input.height);
+		tmp.reshape(input.width,input.height);
+
+		// local mean and mean of the square
+		BlurImageOps.mean(input,inputMean,radius,tmp);
+		for( int y = 0; y < input.height; y++ ) {
+			int indexIn = input.startIndex + y*input.stride;
+			int index = y*input.width;
+			for( int x = 0; x < input.width; x++ ) {
+				float value = input.data[indexIn++];
+				inputPow2.data[index++] = value*value;
+			}
+		}
+		BlurImageOps.mean(inputPow2,inputPow2Mean,radius,tmp);
+
+		for( int y = 0; y < input.height; y++ ) {
+			int indexIn = input.startIndex + y*input.stride;
+			int indexOut = output.startIndex + y*output.stride;
+			int index = y*input.width;
+
+			int end = indexIn + input.width;
+
+			for( ; indexIn < end; indexIn++ , indexOut++, index++ ) {
+				float mean = inputMean.data[index];
+				float variance = inputPow2Mean.data[index] - mean*mean;
+				float stdev = variance > 0 ? (float)Math.sqrt(variance) : 0;
+
+				float threshold = mean*(1.0f + k*(stdev/R - 1.0f));
+
+				boolean inlier = down ? input.data[indexIn] <= threshold : input.data[indexIn] >= threshold;
+				output.data[indexOut] = (byte)(inlier ? 1 : 0);
+			}
+		}
+	}
+
+	public float getK() {
+		return k;
+	}
+
+	public void setK(float k) {
+		this.k = k;
+	}
+
+	public int getRadius() {
+		return radius;
+	}
+
+	public void setRadius(int radius) {
+		this.radius = radius;
+	}
+
+	public float getR() {
+		return R;
+	}
+
+	public void setR(float r) {
+		R = r;
+	}
+
+	public boolean isDown() {
+		return down;
+	}
+
+	public void setDown(boolean down) {
+		this.down = down;
+	}
+}
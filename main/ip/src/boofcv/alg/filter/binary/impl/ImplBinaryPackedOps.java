@@ -0,0 +1,334 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.filter.binary.impl;
+
+import boofcv.struct.image.ImageBinaryPacked;
+import boofcv.struct.image.ImageUInt8;
+
+/**
+ * <p>
+ * Binary operations on {@link ImageBinaryPacked} which process 64 pixels at once.  The neighbors of each pixel are
+ * found by shifting words, with bits carried in from the adjacent words.  Each row is first copied into a buffer
+ * with an extra word on either side and the bits outside the image set to the value the operation assumes for
+ * pixels outside the image.  This way the image border is handled by the same code as the inner image.  Since
+ * the input rows are buffered before the output row is written, the output can be the same image as the input.
+ * </p>
+ *
+ * <p>
+ * Pixels outside the image are treated the same as in {@link ImplBinaryNaiveOps}.
+ * </p>
+ *
+ * @author Peter Abeles
+ * @see boofcv.alg.filter.binary.BinaryImageOps
+ */
+public class ImplBinaryPackedOps {
+
+	private static final int ERODE4 = 0;
+	private static final int DILATE4 = 1;
+	private static final int EDGE4 = 2;
+	private static final int ERODE8 = 3;
+	private static final int DILATE8 = 4;
+	private static final int EDGE8 = 5;
+	private static final int NOISE = 6;
+
+	public static void erode4(ImageBinaryPacked input, ImageBinaryPacked output) {
+		process(input, output, ERODE4, true);
+	}
+
+	public static void dilate4(ImageBinaryPacked input, ImageBinaryPacked output) {
+		process(input, output, DILATE4, false);
+	}
+
+	public static void edge4(ImageBinaryPacked input, ImageBinaryPacked output) {
+		process(input, output, EDGE4, true);
+	}
+
+	public static void erode8(ImageBinaryPacked input, ImageBinaryPacked output) {
+		process(input, output, ERODE8, true);
+	}
+
+	public static void dilate8(ImageBinaryPacked input, ImageBinaryPacked output) {
+		process(input, output, DILATE8, false);
+	}
+
+	public static void edge8(ImageBinaryPacked input, ImageBinaryPacked output) {
+		process(input, output, EDGE8, true);
+	}
+
+	public static void removePointNoise(ImageBinaryPacked input, ImageBinaryPacked output) {
+		process(input, output, NOISE, false);
+	}
+
+	public static void logicAnd(ImageBinaryPacked inputA, ImageBinaryPacked inputB, ImageBinaryPacked output) {
+		int words = inputA.getWordsPerRow();
+		long mask = inputA.getLastWordMask();
+
+		for( int y = 0; y < inputA.height; y++ ) {
+			int indexA = inputA.startIndex + y*inputA.stride;
+			int indexB = inputB.startIndex + y*inputB.stride;
+			int indexOut = output.startIndex + y*output.stride;
+
+			for( int i = 0; i < words-1; i++ ) {
+				output.data[indexOut++] = inputA.data[indexA++] & inputB.data[indexB++];
+			}
+			if( words > 0 )
+				write(output.data, indexOut, inputA.data[indexA] & inputB.data[indexB], mask);
+		}
+	}
+
+	public static void logicOr(ImageBinaryPacked inputA, ImageBinaryPacked inputB, ImageBinaryPacked output) {
+		int words = inputA.getWordsPerRow();
+		long mask = inputA.getLastWordMask();
+
+		for( int y = 0; y < inputA.height; y++ ) {
+			int indexA = inputA.startIndex + y*inputA.stride;
+			int indexB = inputB.startIndex + y*inputB.stride;
+			int indexOut = output.startIndex + y*output.stride;
+
+			for( int i = 0; i < words-1; i++ ) {
+				output.data[indexOut++] = inputA.data[indexA++] | inputB.data[indexB++];
+			}
+			if( words > 0 )
+				write(output.data, indexOut, inputA.data[indexA] | inputB.data[indexB], mask);
+		}
+	}
+
+	public static void logicXor(ImageBinaryPacked inputA, ImageBinaryPacked inputB, ImageBinaryPacked output) {
+		int words = inputA.getWordsPerRow();
+		long mask = inputA.getLastWordMask();
+
+		for( int y = 0; y < inputA.height; y++ ) {
+			int indexA = inputA.startIndex + y*inputA.stride;
+			int indexB = inputB.startIndex + y*inputB.stride;
+			int indexOut = output.startIndex + y*output.stride;
+
+			for( int i = 0; i < words-1; i++ ) {
+				output.data[indexOut++] = inputA.data[indexA++] ^ inputB.data[indexB++];
+			}
+			if( words > 0 )
+				write(output.data, indexOut, inputA.data[indexA] ^ inputB.data[indexB], mask);
+		}
+	}
+
+	/**
+	 * Converts a binary {@link ImageUInt8} into a packed image.  Any non-zero value is true.
+	 */
+	public static void pack(ImageUInt8 input, ImageBinaryPacked output) {
+		int words = output.getWordsPerRow();
+		long mask = output.getLastWordMask();
+
+		for( int y = 0; y < input.height; y++ ) {
+			int indexIn = input.startIndex + y*input.stride;
+			int indexOut = output.startIndex + y*output.stride;
+
+			for( int i = 0; i < words; i++ ) {
+				int length = Math.min(ImageBinaryPacked.BITS, input.width - i*ImageBinaryPacked.BITS);
+				long word = 0;
+				for( int bit = 0; bit < length; bit++ ) {
+					// 1 if not zero and 0 otherwise
+					long value = (-(input.data[indexIn++] & 0xFF)) >>> 31;
+					word |= value << bit;
+				}
+				if( i < words-1 )
+					output.data[indexOut++] = word;
+				else
+					write(output.data, indexOut, word, mask);
+			}
+		}
+	}
+
+	/**
+	 * Converts a packed image into a binary {@link ImageUInt8} with values of 0 and 1.
+	 */
+	public static void unpack(ImageBinaryPacked input, ImageUInt8 output) {
+		int words = input.getWordsPerRow();
+
+		for( int y = 0; y < input.height; y++ ) {
+			int indexIn = input.startIndex + y*input.stride;
+			int indexOut = output.startIndex + y*output.stride;
+
+			for( int i = 0; i < words; i++ ) {
+				int length = Math.min(ImageBinaryPacked.BITS, input.width - i*ImageBinaryPacked.BITS);
+				long word = input.data[indexIn++];
+				for( int bit = 0; bit < length; bit++ ) {
+					output.data[indexOut++] = (byte)((word >>> bit) & 1L);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Applies an operation which is a function of a pixel and its 8 neighbors.
+	 *
+	 * @param outside Value assigned to pixels outside the image
+	 */
+	private static void process(ImageBinaryPacked input, ImageBinaryPacked output, int operation, boolean outside) {
+		int words = input.getWordsPerRow();
+		if( words == 0 )
+			return;
+
+		long fill = outside ? ~0L : 0L;
+		long mask = input.getLastWordMask();
+
+		long up[] = new long[ words+2 ];
+		long center[] = new long[ words+2 ];
+		long down[] = new long[ words+2 ];
+		long results[] = new long[ words ];
+
+		loadRow(input, -1, fill, mask, up);
+		loadRow(input, 0, fill, mask, center);
+
+		for( int y = 0; y < input.height; y++ ) {
+			loadRow(input, y+1, fill, mask, down);
+
+			switch( operation ) {
+				case ERODE4: erode4(up, center, down, results); break;
+				case DILATE4: dilate4(up, center, down, results); break;
+				case EDGE4: edge4(up, center, down, results); break;
+				case ERODE8: erode8(up, center, down, results); break;
+				case DILATE8: dilate8(up, center, down, results); break;
+				case EDGE8: edge8(up, center, down, results); break;
+				case NOISE: removePointNoise(up, center, down, results); break;
+				default: throw new RuntimeException("Unknown operation");
+			}
+
+			int indexOut = output.startIndex + y*output.stride;
+			System.arraycopy(results, 0, output.data, indexOut, words-1);
+			write(output.data, indexOut+words-1, results[words-1], mask);
+
+			long tmp[] = up;
+			up = center;
+			center = down;
+			down = tmp;
+		}
+	}
+
+	/**
+	 * Copies a row into the buffer, starting at element 1.  Bits outside the image are set to fill.
+	 */
+	private static void loadRow(ImageBinaryPacked input, int y, long fill, long mask, long row[]) {
+		int words = input.getWordsPerRow();
+		row[0] = fill;
+		row[words+1] = fill;
+		if( y < 0 || y >= input.height ) {
+			for( int i = 1; i <= words; i++ )
+				row[i] = fill;
+		} else {
+			System.arraycopy(input.data, input.startIndex + y*input.stride, row, 1, words);
+			row[words] = (row[words] & mask) | (fill & ~mask);
+		}
+	}
+
+	/**
+	 * Writes a word while leaving the bits outside the mask unmodified
+	 */
+	private static void write(long data[], int index, long value, long mask) {
+		data[index] = (data[index] & ~mask) | (value & mask);
+	}
+
+	/**
+	 * Value of the pixel to the left, e.g. x-1
+	 */
+	private static long left(long row[], int i) {
+		return (row[i] << 1) | (row[i-1] >>> 63);
+	}
+
+	/**
+	 * Value of the pixel to the right, e.g. x+1
+	 */
+	private static long right(long row[], int i) {
+		return (row[i] >>> 1) | (row[i+1] << 63);
+	}
+
+	private static void erode4(long up[], long center[], long down[], long results[]) {
+		for( int i = 1; i <= results.length; i++ ) {
+			results[i-1] = center[i] & left(center,i) & right(center,i) & up[i] & down[i];
+		}
+	}
+
+	private static void dilate4(long up[], long center[], long down[], long results[]) {
+		for( int i = 1; i <= results.length; i++ ) {
+			results[i-1] = center[i] | left(center,i) | right(center,i) | up[i] | down[i];
+		}
+	}
+
+	private static void edge4(long up[], long center[], long down[], long results[]) {
+		for( int i = 1; i <= results.length; i++ ) {
+			long surrounded = left(center,i) & right(center,i) & up[i] & down[i];
+			results[i-1] = center[i] & ~surrounded;
+		}
+	}
+
+	private static void erode8(long up[], long center[], long down[], long results[]) {
+		for( int i = 1; i <= results.length; i++ ) {
+			long rowU = up[i] & left(up,i) & right(up,i);
+			long rowC = center[i] & left(center,i) & right(center,i);
+			long rowD = down[i] & left(down,i) & right(down,i);
+			results[i-1] = rowU & rowC & rowD;
+		}
+	}
+
+	private static void dilate8(long up[], long center[], long down[], long results[]) {
+		for( int i = 1; i <= results.length; i++ ) {
+			long rowU = up[i] | left(up,i) | right(up,i);
+			long rowC = center[i] | left(center,i) | right(center,i);
+			long rowD = down[i] | left(down,i) | right(down,i);
+			results[i-1] = rowU | rowC | rowD;
+		}
+	}
+
+	private static void edge8(long up[], long center[], long down[], long results[]) {
+		for( int i = 1; i <= results.length; i++ ) {
+			long rowU = up[i] & left(up,i) & right(up,i);
+			long rowC = left(center,i) & right(center,i);
+			long rowD = down[i] & left(down,i) & right(down,i);
+			results[i-1] = center[i] & ~(rowU & rowC & rowD);
+		}
+	}
+
+	/**
+	 * The number of neighbors is counted for all 64 pixels at once using a network of full adders.  Each bit
+	 * of the count is stored in a different word.
+	 */
+	private static void removePointNoise(long up[], long center[], long down[], long results[]) {
+		for( int i = 1; i <= results.length; i++ ) {
+			long n0 = left(up,i), n1 = up[i], n2 = right(up,i);
+			long n3 = left(center,i), n4 = right(center,i);
+			long n5 = left(down,i), n6 = down[i], n7 = right(down,i);
+
+			// sum the 8 neighbors into 4 bits, b0 to b3
+			long s1 = n0 ^ n1 ^ n2, c1 = (n0 & n1) | (n2 & (n0 ^ n1));
+			long s2 = n3 ^ n4 ^ n5, c2 = (n3 & n4) | (n5 & (n3 ^ n4));
+			long s3 = n6 ^ n7 ^ s1, c3 = (n6 & n7) | (s1 & (n6 ^ n7));
+			long b0 = s2 ^ s3, c4 = s2 & s3;
+
+			long s5 = c1 ^ c2 ^ c3, c5 = (c1 & c2) | (c3 & (c1 ^ c2));
+			long b1 = s5 ^ c4, c6 = s5 & c4;
+
+			long b2 = c5 ^ c6;
+			long b3 = c5 & c6;
+
+			// less than 2 is set to zero, more than 6 is set to one
+			long atLeastTwo = b1 | b2 | b3;
+			long moreThanSix = b3 | (b2 & b1 & b0);
+
+			results[i-1] = (center[i] & atLeastTwo) | moreThanSix;
+		}
+	}
+}
@@ -19,15 +19,14 @@
 package boofcv.alg.filter.blur;
 
 import boofcv.alg.InputSanityCheck;
-import boofcv.alg.filter.blur.impl.ImplMedianHistogramInner;
-import boofcv.alg.filter.blur.impl.ImplMedianSortEdgeNaive;
-import boofcv.alg.filter.blur.impl.ImplMedianSortNaive;
+import boofcv.alg.filter.blur.impl.*;
 import boofcv.alg.filter.convolve.ConvolveImageMean;
 import boofcv.alg.filter.convolve.ConvolveNormalized;
 import boofcv.factory.filter.kernel.FactoryKernelGaussian;
 import boofcv.struct.convolve.Kernel1D_F32;
 import boofcv.struct.convolve.Kernel1D_I32;
 import boofcv.struct.image.ImageFloat32;
+import boofcv.struct.image.ImageUInt16;
 import boofcv.struct.image.ImageUInt8;
 
 /**
@@ -38,6 +37,15 @@ import boofcv.struct.image.ImageUInt8;
  */
 public class BlurImageOps {
 
+	/**
+	 * Median filters with a radius of at least this size will use a constant time algorithm
+	 */
+	public static int MEDIAN_CONSTANT_RADIUS = 5;
+	/**
+	 * Median filters on {@link ImageFloat32} with a radius of at least this size will use a constant time algorithm
+	 */
+	public static int MEDIAN_CONSTANT_RADIUS_F32 = 3;
+
 	/**
 	 * Applies a mean box filter.
 	 *
@@ -70,6 +78,22 @@ public class BlurImageOps {
 	 * @return Output blurred image.
 	 */
 	public static ImageUInt8 median(ImageUInt8 input, ImageUInt8 output, int radius) {
+		return median(input,output,radius,null);
+	}
+
+	/**
+	 * Applies a median filter.  Large radii are processed by a constant time algorithm whose histograms
+	 * can be reused between calls.
+	 *
+	 * @param input Input image.  Not modified.
+	 * @param output (Optional) Storage for output image, Can be null.  Modified.
+	 * @param radius Radius of the median blur function.
+	 * @param storage (Optional) Constant time median filter used when radius &ge; {@link #MEDIAN_CONSTANT_RADIUS}.
+	 *                Can be null.
+	 * @return Output blurred image.
+	 */
+	public static ImageUInt8 median(ImageUInt8 input, ImageUInt8 output, int radius,
+									ImplMedianHistogramConstant_U8 storage ) {
 		if( radius <= 0 )
 			throw new IllegalArgumentException("Radius must be > 0");
 
@@ -77,14 +101,65 @@ public class BlurImageOps {
 
 		int w = radius*2+1;
 		int offset[] = new int[ w*w ];
-		int histogram[] = new int[ 256 ];
 
-		ImplMedianHistogramInner.process(input, output, radius, offset, histogram);
+		if( radius >= MEDIAN_CONSTANT_RADIUS ) {
+			if( storage == null )
+				storage = new ImplMedianHistogramConstant_U8();
+			storage.process(input, output, radius);
+		} else {
+			int histogram[] = new int[ 256 ];
+			ImplMedianHistogramInner.process(input, output, radius, offset, histogram);
+		}
 		ImplMedianSortEdgeNaive.process(input, output, radius, offset);
 
 		return output;
 	}
 
+	/**
+	 * Applies a median filter.
+	 *
+	 * @param input Input image.  Not modified.
+	 * @param output (Optional) Storage for output image, Can be null.  Modified.
+	 * @param radius Radius of the median blur function.
+	 * @return Output blurred image.
+	 */
+	public static ImageUInt16 median(ImageUInt16 input, ImageUInt16 output, int radius) {
+		return median(input,output,radius,null);
+	}
+
+	/**
+	 * Applies a median filter.  Large radii are processed by a constant time algorithm whose histograms
+	 * can take up several megabytes.  Pass in the same storage between calls to avoid declaring them each time.
+	 *
+	 * @param input Input image.  Not modified.
+	 * @param output (Optional) Storage for output image, Can be null.  Modified.
+	 * @param radius Radius of the median blur function.
+	 * @param storage (Optional) Constant time median filter used when radius &ge; {@link #MEDIAN_CONSTANT_RADIUS}.
+	 *                Can be null.
+	 * @return Output blurred image.
+	 */
+	public static ImageUInt16 median(ImageUInt16 input, ImageUInt16 output, int radius,
+									 ImplMedianHistogramConstant_U16 storage ) {
+		if( radius <= 0 )
+			throw new IllegalArgumentException("Radius must be > 0");
+
+		output = InputSanityCheck.checkDeclare(input,output);
+
+		if( radius >= MEDIAN_CONSTANT_RADIUS ) {
+			int w = radius*2+1;
+			int offset[] = new int[ w*w ];
+
+			if( storage == null )
+				storage = new ImplMedianHistogramConstant_U16();
+			storage.process(input, output, radius);
+			ImplMedianSortEdgeNaive.process(input, output, radius, offset);
+		} else {
+			ImplMedianSortNaive.process(input, output, radius, null);
+		}
+
+		return output;
+	}
+
 	/**
 	 * Applies Gaussian blur.
 	 *
@@ -108,6 +183,37 @@ public class BlurImageOps {
 		return output;
 	}
 
+	/**
+	 * <p>
+	 * Applies an approximation of Gaussian blur using a recursive (IIR) filter.  Unlike
+	 * {@link #gaussian(ImageUInt8, ImageUInt8, double, int, ImageUInt8)} the cost does not depend on the size of
+	 * the blur, making it much faster for large values of sigma.  Fixed point arithmetic is used internally.
+	 * See {@link ImplGaussianRecursive} for the approximation error and how the image border is handled.
+	 * </p>
+	 *
+	 * @param input Input image.  Not modified.
+	 * @param output (Optional) Storage for output image, Can be null.  Modified.
+	 * @param sigma Gaussian distribution's sigma.  Must be &ge; {@link ImplGaussianRecursive#MIN_SIGMA}.
+	 *              If <= 0 then will be selected based on radius.
+	 * @param radius Used to select sigma if sigma <= 0, otherwise ignored.
+	 * @param storage (Optional) Storage for intermediate results.  Same size as input image.  Can be null.
+	 * @return Output blurred image.
+	 */
+	public static ImageUInt8 gaussianRecursive(ImageUInt8 input, ImageUInt8 output, double sigma , int radius,
+											   ImageUInt8 storage ) {
+		output = InputSanityCheck.checkDeclare(input,output);
+		storage = InputSanityCheck.checkDeclare(input,storage);
+
+		if( sigma <= 0 )
+			sigma = FactoryKernelGaussian.sigmaForRadius(radius,0);
+
+		ImplGaussianRecursive_U8 alg = new ImplGaussianRecursive_U8(sigma);
+		alg.horizontal(input,storage);
+		alg.vertical(storage,output);
+
+		return output;
+	}
+
 	/**
 	 * Applies a mean box filter.
 	 *
@@ -140,13 +246,39 @@ public class BlurImageOps {
 	 * @return Output blurred image.
 	 */
 	public static ImageFloat32 median(ImageFloat32 input, ImageFloat32 output, int radius) {
+		return median(input,output,radius,null);
+	}
+
+	/**
+	 * Applies a median filter.  Large radii are processed by a constant time algorithm whose tiles and
+	 * histograms can be reused between calls.
+	 *
+	 * @param input Input image.  Not modified.
+	 * @param output (Optional) Storage for output image, Can be null.  Modified.
+	 * @param radius Radius of the median blur function.
+	 * @param storage (Optional) Constant time median filter used when radius &ge; {@link #MEDIAN_CONSTANT_RADIUS_F32}.
+	 *                Can be null.
+	 * @return Output blurred image.
+	 */
+	public static ImageFloat32 median(ImageFloat32 input, ImageFloat32 output, int radius,
+									  ImplMedianRankTile_F32 storage ) {
 
 		if( radius <= 0 )
 			throw new IllegalArgumentException("Radius must be > 0");
 
 		output = InputSanityCheck.checkDeclare(input,output);
 
-		ImplMedianSortNaive.process(input,output,radius,null);
+		if( radius >= MEDIAN_CONSTANT_RADIUS_F32 && radius <= ImplMedianRankTile_F32.MAX_RADIUS ) {
+			int w = radius*2+1;
+			float values[] = new float[ w*w ];
+
+			if( storage == null )
+				storage = new ImplMedianRankTile_F32();
+			storage.process(input, output, radius);
+			ImplMedianSortEdgeNaive.process(input, output, radius, values);
+		} else {
+			ImplMedianSortNaive.process(input,output,radius,null);
+		}
 
 		return output;
 	}
@@ -174,4 +306,36 @@ public class BlurImageOps {
 
 		return output;
 	}
+
+	/**
+	 * <p>
+	 * Applies an approximation of Gaussian blur using a recursive (IIR) filter.  Unlike
+	 * {@link #gaussian(ImageFloat32, ImageFloat32, double, int, ImageFloat32)} the cost does not depend on the size of
+	 * the blur, making it much faster for large values of sigma.
+	 * See {@link ImplGaussianRecursive} for the approximation error and how the image border is handled.
+	 * </p>
+	 *
+	 * @param input Input image.  Not modified.
+	 * @param output (Optional) Storage for output image, Can be null.  Modified.
+	 * @param sigma Gaussian distribution's sigma.  Must be &ge; {@link ImplGaussianRecursive#MIN_SIGMA}.
+	 *              If <= 0 then will be selected based on radius.
+	 * @param radius Used to select sigma if sigma <= 0, otherwise ignored.
+	 * @param storage (Optional) Storage for intermediate results.  Same size as input image.  Can be null.
+	 * @return Output blurred image.
+	 */
+	public static ImageFloat32 gaussianRecursive(ImageFloat32 input, ImageFloat32 output,
+												 double sigma , int radius,
+												 ImageFloat32 storage ) {
+		output = InputSanityCheck.checkDeclare(input,output);
+		storage = InputSanityCheck.checkDeclare(input,storage);
+
+		if( sigma <= 0 )
+			sigma = FactoryKernelGaussian.sigmaForRadius(radius,0);
+
+		ImplGaussianRecursive_F32 alg = new ImplGaussianRecursive_F32(sigma);
+		alg.horizontal(input,storage);
+		alg.vertical(storage,output);
+
+		return output;
+	}
 }
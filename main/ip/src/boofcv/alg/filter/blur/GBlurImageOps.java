@@ -20,6 +20,7 @@ package boofcv.alg.filter.blur;
 
 import boofcv.struct.image.ImageFloat32;
 import boofcv.struct.image.ImageSingleBand;
+import boofcv.struct.image.ImageUInt16;
 import boofcv.struct.image.ImageUInt8;
 
 
@@ -65,6 +66,8 @@ public class GBlurImageOps {
 	T median(T input, T output, int radius ) {
 		if( input instanceof ImageUInt8 ) {
 			return (T)BlurImageOps.median((ImageUInt8)input,(ImageUInt8)output,radius);
+		} else if( input instanceof ImageUInt16 ) {
+			return (T)BlurImageOps.median((ImageUInt16)input,(ImageUInt16)output,radius);
 		} else if( input instanceof ImageFloat32) {
 			return (T)BlurImageOps.median((ImageFloat32)input,(ImageFloat32)output,radius);
 		} else  {
@@ -93,4 +96,27 @@ public class GBlurImageOps {
 			throw new IllegalArgumentException("Unsupported image type: "+input.getClass().getSimpleName());
 		}
 	}
+
+	/**
+	 * Applies an approximation of Gaussian blur using a recursive filter whose cost does not depend on sigma.
+	 * See {@link BlurImageOps#gaussianRecursive(ImageFloat32, ImageFloat32, double, int, ImageFloat32)}.
+	 *
+	 * @param input Input image.  Not modified.
+	 * @param output (Optional) Storage for output image, Can be null.  Modified.
+	 * @param sigma Gaussian distribution's sigma.  If <= 0 then will be selected based on radius.
+	 * @param radius Used to select sigma if sigma <= 0, otherwise ignored.
+	 * @param storage (Optional) Storage for intermediate results.  Same size as input image.  Can be null.
+	 * @param <T> Input image type.
+	 * @return Output blurred image.
+	 */
+	public static <T extends ImageSingleBand>
+	T gaussianRecursive(T input, T output, double sigma , int radius, T storage ) {
+		if( input instanceof ImageUInt8 ) {
+			return (T)BlurImageOps.gaussianRecursive((ImageUInt8)input,(ImageUInt8)output,sigma,radius,(ImageUInt8)storage);
+		} else if( input instanceof ImageFloat32) {
+			return (T)BlurImageOps.gaussianRecursive((ImageFloat32)input,(ImageFloat32)output,sigma,radius,(ImageFloat32)storage);
+		} else  {
+			throw new IllegalArgumentException("Unsupported image type: "+input.getClass().getSimpleName());
+		}
+	}
 }
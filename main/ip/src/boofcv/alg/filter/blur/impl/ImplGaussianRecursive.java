@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.filter.blur.impl;
+
+/**
+ * <p>
+ * Common code for recursive (IIR) approximations of Gaussian blur.  A third order causal filter is applied
+ * in the forward direction followed by the same filter in the reverse direction, making the net response symmetric.
+ * The cost per pixel is constant and does not depend on sigma.  Poles are computed using the method described
+ * in [1], where the base poles from [1] for an L2 norm fit are scaled until the variance of the impulse response is
+ * exactly &sigma;<sup>2</sup>.  The state at the end of the forward pass is used to initialize the reverse pass
+ * as described in [2], which makes the output identical to an input that extends the edge pixel forever.
+ * </p>
+ *
+ * <p>
+ * Approximation error: The output is compared against a sampled Gaussian kernel which has been normalized so
+ * that it sums up to one.  The maximum difference between the two impulse responses, relative to the kernel's
+ * peak value, is less than 1.5% for &sigma; &ge; 3, less than 2% for &sigma; &ge; 2, and less than 3.5% for
+ * &sigma; &ge; 1.  The variance of the impulse response is &sigma;<sup>2</sup>.  Constant images are returned
+ * unmodified.  Smaller values of sigma are rejected since the approximation rapidly degrades.  Pixels near the
+ * image border are computed as if the border pixel had been extended, which is different from
+ * {@link boofcv.alg.filter.convolve.ConvolveNormalized}.
+ * </p>
+ *
+ * <p>
+ * [1] L.J. van Vliet, I.T. Young, and P.W. Verbeek, "Recursive Gaussian Derivative Filters" ICPR 1998<br>
+ * [2] B. Triggs and M. Sdika, "Boundary Conditions for Young - van Vliet Recursive Filtering" IEEE Trans.
+ * Signal Processing, 2006
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public abstract class ImplGaussianRecursive {
+
+	/**
+	 * The smallest sigma which is supported
+	 */
+	public static final double MIN_SIGMA = 1.0;
+
+	// base poles for sigma = 2 which minimize the L2 error
+	private static final double POLE_REAL = 1.40098;
+	private static final double POLE_IMAG = 1.00236;
+	private static final double POLE_3 = 1.85132;
+
+	// standard deviation of the Gaussian
+	protected double sigma;
+
+	// feedback coefficients. y[n] = b*x[n] + a1*y[n-1] + a2*y[n-2] + a3*y[n-3]
+	protected double b,a1,a2,a3;
+
+	// matrix for computing the initial state of the reverse pass, multiplied by b.  Row major
+	protected double m[] = new double[9];
+
+	protected ImplGaussianRecursive( double sigma ) {
+		if( sigma < MIN_SIGMA )
+			throw new IllegalArgumentException("Sigma must be at least "+MIN_SIGMA);
+		this.sigma = sigma;
+
+		computeCoefficients(sigma);
+		computeBoundaryMatrix();
+	}
+
+	/**
+	 * Scales the base poles so that the variance matches and computes the filter's coefficients
+	 */
+	private void computeCoefficients( double sigma ) {
+		double mag = Math.sqrt(POLE_REAL*POLE_REAL + POLE_IMAG*POLE_IMAG);
+		double angle = Math.atan2(POLE_IMAG,POLE_REAL);
+
+		// variance is a monotonically decreasing function of q, so bisection will find it
+		double target = sigma*sigma;
+		double lower = 0, upper = sigma*2;
+		for( int i = 0; i < 100; i++ ) {
+			double q = (lower+upper)/2;
+			if( variance(mag,angle,q) > target )
+				upper = q;
+			else
+				lower = q;
+		}
+		double q = (lower+upper)/2;
+
+		// poles of the causal filter are the inverse of the scaled poles
+		double inv = Math.pow(mag,-1.0/q);
+		double real = inv*Math.cos(angle/q);
+		double magSq = inv*inv;
+		double p3 = Math.pow(POLE_3,-1.0/q);
+
+		a1 = 2*real + p3;
+		a2 = -(magSq + 2*real*p3);
+		a3 = magSq*p3;
+		b = 1 - (a1 + a2 + a3);
+	}
+
+	/**
+	 * Variance of the forward-backward filter after the base poles are raised to the power of 1/q
+	 */
+	private static double variance( double mag , double angle , double q ) {
+		double m = Math.pow(mag,1.0/q);
+		double real = m*Math.cos(angle/q);
+		double imag = m*Math.sin(angle/q);
+
+		// 2*d/(d-1)^2 for the complex pole.  Its conjugate contributes the same real part
+		double r = real-1;
+		double sqReal = r*r - imag*imag;
+		double sqImag = 2*r*imag;
+		double den = sqReal*sqReal + sqImag*sqImag;
+		double complex = 2*(real*sqReal + imag*sqImag)/den;
+
+		double d3 = Math.pow(POLE_3,1.0/q);
+
+		return 2*complex + 2*d3/((d3-1)*(d3-1));
+	}
+
+	/**
+	 * Matrix from Triggs and Sdika which computes the reverse pass's initial state from the end of the forward pass
+	 */
+	private void computeBoundaryMatrix() {
+		double scale = b/((1 + a1 - a2 + a3)*(1 - a1 - a2 - a3)*(1 + a2 + (a1 - a3)*a3));
+
+		m[0] = scale*(-a3*a1 + 1 - a3*a3 - a2);
+		m[1] = scale*(a3 + a1)*(a2 + a3*a1);
+		m[2] = scale*a3*(a1 + a3*a2);
+		m[3] = scale*(a1 + a3*a2);
+		m[4] = -scale*(a2 - 1)*(a2 + a3*a1);
+		m[5] = -scale*a3*(a3*a1 + a3*a3 + a2 - 1);
+		m[6] = scale*(a3*a1 + a2 + a1*a1 - a2*a2);
+		m[7] = scale*(a1*a2 + a3*a2*a2 - a1*a3*a3 - a3*a3*a3 - a3*a2 + a3);
+		m[8] = scale*a3*(a1 + a3*a2);
+	}
+
+	public double getSigma() {
+		return sigma;
+	}
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.filter.blur.impl;
+
+import boofcv.struct.image.ImageFloat32;
+
+/**
+ * Recursive Gaussian blur for {@link ImageFloat32}.  Internally the filter's state is stored using doubles
+ * since for large values of sigma the poles are close to one and float precision would be insufficient.
+ * See {@link ImplGaussianRecursive} for a description of the algorithm and its approximation error.
+ *
+ * @author Peter Abeles
+ */
+public class ImplGaussianRecursive_F32 extends ImplGaussianRecursive {
+
+	// filter state for each column in the vertical pass
+	private double state1[] = new double[0];
+	private double state2[] = new double[0];
+	private double state3[] = new double[0];
+
+	public ImplGaussianRecursive_F32(double sigma) {
+		super(sigma);
+	}
+
+	/**
+	 * Blurs each row in the image.
+	 *
+	 * @param input Input image. Not modified.
+	 * @param output Blurred image. Can't be the same as the input.  Modified.
+	 */
+	public void horizontal( ImageFloat32 input , ImageFloat32 output ) {
+		final int width = input.width;
+		final float dataIn[] = input.data;
+		final float dataOut[] = output.data;
+
+		for( int y = 0; y < input.height; y++ ) {
+			int indexIn = input.startIndex + y*input.stride;
+			int indexOut = output.startIndex + y*output.stride;
+
+			// forward pass, as if the first pixel extended forever
+			double first = dataIn[indexIn];
+			double w1 = first, w2 = first, w3 = first;
+			for( int x = 0; x < width; x++ ) {
+				double v = b*dataIn[indexIn+x] + a1*w1 + a2*w2 + a3*w3;
+				w3 = w2; w2 = w1; w1 = v;
+				dataOut[indexOut+x] = (float)v;
+			}
+
+			// reverse pass, as if the last pixel extended forever
+			double last = dataIn[indexIn+width-1];
+			double u1 = w1 - last, u2 = w2 - last, u3 = w3 - last;
+			w1 = m[0]*u1 + m[1]*u2 + m[2]*u3 + last;
+			w2 = m[3]*u1 + m[4]*u2 + m[5]*u3 + last;
+			w3 = m[6]*u1 + m[7]*u2 + m[8]*u3 + last;
+			dataOut[indexOut+width-1] = (float)w1;
+
+			for( int x = width-2; x >= 0; x-- ) {
+				double v = b*dataOut[indexOut+x] + a1*w1 + a2*w2 + a3*w3;
+				w3 = w2; w2 = w1; w1 = v;
+				dataOut[indexOut+x] = (float)v;
+			}
+		}
+	}
+
+	/**
+	 * Blurs each column in the image.  The image is traversed one row at a time with a separate filter for
+	 * each column to avoid cache misses.
+	 *
+	 * @param input Input image. Not modified.
+	 * @param output Blurred image. Can't be the same as the input.  Modified.
+	 */
+	public void vertical( ImageFloat32 input , ImageFloat32 output ) {
+		final int width = input.width;
+		final int height = input.height;
+		final float dataIn[] = input.data;
+		final float dataOut[] = output.data;
+
+		declareState(width);
+
+		// state1 is the most recent value, state3 the oldest
+		double s1[] = state1, s2[] = state2, s3[] = state3;
+
+		// forward pass, as if the first row extended forever
+		for( int x = 0; x < width; x++ ) {
+			double first = dataIn[input.startIndex + x];
+			s1[x] = s2[x] = s3[x] = first;
+		}
+
+		for( int y = 0; y < height; y++ ) {
+			int indexIn = input.startIndex + y*input.stride;
+			int indexOut = output.startIndex + y*output.stride;
+
+			for( int x = 0; x < width; x++ ) {
+				double v = b*dataIn[indexIn+x] + a1*s1[x] + a2*s2[x] + a3*s3[x];
+				s3[x] = v;
+				dataOut[indexOut+x] = (float)v;
+			}
+			double tmp[] = s3; s3 = s2; s2 = s1; s1 = tmp;
+		}
+
+		// reverse pass, as if the last row extended forever
+		int indexLastIn = input.startIndex + (height-1)*input.stride;
+		int indexLastOut = output.startIndex + (height-1)*output.stride;
+		for( int x = 0; x < width; x++ ) {
+			double last = dataIn[indexLastIn+x];
+			double u1 = s1[x] - last, u2 = s2[x] - last, u3 = s3[x] - last;
+			s1[x] = m[0]*u1 + m[1]*u2 + m[2]*u3 + last;
+			s2[x] = m[3]*u1 + m[4]*u2 + m[5]*u3 + last;
+			s3[x] = m[6]*u1 + m[7]*u2 + m[8]*u3 + last;
+			dataOut[indexLastOut+x] = (float)s1[x];
+		}
+
+		for( int y = height-2; y >= 0; y-- ) {
+			int indexOut = output.startIndex + y*output.stride;
+
+			for( int x = 0; x < width; x++ ) {
+				double v = b*dataOut[indexOut+x] + a1*s1[x] + a2*s2[x] + a3*s3[x];
+				s3[x] = v;
+				dataOut[indexOut+x] = (float)v;
+			}
+			double tmp[] = s3; s3 = s2; s2 = s1; s1 = tmp;
+		}
+	}
+
+	private void declareState( int width ) {
+		if( state1.length < width ) {
+			state1 = new double[width];
+			state2 = new double[width];
+			state3 = new double[width];
+		}
+	}
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.filter.blur.impl;
+
+import boofcv.struct.image.ImageUInt8;
+
+/**
+ * Recursive Gaussian blur for {@link ImageUInt8} which uses fixed point arithmetic.  The filter's state has
+ * {@link #STATE_BITS} fractional bits and the coefficients {@link #COEF_BITS} fractional bits, with products
+ * computed using longs.  The fixed point coefficients are adjusted so that they sum up to exactly one, ensuring
+ * that constant regions are not modified.  Pixel values are rounded and saturated when written to the output.
+ * See {@link ImplGaussianRecursive} for a description of the algorithm and its approximation error.  In
+ * addition to that error, fixed point rounding adds at most one to the difference from the floating point
+ * implementation.
+ *
+ * @author Peter Abeles
+ */
+public class ImplGaussianRecursive_U8 extends ImplGaussianRecursive {
+
+	/**
+	 * Number of fractional bits in the filter's state
+	 */
+	public static final int STATE_BITS = 16;
+	/**
+	 * Number of fractional bits in the filter's coefficients
+	 */
+	public static final int COEF_BITS = 28;
+
+	private static final long COEF_ROUND = 1L << (COEF_BITS-1);
+	private static final int STATE_ROUND = 1 << (STATE_BITS-1);
+
+	// fixed point coefficients
+	private long fb,fa1,fa2,fa3;
+
+	// forward pass results for a single row
+	private int row[] = new int[0];
+	// forward pass results for the entire image in the vertical pass
+	private int work[] = new int[0];
+	// filter state for each column in the vertical pass
+	private int state1[] = new int[0];
+	private int state2[] = new int[0];
+	private int state3[] = new int[0];
+
+	public ImplGaussianRecursive_U8(double sigma) {
+		super(sigma);
+
+		fa1 = Math.round(a1*(1L << COEF_BITS));
+		fa2 = Math.round(a2*(1L << COEF_BITS));
+		fa3 = Math.round(a3*(1L << COEF_BITS));
+		fb = (1L << COEF_BITS) - (fa1+fa2+fa3);
+	}
+
+	/**
+	 * Blurs each row in the image.
+	 *
+	 * @param input Input image. Not modified.
+	 * @param output Blurred image. Can't be the same as the input.  Modified.
+	 */
+	public void horizontal( ImageUInt8 input , ImageUInt8 output ) {
+		final int width = input.width;
+		final byte dataIn[] = input.data;
+		final byte dataOut[] = output.data;
+
+		if( row.length < width )
+			row = new int[width];
+
+		for( int y = 0; y < input.height; y++ ) {
+			int indexIn = input.startIndex + y*input.stride;
+			int indexOut = output.startIndex + y*output.stride;
+
+			// forward pass, as if the first pixel extended forever
+			int first = (dataIn[indexIn] & 0xFF) << STATE_BITS;
+			long w1 = first, w2 = first, w3 = first;
+			for( int x = 0; x < width; x++ ) {
+				long v = (fb*((dataIn[indexIn+x] & 0xFF) << STATE_BITS) + fa1*w1 + fa2*w2 + fa3*w3 + COEF_ROUND) >> COEF_BITS;
+				w3 = w2; w2 = w1; w1 = v;
+				row[x] = (int)v;
+			}
+
+			// reverse pass, as if the last pixel extended forever
+			int last = (dataIn[indexIn+width-1] & 0xFF) << STATE_BITS;
+			double u1 = w1 - last, u2 = w2 - last, u3 = w3 - last;
+			w1 = Math.round(m[0]*u1 + m[1]*u2 + m[2]*u3) + last;
+			w2 = Math.round(m[3]*u1 + m[4]*u2 + m[5]*u3) + last;
+			w3 = Math.round(m[6]*u1 + m[7]*u2 + m[8]*u3) + last;
+			dataOut[indexOut+width-1] = toPixel(w1);
+
+			for( int x = width-2; x >= 0; x-- ) {
+				long v = (fb*row[x] + fa1*w1 + fa2*w2 + fa3*w3 + COEF_ROUND) >> COEF_BITS;
+				w3 = w2; w2 = w1; w1 = v;
+				dataOut[indexOut+x] = toPixel(v);
+			}
+		}
+	}
+
+	/**
+	 * Blurs each column in the image.  The image is traversed one row at a time with a separate filter for
+	 * each column to avoid cache misses.
+	 *
+	 * @param input Input image. Not modified.
+	 * @param output Blurred image. Can't be the same as the input.  Modified.
+	 */
+	public void vertical( ImageUInt8 input , ImageUInt8 output ) {
+		final int width = input.width;
+		final int height = input.height;
+		final byte dataIn[] = input.data;
+		final byte dataOut[] = output.data;
+
+		declareWork(width,height);
+
+		// state1 is the most recent value, state3 the oldest
+		int s1[] = state1, s2[] = state2, s3[] = state3;
+
+		// forward pass, as if the first row extended forever
+		for( int x = 0; x < width; x++ ) {
+			int first = (dataIn[input.startIndex + x] & 0xFF) << STATE_BITS;
+			s1[x] = s2[x] = s3[x] = first;
+		}
+
+		for( int y = 0; y < height; y++ ) {
+			int indexIn = input.startIndex + y*input.stride;
+			int indexWork = y*width;
+
+			for( int x = 0; x < width; x++ ) {
+				int v = (int)((fb*((dataIn[indexIn+x] & 0xFF) << STATE_BITS) +
+						fa1*s1[x] + fa2*s2[x] + fa3*s3[x] + COEF_ROUND) >> COEF_BITS);
+				s3[x] = v;
+				work[indexWork+x] = v;
+			}
+			int tmp[] = s3; s3 = s2; s2 = s1; s1 = tmp;
+		}
+
+		// reverse pass, as if the last row extended forever
+		int indexLastIn = input.startIndex + (height-1)*input.stride;
+		int indexLastOut = output.startIndex + (height-1)*output.stride;
+		for( int x = 0; x < width; x++ ) {
+			int last = (dataIn[indexLastIn+x] & 0xFF) << STATE_BITS;
+			double u1 = s1[x] - last, u2 = s2[x] - last, u3 = s3[x] - last;
+			s1[x] = (int)Math.round(m[0]*u1 + m[1]*u2 + m[2]*u3) + last;
+			s2[x] = (int)Math.round(m[3]*u1 + m[4]*u2 + m[5]*u3) + last;
+			s3[x] = (int)Math.round(m[6]*u1 + m[7]*u2 + m[8]*u3) + last;
+			dataOut[indexLastOut+x] = toPixel(s1[x]);
+		}
+
+		for( int y = height-2; y >= 0; y-- ) {
+			int indexOut = output.startIndex + y*output.stride;
+			int indexWork = y*width;
+
+			for( int x = 0; x < width; x++ ) {
+				int v = (int)((fb*work[indexWork+x] + fa1*s1[x] + fa2*s2[x] + fa3*s3[x] + COEF_ROUND) >> COEF_BITS);
+				s3[x] = v;
+				dataOut[indexOut+x] = toPixel(v);
+			}
+			int tmp[] = s3; s3 = s2; s2 = s1; s1 = tmp;
+		}
+	}
+
+	/**
+	 * Converts the fixed point state into a pixel value
+	 */
+	private static byte toPixel( long value ) {
+		long pixel = (value + STATE_ROUND) >> STATE_BITS;
+		if( pixel < 0 )
+			return 0;
+		else if( pixel > 255 )
+			return (byte)255;
+		return (byte)pixel;
+	}
+
+	private void declareWork( int width , int height ) {
+		if( state1.length < width ) {
+			state1 = new int[width];
+			state2 = new int[width];
+			state3 = new int[width];
+		}
+		if( work.length < width*height )
+			work = new int[width*height];
+	}
+}
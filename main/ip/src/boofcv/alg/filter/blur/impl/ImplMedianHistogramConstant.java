@@ -0,0 +1,273 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.filter.blur.impl;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Median filter whose cost per pixel does not depend on the radius.  Only the inner portion of the image is
+ * processed.  A histogram is maintained for each column, which is updated by adding one pixel and removing
+ * another as it moves down a row.  The kernel's histogram is then updated by adding and removing column histograms
+ * as it moves along a row.  To keep the cost of searching the histogram low each histogram is split into
+ * two levels.  The coarse level is composed of the upper bits and the fine level the lower bits.  The median is
+ * found in the coarse histogram first and then inside the fine histogram of the selected coarse bin.  Fine
+ * histograms inside the kernel are only updated when they are needed.
+ * </p>
+ *
+ * <p>
+ * Pixel values are read and written one row at a time by the child class.  Values must be less
+ * than 2<sup>coarseBits+fineBits</sup>.  If the column histograms would require too much memory the image is
+ * processed in vertical strips.
+ * </p>
+ *
+ * <p>
+ * Perreault, S. and Hébert, P. "Median Filtering in Constant Time"  IEEE Trans. Image Processing
+ * Vol 16, No. 9, 2007
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public abstract class ImplMedianHistogramConstant {
+
+	/**
+	 * Maximum number of elements in all the fine column histograms.  If exceeded the image is split into strips.
+	 */
+	public static final int MAX_FINE_ELEMENTS = 1 << 23;
+
+	// number of bits in the coarse and fine levels
+	protected int coarseBits;
+	protected int fineBits;
+	protected int numCoarse;
+	protected int numFine;
+
+	// histograms for each column.
+	private short colCoarse[] = new short[0];
+	private short colFine[] = new short[0];
+
+	// histogram of the kernel
+	private int kernelCoarse[];
+	private int kernelFine[];
+	// column the kernel's fine histogram was last updated at for each coarse bin. -1 if never
+	private int fineUpdated[];
+
+	// storage for reading and writing a row
+	private int row[] = new int[0];
+	private int rowOut[] = new int[0];
+
+	protected ImplMedianHistogramConstant( int coarseBits , int fineBits ) {
+		setBits(coarseBits, fineBits);
+	}
+
+	/**
+	 * Changes the number of bits in each level of the histogram
+	 */
+	protected void setBits( int coarseBits , int fineBits ) {
+		if( this.coarseBits == coarseBits && this.fineBits == fineBits )
+			return;
+		this.coarseBits = coarseBits;
+		this.fineBits = fineBits;
+		numCoarse = 1 << coarseBits;
+		numFine = 1 << fineBits;
+
+		kernelCoarse = new int[ numCoarse ];
+		kernelFine = new int[ numCoarse*numFine ];
+		fineUpdated = new int[ numCoarse ];
+	}
+
+	/**
+	 * Reads pixel values from the specified row
+	 *
+	 * @param y row being read
+	 * @param x0 first column, inclusive
+	 * @param x1 last column, exclusive
+	 * @param row (output) pixel values.  Element 0 corresponds to x0.
+	 */
+	protected abstract void readRow( int y , int x0 , int x1 , int row[] );
+
+	/**
+	 * Writes the median values for the specified row.
+	 *
+	 * @param y row being written
+	 * @param x0 first column, inclusive
+	 * @param x1 last column, exclusive
+	 * @param row Median values.  Element 0 corresponds to x0.
+	 */
+	protected abstract void writeRow( int y , int x0 , int x1 , int row[] );
+
+	/**
+	 * Computes the median for every pixel inside the region which is at least radius pixels away from its border
+	 *
+	 * @param x0 Region's lower extent along x-axis, inclusive
+	 * @param y0 Region's lower extent along y-axis, inclusive
+	 * @param x1 Region's upper extent along x-axis, exclusive
+	 * @param y1 Region's upper extent along y-axis, exclusive
+	 * @param radius Radius of the median filter
+	 */
+	protected void processRegion( int x0 , int y0 , int x1 , int y1 , int radius ) {
+		int w = 2*radius+1;
+		if( x1-x0 < w || y1-y0 < w )
+			return;
+		if( w > Short.MAX_VALUE )
+			throw new IllegalArgumentException("Radius is too large");
+
+		int maxColumns = Math.max(w+1,MAX_FINE_ELEMENTS/(numCoarse*numFine));
+		int outputPerStrip = maxColumns - 2*radius;
+
+		for( int ox0 = x0+radius; ox0 < x1-radius; ox0 += outputPerStrip ) {
+			int ox1 = Math.min(x1-radius,ox0+outputPerStrip);
+			processStrip(ox0, ox1, y0, y1, radius);
+		}
+	}
+
+	/**
+	 * Computes the median for output columns ox0 to ox1
+	 */
+	private void processStrip( int ox0 , int ox1 , int y0 , int y1 , int radius ) {
+		int w = 2*radius+1;
+		int cx0 = ox0-radius;
+		int numCols = ox1-ox0+2*radius;
+
+		// the number of bins can change between calls, so each array is checked against its own length
+		if( colCoarse.length < numCols*numCoarse )
+			colCoarse = new short[ numCols*numCoarse ];
+		if( colFine.length < numCols*numCoarse*numFine )
+			colFine = new short[ numCols*numCoarse*numFine ];
+		if( row.length < numCols ) {
+			row = new int[ numCols ];
+			rowOut = new int[ numCols ];
+		}
+
+		for( int y = y0; y < y0+w; y++ ) {
+			updateColumns(y, cx0, numCols, 1);
+		}
+
+		for( int y = y0+radius; y < y1-radius; y++ ) {
+			if( y > y0+radius ) {
+				updateColumns(y-radius-1, cx0, numCols, -1);
+				updateColumns(y+radius, cx0, numCols, 1);
+			}
+
+			processRow(ox1-ox0, w);
+			writeRow(y, ox0, ox1, rowOut);
+		}
+
+		// remove what's left so that the histograms are zero for the next strip
+		for( int y = y1-w; y < y1; y++ ) {
+			updateColumns(y, cx0, numCols, -1);
+		}
+	}
+
+	/**
+	 * Adds or removes the pixels in a row from the column histograms
+	 */
+	private void updateColumns( int y , int cx0 , int numCols , int delta ) {
+		readRow(y, cx0, cx0+numCols, row);
+
+		int fineMask = numFine-1;
+		for( int i = 0; i < numCols; i++ ) {
+			int value = row[i];
+			int coarse = i*numCoarse + (value >> fineBits);
+			colCoarse[coarse] += delta;
+			colFine[coarse*numFine + (value & fineMask)] += delta;
+		}
+	}
+
+	/**
+	 * Computes the median along a row using the column histograms
+	 *
+	 * @param numOutput Number of output pixels in the row
+	 * @param w Width of the kernel
+	 */
+	private void processRow( int numOutput , int w ) {
+		int threshold = (w*w)/2+1;
+
+		Arrays.fill(kernelCoarse, 0);
+		Arrays.fill(fineUpdated, -1);
+		for( int c = 0; c < w; c++ ) {
+			int index = c*numCoarse;
+			for( int k = 0; k < numCoarse; k++ ) {
+				kernelCoarse[k] += colCoarse[index++];
+			}
+		}
+
+		for( int i = 0; i < numOutput; i++ ) {
+			if( i > 0 ) {
+				int indexAdd = (i+w-1)*numCoarse;
+				int indexRemove = (i-1)*numCoarse;
+				for( int k = 0; k < numCoarse; k++ ) {
+					kernelCoarse[k] += colCoarse[indexAdd++] - colCoarse[indexRemove++];
+				}
+			}
+
+			// find the coarse bin which contains the median
+			int count = 0;
+			int coarse = 0;
+			while( count + kernelCoarse[coarse] < threshold ) {
+				count += kernelCoarse[coarse++];
+			}
+
+			updateFine(coarse, i, w);
+
+			// search inside the fine histogram
+			int index = coarse*numFine;
+			int fine = 0;
+			while( (count += kernelFine[index+fine]) < threshold ) {
+				fine++;
+			}
+
+			rowOut[i] = (coarse << fineBits) | fine;
+		}
+	}
+
+	/**
+	 * Brings the kernel's fine histogram for a coarse bin up to date.  Depending on how out of date it is,
+	 * it is either updated incrementally or rebuilt from scratch.
+	 *
+	 * @param coarse The coarse bin
+	 * @param i Column of the kernel's first column histogram
+	 * @param w Width of the kernel
+	 */
+	private void updateFine( int coarse , int i , int w ) {
+		int last = fineUpdated[coarse];
+		if( last == i )
+			return;
+		fineUpdated[coarse] = i;
+
+		int kernelIndex = coarse*numFine;
+
+		if( last < 0 || 2*(i-last) > w ) {
+			Arrays.fill(kernelFine, kernelIndex, kernelIndex+numFine, 0);
+			for( int c = i; c < i+w; c++ ) {
+				int colIndex = (c*numCoarse + coarse)*numFine;
+				for( int f = 0; f < numFine; f++ ) {
+					kernelFine[kernelIndex+f] += colFine[colIndex++];
+				}
+			}
+		} else {
+			for( int c = last+1; c <= i; c++ ) {
+				int indexAdd = ((c+w-1)*numCoarse + coarse)*numFine;
+				int indexRemove = ((c-1)*numCoarse + coarse)*numFine;
+				for( int f = 0; f < numFine; f++ ) {
+					kernelFine[kernelIndex+f] += colFine[indexAdd++] - colFine[indexRemove++];
+				}
+			}
+		}
+	}
+}
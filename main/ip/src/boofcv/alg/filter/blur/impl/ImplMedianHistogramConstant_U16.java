@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.filter.blur.impl;
+
+import boofcv.struct.image.ImageUInt16;
+
+/**
+ * Constant time median filter for {@link ImageUInt16}.  Only the inner portion of the image is processed.  See
+ * {@link ImplMedianHistogramConstant} for a description of the algorithm.
+ *
+ * @author Peter Abeles
+ */
+public class ImplMedianHistogramConstant_U16 extends ImplMedianHistogramConstant {
+
+	private ImageUInt16 input;
+	private ImageUInt16 output;
+
+	public ImplMedianHistogramConstant_U16() {
+		super(8, 8);
+	}
+
+	/**
+	 * Applies a median image filter to the inner portion of the image.
+	 *
+	 * @param input Input image. Not modified.
+	 * @param output Filtered output image. Modified.
+	 * @param radius Size of the filter region.
+	 */
+	public void process( ImageUInt16 input , ImageUInt16 output , int radius ) {
+		this.input = input;
+		this.output = output;
+
+		processRegion(0, 0, input.width, input.height, radius);
+
+		this.input = null;
+		this.output = null;
+	}
+
+	@Override
+	protected void readRow(int y, int x0, int x1, int[] row) {
+		int index = input.startIndex + y*input.stride + x0;
+		for( int x = x0; x < x1; x++ ) {
+			row[x-x0] = input.data[index++] & 0xFFFF;
+		}
+	}
+
+	@Override
+	protected void writeRow(int y, int x0, int x1, int[] row) {
+		int index = output.startIndex + y*output.stride + x0;
+		for( int x = x0; x < x1; x++ ) {
+			output.data[index++] = (short)row[x-x0];
+		}
+	}
+}
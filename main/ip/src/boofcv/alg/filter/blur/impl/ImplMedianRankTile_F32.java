@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.filter.blur.impl;
+
+import boofcv.struct.image.ImageFloat32;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Constant time median filter for {@link ImageFloat32}.  Only the inner portion of the image is processed.  The
+ * image is split into overlapping square tiles.  Inside a tile the pixels are sorted and each pixel is replaced by
+ * its rank, which requires at most 16-bits.  The rank image is then filtered using
+ * {@link ImplMedianHistogramConstant} and the median rank converted back into a pixel value.  Since each pixel has
+ * a unique rank the results are exact.  The cost of sorting is amortized across all the pixels in a tile.
+ * </p>
+ *
+ * <p>
+ * Tiles are sized relative to the radius and at most 256 by 256 pixels, which limits the radius
+ * to {@link #MAX_RADIUS}.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class ImplMedianRankTile_F32 extends ImplMedianHistogramConstant {
+
+	/**
+	 * The largest radius which can be processed
+	 */
+	public static final int MAX_RADIUS = 63;
+
+	private ImageFloat32 output;
+
+	// region in the input image the tile covers
+	private int tileX0, tileY0, tileWidth;
+
+	// rank of each pixel in the tile
+	private int ranks[] = new int[0];
+	// pixel values in the tile sorted from smallest to largest
+	private float sorted[] = new float[0];
+	// used to sort the pixels.  upper bits are the value and lower bits the index
+	private long keys[] = new long[0];
+
+	public ImplMedianRankTile_F32() {
+		super(6, 6);
+	}
+
+	/**
+	 * Applies a median image filter to the inner portion of the image.
+	 *
+	 * @param input Input image. Not modified.
+	 * @param output Filtered output image. Modified.
+	 * @param radius Size of the filter region.  Must be &le; {@link #MAX_RADIUS}
+	 */
+	public void process( ImageFloat32 input , ImageFloat32 output , int radius ) {
+		if( radius > MAX_RADIUS )
+			throw new IllegalArgumentException("Radius must be <= "+MAX_RADIUS);
+		this.output = output;
+
+		// pick a tile size which is large relative to the kernel
+		int bits = 6;
+		while( (1 << bits) < 4*(2*radius+1) && bits < 8 )
+			bits++;
+		int tileSize = 1 << bits;
+		setBits(bits, bits);
+
+		int N = tileSize*tileSize;
+		if( ranks.length < N ) {
+			ranks = new int[ N ];
+			sorted = new float[ N ];
+			keys = new long[ N ];
+		}
+
+		int step = tileSize - 2*radius;
+		for( int y0 = 0; y0 < input.height-2*radius; y0 += step ) {
+			int y1 = Math.min(input.height,y0+tileSize);
+			for( int x0 = 0; x0 < input.width-2*radius; x0 += step ) {
+				int x1 = Math.min(input.width,x0+tileSize);
+
+				computeRanks(input, x0, y0, x1, y1);
+				processRegion(x0, y0, x1, y1, radius);
+			}
+		}
+
+		this.output = null;
+	}
+
+	/**
+	 * Sorts the pixels inside the tile and computes their rank
+	 */
+	private void computeRanks( ImageFloat32 input , int x0 , int y0 , int x1 , int y1 ) {
+		tileX0 = x0;
+		tileY0 = y0;
+		tileWidth = x1-x0;
+
+		int N = 0;
+		for( int y = y0; y < y1; y++ ) {
+			int index = input.startIndex + y*input.stride + x0;
+			for( int x = x0; x < x1; x++ , N++ ) {
+				// convert the float into an int which has the same ordering
+				int bits = Float.floatToIntBits(input.data[index++]);
+				bits ^= (bits >> 31) & 0x7FFFFFFF;
+				keys[N] = ((long)bits << 32) | N;
+			}
+		}
+
+		Arrays.sort(keys,0,N);
+
+		for( int i = 0; i < N; i++ ) {
+			long key = keys[i];
+			int bits = (int)(key >> 32);
+			bits ^= (bits >> 31) & 0x7FFFFFFF;
+			ranks[(int)key] = i;
+			sorted[i] = Float.intBitsToFloat(bits);
+		}
+	}
+
+	@Override
+	protected void readRow(int y, int x0, int x1, int[] row) {
+		int index = (y-tileY0)*tileWidth + x0-tileX0;
+		System.arraycopy(ranks,index,row,0,x1-x0);
+	}
+
+	@Override
+	protected void writeRow(int y, int x0, int x1, int[] row) {
+		int index = output.startIndex + y*output.stride + x0;
+		for( int x = x0; x < x1; x++ ) {
+			output.data[index++] = sorted[row[x-x0]];
+		}
+	}
+}
@@ -0,0 +1,266 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.filter.convolve;
+
+import boofcv.alg.InputSanityCheck;
+import boofcv.alg.misc.ImageMiscOps;
+import boofcv.alg.transform.fft.FourierOps;
+import boofcv.alg.transform.fft.FourierTransformReal2D;
+import boofcv.core.image.border.ImageBorder_F32;
+import boofcv.core.image.border.ImageBorder_F64;
+import boofcv.struct.convolve.Kernel2D_F32;
+import boofcv.struct.convolve.Kernel2D_F64;
+import boofcv.struct.image.ImageFloat32;
+import boofcv.struct.image.ImageFloat64;
+
+/**
+ * <p>
+ * Convolution and correlation computed in the frequency domain.  The cost is independent of the kernel's size,
+ * making it much faster than spatial convolution for large kernels.  The image is padded to a size which is
+ * efficient to transform, see {@link FourierOps#nextFastSize(int)}, and all computations are done using double
+ * precision.  The output is the same as the equivalent spatial function, up to numerical precision.
+ * </p>
+ *
+ * <p>
+ * The transform plan and work space are saved and reused between calls with the same image shape.  The
+ * kernel's spectrum is also saved and is only recomputed when the kernel changes.  For this reason an instance
+ * should be reused when processing a sequence of images.  Not thread safe, but the transform itself will be
+ * run concurrently if {@link boofcv.concurrency.BoofConcurrency#USE_CONCURRENT} is true.
+ * </p>
+ *
+ * @see ConvolveImageAuto
+ *
+ * @author Peter Abeles
+ */
+public class ConvolveFourier {
+
+	// transform for the padded image
+	private FourierTransformReal2D plan;
+
+	// padded image
+	private ImageFloat64 work = new ImageFloat64(1,1);
+	// padded kernel
+	private ImageFloat64 workKernel = new ImageFloat64(1,1);
+
+	// spectrum of the image and the kernel
+	private double spectrumImage[] = new double[0];
+	private double spectrumKernel[] = new double[0];
+
+	// copy of the kernel whose spectrum is saved
+	private double cachedKernel[] = new double[0];
+	private int cachedWidth = -1, cachedHeight = -1;
+	// kernel being processed
+	private double kernel[] = new double[0];
+
+	/**
+	 * Convolves the kernel across the image.  Same as
+	 * {@link ConvolveWithBorder#convolve(Kernel2D_F32, ImageFloat32, ImageFloat32, ImageBorder_F32)}.
+	 *
+	 * @param kernel The kernel that is being convolved. Not modified.
+	 * @param image The original image. Not modified.
+	 * @param dest Where the resulting image is written to. Modified.
+	 * @param border How the image borders are handled.
+	 */
+	public void convolve( Kernel2D_F32 kernel , ImageFloat32 image , ImageFloat32 dest , ImageBorder_F32 border ) {
+		InputSanityCheck.checkSameShape(image, dest);
+
+		int r = kernel.getRadius();
+		declare(image.width + 2*r, image.height + 2*r);
+
+		// copy the image and the pixels around it into the padded image
+		border.setImage(image);
+		for( int y = 0; y < image.height + 2*r; y++ ) {
+			int indexWork = y*work.stride;
+			boolean inside = y >= r && y < image.height + r;
+			for( int x = 0; x < image.width + 2*r; x++ ) {
+				if( inside && x >= r && x < image.width + r )
+					work.data[indexWork+x] = image.data[image.startIndex + (y-r)*image.stride + x-r];
+				else
+					work.data[indexWork+x] = border.get(x-r,y-r);
+			}
+		}
+
+		setKernel(kernel.data, kernel.width, kernel.width);
+		correlate(image.width + 2*r, image.height + 2*r);
+
+		for( int y = 0; y < image.height; y++ ) {
+			int indexDst = dest.startIndex + y*dest.stride;
+			int indexWork = y*work.stride;
+			for( int x = 0; x < image.width; x++ )
+				dest.data[indexDst+x] = (float)work.data[indexWork+x];
+		}
+	}
+
+	/**
+	 * Convolves the kernel across the image.  Same as
+	 * {@link ConvolveWithBorder#convolve(Kernel2D_F64, ImageFloat64, ImageFloat64, ImageBorder_F64)}.
+	 *
+	 * @param kernel The kernel that is being convolved. Not modified.
+	 * @param image The original image. Not modified.
+	 * @param dest Where the resulting image is written to. Modified.
+	 * @param border How the image borders are handled.
+	 */
+	public void convolve( Kernel2D_F64 kernel , ImageFloat64 image , ImageFloat64 dest , ImageBorder_F64 border ) {
+		InputSanityCheck.checkSameShape(image, dest);
+
+		int r = kernel.getRadius();
+		declare(image.width + 2*r, image.height + 2*r);
+
+		// copy the image and the pixels around it into the padded image
+		border.setImage(image);
+		for( int y = 0; y < image.height + 2*r; y++ ) {
+			int indexWork = y*work.stride;
+			boolean inside = y >= r && y < image.height + r;
+			for( int x = 0; x < image.width + 2*r; x++ ) {
+				if( inside && x >= r && x < image.width + r )
+					work.data[indexWork+x] = image.data[image.startIndex + (y-r)*image.stride + x-r];
+				else
+					work.data[indexWork+x] = border.get(x-r,y-r);
+			}
+		}
+
+		setKernel(kernel.data, kernel.width, kernel.width);
+		correlate(image.width + 2*r, image.height + 2*r);
+
+		for( int y = 0; y < image.height; y++ ) {
+			System.arraycopy(work.data,y*work.stride,dest.data,dest.startIndex + y*dest.stride,image.width);
+		}
+	}
+
+	/**
+	 * <p>
+	 * Computes the correlation between the image and the kernel at every location where the kernel is
+	 * entirely inside the image.  Pixels outside the image are never considered.
+	 * </p>
+	 *
+	 * <p>output(x,y) = Sum<sub>(u,v)</sub> kernel(u,v)*image(x+u,y+v)</p>
+	 *
+	 * @param image Input image. Not modified.
+	 * @param kernel Kernel which is correlated with the image.  Can't be larger than the image. Not modified.
+	 * @param output Output image.  Must have a shape of (image.width-kernel.width+1) by
+	 *               (image.height-kernel.height+1).  Modified.
+	 */
+	public void correlateValid( ImageFloat64 image , ImageFloat64 kernel , ImageFloat64 output ) {
+		if( output.width != image.width - kernel.width + 1 || output.height != image.height - kernel.height + 1 )
+			throw new IllegalArgumentException("Unexpected output shape");
+
+		declare(image.width, image.height);
+
+		for( int y = 0; y < image.height; y++ ) {
+			System.arraycopy(image.data,image.startIndex + y*image.stride,work.data,y*work.stride,image.width);
+		}
+
+		int N = kernel.width*kernel.height;
+		if( this.kernel.length < N )
+			this.kernel = new double[N];
+		for( int y = 0; y < kernel.height; y++ ) {
+			System.arraycopy(kernel.data,kernel.startIndex + y*kernel.stride,this.kernel,y*kernel.width,kernel.width);
+		}
+		setKernel(this.kernel, kernel.width, kernel.height);
+
+		correlate(image.width, image.height);
+
+		for( int y = 0; y < output.height; y++ ) {
+			System.arraycopy(work.data,y*work.stride,output.data,output.startIndex + y*output.stride,output.width);
+		}
+	}
+
+	/**
+	 * Declares the plan and work space for an image with the specified shape before padding
+	 */
+	private void declare( int width , int height ) {
+		int paddedWidth = FourierOps.nextFastSize(width);
+		int paddedHeight = FourierOps.nextFastSize(height);
+
+		if( plan == null || plan.getWidth() != paddedWidth || plan.getHeight() != paddedHeight ) {
+			plan = new FourierTransformReal2D(paddedWidth,paddedHeight);
+			work.reshape(paddedWidth,paddedHeight);
+			workKernel.reshape(paddedWidth,paddedHeight);
+			if( spectrumImage.length < 2*plan.getSpectrumLength() ) {
+				spectrumImage = plan.createSpectrum();
+				spectrumKernel = plan.createSpectrum();
+			}
+			// the kernel's spectrum depends on the image's size
+			cachedWidth = -1;
+		}
+	}
+
+	/**
+	 * Computes the spectrum of the kernel, if it's different from the previous kernel
+	 */
+	private void setKernel( float data[] , int width , int height ) {
+		int N = width*height;
+		if( kernel.length < N )
+			kernel = new double[N];
+		for( int i = 0; i < N; i++ )
+			kernel[i] = data[i];
+		setKernel(kernel, width, height);
+	}
+
+	/**
+	 * Computes the spectrum of the kernel, if it's different from the previous kernel
+	 */
+	private void setKernel( double data[] , int width , int height ) {
+		int N = width*height;
+
+		if( width == cachedWidth && height == cachedHeight ) {
+			boolean same = true;
+			for( int i = 0; i < N; i++ ) {
+				if( data[i] != cachedKernel[i] ) {
+					same = false;
+					break;
+				}
+			}
+			if( same )
+				return;
+		}
+
+		if( cachedKernel.length < N )
+			cachedKernel = new double[N];
+		System.arraycopy(data,0,cachedKernel,0,N);
+		cachedWidth = width;
+		cachedHeight = height;
+
+		ImageMiscOps.fill(workKernel,0);
+		for( int y = 0; y < height; y++ ) {
+			System.arraycopy(data,y*width,workKernel.data,y*workKernel.stride,width);
+		}
+		plan.forward(workKernel,spectrumKernel);
+	}
+
+	/**
+	 * Correlates the kernel with the padded image.  The results are written into the padded image.
+	 *
+	 * @param width Width of the region in the padded image which has been filled in.
+	 * @param height Height of the region in the padded image which has been filled in.
+	 */
+	private void correlate( int width , int height ) {
+		// zero the unused part of the padded image so that it doesn't introduce numerical errors
+		for( int y = 0; y < work.height; y++ ) {
+			int index = y*work.stride;
+			int x0 = y < height ? width : 0;
+			for( int x = x0; x < work.width; x++ )
+				work.data[index+x] = 0;
+		}
+
+		plan.forward(work,spectrumImage);
+		FourierOps.multiplyConjugate(spectrumImage,spectrumKernel,spectrumImage,plan.getSpectrumLength());
+		plan.inverse(spectrumImage,work);
+	}
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.filter.convolve;
+
+import boofcv.core.image.border.ImageBorder_F32;
+import boofcv.core.image.border.ImageBorder_F64;
+import boofcv.struct.convolve.Kernel2D_F32;
+import boofcv.struct.convolve.Kernel2D_F64;
+import boofcv.struct.image.ImageFloat32;
+import boofcv.struct.image.ImageFloat64;
+
+/**
+ * <p>
+ * Convolves a kernel across an image and selects between spatial and frequency domain convolution based on
+ * the kernel's size.  Spatial convolution, {@link ConvolveWithBorder}, has a cost which grows with the number of
+ * elements in the kernel while the cost of {@link ConvolveFourier} only depends on the image's size.  Kernels
+ * which are at least {@link #FOURIER_MIN_WIDTH} wide are convolved in the frequency domain.
+ * </p>
+ *
+ * <p>
+ * {@link ConvolveFourier} saves the transform plan and the kernel's spectrum.  When processing a sequence of
+ * images pass in the same instance as storage each time so that they are only computed once.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class ConvolveImageAuto {
+
+	/**
+	 * Kernels with a width greater than or equal to this value are convolved using the FFT.  Selected
+	 * using BenchmarkConvolveFourier.
+	 */
+	public static int FOURIER_MIN_WIDTH = 11;
+
+	/**
+	 * Performs a 2D convolution across the image.  Borders are handled as specified by the 'border'
+	 * parameter.
+	 *
+	 * @param kernel The kernel that is being convolved. Not modified.
+	 * @param image The original image. Not modified.
+	 * @param dest Where the resulting image is written to. Modified.
+	 * @param border How the image borders are handled.
+	 */
+	public static void convolve( Kernel2D_F32 kernel ,
+								 ImageFloat32 image, ImageFloat32 dest , ImageBorder_F32 border ) {
+		convolve(kernel, image, dest, border, null);
+	}
+
+	/**
+	 * Performs a 2D convolution across the image.  Borders are handled as specified by the 'border'
+	 * parameter.
+	 *
+	 * @param kernel The kernel that is being convolved. Not modified.
+	 * @param image The original image. Not modified.
+	 * @param dest Where the resulting image is written to. Modified.
+	 * @param border How the image borders are handled.
+	 * @param storage (Optional) Used when the frequency domain is selected.  Can be null.
+	 */
+	public static void convolve( Kernel2D_F32 kernel ,
+								 ImageFloat32 image, ImageFloat32 dest , ImageBorder_F32 border ,
+								 ConvolveFourier storage ) {
+		if( kernel.width >= FOURIER_MIN_WIDTH ) {
+			if( storage == null )
+				storage = new ConvolveFourier();
+			storage.convolve(kernel, image, dest, border);
+		} else {
+			ConvolveWithBorder.convolve(kernel, image, dest, border);
+		}
+	}
+
+	/**
+	 * Performs a 2D convolution across the image.  Borders are handled as specified by the 'border'
+	 * parameter.
+	 *
+	 * @param kernel The kernel that is being convolved. Not modified.
+	 * @param image The original image. Not modified.
+	 * @param dest Where the resulting image is written to. Modified.
+	 * @param border How the image borders are handled.
+	 */
+	public static void convolve( Kernel2D_F64 kernel ,
+								 ImageFloat64 image, ImageFloat64 dest , ImageBorder_F64 border ) {
+		convolve(kernel, image, dest, border, null);
+	}
+
+	/**
+	 * Performs a 2D convolution across the image.  Borders are handled as specified by the 'border'
+	 * parameter.
+	 *
+	 * @param kernel The kernel that is being convolved. Not modified.
+	 * @param image The original image. Not modified.
+	 * @param dest Where the resulting image is written to. Modified.
+	 * @param border How the image borders are handled.
+	 * @param storage (Optional) Used when the frequency domain is selected.  Can be null.
+	 */
+	public static void convolve( Kernel2D_F64 kernel ,
+								 ImageFloat64 image, ImageFloat64 dest , ImageBorder_F64 border ,
+								 ConvolveFourier storage ) {
+		if( kernel.width >= FOURIER_MIN_WIDTH ) {
+			if( storage == null )
+				storage = new ConvolveFourier();
+			storage.convolve(kernel, image, dest, border);
+		} else {
+			ConvolveWithBorder.convolve(kernel, image, dest, border);
+		}
+	}
+}
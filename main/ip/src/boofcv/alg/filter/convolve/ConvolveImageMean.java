@@ -20,10 +20,7 @@ package boofcv.alg.filter.convolve;
 
 import boofcv.alg.InputSanityCheck;
 import boofcv.alg.filter.convolve.noborder.ImplConvolveMean;
-import boofcv.alg.filter.convolve.normalized.ConvolveNormalized_JustBorder;
-import boofcv.factory.filter.kernel.FactoryKernel;
-import boofcv.struct.convolve.Kernel1D_F32;
-import boofcv.struct.convolve.Kernel1D_I32;
+import boofcv.alg.filter.convolve.normalized.ConvolveNormalizedMean_JustBorder;
 import boofcv.struct.image.*;
 
 
@@ -47,8 +44,7 @@ public class ConvolveImageMean {
 	public static void horizontal(ImageFloat32 input, ImageFloat32 output, int radius) {
 		InputSanityCheck.checkSameShape(input , output);
 
-		Kernel1D_F32 kernel = FactoryKernel.table1D_F32(radius,true);
-		ConvolveNormalized_JustBorder.horizontal(kernel, input ,output );
+		ConvolveNormalizedMean_JustBorder.horizontal(input, output, radius);
 		ImplConvolveMean.horizontal(input, output, radius, true);
 	}
 
@@ -63,8 +59,7 @@ public class ConvolveImageMean {
 	public static void vertical(ImageFloat32 input, ImageFloat32 output, int radius) {
 		InputSanityCheck.checkSameShape(input , output);
 
-		Kernel1D_F32 kernel = FactoryKernel.table1D_F32(radius,true);
-		ConvolveNormalized_JustBorder.vertical(kernel, input ,output );
+		ConvolveNormalizedMean_JustBorder.vertical(input, output, radius);
 		ImplConvolveMean.vertical(input, output, radius, true);
 	}
 
@@ -79,8 +74,7 @@ public class ConvolveImageMean {
 	public static void horizontal(ImageUInt8 input, ImageInt8 output, int radius) {
 		InputSanityCheck.checkSameShape(input , output);
 
-		Kernel1D_I32 kernel = FactoryKernel.table1D_I32(radius);
-		ConvolveNormalized_JustBorder.horizontal(kernel, input, output);
+		ConvolveNormalizedMean_JustBorder.horizontal(input, output, radius);
 		ImplConvolveMean.horizontal(input, output, radius, true);
 	}
 
@@ -95,8 +89,7 @@ public class ConvolveImageMean {
 	public static void vertical(ImageUInt8 input, ImageInt8 output, int radius) {
 		InputSanityCheck.checkSameShape(input , output);
 
-		Kernel1D_I32 kernel = FactoryKernel.table1D_I32(radius);
-		ConvolveNormalized_JustBorder.vertical(kernel, input, output);
+		ConvolveNormalizedMean_JustBorder.vertical(input, output, radius);
 		ImplConvolveMean.vertical(input, output, radius, true);
 	}
 
@@ -111,8 +104,7 @@ public class ConvolveImageMean {
 	public static void horizontal(ImageSInt16 input, ImageInt16 output, int radius) {
 		InputSanityCheck.checkSameShape(input , output);
 
-		Kernel1D_I32 kernel = FactoryKernel.table1D_I32(radius);
-		ConvolveNormalized_JustBorder.horizontal(kernel, input, output);
+		ConvolveNormalizedMean_JustBorder.horizontal(input, output, radius);
 		ImplConvolveMean.horizontal(input, output, radius, true);
 	}
 
@@ -127,8 +119,7 @@ public class ConvolveImageMean {
 	public static void vertical(ImageSInt16 input, ImageInt16 output, int radius ) {
 		InputSanityCheck.checkSameShape(input , output);
 
-		Kernel1D_I32 kernel = FactoryKernel.table1D_I32(radius);
-		ConvolveNormalized_JustBorder.vertical(kernel, input, output);
+		ConvolveNormalizedMean_JustBorder.vertical(input, output, radius);
 		ImplConvolveMean.vertical(input, output, radius, true);
 	}
 }
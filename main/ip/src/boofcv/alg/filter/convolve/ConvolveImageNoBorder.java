@@ -20,9 +20,12 @@ package boofcv.alg.filter.convolve;
 
 import boofcv.alg.InputSanityCheck;
 import boofcv.alg.filter.convolve.noborder.*;
+import boofcv.concurrency.BoofConcurrency;
 import boofcv.struct.convolve.Kernel1D_F32;
+import boofcv.struct.convolve.Kernel1D_F64;
 import boofcv.struct.convolve.Kernel1D_I32;
 import boofcv.struct.convolve.Kernel2D_F32;
+import boofcv.struct.convolve.Kernel2D_F64;
 import boofcv.struct.convolve.Kernel2D_I32;
 import boofcv.struct.image.*;
 
@@ -44,6 +47,11 @@ import boofcv.struct.image.*;
  * handle image edges specialized functions are provided.
  * </p>
  *
+ * <p>
+ * If {@link BoofConcurrency#USE_CONCURRENT} is true then the image is split into row bands which are processed
+ * in parallel by {@link ConvolveImageNoBorder_MT}.
+ * </p>
+ *
  * @author Peter Abeles
  */
 @SuppressWarnings({"ForLoopReplaceableByForEach"})
@@ -64,10 +72,38 @@ public class ConvolveImageNoBorder {
 								  boolean includeVerticalBorder) {
 		InputSanityCheck.checkSameShape(input, output);
 
+		if( BoofConcurrency.USE_CONCURRENT ) {
+			ConvolveImageNoBorder_MT.horizontal(kernel, input, output, includeVerticalBorder);
+			return;
+		}
+
 		if (!ConvolveImageUnrolled_F32_F32.horizontal(kernel, input, output, includeVerticalBorder))
 			ConvolveImageStandard.horizontal(kernel, input, output, includeVerticalBorder);
 	}
 
+	/**
+	 * Performs a horizontal 1D convolution across the image.  The horizontal border
+	 * is not processed and the vertical border is optionally processed.  The border is as wide
+	 * as the radius of the kernel.
+	 *
+	 * @param input	 The original image. Not modified.
+	 * @param output Where the resulting image is written to. Modified.
+	 * @param kernel The kernel that is being convolved. Not modified.
+	 * @param includeVerticalBorder Should the vertical border of the image be processed?
+	 */
+	public static void horizontal(Kernel1D_F64 kernel,
+								  ImageFloat64 input,  ImageFloat64 output,
+								  boolean includeVerticalBorder) {
+		InputSanityCheck.checkSameShape(input, output);
+
+		if( BoofConcurrency.USE_CONCURRENT ) {
+			ConvolveImageNoBorder_MT.horizontal(kernel, input, output, includeVerticalBorder);
+			return;
+		}
+
+		ConvolveImageStandard.horizontal(kernel, input, output, includeVerticalBorder);
+	}
+
 	/**
 	 * Performs a horizontal 1D convolution across the image with division.  The horizontal border
 	 * is not processed and the vertical border is optionally processed.  The border is as wide
@@ -83,6 +119,11 @@ public class ConvolveImageNoBorder {
 								  ImageUInt8 input,  ImageInt8 output, int divisor, boolean includeVerticalBorder) {
 		InputSanityCheck.checkSameShape(input, output);
 
+		if( BoofConcurrency.USE_CONCURRENT ) {
+			ConvolveImageNoBorder_MT.horizontal(kernel, input, output, divisor, includeVerticalBorder);
+			return;
+		}
+
 		if( !ConvolveImageUnrolled_U8_I8_Div.horizontal(kernel, input,  output, divisor, includeVerticalBorder))
 			ConvolveImageStandard.horizontal(kernel, input,  output, divisor, includeVerticalBorder);
 	}
@@ -101,6 +142,11 @@ public class ConvolveImageNoBorder {
 								  ImageUInt8 input,  ImageInt16 output, boolean includeVerticalBorder) {
 		InputSanityCheck.checkSameShape(input, output);
 
+		if( BoofConcurrency.USE_CONCURRENT ) {
+			ConvolveImageNoBorder_MT.horizontal(kernel, input, output, includeVerticalBorder);
+			return;
+		}
+
 		if (!ConvolveImageUnrolled_U8_I16.horizontal(kernel, input,  output, includeVerticalBorder))
 			ConvolveImageStandard.horizontal(kernel, input,  output, includeVerticalBorder);
 	}
@@ -119,6 +165,11 @@ public class ConvolveImageNoBorder {
 								  ImageUInt8 input, ImageSInt32 output, boolean includeVerticalBorder) {
 		InputSanityCheck.checkSameShape(input, output);
 
+		if( BoofConcurrency.USE_CONCURRENT ) {
+			ConvolveImageNoBorder_MT.horizontal(kernel, input, output, includeVerticalBorder);
+			return;
+		}
+
 		// todo add unroll
 		ConvolveImageStandard.horizontal(kernel, input, output, includeVerticalBorder);
 	}
@@ -137,6 +188,11 @@ public class ConvolveImageNoBorder {
 								  ImageSInt16 input, ImageInt16 output, boolean includeVerticalBorder) {
 		InputSanityCheck.checkSameShape(input, output);
 
+		if( BoofConcurrency.USE_CONCURRENT ) {
+			ConvolveImageNoBorder_MT.horizontal(kernel, input, output, includeVerticalBorder);
+			return;
+		}
+
 		if (!ConvolveImageUnrolled_S16_I16.horizontal(kernel, input, output, includeVerticalBorder))
 			ConvolveImageStandard.horizontal(kernel, input, output, includeVerticalBorder);
 	}
@@ -156,6 +212,11 @@ public class ConvolveImageNoBorder {
 								  ImageSInt16 input, ImageInt16 output, int divisor, boolean includeVerticalBorder) {
 		InputSanityCheck.checkSameShape(input, output);
 
+		if( BoofConcurrency.USE_CONCURRENT ) {
+			ConvolveImageNoBorder_MT.horizontal(kernel, input, output, divisor, includeVerticalBorder);
+			return;
+		}
+
 		if (!ConvolveImageUnrolled_S16_I16_Div.horizontal(kernel, input, output, divisor, includeVerticalBorder))
 			ConvolveImageStandard.horizontal(kernel, input, output, divisor, includeVerticalBorder);
 	}
@@ -175,6 +236,11 @@ public class ConvolveImageNoBorder {
 								  ImageSInt32 input, ImageSInt32 output, int divisor, boolean includeVerticalBorder) {
 		InputSanityCheck.checkSameShape(input, output);
 
+		if( BoofConcurrency.USE_CONCURRENT ) {
+			ConvolveImageNoBorder_MT.horizontal(kernel, input, output, divisor, includeVerticalBorder);
+			return;
+		}
+
 		if (!ConvolveImageUnrolled_S32_S32_Div.horizontal(kernel, input, output, divisor, includeVerticalBorder))
 			ConvolveImageStandard.horizontal(kernel, input, output, divisor, includeVerticalBorder);
 	}
@@ -194,10 +260,38 @@ public class ConvolveImageNoBorder {
 								boolean includeHorizontalBorder) {
 		InputSanityCheck.checkSameShape(input, output);
 
+		if( BoofConcurrency.USE_CONCURRENT ) {
+			ConvolveImageNoBorder_MT.vertical(kernel, input, output, includeHorizontalBorder);
+			return;
+		}
+
 		if (!ConvolveImageUnrolled_F32_F32.vertical(kernel, input,  output, includeHorizontalBorder))
 			ConvolveImageStandard.vertical(kernel, input,  output, includeHorizontalBorder);
 	}
 
+	/**
+	 * Performs a vertical 1D convolution across the image.  The vertical border
+	 * is not processed and the horizontal border is optionally processed.  The border is as wide
+	 * as the radius of the kernel.
+	 *
+	 * @param input		 The original image. Not modified.
+	 * @param output		  Where the resulting image is written to. Modified.
+	 * @param kernel		The kernel that is being convolved. Not modified.
+	 * @param includeHorizontalBorder Should the horizontal border of the image be processed?
+	 */
+	public static void vertical(Kernel1D_F64 kernel,
+								ImageFloat64 input,  ImageFloat64 output,
+								boolean includeHorizontalBorder) {
+		InputSanityCheck.checkSameShape(input, output);
+
+		if( BoofConcurrency.USE_CONCURRENT ) {
+			ConvolveImageNoBorder_MT.vertical(kernel, input, output, includeHorizontalBorder);
+			return;
+		}
+
+		ConvolveImageStandard.vertical(kernel, input,  output, includeHorizontalBorder);
+	}
+
 	/**
 	 * Performs a vertical 1D convolution with division across the image.  The vertical border
 	 * is not processed and the horizontal border is optionally processed.  The border is as wide
@@ -213,6 +307,11 @@ public class ConvolveImageNoBorder {
 								ImageUInt8 input,  ImageInt8 output, int divisor, boolean includeHorizontalBorder) {
 		InputSanityCheck.checkSameShape(input, output);
 
+		if( BoofConcurrency.USE_CONCURRENT ) {
+			ConvolveImageNoBorder_MT.vertical(kernel, input, output, divisor, includeHorizontalBorder);
+			return;
+		}
+
 		if( !ConvolveImageUnrolled_U8_I8_Div.vertical(kernel, input,  output, divisor, includeHorizontalBorder))
 			ConvolveImageStandard.vertical(kernel, input,  output, divisor, includeHorizontalBorder);
 	}
@@ -232,6 +331,11 @@ public class ConvolveImageNoBorder {
 								boolean includeHorizontalBorder) {
 		InputSanityCheck.checkSameShape(input, output);
 
+		if( BoofConcurrency.USE_CONCURRENT ) {
+			ConvolveImageNoBorder_MT.vertical(kernel, input, output, includeHorizontalBorder);
+			return;
+		}
+
 		if (!ConvolveImageUnrolled_U8_I16.vertical(kernel, input,  output, includeHorizontalBorder))
 			ConvolveImageStandard.vertical(kernel, input,  output, includeHorizontalBorder);
 	}
@@ -251,6 +355,11 @@ public class ConvolveImageNoBorder {
 								boolean includeHorizontalBorder) {
 		InputSanityCheck.checkSameShape(input, output);
 
+		if( BoofConcurrency.USE_CONCURRENT ) {
+			ConvolveImageNoBorder_MT.vertical(kernel, input, output, includeHorizontalBorder);
+			return;
+		}
+
 		// todo add unroll
 		ConvolveImageStandard.vertical(kernel, input,  output, includeHorizontalBorder);
 	}
@@ -270,6 +379,11 @@ public class ConvolveImageNoBorder {
 								boolean includeHorizontalBorder) {
 		InputSanityCheck.checkSameShape(input, output);
 
+		if( BoofConcurrency.USE_CONCURRENT ) {
+			ConvolveImageNoBorder_MT.vertical(kernel, input, output, includeHorizontalBorder);
+			return;
+		}
+
 		if (!ConvolveImageUnrolled_S16_I16.vertical(kernel, input,  output, includeHorizontalBorder))
 			ConvolveImageStandard.vertical(kernel, input,  output, includeHorizontalBorder);
 	}
@@ -290,6 +404,11 @@ public class ConvolveImageNoBorder {
 								int divisor , boolean includeHorizontalBorder) {
 		InputSanityCheck.checkSameShape(input, output);
 
+		if( BoofConcurrency.USE_CONCURRENT ) {
+			ConvolveImageNoBorder_MT.vertical(kernel, input, output, divisor, includeHorizontalBorder);
+			return;
+		}
+
 		if (!ConvolveImageUnrolled_S16_I16_Div.vertical(kernel, input, output, divisor, includeHorizontalBorder))
 			ConvolveImageStandard.vertical(kernel, input, output, divisor, includeHorizontalBorder);
 	}
@@ -310,6 +429,11 @@ public class ConvolveImageNoBorder {
 								int divisor , boolean includeHorizontalBorder) {
 		InputSanityCheck.checkSameShape(input, output);
 
+		if( BoofConcurrency.USE_CONCURRENT ) {
+			ConvolveImageNoBorder_MT.vertical(kernel, input, output, divisor, includeHorizontalBorder);
+			return;
+		}
+
 		if (!ConvolveImageUnrolled_S32_S32_Div.vertical(kernel, input, output, divisor, includeHorizontalBorder))
 			ConvolveImageStandard.vertical(kernel, input, output, divisor, includeHorizontalBorder);
 	}
@@ -324,10 +448,33 @@ public class ConvolveImageNoBorder {
 	public static void convolve(Kernel2D_F32 kernel, ImageFloat32 input,  ImageFloat32 output) {
 		InputSanityCheck.checkSameShape(input, output);
 
+		if( BoofConcurrency.USE_CONCURRENT ) {
+			ConvolveImageNoBorder_MT.convolve(kernel, input, output);
+			return;
+		}
+
 		if( !ConvolveImageUnrolled_F32_F32.convolve(kernel,input,output))
 			ConvolveImageStandard.convolve(kernel, input,  output);
 	}
 
+	/**
+	 * Performs a 2D convolution across the image.  The image's borders are not processed.
+	 *
+	 * @param kernel A square kernel that will be convolved across the source image
+	 * @param input  The source image that is to be convolved
+	 * @param output   The results of the convolution
+	 */
+	public static void convolve(Kernel2D_F64 kernel, ImageFloat64 input,  ImageFloat64 output) {
+		InputSanityCheck.checkSameShape(input, output);
+
+		if( BoofConcurrency.USE_CONCURRENT ) {
+			ConvolveImageNoBorder_MT.convolve(kernel, input, output);
+			return;
+		}
+
+		ConvolveImageStandard.convolve(kernel, input,  output);
+	}
+
 	/**
 	 * Performs a 2D convolution with division across the image.  The image's borders are not processed.
 	 *
@@ -340,6 +487,11 @@ public class ConvolveImageNoBorder {
 								ImageUInt8 input,  ImageInt8 output, int divisor) {
 		InputSanityCheck.checkSameShape(input, output);
 
+		if( BoofConcurrency.USE_CONCURRENT ) {
+			ConvolveImageNoBorder_MT.convolve(kernel, input, output, divisor);
+			return;
+		}
+
 		if( !ConvolveImageUnrolled_U8_I8_Div.convolve(kernel,input,output,divisor))
 			ConvolveImageStandard.convolve(kernel, input,  output, divisor);
 	}
@@ -354,6 +506,11 @@ public class ConvolveImageNoBorder {
 	public static void convolve(Kernel2D_I32 kernel, ImageUInt8 input,  ImageInt16 output) {
 		InputSanityCheck.checkSameShape(input, output);
 
+		if( BoofConcurrency.USE_CONCURRENT ) {
+			ConvolveImageNoBorder_MT.convolve(kernel, input, output);
+			return;
+		}
+
 		if( !ConvolveImageUnrolled_U8_I16.convolve(kernel,input,output))
 			ConvolveImageStandard.convolve(kernel, input,  output);
 	}
@@ -368,6 +525,11 @@ public class ConvolveImageNoBorder {
 	public static void convolve(Kernel2D_I32 kernel, ImageUInt8 input,  ImageSInt32 output) {
 		InputSanityCheck.checkSameShape(input, output);
 
+		if( BoofConcurrency.USE_CONCURRENT ) {
+			ConvolveImageNoBorder_MT.convolve(kernel, input, output);
+			return;
+		}
+
 		// todo add unrolled
 		ConvolveImageStandard.convolve(kernel, input,  output);
 	}
@@ -382,6 +544,11 @@ public class ConvolveImageNoBorder {
 	public static void convolve(Kernel2D_I32 kernel, ImageSInt16 input,  ImageInt16 output) {
 		InputSanityCheck.checkSameShape(input, output);
 
+		if( BoofConcurrency.USE_CONCURRENT ) {
+			ConvolveImageNoBorder_MT.convolve(kernel, input, output);
+			return;
+		}
+
 		if( !ConvolveImageUnrolled_S16_I16.convolve(kernel,input,output))
 			ConvolveImageStandard.convolve(kernel, input,  output);
 	}
@@ -397,6 +564,11 @@ public class ConvolveImageNoBorder {
 	public static void convolve(Kernel2D_I32 kernel, ImageSInt16 input,  ImageInt16 output, int divisor ) {
 		InputSanityCheck.checkSameShape(input, output);
 
+		if( BoofConcurrency.USE_CONCURRENT ) {
+			ConvolveImageNoBorder_MT.convolve(kernel, input, output, divisor);
+			return;
+		}
+
 		if( !ConvolveImageUnrolled_S16_I16_Div.convolve(kernel,input,output,divisor))
 			ConvolveImageStandard.convolve(kernel, input,  output, divisor);
 	}
@@ -21,10 +21,12 @@ package boofcv.alg.filter.convolve;
 import boofcv.alg.InputSanityCheck;
 import boofcv.alg.filter.convolve.border.ConvolveJustBorder_General;
 import boofcv.core.image.border.ImageBorder_F32;
+import boofcv.core.image.border.ImageBorder_F64;
 import boofcv.core.image.border.ImageBorder_I32;
 import boofcv.struct.convolve.Kernel1D_F32;
 import boofcv.struct.convolve.Kernel1D_I32;
 import boofcv.struct.convolve.Kernel2D_F32;
+import boofcv.struct.convolve.Kernel2D_F64;
 import boofcv.struct.convolve.Kernel2D_I32;
 import boofcv.struct.image.*;
 
@@ -33,6 +35,12 @@ import boofcv.struct.image.*;
  * Convolves a kernel across an image and handles the image border using the specified method.
  * </p>
  *
+ * <p>
+ * The inner image is convolved using {@link ConvolveImageNoBorder}, which will be run concurrently if
+ * {@link boofcv.concurrency.BoofConcurrency#USE_CONCURRENT} is true.  The border is always processed in
+ * a single thread since its cost is small relative to the inner image.
+ * </p>
+ *
  * @author Peter Abeles
  */
 public class ConvolveWithBorder {
@@ -90,6 +98,24 @@ public class ConvolveWithBorder {
 		ConvolveJustBorder_General.convolve(kernel,border,dest,kernel.getRadius());
 	}
 
+	/**
+	 * Performs a 2D convolution across the image.  Borders are handled as specified by the 'border'
+	 * parameter.
+	 *
+	 * @param image	 The original image. Not modified.
+	 * @param dest	 Where the resulting image is written to. Modified.
+	 * @param kernel The kernel that is being convolved. Not modified.
+	 * @param border How the image borders are handled.
+	 */
+	public static void convolve(Kernel2D_F64 kernel,
+								ImageFloat64 image, ImageFloat64 dest , ImageBorder_F64 border ) {
+		InputSanityCheck.checkSameShape(image, dest);
+
+		border.setImage(image);
+		ConvolveImageNoBorder.convolve(kernel,image,dest);
+		ConvolveJustBorder_General.convolve(kernel,border,dest,kernel.getRadius());
+	}
+
 	/**
 	 * Performs a horizontal 1D convolution across the image.  Borders are handled as specified by the 'border'
 	 * parameter.
@@ -19,12 +19,16 @@
 package boofcv.alg.filter.convolve.border;
 
 import boofcv.core.image.border.ImageBorder_F32;
+import boofcv.core.image.border.ImageBorder_F64;
 import boofcv.core.image.border.ImageBorder_I32;
 import boofcv.struct.convolve.Kernel1D_F32;
+import boofcv.struct.convolve.Kernel1D_F64;
 import boofcv.struct.convolve.Kernel1D_I32;
 import boofcv.struct.convolve.Kernel2D_F32;
+import boofcv.struct.convolve.Kernel2D_F64;
 import boofcv.struct.convolve.Kernel2D_I32;
 import boofcv.struct.image.ImageFloat32;
+import boofcv.struct.image.ImageFloat64;
 import boofcv.struct.image.ImageInt16;
 import boofcv.struct.image.ImageSInt32;
 
@@ -167,6 +171,131 @@ public class ConvolveJustBorder_General {
 		}
 	}
 
+	public static void horizontal(Kernel1D_F64 kernel, ImageBorder_F64 input, ImageFloat64 output , int border ) {
+		final double[] dataDst = output.data;
+		final double[] dataKer = kernel.data;
+
+		final int radius = kernel.getRadius();
+		final int width = output.getWidth();
+		final int height = output.getHeight();
+
+		for (int y = 0; y < height; y++) {
+			int indexDest = output.startIndex + y * output.stride;
+
+			for ( int x = 0; x < border; x++ ) {
+				double total = 0;
+				for (int k = -radius; k <= radius; k++) {
+					total += input.get(x+k,y) * dataKer[k+radius];
+				}
+				dataDst[indexDest++] = total;
+			}
+
+			indexDest = output.startIndex + y * output.stride + width-border;
+			for ( int x = width-border; x < width; x++ ) {
+				double total = 0;
+				for (int k = -radius; k <= radius; k++) {
+					total += input.get(x+k,y) * dataKer[k+radius];
+				}
+				dataDst[indexDest++] = total;
+			}
+		}
+	}
+
+	public static void vertical(Kernel1D_F64 kernel, ImageBorder_F64 input, ImageFloat64 output , int border ) {
+		final double[] dataDst = output.data;
+		final double[] dataKer = kernel.data;
+
+		final int radius = kernel.getRadius();
+		final int width = output.getWidth();
+		final int height = output.getHeight();
+
+		for ( int x = 0; x < width; x++ ) {
+			int indexDest = output.startIndex + x;
+
+			for (int y = 0; y < border; y++, indexDest += output.stride) {
+				double total = 0;
+				for (int k = -radius; k <= radius; k++) {
+					total += input.get(x,y+k) * dataKer[k+radius];
+				}
+				dataDst[indexDest] = total;
+			}
+
+			indexDest = output.startIndex + (height-border) * output.stride + x;
+			for (int y = height-border; y < height; y++, indexDest += output.stride) {
+				double total = 0;
+				for (int k = -radius; k <= radius; k++ ) {
+					total += input.get(x,y+k) * dataKer[k+radius];
+				}
+				dataDst[indexDest] = total;
+			}
+		}
+	}
+
+	public static void convolve(Kernel2D_F64 kernel, ImageBorder_F64 input, ImageFloat64 output , int border ) {
+		final double[] dataDst = output.data;
+		final double[] dataKer = kernel.data;
+
+		final int radius = kernel.getRadius();
+		final int width = output.getWidth();
+		final int height = output.getHeight();
+
+		// convolve along the left and right borders
+		for (int y = 0; y < height; y++) {
+			int indexDest = output.startIndex + y * output.stride;
+
+			for ( int x = 0; x < border; x++ ) {
+				double total = 0;
+				int indexKer = 0;
+				for( int i = -radius; i <= radius; i++ ) {
+					for (int j = -radius; j <= radius; j++) {
+						total += input.get(x+j,y+i) * dataKer[indexKer++];
+					}
+				}
+				dataDst[indexDest++] = total;
+			}
+
+			indexDest = output.startIndex + y * output.stride + width-border;
+			for ( int x = width-border; x < width; x++ ) {
+				double total = 0;
+				int indexKer = 0;
+				for( int i = -radius; i <= radius; i++ ) {
+					for (int j = -radius; j <= radius; j++) {
+						total += input.get(x+j,y+i) * dataKer[indexKer++];
+					}
+				}
+				dataDst[indexDest++] = total;
+			}
+		}
+
+		// convolve along the top and bottom borders
+		for ( int x = border; x < width-border; x++ ) {
+			int indexDest = output.startIndex + x;
+
+			for (int y = 0; y < border; y++, indexDest += output.stride) {
+				double total = 0;
+				int indexKer = 0;
+				for( int i = -radius; i <= radius; i++ ) {
+					for (int j = -radius; j <= radius; j++) {
+						total += input.get(x+j,y+i) * dataKer[indexKer++];
+					}
+				}
+				dataDst[indexDest] = total;
+			}
+
+			indexDest = output.startIndex + (height-border) * output.stride + x;
+			for (int y = height-border; y < height; y++, indexDest += output.stride) {
+				double total = 0;
+				int indexKer = 0;
+				for( int i = -radius; i <= radius; i++ ) {
+					for (int j = -radius; j <= radius; j++) {
+						total += input.get(x+j,y+i) * dataKer[indexKer++];
+					}
+				}
+				dataDst[indexDest] = total;
+			}
+		}
+	}
+
 	public static void horizontal(Kernel1D_I32 kernel, ImageBorder_I32 input, ImageInt16 output , int border ) {
 		final short[] dataDst = output.data;
 		final int[] dataKer = kernel.data;
@@ -0,0 +1,422 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.filter.convolve.noborder;
+
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeTask;
+import boofcv.struct.convolve.Kernel1D_F32;
+import boofcv.struct.convolve.Kernel1D_F64;
+import boofcv.struct.convolve.Kernel1D_I32;
+import boofcv.struct.convolve.Kernel2D_F32;
+import boofcv.struct.convolve.Kernel2D_F64;
+import boofcv.struct.convolve.Kernel2D_I32;
+import boofcv.struct.image.*;
+
+/**
+ * <p>
+ * Concurrent implementation of {@link boofcv.alg.filter.convolve.ConvolveImageNoBorder}.  The image is split
+ * into horizontal bands of rows which are processed in parallel using {@link BoofConcurrency}.  Each band is
+ * a sub-image which is convolved using the same unrolled or standard algorithm as the single threaded code, so
+ * the results are identical.  Bands for vertical and 2D convolution include the kernel's radius worth of rows
+ * above and below, but only write to the rows they own.
+ * </p>
+ *
+ * <p>
+ * Input images are assumed to have already been checked for the correct shape.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class ConvolveImageNoBorder_MT {
+
+	/**
+	 * Minimum number of rows in a band.  Smaller bands are not worth the overhead.
+	 */
+	public static int MIN_BAND = 10;
+
+	public static void horizontal( final Kernel1D_F32 kernel,
+								  final ImageFloat32 input, final ImageFloat32 output, final boolean includeVerticalBorder ) {
+		final int radius = kernel.getRadius();
+		int border = includeVerticalBorder ? 0 : radius;
+
+		BoofConcurrency.loopBlocks(border, input.height-border, MIN_BAND, new IntRangeTask() {
+			@Override
+			public void process(int start, int end) {
+				ImageFloat32 in = input.subimage(0,start,input.width,end);
+				ImageFloat32 out = output.subimage(0,start,output.width,end);
+
+				if( !ConvolveImageUnrolled_F32_F32.horizontal(kernel, in, out, true))
+					ConvolveImageStandard.horizontal(kernel, in, out, true);
+			}
+		});
+	}
+
+	public static void horizontal( final Kernel1D_F64 kernel,
+								  final ImageFloat64 input, final ImageFloat64 output, final boolean includeVerticalBorder ) {
+		final int radius = kernel.getRadius();
+		int border = includeVerticalBorder ? 0 : radius;
+
+		BoofConcurrency.loopBlocks(border, input.height-border, MIN_BAND, new IntRangeTask() {
+			@Override
+			public void process(int start, int end) {
+				ImageFloat64 in = input.subimage(0,start,input.width,end);
+				ImageFloat64 out = output.subimage(0,start,output.width,end);
+
+				ConvolveImageStandard.horizontal(kernel, in, out, true);
+			}
+		});
+	}
+
+	public static void horizontal( final Kernel1D_I32 kernel,
+								  final ImageUInt8 input, final ImageInt8 output, final int divisor, final boolean includeVerticalBorder ) {
+		final int radius = kernel.getRadius();
+		int border = includeVerticalBorder ? 0 : radius;
+
+		BoofConcurrency.loopBlocks(border, input.height-border, MIN_BAND, new IntRangeTask() {
+			@Override
+			public void process(int start, int end) {
+				ImageUInt8 in = input.subimage(0,start,input.width,end);
+				ImageInt8 out = (ImageInt8)output.subimage(0,start,output.width,end);
+
+				if( !ConvolveImageUnrolled_U8_I8_Div.horizontal(kernel, in, out, divisor, true))
+					ConvolveImageStandard.horizontal(kernel, in, out, divisor, true);
+			}
+		});
+	}
+
+	public static void horizontal( final Kernel1D_I32 kernel,
+								  final ImageUInt8 input, final ImageInt16 output, final boolean includeVerticalBorder ) {
+		final int radius = kernel.getRadius();
+		int border = includeVerticalBorder ? 0 : radius;
+
+		BoofConcurrency.loopBlocks(border, input.height-border, MIN_BAND, new IntRangeTask() {
+			@Override
+			public void process(int start, int end) {
+				ImageUInt8 in = input.subimage(0,start,input.width,end);
+				ImageInt16 out = (ImageInt16)output.subimage(0,start,output.width,end);
+
+				if( !ConvolveImageUnrolled_U8_I16.horizontal(kernel, in, out, true))
+					ConvolveImageStandard.horizontal(kernel, in, out, true);
+			}
+		});
+	}
+
+	public static void horizontal( final Kernel1D_I32 kernel,
+								  final ImageUInt8 input, final ImageSInt32 output, final boolean includeVerticalBorder ) {
+		final int radius = kernel.getRadius();
+		int border = includeVerticalBorder ? 0 : radius;
+
+		BoofConcurrency.loopBlocks(border, input.height-border, MIN_BAND, new IntRangeTask() {
+			@Override
+			public void process(int start, int end) {
+				ImageUInt8 in = input.subimage(0,start,input.width,end);
+				ImageSInt32 out = output.subimage(0,start,output.width,end);
+
+				ConvolveImageStandard.horizontal(kernel, in, out, true);
+			}
+		});
+	}
+
+	public static void horizontal( final Kernel1D_I32 kernel,
+								  final ImageSInt16 input, final ImageInt16 output, final boolean includeVerticalBorder ) {
+		final int radius = kernel.getRadius();
+		int border = includeVerticalBorder ? 0 : radius;
+
+		BoofConcurrency.loopBlocks(border, input.height-border, MIN_BAND, new IntRangeTask() {
+			@Override
+			public void process(int start, int end) {
+				ImageSInt16 in = input.subimage(0,start,input.width,end);
+				ImageInt16 out = (ImageInt16)output.subimage(0,start,output.width,end);
+
+				if( !ConvolveImageUnrolled_S16_I16.horizontal(kernel, in, out, true))
+					ConvolveImageStandard.horizontal(kernel, in, out, true);
+			}
+		});
+	}
+
+	public static void horizontal( final Kernel1D_I32 kernel,
+								  final ImageSInt16 input, final ImageInt16 output, final int divisor, final boolean includeVerticalBorder ) {
+		final int radius = kernel.getRadius();
+		int border = includeVerticalBorder ? 0 : radius;
+
+		BoofConcurrency.loopBlocks(border, input.height-border, MIN_BAND, new IntRangeTask() {
+			@Override
+			public void process(int start, int end) {
+				ImageSInt16 in = input.subimage(0,start,input.width,end);
+				ImageInt16 out = (ImageInt16)output.subimage(0,start,output.width,end);
+
+				if( !ConvolveImageUnrolled_S16_I16_Div.horizontal(kernel, in, out, divisor, true))
+					ConvolveImageStandard.horizontal(kernel, in, out, divisor, true);
+			}
+		});
+	}
+
+	public static void horizontal( final Kernel1D_I32 kernel,
+								  final ImageSInt32 input, final ImageSInt32 output, final int divisor, final boolean includeVerticalBorder ) {
+		final int radius = kernel.getRadius();
+		int border = includeVerticalBorder ? 0 : radius;
+
+		BoofConcurrency.loopBlocks(border, input.height-border, MIN_BAND, new IntRangeTask() {
+			@Override
+			public void process(int start, int end) {
+				ImageSInt32 in = input.subimage(0,start,input.width,end);
+				ImageSInt32 out = output.subimage(0,start,output.width,end);
+
+				if( !ConvolveImageUnrolled_S32_S32_Div.horizontal(kernel, in, out, divisor, true))
+					ConvolveImageStandard.horizontal(kernel, in, out, divisor, true);
+			}
+		});
+	}
+
+	public static void vertical( final Kernel1D_F32 kernel,
+								  final ImageFloat32 input, final ImageFloat32 output, final boolean includeHorizontalBorder ) {
+		final int radius = kernel.getRadius();
+
+		BoofConcurrency.loopBlocks(radius, input.height-radius, MIN_BAND, new IntRangeTask() {
+			@Override
+			public void process(int start, int end) {
+				ImageFloat32 in = input.subimage(0,start-radius,input.width,end+radius);
+				ImageFloat32 out = output.subimage(0,start-radius,output.width,end+radius);
+
+				if( !ConvolveImageUnrolled_F32_F32.vertical(kernel, in, out, includeHorizontalBorder))
+					ConvolveImageStandard.vertical(kernel, in, out, includeHorizontalBorder);
+			}
+		});
+	}
+
+	public static void vertical( final Kernel1D_F64 kernel,
+								  final ImageFloat64 input, final ImageFloat64 output, final boolean includeHorizontalBorder ) {
+		final int radius = kernel.getRadius();
+
+		BoofConcurrency.loopBlocks(radius, input.height-radius, MIN_BAND, new IntRangeTask() {
+			@Override
+			public void process(int start, int end) {
+				ImageFloat64 in = input.subimage(0,start-radius,input.width,end+radius);
+				ImageFloat64 out = output.subimage(0,start-radius,output.width,end+radius);
+
+				ConvolveImageStandard.vertical(kernel, in, out, includeHorizontalBorder);
+			}
+		});
+	}
+
+	public static void vertical( final Kernel1D_I32 kernel,
+								  final ImageUInt8 input, final ImageInt8 output, final int divisor, final boolean includeHorizontalBorder ) {
+		final int radius = kernel.getRadius();
+
+		BoofConcurrency.loopBlocks(radius, input.height-radius, MIN_BAND, new IntRangeTask() {
+			@Override
+			public void process(int start, int end) {
+				ImageUInt8 in = input.subimage(0,start-radius,input.width,end+radius);
+				ImageInt8 out = (ImageInt8)output.subimage(0,start-radius,output.width,end+radius);
+
+				if( !ConvolveImageUnrolled_U8_I8_Div.vertical(kernel, in, out, divisor, includeHorizontalBorder))
+					ConvolveImageStandard.vertical(kernel, in, out, divisor, includeHorizontalBorder);
+			}
+		});
+	}
+
+	public static void vertical( final Kernel1D_I32 kernel,
+								  final ImageUInt8 input, final ImageInt16 output, final boolean includeHorizontalBorder ) {
+		final int radius = kernel.getRadius();
+
+		BoofConcurrency.loopBlocks(radius, input.height-radius, MIN_BAND, new IntRangeTask() {
+			@Override
+			public void process(int start, int end) {
+				ImageUInt8 in = input.subimage(0,start-radius,input.width,end+radius);
+				ImageInt16 out = (ImageInt16)output.subimage(0,start-radius,output.width,end+radius);
+
+				if( !ConvolveImageUnrolled_U8_I16.vertical(kernel, in, out, includeHorizontalBorder))
+					ConvolveImageStandard.vertical(kernel, in, out, includeHorizontalBorder);
+			}
+		});
+	}
+
+	public static void vertical( final Kernel1D_I32 kernel,
+								  final ImageUInt8 input, final ImageSInt32 output, final boolean includeHorizontalBorder ) {
+		final int radius = kernel.getRadius();
+
+		BoofConcurrency.loopBlocks(radius, input.height-radius, MIN_BAND, new IntRangeTask() {
+			@Override
+			public void process(int start, int end) {
+				ImageUInt8 in = input.subimage(0,start-radius,input.width,end+radius);
+				ImageSInt32 out = output.subimage(0,start-radius,output.width,end+radius);
+
+				ConvolveImageStandard.vertical(kernel, in, out, includeHorizontalBorder);
+			}
+		});
+	}
+
+	public static void vertical( final Kernel1D_I32 kernel,
+								  final ImageSInt16 input, final ImageInt16 output, final boolean includeHorizontalBorder ) {
+		final int radius = kernel.getRadius();
+
+		BoofConcurrency.loopBlocks(radius, input.height-radius, MIN_BAND, new IntRangeTask() {
+			@Override
+			public void process(int start, int end) {
+				ImageSInt16 in = input.subimage(0,start-radius,input.width,end+radius);
+				ImageInt16 out = (ImageInt16)output.subimage(0,start-radius,output.width,end+radius);
+
+				if( !ConvolveImageUnrolled_S16_I16.vertical(kernel, in, out, includeHorizontalBorder))
+					ConvolveImageStandard.vertical(kernel, in, out, includeHorizontalBorder);
+			}
+		});
+	}
+
+	public static void vertical( final Kernel1D_I32 kernel,
+								  final ImageSInt16 input, final ImageInt16 output, final int divisor, final boolean includeHorizontalBorder ) {
+		final int radius = kernel.getRadius();
+
+		BoofConcurrency.loopBlocks(radius, input.height-radius, MIN_BAND, new IntRangeTask() {
+			@Override
+			public void process(int start, int end) {
+				ImageSInt16 in = input.subimage(0,start-radius,input.width,end+radius);
+				ImageInt16 out = (ImageInt16)output.subimage(0,start-radius,output.width,end+radius);
+
+				if( !ConvolveImageUnrolled_S16_I16_Div.vertical(kernel, in, out, divisor, includeHorizontalBorder))
+					ConvolveImageStandard.vertical(kernel, in, out, divisor, includeHorizontalBorder);
+			}
+		});
+	}
+
+	public static void vertical( final Kernel1D_I32 kernel,
+								  final ImageSInt32 input, final ImageSInt32 output, final int divisor, final boolean includeHorizontalBorder ) {
+		final int radius = kernel.getRadius();
+
+		BoofConcurrency.loopBlocks(radius, input.height-radius, MIN_BAND, new IntRangeTask() {
+			@Override
+			public void process(int start, int end) {
+				ImageSInt32 in = input.subimage(0,start-radius,input.width,end+radius);
+				ImageSInt32 out = output.subimage(0,start-radius,output.width,end+radius);
+
+				if( !ConvolveImageUnrolled_S32_S32_Div.vertical(kernel, in, out, divisor, includeHorizontalBorder))
+					ConvolveImageStandard.vertical(kernel, in, out, divisor, includeHorizontalBorder);
+			}
+		});
+	}
+
+	public static void convolve( final Kernel2D_F32 kernel,
+								  final ImageFloat32 input, final ImageFloat32 output ) {
+		final int radius = kernel.getRadius();
+
+		BoofConcurrency.loopBlocks(radius, input.height-radius, MIN_BAND, new IntRangeTask() {
+			@Override
+			public void process(int start, int end) {
+				ImageFloat32 in = input.subimage(0,start-radius,input.width,end+radius);
+				ImageFloat32 out = output.subimage(0,start-radius,output.width,end+radius);
+
+				if( !ConvolveImageUnrolled_F32_F32.convolve(kernel, in, out))
+					ConvolveImageStandard.convolve(kernel, in, out);
+			}
+		});
+	}
+
+	public static void convolve( final Kernel2D_F64 kernel,
+								  final ImageFloat64 input, final ImageFloat64 output ) {
+		final int radius = kernel.getRadius();
+
+		BoofConcurrency.loopBlocks(radius, input.height-radius, MIN_BAND, new IntRangeTask() {
+			@Override
+			public void process(int start, int end) {
+				ImageFloat64 in = input.subimage(0,start-radius,input.width,end+radius);
+				ImageFloat64 out = output.subimage(0,start-radius,output.width,end+radius);
+
+				ConvolveImageStandard.convolve(kernel, in, out);
+			}
+		});
+	}
+
+	public static void convolve( final Kernel2D_I32 kernel,
+								  final ImageUInt8 input, final ImageInt8 output, final int divisor ) {
+		final int radius = kernel.getRadius();
+
+		BoofConcurrency.loopBlocks(radius, input.height-radius, MIN_BAND, new IntRangeTask() {
+			@Override
+			public void process(int start, int end) {
+				ImageUInt8 in = input.subimage(0,start-radius,input.width,end+radius);
+				ImageInt8 out = (ImageInt8)output.subimage(0,start-radius,output.width,end+radius);
+
+				if( !ConvolveImageUnrolled_U8_I8_Div.convolve(kernel, in, out, divisor))
+					ConvolveImageStandard.convolve(kernel, in, out, divisor);
+			}
+		});
+	}
+
+	public static void convolve( final Kernel2D_I32 kernel,
+								  final ImageUInt8 input, final ImageInt16 output ) {
+		final int radius = kernel.getRadius();
+
+		BoofConcurrency.loopBlocks(radius, input.height-radius, MIN_BAND, new IntRangeTask() {
+			@Override
+			public void process(int start, int end) {
+				ImageUInt8 in = input.subimage(0,start-radius,input.width,end+radius);
+				ImageInt16 out = (ImageInt16)output.subimage(0,start-radius,output.width,end+radius);
+
+				if( !ConvolveImageUnrolled_U8_I16.convolve(kernel, in, out))
+					ConvolveImageStandard.convolve(kernel, in, out);
+			}
+		});
+	}
+
+	public static void convolve( final Kernel2D_I32 kernel,
+								  final ImageUInt8 input, final ImageSInt32 output ) {
+		final int radius = kernel.getRadius();
+
+		BoofConcurrency.loopBlocks(radius, input.height-radius, MIN_BAND, new IntRangeTask() {
+			@Override
+			public void process(int start, int end) {
+				ImageUInt8 in = input.subimage(0,start-radius,input.width,end+radius);
+				ImageSInt32 out = output.subimage(0,start-radius,output.width,end+radius);
+
+				ConvolveImageStandard.convolve(kernel, in, out);
+			}
+		});
+	}
+
+	public static void convolve( final Kernel2D_I32 kernel,
+								  final ImageSInt16 input, final ImageInt16 output ) {
+		final int radius = kernel.getRadius();
+
+		BoofConcurrency.loopBlocks(radius, input.height-radius, MIN_BAND, new IntRangeTask() {
+			@Override
+			public void process(int start, int end) {
+				ImageSInt16 in = input.subimage(0,start-radius,input.width,end+radius);
+				ImageInt16 out = (ImageInt16)output.subimage(0,start-radius,output.width,end+radius);
+
+				if( !ConvolveImageUnrolled_S16_I16.convolve(kernel, in, out))
+					ConvolveImageStandard.convolve(kernel, in, out);
+			}
+		});
+	}
+
+	public static void convolve( final Kernel2D_I32 kernel,
+								  final ImageSInt16 input, final ImageInt16 output, final int divisor ) {
+		final int radius = kernel.getRadius();
+
+		BoofConcurrency.loopBlocks(radius, input.height-radius, MIN_BAND, new IntRangeTask() {
+			@Override
+			public void process(int start, int end) {
+				ImageSInt16 in = input.subimage(0,start-radius,input.width,end+radius);
+				ImageInt16 out = (ImageInt16)output.subimage(0,start-radius,output.width,end+radius);
+
+				if( !ConvolveImageUnrolled_S16_I16_Div.convolve(kernel, in, out, divisor))
+					ConvolveImageStandard.convolve(kernel, in, out, divisor);
+			}
+		});
+	}
+}
@@ -0,0 +1,267 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.filter.convolve.normalized;
+
+import boofcv.struct.image.*;
+
+/**
+ * <p>
+ * Computes the mean along the image border, where the kernel is only partially inside the image.  Only pixels
+ * inside the image are included, which gives the same results as {@link ConvolveNormalized_JustBorder} with a
+ * table kernel.  Running sums are used so that the cost per pixel does not depend on the radius.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class ConvolveNormalizedMean_JustBorder {
+
+	public static void horizontal(ImageFloat32 input, ImageFloat32 output, int radius) {
+		final int width = input.width;
+		final int borderLeft = Math.min(radius,width);
+		final int startRight = Math.max(borderLeft,width-radius);
+
+		for( int y = 0; y < input.height; y++ ) {
+			final int indexIn = input.startIndex + y*input.stride;
+			final int indexOut = output.startIndex + y*output.stride;
+
+			// left border.  The window is [0,x+radius]
+			float total = 0;
+			int end = 0;
+			for( int x = 0; x < borderLeft; x++ ) {
+				int windowEnd = Math.min(width,x+radius+1);
+				while( end < windowEnd )
+					total += input.data[indexIn + end++];
+				output.data[indexOut+x] = (total/end);
+			}
+
+			// right border.  The window is [x-radius,width-1]
+			total = 0;
+			int start = Math.max(0,startRight-radius);
+			for( int i = start; i < width; i++ )
+				total += input.data[indexIn + i];
+			for( int x = startRight; x < width; x++ ) {
+				int windowStart = Math.max(0,x-radius);
+				while( start < windowStart )
+					total -= input.data[indexIn + start++];
+				output.data[indexOut+x] = (total/(width-start));
+			}
+		}
+	}
+
+	public static void vertical(ImageFloat32 input, ImageFloat32 output, int radius) {
+		final int width = input.width;
+		final int height = input.height;
+		final int borderTop = Math.min(radius,height);
+		final int startBottom = Math.max(borderTop,height-radius);
+
+		float totals[] = new float[ width ];
+
+		// top border.  The window is [0,y+radius]
+		int end = 0;
+		for( int y = 0; y < borderTop; y++ ) {
+			int windowEnd = Math.min(height,y+radius+1);
+			for( ; end < windowEnd; end++ ) {
+				int indexIn = input.startIndex + end*input.stride;
+				for( int x = 0; x < width; x++ )
+					totals[x] += input.data[indexIn++];
+			}
+			int indexOut = output.startIndex + y*output.stride;
+			for( int x = 0; x < width; x++ )
+				output.data[indexOut++] = (totals[x]/end);
+		}
+
+		// bottom border.  The window is [y-radius,height-1]
+		for( int x = 0; x < width; x++ )
+			totals[x] = 0;
+		int start = Math.max(0,startBottom-radius);
+		for( int i = start; i < height; i++ ) {
+			int indexIn = input.startIndex + i*input.stride;
+			for( int x = 0; x < width; x++ )
+				totals[x] += input.data[indexIn++];
+		}
+		for( int y = startBottom; y < height; y++ ) {
+			int windowStart = Math.max(0,y-radius);
+			for( ; start < windowStart; start++ ) {
+				int indexIn = input.startIndex + start*input.stride;
+				for( int x = 0; x < width; x++ )
+					totals[x] -= input.data[indexIn++];
+			}
+			int indexOut = output.startIndex + y*output.stride;
+			int count = height-start;
+			for( int x = 0; x < width; x++ )
+				output.data[indexOut++] = (totals[x]/count);
+		}
+	}
+
+	public static void horizontal(ImageUInt8 input, ImageInt8 output, int radius) {
+		final int width = input.width;
+		final int borderLeft = Math.min(radius,width);
+		final int startRight = Math.max(borderLeft,width-radius);
+
+		for( int y = 0; y < input.height; y++ ) {
+			final int indexIn = input.startIndex + y*input.stride;
+			final int indexOut = output.startIndex + y*output.stride;
+
+			// left border.  The window is [0,x+radius]
+			int total = 0;
+			int end = 0;
+			for( int x = 0; x < borderLeft; x++ ) {
+				int windowEnd = Math.min(width,x+radius+1);
+				while( end < windowEnd )
+					total += input.data[indexIn + end++] & 0xFF;
+				output.data[indexOut+x] = (byte)(total/end);
+			}
+
+			// right border.  The window is [x-radius,width-1]
+			total = 0;
+			int start = Math.max(0,startRight-radius);
+			for( int i = start; i < width; i++ )
+				total += input.data[indexIn + i] & 0xFF;
+			for( int x = startRight; x < width; x++ ) {
+				int windowStart = Math.max(0,x-radius);
+				while( start < windowStart )
+					total -= input.data[indexIn + start++] & 0xFF;
+				output.data[indexOut+x] = (byte)(total/(width-start));
+			}
+		}
+	}
+
+	public static void vertical(ImageUInt8 input, ImageInt8 output, int radius) {
+		final int width = input.width;
+		final int height = input.height;
+		final int borderTop = Math.min(radius,height);
+		final int startBottom = Math.max(borderTop,height-radius);
+
+		int totals[] = new int[ width ];
+
+		// top border.  The window is [0,y+radius]
+		int end = 0;
+		for( int y = 0; y < borderTop; y++ ) {
+			int windowEnd = Math.min(height,y+radius+1);
+			for( ; end < windowEnd; end++ ) {
+				int indexIn = input.startIndex + end*input.stride;
+				for( int x = 0; x < width; x++ )
+					totals[x] += input.data[indexIn++] & 0xFF;
+			}
+			int indexOut = output.startIndex + y*output.stride;
+			for( int x = 0; x < width; x++ )
+				output.data[indexOut++] = (byte)(totals[x]/end);
+		}
+
+		// bottom border.  The window is [y-radius,height-1]
+		for( int x = 0; x < width; x++ )
+			totals[x] = 0;
+		int start = Math.max(0,startBottom-radius);
+		for( int i = start; i < height; i++ ) {
+			int indexIn = input.startIndex + i*input.stride;
+			for( int x = 0; x < width; x++ )
+				totals[x] += input.data[indexIn++] & 0xFF;
+		}
+		for( int y = startBottom; y < height; y++ ) {
+			int windowStart = Math.max(0,y-radius);
+			for( ; start < windowStart; start++ ) {
+				int indexIn = input.startIndex + start*input.stride;
+				for( int x = 0; x < width; x++ )
+					totals[x] -= input.data[indexIn++] & 0xFF;
+			}
+			int indexOut = output.startIndex + y*output.stride;
+			int count = height-start;
+			for( int x = 0; x < width; x++ )
+				output.data[indexOut++] = (byte)(totals[x]/count);
+		}
+	}
+
+	public static void horizontal(ImageSInt16 input, ImageInt16 output, int radius) {
+		final int width = input.width;
+		final int borderLeft = Math.min(radius,width);
+		final int startRight = Math.max(borderLeft,width-radius);
+
+		for( int y = 0; y < input.height; y++ ) {
+			final int indexIn = input.startIndex + y*input.stride;
+			final int indexOut = output.startIndex + y*output.stride;
+
+			// left border.  The window is [0,x+radius]
+			int total = 0;
+			int end = 0;
+			for( int x = 0; x < borderLeft; x++ ) {
+				int windowEnd = Math.min(width,x+radius+1);
+				while( end < windowEnd )
+					total += input.data[indexIn + end++];
+				output.data[indexOut+x] = (short)(total/end);
+			}
+
+			// right border.  The window is [x-radius,width-1]
+			total = 0;
+			int start = Math.max(0,startRight-radius);
+			for( int i = start; i < width; i++ )
+				total += input.data[indexIn + i];
+			for( int x = startRight; x < width; x++ ) {
+				int windowStart = Math.max(0,x-radius);
+				while( start < windowStart )
+					total -= input.data[indexIn + start++];
+				output.data[indexOut+x] = (short)(total/(width-start));
+			}
+		}
+	}
+
+	public static void vertical(ImageSInt16 input, ImageInt16 output, int radius) {
+		final int width = input.width;
+		final int height = input.height;
+		final int borderTop = Math.min(radius,height);
+		final int startBottom = Math.max(borderTop,height-radius);
+
+		int totals[] = new int[ width ];
+
+		// top border.  The window is [0,y+radius]
+		int end = 0;
+		for( int y = 0; y < borderTop; y++ ) {
+			int windowEnd = Math.min(height,y+radius+1);
+			for( ; end < windowEnd; end++ ) {
+				int indexIn = input.startIndex + end*input.stride;
+				for( int x = 0; x < width; x++ )
+					totals[x] += input.data[indexIn++];
+			}
+			int indexOut = output.startIndex + y*output.stride;
+			for( int x = 0; x < width; x++ )
+				output.data[indexOut++] = (short)(totals[x]/end);
+		}
+
+		// bottom border.  The window is [y-radius,height-1]
+		for( int x = 0; x < width; x++ )
+			totals[x] = 0;
+		int start = Math.max(0,startBottom-radius);
+		for( int i = start; i < height; i++ ) {
+			int indexIn = input.startIndex + i*input.stride;
+			for( int x = 0; x < width; x++ )
+				totals[x] += input.data[indexIn++];
+		}
+		for( int y = startBottom; y < height; y++ ) {
+			int windowStart = Math.max(0,y-radius);
+			for( ; start < windowStart; start++ ) {
+				int indexIn = input.startIndex + start*input.stride;
+				for( int x = 0; x < width; x++ )
+					totals[x] -= input.data[indexIn++];
+			}
+			int indexOut = output.startIndex + y*output.stride;
+			int count = height-start;
+			for( int x = 0; x < width; x++ )
+				output.data[indexOut++] = (short)(totals[x]/count);
+		}
+	}
+}
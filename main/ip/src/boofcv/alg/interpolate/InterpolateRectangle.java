@@ -52,5 +52,13 @@ public interface InterpolateRectangle<T extends ImageSingleBand> {
 	 * @param dest Where the interpolated region is to be copied into
 	 */
 	public void region(float tl_x, float tl_y, ImageFloat32 dest );
+
+	/**
+	 * Creates a new instance of this interpolation algorithm with the same configuration.  The image is not
+	 * copied.  Useful when several threads need to interpolate the same image.
+	 *
+	 * @return A new instance of the same interpolation algorithm.
+	 */
+	public InterpolateRectangle<T> copy();
 //	public void region(float tl_x, float tl_y, float[] results, int regWidth, int regHeight);
 }
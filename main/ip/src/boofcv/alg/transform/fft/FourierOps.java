@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.transform.fft;
+
+/**
+ * Functions for working with discrete Fourier transforms and interleaved complex arrays.
+ *
+ * @author Peter Abeles
+ */
+public class FourierOps {
+
+	/**
+	 * Returns the smallest length which is greater than or equal to n and can be factored into 2, 3, and 5.
+	 * Transforms of these lengths are the most efficient.
+	 *
+	 * @param n Minimum length
+	 * @return Length which is efficient to transform
+	 */
+	public static int nextFastSize( int n ) {
+		if( n <= 1 )
+			return 1;
+
+		int best = Integer.MAX_VALUE;
+		for( long a = 1; a < best; a *= 2 ) {
+			for( long b = a; b < best; b *= 3 ) {
+				for( long c = b; c < best; c *= 5 ) {
+					if( c >= n ) {
+						best = (int)c;
+						break;
+					}
+				}
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Returns true if the length can be factored into 2, 3, and 5.
+	 */
+	public static boolean isFastSize( int n ) {
+		if( n < 1 )
+			return false;
+		while( n % 2 == 0 ) n /= 2;
+		while( n % 3 == 0 ) n /= 3;
+		while( n % 5 == 0 ) n /= 5;
+		return n == 1;
+	}
+
+	/**
+	 * Factors the length into the radices used by {@link FourierTransformComplex1D}.  Factors of 4 are
+	 * extracted first since they are the most efficient.
+	 *
+	 * @param n Length being factored
+	 * @return Array of factors whose product is n.
+	 */
+	public static int[] factor( int n ) {
+		int tmp[] = new int[32];
+		int size = 0;
+
+		int[] radices = new int[]{4,2,3,5};
+		for( int p : radices ) {
+			while( n % p == 0 ) {
+				tmp[size++] = p;
+				n /= p;
+			}
+		}
+
+		for( int p = 7; n > 1; p += 2 ) {
+			if( p*p > n )
+				p = n;
+			while( n % p == 0 ) {
+				tmp[size++] = p;
+				n /= p;
+			}
+		}
+
+		int ret[] = new int[size];
+		System.arraycopy(tmp,0,ret,0,size);
+		return ret;
+	}
+
+	/**
+	 * Element-wise multiplication of two interleaved complex arrays.  Output can be the same as either input.
+	 *
+	 * @param a First complex array
+	 * @param b Second complex array
+	 * @param output Storage for the results
+	 * @param length Number of complex elements
+	 */
+	public static void multiplyComplex( double a[] , double b[] , double output[] , int length ) {
+		for( int i = 0; i < 2*length; i += 2 ) {
+			double ar = a[i], ai = a[i+1];
+			double br = b[i], bi = b[i+1];
+
+			output[i]   = ar*br - ai*bi;
+			output[i+1] = ar*bi + ai*br;
+		}
+	}
+
+	/**
+	 * Element-wise multiplication of a complex array by the conjugate of another, a*conj(b).  Used to compute
+	 * correlation in the frequency domain.  Output can be the same as either input.
+	 *
+	 * @param a First complex array
+	 * @param b Second complex array, which is conjugated
+	 * @param output Storage for the results
+	 * @param length Number of complex elements
+	 */
+	public static void multiplyConjugate( double a[] , double b[] , double output[] , int length ) {
+		for( int i = 0; i < 2*length; i += 2 ) {
+			double ar = a[i], ai = a[i+1];
+			double br = b[i], bi = b[i+1];
+
+			output[i]   = ar*br + ai*bi;
+			output[i+1] = ai*br - ar*bi;
+		}
+	}
+}
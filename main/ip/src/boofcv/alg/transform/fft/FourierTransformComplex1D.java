@@ -0,0 +1,358 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.transform.fft;
+
+/**
+ * <p>
+ * Discrete Fourier transform of a 1D complex signal.  An instance is a plan for a specific length which
+ * precomputes the factorization of the length and twiddle factors, and contains its own work space.  Any length
+ * is supported.  Lengths which can be factored by 2, 3, 4, and 5 are the fastest, other prime factors are handled
+ * with a generic O(p<sup>2</sup>) butterfly.  See {@link FourierOps#nextFastSize(int)}.
+ * </p>
+ *
+ * <p>
+ * Complex numbers are stored interleaved, real then imaginary, and the transform is done in place.  Internally
+ * a Stockham auto-sort algorithm is used, which avoids the bit reversal step by alternating between the
+ * input array and an internal buffer.  The forward transform is not scaled, the inverse is scaled by 1/N.
+ * </p>
+ *
+ * <p>
+ * Not thread safe.  Each thread should have its own instance.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class FourierTransformComplex1D {
+
+	// number of complex elements
+	private int n;
+
+	// factors of n in the order they are processed
+	private int factors[];
+
+	// cos and -sin of 2*pi*k/n for k = 0 ... n-1
+	private double cos[];
+	private double sin[];
+
+	// work space
+	private double work[];
+	// storage for the inputs to a generic butterfly
+	private double genericIn[];
+
+	/**
+	 * Creates a plan for the specified length
+	 *
+	 * @param n Number of complex elements in the signal.  Must be &ge; 1.
+	 */
+	public FourierTransformComplex1D( int n ) {
+		if( n < 1 )
+			throw new IllegalArgumentException("Length must be at least one");
+		this.n = n;
+
+		factors = FourierOps.factor(n);
+
+		cos = new double[n];
+		sin = new double[n];
+		for( int k = 0; k < n; k++ ) {
+			double angle = 2.0*Math.PI*k/n;
+			cos[k] = Math.cos(angle);
+			sin[k] = -Math.sin(angle);
+		}
+
+		work = new double[2*n];
+
+		int largest = 0;
+		for( int p : factors )
+			largest = Math.max(largest,p);
+		genericIn = new double[2*largest];
+	}
+
+	/**
+	 * Computes the forward transform in place
+	 *
+	 * @param data Interleaved complex signal with 2*N elements.  Modified.
+	 */
+	public void forward( double data[] ) {
+		transform(data);
+	}
+
+	/**
+	 * Computes the inverse transform in place and scales it by 1/N
+	 *
+	 * @param data Interleaved complex spectrum with 2*N elements.  Modified.
+	 */
+	public void inverse( double data[] ) {
+		// inverse = conj( forward( conj(x) ) ) / N
+		for( int i = 1; i < 2*n; i += 2 )
+			data[i] = -data[i];
+
+		transform(data);
+
+		double scale = 1.0/n;
+		for( int i = 0; i < 2*n; i += 2 ) {
+			data[i] *= scale;
+			data[i+1] *= -scale;
+		}
+	}
+
+	private void transform( double data[] ) {
+		double x[] = data;
+		double y[] = work;
+
+		int length = n;
+		int stride = 1;
+
+		for( int p : factors ) {
+			int m = length/p;
+			// step through the twiddle table which has been computed for the full length
+			int step = n/length;
+
+			switch( p ) {
+				case 2: radix2(x,y,m,stride,step); break;
+				case 3: radix3(x,y,m,stride,step); break;
+				case 4: radix4(x,y,m,stride,step); break;
+				case 5: radix5(x,y,m,stride,step); break;
+				default: radixGeneric(x,y,p,m,stride,step); break;
+			}
+
+			length = m;
+			stride *= p;
+
+			double tmp[] = x; x = y; y = tmp;
+		}
+
+		if( x != data )
+			System.arraycopy(x,0,data,0,2*n);
+	}
+
+	/*
+	 * The butterflies below all compute
+	 *
+	 *   y[r + s*(p*q + t)] = w^(q*t) * sum_k x[r + s*(q + m*k)] * exp(-2*pi*i*k*t/p)
+	 *
+	 * where s is the stride, w = exp(-2*pi*i/(m*p)), q = 0 ... m-1, r = 0 ... s-1, and t = 0 ... p-1.
+	 */
+
+	private void radix2( double x[] , double y[] , int m , int s , int step ) {
+		for( int q = 0; q < m; q++ ) {
+			double wr = cos[q*step], wi = sin[q*step];
+
+			for( int r = 0; r < s; r++ ) {
+				int i0 = 2*(r + s*q);
+				int i1 = i0 + 2*s*m;
+
+				double ar = x[i0], ai = x[i0+1];
+				double br = x[i1], bi = x[i1+1];
+
+				int o0 = 2*(r + s*2*q);
+				int o1 = o0 + 2*s;
+
+				y[o0]   = ar + br;
+				y[o0+1] = ai + bi;
+
+				double dr = ar - br, di = ai - bi;
+				y[o1]   = dr*wr - di*wi;
+				y[o1+1] = dr*wi + di*wr;
+			}
+		}
+	}
+
+	private void radix3( double x[] , double y[] , int m , int s , int step ) {
+		final double c1 = -0.5;
+		final double s1 = -Math.sqrt(3)/2.0;
+
+		for( int q = 0; q < m; q++ ) {
+			double w1r = cos[q*step], w1i = sin[q*step];
+			double w2r = cos[2*q*step], w2i = sin[2*q*step];
+
+			for( int r = 0; r < s; r++ ) {
+				int i0 = 2*(r + s*q);
+				int i1 = i0 + 2*s*m;
+				int i2 = i1 + 2*s*m;
+
+				double ar = x[i0], ai = x[i0+1];
+				double br = x[i1], bi = x[i1+1];
+				double cr = x[i2], ci = x[i2+1];
+
+				double sr = br + cr, si = bi + ci;
+				double dr = br - cr, di = bi - ci;
+
+				double tr = ar + c1*sr, ti = ai + c1*si;
+				// multiply the difference by i*s1
+				double ur = -s1*di, ui = s1*dr;
+
+				int o0 = 2*(r + s*3*q);
+				int o1 = o0 + 2*s;
+				int o2 = o1 + 2*s;
+
+				y[o0]   = ar + sr;
+				y[o0+1] = ai + si;
+
+				double y1r = tr + ur, y1i = ti + ui;
+				double y2r = tr - ur, y2i = ti - ui;
+
+				y[o1]   = y1r*w1r - y1i*w1i;
+				y[o1+1] = y1r*w1i + y1i*w1r;
+				y[o2]   = y2r*w2r - y2i*w2i;
+				y[o2+1] = y2r*w2i + y2i*w2r;
+			}
+		}
+	}
+
+	private void radix4( double x[] , double y[] , int m , int s , int step ) {
+		for( int q = 0; q < m; q++ ) {
+			double w1r = cos[q*step], w1i = sin[q*step];
+			double w2r = cos[2*q*step], w2i = sin[2*q*step];
+			double w3r = cos[3*q*step], w3i = sin[3*q*step];
+
+			for( int r = 0; r < s; r++ ) {
+				int i0 = 2*(r + s*q);
+				int i1 = i0 + 2*s*m;
+				int i2 = i1 + 2*s*m;
+				int i3 = i2 + 2*s*m;
+
+				double ar = x[i0], ai = x[i0+1];
+				double br = x[i1], bi = x[i1+1];
+				double cr = x[i2], ci = x[i2+1];
+				double dr = x[i3], di = x[i3+1];
+
+				double apcR = ar + cr, apcI = ai + ci;
+				double amcR = ar - cr, amcI = ai - ci;
+				double bpdR = br + dr, bpdI = bi + di;
+				// -i*(b - d)
+				double bmdR = bi - di, bmdI = dr - br;
+
+				int o0 = 2*(r + s*4*q);
+				int o1 = o0 + 2*s;
+				int o2 = o1 + 2*s;
+				int o3 = o2 + 2*s;
+
+				y[o0]   = apcR + bpdR;
+				y[o0+1] = apcI + bpdI;
+
+				double y1r = amcR + bmdR, y1i = amcI + bmdI;
+				double y2r = apcR - bpdR, y2i = apcI - bpdI;
+				double y3r = amcR - bmdR, y3i = amcI - bmdI;
+
+				y[o1]   = y1r*w1r - y1i*w1i;
+				y[o1+1] = y1r*w1i + y1i*w1r;
+				y[o2]   = y2r*w2r - y2i*w2i;
+				y[o2+1] = y2r*w2i + y2i*w2r;
+				y[o3]   = y3r*w3r - y3i*w3i;
+				y[o3+1] = y3r*w3i + y3i*w3r;
+			}
+		}
+	}
+
+	private void radix5( double x[] , double y[] , int m , int s , int step ) {
+		final double c1 = Math.cos(2.0*Math.PI/5.0);
+		final double c2 = Math.cos(4.0*Math.PI/5.0);
+		final double s1 = -Math.sin(2.0*Math.PI/5.0);
+		final double s2 = -Math.sin(4.0*Math.PI/5.0);
+
+		for( int q = 0; q < m; q++ ) {
+			double w1r = cos[q*step], w1i = sin[q*step];
+			double w2r = cos[2*q*step], w2i = sin[2*q*step];
+			double w3r = cos[3*q*step], w3i = sin[3*q*step];
+			double w4r = cos[4*q*step], w4i = sin[4*q*step];
+
+			for( int r = 0; r < s; r++ ) {
+				int i0 = 2*(r + s*q);
+				int i1 = i0 + 2*s*m;
+				int i2 = i1 + 2*s*m;
+				int i3 = i2 + 2*s*m;
+				int i4 = i3 + 2*s*m;
+
+				double ar = x[i0], ai = x[i0+1];
+
+				double s14r = x[i1] + x[i4], s14i = x[i1+1] + x[i4+1];
+				double d14r = x[i1] - x[i4], d14i = x[i1+1] - x[i4+1];
+				double s23r = x[i2] + x[i3], s23i = x[i2+1] + x[i3+1];
+				double d23r = x[i2] - x[i3], d23i = x[i2+1] - x[i3+1];
+
+				double t1r = ar + c1*s14r + c2*s23r, t1i = ai + c1*s14i + c2*s23i;
+				double t2r = ar + c2*s14r + c1*s23r, t2i = ai + c2*s14i + c1*s23i;
+
+				// i*(s1*d14 + s2*d23) and i*(s2*d14 - s1*d23)
+				double u1r = -(s1*d14i + s2*d23i), u1i = s1*d14r + s2*d23r;
+				double u2r = -(s2*d14i - s1*d23i), u2i = s2*d14r - s1*d23r;
+
+				int o0 = 2*(r + s*5*q);
+				int o1 = o0 + 2*s;
+				int o2 = o1 + 2*s;
+				int o3 = o2 + 2*s;
+				int o4 = o3 + 2*s;
+
+				y[o0]   = ar + s14r + s23r;
+				y[o0+1] = ai + s14i + s23i;
+
+				double y1r = t1r + u1r, y1i = t1i + u1i;
+				double y4r = t1r - u1r, y4i = t1i - u1i;
+				double y2r = t2r + u2r, y2i = t2i + u2i;
+				double y3r = t2r - u2r, y3i = t2i - u2i;
+
+				y[o1]   = y1r*w1r - y1i*w1i;
+				y[o1+1] = y1r*w1i + y1i*w1r;
+				y[o2]   = y2r*w2r - y2i*w2i;
+				y[o2+1] = y2r*w2i + y2i*w2r;
+				y[o3]   = y3r*w3r - y3i*w3i;
+				y[o3+1] = y3r*w3i + y3i*w3r;
+				y[o4]   = y4r*w4r - y4i*w4i;
+				y[o4+1] = y4r*w4i + y4i*w4r;
+			}
+		}
+	}
+
+	private void radixGeneric( double x[] , double y[] , int p , int m , int s , int step ) {
+		// exp(-2*pi*i/p) is at index n/p in the twiddle table
+		int stepP = n/p;
+
+		for( int q = 0; q < m; q++ ) {
+			for( int r = 0; r < s; r++ ) {
+				for( int k = 0; k < p; k++ ) {
+					int index = 2*(r + s*(q + m*k));
+					genericIn[2*k] = x[index];
+					genericIn[2*k+1] = x[index+1];
+				}
+
+				for( int t = 0; t < p; t++ ) {
+					double sumR = 0, sumI = 0;
+					for( int k = 0; k < p; k++ ) {
+						int w = ((k*t) % p)*stepP;
+						double inR = genericIn[2*k], inI = genericIn[2*k+1];
+						sumR += inR*cos[w] - inI*sin[w];
+						sumI += inR*sin[w] + inI*cos[w];
+					}
+
+					int w = q*t*step;
+					int o = 2*(r + s*(p*q + t));
+					y[o]   = sumR*cos[w] - sumI*sin[w];
+					y[o+1] = sumR*sin[w] + sumI*cos[w];
+				}
+			}
+		}
+	}
+
+	/**
+	 * Number of complex elements in the signal
+	 */
+	public int getSize() {
+		return n;
+	}
+}
@@ -0,0 +1,363 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.transform.fft;
+
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeTask;
+import boofcv.concurrency.WorkerPool;
+import boofcv.struct.image.ImageFloat32;
+import boofcv.struct.image.ImageFloat64;
+import boofcv.struct.image.ImageSingleBand;
+
+/**
+ * <p>
+ * Discrete Fourier transform of a real 2D image.  An instance is a plan for images of a specific shape.  Since
+ * the input is real its spectrum is conjugate symmetric and only the first (width/2+1) columns are computed.
+ * The spectrum is stored in a double array with interleaved complex numbers in row-major order, where
+ * element (u,v) is at index 2*(v*{@link #getSpectrumWidth()} + u).  Internally everything is computed using
+ * double precision, even when the image is {@link ImageFloat32}.
+ * </p>
+ *
+ * <p>
+ * The rows are transformed two at a time by placing one row in the real component and the other in the
+ * imaginary component of a complex transform, then separating the two spectra using symmetry.  Then the
+ * columns of the spectrum are transformed.  If {@link BoofConcurrency#USE_CONCURRENT} is true the rows
+ * and columns are split across several threads.
+ * </p>
+ *
+ * <p>
+ * Not thread safe.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class FourierTransformReal2D {
+
+	// shape of the image
+	private int width,height;
+	// number of columns in the spectrum
+	private int spectrumWidth;
+
+	// 1D transforms and buffers which are not being used by a thread
+	private final WorkerPool<Worker> workers = new WorkerPool<Worker>() {
+		@Override
+		protected Worker createInstance() {
+			return new Worker();
+		}
+	};
+
+	/**
+	 * Creates a plan for images with the specified shape
+	 *
+	 * @param width Image width
+	 * @param height Image height
+	 */
+	public FourierTransformReal2D( int width , int height ) {
+		if( width < 1 || height < 1 )
+			throw new IllegalArgumentException("Image shape must be at least 1x1");
+		this.width = width;
+		this.height = height;
+		this.spectrumWidth = width/2 + 1;
+	}
+
+	/**
+	 * Number of complex elements in the spectrum
+	 */
+	public int getSpectrumLength() {
+		return spectrumWidth*height;
+	}
+
+	/**
+	 * Number of columns in the spectrum
+	 */
+	public int getSpectrumWidth() {
+		return spectrumWidth;
+	}
+
+	/**
+	 * Creates an array large enough to store the spectrum
+	 */
+	public double[] createSpectrum() {
+		return new double[2*getSpectrumLength()];
+	}
+
+	/**
+	 * Computes the forward transform.
+	 *
+	 * @param image Input image. Not modified.
+	 * @param spectrum Storage for the spectrum.  See {@link #createSpectrum()}. Modified.
+	 */
+	public void forward( ImageFloat32 image , double spectrum[] ) {
+		_forward(image, spectrum);
+	}
+
+	/**
+	 * Computes the forward transform.
+	 *
+	 * @param image Input image. Not modified.
+	 * @param spectrum Storage for the spectrum.  See {@link #createSpectrum()}. Modified.
+	 */
+	public void forward( ImageFloat64 image , double spectrum[] ) {
+		_forward(image, spectrum);
+	}
+
+	/**
+	 * Computes the inverse transform.
+	 *
+	 * @param spectrum The spectrum.  Used as work space and is modified.
+	 * @param image Storage for the output image. Modified.
+	 */
+	public void inverse( double spectrum[] , ImageFloat32 image ) {
+		_inverse(spectrum, image);
+	}
+
+	/**
+	 * Computes the inverse transform.
+	 *
+	 * @param spectrum The spectrum.  Used as work space and is modified.
+	 * @param image Storage for the output image. Modified.
+	 */
+	public void inverse( double spectrum[] , ImageFloat64 image ) {
+		_inverse(spectrum, image);
+	}
+
+	private void _forward( final ImageSingleBand image , final double spectrum[] ) {
+		checkInputs(image, spectrum);
+
+		process((height+1)/2, new IntRangeTask() {
+			@Override
+			public void process(int start, int end) {
+				Worker w = workers.borrow();
+				try {
+					for( int pair = start; pair < end; pair++ )
+						forwardRows(image, 2*pair, w, spectrum);
+				} finally {
+					workers.release(w);
+				}
+			}
+		});
+
+		process(spectrumWidth, new IntRangeTask() {
+			@Override
+			public void process(int start, int end) {
+				Worker w = workers.borrow();
+				try {
+					for( int u = start; u < end; u++ )
+						transformColumn(u, w, spectrum, true);
+				} finally {
+					workers.release(w);
+				}
+			}
+		});
+	}
+
+	private void _inverse( final double spectrum[] , final ImageSingleBand image ) {
+		checkInputs(image, spectrum);
+
+		process(spectrumWidth, new IntRangeTask() {
+			@Override
+			public void process(int start, int end) {
+				Worker w = workers.borrow();
+				try {
+					for( int u = start; u < end; u++ )
+						transformColumn(u, w, spectrum, false);
+				} finally {
+					workers.release(w);
+				}
+			}
+		});
+
+		process((height+1)/2, new IntRangeTask() {
+			@Override
+			public void process(int start, int end) {
+				Worker w = workers.borrow();
+				try {
+					for( int pair = start; pair < end; pair++ )
+						inverseRows(spectrum, 2*pair, w, image);
+				} finally {
+					workers.release(w);
+				}
+			}
+		});
+	}
+
+	private void checkInputs( ImageSingleBand image , double spectrum[] ) {
+		if( image.width != width || image.height != height )
+			throw new IllegalArgumentException("Unexpected image shape");
+		if( spectrum.length < 2*getSpectrumLength() )
+			throw new IllegalArgumentException("Spectrum array is too small");
+	}
+
+	private void process( int length , IntRangeTask task ) {
+		if( BoofConcurrency.USE_CONCURRENT )
+			BoofConcurrency.loopBlocks(0,length,8,task);
+		else
+			task.process(0,length);
+	}
+
+	/**
+	 * Transforms rows y and y+1 at the same time
+	 */
+	private void forwardRows( ImageSingleBand image , int y , Worker w , double spectrum[] ) {
+		double buf[] = w.buffer;
+		boolean hasSecond = y+1 < height;
+
+		readRow(image, y, buf, 0);
+		if( hasSecond ) {
+			readRow(image, y+1, buf, 1);
+		} else {
+			for( int x = 0; x < width; x++ )
+				buf[2*x+1] = 0;
+		}
+
+		w.rows.forward(buf);
+
+		// separate the spectrum of the two rows.  A = (Z[k] + conj(Z[N-k]))/2 and B = -i*(Z[k] - conj(Z[N-k]))/2
+		int indexA = 2*y*spectrumWidth;
+		int indexB = indexA + 2*spectrumWidth;
+
+		for( int k = 0; k < spectrumWidth; k++ ) {
+			int kk = 2*((width-k) % width);
+			double zr = buf[2*k], zi = buf[2*k+1];
+			double nr = buf[kk], ni = -buf[kk+1];
+
+			spectrum[indexA + 2*k]   = (zr + nr)*0.5;
+			spectrum[indexA + 2*k+1] = (zi + ni)*0.5;
+
+			if( hasSecond ) {
+				spectrum[indexB + 2*k]   = (zi - ni)*0.5;
+				spectrum[indexB + 2*k+1] = -(zr - nr)*0.5;
+			}
+		}
+	}
+
+	/**
+	 * Inverse transform of rows y and y+1 at the same time
+	 */
+	private void inverseRows( double spectrum[] , int y , Worker w , ImageSingleBand image ) {
+		double buf[] = w.buffer;
+		boolean hasSecond = y+1 < height;
+
+		int indexA = 2*y*spectrumWidth;
+		int indexB = indexA + 2*spectrumWidth;
+
+		// Z = A + i*B, where the upper half of the spectrum is found using conjugate symmetry
+		for( int k = 0; k < width; k++ ) {
+			double ar,ai,br=0,bi=0;
+			if( k < spectrumWidth ) {
+				ar = spectrum[indexA + 2*k];
+				ai = spectrum[indexA + 2*k+1];
+				if( hasSecond ) {
+					br = spectrum[indexB + 2*k];
+					bi = spectrum[indexB + 2*k+1];
+				}
+			} else {
+				int kk = 2*(width-k);
+				ar = spectrum[indexA + kk];
+				ai = -spectrum[indexA + kk+1];
+				if( hasSecond ) {
+					br = spectrum[indexB + kk];
+					bi = -spectrum[indexB + kk+1];
+				}
+			}
+
+			buf[2*k]   = ar - bi;
+			buf[2*k+1] = ai + br;
+		}
+
+		w.rows.inverse(buf);
+
+		writeRow(buf, 0, image, y);
+		if( hasSecond )
+			writeRow(buf, 1, image, y+1);
+	}
+
+	private void transformColumn( int u , Worker w , double spectrum[] , boolean forward ) {
+		double buf[] = w.buffer;
+		int stride = 2*spectrumWidth;
+
+		int index = 2*u;
+		for( int v = 0; v < height; v++ , index += stride ) {
+			buf[2*v]   = spectrum[index];
+			buf[2*v+1] = spectrum[index+1];
+		}
+
+		if( forward )
+			w.columns.forward(buf);
+		else
+			w.columns.inverse(buf);
+
+		index = 2*u;
+		for( int v = 0; v < height; v++ , index += stride ) {
+			spectrum[index]   = buf[2*v];
+			spectrum[index+1] = buf[2*v+1];
+		}
+	}
+
+	/**
+	 * Copies a row from the image into the real or imaginary part of the buffer
+	 */
+	private void readRow( ImageSingleBand image , int y , double buf[] , int offset ) {
+		if( image instanceof ImageFloat32 ) {
+			ImageFloat32 img = (ImageFloat32)image;
+			int index = img.startIndex + y*img.stride;
+			for( int x = 0; x < width; x++ )
+				buf[2*x+offset] = img.data[index+x];
+		} else {
+			ImageFloat64 img = (ImageFloat64)image;
+			int index = img.startIndex + y*img.stride;
+			for( int x = 0; x < width; x++ )
+				buf[2*x+offset] = img.data[index+x];
+		}
+	}
+
+	/**
+	 * Copies the real or imaginary part of the buffer into a row in the image
+	 */
+	private void writeRow( double buf[] , int offset , ImageSingleBand image , int y ) {
+		if( image instanceof ImageFloat32 ) {
+			ImageFloat32 img = (ImageFloat32)image;
+			int index = img.startIndex + y*img.stride;
+			for( int x = 0; x < width; x++ )
+				img.data[index+x] = (float)buf[2*x+offset];
+		} else {
+			ImageFloat64 img = (ImageFloat64)image;
+			int index = img.startIndex + y*img.stride;
+			for( int x = 0; x < width; x++ )
+				img.data[index+x] = buf[2*x+offset];
+		}
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * 1D transforms and work space used by a single thread
+	 */
+	private class Worker {
+		FourierTransformComplex1D rows = new FourierTransformComplex1D(width);
+		FourierTransformComplex1D columns = new FourierTransformComplex1D(height);
+		double buffer[] = new double[2*Math.max(width,height)];
+	}
+}
@@ -22,6 +22,7 @@ import boofcv.abst.filter.blur.BlurStorageFilter;
 import boofcv.alg.distort.DistortImageOps;
 import boofcv.alg.distort.PixelTransformAffine_F32;
 import boofcv.alg.distort.impl.DistortSupport;
+import boofcv.alg.filter.blur.impl.ImplGaussianRecursive;
 import boofcv.alg.interpolate.InterpolatePixel;
 import boofcv.factory.filter.blur.FactoryBlurFilter;
 import boofcv.struct.image.ImageSingleBand;
@@ -58,6 +59,9 @@ public class PyramidFloatGaussianScale< T extends ImageSingleBand> extends Pyram
 	// The effective amount of blur in each pyramid layer relative to the input image
 	protected double[] sigma;
 
+	// should blur be applied using a recursive filter
+	protected boolean recursiveBlur = false;
+
 	/**
 	 * Configures the pyramid
 	 *
@@ -103,7 +107,11 @@ public class PyramidFloatGaussianScale< T extends ImageSingleBand> extends Pyram
 			T layer = getLayer(i);
 
 			// Apply the requested blur to the previous layer
-			BlurStorageFilter<T> blur = (BlurStorageFilter<T>) FactoryBlurFilter.gaussian(layer.getClass(), sigmaLayers[i],-1);
+			BlurStorageFilter<T> blur;
+			if( recursiveBlur && sigmaLayers[i] >= ImplGaussianRecursive.MIN_SIGMA )
+				blur = (BlurStorageFilter<T>) FactoryBlurFilter.gaussianRecursive(layer.getClass(), sigmaLayers[i], -1);
+			else
+				blur = (BlurStorageFilter<T>) FactoryBlurFilter.gaussian(layer.getClass(), sigmaLayers[i],-1);
 			tempImage.reshape(prev.width,prev.height);
 			blur.process(prev,tempImage);
 
@@ -117,6 +125,21 @@ public class PyramidFloatGaussianScale< T extends ImageSingleBand> extends Pyram
 		}
 	}
 
+	/**
+	 * If true then Gaussian blur is approximated using a recursive filter whose cost does not depend on sigma.
+	 * Layers with too little blur for the recursive filter are still blurred using convolution.  By default
+	 * this is false.
+	 *
+	 * @see boofcv.alg.filter.blur.BlurImageOps#gaussianRecursive
+	 */
+	public void setRecursiveBlur(boolean recursiveBlur) {
+		this.recursiveBlur = recursiveBlur;
+	}
+
+	public boolean isRecursiveBlur() {
+		return recursiveBlur;
+	}
+
 	public InterpolatePixel<T> getInterpolate() {
 		return interpolate;
 	}
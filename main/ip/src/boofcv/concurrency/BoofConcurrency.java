@@ -0,0 +1,217 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.concurrency;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * <p>
+ * Global settings for concurrent execution inside of BoofCV.  When {@link #USE_CONCURRENT} is true, algorithms
+ * which have a concurrent implementation will split their work up across several threads.  By default it is
+ * turned off and everything runs in the calling thread.
+ * </p>
+ *
+ * <p>
+ * Work is distributed using {@link #loopBlocks}, which splits a range of indexes into contiguous blocks.  One block
+ * is always processed by the calling thread and the others are submitted to the thread pool.  The thread pool
+ * can be replaced by the user with {@link #setExecutor(java.util.concurrent.ExecutorService, int)}.  If called from
+ * inside a task which is already being processed by the pool the loop is run in the calling thread to prevent
+ * the pool from deadlocking.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class BoofConcurrency {
+
+	/**
+	 * If true then algorithms with a concurrent implementation will use it.
+	 */
+	public static boolean USE_CONCURRENT = false;
+
+	// maximum number of blocks a loop will be split into
+	private static int maxThreads = Runtime.getRuntime().availableProcessors();
+
+	// thread pool which blocks are submitted to.  Lazily created
+	private static ExecutorService executor;
+	// true if the executor was created internally and not provided by the user
+	private static boolean ownsExecutor;
+
+	// true if the current thread is inside a task being processed by the pool
+	private static final ThreadLocal<Boolean> insideTask = new ThreadLocal<Boolean>() {
+		@Override
+		protected Boolean initialValue() {
+			return false;
+		}
+	};
+
+	/**
+	 * Specifies the maximum number of threads.  If the default thread pool is being used it will be discarded
+	 * and a new one created the next time it is needed.  A pool provided by the user is left untouched.
+	 *
+	 * @param maxThreads Maximum number of threads.  Must be &ge; 1.
+	 */
+	public static synchronized void setMaxThreads( int maxThreads ) {
+		if( maxThreads < 1 )
+			throw new IllegalArgumentException("Number of threads must be at least one");
+		BoofConcurrency.maxThreads = maxThreads;
+		if( ownsExecutor ) {
+			executor.shutdown();
+			executor = null;
+			ownsExecutor = false;
+		}
+	}
+
+	public static synchronized int getMaxThreads() {
+		return maxThreads;
+	}
+
+	/**
+	 * Replaces the thread pool with one provided by the user.  The user is responsible for shutting down
+	 * the provided pool.  If the default pool had been created it is shut down.
+	 *
+	 * @param executor The thread pool which tasks will be submitted to.
+	 * @param maxThreads Maximum number of blocks a loop will be split into.  Typically the pool's size.
+	 */
+	public static synchronized void setExecutor( ExecutorService executor , int maxThreads ) {
+		if( maxThreads < 1 )
+			throw new IllegalArgumentException("Number of threads must be at least one");
+		if( ownsExecutor && BoofConcurrency.executor != executor )
+			BoofConcurrency.executor.shutdown();
+		BoofConcurrency.executor = executor;
+		BoofConcurrency.maxThreads = maxThreads;
+		ownsExecutor = false;
+	}
+
+	/**
+	 * Returns the thread pool, creating the default one if needed.
+	 */
+	public static synchronized ExecutorService getExecutor() {
+		if( executor == null ) {
+			executor = Executors.newFixedThreadPool(maxThreads,new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable r) {
+					Thread t = new Thread(r,"BoofConcurrency");
+					t.setDaemon(true);
+					return t;
+				}
+			});
+			ownsExecutor = true;
+		}
+		return executor;
+	}
+
+	/**
+	 * Splits the range of indexes from start to end into contiguous blocks and processes them in parallel.  The
+	 * number of blocks is the smaller of the maximum number of threads and the number of blocks with a size
+	 * of at least minBlock.  This function does not return until all the blocks have been processed.
+	 *
+	 * @param start First index, inclusive.
+	 * @param end Last index, exclusive.
+	 * @param minBlock Minimum number of indexes in a block.  Used to avoid excessive overhead for small loops.
+	 * @param task Processes each block.
+	 */
+	public static void loopBlocks( int start , int end , int minBlock , final IntRangeTask task ) {
+		int length = end-start;
+		if( length <= 0 )
+			return;
+
+		int numBlocks = Math.min(getMaxThreads(),length/Math.max(1,minBlock));
+
+		if( numBlocks <= 1 || insideTask.get() ) {
+			task.process(start,end);
+			return;
+		}
+
+		ExecutorService executor = getExecutor();
+		List<Future<?>> futures = new ArrayList<Future<?>>();
+
+		// the first block is processed by the calling thread
+		for( int i = 1; i < numBlocks; i++ ) {
+			final int blockStart = start + (int)((long)length*i/numBlocks);
+			final int blockEnd = start + (int)((long)length*(i+1)/numBlocks);
+
+			futures.add(executor.submit(new Runnable() {
+				@Override
+				public void run() {
+					insideTask.set(true);
+					try {
+						task.process(blockStart,blockEnd);
+					} finally {
+						insideTask.set(false);
+					}
+				}
+			}));
+		}
+
+		// the other blocks must finish before returning, even if this one fails
+		Throwable failure = null;
+		insideTask.set(true);
+		try {
+			task.process(start,start + length/numBlocks);
+		} catch( RuntimeException e ) {
+			failure = e;
+		} catch( Error e ) {
+			failure = e;
+		} finally {
+			insideTask.set(false);
+		}
+
+		waitForAll(futures,failure);
+	}
+
+	/**
+	 * Waits for all the tasks to finish, even if one of them failed or the thread was interrupted.  Afterwards
+	 * the first failure is thrown, with the calling thread's failure taking precedence.  If the thread was
+	 * interrupted while waiting its interrupt status is restored.
+	 *
+	 * @param futures Tasks submitted to the pool, in block order
+	 * @param failure Exception thrown by the calling thread's block or null if there was none
+	 */
+	private static void waitForAll( List<Future<?>> futures , Throwable failure ) {
+		boolean interrupted = false;
+		for( int i = 0; i < futures.size(); i++ ) {
+			while( true ) {
+				try {
+					futures.get(i).get();
+				} catch (InterruptedException e) {
+					interrupted = true;
+					continue;
+				} catch (ExecutionException e) {
+					if( failure == null )
+						failure = e.getCause();
+				}
+				break;
+			}
+		}
+
+		if( interrupted )
+			Thread.currentThread().interrupt();
+
+		if( failure instanceof RuntimeException )
+			throw (RuntimeException)failure;
+		if( failure instanceof Error )
+			throw (Error)failure;
+		if( failure != null )
+			throw new RuntimeException(failure);
+		if( interrupted )
+			throw new RuntimeException(new InterruptedException("Interrupted while waiting for blocks"));
+	}
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.concurrency;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>
+ * Pool of instances which are not thread safe, such as an algorithm and its work buffers.  Inside of a block
+ * processed by {@link BoofConcurrency#loopBlocks} a thread borrows an instance, uses it, and then releases it
+ * back into the pool.  An instance is never used by two threads at the same time.  New instances are created
+ * by {@link #createInstance()} when the pool is empty, so the pool grows to the number of threads which use it
+ * at the same time and are then reused.
+ * </p>
+ *
+ * <p>
+ * Configuration which changes between calls is not handled by the pool.  After borrowing, the owner should make
+ * sure the instance is set up for the current call.
+ * </p>
+ *
+ * @param <T> Type of instance in the pool
+ *
+ * @author Peter Abeles
+ */
+public abstract class WorkerPool<T> {
+
+	// instances which are not currently being used by a thread
+	private final List<T> available = new ArrayList<T>();
+
+	/**
+	 * Creates a new instance when none are available.  Can be called by several threads at the same time.
+	 */
+	protected abstract T createInstance();
+
+	/**
+	 * Returns an instance which isn't being used by another thread.  Creates a new one if none are available.
+	 */
+	public T borrow() {
+		synchronized ( available ) {
+			if( !available.isEmpty() )
+				return available.remove(available.size()-1);
+		}
+		return createInstance();
+	}
+
+	/**
+	 * Returns an instance to the pool so that it can be used by another thread.  Instances created outside of
+	 * the pool can also be added this way.
+	 */
+	public void release( T instance ) {
+		synchronized ( available ) {
+			available.add(instance);
+		}
+	}
+}
@@ -19,9 +19,13 @@
 package boofcv.factory.distort;
 
 import boofcv.alg.distort.ImageDistort;
+import boofcv.alg.distort.ImageDistortConcurrent;
 import boofcv.alg.distort.impl.*;
 import boofcv.alg.interpolate.InterpolatePixel;
+import boofcv.alg.interpolate.TypeInterpolate;
+import boofcv.core.image.border.FactoryImageBorder;
 import boofcv.core.image.border.ImageBorder;
+import boofcv.factory.interpolate.FactoryInterpolation;
 import boofcv.struct.image.*;
 
 /**
@@ -94,4 +98,47 @@ public class FactoryDistort {
 			throw new IllegalArgumentException("Image type not supported: "+imageType.getSimpleName());
 		}
 	}
+
+	/**
+	 * Creates a {@link boofcv.alg.distort.ImageDistort} for multi-spectral images which caches the distortion.
+	 * The same cached map is used for every band in the image.
+	 *
+	 * @param interp Which interpolation algorithm should be used.
+	 * @param border Specifies how requests to pixels outside the image should be handled.  If null then no change
+	 * @param imageType Type of image being processed.
+	 * @return Image distort which caches the distortion.
+	 */
+	public static <T extends ImageSingleBand>
+	ImageDistort<MultiSpectral<T>> distortCachedMS(InterpolatePixel<T> interp, ImageBorder border, Class<T> imageType)
+	{
+		ImageDistort<T> distortSingle = distortCached(interp,border,imageType);
+		return new ImplImageDistort_MS<T>(distortSingle);
+	}
+
+	/**
+	 * Creates an {@link ImageDistort} which splits the output image into tiles that are processed concurrently.
+	 * The distortion is cached, see {@link ImageDistortConcurrent}.  Since each thread requires its own
+	 * interpolation and border instances the interpolation type is specified instead of an instance.
+	 *
+	 * @param interpType Which type of pixel interpolation should be used.
+	 * @param skipOutsidePixels Should pixels that go outside the source image be skipped over
+	 *                          or set to the value of zero.
+	 * @param tileSize Width and height of a tile in pixels.  Try 64.
+	 * @param imageType Type of image being processed.
+	 * @return Image distort which processes the image concurrently.
+	 */
+	public static <T extends ImageSingleBand>
+	ImageDistort<T> distortConcurrent(final TypeInterpolate interpType, final boolean skipOutsidePixels,
+									  int tileSize, final Class<T> imageType)
+	{
+		return new ImageDistortConcurrent<T>(tileSize) {
+			@Override
+			protected ImageDistort<T> createDistort() {
+				InterpolatePixel<T> interp = FactoryInterpolation.createPixel(0, 255, interpType, imageType);
+				ImageBorder<T> border = skipOutsidePixels ? null : FactoryImageBorder.value(imageType,0);
+
+				return distortCached(interp,border,imageType);
+			}
+		};
+	}
 }
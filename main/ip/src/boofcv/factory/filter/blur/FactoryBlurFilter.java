@@ -61,4 +61,19 @@ public class FactoryBlurFilter {
 	public static <T extends ImageSingleBand> BlurStorageFilter<T> gaussian( Class<T> type , double sigma , int radius ) {
 		return new BlurStorageFilter<T>("gaussian",type,sigma,radius);
 	}
+
+	/**
+	 * Creates a filter which approximates Gaussian blur using a recursive filter.  Its cost does not depend on
+	 * the amount of blur.
+	 *
+	 * @see boofcv.alg.filter.blur.BlurImageOps#gaussianRecursive
+	 *
+	 * @param type Image type.
+	 * @param sigma Gaussian distribution's sigma.  If <= 0 then will be selected based on radius.
+	 * @param radius Used to select sigma if sigma <= 0, otherwise ignored.
+	 * @return Gaussian image filter.
+	 */
+	public static <T extends ImageSingleBand> BlurStorageFilter<T> gaussianRecursive( Class<T> type , double sigma , int radius ) {
+		return new BlurStorageFilter<T>("gaussianRecursive",type,sigma,radius);
+	}
 }
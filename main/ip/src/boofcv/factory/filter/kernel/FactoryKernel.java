@@ -109,6 +109,10 @@ public class FactoryKernel {
 			return (T) FactoryKernel.random2D_I32(radius, min, max, rand);
 		} else if (Kernel2D_F32.class == type) {
 			return (T) FactoryKernel.random2D_F32(radius, min, max, rand);
+		} else if (Kernel1D_F64.class == type) {
+			return (T) FactoryKernel.random1D_F64(radius, min, max, rand);
+		} else if (Kernel2D_F64.class == type) {
+			return (T) FactoryKernel.random2D_F64(radius, min, max, rand);
 		} else {
 			throw new RuntimeException("Unknown kernel type");
 		}
@@ -205,10 +209,32 @@ public class FactoryKernel {
 		return ret;
 	}
 
+	/**
+	 * Creates a random 2D kernel drawn from a uniform distribution.
+	 *
+	 * @param radius Kernel's radius.
+	 * @param min	minimum value.
+	 * @param max	maximum value.
+	 * @param rand   Random number generator.
+	 * @return Randomized kernel.
+	 */
+	public static Kernel2D_F64 random2D_F64(int radius, double min, double max, Random rand) {
+		Kernel2D_F64 ret = new Kernel2D_F64(radius * 2 + 1);
+
+		double range = max - min;
+		for (int i = 0; i < ret.data.length; i++) {
+			ret.data[i] = rand.nextDouble() * range + min;
+		}
+
+		return ret;
+	}
+
 	public static <K1 extends Kernel1D , K2 extends Kernel2D>
 	Class<K1> get1DType( Class<K2> kernelType ) {
 		if( kernelType == Kernel2D_F32.class )
 			return (Class<K1>)Kernel1D_F32.class;
+		else if( kernelType == Kernel2D_F64.class )
+			return (Class<K1>)Kernel1D_F64.class;
 		else
 			return (Class<K1>)Kernel1D_I32.class;
 	}
@@ -51,6 +51,10 @@ public class FactoryKernelGaussian {
 			return gaussian(2,false, 32, sigma,radius);
 		} else if (Kernel2D_F32.class == kernelType) {
 			return gaussian(2,true, 32, sigma,radius);
+		} else if (Kernel1D_F64.class == kernelType) {
+			return gaussian(1,true, 64, sigma,radius);
+		} else if (Kernel2D_F64.class == kernelType) {
+			return gaussian(2,true, 64, sigma,radius);
 		} else {
 			throw new RuntimeException("Unknown kernel type");
 		}
@@ -123,8 +127,14 @@ public class FactoryKernelGaussian {
 				if( isFloat )
 					return (T)k;
 				return (T)KernelMath.convert(k,MIN_FRAC);
+			} else if( numBits == 64 ) {
+				Kernel1D_F64 k = gaussian1D_F64(sigma,radius, isFloat);
+				if( isFloat )
+					return (T)k;
+				else
+					throw new IllegalArgumentException("64bit int kernels supported");
 			} else {
-				throw new IllegalArgumentException("Bits must be 32 ");
+				throw new IllegalArgumentException("Bits must be 32 or 64");
 			}
 		} else {
 			throw new IllegalArgumentException("DOF not supported");
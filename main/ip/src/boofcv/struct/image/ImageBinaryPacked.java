@@ -0,0 +1,219 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.struct.image;
+
+/**
+ * <p>
+ * Binary image where each pixel is stored as a single bit, 64 pixels to a long.  Compared to a binary
+ * {@link ImageUInt8} it uses 1/8 the memory and allows operations to process 64 pixels at once.  Each row starts on
+ * a new word.  Pixel (x,y) is stored in bit x%64 of word startIndex + y*stride + x/64, where the least significant
+ * bit is bit 0.  Bits past the end of a row are not part of the image and have no defined value.
+ * </p>
+ *
+ * <p>
+ * Sub-images are supported as long as the sub-image starts on a word boundary, i.e. x0 is a multiple of 64.
+ * Both startIndex and stride are specified in words, not pixels.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class ImageBinaryPacked extends ImageBase<ImageBinaryPacked> {
+
+	/**
+	 * Number of pixels in each word
+	 */
+	public static final int BITS = 64;
+
+	public long data[];
+
+	/**
+	 * Creates a new image.  All pixels are initially false.
+	 *
+	 * @param width  number of columns in the image.
+	 * @param height number of rows in the image.
+	 */
+	public ImageBinaryPacked(int width, int height) {
+		this.width = width;
+		this.height = height;
+		this.stride = wordsPerRow(width);
+		this.data = new long[ stride*height ];
+	}
+
+	public ImageBinaryPacked() {
+	}
+
+	/**
+	 * Number of words required to store a row with the specified number of pixels
+	 */
+	public static int wordsPerRow( int width ) {
+		return (width+BITS-1)/BITS;
+	}
+
+	/**
+	 * Number of words in each row of this image
+	 */
+	public int getWordsPerRow() {
+		return wordsPerRow(width);
+	}
+
+	/**
+	 * Returns the value of the specified pixel.
+	 *
+	 * @param x pixel coordinate.
+	 * @param y pixel coordinate.
+	 * @return Pixel's value
+	 */
+	public boolean get(int x, int y) {
+		if (!isInBounds(x, y))
+			throw new ImageAccessException("Requested pixel is out of bounds: "+x+" "+y);
+
+		return unsafe_get(x,y);
+	}
+
+	public boolean unsafe_get(int x, int y) {
+		return ((data[startIndex + y*stride + x/BITS] >>> (x%BITS)) & 1L) != 0;
+	}
+
+	/**
+	 * Sets the value of the specified pixel.
+	 *
+	 * @param x	 pixel coordinate.
+	 * @param y	 pixel coordinate.
+	 * @param value The pixel's new value.
+	 */
+	public void set(int x, int y, boolean value) {
+		if (!isInBounds(x, y))
+			throw new ImageAccessException("Requested pixel is out of bounds: "+x+" "+y);
+
+		unsafe_set(x,y,value);
+	}
+
+	public void unsafe_set(int x, int y, boolean value) {
+		int index = startIndex + y*stride + x/BITS;
+		long mask = 1L << (x%BITS);
+		if( value )
+			data[index] |= mask;
+		else
+			data[index] &= ~mask;
+	}
+
+	/**
+	 * Mask for the bits in the last word of a row which are inside the image
+	 */
+	public long getLastWordMask() {
+		int n = width % BITS;
+		return n == 0 ? ~0L : (1L << n) - 1;
+	}
+
+	/**
+	 * Creates a sub-image.  See {@link ImageSingleBand#subimage(int, int, int, int)}.  x0 must be a multiple of 64.
+	 */
+	@Override
+	public ImageBinaryPacked subimage(int x0, int y0, int x1, int y1) {
+		if (x0 < 0 || y0 < 0)
+			throw new IllegalArgumentException("x0 or y0 is less than zero");
+		if (x1 < x0 || y1 < y0)
+			throw new IllegalArgumentException("x1 or y1 is less than x0 or y0 respectively");
+		if (x1 > width || y1 > height)
+			throw new IllegalArgumentException("x1 or y1 is more than the width or height respectively");
+		if( x0 % BITS != 0 )
+			throw new IllegalArgumentException("x0 must be a multiple of "+BITS);
+
+		ImageBinaryPacked ret = new ImageBinaryPacked();
+		ret.data = data;
+		ret.stride = Math.max(getWordsPerRow(), stride);
+		ret.width = x1 - x0;
+		ret.height = y1 - y0;
+		ret.startIndex = startIndex + y0 * stride + x0/BITS;
+
+		return ret;
+	}
+
+	@Override
+	public boolean isSubimage() {
+		return startIndex != 0 || getWordsPerRow() != stride;
+	}
+
+	/**
+	 * Changes the image's width and height without declaring new memory.  If the internal array
+	 * is not large enough to store the new image an IllegalArgumentException is thrown.
+	 *
+	 * @param width The new width.
+	 * @param height The new height.
+	 */
+	@Override
+	public void reshape(int width, int height) {
+		if( isSubimage() )
+			throw new IllegalArgumentException("Can't reshape sub-images");
+
+		int words = wordsPerRow(width);
+		if( data.length < words*height )
+			throw new IllegalArgumentException("The internal array is too small for the new image size");
+
+		this.stride = words;
+		this.width = width;
+		this.height = height;
+	}
+
+	/**
+	 * Sets the values of each pixel equal to the pixels in the specified image.
+	 * The two images must have the same shape.
+	 *
+	 * @param orig The original image whose value is to be copied into this one
+	 */
+	@Override
+	public void setTo(ImageBinaryPacked orig) {
+		if (orig.width != width || orig.height != height)
+			throw new IllegalArgumentException("The width and/or height of 'orig' is not the same as this class");
+
+		int words = getWordsPerRow();
+		if( words == 0 )
+			return;
+		long mask = getLastWordMask();
+		for (int y = 0; y < height; y++) {
+			int indexSrc = orig.startIndex + y*orig.stride;
+			int indexDst = startIndex + y*stride;
+			System.arraycopy(orig.data, indexSrc, data, indexDst, words-1);
+
+			// don't modify pixels outside of this image
+			indexSrc += words-1;
+			indexDst += words-1;
+			data[indexDst] = (data[indexDst] & ~mask) | (orig.data[indexSrc] & mask);
+		}
+	}
+
+	@Override
+	public ImageBinaryPacked clone() {
+		ImageBinaryPacked ret = new ImageBinaryPacked(width,height);
+		ret.setTo(this);
+		return ret;
+	}
+
+	@Override
+	public int getIndex(int x, int y) {
+		return startIndex + y*stride + x/BITS;
+	}
+
+	@Override
+	public ImageBinaryPacked _createNew(int imgWidth, int imgHeight) {
+		if( imgWidth == -1 || imgHeight == -1 )
+			return new ImageBinaryPacked();
+		return new ImageBinaryPacked(imgWidth, imgHeight);
+	}
+}
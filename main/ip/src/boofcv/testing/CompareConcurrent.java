@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.testing;
+
+import boofcv.concurrency.BoofConcurrency;
+
+/**
+ * <p>
+ * Checks to see if an algorithm produces the same output when {@link BoofConcurrency#USE_CONCURRENT} is true as it
+ * does when run in a single thread.  The algorithm is first run with concurrency turned off, then run again with
+ * it turned on, and the two outputs are compared.  The original concurrency settings are always restored.
+ * </p>
+ *
+ * <p>
+ * Tests which need more control can use {@link #runConcurrent} directly.
+ * </p>
+ *
+ * @param <T> Type of the algorithm's output
+ *
+ * @author Peter Abeles
+ */
+public abstract class CompareConcurrent<T> {
+
+	// number of threads used when concurrency is turned on
+	protected int numThreads = 3;
+
+	protected CompareConcurrent() {
+	}
+
+	protected CompareConcurrent(int numThreads) {
+		this.numThreads = numThreads;
+	}
+
+	/**
+	 * Creates storage for the algorithm's output
+	 */
+	protected abstract T createOutput();
+
+	/**
+	 * Processes the input and writes the results into output
+	 */
+	protected abstract void process( T output );
+
+	/**
+	 * Throws an exception if the two outputs are not the same
+	 */
+	protected abstract void compare( T expected , T found );
+
+	/**
+	 * Runs the algorithm single threaded and concurrently then compares the results
+	 */
+	public void perform() {
+		final T expected = createOutput();
+		final T found = createOutput();
+
+		boolean concurrent = BoofConcurrency.USE_CONCURRENT;
+		BoofConcurrency.USE_CONCURRENT = false;
+		try {
+			process(expected);
+		} finally {
+			BoofConcurrency.USE_CONCURRENT = concurrent;
+		}
+
+		runConcurrent(numThreads, new Runnable() {
+			@Override
+			public void run() {
+				process(found);
+			}
+		});
+
+		compare(expected, found);
+	}
+
+	/**
+	 * Runs the task with {@link BoofConcurrency#USE_CONCURRENT} set to true and the specified maximum number of
+	 * threads.  The previous settings are restored afterwards.
+	 *
+	 * @param numThreads Maximum number of threads
+	 * @param task The task being run
+	 */
+	public static void runConcurrent( int numThreads , Runnable task ) {
+		boolean concurrent = BoofConcurrency.USE_CONCURRENT;
+		int maxThreads = BoofConcurrency.getMaxThreads();
+
+		BoofConcurrency.USE_CONCURRENT = true;
+		BoofConcurrency.setMaxThreads(numThreads);
+		try {
+			task.run();
+		} finally {
+			BoofConcurrency.USE_CONCURRENT = concurrent;
+			BoofConcurrency.setMaxThreads(maxThreads);
+		}
+	}
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.distort;
+
+import boofcv.alg.interpolate.TypeInterpolate;
+import boofcv.alg.misc.GImageMiscOps;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.core.image.border.FactoryImageBorder;
+import boofcv.factory.distort.FactoryDistort;
+import boofcv.factory.interpolate.FactoryInterpolation;
+import boofcv.struct.image.ImageFloat32;
+import boofcv.testing.BoofTesting;
+import boofcv.testing.CompareConcurrent;
+import georegression.struct.affine.Affine2D_F32;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestImageDistortConcurrent {
+
+	Random rand = new Random(234);
+
+	PixelTransformAffine_F32 tran = new PixelTransformAffine_F32(new Affine2D_F32(1.1f,0.1f,-0.2f,0.9f,-5,3));
+
+	ImageFloat32 src = new ImageFloat32(100,90);
+	ImageFloat32 expected = new ImageFloat32(100,90);
+	ImageFloat32 found = new ImageFloat32(100,90);
+
+	int maxThreads;
+
+	@Before
+	public void before() {
+		maxThreads = BoofConcurrency.getMaxThreads();
+		BoofConcurrency.setMaxThreads(4);
+		GImageMiscOps.fillUniform(src, rand, 0, 100);
+	}
+
+	@After
+	public void after() {
+		BoofConcurrency.setMaxThreads(maxThreads);
+	}
+
+	@Test
+	public void compareToSingleThread() {
+		for( int i = 0; i < 2; i++ ) {
+			boolean skip = i == 0;
+			ImageDistort<ImageFloat32> single = createSingle(skip);
+			ImageDistort<ImageFloat32> alg =
+					FactoryDistort.distortConcurrent(TypeInterpolate.BILINEAR,skip,16,ImageFloat32.class);
+
+			single.setModel(tran);
+			alg.setModel(tran);
+
+			GImageMiscOps.fill(expected,5);
+			GImageMiscOps.fill(found,5);
+			single.apply(src,expected);
+			alg.apply(src,found);
+
+			BoofTesting.assertEquals(expected, found, 1e-4);
+
+			// apply it again to make sure the cached map is used correctly
+			GImageMiscOps.fill(found,5);
+			alg.apply(src,found);
+			BoofTesting.assertEquals(expected, found, 1e-4);
+		}
+	}
+
+	@Test
+	public void compareCrop() {
+		ImageDistort<ImageFloat32> single = createSingle(false);
+		ImageDistort<ImageFloat32> alg =
+				FactoryDistort.distortConcurrent(TypeInterpolate.BILINEAR,false,16,ImageFloat32.class);
+
+		single.setModel(tran);
+		alg.setModel(tran);
+
+		single.apply(src,expected,10,30,85,61);
+		alg.apply(src,found,10,30,85,61);
+
+		BoofTesting.assertEquals(expected, found, 1e-4);
+	}
+
+	/**
+	 * Changing the model should cause the map to be recomputed
+	 */
+	@Test
+	public void changeModel() {
+		ImageDistort<ImageFloat32> single = createSingle(false);
+		ImageDistort<ImageFloat32> alg =
+				FactoryDistort.distortConcurrent(TypeInterpolate.BILINEAR,false,16,ImageFloat32.class);
+
+		alg.setModel(tran);
+		alg.apply(src,found);
+
+		PixelTransformCached_F32 tran2 = new PixelTransformCached_F32(100,90,
+				new PixelTransformAffine_F32(new Affine2D_F32(0.8f,0,0,1.2f,2,-1)));
+		single.setModel(tran2);
+		alg.setModel(tran2);
+
+		single.apply(src,expected);
+		alg.apply(src,found);
+
+		BoofTesting.assertEquals(expected, found, 1e-4);
+	}
+
+	/**
+	 * Pairs of tiled distorters and pairs of single threaded distorters
+	 */
+	@Test
+	public void distortPair() {
+		distortPair(FactoryDistort.distortConcurrent(TypeInterpolate.BILINEAR,false,16,ImageFloat32.class),
+				FactoryDistort.distortConcurrent(TypeInterpolate.BILINEAR,false,16,ImageFloat32.class));
+		distortPair(createSingle(false),createSingle(false));
+	}
+
+	private void distortPair( final ImageDistort<ImageFloat32> algA , final ImageDistort<ImageFloat32> algB ) {
+		final ImageFloat32 srcB = new ImageFloat32(100,90);
+		ImageFloat32 expectedB = new ImageFloat32(100,90);
+		final ImageFloat32 foundB = new ImageFloat32(100,90);
+		GImageMiscOps.fillUniform(srcB, rand, 0, 100);
+
+		ImageDistort<ImageFloat32> single = createSingle(false);
+		single.setModel(tran);
+		single.apply(src,expected);
+		single.apply(srcB,expectedB);
+
+		GImageMiscOps.fill(found,0);
+		// the transform has internal state so each distorter needs its own copy
+		algA.setModel(tran);
+		algB.setModel(new PixelTransformAffine_F32(tran.getModel()));
+
+		CompareConcurrent.runConcurrent(4, new Runnable() {
+			@Override
+			public void run() {
+				DistortImageOps.distortPair(algA,src,found,algB,srcB,foundB);
+			}
+		});
+
+		BoofTesting.assertEquals(expected, found, 1e-4);
+		BoofTesting.assertEquals(expectedB, foundB, 1e-4);
+	}
+
+	private ImageDistort<ImageFloat32> createSingle( boolean skipOutside ) {
+		return FactoryDistort.distort(FactoryInterpolation.bilinearPixel(ImageFloat32.class),
+				skipOutside ? null : FactoryImageBorder.value(ImageFloat32.class,0),ImageFloat32.class);
+	}
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.distort;
+
+import georegression.struct.affine.Affine2D_F32;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestPixelTransformCached_F32 {
+
+	Affine2D_F32 affine = new Affine2D_F32(1,2,3,4,5,6);
+	PixelTransformAffine_F32 tran = new PixelTransformAffine_F32(affine);
+
+	@Test
+	public void compareToOriginal() {
+		PixelTransformCached_F32 alg = new PixelTransformCached_F32(20,30,tran);
+
+		for( int y = 0; y < 30; y++ ) {
+			for( int x = 0; x < 20; x++ ) {
+				tran.compute(x,y);
+				alg.compute(x,y);
+
+				assertEquals(tran.distX,alg.distX,1e-8);
+				assertEquals(tran.distY,alg.distY,1e-8);
+			}
+		}
+	}
+
+	@Test
+	public void copyConstructor_shared() {
+		PixelTransformCached_F32 original = new PixelTransformCached_F32(20,30,tran);
+		PixelTransformCached_F32 alg = new PixelTransformCached_F32(original);
+
+		assertTrue(original.getMap() == alg.getMap());
+		assertTrue(alg.isCompatible(20,30));
+		assertFalse(alg.isCompatible(30,20));
+
+		alg.compute(5,6);
+		tran.compute(5,6);
+		assertEquals(tran.distX,alg.distX,1e-8);
+		assertEquals(tran.distY,alg.distY,1e-8);
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void outsideOfMap() {
+		PixelTransformCached_F32 alg = new PixelTransformCached_F32(20,30,tran);
+		alg.compute(20,0);
+	}
+}
@@ -21,6 +21,7 @@ package boofcv.alg.distort.impl;
 import boofcv.alg.distort.ImageDistort;
 import boofcv.alg.distort.ImageDistortCache;
 import boofcv.alg.distort.PixelTransformAffine_F32;
+import boofcv.alg.distort.PixelTransformCached_F32;
 import boofcv.alg.interpolate.InterpolatePixel;
 import boofcv.alg.misc.GImageMiscOps;
 import boofcv.core.image.GeneralizedImageOps;
@@ -96,6 +97,66 @@ public abstract class CommonImageDistortCacheTests<T extends ImageSingleBand> {
 		BoofTesting.assertEquals(dst0, dst1, 1e-4);
 	}
 	
+	/**
+	 * Output image is a sub-image
+	 */
+	@Test
+	public void compareSubImage() {
+
+		ImageDistort<T> standard = FactoryDistort.distort(interp,border,imageType);
+		ImageDistortCache<T> alg = create(interp,border,imageType);
+
+		standard.setModel(tran);
+		alg.setModel(tran);
+
+		T dst1Sub = BoofTesting.createSubImageOf(dst1);
+
+		standard.apply(src,dst0);
+		alg.apply(src,dst1Sub);
+
+		BoofTesting.assertEquals(dst0, dst1Sub, 1e-4);
+	}
+
+	/**
+	 * The map from a precomputed transform should be used and produce the same results
+	 */
+	@Test
+	public void sharedMap() {
+		PixelTransformCached_F32 shared = new PixelTransformCached_F32(dst0.width,dst0.height,tran);
+
+		ImageDistort<T> standard = FactoryDistort.distort(interp,border,imageType);
+		ImageDistortCache<T> alg = create(interp,border,imageType);
+
+		standard.setModel(tran);
+		alg.setModel(new PixelTransformCached_F32(shared));
+
+		standard.apply(src,dst0);
+		alg.apply(src,dst1);
+
+		BoofTesting.assertEquals(dst0, dst1, 1e-4);
+	}
+
+	/**
+	 * Changing the model should cause the cache to be recomputed
+	 */
+	@Test
+	public void changeModel() {
+		ImageDistort<T> standard = FactoryDistort.distort(interp,border,imageType);
+		ImageDistortCache<T> alg = create(interp,border,imageType);
+
+		alg.setModel(tran);
+		alg.apply(src,dst1);
+
+		PixelTransformAffine_F32 tran2 = new PixelTransformAffine_F32(new Affine2D_F32(2,1,0,1,-5,3));
+		standard.setModel(tran2);
+		alg.setModel(tran2);
+
+		standard.apply(src,dst0);
+		alg.apply(src,dst1);
+
+		BoofTesting.assertEquals(dst0, dst1, 1e-4);
+	}
+
 	public abstract ImageDistortCache<T> 
 	create(InterpolatePixel<T> interp, ImageBorder<T> border , Class<T> imageType );
 }
@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.filter.binary;
+
+import boofcv.alg.misc.ImageMiscOps;
+import boofcv.struct.ImageRectangle;
+import boofcv.struct.image.ImageSInt32;
+import boofcv.struct.image.ImageUInt8;
+import boofcv.testing.BoofTesting;
+import boofcv.testing.CompareConcurrent;
+import georegression.struct.point.Point2D_F64;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestLinearUnionFindLabel {
+
+	Random rand = new Random(234);
+
+	/**
+	 * Compare the labeled image against the contour based algorithm, which assigns labels in the same order
+	 */
+	@Test
+	public void compareToChang2004() {
+		byte[][] tests = new byte[][]{TestLinearContourLabelChang2004.TEST1,TestLinearContourLabelChang2004.TEST2};
+
+		for( byte[] data : tests ) {
+			ImageUInt8 input = new ImageUInt8(13,8);
+			input.data = data;
+			compareToChang2004(input, 4);
+			compareToChang2004(input, 8);
+		}
+
+		ImageUInt8 input = new ImageUInt8(7,8);
+		input.data = TestLinearContourLabelChang2004.TEST4;
+		compareToChang2004(input, 4);
+		compareToChang2004(input, 8);
+
+		for( int i = 0; i < 5; i++ ) {
+			input = new ImageUInt8(60,45);
+			ImageMiscOps.fillUniform(input, rand, 0, 2);
+			compareToChang2004(input, 4);
+			compareToChang2004(input, 8);
+		}
+	}
+
+	private void compareToChang2004( ImageUInt8 input , int rule ) {
+		ImageSInt32 expected = new ImageSInt32(input.width,input.height);
+		LinearContourLabelChang2004 chang = new LinearContourLabelChang2004(rule);
+		chang.process(input,expected);
+
+		ImageSInt32 found = new ImageSInt32(input.width,input.height);
+		LinearUnionFindLabel alg = new LinearUnionFindLabel(rule);
+		alg.process(input, found);
+
+		assertEquals(chang.getContours().size, alg.getNumberOfBlobs());
+		BoofTesting.assertEquals(expected, found, 0);
+
+		// see if sub-images are handled correctly
+		ImageUInt8 inputSub = BoofTesting.createSubImageOf(input);
+		ImageSInt32 foundSub = BoofTesting.createSubImageOf(found);
+		ImageMiscOps.fill(foundSub,-1);
+		alg.process(inputSub, foundSub);
+		BoofTesting.assertEquals(expected, foundSub, 0);
+	}
+
+	/**
+	 * Compare the blob statistics against a brute force computation
+	 */
+	@Test
+	public void statistics() {
+		ImageUInt8 input = new ImageUInt8(50,40);
+		ImageMiscOps.fillUniform(input, rand, 0, 2);
+		ImageSInt32 labeled = new ImageSInt32(input.width,input.height);
+
+		for( int rule = 4; rule <= 8; rule += 4 ) {
+			LinearUnionFindLabel alg = new LinearUnionFindLabel(rule);
+			alg.process(input, labeled);
+			checkStatistics(alg, labeled);
+		}
+	}
+
+	private void checkStatistics( LinearUnionFindLabel alg , ImageSInt32 labeled ) {
+		ImageRectangle rect = new ImageRectangle();
+		Point2D_F64 centroid = new Point2D_F64();
+
+		for( int label = 1; label <= alg.getNumberOfBlobs(); label++ ) {
+			int area = 0;
+			int x0 = Integer.MAX_VALUE, y0 = Integer.MAX_VALUE, x1 = -1, y1 = -1;
+			double sumX = 0, sumY = 0;
+
+			for( int y = 0; y < labeled.height; y++ ) {
+				for( int x = 0; x < labeled.width; x++ ) {
+					if( labeled.get(x,y) != label )
+						continue;
+					area++;
+					sumX += x; sumY += y;
+					x0 = Math.min(x0,x); y0 = Math.min(y0,y);
+					x1 = Math.max(x1,x+1); y1 = Math.max(y1,y+1);
+				}
+			}
+
+			assertEquals(area, alg.getArea(label));
+			alg.getBoundingBox(label,rect);
+			assertEquals(x0,rect.x0);
+			assertEquals(y0,rect.y0);
+			assertEquals(x1,rect.x1);
+			assertEquals(y1,rect.y1);
+			alg.getCentroid(label,centroid);
+			assertEquals(sumX/area,centroid.x,1e-8);
+			assertEquals(sumY/area,centroid.y,1e-8);
+		}
+	}
+
+	/**
+	 * The concurrent strip version should produce identical results to the single threaded version
+	 */
+	@Test
+	public void concurrent() {
+		final ImageUInt8 input = new ImageUInt8(70,100);
+		final ImageSInt32 expected = new ImageSInt32(input.width,input.height);
+		final ImageSInt32 found = new ImageSInt32(input.width,input.height);
+
+		// large blobs which cross several strips
+		ImageMiscOps.fillUniform(input, rand, 0, 2);
+		ImageMiscOps.fillRectangle(input,1,5,0,3,100);
+		ImageMiscOps.fillRectangle(input,1,20,10,40,3);
+
+		for( int rule = 4; rule <= 8; rule += 4 ) {
+			final LinearUnionFindLabel alg = new LinearUnionFindLabel(rule);
+			alg.setMinRows(10);
+			alg.process(input,expected);
+			final int numBlobs = alg.getNumberOfBlobs();
+
+			final int connectRule = rule;
+			CompareConcurrent.runConcurrent(3, new Runnable() {
+				@Override
+				public void run() {
+					alg.process(input,found);
+					BoofTesting.assertEquals(expected, found, 0);
+					assertEquals(numBlobs,alg.getNumberOfBlobs());
+					checkStatistics(alg,found);
+
+					// a new instance will have to allocate all its data structures
+					LinearUnionFindLabel algNew = new LinearUnionFindLabel(connectRule);
+					algNew.setMinRows(10);
+					algNew.process(input,found);
+					BoofTesting.assertEquals(expected, found, 0);
+				}
+			});
+		}
+	}
+
+	@Test
+	public void emptyImage() {
+		ImageUInt8 input = new ImageUInt8(20,15);
+		ImageSInt32 labeled = new ImageSInt32(20,15);
+		ImageMiscOps.fill(labeled,3);
+
+		LinearUnionFindLabel alg = new LinearUnionFindLabel(8);
+		alg.process(input,labeled);
+
+		assertEquals(0,alg.getNumberOfBlobs());
+		BoofTesting.assertEquals(new ImageSInt32(20,15), labeled, 0);
+	}
+}
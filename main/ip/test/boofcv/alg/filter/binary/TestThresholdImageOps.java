@@ -18,10 +18,13 @@
 
 package boofcv.alg.filter.binary;
 
+import boofcv.alg.filter.blur.BlurImageOps;
+import boofcv.alg.misc.GImageMiscOps;
 import boofcv.alg.misc.GImageStatistics;
 import boofcv.core.image.FactoryGImageSingleBand;
 import boofcv.core.image.GImageSingleBand;
 import boofcv.core.image.GeneralizedImageOps;
+import boofcv.struct.image.ImageFloat32;
 import boofcv.struct.image.ImageSingleBand;
 import boofcv.struct.image.ImageUInt8;
 import boofcv.testing.BoofTesting;
@@ -29,8 +32,10 @@ import org.junit.Test;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.Random;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 /**
  * @author Peter Abeles
@@ -55,6 +60,8 @@ public class TestThresholdImageOps {
 	int width = 20;
 	int height = 30;
 
+	Random rand = new Random(234);
+
 	@Test
 	public void threshold() {
 
@@ -94,6 +101,82 @@ public class TestThresholdImageOps {
 		assertEquals(390, GImageStatistics.sum(output),1e-4);
 	}
 
+	@Test
+	public void localMean() {
+		localMean(new ImageUInt8(width,height));
+		localMean(new ImageFloat32(width,height));
+	}
+
+	/**
+	 * Compares against a naive computation of the local mean, which only includes pixels inside the image
+	 */
+	private void localMean( ImageSingleBand input ) {
+		GImageMiscOps.fillUniform(input, rand, 0, 200);
+		GImageSingleBand a = FactoryGImageSingleBand.wrap(input);
+		boolean isInteger = input.getTypeInfo().isInteger();
+
+		for( int radius : new int[]{1,3,8} ) {
+			for( boolean down : new boolean[]{true,false}) {
+				ImageUInt8 found = GThresholdImageOps.localMean(input, null, radius, 0.95, down, null, null);
+
+				for( int y = 0; y < height; y++ ) {
+					for( int x = 0; x < width; x++ ) {
+						double mean = naiveMean(a,x,y,radius);
+						if( isInteger )
+							mean = Math.round(mean);
+						double value = a.get(x,y).doubleValue();
+						// skip pixels which are too close to call
+						if( Math.abs(value-mean*0.95) < 1 )
+							continue;
+						boolean expected = down ? value <= mean*0.95 : value >= mean*0.95;
+						assertEquals(expected ? 1 : 0, found.get(x,y));
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * The Gaussian is approximated, so compare against a true Gaussian and allow some errors
+	 */
+	@Test
+	public void localGaussian() {
+		ImageFloat32 input = new ImageFloat32(60,50);
+		GImageMiscOps.fillUniform(input, rand, 0, 200);
+
+		for( int radius : new int[]{2,6,15} ) {
+			ImageUInt8 found = GThresholdImageOps.localGaussian(input, null, radius, 1.0, true, null, null);
+			ImageFloat32 blur = BlurImageOps.gaussian(input,null,-1,radius,null);
+			ImageUInt8 expected = new ImageUInt8(input.width,input.height);
+			for( int y = 0; y < input.height; y++ ) {
+				for( int x = 0; x < input.width; x++ ) {
+					expected.set(x,y,input.get(x,y) <= blur.get(x,y) ? 1 : 0);
+				}
+			}
+
+			int total = 0;
+			for( int i = 0; i < expected.data.length; i++ ) {
+				if( expected.data[i] != found.data[i] )
+					total++;
+			}
+			assertTrue(total < expected.data.length*0.05);
+		}
+	}
+
+	private double naiveMean( GImageSingleBand a , int cx , int cy , int radius ) {
+		double sum = 0;
+		int count = 0;
+		for( int y = cy-radius; y <= cy+radius; y++ ) {
+			for( int x = cx-radius; x <= cx+radius; x++ ) {
+				if( x < 0 || y < 0 || x >= a.getWidth() || y >= a.getHeight() )
+					continue;
+				sum += a.get(x,y).doubleValue();
+				count++;
+			}
+		}
+		return sum/count;
+	}
+
 	private int countNotZero( ImageSingleBand image ) {
 		GImageSingleBand a = FactoryGImageSingleBand.wrap(image);
 
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.filter.binary;
+
+import boofcv.alg.misc.ImageMiscOps;
+import boofcv.struct.image.ImageFloat32;
+import boofcv.struct.image.ImageUInt8;
+import boofcv.testing.BoofTesting;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestThresholdSauvola {
+
+	Random rand = new Random(234);
+
+	@Test
+	public void compareToNaive() {
+		ImageFloat32 input = new ImageFloat32(30,25);
+		ImageMiscOps.fillUniform(input, rand, 0, 255);
+		ImageUInt8 output = new ImageUInt8(30,25);
+
+		BoofTesting.checkSubImage(this, "compareToNaive", true, input, output);
+	}
+
+	public void compareToNaive( ImageFloat32 input , ImageUInt8 output ) {
+		for( int radius : new int[]{1,4} ) {
+			for( boolean down : new boolean[]{true,false}) {
+				ThresholdSauvola alg = new ThresholdSauvola(radius,0.3f,down);
+				alg.process(input,output);
+
+				for( int y = 0; y < input.height; y++ ) {
+					for( int x = 0; x < input.width; x++ ) {
+						double threshold = naiveThreshold(input,x,y,radius,0.3,128);
+						double value = input.get(x,y);
+						if( Math.abs(value-threshold) < 1e-2 )
+							continue;
+						boolean expected = down ? value <= threshold : value >= threshold;
+						assertEquals(expected ? 1 : 0, output.get(x,y));
+					}
+				}
+			}
+		}
+	}
+
+	private double naiveThreshold( ImageFloat32 input , int cx , int cy , int radius , double k , double R ) {
+		double sum = 0, sum2 = 0;
+		int count = 0;
+		for( int y = cy-radius; y <= cy+radius; y++ ) {
+			for( int x = cx-radius; x <= cx+radius; x++ ) {
+				if( !input.isInBounds(x,y) )
+					continue;
+				double v = input.get(x,y);
+				sum += v;
+				sum2 += v*v;
+				count++;
+			}
+		}
+		double mean = sum/count;
+		double stdev = Math.sqrt(Math.max(0,sum2/count - mean*mean));
+		return mean*(1 + k*(stdev/R - 1));
+	}
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.filter.binary.impl;
+
+import boofcv.alg.filter.binary.BinaryImageOps;
+import boofcv.alg.misc.ImageMiscOps;
+import boofcv.struct.image.ImageBinaryPacked;
+import boofcv.struct.image.ImageUInt8;
+import boofcv.testing.BoofTesting;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestImplBinaryPackedOps {
+
+	Random rand = new Random(234);
+
+	// widths which test partially filled words and multiple words
+	int widths[] = new int[]{1,2,30,63,64,65,129,200};
+	int height = 15;
+
+	@Test
+	public void packUnpack() {
+		for( int width : widths ) {
+			ImageUInt8 input = randomBinary(width,height);
+			ImageBinaryPacked packed = new ImageBinaryPacked(width,height);
+			ImageUInt8 found = new ImageUInt8(width,height);
+
+			ImplBinaryPackedOps.pack(input,packed);
+			for( int y = 0; y < height; y++ ) {
+				for( int x = 0; x < width; x++ ) {
+					assertEquals(input.get(x,y) != 0, packed.get(x,y));
+				}
+			}
+
+			ImplBinaryPackedOps.unpack(packed,found);
+			BoofTesting.assertEquals(input,found,0);
+		}
+	}
+
+	@Test
+	public void morphology() {
+		for( int width : widths ) {
+			for( int op = 0; op < 7; op++ ) {
+				ImageUInt8 input = randomBinary(width,height);
+				ImageUInt8 expected = new ImageUInt8(width,height);
+
+				ImageBinaryPacked packed = BinaryImageOps.pack(input,null);
+				ImageBinaryPacked found = new ImageBinaryPacked(width,height);
+
+				applyNaive(op,input,expected);
+				applyPacked(op,packed,found);
+				BoofTesting.assertEquals(expected,BinaryImageOps.unpack(found,null),0);
+
+				// the output can be the same as the input
+				applyPacked(op,packed,packed);
+				BoofTesting.assertEquals(expected,BinaryImageOps.unpack(packed,null),0);
+			}
+		}
+	}
+
+	/**
+	 * Sub-images must not modify pixels outside of the sub-image and should ignore pixels outside of it
+	 */
+	@Test
+	public void morphology_subimage() {
+		for( int op = 0; op < 7; op++ ) {
+			ImageUInt8 input = randomBinary(200,height);
+			ImageUInt8 subInput = input.subimage(64,2,150,height-1);
+			ImageUInt8 expected = new ImageUInt8(subInput.width,subInput.height);
+			applyNaive(op,subInput,expected);
+
+			ImageBinaryPacked packed = BinaryImageOps.pack(input,null);
+			ImageBinaryPacked output = BinaryImageOps.pack(randomBinary(200,height),null);
+			ImageBinaryPacked original = output.clone();
+
+			applyPacked(op,packed.subimage(64,2,150,height-1),output.subimage(64,2,150,height-1));
+
+			for( int y = 0; y < height; y++ ) {
+				for( int x = 0; x < 200; x++ ) {
+					if( x >= 64 && x < 150 && y >= 2 && y < height-1 )
+						assertEquals(expected.get(x-64,y-2) != 0, output.get(x,y));
+					else
+						assertEquals(original.get(x,y), output.get(x,y));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void logic() {
+		for( int width : widths ) {
+			ImageUInt8 inputA = randomBinary(width,height);
+			ImageUInt8 inputB = randomBinary(width,height);
+
+			ImageBinaryPacked packedA = BinaryImageOps.pack(inputA,null);
+			ImageBinaryPacked packedB = BinaryImageOps.pack(inputB,null);
+			ImageBinaryPacked found = new ImageBinaryPacked(width,height);
+
+			ImplBinaryPackedOps.logicAnd(packedA,packedB,found);
+			BoofTesting.assertEquals(BinaryImageOps.logicAnd(inputA,inputB,null),BinaryImageOps.unpack(found,null),0);
+			ImplBinaryPackedOps.logicOr(packedA,packedB,found);
+			BoofTesting.assertEquals(BinaryImageOps.logicOr(inputA,inputB,null),BinaryImageOps.unpack(found,null),0);
+			ImplBinaryPackedOps.logicXor(packedA,packedB,found);
+			BoofTesting.assertEquals(BinaryImageOps.logicXor(inputA,inputB,null),BinaryImageOps.unpack(found,null),0);
+		}
+	}
+
+	private ImageUInt8 randomBinary( int width , int height ) {
+		ImageUInt8 image = new ImageUInt8(width,height);
+		ImageMiscOps.fillUniform(image,rand,0,2);
+		// add some large solid regions so that erode and edge have something to work with
+		ImageMiscOps.fillRectangle(image,1,width/4,height/4,width/2,height/2);
+		return image;
+	}
+
+	private void applyNaive( int op , ImageUInt8 input , ImageUInt8 output ) {
+		switch( op ) {
+			case 0: ImplBinaryNaiveOps.erode4(input,output); break;
+			case 1: ImplBinaryNaiveOps.dilate4(input,output); break;
+			case 2: ImplBinaryNaiveOps.edge4(input,output); break;
+			case 3: ImplBinaryNaiveOps.erode8(input,output); break;
+			case 4: ImplBinaryNaiveOps.dilate8(input,output); break;
+			case 5: ImplBinaryNaiveOps.edge8(input,output); break;
+			case 6: ImplBinaryNaiveOps.removePointNoise(input,output); break;
+		}
+	}
+
+	private void applyPacked( int op , ImageBinaryPacked input , ImageBinaryPacked output ) {
+		switch( op ) {
+			case 0: ImplBinaryPackedOps.erode4(input,output); break;
+			case 1: ImplBinaryPackedOps.dilate4(input,output); break;
+			case 2: ImplBinaryPackedOps.edge4(input,output); break;
+			case 3: ImplBinaryPackedOps.erode8(input,output); break;
+			case 4: ImplBinaryPackedOps.dilate8(input,output); break;
+			case 5: ImplBinaryPackedOps.edge8(input,output); break;
+			case 6: ImplBinaryPackedOps.removePointNoise(input,output); break;
+		}
+	}
+}
@@ -18,6 +18,9 @@
 
 package boofcv.alg.filter.blur;
 
+import boofcv.alg.filter.blur.impl.ImplMedianHistogramConstant_U16;
+import boofcv.alg.filter.blur.impl.ImplMedianHistogramConstant_U8;
+import boofcv.alg.filter.blur.impl.ImplMedianRankTile_F32;
 import boofcv.alg.filter.blur.impl.ImplMedianSortNaive;
 import boofcv.alg.filter.convolve.ConvolveNormalized;
 import boofcv.alg.misc.GImageMiscOps;
@@ -27,6 +30,7 @@ import boofcv.factory.filter.kernel.FactoryKernelGaussian;
 import boofcv.struct.convolve.Kernel1D_F32;
 import boofcv.struct.convolve.Kernel1D_I32;
 import boofcv.struct.image.ImageFloat32;
+import boofcv.struct.image.ImageUInt16;
 import boofcv.struct.image.ImageUInt8;
 import boofcv.testing.BoofTesting;
 import org.junit.Test;
@@ -108,6 +112,23 @@ public class TestBlurImageOps {
 		}
 	}
 
+	@Test
+	public void median_U16() {
+
+		ImageUInt16 input = new ImageUInt16(width,height);
+		ImageUInt16 found = new ImageUInt16(width,height);
+		ImageUInt16 expected = new ImageUInt16(width,height);
+
+		GImageMiscOps.fillUniform(input, rand, 0, 60000);
+
+		for( int radius = 1; radius <= 4; radius++ ) {
+			ImplMedianSortNaive.process(input,expected,radius,null);
+			BlurImageOps.median(input,found,radius);
+
+			BoofTesting.assertEquals(expected,found,0);
+		}
+	}
+
 	@Test
 	public void median_F32() {
 		ImageFloat32 input = new ImageFloat32(width,height);
@@ -124,6 +145,64 @@ public class TestBlurImageOps {
 		}
 	}
 
+	/**
+	 * Larger radius so that the constant time algorithms are used
+	 */
+	@Test
+	public void median_constant() {
+		ImageUInt8 inputU8 = new ImageUInt8(40,35);
+		ImageUInt16 inputU16 = new ImageUInt16(40,35);
+		ImageFloat32 inputF32 = new ImageFloat32(40,35);
+
+		GImageMiscOps.fillUniform(inputU8, rand, 0, 200);
+		GImageMiscOps.fillUniform(inputU16, rand, 0, 60000);
+		GImageMiscOps.fillUniform(inputF32, rand, -20, 20);
+
+		ImageUInt8 expectedU8 = new ImageUInt8(40,35);
+		ImageUInt16 expectedU16 = new ImageUInt16(40,35);
+		ImageFloat32 expectedF32 = new ImageFloat32(40,35);
+
+		// storage is reused across calls
+		ImplMedianHistogramConstant_U8 storageU8 = new ImplMedianHistogramConstant_U8();
+		ImplMedianHistogramConstant_U16 storageU16 = new ImplMedianHistogramConstant_U16();
+		ImplMedianRankTile_F32 storageF32 = new ImplMedianRankTile_F32();
+
+		for( int radius = 5; radius <= 7; radius++ ) {
+			ImplMedianSortNaive.process(inputU8,expectedU8,radius,null);
+			ImplMedianSortNaive.process(inputU16,expectedU16,radius,null);
+			ImplMedianSortNaive.process(inputF32,expectedF32,radius,null);
+
+			BoofTesting.assertEquals(expectedU8,BlurImageOps.median(inputU8,null,radius),0);
+			BoofTesting.assertEquals(expectedU16,BlurImageOps.median(inputU16,null,radius),0);
+			BoofTesting.assertEquals(expectedF32,BlurImageOps.median(inputF32,null,radius),0);
+
+			BoofTesting.assertEquals(expectedU8,BlurImageOps.median(inputU8,null,radius,storageU8),0);
+			BoofTesting.assertEquals(expectedU16,BlurImageOps.median(inputU16,null,radius,storageU16),0);
+			BoofTesting.assertEquals(expectedF32,BlurImageOps.median(inputF32,null,radius,storageF32),0);
+		}
+	}
+
+	/**
+	 * Reuses the same storage with different radii and image shapes.  The number of histogram bins depends on the
+	 * radius, so a large radius on a small image followed by a small radius on a large image needs more storage
+	 */
+	@Test
+	public void median_constant_reuseStorage() {
+		ImplMedianRankTile_F32 storage = new ImplMedianRankTile_F32();
+
+		int shapes[][] = new int[][]{{50,50,20},{300,300,3},{70,45,12},{200,90,1}};
+
+		for( int[] shape : shapes ) {
+			int radius = shape[2];
+			ImageFloat32 input = new ImageFloat32(shape[0],shape[1]);
+			ImageFloat32 expected = new ImageFloat32(shape[0],shape[1]);
+			GImageMiscOps.fillUniform(input, rand, -20, 20);
+
+			ImplMedianSortNaive.process(input,expected,radius,null);
+			BoofTesting.assertEquals(expected,BlurImageOps.median(input,null,radius,storage),0);
+		}
+	}
+
 	@Test
 	public void gaussian_U8() {
 		ImageUInt8 input = new ImageUInt8(width,height);
@@ -175,4 +254,48 @@ public class TestBlurImageOps {
 			BoofTesting.assertEquals(expected,found,1e-4);
 		}
 	}
+
+	/**
+	 * Compares the inner image, where the border isn't an issue, against convolution
+	 */
+	@Test
+	public void gaussianRecursive_U8() {
+		ImageUInt8 input = new ImageUInt8(40,35);
+		GImageMiscOps.fillUniform(input, rand, 0, 100);
+
+		for( double sigma : new double[]{1.5,3} ) {
+			int radius = FactoryKernelGaussian.radiusForSigma(sigma,0);
+			ImageUInt8 expected = BlurImageOps.gaussian(input,null,sigma,-1,null);
+			ImageUInt8 found = BlurImageOps.gaussianRecursive(input,null,sigma,-1,null);
+
+			BoofTesting.assertEqualsInner(expected,found,2,radius,radius,false);
+		}
+
+		// sigma is selected using the radius
+		ImageUInt8 expected = BlurImageOps.gaussianRecursive(input,null,FactoryKernelGaussian.sigmaForRadius(4,0),-1,null);
+		ImageUInt8 found = BlurImageOps.gaussianRecursive(input,null,-1,4,null);
+		BoofTesting.assertEquals(expected,found,0);
+	}
+
+	/**
+	 * Compares the inner image, where the border isn't an issue, against convolution
+	 */
+	@Test
+	public void gaussianRecursive_F32() {
+		ImageFloat32 input = new ImageFloat32(40,35);
+		GImageMiscOps.fillUniform(input, rand, 0, 100);
+
+		for( double sigma : new double[]{1.5,3} ) {
+			int radius = FactoryKernelGaussian.radiusForSigma(sigma,0);
+			ImageFloat32 expected = BlurImageOps.gaussian(input,null,sigma,-1,null);
+			ImageFloat32 found = BlurImageOps.gaussianRecursive(input,null,sigma,-1,null);
+
+			BoofTesting.assertEqualsInner(expected,found,1.5,radius,radius,false);
+		}
+
+		// sigma is selected using the radius
+		ImageFloat32 expected = BlurImageOps.gaussianRecursive(input,null,FactoryKernelGaussian.sigmaForRadius(4,0),-1,null);
+		ImageFloat32 found = BlurImageOps.gaussianRecursive(input,null,-1,4,null);
+		BoofTesting.assertEquals(expected,found,1e-4);
+	}
 }
@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.filter.blur.impl;
+
+import boofcv.alg.misc.ImageMiscOps;
+import boofcv.struct.image.ImageFloat32;
+import boofcv.testing.BoofTesting;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestImplGaussianRecursive_F32 {
+
+	Random rand = new Random(234);
+
+	/**
+	 * Compares the impulse response against a sampled Gaussian and makes sure the error is within the
+	 * documented bounds
+	 */
+	@Test
+	public void impulseResponse() {
+		checkImpulse(1, 0.035);
+		checkImpulse(2, 0.02);
+		checkImpulse(3, 0.015);
+		checkImpulse(10, 0.015);
+		checkImpulse(40, 0.015);
+	}
+
+	private void checkImpulse( double sigma , double tol ) {
+		// wide enough that the border has no influence on the variance
+		int r = (int)(30*sigma);
+		ImageFloat32 input = new ImageFloat32(r*2+1,1);
+		ImageFloat32 output = new ImageFloat32(r*2+1,1);
+		input.set(r,0,1);
+
+		new ImplGaussianRecursive_F32(sigma).horizontal(input,output);
+
+		double expected[] = new double[ input.width ];
+		double sum = 0;
+		for( int i = 0; i < expected.length; i++ ) {
+			expected[i] = Math.exp(-(i-r)*(i-r)/(2*sigma*sigma));
+			sum += expected[i];
+		}
+
+		double peak = expected[r]/sum;
+		double variance = 0;
+		for( int i = 0; i < expected.length; i++ ) {
+			assertEquals(expected[i]/sum,output.get(i,0),tol*peak);
+			variance += output.get(i,0)*(i-r)*(i-r);
+		}
+		assertEquals(sigma*sigma,variance,sigma*sigma*1e-3);
+	}
+
+	@Test
+	public void constantImage() {
+		ImageFloat32 input = new ImageFloat32(30,25);
+		ImageFloat32 output = new ImageFloat32(30,25);
+		ImageMiscOps.fill(input,12.5f);
+
+		ImplGaussianRecursive_F32 alg = new ImplGaussianRecursive_F32(4);
+
+		alg.horizontal(input,output);
+		for( int i = 0; i < output.data.length; i++ )
+			assertEquals(12.5f,output.data[i],1e-4f);
+
+		alg.vertical(input,output);
+		for( int i = 0; i < output.data.length; i++ )
+			assertEquals(12.5f,output.data[i],1e-4f);
+	}
+
+	/**
+	 * The output near the border should be the same as if the border pixel was extended forever
+	 */
+	@Test
+	public void border() {
+		double sigma = 3;
+		int pad = 200;
+		ImageFloat32 input = new ImageFloat32(20,1);
+		ImageMiscOps.fillUniform(input,rand,0,100);
+
+		ImageFloat32 padded = new ImageFloat32(input.width+2*pad,1);
+		for( int i = 0; i < padded.width; i++ ) {
+			int x = Math.min(input.width-1,Math.max(0,i-pad));
+			padded.set(i,0,input.get(x,0));
+		}
+
+		ImplGaussianRecursive_F32 alg = new ImplGaussianRecursive_F32(sigma);
+
+		ImageFloat32 found = new ImageFloat32(input.width,1);
+		ImageFloat32 expected = new ImageFloat32(padded.width,1);
+		alg.horizontal(input,found);
+		alg.horizontal(padded,expected);
+
+		for( int i = 0; i < input.width; i++ ) {
+			assertEquals(expected.get(i+pad,0),found.get(i,0),1e-3);
+		}
+	}
+
+	/**
+	 * Vertical should produce the same results as horizontal applied to the transposed image
+	 */
+	@Test
+	public void vertical() {
+		ImageFloat32 input = new ImageFloat32(30,25);
+		ImageMiscOps.fillUniform(input,rand,0,100);
+		ImageFloat32 transposed = transpose(input);
+
+		ImplGaussianRecursive_F32 alg = new ImplGaussianRecursive_F32(2.5);
+
+		ImageFloat32 expected = new ImageFloat32(transposed.width,transposed.height);
+		alg.horizontal(transposed,expected);
+
+		ImageFloat32 inputSub = BoofTesting.createSubImageOf(input);
+		ImageFloat32 found = BoofTesting.createSubImageOf(new ImageFloat32(30,25));
+		alg.vertical(inputSub,found);
+
+		BoofTesting.assertEquals(transpose(expected),found,1e-3);
+	}
+
+	@Test
+	public void smallSigma() {
+		try {
+			new ImplGaussianRecursive_F32(ImplGaussianRecursive.MIN_SIGMA*0.9);
+			fail("Should have thrown an exception");
+		} catch( IllegalArgumentException ignore ) {}
+
+		assertTrue(new ImplGaussianRecursive_F32(ImplGaussianRecursive.MIN_SIGMA).getSigma() > 0);
+	}
+
+	private static ImageFloat32 transpose( ImageFloat32 input ) {
+		ImageFloat32 output = new ImageFloat32(input.height,input.width);
+		for( int y = 0; y < input.height; y++ ) {
+			for( int x = 0; x < input.width; x++ ) {
+				output.set(y,x,input.get(x,y));
+			}
+		}
+		return output;
+	}
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.filter.blur.impl;
+
+import boofcv.alg.misc.ImageMiscOps;
+import boofcv.core.image.ConvertImage;
+import boofcv.struct.image.ImageFloat32;
+import boofcv.struct.image.ImageUInt8;
+import boofcv.testing.BoofTesting;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestImplGaussianRecursive_U8 {
+
+	Random rand = new Random(234);
+
+	/**
+	 * Fixed point results should be within one of the floating point results after rounding
+	 */
+	@Test
+	public void compareToFloat() {
+		for( double sigma : new double[]{1,3,20} ) {
+			ImageUInt8 input = new ImageUInt8(40,35);
+			ImageMiscOps.fillUniform(input,rand,0,256);
+			ImageFloat32 inputF = new ImageFloat32(40,35);
+			ConvertImage.convert(input,inputF);
+
+			ImplGaussianRecursive_U8 alg = new ImplGaussianRecursive_U8(sigma);
+			ImplGaussianRecursive_F32 algF = new ImplGaussianRecursive_F32(sigma);
+
+			ImageUInt8 found = BoofTesting.createSubImageOf(new ImageUInt8(40,35));
+			ImageFloat32 expected = new ImageFloat32(40,35);
+
+			alg.horizontal(BoofTesting.createSubImageOf(input),found);
+			algF.horizontal(inputF,expected);
+			checkClose(expected,found);
+
+			alg.vertical(BoofTesting.createSubImageOf(input),found);
+			algF.vertical(inputF,expected);
+			checkClose(expected,found);
+		}
+	}
+
+	private void checkClose( ImageFloat32 expected , ImageUInt8 found ) {
+		for( int y = 0; y < expected.height; y++ ) {
+			for( int x = 0; x < expected.width; x++ ) {
+				assertEquals(expected.get(x,y),found.get(x,y),1.0);
+			}
+		}
+	}
+
+	@Test
+	public void constantImage() {
+		ImageUInt8 input = new ImageUInt8(30,25);
+		ImageUInt8 output = new ImageUInt8(30,25);
+		ImageMiscOps.fill(input,200);
+
+		ImplGaussianRecursive_U8 alg = new ImplGaussianRecursive_U8(15);
+
+		alg.horizontal(input,output);
+		BoofTesting.assertEquals(input,output,0);
+
+		alg.vertical(input,output);
+		BoofTesting.assertEquals(input,output,0);
+	}
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.filter.blur.impl;
+
+import boofcv.alg.misc.ImageMiscOps;
+import boofcv.struct.image.ImageUInt16;
+import boofcv.struct.image.ImageUInt8;
+import boofcv.testing.BoofTesting;
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestImplMedianHistogramConstant {
+
+	Random rand = new Random(234);
+
+	@Test
+	public void compareToSort_U8() {
+		ImageUInt8 image = new ImageUInt8(30,25);
+		ImageMiscOps.fillUniform(image,rand, 0, 255);
+
+		ImageUInt8 found = new ImageUInt8( image.width , image.height );
+		ImageUInt8 expected = new ImageUInt8( image.width , image.height );
+
+		BoofTesting.checkSubImage(this, "compareToSort_U8", true, image, found, expected);
+	}
+
+	public void compareToSort_U8(ImageUInt8 image, ImageUInt8 found, ImageUInt8 expected) {
+		ImplMedianHistogramConstant_U8 alg = new ImplMedianHistogramConstant_U8();
+
+		for( int radius = 1; radius <= 6; radius++ ) {
+			ImplMedianSortNaive.process(image,expected,radius,null);
+			alg.process(image,found,radius);
+
+			BoofTesting.assertEqualsInner(expected, found, 0, radius, radius, false);
+		}
+	}
+
+	/**
+	 * The image is wide enough that it will be processed in several strips
+	 */
+	@Test
+	public void compareToSort_U16() {
+		ImageUInt16 image = new ImageUInt16(300,20);
+		ImageMiscOps.fillUniform(image,rand, 0, 65535);
+
+		ImageUInt16 found = new ImageUInt16( image.width , image.height );
+		ImageUInt16 expected = new ImageUInt16( image.width , image.height );
+
+		BoofTesting.checkSubImage(this, "compareToSort_U16", true, image, found, expected);
+	}
+
+	public void compareToSort_U16(ImageUInt16 image, ImageUInt16 found, ImageUInt16 expected) {
+		ImplMedianHistogramConstant_U16 alg = new ImplMedianHistogramConstant_U16();
+
+		for( int radius = 1; radius <= 4; radius++ ) {
+			ImplMedianSortNaive.process(image,expected,radius,null);
+			alg.process(image,found,radius);
+
+			BoofTesting.assertEqualsInner(expected, found, 0, radius, radius, false);
+		}
+	}
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.filter.blur.impl;
+
+import boofcv.alg.misc.ImageMiscOps;
+import boofcv.struct.image.ImageFloat32;
+import boofcv.testing.BoofTesting;
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestImplMedianRankTile_F32 {
+
+	Random rand = new Random(234);
+
+	/**
+	 * The image is large enough that it will be split into several tiles
+	 */
+	@Test
+	public void compareToSort() {
+		ImageFloat32 image = new ImageFloat32(150,140);
+		ImageMiscOps.fillUniform(image,rand, -100, 100);
+		// duplicate values should be handled correctly
+		ImageMiscOps.fillRectangle(image,5,20,30,15,10);
+
+		ImageFloat32 found = new ImageFloat32( image.width , image.height );
+		ImageFloat32 expected = new ImageFloat32( image.width , image.height );
+
+		BoofTesting.checkSubImage(this, "compareToSort", true, image, found, expected);
+	}
+
+	public void compareToSort(ImageFloat32 image, ImageFloat32 found, ImageFloat32 expected) {
+		ImplMedianRankTile_F32 alg = new ImplMedianRankTile_F32();
+
+		for( int radius : new int[]{1,2,6,15} ) {
+			ImplMedianSortNaive.process(image,expected,radius,null);
+			alg.process(image,found,radius);
+
+			BoofTesting.assertEqualsInner(expected, found, 0, radius, radius, false);
+		}
+	}
+}
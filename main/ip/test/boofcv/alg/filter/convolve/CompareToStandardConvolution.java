@@ -22,8 +22,10 @@ import boofcv.alg.filter.convolve.noborder.ConvolveImageStandard;
 import boofcv.alg.misc.GImageMiscOps;
 import boofcv.factory.filter.kernel.FactoryKernel;
 import boofcv.struct.convolve.Kernel1D_F32;
+import boofcv.struct.convolve.Kernel1D_F64;
 import boofcv.struct.convolve.Kernel1D_I32;
 import boofcv.struct.convolve.Kernel2D_F32;
+import boofcv.struct.convolve.Kernel2D_F64;
 import boofcv.struct.convolve.Kernel2D_I32;
 import boofcv.struct.image.ImageSingleBand;
 import boofcv.testing.CompareIdenticalFunctions;
@@ -66,6 +68,10 @@ public class CompareToStandardConvolution extends CompareIdenticalFunctions
 			kernel = FactoryKernel.random2D_I32(kernelRadius, -1, 1, rand);
 		} else if (Kernel2D_F32.class == paramTypes[0]) {
 			kernel = FactoryKernel.random2D_F32(kernelRadius, 0, 5, rand);
+		} else if (Kernel1D_F64.class == paramTypes[0]) {
+			kernel = FactoryKernel.random1D_F64(kernelRadius, -1, 1, rand);
+		} else if (Kernel2D_F64.class == paramTypes[0]) {
+			kernel = FactoryKernel.random2D_F64(kernelRadius, 0, 5, rand);
 		} else {
 			throw new RuntimeException("Unknown kernel type");
 		}
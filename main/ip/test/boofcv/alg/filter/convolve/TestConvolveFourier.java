@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.filter.convolve;
+
+import boofcv.alg.misc.ImageMiscOps;
+import boofcv.core.image.border.BorderIndex1D_Extend;
+import boofcv.core.image.border.BorderIndex1D_Reflect;
+import boofcv.core.image.border.ImageBorder1D_F32;
+import boofcv.core.image.border.ImageBorder1D_F64;
+import boofcv.core.image.border.ImageBorder_F32;
+import boofcv.struct.convolve.Kernel2D_F32;
+import boofcv.struct.convolve.Kernel2D_F64;
+import boofcv.struct.image.ImageFloat32;
+import boofcv.struct.image.ImageFloat64;
+import boofcv.testing.BoofTesting;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestConvolveFourier {
+
+	Random rand = new Random(234);
+
+	/**
+	 * Should produce the same results as spatial convolution
+	 */
+	@Test
+	public void convolve_F32() {
+		ImageFloat32 image = new ImageFloat32(31,25);
+		ImageMiscOps.fillUniform(image,rand,0,100);
+		ImageBorder_F32 border = new ImageBorder1D_F32(BorderIndex1D_Reflect.class);
+
+		ConvolveFourier alg = new ConvolveFourier();
+
+		for( int width = 1; width <= 13; width += 2 ) {
+			Kernel2D_F32 kernel = new Kernel2D_F32(width);
+			for( int i = 0; i < kernel.data.length; i++ )
+				kernel.data[i] = rand.nextFloat();
+
+			ImageFloat32 expected = new ImageFloat32(image.width,image.height);
+			ConvolveWithBorder.convolve(kernel,image,expected,border);
+
+			ImageFloat32 found = new ImageFloat32(image.width,image.height);
+			alg.convolve(kernel,image,found,border);
+			BoofTesting.assertEqualsRelative(expected,found,1e-4);
+
+			// sub-images
+			ImageFloat32 subImage = BoofTesting.createSubImageOf(image);
+			ImageFloat32 subFound = BoofTesting.createSubImageOf(found);
+			alg.convolve(kernel,subImage,subFound,border);
+			BoofTesting.assertEqualsRelative(expected,subFound,1e-4);
+		}
+	}
+
+	/**
+	 * The kernel's spectrum is saved.  Make sure it notices when the kernel has changed
+	 */
+	@Test
+	public void convolve_changeKernel() {
+		ImageFloat32 image = new ImageFloat32(20,25);
+		ImageMiscOps.fillUniform(image,rand,0,100);
+		ImageBorder_F32 border = new ImageBorder1D_F32(BorderIndex1D_Extend.class);
+
+		ConvolveFourier alg = new ConvolveFourier();
+		Kernel2D_F32 kernel = new Kernel2D_F32(5);
+		ImageFloat32 expected = new ImageFloat32(image.width,image.height);
+		ImageFloat32 found = new ImageFloat32(image.width,image.height);
+
+		for( int trial = 0; trial < 3; trial++ ) {
+			for( int i = 0; i < kernel.data.length; i++ )
+				kernel.data[i] = rand.nextFloat();
+
+			ConvolveWithBorder.convolve(kernel,image,expected,border);
+			alg.convolve(kernel,image,found,border);
+			BoofTesting.assertEqualsRelative(expected,found,1e-4);
+		}
+	}
+
+	@Test
+	public void convolve_F64() {
+		ImageFloat64 image = new ImageFloat64(22,17);
+		ImageMiscOps.fillUniform(image,rand,0,100);
+		ImageBorder1D_F64 border = new ImageBorder1D_F64(BorderIndex1D_Extend.class);
+
+		Kernel2D_F64 kernel = new Kernel2D_F64(7);
+		for( int i = 0; i < kernel.data.length; i++ )
+			kernel.data[i] = rand.nextDouble();
+
+		ImageFloat64 found = new ImageFloat64(image.width,image.height);
+		new ConvolveFourier().convolve(kernel,image,found,border);
+
+		border.setImage(image);
+		int r = kernel.getRadius();
+		for( int y = 0; y < image.height; y++ ) {
+			for( int x = 0; x < image.width; x++ ) {
+				double total = 0;
+				for( int i = -r; i <= r; i++ ) {
+					for( int j = -r; j <= r; j++ ) {
+						total += kernel.get(j+r,i+r)*border.get(x+j,y+i);
+					}
+				}
+				assertEquals(total,found.get(x,y),1e-8);
+			}
+		}
+	}
+
+	@Test
+	public void correlateValid() {
+		ImageFloat64 image = new ImageFloat64(30,20);
+		ImageFloat64 kernel = new ImageFloat64(6,9);
+		ImageMiscOps.fillUniform(image,rand,0,100);
+		ImageMiscOps.fillUniform(kernel,rand,-1,1);
+
+		ImageFloat64 found = new ImageFloat64(image.width-kernel.width+1,image.height-kernel.height+1);
+
+		ConvolveFourier alg = new ConvolveFourier();
+		alg.correlateValid(BoofTesting.createSubImageOf(image),BoofTesting.createSubImageOf(kernel),found);
+
+		for( int y = 0; y < found.height; y++ ) {
+			for( int x = 0; x < found.width; x++ ) {
+				double total = 0;
+				for( int v = 0; v < kernel.height; v++ ) {
+					for( int u = 0; u < kernel.width; u++ ) {
+						total += kernel.get(u,v)*image.get(x+u,y+v);
+					}
+				}
+				assertEquals(total,found.get(x,y),1e-8);
+			}
+		}
+	}
+}
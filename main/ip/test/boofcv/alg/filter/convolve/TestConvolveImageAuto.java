@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.filter.convolve;
+
+import boofcv.alg.misc.ImageMiscOps;
+import boofcv.core.image.border.BorderIndex1D_Extend;
+import boofcv.core.image.border.ImageBorder1D_F32;
+import boofcv.core.image.border.ImageBorder1D_F64;
+import boofcv.core.image.border.ImageBorder_F32;
+import boofcv.core.image.border.ImageBorder_F64;
+import boofcv.struct.convolve.Kernel2D_F32;
+import boofcv.struct.convolve.Kernel2D_F64;
+import boofcv.struct.image.ImageFloat32;
+import boofcv.struct.image.ImageFloat64;
+import boofcv.testing.BoofTesting;
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestConvolveImageAuto {
+
+	Random rand = new Random(234);
+
+	/**
+	 * Both the spatial and frequency domain paths should produce the same results as spatial convolution
+	 */
+	@Test
+	public void convolve_F32() {
+		ImageFloat32 image = new ImageFloat32(40,35);
+		ImageMiscOps.fillUniform(image,rand,0,100);
+		ImageBorder_F32 border = new ImageBorder1D_F32(BorderIndex1D_Extend.class);
+
+		int widths[] = new int[]{3,ConvolveImageAuto.FOURIER_MIN_WIDTH,ConvolveImageAuto.FOURIER_MIN_WIDTH+4};
+
+		ConvolveFourier storage = new ConvolveFourier();
+
+		for( int width : widths ) {
+			Kernel2D_F32 kernel = new Kernel2D_F32(width);
+			for( int i = 0; i < kernel.data.length; i++ )
+				kernel.data[i] = rand.nextFloat();
+
+			ImageFloat32 expected = new ImageFloat32(image.width,image.height);
+			ImageFloat32 found = new ImageFloat32(image.width,image.height);
+
+			ConvolveWithBorder.convolve(kernel,image,expected,border);
+			ConvolveImageAuto.convolve(kernel,image,found,border);
+			BoofTesting.assertEqualsRelative(expected,found,1e-4);
+
+			ConvolveImageAuto.convolve(kernel,image,found,border,storage);
+			BoofTesting.assertEqualsRelative(expected,found,1e-4);
+		}
+	}
+
+	@Test
+	public void convolve_F64() {
+		ImageFloat64 image = new ImageFloat64(40,35);
+		ImageMiscOps.fillUniform(image,rand,0,100);
+		ImageBorder_F64 border = new ImageBorder1D_F64(BorderIndex1D_Extend.class);
+
+		int widths[] = new int[]{3,ConvolveImageAuto.FOURIER_MIN_WIDTH,ConvolveImageAuto.FOURIER_MIN_WIDTH+4};
+
+		ConvolveFourier storage = new ConvolveFourier();
+
+		for( int width : widths ) {
+			Kernel2D_F64 kernel = new Kernel2D_F64(width);
+			for( int i = 0; i < kernel.data.length; i++ )
+				kernel.data[i] = rand.nextDouble();
+
+			ImageFloat64 expected = new ImageFloat64(image.width,image.height);
+			ImageFloat64 found = new ImageFloat64(image.width,image.height);
+
+			ConvolveWithBorder.convolve(kernel,image,expected,border);
+			ConvolveImageAuto.convolve(kernel,image,found,border);
+			BoofTesting.assertEqualsRelative(expected,found,1e-8);
+
+			ConvolveImageAuto.convolve(kernel,image,found,border,storage);
+			BoofTesting.assertEqualsRelative(expected,found,1e-8);
+		}
+	}
+}
@@ -45,7 +45,7 @@ public class TestConvolveWithBorder extends CompareImageBorder {
 
 	@Test
 	public void compareToNoBorder() {
-		performTests(12);
+		performTests(13);
 	}
 
 	/**
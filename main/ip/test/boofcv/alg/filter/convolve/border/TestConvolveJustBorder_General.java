@@ -24,8 +24,6 @@ import boofcv.core.image.FactoryGImageSingleBand;
 import boofcv.core.image.GImageSingleBand;
 import boofcv.core.image.border.ImageBorder;
 import boofcv.core.image.border.ImageBorderValue;
-import boofcv.struct.image.ImageFloat32;
-import boofcv.struct.image.ImageInteger;
 import boofcv.struct.image.ImageSingleBand;
 import org.junit.Test;
 
@@ -51,7 +49,7 @@ public class TestConvolveJustBorder_General extends CompareImageBorder {
 	 */
 	@Test
 	public void compareToNoBorder() {
-		performTests(9);
+		performTests(12);
 	}
 
 	protected void fillTestImage(ImageSingleBand smaller, ImageSingleBand larger) {
@@ -122,8 +120,7 @@ public class TestConvolveJustBorder_General extends CompareImageBorder {
 
 		Object[][] ret = new Object[1][paramTypes.length];
 		ret[0][0] = kernel;
-		ret[0][1] = ImageFloat32.class == src.getClass() ?
-				ImageBorderValue.wrap((ImageFloat32)src,fillValue) : ImageBorderValue.wrap((ImageInteger)src,fillValue);
+		ret[0][1] = ImageBorderValue.wrap(src,fillValue);
 		ret[0][2] = dst;
 		ret[0][3] = kernelRadius;
 
@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.filter.convolve.noborder;
+
+import boofcv.alg.filter.convolve.CompareToStandardConvolution;
+import boofcv.concurrency.BoofConcurrency;
+import org.junit.Test;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestConvolveImageNoBorder_MT {
+
+	@Test
+	public void compareToStandard() {
+		int minBand = ConvolveImageNoBorder_MT.MIN_BAND;
+		int maxThreads = BoofConcurrency.getMaxThreads();
+
+		// make sure the image is split into several bands
+		ConvolveImageNoBorder_MT.MIN_BAND = 1;
+		BoofConcurrency.setMaxThreads(4);
+		try {
+			CompareToStandardConvolution a = new CompareToStandardConvolution(ConvolveImageNoBorder_MT.class);
+			a.performTests(23);
+		} finally {
+			ConvolveImageNoBorder_MT.MIN_BAND = minBand;
+			BoofConcurrency.setMaxThreads(maxThreads);
+		}
+	}
+}
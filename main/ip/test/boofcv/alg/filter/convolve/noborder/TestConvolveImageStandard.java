@@ -22,6 +22,7 @@ import boofcv.alg.misc.GImageMiscOps;
 import boofcv.core.image.GeneralizedImageOps;
 import boofcv.factory.filter.kernel.FactoryKernel;
 import boofcv.factory.filter.kernel.FactoryKernelGaussian;
+import boofcv.struct.convolve.Kernel1D_F64;
 import boofcv.struct.convolve.KernelBase;
 import boofcv.struct.image.ImageSingleBand;
 import boofcv.testing.BoofTesting;
@@ -56,7 +57,7 @@ public class TestConvolveImageStandard {
 	 */
 	@Test
 	public void checkAll() {
-		int numExpected = 24;
+		int numExpected = 27;
 		Method methods[] = ConvolveImageStandard.class.getMethods();
 
 		// sanity check to make sure the functions are being found
@@ -94,7 +95,12 @@ public class TestConvolveImageStandard {
 		ImageSingleBand input = GeneralizedImageOps.createSingleBand(param[1], width, height);
 		ImageSingleBand output = GeneralizedImageOps.createSingleBand(param[2], width, height);
 
-		GImageMiscOps.fillUniform(input, rand, 1, 10);
+		// with a divisor small inputs can be rounded down to zero
+		boolean divide = m.getName().contentEquals("convolve") ? param.length > 3 : param.length > 4;
+		if( divide )
+			GImageMiscOps.fillUniform(input, rand, 10, 20);
+		else
+			GImageMiscOps.fillUniform(input, rand, 1, 10);
 
 		if( m.getName().contentEquals("horizontal")) {
 			if( param.length == 4 ) {
@@ -124,7 +130,7 @@ public class TestConvolveImageStandard {
 	 * Unit test for horizontal convolution.
 	 */
 	public void horizontal(ImageSingleBand img, ImageSingleBand dest) {
-		Object ker = FactoryKernelGaussian.gaussian1D(img.getClass(),-1,kernelRadius);
+		Object ker = createKernel1D(img);
 
 		invokeMethod("horizontal", ker, img, dest, false);
 		// the top border should not be convolved yet
@@ -146,7 +152,7 @@ public class TestConvolveImageStandard {
 	 */
 	public void horizontalDiv(ImageSingleBand img, ImageSingleBand dest) {
 		int divisor = 11;
-		Object ker = FactoryKernelGaussian.gaussian1D(img.getClass(),-1,kernelRadius);
+		Object ker = createKernel1D(img);
 
 		invokeMethod("horizontal", ker, img, dest, divisor, false);
 		// the top border should not be convolved yet
@@ -169,7 +175,7 @@ public class TestConvolveImageStandard {
 	 * Unit test for vertical convolution.
 	 */
 	public void vertical(ImageSingleBand img, ImageSingleBand dest) {
-		Object ker = FactoryKernelGaussian.gaussian1D(img.getClass(),-1,kernelRadius);
+		Object ker = createKernel1D(img);
 
 		invokeMethod("vertical", ker, img, dest, false);
 
@@ -190,7 +196,7 @@ public class TestConvolveImageStandard {
 	 * Unit test for vertical convolution with division.
 	 */
 	public void verticalDiv(ImageSingleBand img, ImageSingleBand dest) {
-		Object ker = FactoryKernelGaussian.gaussian1D(img.getClass(),-1,kernelRadius);
+		Object ker = createKernel1D(img);
 
 		int divisor = 11;
 		invokeMethod("vertical", ker, img, dest, divisor, false);
@@ -215,7 +221,9 @@ public class TestConvolveImageStandard {
 	 */
 	public void convolve(ImageSingleBand img, ImageSingleBand dest) {
 		Object ker;
-		if (!img.getTypeInfo().isInteger())
+		if (img.getTypeInfo().getDataType() == double.class)
+			ker = FactoryKernel.random2D_F64(kernelRadius, 0, 1, new Random(234));
+		else if (!img.getTypeInfo().isInteger())
 			ker = FactoryKernel.random2D_F32(kernelRadius, 0f, 1f, new Random(234));
 		else
 			ker = FactoryKernel.random2D_I32(kernelRadius, 0, 10, new Random(234));
@@ -250,7 +258,9 @@ public class TestConvolveImageStandard {
 	 */
 	public void convolveDiv(ImageSingleBand img, ImageSingleBand dest) {
 		Object ker;
-		if (!img.getTypeInfo().isInteger())
+		if (img.getTypeInfo().getDataType() == double.class)
+			ker = FactoryKernel.random2D_F64(kernelRadius, 0, 1, new Random(234));
+		else if (!img.getTypeInfo().isInteger())
 			ker = FactoryKernel.random2D_F32(kernelRadius, 0f, 1f, new Random(234));
 		else
 			ker = FactoryKernel.random2D_I32(kernelRadius, 0, 4, new Random(234));
@@ -284,6 +294,12 @@ public class TestConvolveImageStandard {
 		}
 	}
 
+	private Object createKernel1D(ImageSingleBand img) {
+		if (img.getTypeInfo().getDataType() == double.class)
+			return FactoryKernelGaussian.gaussian(Kernel1D_F64.class, -1, kernelRadius);
+		return FactoryKernelGaussian.gaussian1D(img.getClass(), -1, kernelRadius);
+	}
+
 	private double getKernel(Object ker, int index) {
 		try {
 			Field f = ker.getClass().getField("data");
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.filter.convolve.normalized;
+
+import boofcv.alg.misc.ImageMiscOps;
+import boofcv.factory.filter.kernel.FactoryKernel;
+import boofcv.struct.convolve.Kernel1D_F32;
+import boofcv.struct.convolve.Kernel1D_I32;
+import boofcv.struct.image.*;
+import boofcv.testing.BoofTesting;
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestConvolveNormalizedMean_JustBorder {
+
+	Random rand = new Random(234);
+
+	int width = 30;
+	int height = 25;
+
+	@Test
+	public void compareToTableKernel_F32() {
+		ImageFloat32 input = new ImageFloat32(width,height);
+		ImageMiscOps.fillUniform(input,rand,0,100);
+
+		for( int radius : new int[]{1,4,9} ) {
+			Kernel1D_F32 kernel = FactoryKernel.table1D_F32(radius,true);
+
+			ImageFloat32 expected = new ImageFloat32(width,height);
+			ImageFloat32 found = new ImageFloat32(width,height);
+
+			ConvolveNormalized_JustBorder.horizontal(kernel,input,expected);
+			ConvolveNormalizedMean_JustBorder.horizontal(input,found,radius);
+			BoofTesting.assertEquals(expected,found,1e-3);
+
+			ConvolveNormalized_JustBorder.vertical(kernel,input,expected);
+			ConvolveNormalizedMean_JustBorder.vertical(input,found,radius);
+			BoofTesting.assertEquals(expected,found,1e-3);
+		}
+	}
+
+	@Test
+	public void compareToTableKernel_U8() {
+		ImageUInt8 input = new ImageUInt8(width,height);
+		ImageMiscOps.fillUniform(input,rand,0,255);
+
+		for( int radius : new int[]{1,4,9} ) {
+			Kernel1D_I32 kernel = FactoryKernel.table1D_I32(radius);
+
+			ImageUInt8 expected = new ImageUInt8(width,height);
+			ImageUInt8 found = new ImageUInt8(width,height);
+
+			ConvolveNormalized_JustBorder.horizontal(kernel,input,expected);
+			ConvolveNormalizedMean_JustBorder.horizontal(input,found,radius);
+			BoofTesting.assertEquals(expected,found,0);
+
+			ConvolveNormalized_JustBorder.vertical(kernel,input,expected);
+			ConvolveNormalizedMean_JustBorder.vertical(input,found,radius);
+			BoofTesting.assertEquals(expected,found,0);
+		}
+	}
+
+	@Test
+	public void compareToTableKernel_S16() {
+		ImageSInt16 input = new ImageSInt16(width,height);
+		ImageMiscOps.fillUniform(input,rand,-200,200);
+
+		for( int radius : new int[]{1,4,9} ) {
+			Kernel1D_I32 kernel = FactoryKernel.table1D_I32(radius);
+
+			ImageSInt16 expected = new ImageSInt16(width,height);
+			ImageSInt16 found = new ImageSInt16(width,height);
+
+			ConvolveNormalized_JustBorder.horizontal(kernel,input,expected);
+			ConvolveNormalizedMean_JustBorder.horizontal(input,found,radius);
+			BoofTesting.assertEquals(expected,found,0);
+
+			ConvolveNormalized_JustBorder.vertical(kernel,input,expected);
+			ConvolveNormalizedMean_JustBorder.vertical(input,found,radius);
+			BoofTesting.assertEquals(expected,found,0);
+		}
+	}
+}
@@ -30,6 +30,7 @@ import org.junit.Test;
 import java.util.Random;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 
 /**
@@ -90,6 +91,30 @@ public abstract class GeneralBilinearRectangleChecks<T extends ImageSingleBand>
 		interp.region(width-1, height-1, out );
 	}
 
+	/**
+	 * The copy should produce the same results but not share the image
+	 */
+	@Test
+	public void copy() {
+		T img = createImage(width, height);
+		GImageMiscOps.fillUniform(img, rand, 0, 20);
+
+		InterpolateRectangle<T> interp = createRectangleInterpolate();
+		interp.setImage(img);
+		InterpolateRectangle<T> copy = interp.copy();
+
+		assertTrue(copy != interp);
+		assertTrue(copy.getImage() == null);
+
+		copy.setImage(img);
+		ImageFloat32 expected = new ImageFloat32(10,12);
+		ImageFloat32 found = new ImageFloat32(10,12);
+		interp.region(2.3f, 4.1f, expected);
+		copy.region(2.3f, 4.1f, found);
+
+		BoofTesting.assertEquals(expected, found, 0);
+	}
+
 	/**
 	 * Compare region against the value returned by get ImplBilinearPixel_F32
 	 */
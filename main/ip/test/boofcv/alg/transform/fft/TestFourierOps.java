@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.transform.fft;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestFourierOps {
+
+	@Test
+	public void nextFastSize() {
+		assertEquals(1,FourierOps.nextFastSize(1));
+		assertEquals(8,FourierOps.nextFastSize(7));
+		assertEquals(12,FourierOps.nextFastSize(11));
+		assertEquals(640,FourierOps.nextFastSize(640));
+		assertEquals(648,FourierOps.nextFastSize(641));
+
+		for( int n = 1; n < 500; n++ ) {
+			int found = FourierOps.nextFastSize(n);
+			assertTrue(found >= n);
+			assertTrue(FourierOps.isFastSize(found));
+			for( int i = n; i < found; i++ )
+				assertFalse(FourierOps.isFastSize(i));
+		}
+	}
+
+	@Test
+	public void isFastSize() {
+		assertTrue(FourierOps.isFastSize(1));
+		assertTrue(FourierOps.isFastSize(2*3*5*4));
+		assertFalse(FourierOps.isFastSize(7));
+		assertFalse(FourierOps.isFastSize(2*3*11));
+		assertFalse(FourierOps.isFastSize(0));
+	}
+
+	@Test
+	public void factor() {
+		for( int n = 1; n < 300; n++ ) {
+			int found[] = FourierOps.factor(n);
+			int product = 1;
+			for( int p : found ) {
+				assertTrue(p > 1);
+				product *= p;
+			}
+			assertEquals(n,product);
+		}
+
+		// fours should be extracted first
+		int found[] = FourierOps.factor(16*3);
+		assertEquals(3,found.length);
+		assertEquals(4,found[0]);
+		assertEquals(4,found[1]);
+		assertEquals(3,found[2]);
+	}
+
+	@Test
+	public void multiplyComplex() {
+		double a[] = new double[]{1,2,3,-4};
+		double b[] = new double[]{-2,0.5,1,1};
+		double c[] = new double[4];
+
+		FourierOps.multiplyComplex(a,b,c,2);
+		assertEquals(1*-2 - 2*0.5, c[0], 1e-12);
+		assertEquals(1*0.5 + 2*-2, c[1], 1e-12);
+		assertEquals(3*1 + 4*1, c[2], 1e-12);
+		assertEquals(3*1 - 4*1, c[3], 1e-12);
+	}
+
+	@Test
+	public void multiplyConjugate() {
+		double a[] = new double[]{1,2,3,-4};
+		double b[] = new double[]{-2,0.5,1,1};
+		double c[] = new double[4];
+
+		FourierOps.multiplyConjugate(a,b,c,2);
+		// (1+2i)*(-2-0.5i)
+		assertEquals(-2 + 1, c[0], 1e-12);
+		assertEquals(-0.5 - 4, c[1], 1e-12);
+		// (3-4i)*(1-i)
+		assertEquals(3 - 4, c[2], 1e-12);
+		assertEquals(-3 - 4, c[3], 1e-12);
+	}
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.transform.fft;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestFourierTransformComplex1D {
+
+	Random rand = new Random(234);
+
+	/**
+	 * Compare against a brute force DFT for lengths which use all the different radices
+	 */
+	@Test
+	public void forward() {
+		int lengths[] = new int[]{1,2,3,4,5,6,7,8,9,10,12,16,25,27,30,49,64,77,97,120};
+
+		for( int n : lengths ) {
+			double input[] = random(n);
+			double found[] = input.clone();
+
+			new FourierTransformComplex1D(n).forward(found);
+			double expected[] = naiveDFT(input);
+
+			for( int i = 0; i < 2*n; i++ )
+				assertEquals(expected[i],found[i],1e-10);
+		}
+	}
+
+	@Test
+	public void inverse() {
+		int lengths[] = new int[]{1,2,3,7,12,30,97,128};
+
+		for( int n : lengths ) {
+			FourierTransformComplex1D alg = new FourierTransformComplex1D(n);
+
+			double input[] = random(n);
+			double found[] = input.clone();
+
+			alg.forward(found);
+			alg.inverse(found);
+
+			for( int i = 0; i < 2*n; i++ )
+				assertEquals(input[i],found[i],1e-12);
+		}
+	}
+
+	/**
+	 * Repeated calls should produce the same output since the internal work space is reused
+	 */
+	@Test
+	public void multipleCalls() {
+		FourierTransformComplex1D alg = new FourierTransformComplex1D(60);
+
+		double input[] = random(60);
+		double first[] = input.clone();
+		alg.forward(first);
+
+		double second[] = input.clone();
+		alg.forward(random(60));
+		alg.forward(second);
+
+		for( int i = 0; i < first.length; i++ )
+			assertEquals(first[i],second[i],0);
+	}
+
+	private double[] random( int n ) {
+		double ret[] = new double[2*n];
+		for( int i = 0; i < ret.length; i++ )
+			ret[i] = rand.nextGaussian();
+		return ret;
+	}
+
+	public static double[] naiveDFT( double input[] ) {
+		int n = input.length/2;
+		double ret[] = new double[2*n];
+
+		for( int k = 0; k < n; k++ ) {
+			double sumR = 0, sumI = 0;
+			for( int j = 0; j < n; j++ ) {
+				double angle = -2.0*Math.PI*j*k/n;
+				double c = Math.cos(angle), s = Math.sin(angle);
+				sumR += input[2*j]*c - input[2*j+1]*s;
+				sumI += input[2*j]*s + input[2*j+1]*c;
+			}
+			ret[2*k] = sumR;
+			ret[2*k+1] = sumI;
+		}
+		return ret;
+	}
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.transform.fft;
+
+import boofcv.alg.misc.ImageMiscOps;
+import boofcv.struct.image.ImageFloat32;
+import boofcv.struct.image.ImageFloat64;
+import boofcv.testing.BoofTesting;
+import boofcv.testing.CompareConcurrent;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestFourierTransformReal2D {
+
+	Random rand = new Random(234);
+
+	/**
+	 * Compare against a brute force 2D DFT.  Include odd and even shapes.
+	 */
+	@Test
+	public void forward() {
+		int shapes[][] = new int[][]{{1,1},{3,1},{1,4},{5,7},{8,8},{9,4},{12,15}};
+
+		for( int shape[] : shapes ) {
+			ImageFloat64 image = new ImageFloat64(shape[0],shape[1]);
+			ImageMiscOps.fillUniform(image,rand,-1,1);
+
+			FourierTransformReal2D alg = new FourierTransformReal2D(image.width,image.height);
+			double found[] = alg.createSpectrum();
+			alg.forward(image,found);
+
+			for( int v = 0; v < image.height; v++ ) {
+				for( int u = 0; u < alg.getSpectrumWidth(); u++ ) {
+					double sumR = 0, sumI = 0;
+					for( int y = 0; y < image.height; y++ ) {
+						for( int x = 0; x < image.width; x++ ) {
+							double angle = -2.0*Math.PI*((double)u*x/image.width + (double)v*y/image.height);
+							sumR += image.get(x,y)*Math.cos(angle);
+							sumI += image.get(x,y)*Math.sin(angle);
+						}
+					}
+					int index = 2*(v*alg.getSpectrumWidth() + u);
+					assertEquals(sumR,found[index],1e-10);
+					assertEquals(sumI,found[index+1],1e-10);
+				}
+			}
+
+			// F32 should produce the same spectrum
+			ImageFloat32 imageF32 = new ImageFloat32(image.width,image.height);
+			for( int i = 0; i < image.data.length; i++ )
+				imageF32.data[i] = (float)image.data[i];
+			double foundF32[] = alg.createSpectrum();
+			alg.forward(imageF32,foundF32);
+			for( int i = 0; i < found.length; i++ )
+				assertEquals(found[i],foundF32[i],1e-5);
+		}
+	}
+
+	@Test
+	public void inverse() {
+		int shapes[][] = new int[][]{{1,1},{3,1},{6,5},{7,8},{30,21}};
+
+		for( int shape[] : shapes ) {
+			ImageFloat64 image = new ImageFloat64(shape[0],shape[1]);
+			ImageMiscOps.fillUniform(image,rand,-1,1);
+
+			FourierTransformReal2D alg = new FourierTransformReal2D(image.width,image.height);
+			double spectrum[] = alg.createSpectrum();
+			alg.forward(image,spectrum);
+
+			ImageFloat64 found = new ImageFloat64(image.width,image.height);
+			alg.inverse(spectrum,found);
+
+			BoofTesting.assertEquals(image,found,1e-12);
+		}
+	}
+
+	@Test
+	public void subImage() {
+		ImageFloat32 image = new ImageFloat32(10,9);
+		ImageMiscOps.fillUniform(image,rand,-1,1);
+
+		FourierTransformReal2D alg = new FourierTransformReal2D(image.width,image.height);
+		double expected[] = alg.createSpectrum();
+		alg.forward(image,expected);
+
+		ImageFloat32 sub = BoofTesting.createSubImageOf(image);
+		double found[] = alg.createSpectrum();
+		alg.forward(sub,found);
+
+		for( int i = 0; i < found.length; i++ )
+			assertEquals(expected[i],found[i],0);
+
+		ImageFloat32 outSub = BoofTesting.createSubImageOf(new ImageFloat32(10,9));
+		alg.inverse(found,outSub);
+		BoofTesting.assertEquals(image,outSub,1e-5);
+	}
+
+	@Test
+	public void concurrent() {
+		final ImageFloat64 image = new ImageFloat64(60,45);
+		ImageMiscOps.fillUniform(image,rand,-1,1);
+
+		final FourierTransformReal2D alg = new FourierTransformReal2D(image.width,image.height);
+
+		new CompareConcurrent<double[]>() {
+			@Override
+			protected double[] createOutput() {
+				return alg.createSpectrum();
+			}
+
+			@Override
+			protected void process(double[] output) {
+				alg.forward(image,output);
+			}
+
+			@Override
+			protected void compare(double[] expected, double[] found) {
+				BoofTesting.assertEquals(expected,found,0);
+			}
+		}.perform();
+
+		final double spectrum[] = alg.createSpectrum();
+		alg.forward(image,spectrum);
+
+		final ImageFloat64 back = new ImageFloat64(image.width,image.height);
+		CompareConcurrent.runConcurrent(3, new Runnable() {
+			@Override
+			public void run() {
+				alg.inverse(spectrum,back);
+			}
+		});
+		BoofTesting.assertEquals(image,back,1e-12);
+	}
+}
@@ -0,0 +1,234 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.concurrency;
+
+import org.junit.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestBoofConcurrency {
+
+	/**
+	 * Every index should be processed exactly once
+	 */
+	@Test
+	public void loopBlocks_coverage() {
+		int maxThreads = BoofConcurrency.getMaxThreads();
+		BoofConcurrency.setMaxThreads(4);
+		try {
+			for( int length = 0; length < 50; length++ ) {
+				final AtomicIntegerArray counts = new AtomicIntegerArray(length+5);
+
+				BoofConcurrency.loopBlocks(5, length+5, 3, new IntRangeTask() {
+					@Override
+					public void process(int start, int end) {
+						assertTrue(start < end);
+						for( int i = start; i < end; i++ )
+							counts.incrementAndGet(i);
+					}
+				});
+
+				for( int i = 0; i < length+5; i++ ) {
+					assertEquals(i < 5 ? 0 : 1, counts.get(i));
+				}
+			}
+		} finally {
+			BoofConcurrency.setMaxThreads(maxThreads);
+		}
+	}
+
+	/**
+	 * Loops inside of a task should be run in the calling thread and not deadlock
+	 */
+	@Test
+	public void loopBlocks_nested() {
+		int maxThreads = BoofConcurrency.getMaxThreads();
+		BoofConcurrency.setMaxThreads(2);
+		try {
+			final AtomicIntegerArray counts = new AtomicIntegerArray(100);
+
+			BoofConcurrency.loopBlocks(0, 10, 1, new IntRangeTask() {
+				@Override
+				public void process(int start, int end) {
+					for( int i = start; i < end; i++ ) {
+						final int offset = i*10;
+						BoofConcurrency.loopBlocks(0, 10, 1, new IntRangeTask() {
+							@Override
+							public void process(int start, int end) {
+								for( int j = start; j < end; j++ )
+									counts.incrementAndGet(offset+j);
+							}
+						});
+					}
+				}
+			});
+
+			for( int i = 0; i < 100; i++ )
+				assertEquals(1, counts.get(i));
+		} finally {
+			BoofConcurrency.setMaxThreads(maxThreads);
+		}
+	}
+
+	/**
+	 * Exceptions thrown inside of a worker thread should be passed to the caller
+	 */
+	@Test(expected=IllegalArgumentException.class)
+	public void loopBlocks_exception() {
+		int maxThreads = BoofConcurrency.getMaxThreads();
+		BoofConcurrency.setMaxThreads(2);
+		try {
+			BoofConcurrency.loopBlocks(0, 10, 1, new IntRangeTask() {
+				@Override
+				public void process(int start, int end) {
+					if( start > 0 )
+						throw new IllegalArgumentException("Worker failed");
+				}
+			});
+		} finally {
+			BoofConcurrency.setMaxThreads(maxThreads);
+		}
+	}
+
+	/**
+	 * If the calling thread's block fails it should still wait for the other blocks before throwing
+	 */
+	@Test
+	public void loopBlocks_callerFails() {
+		int maxThreads = BoofConcurrency.getMaxThreads();
+		BoofConcurrency.setMaxThreads(3);
+		try {
+			final AtomicIntegerArray finished = new AtomicIntegerArray(3);
+			try {
+				BoofConcurrency.loopBlocks(0, 3, 1, new IntRangeTask() {
+					@Override
+					public void process(int start, int end) {
+						if( start == 0 )
+							throw new IllegalArgumentException("Caller failed");
+						sleep(100);
+						finished.set(start,1);
+					}
+				});
+				fail("Exception should have been thrown");
+			} catch( IllegalArgumentException ignore ) {}
+
+			assertEquals(1,finished.get(1));
+			assertEquals(1,finished.get(2));
+		} finally {
+			BoofConcurrency.setMaxThreads(maxThreads);
+		}
+	}
+
+	/**
+	 * When several blocks fail the exception from the first block is thrown
+	 */
+	@Test
+	public void loopBlocks_firstFailure() {
+		int maxThreads = BoofConcurrency.getMaxThreads();
+		BoofConcurrency.setMaxThreads(3);
+		try {
+			BoofConcurrency.loopBlocks(0, 3, 1, new IntRangeTask() {
+				@Override
+				public void process(int start, int end) {
+					// the last block fails first
+					if( start == 1 )
+						sleep(100);
+					if( start > 0 )
+						throw new IllegalArgumentException("Block "+start);
+				}
+			});
+			fail("Exception should have been thrown");
+		} catch( IllegalArgumentException e ) {
+			assertEquals("Block 1",e.getMessage());
+		} finally {
+			BoofConcurrency.setMaxThreads(maxThreads);
+		}
+	}
+
+	/**
+	 * If interrupted it should still wait for every block, then restore the interrupt status and throw
+	 */
+	@Test
+	public void loopBlocks_interrupted() {
+		int maxThreads = BoofConcurrency.getMaxThreads();
+		BoofConcurrency.setMaxThreads(2);
+		try {
+			final AtomicIntegerArray finished = new AtomicIntegerArray(2);
+			try {
+				BoofConcurrency.loopBlocks(0, 2, 1, new IntRangeTask() {
+					@Override
+					public void process(int start, int end) {
+						if( start == 0 ) {
+							Thread.currentThread().interrupt();
+						} else {
+							sleep(100);
+							finished.set(start,1);
+						}
+					}
+				});
+				fail("Exception should have been thrown");
+			} catch( RuntimeException e ) {
+				assertTrue(e.getCause() instanceof InterruptedException);
+			}
+
+			assertTrue(Thread.interrupted());
+			assertEquals(1,finished.get(1));
+		} finally {
+			BoofConcurrency.setMaxThreads(maxThreads);
+		}
+	}
+
+	private static void sleep( long milliseconds ) {
+		try {
+			Thread.sleep(milliseconds);
+		} catch (InterruptedException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * Changing the number of threads should only shut down the internally created pool
+	 */
+	@Test
+	public void setMaxThreads_userExecutor() {
+		int maxThreads = BoofConcurrency.getMaxThreads();
+
+		ExecutorService defaultPool = BoofConcurrency.getExecutor();
+		ExecutorService userPool = Executors.newFixedThreadPool(2);
+		try {
+			BoofConcurrency.setExecutor(userPool,2);
+			assertTrue(defaultPool.isShutdown());
+
+			BoofConcurrency.setMaxThreads(3);
+			assertFalse(userPool.isShutdown());
+			assertTrue(userPool == BoofConcurrency.getExecutor());
+			assertEquals(3,BoofConcurrency.getMaxThreads());
+		} finally {
+			userPool.shutdown();
+			BoofConcurrency.setExecutor(null,maxThreads);
+		}
+	}
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.concurrency;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestWorkerPool {
+
+	/**
+	 * New instances are created only when none are available
+	 */
+	@Test
+	public void borrow_release() {
+		Pool pool = new Pool();
+
+		Object a = pool.borrow();
+		Object b = pool.borrow();
+		assertEquals(2,pool.created);
+		assertTrue(a != b);
+
+		pool.release(a);
+		assertTrue(a == pool.borrow());
+		assertEquals(2,pool.created);
+	}
+
+	/**
+	 * Instances created outside the pool can be added to it
+	 */
+	@Test
+	public void release_external() {
+		Pool pool = new Pool();
+
+		Object a = new Object();
+		pool.release(a);
+		assertTrue(a == pool.borrow());
+		assertEquals(0,pool.created);
+	}
+
+	private static class Pool extends WorkerPool<Object> {
+		int created = 0;
+
+		@Override
+		protected Object createInstance() {
+			created++;
+			return new Object();
+		}
+	}
+}
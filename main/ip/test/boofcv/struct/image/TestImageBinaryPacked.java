@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.struct.image;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestImageBinaryPacked {
+
+	Random rand = new Random(234);
+
+	@Test
+	public void constructor() {
+		ImageBinaryPacked img = new ImageBinaryPacked(130,5);
+		assertEquals(130,img.width);
+		assertEquals(5,img.height);
+		assertEquals(3,img.stride);
+		assertEquals(15,img.data.length);
+		assertFalse(img.isSubimage());
+	}
+
+	@Test
+	public void get_set() {
+		ImageBinaryPacked img = new ImageBinaryPacked(130,5);
+		boolean expected[][] = new boolean[5][130];
+
+		for( int i = 0; i < 500; i++ ) {
+			int x = rand.nextInt(130);
+			int y = rand.nextInt(5);
+			boolean value = rand.nextBoolean();
+			img.set(x,y,value);
+			expected[y][x] = value;
+		}
+
+		for( int y = 0; y < 5; y++ ) {
+			for( int x = 0; x < 130; x++ ) {
+				assertEquals(expected[y][x],img.get(x,y));
+			}
+		}
+	}
+
+	@Test
+	public void getLastWordMask() {
+		assertEquals(~0L,new ImageBinaryPacked(128,2).getLastWordMask());
+		assertEquals(0x7L,new ImageBinaryPacked(67,2).getLastWordMask());
+	}
+
+	@Test
+	public void subimage() {
+		ImageBinaryPacked img = new ImageBinaryPacked(200,10);
+		img.set(70,4,true);
+
+		ImageBinaryPacked sub = img.subimage(64,2,150,8);
+		assertTrue(sub.isSubimage());
+		assertEquals(86,sub.width);
+		assertEquals(6,sub.height);
+		assertTrue(sub.get(6,2));
+
+		sub.set(0,0,true);
+		assertTrue(img.get(64,2));
+
+		try {
+			img.subimage(10,2,150,8);
+			fail("Should have thrown an exception");
+		} catch( IllegalArgumentException ignore ) {}
+	}
+
+	@Test
+	public void setTo() {
+		ImageBinaryPacked src = new ImageBinaryPacked(200,10);
+		for( int i = 0; i < src.data.length; i++ )
+			src.data[i] = rand.nextLong();
+
+		// only the pixels inside the sub-image should be modified
+		ImageBinaryPacked dst = new ImageBinaryPacked(200,10);
+		dst.subimage(64,0,150,10).setTo(src.subimage(0,0,86,10));
+
+		for( int y = 0; y < 10; y++ ) {
+			for( int x = 0; x < 200; x++ ) {
+				if( x >= 64 && x < 150 )
+					assertEquals(src.get(x-64,y),dst.get(x,y));
+				else
+					assertFalse(dst.get(x,y));
+			}
+		}
+	}
+
+	@Test
+	public void reshape() {
+		ImageBinaryPacked img = new ImageBinaryPacked(200,10);
+		img.reshape(64,20);
+		assertEquals(64,img.width);
+		assertEquals(20,img.height);
+		assertEquals(1,img.stride);
+	}
+}
@@ -0,0 +1,293 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.sfm.d3;
+
+import boofcv.abst.feature.describe.DescribeRegionPoint;
+import boofcv.abst.feature.detdesc.DetectDescribeMulti;
+import boofcv.abst.feature.detdesc.DetectDescribeMultiFusion;
+import boofcv.abst.feature.detect.extract.ConfigExtract;
+import boofcv.abst.feature.detect.extract.NonMaxSuppression;
+import boofcv.abst.feature.detect.intensity.GeneralFeatureIntensity;
+import boofcv.abst.feature.detect.interest.ConfigGeneralDetector;
+import boofcv.abst.feature.detect.interest.DetectorInterestPointMulti;
+import boofcv.abst.feature.detect.interest.GeneralToInterestMulti;
+import boofcv.abst.feature.tracker.PointTracker;
+import boofcv.abst.sfm.ConfigBundleWindow;
+import boofcv.abst.sfm.ConfigRansac;
+import boofcv.abst.sfm.d3.StereoVisualOdometry;
+import boofcv.abst.sfm.d3.WrapVisOdomDualTrackPnP;
+import boofcv.abst.sfm.d3.WrapVisOdomQuadPnP;
+import boofcv.alg.feature.detect.interest.GeneralFeatureDetector;
+import boofcv.factory.feature.describe.FactoryDescribeRegionPoint;
+import boofcv.factory.feature.detect.extract.FactoryFeatureExtractor;
+import boofcv.factory.feature.detect.intensity.FactoryIntensityPoint;
+import boofcv.factory.feature.tracker.FactoryPointTracker;
+import boofcv.factory.sfm.FactoryVisualOdometry;
+import boofcv.io.MediaManager;
+import boofcv.io.image.SimpleImageSequence;
+import boofcv.io.wrapper.DefaultMediaManager;
+import boofcv.misc.BoofMiscOps;
+import boofcv.struct.calib.StereoParameters;
+import boofcv.struct.image.ImageDataType;
+import boofcv.struct.image.ImageFloat32;
+import georegression.geometry.RotationMatrixGenerator;
+import georegression.struct.se.Se3_F64;
+import georegression.struct.so.Rodrigues;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <p>
+ * Evaluates how sliding window bundle adjustment changes the drift and per-frame latency of stereo visual
+ * odometry on the sequences in data/applet/vo and on a {@link SimulatedStereoScene simulated sequence}.  Each
+ * sequence is processed forwards and then backwards.  The camera ends up where it started, so the final pose is
+ * the accumulated drift.  Translation drift is reported as a percentage of the distance traveled.  A systematic
+ * error in scale is undone on the way back, so this mostly measures random drift.  Latency is the time
+ * {@link StereoVisualOdometry#process} takes for each frame, with images already in memory.  The simulated
+ * sequence doesn't need any data files and its ground truth is known, so the error at the end of the forward
+ * pass is reported too.  It's rendered once for each seed in {@link #SEEDS} since a single run is noisy.
+ * </p>
+ *
+ * <p>
+ * On the simulated sequence the window reduced Quad's ground truth error for every seed, from 2.9-3.5% to
+ * 1.2-1.7% of the distance traveled, or 0.9-1.5% when refining in the background.  DualTrack only changes key
+ * frames a few times in each sequence, so its window is refined a handful of times and the results were mixed,
+ * better for some seeds and worse for others.  The window has not been shown to reduce DualTrack's drift.  The
+ * round trip drift was under 2% in every run and doesn't consistently favor any configuration.  The data
+ * sequences were not available when these results were recorded.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class BenchmarkStereoVisualOdometryBundle {
+
+	static String DIRECTORY = "../data/applet/vo/";
+	static String SEQUENCES[] = new String[]{"library","backyard","rockville"};
+	static long SEEDS[] = new long[]{2345,8923,120,47001,5};
+	// The simulated camera moves less than a pixel between frames at most depths.  Quad detects features at integer
+	// pixel coordinates in each frame, so it only sees every few frames there or it will under estimate the motion.
+	static int QUAD_SIMULATED_STEP = 3;
+
+	StereoParameters param;
+	List<ImageFloat32> left = new ArrayList<ImageFloat32>();
+	List<ImageFloat32> right = new ArrayList<ImageFloat32>();
+	// true location of the left camera in each frame.  null if unknown
+	List<Se3_F64> truth;
+
+	/**
+	 * Loads every frame in the sequence into memory
+	 *
+	 * @return true if the sequence was found
+	 */
+	public boolean loadSequence( String directory ) {
+		if( !new File(directory+"stereo.xml").exists() )
+			return false;
+
+		MediaManager media = DefaultMediaManager.INSTANCE;
+		ImageDataType<ImageFloat32> type = ImageDataType.single(ImageFloat32.class);
+
+		param = BoofMiscOps.loadXML(media.openFile(directory+"stereo.xml"));
+		SimpleImageSequence<ImageFloat32> videoLeft = media.openVideo(directory+"left.mjpeg",type);
+		SimpleImageSequence<ImageFloat32> videoRight = media.openVideo(directory+"right.mjpeg",type);
+
+		left.clear();
+		right.clear();
+		truth = null;
+		while( videoLeft.hasNext() && videoRight.hasNext() ) {
+			left.add(videoLeft.next().clone());
+			right.add(videoRight.next().clone());
+		}
+		return true;
+	}
+
+	/**
+	 * Renders a simulated sequence with a known trajectory
+	 */
+	public void loadSimulated( long seed , int numFrames ) {
+		SimulatedStereoScene scene = new SimulatedStereoScene(seed);
+
+		left.clear();
+		right.clear();
+		truth = new ArrayList<Se3_F64>();
+		scene.render(numFrames,left,right,truth);
+		param = scene.param;
+	}
+
+	/**
+	 * Processes the start of the sequence so that the code has been compiled by the JIT before anything is timed
+	 */
+	public void warmup() {
+		List<StereoVisualOdometry<ImageFloat32>> algs = new ArrayList<StereoVisualOdometry<ImageFloat32>>();
+		algs.add(createDualTrack(new ConfigBundleWindow()));
+		algs.add(createQuad(new ConfigBundleWindow()));
+
+		for( StereoVisualOdometry<ImageFloat32> alg : algs ) {
+			alg.setCalibration(param);
+			for( int i = 0; i < Math.min(30,left.size()); i++ ) {
+				alg.process(left.get(i),right.get(i));
+			}
+		}
+	}
+
+	/**
+	 * Processes the sequence forwards and then backwards and prints the results
+	 *
+	 * @param step Only every step frames is processed
+	 */
+	public void evaluate( String name , StereoVisualOdometry<ImageFloat32> alg , VisOdomBundleWindow window ,
+						  int step ) {
+		alg.setCalibration(param);
+
+		// forwards then backwards, without processing the last frame twice
+		int N = (left.size()-1)/step+1;
+		int total = 2*N-1;
+		double latency[] = new double[total];
+
+		Se3_F64 previous = new Se3_F64();
+		double distance = 0;
+		int faults = 0;
+		String truthError = "";
+
+		for( int i = 0; i < total; i++ ) {
+			int index = step*(i < N ? i : 2*N-2-i);
+
+			long before = System.nanoTime();
+			boolean success = alg.process(left.get(index),right.get(index));
+			long after = System.nanoTime();
+			latency[i] = (after-before)*1e-6;
+
+			if( !success )
+				faults++;
+
+			Se3_F64 leftToWorld = alg.getCameraToWorld();
+			distance += leftToWorld.getT().distance(previous.getT());
+			previous.set(leftToWorld);
+
+			if( truth != null && i == N-1 )
+				truthError = computeTruthError(leftToWorld,index,distance);
+		}
+
+		// all the motion should have been undone
+		Se3_F64 drift = alg.getCameraToWorld();
+		double driftT = drift.getT().norm();
+		Rodrigues rod = RotationMatrixGenerator.matrixToRodrigues(drift.getR(),null);
+		double driftR = Math.toDegrees(Math.abs(rod.theta));
+
+		double mean = 0;
+		for( int i = 0; i < total; i++ ) {
+			mean += latency[i];
+		}
+		mean /= total;
+		Arrays.sort(latency);
+		double p95 = latency[(int)(total*0.95)];
+		double max = latency[total-1];
+
+		String refined = window == null ? "" :
+				String.format(" refined %4d (%5.1f ms)",window.getTotalRefined(),window.getRefineTime());
+
+		System.out.printf("  %-22s drift %6.2f%% %6.2f deg%s  latency mean %6.1f p95 %6.1f max %6.1f ms  faults %3d%s\n",
+				name,100*driftT/distance,driftR,truthError,mean,p95,max,faults,refined);
+	}
+
+	/**
+	 * Compares the estimated pose of a frame against the truth.  The estimate is relative to the first frame.
+	 */
+	private String computeTruthError( Se3_F64 foundLeftToWorld , int frame , double distance ) {
+		Se3_F64 expected = truth.get(frame).invert(null).concat(truth.get(0),null);
+		Se3_F64 error = foundLeftToWorld.concat(expected.invert(null),null);
+
+		Rodrigues rod = RotationMatrixGenerator.matrixToRodrigues(error.getR(),null);
+		return String.format("  truth %6.2f%% %6.2f deg",
+				100*error.getT().norm()/distance,Math.toDegrees(Math.abs(rod.theta)));
+	}
+
+	public static StereoVisualOdometry<ImageFloat32> createDualTrack( ConfigBundleWindow bundle ) {
+		ConfigGeneralDetector configDetector = new ConfigGeneralDetector(600,2,1);
+		PointTracker<ImageFloat32> trackerLeft = FactoryPointTracker.
+				combined_ST_SURF_KLT(configDetector, 3, new int[]{1, 2, 4, 8}, 100000, null, null,
+						ImageFloat32.class, ImageFloat32.class);
+		PointTracker<ImageFloat32> trackerRight = FactoryPointTracker.
+				combined_ST_SURF_KLT(configDetector, 3, new int[]{1, 2, 4, 8}, 100000, null, null,
+						ImageFloat32.class, ImageFloat32.class);
+
+		return FactoryVisualOdometry.stereoDualTrackerPnP(90, 2, 1.5, 1.5, new ConfigRansac(200), 50,
+				bundle, trackerLeft, trackerRight, ImageFloat32.class);
+	}
+
+	public static StereoVisualOdometry<ImageFloat32> createQuad( ConfigBundleWindow bundle ) {
+		GeneralFeatureIntensity intensity =
+				FactoryIntensityPoint.shiTomasi(1, false, ImageFloat32.class);
+		NonMaxSuppression nonmax = FactoryFeatureExtractor.nonmax(new ConfigExtract(2, 1, 0, true, false, true));
+		GeneralFeatureDetector<ImageFloat32,ImageFloat32> general =
+				new GeneralFeatureDetector<ImageFloat32,ImageFloat32>(intensity,nonmax);
+		general.setMaxFeatures(600);
+		DetectorInterestPointMulti detector = new GeneralToInterestMulti(general,2,ImageFloat32.class,ImageFloat32.class);
+		DescribeRegionPoint describe = FactoryDescribeRegionPoint.surfFast(null, ImageDataType.single(ImageFloat32.class));
+		DetectDescribeMulti detDescMulti =  new DetectDescribeMultiFusion(detector,null,describe);
+
+		return FactoryVisualOdometry.stereoQuadPnP(1.5, 0.5, 200, Double.MAX_VALUE, new ConfigRansac(300), 50,
+				bundle, detDescMulti, ImageFloat32.class);
+	}
+
+	public static void main( String args[] ) {
+		BenchmarkStereoVisualOdometryBundle app = new BenchmarkStereoVisualOdometryBundle();
+
+		ConfigBundleWindow configs[] = new ConfigBundleWindow[]{
+				null,
+				new ConfigBundleWindow(5,10,20,false),
+				new ConfigBundleWindow(5,10,20,true)};
+		String labels[] = new String[]{"none","window","window background"};
+
+		List<String> sequences = new ArrayList<String>();
+		for( long seed : SEEDS )
+			sequences.add("simulated "+seed);
+		sequences.addAll(Arrays.asList(SEQUENCES));
+
+		boolean first = true;
+		for( String sequence : sequences ) {
+			int quadStep = 1;
+			if( sequence.startsWith("simulated ") ) {
+				app.loadSimulated(Long.parseLong(sequence.substring(10)),150);
+				quadStep = QUAD_SIMULATED_STEP;
+			} else if( !app.loadSequence(DIRECTORY+sequence+"/") ) {
+				System.out.println("Skipping "+sequence+".  Can't find "+DIRECTORY+sequence);
+				continue;
+			}
+			if( first ) {
+				app.warmup();
+				first = false;
+			}
+			System.out.println(sequence+"  frames = "+app.left.size());
+
+			for( int i = 0; i < configs.length; i++ ) {
+				StereoVisualOdometry<ImageFloat32> alg = createDualTrack(configs[i]);
+				VisOdomBundleWindow window = ((WrapVisOdomDualTrackPnP<ImageFloat32>)alg).getAlgorithm().getBundleWindow();
+				app.evaluate("DualTrack "+labels[i],alg,window,1);
+			}
+			for( int i = 0; i < configs.length; i++ ) {
+				StereoVisualOdometry<ImageFloat32> alg = createQuad(configs[i]);
+				VisOdomBundleWindow window = ((WrapVisOdomQuadPnP<ImageFloat32,?>)alg).getAlgorithm().getBundleWindow();
+				app.evaluate("Quad "+labels[i],alg,window,quadStep);
+			}
+		}
+	}
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.sfm.d3;
+
+import boofcv.alg.geo.PerspectiveOps;
+import boofcv.alg.misc.ImageMiscOps;
+import boofcv.struct.calib.IntrinsicParameters;
+import boofcv.struct.calib.StereoParameters;
+import boofcv.struct.image.ImageFloat32;
+import georegression.geometry.RotationMatrixGenerator;
+import georegression.metric.Intersection2D_F64;
+import georegression.struct.point.Point2D_F64;
+import georegression.struct.point.Point3D_F64;
+import georegression.struct.se.Se3_F64;
+import georegression.struct.shapes.Polygon2D_F64;
+import org.ejml.data.DenseMatrix64F;
+
+import java.util.*;
+
+/**
+ * Renders a stereo image sequence of a scene with a known trajectory, so that visual odometry can be compared
+ * against the truth without any data files.  The scene is made of randomly placed squares which face the camera,
+ * each with its own gray value.  The left camera moves forward while slowly swaying from side to side and turning.
+ * Gaussian noise is added to every image.  The same seed always produces the same sequence.
+ *
+ * @author Peter Abeles
+ */
+public class SimulatedStereoScene {
+
+	int width = 320;
+	int height = 240;
+
+	// distance the camera moves forward each frame
+	double stepZ = 0.04;
+	// standard deviation of the noise added to each pixel
+	double noiseSigma = 2;
+
+	StereoParameters param = createStereoParam();
+
+	Random rand;
+	List<Square> squares = new ArrayList<Square>();
+
+	public SimulatedStereoScene( long seed ) {
+		rand = new Random(seed);
+	}
+
+	/**
+	 * Renders the sequence
+	 *
+	 * @param numFrames Number of stereo pairs which are rendered
+	 * @param left (Output) Images from the left camera
+	 * @param right (Output) Images from the right camera
+	 * @param worldToLeft (Output) True location of the left camera in each frame
+	 */
+	public void render( int numFrames ,
+						List<ImageFloat32> left , List<ImageFloat32> right , List<Se3_F64> worldToLeft ) {
+		createSquares(400, numFrames*stepZ);
+
+		Se3_F64 leftToRight = param.getRightToLeft().invert(null);
+		DenseMatrix64F K_left = PerspectiveOps.calibrationMatrix(param.getLeft(), null);
+		DenseMatrix64F K_right = PerspectiveOps.calibrationMatrix(param.getRight(), null);
+
+		for( int i = 0; i < numFrames; i++ ) {
+			Se3_F64 leftToWorld = new Se3_F64();
+			double t = i/30.0;
+			leftToWorld.getT().set(0.3*Math.sin(t), 0.05*Math.sin(2*t), i*stepZ);
+			RotationMatrixGenerator.eulerXYZ(0, 0.1*Math.sin(t), 0, leftToWorld.getR());
+
+			Se3_F64 a = leftToWorld.invert(null);
+			Se3_F64 b = a.concat(leftToRight, null);
+
+			left.add(render(a, K_left));
+			right.add(render(b, K_right));
+			worldToLeft.add(a);
+		}
+	}
+
+	/**
+	 * Randomly places the squares in front of where the camera will be
+	 *
+	 * @param travel How far the camera moves forward
+	 */
+	private void createSquares( int total , double travel ) {
+		squares.clear();
+
+		for( int i = 0; i < total; i++ ) {
+			double z = travel + 1.5 + rand.nextDouble()*8;
+			double x = (rand.nextDouble()-0.5)*z*1.8;
+			double y = (rand.nextDouble()-0.5)*z*1.4;
+			double w = 0.1 + rand.nextDouble()*0.3;
+
+			Square s = new Square();
+			s.a.set(x  , y  , z);
+			s.b.set(x+w, y  , z);
+			s.c.set(x+w, y+w, z);
+			s.d.set(x  , y+w, z);
+			s.gray = 20 + rand.nextInt(216);
+
+			squares.add(s);
+		}
+
+		// draw the distant squares first so that closer squares cover them
+		Collections.sort(squares, new Comparator<Square>() {
+			@Override
+			public int compare(Square o1, Square o2) {
+				return Double.compare(o2.a.z, o1.a.z);
+			}
+		});
+	}
+
+	private ImageFloat32 render( Se3_F64 worldToCamera , DenseMatrix64F K ) {
+		ImageFloat32 output = new ImageFloat32(width,height);
+
+		Polygon2D_F64 poly = new Polygon2D_F64(4);
+		for( Square s : squares ) {
+			if( !project(worldToCamera, K, s.a, poly.vertexes[0]) || !project(worldToCamera, K, s.b, poly.vertexes[1]) ||
+					!project(worldToCamera, K, s.c, poly.vertexes[2]) || !project(worldToCamera, K, s.d, poly.vertexes[3]) )
+				continue;
+
+			convexFill(poly, output, s.gray);
+		}
+
+		ImageMiscOps.addGaussian(output, rand, noiseSigma, 0, 255);
+		return output;
+	}
+
+	private static boolean project( Se3_F64 worldToCamera , DenseMatrix64F K , Point3D_F64 X , Point2D_F64 pixel ) {
+		Point2D_F64 p = PerspectiveOps.renderPixel(worldToCamera, K, X);
+		if( p == null )
+			return false;
+		pixel.set(p);
+		return true;
+	}
+
+	private void convexFill( Polygon2D_F64 poly , ImageFloat32 image , float value ) {
+		double minX = Double.MAX_VALUE, maxX = -Double.MAX_VALUE;
+		double minY = Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+
+		for( int i = 0; i < poly.vertexes.length; i++ ) {
+			Point2D_F64 p = poly.vertexes[i];
+			minX = Math.min(minX, p.x); maxX = Math.max(maxX, p.x);
+			minY = Math.min(minY, p.y); maxY = Math.max(maxY, p.y);
+		}
+
+		int x0 = Math.max(0, (int)Math.floor(minX));
+		int y0 = Math.max(0, (int)Math.floor(minY));
+		int x1 = Math.min(image.width, (int)Math.ceil(maxX)+1);
+		int y1 = Math.min(image.height, (int)Math.ceil(maxY)+1);
+
+		Point2D_F64 p = new Point2D_F64();
+		for( int y = y0; y < y1; y++ ) {
+			p.y = y;
+			for( int x = x0; x < x1; x++ ) {
+				p.x = x;
+				if( Intersection2D_F64.containConvex(poly, p) )
+					image.unsafe_set(x, y, value);
+			}
+		}
+	}
+
+	private StereoParameters createStereoParam() {
+		StereoParameters ret = new StereoParameters();
+
+		ret.setRightToLeft(new Se3_F64());
+		ret.getRightToLeft().getT().set(-0.2,0.001,-0.012);
+		RotationMatrixGenerator.eulerXYZ(0.001, -0.01, 0.0023, ret.getRightToLeft().getR());
+
+		ret.left = new IntrinsicParameters(200,201,0,width/2,height/2,width,height, false, new double[]{0,0});
+		ret.right = new IntrinsicParameters(199,200,0,width/2+2,height/2-6,width,height, false, new double[]{0,0});
+
+		return ret;
+	}
+
+	private static class Square {
+		float gray;
+		Point3D_F64 a = new Point3D_F64();
+		Point3D_F64 b = new Point3D_F64();
+		Point3D_F64 c = new Point3D_F64();
+		Point3D_F64 d = new Point3D_F64();
+	}
+}
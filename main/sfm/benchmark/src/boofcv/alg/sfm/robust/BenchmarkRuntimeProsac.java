@@ -0,0 +1,309 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.sfm.robust;
+
+import boofcv.abst.geo.fitting.GenerateEpipolarMatrix;
+import boofcv.abst.geo.fitting.GenerateMotionPnP;
+import boofcv.alg.geo.f.DistanceEpipolarConstraint;
+import boofcv.alg.geo.pose.PnPDistanceReprojectionSq;
+import boofcv.factory.geo.EnumEpipolar;
+import boofcv.factory.geo.EnumPNP;
+import boofcv.factory.geo.FactoryMultiView;
+import boofcv.misc.PerformerBase;
+import boofcv.misc.ProfileOperation;
+import boofcv.struct.feature.MatchScoreType;
+import boofcv.struct.geo.AssociatedPair;
+import boofcv.struct.geo.Point2D3D;
+import georegression.geometry.RotationMatrixGenerator;
+import georegression.struct.homo.Homography2D_F64;
+import georegression.struct.point.Point3D_F64;
+import georegression.struct.se.Se3_F64;
+import georegression.transform.se.SePointOps_F64;
+import org.ddogleg.fitting.modelset.DistanceFromModel;
+import org.ddogleg.fitting.modelset.ModelGenerator;
+import org.ddogleg.fitting.modelset.ModelMatcher;
+import org.ddogleg.fitting.modelset.ransac.Ransac;
+import org.ejml.data.DenseMatrix64F;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares {@link Prosac} against {@link Ransac} on synthetic two view scenes with a large fraction of outliers.
+ * Each observation has an association score and inliers tend to have better scores, but the two
+ * distributions overlap.  For each model the number of iterations until a hypothesis with 90% of the true
+ * inliers is first generated is averaged across several trials and then the runtime is measured.  RANSAC always runs
+ * for the maximum number of iterations while PROSAC stops once it's confident in its solution.  Observations
+ * are noise free.
+ *
+ * @author Peter Abeles
+ */
+public class BenchmarkRuntimeProsac {
+	static final long TEST_TIME = 1000;
+	static final int NUM_POINTS = 500;
+	static final int TRIALS = 50;
+
+	Random rand = new Random(234);
+
+	// observations and their association scores.  Smaller is better
+	List<AssociatedPair> pairs = new ArrayList<AssociatedPair>();
+	List<Point2D3D> pose = new ArrayList<Point2D3D>();
+	double scores[] = new double[NUM_POINTS];
+	int numInliers;
+
+	/**
+	 * Creates a scene where the specified fraction of the observations are outliers.
+	 *
+	 * @param planar If true all the points lie on a plane
+	 */
+	public void createScene( double fractionOutlier , boolean planar ) {
+		Se3_F64 motion = new Se3_F64();
+		motion.getR().set(RotationMatrixGenerator.eulerArbitrary(0, 1, 2, 0.05, -0.03, 0.02));
+		motion.getT().set(0.2,-0.1,0.05);
+
+		pairs.clear();
+		pose.clear();
+		numInliers = 0;
+
+		Point3D_F64 X2 = new Point3D_F64();
+		for( int i = 0; i < NUM_POINTS; i++ ) {
+			Point3D_F64 X = new Point3D_F64(rand.nextDouble()*2-1,rand.nextDouble()*2-1,2);
+			if( !planar )
+				X.z += rand.nextDouble();
+
+			AssociatedPair p = new AssociatedPair();
+			p.p1.set(X.x/X.z,X.y/X.z);
+
+			if( i < NUM_POINTS*fractionOutlier ) {
+				p.p2.set(rand.nextDouble()-0.5,rand.nextDouble()-0.5);
+				scores[i] = Math.abs(rand.nextGaussian());
+			} else {
+				SePointOps_F64.transform(motion,X,X2);
+				p.p2.set(X2.x/X2.z,X2.y/X2.z);
+				scores[i] = Math.abs(rand.nextGaussian())*0.5;
+				numInliers++;
+			}
+
+			pairs.add(p);
+			pose.add(new Point2D3D(p.p2,X));
+		}
+	}
+
+	/**
+	 * Wraps around a generator and records the first iteration a hypothesis is generated which is close to the
+	 * true solution
+	 */
+	public class CountGenerator<Model,Point> implements ModelGenerator<Model,Point> {
+		ModelGenerator<Model,Point> alg;
+		DistanceFromModel<Model,Point> distance;
+		double threshold;
+		List<Point> all;
+
+		int calls;
+		int found;
+
+		public CountGenerator(ModelGenerator<Model, Point> alg, DistanceFromModel<Model, Point> distance,
+							  double threshold, List<Point> all) {
+			this.alg = alg;
+			this.distance = distance;
+			this.threshold = threshold;
+			this.all = all;
+		}
+
+		@Override
+		public Model createModelInstance() {
+			return alg.createModelInstance();
+		}
+
+		@Override
+		public boolean generate(List<Point> dataSet, Model out) {
+			calls++;
+			if( !alg.generate(dataSet,out) )
+				return false;
+
+			if( found == 0 ) {
+				distance.setModel(out);
+				int total = 0;
+				for( int i = 0; i < all.size(); i++ ) {
+					if( distance.computeDistance(all.get(i)) < threshold )
+						total++;
+				}
+				if( total >= numInliers*0.9 )
+					found = calls;
+			}
+			return true;
+		}
+
+		@Override
+		public int getMinimumPoints() {
+			return alg.getMinimumPoints();
+		}
+	}
+
+	/**
+	 * Creates the generator and distance function for a model
+	 */
+	public abstract class Case<Model,Point> {
+		String name;
+		int maxIterations;
+		double threshold;
+		List<Point> obs;
+
+		protected Case(String name, int maxIterations, double threshold, List<Point> obs) {
+			this.name = name;
+			this.maxIterations = maxIterations;
+			this.threshold = threshold;
+			this.obs = obs;
+		}
+
+		public abstract ModelGenerator<Model,Point> createGenerator();
+
+		public abstract DistanceFromModel<Model,Point> createDistance();
+
+		public ModelMatcher<Model,Point> createRansac( long seed , ModelGenerator<Model,Point> generator ) {
+			return new Ransac<Model,Point>(seed,generator,createDistance(),maxIterations,threshold);
+		}
+
+		public Prosac<Model,Point> createProsac( long seed , ModelGenerator<Model,Point> generator ) {
+			return new Prosac<Model,Point>(seed,generator,createDistance(),maxIterations,threshold);
+		}
+	}
+
+	public class RunRansac<Model,Point> extends PerformerBase {
+		ModelMatcher<Model,Point> alg;
+		List<Point> obs;
+
+		public RunRansac(Case<Model,Point> c) {
+			alg = c.createRansac(0xBEEF,c.createGenerator());
+			// RANSAC changes the order of the list
+			obs = new ArrayList<Point>(c.obs);
+		}
+
+		@Override
+		public void process() {
+			alg.process(obs);
+		}
+	}
+
+	public class RunProsac<Model,Point> extends PerformerBase {
+		Prosac<Model,Point> alg;
+		List<Point> obs;
+
+		public RunProsac(Case<Model,Point> c) {
+			alg = c.createProsac(0xBEEF,c.createGenerator());
+			obs = c.obs;
+		}
+
+		@Override
+		public void process() {
+			alg.process(obs,scores,MatchScoreType.NORM_ERROR);
+		}
+	}
+
+	/**
+	 * Average number of iterations until a solution is found
+	 */
+	public <Model,Point> void iterationsToSolution( Case<Model,Point> c ) {
+		double totalRansac = 0;
+		double totalProsac = 0;
+		double totalProsacStop = 0;
+		int failedRansac = 0;
+		int failedProsac = 0;
+
+		for( int trial = 0; trial < TRIALS; trial++ ) {
+			CountGenerator<Model,Point> gen =
+					new CountGenerator<Model,Point>(c.createGenerator(),c.createDistance(),c.threshold,c.obs);
+			c.createRansac(trial,gen).process(new ArrayList<Point>(c.obs));
+			if( gen.found == 0 ) failedRansac++; else totalRansac += gen.found;
+
+			gen = new CountGenerator<Model,Point>(c.createGenerator(),c.createDistance(),c.threshold,c.obs);
+			Prosac<Model,Point> prosac = c.createProsac(trial,gen);
+			prosac.process(c.obs,scores,MatchScoreType.NORM_ERROR);
+			if( gen.found == 0 ) failedProsac++; else totalProsac += gen.found;
+			totalProsacStop += prosac.getIterations();
+		}
+
+		int okRansac = TRIALS-failedRansac;
+		int okProsac = TRIALS-failedProsac;
+		System.out.printf("%-12s iterations to solution: RANSAC %7.1f  PROSAC %7.1f   PROSAC stopped at %7.1f  max %d\n",
+				c.name,totalRansac/Math.max(1,okRansac),totalProsac/Math.max(1,okProsac),
+				totalProsacStop/TRIALS,c.maxIterations);
+		if( failedRansac > 0 || failedProsac > 0 )
+			System.out.println("    failed: RANSAC "+failedRansac+"  PROSAC "+failedProsac);
+	}
+
+	public <Model,Point> void evaluate( Case<Model,Point> c ) {
+		iterationsToSolution(c);
+		ProfileOperation.printOpsPerSec(new RunRansac<Model,Point>(c), TEST_TIME);
+		ProfileOperation.printOpsPerSec(new RunProsac<Model,Point>(c), TEST_TIME);
+		System.out.println();
+	}
+
+	public void runAll() {
+		System.out.println("=========  Profile numFeatures "+NUM_POINTS);
+		System.out.println();
+
+		createScene(0.5,false);
+		evaluate(new Case<DenseMatrix64F,AssociatedPair>("Fundamental",2000,1e-6,pairs) {
+			@Override
+			public ModelGenerator<DenseMatrix64F, AssociatedPair> createGenerator() {
+				return new GenerateEpipolarMatrix(
+						FactoryMultiView.computeFundamental_1(EnumEpipolar.FUNDAMENTAL_8_LINEAR, 0));
+			}
+
+			@Override
+			public DistanceFromModel<DenseMatrix64F, AssociatedPair> createDistance() {
+				return new DistanceEpipolarConstraint();
+			}
+		});
+
+		createScene(0.7,true);
+		evaluate(new Case<Homography2D_F64,AssociatedPair>("Homography",500,1e-8,pairs) {
+			@Override
+			public ModelGenerator<Homography2D_F64, AssociatedPair> createGenerator() {
+				return new GenerateHomographyLinear(true);
+			}
+
+			@Override
+			public DistanceFromModel<Homography2D_F64, AssociatedPair> createDistance() {
+				return new DistanceHomographySq();
+			}
+		});
+
+		createScene(0.7,false);
+		evaluate(new Case<Se3_F64,Point2D3D>("PnP",500,1e-8,pose) {
+			@Override
+			public ModelGenerator<Se3_F64, Point2D3D> createGenerator() {
+				return new GenerateMotionPnP(FactoryMultiView.computePnP_1(EnumPNP.P3P_FINSTERWALDER, -1, 2));
+			}
+
+			@Override
+			public DistanceFromModel<Se3_F64, Point2D3D> createDistance() {
+				return new PnPDistanceReprojectionSq();
+			}
+		});
+	}
+
+	public static void main( String args[] ) {
+		BenchmarkRuntimeProsac alg = new BenchmarkRuntimeProsac();
+
+		alg.runAll();
+	}
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.abst.sfm;
+
+import boofcv.struct.Configuration;
+
+/**
+ * Configuration for {@link boofcv.alg.sfm.d3.VisOdomBundleWindow}.
+ *
+ * @author Peter Abeles
+ */
+public class ConfigBundleWindow implements Configuration {
+
+	/**
+	 * Maximum number of key frames inside the window.  Must be at least 2.  Try 5.
+	 */
+	public int maxKeyFrames = 5;
+
+	/**
+	 * Maximum number of iterations each time the window is refined.  Try 10.
+	 */
+	public int maxIterations = 10;
+
+	/**
+	 * Maximum amount of time in milliseconds refinement can take.  This is a soft limit which is checked between
+	 * the stages of each iteration, so it can be exceeded by the time of one stage.  If &le; 0 then there is no
+	 * limit.
+	 */
+	public long maxMilliseconds = 20;
+
+	/**
+	 * Refinement stops when the relative change in the cost function is less than this.
+	 */
+	public double ftol = 1e-8;
+
+	/**
+	 * If true then refinement is done in a background thread and the results are applied when a later frame is
+	 * processed.  Otherwise refinement is done before the frame which triggered it has finished processing.
+	 */
+	public boolean background = false;
+
+	public ConfigBundleWindow(int maxKeyFrames, int maxIterations, long maxMilliseconds, boolean background) {
+		this.maxKeyFrames = maxKeyFrames;
+		this.maxIterations = maxIterations;
+		this.maxMilliseconds = maxMilliseconds;
+		this.background = background;
+	}
+
+	public ConfigBundleWindow() {
+	}
+
+	@Override
+	public void checkValidity() {
+		if( maxKeyFrames < 2 )
+			throw new IllegalArgumentException("maxKeyFrames must be at least two");
+		if( maxIterations <= 0 )
+			throw new IllegalArgumentException("maxIterations must be more than zero");
+	}
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.abst.sfm;
+
+import boofcv.struct.Configuration;
+
+/**
+ * Configuration for robust motion estimation using {@link org.ddogleg.fitting.modelset.ransac.Ransac}.  To use
+ * {@link boofcv.alg.sfm.robust.RansacPreemptive} instead pass in a {@link ConfigRansacPreemptive}.
+ *
+ * @author Peter Abeles
+ */
+public class ConfigRansac implements Configuration {
+
+	/**
+	 * Random seed.
+	 */
+	public long randSeed = 2323;
+
+	/**
+	 * Maximum number of iterations, which is the number of hypotheses generated.  Try 300 or more.
+	 */
+	public int maxIterations = 300;
+
+	public ConfigRansac(long randSeed, int maxIterations) {
+		this.randSeed = randSeed;
+		this.maxIterations = maxIterations;
+	}
+
+	public ConfigRansac(int maxIterations) {
+		this.maxIterations = maxIterations;
+	}
+
+	public ConfigRansac() {
+	}
+
+	@Override
+	public void checkValidity() {
+		if( maxIterations <= 0 )
+			throw new IllegalArgumentException("maxIterations must be more than zero");
+	}
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.abst.sfm;
+
+/**
+ * Configuration for {@link boofcv.alg.sfm.robust.RansacPreemptive}.  The random seed will produce the same results,
+ * independent of the number of threads.
+ *
+ * @author Peter Abeles
+ */
+public class ConfigRansacPreemptive extends ConfigRansac {
+
+	/**
+	 * Number of hypotheses which are generated and scored together.  Try 64.
+	 */
+	public int batchSize = 64;
+
+	/**
+	 * Number of observations which hypotheses are scored against before the worst half are discarded.  If &le; 0
+	 * then every hypothesis is scored against every observation.  Try 50.
+	 */
+	public int blockSize = 50;
+
+	/**
+	 * Probability that a sample with only inliers has been selected.  Used to decide when to stop generating
+	 * hypotheses.  Set to 1 to always generate the maximum number.  Try 0.99
+	 */
+	public double confidence = 0.99;
+
+	public ConfigRansacPreemptive(int maxIterations, int batchSize, int blockSize, double confidence) {
+		super(maxIterations);
+		this.batchSize = batchSize;
+		this.blockSize = blockSize;
+		this.confidence = confidence;
+	}
+
+	public ConfigRansacPreemptive(int maxIterations) {
+		super(maxIterations);
+	}
+
+	public ConfigRansacPreemptive() {
+	}
+
+	@Override
+	public void checkValidity() {
+		super.checkValidity();
+		if( batchSize <= 0 )
+			throw new IllegalArgumentException("batchSize must be more than zero");
+		if( confidence <= 0 || confidence > 1 )
+			throw new IllegalArgumentException("confidence must be more than zero and less than or equal to one");
+	}
+}
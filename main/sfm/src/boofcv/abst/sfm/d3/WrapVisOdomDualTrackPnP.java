@@ -147,4 +147,8 @@ public class WrapVisOdomDualTrackPnP<T extends ImageSingleBand>
 	public ImageDataType<T> getImageType() {
 		return ImageDataType.single(imageType);
 	}
+
+	public VisOdomDualTrackPnP<T,?> getAlgorithm() {
+		return alg;
+	}
 }
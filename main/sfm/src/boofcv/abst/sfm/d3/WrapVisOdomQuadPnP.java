@@ -148,4 +148,8 @@ public class WrapVisOdomQuadPnP<T extends ImageSingleBand,TD extends TupleDesc>
 	public ImageDataType<T> getImageType() {
 		return ImageDataType.single(imageType);
 	}
+
+	public VisOdomQuadPnP<T,TD> getAlgorithm() {
+		return alg;
+	}
 }
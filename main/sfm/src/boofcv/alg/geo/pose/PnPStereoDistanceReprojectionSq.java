@@ -56,8 +56,12 @@ public class PnPStereoDistanceReprojectionSq implements DistanceFromModel<Se3_F6
 	private NormalizedToPixelError leftPixelError;
 	private NormalizedToPixelError rightPixelError;
 
+	// the stereo calibration
+	private StereoParameters param;
+
 	public void setStereoParameters(StereoParameters param)
 	{
+		this.param = param;
 		this.leftToRight = param.getRightToLeft().invert(null);
 
 		IntrinsicParameters left = param.left;
@@ -67,6 +71,10 @@ public class PnPStereoDistanceReprojectionSq implements DistanceFromModel<Se3_F6
 		rightPixelError = new NormalizedToPixelError(right.fx,right.fy,right.skew);
 	}
 
+	public StereoParameters getStereoParameters() {
+		return param;
+	}
+
 	@Override
 	public void setModel(Se3_F64 worldToLeft) {
 		this.worldToLeft = worldToLeft;
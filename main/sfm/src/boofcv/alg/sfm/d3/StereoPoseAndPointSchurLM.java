@@ -0,0 +1,363 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.sfm.d3;
+
+import boofcv.alg.geo.bundle.PoseAndPointSchurLM;
+import georegression.struct.se.Se3_F64;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Levenberg-Marquardt bundle adjustment for a calibrated stereo camera with a known baseline.  Each view is the pose
+ * of the left camera and every observation contains the point's normalized image coordinate in the left and right
+ * camera, giving four residuals.  The right camera's pose is found from the left camera's pose and the baseline, so
+ * the stereo rig stays rigid.  Designed for the small problems found in a sliding window of key frames and
+ * intended to be called repeatedly with a time limit.
+ * </p>
+ *
+ * <p>
+ * Points are eliminated using the Schur complement, see {@link PoseAndPointSchurLM}.  Views are updated using a
+ * local perturbation of the world to left camera transform, R' = exp(&omega;)*R and T' = exp(&omega;)*T + v, which
+ * avoids the singularities of a global rotation parametrization.  The first views are held constant to fix the
+ * gauge freedom.
+ * </p>
+ *
+ * <p>
+ * All data is passed in using primitive arrays.  A view is encoded as the world to left camera rotation matrix in
+ * row-major order followed by the translation, 12 elements in total.  Work buffers are only declared when a larger
+ * problem is encountered.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class StereoPoseAndPointSchurLM extends PoseAndPointSchurLM {
+
+	// transform from left to right camera
+	private double leftToRight[] = new double[12];
+
+	// number of views which are held constant
+	private int numKnown;
+
+	// input data.  Views and points are modified
+	private double views[];
+	private double points[];
+	private int obsView[];
+	private int obsPoint[];
+	private double obs[];
+
+	// candidate views and points
+	private double candidateViews[] = new double[0];
+	private double candidatePoints[] = new double[0];
+
+	// true if an observation is being used.  Points behind the camera are ignored
+	private boolean obsValid[] = new boolean[0];
+	// unknown camera of each observation or -1 if its view is known
+	private int obsCamera[] = new int[0];
+
+	// storage for rotation matrix from the exponential map
+	private double rotation[] = new double[9];
+
+	/**
+	 * Configures the optimization
+	 *
+	 * @param ftol Stops when the relative change in the cost function is less than this.  Try 1e-8.
+	 * @param maxIterations Maximum number of iterations.
+	 */
+	public StereoPoseAndPointSchurLM( double ftol , int maxIterations ) {
+		super(4, ftol, 0, maxIterations);
+	}
+
+	/**
+	 * Specifies the transform from the left to the right camera
+	 */
+	public void setLeftToRight( Se3_F64 leftToRight ) {
+		encode(leftToRight, this.leftToRight, 0);
+	}
+
+	/**
+	 * Refines the views and points using the observations.
+	 *
+	 * @param numViews Number of views
+	 * @param numKnown The first numKnown views are held constant
+	 * @param views World to left camera transform for each view. 12 elements each.  Modified.
+	 * @param numPoints Number of points
+	 * @param points Location of each point in world coordinates. 3 elements each.  Modified.
+	 * @param numObs Number of observations
+	 * @param obsView Which view each observation is in
+	 * @param obsPoint Which point each observation is of
+	 * @param obs Observations in normalized image coordinates.  Left x, left y, right x, right y.
+	 * @return true if the cost function didn't increase
+	 */
+	public boolean process( int numViews , int numKnown , double views[] ,
+							int numPoints , double points[] ,
+							int numObs , int obsView[] , int obsPoint[] , double obs[] ) {
+		this.numKnown = Math.min(numKnown,numViews);
+		this.views = views;
+		this.points = points;
+		this.obsView = obsView;
+		this.obsPoint = obsPoint;
+		this.obs = obs;
+
+		if( candidateViews.length < numViews*12 )
+			candidateViews = new double[numViews*12];
+		if( candidatePoints.length < numPoints*3 )
+			candidatePoints = new double[numPoints*3];
+		if( obsValid.length < numObs ) {
+			obsValid = new boolean[numObs];
+			obsCamera = new int[numObs];
+			jacView = new double[numObs*24];
+			jacPoint = new double[numObs*12];
+		}
+
+		for( int k = 0; k < numObs; k++ ) {
+			obsCamera[k] = obsView[k] - this.numKnown;
+		}
+		configure(numViews-this.numKnown,numPoints,numObs,obsCamera,obsPoint);
+
+		// known views are never modified
+		System.arraycopy(views,0,candidateViews,0,this.numKnown*12);
+
+		// observations of points behind a camera are ignored
+		for( int k = 0; k < numObs; k++ ) {
+			obsValid[k] = true;
+		}
+		computeResiduals(views, points, false);
+		for( int k = 0; k < numObs; k++ ) {
+			if( Double.isNaN(residuals[k*4]) )
+				obsValid[k] = false;
+		}
+
+		return optimize();
+	}
+
+	@Override
+	protected double computeResidualsAndJacobian() {
+		return computeResiduals(views, points, true);
+	}
+
+	@Override
+	protected double computeCandidateCost(double[] step) {
+		applyStep(step);
+		return computeResiduals(candidateViews, candidatePoints, false);
+	}
+
+	@Override
+	protected void acceptCandidate() {
+		System.arraycopy(candidateViews,numKnown*12,views,numKnown*12,numCameras*12);
+		System.arraycopy(candidatePoints,0,points,0,numPoints*3);
+	}
+
+	/**
+	 * Computes the residuals for all the valid observations and optionally their Jacobian.  If a point is behind
+	 * either camera then its residual is set to NaN.
+	 *
+	 * @return Sum of residuals squared.  Infinite if a valid observation is behind a camera.
+	 */
+	private double computeResiduals( double views[] , double points[] , boolean computeJacobian ) {
+		double[] lr = leftToRight;
+		double sum = 0;
+
+		for( int k = 0; k < numObs; k++ ) {
+			int indexR = k*4;
+			if( !obsValid[k] ) {
+				residuals[indexR] = residuals[indexR+1] = residuals[indexR+2] = residuals[indexR+3] = 0;
+				if( computeJacobian ) {
+					Arrays.fill(jacView,k*24,k*24+24,0);
+					Arrays.fill(jacPoint,k*12,k*12+12,0);
+				}
+				continue;
+			}
+
+			int v = obsView[k]*12;
+			int p = obsPoint[k]*3;
+			double px = points[p], py = points[p+1], pz = points[p+2];
+
+			// point in left camera
+			double lx = views[v  ]*px + views[v+1]*py + views[v+2]*pz + views[v+9];
+			double ly = views[v+3]*px + views[v+4]*py + views[v+5]*pz + views[v+10];
+			double lz = views[v+6]*px + views[v+7]*py + views[v+8]*pz + views[v+11];
+
+			// point in right camera
+			double rx = lr[0]*lx + lr[1]*ly + lr[2]*lz + lr[9];
+			double ry = lr[3]*lx + lr[4]*ly + lr[5]*lz + lr[10];
+			double rz = lr[6]*lx + lr[7]*ly + lr[8]*lz + lr[11];
+
+			if( lz <= 0 || rz <= 0 ) {
+				residuals[indexR] = Double.NaN;
+				sum = Double.POSITIVE_INFINITY;
+				continue;
+			}
+
+			residuals[indexR  ] = lx/lz - obs[indexR];
+			residuals[indexR+1] = ly/lz - obs[indexR+1];
+			residuals[indexR+2] = rx/rz - obs[indexR+2];
+			residuals[indexR+3] = ry/rz - obs[indexR+3];
+
+			for( int i = 0; i < 4; i++ ) {
+				sum += residuals[indexR+i]*residuals[indexR+i];
+			}
+
+			if( computeJacobian ) {
+				computeJacobian(k, v, lx, ly, lz, rx, ry, rz);
+			}
+		}
+
+		return sum;
+	}
+
+	/**
+	 * Computes the Jacobian of an observation.  The derivative of the point in the left camera with respect to
+	 * the view's perturbation is [-hat(Xc) , I] and with respect to the point is R.  The right camera's
+	 * derivatives are the left camera's rotated into the right camera.
+	 */
+	private void computeJacobian( int k , int v ,
+								  double lx , double ly , double lz ,
+								  double rx , double ry , double rz ) {
+		double[] lr = leftToRight;
+		int indexA = k*24;
+		int indexB = k*12;
+
+		// derivative of the projection with respect to the point in the camera frame
+		double ilz = 1.0/lz, irz = 1.0/rz;
+		double pxl = -lx*ilz*ilz, pyl = -ly*ilz*ilz;
+		double pxr = -rx*irz*irz, pyr = -ry*irz*irz;
+
+		// d(Xc)/d(omega) = -hat(Xc).  Columns are the derivative with respect to omega x, y, z
+		// row 0 = [0 , lz , -ly]  row 1 = [-lz , 0 , lx]  row 2 = [ly , -lx , 0]
+		for( int col = 0; col < 9; col++ ) {
+			// 3x1 derivative of the left camera point with respect to a parameter
+			double dx,dy,dz;
+			if( col < 3 ) {
+				// omega
+				if( col == 0 ) { dx = 0; dy = -lz; dz = ly; }
+				else if( col == 1 ) { dx = lz; dy = 0; dz = -lx; }
+				else { dx = -ly; dy = lx; dz = 0; }
+			} else if( col < 6 ) {
+				// translation
+				dx = col == 3 ? 1 : 0;
+				dy = col == 4 ? 1 : 0;
+				dz = col == 5 ? 1 : 0;
+			} else {
+				// point.  Column of the rotation matrix
+				int c = col-6;
+				dx = views[v+c]; dy = views[v+3+c]; dz = views[v+6+c];
+			}
+
+			// same derivative in the right camera
+			double ex = lr[0]*dx + lr[1]*dy + lr[2]*dz;
+			double ey = lr[3]*dx + lr[4]*dy + lr[5]*dz;
+			double ez = lr[6]*dx + lr[7]*dy + lr[8]*dz;
+
+			double d0 = ilz*dx + pxl*dz;
+			double d1 = ilz*dy + pyl*dz;
+			double d2 = irz*ex + pxr*ez;
+			double d3 = irz*ey + pyr*ez;
+
+			if( col < 6 ) {
+				jacView[indexA     +col] = d0;
+				jacView[indexA+6   +col] = d1;
+				jacView[indexA+12  +col] = d2;
+				jacView[indexA+18  +col] = d3;
+			} else {
+				int c = col-6;
+				jacPoint[indexB    +c] = d0;
+				jacPoint[indexB+3  +c] = d1;
+				jacPoint[indexB+6  +c] = d2;
+				jacPoint[indexB+9  +c] = d3;
+			}
+		}
+	}
+
+	/**
+	 * Applies the step to the views and points and saves the results in the candidate arrays
+	 */
+	private void applyStep( double step[] ) {
+		for( int camera = 0; camera < numCameras; camera++ ) {
+			int indexS = camera*6;
+			int v = (camera+numKnown)*12;
+
+			rotationExp(step[indexS], step[indexS+1], step[indexS+2], rotation);
+
+			// R' = exp(w)*R
+			for( int i = 0; i < 3; i++ ) {
+				for( int j = 0; j < 3; j++ ) {
+					candidateViews[v+i*3+j] = rotation[i*3]*views[v+j] + rotation[i*3+1]*views[v+3+j] +
+							rotation[i*3+2]*views[v+6+j];
+				}
+			}
+			// T' = exp(w)*T + v
+			double tx = views[v+9], ty = views[v+10], tz = views[v+11];
+			for( int i = 0; i < 3; i++ ) {
+				candidateViews[v+9+i] = rotation[i*3]*tx + rotation[i*3+1]*ty + rotation[i*3+2]*tz +
+						step[indexS+3+i];
+			}
+		}
+
+		int firstPoint = numCameras*6;
+		for( int i = 0; i < numPoints*3; i++ ) {
+			candidatePoints[i] = points[i] + step[firstPoint+i];
+		}
+	}
+
+	/**
+	 * Converts a rotation vector into a rotation matrix using Rodrigues' formula
+	 */
+	private static void rotationExp( double wx , double wy , double wz , double R[] ) {
+		double theta = Math.sqrt(wx*wx + wy*wy + wz*wz);
+
+		double a,b;
+		if( theta < 1e-8 ) {
+			// first order approximation to avoid dividing by zero
+			a = 1;
+			b = 0.5;
+		} else {
+			a = Math.sin(theta)/theta;
+			b = (1-Math.cos(theta))/(theta*theta);
+		}
+
+		R[0] = 1 - b*(wy*wy + wz*wz);
+		R[1] = -a*wz + b*wx*wy;
+		R[2] = a*wy + b*wx*wz;
+		R[3] = a*wz + b*wx*wy;
+		R[4] = 1 - b*(wx*wx + wz*wz);
+		R[5] = -a*wx + b*wy*wz;
+		R[6] = -a*wy + b*wx*wz;
+		R[7] = a*wx + b*wy*wz;
+		R[8] = 1 - b*(wx*wx + wy*wy);
+	}
+
+	/**
+	 * Encodes a transform into an array.  Rotation matrix in row-major order followed by the translation.
+	 */
+	public static void encode( Se3_F64 transform , double output[] , int index ) {
+		System.arraycopy(transform.getR().data,0,output,index,9);
+		output[index+ 9] = transform.getT().x;
+		output[index+10] = transform.getT().y;
+		output[index+11] = transform.getT().z;
+	}
+
+	/**
+	 * Decodes a transform which was encoded using {@link #encode}
+	 */
+	public static void decode( double input[] , int index , Se3_F64 transform ) {
+		System.arraycopy(input,index,transform.getR().data,0,9);
+		transform.getT().set(input[index+9],input[index+10],input[index+11]);
+	}
+}
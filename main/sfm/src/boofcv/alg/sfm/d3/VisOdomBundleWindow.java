@@ -0,0 +1,619 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.sfm.d3;
+
+import georegression.geometry.RotationMatrixGenerator;
+import georegression.struct.point.Point2D_F64;
+import georegression.struct.point.Point3D_F64;
+import georegression.struct.se.Se3_F64;
+import georegression.transform.se.SePointOps_F64;
+import org.ejml.data.DenseMatrix64F;
+
+import java.util.Arrays;
+import java.util.concurrent.*;
+
+/**
+ * <p>
+ * Sliding window bundle adjustment for stereo visual odometry.  The most recent key frames, the points they
+ * observe, and the stereo observations are saved.  Each time {@link #refine()} is called the poses and
+ * points inside the window are optimized together using {@link StereoPoseAndPointSchurLM}.  The oldest key frame
+ * is held constant and only points observed by two or more key frames are optimized.  When a new key frame
+ * pushes the window past its maximum size the oldest key frame, its observations, and points which are no
+ * longer observed are discarded.
+ * </p>
+ *
+ * <p>
+ * Refinement is done on a copy of the window.  This allows it to be optionally run in a background thread while
+ * the visual odometry continues to process images.  Results are applied when {@link #update()} is called after
+ * the background refinement has finished.  Key frames and points added after the copy was made are moved by the
+ * correction that was applied to the key frame they were created in.
+ * </p>
+ *
+ * <p>
+ * Key frames are referenced by an ID which is returned when they are added and points by an ID provided by the
+ * user.  All data is stored in primitive arrays.  Poses are saved as world to left camera transforms and points
+ * in world coordinates.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class VisOdomBundleWindow {
+
+	// maximum number of key frames in the window
+	private int maxKeyFrames;
+	// refines the window
+	private StereoPoseAndPointSchurLM bundle;
+	// if true refinement is done in a background thread
+	private boolean background;
+
+	// ------------------ Key frames. Ordered from oldest to newest
+	private int numFrames;
+	private int frameId[];
+	// world to left camera for each key frame.  12 elements each
+	private double frameWorldToLeft[];
+	// ID assigned to the next key frame
+	private int nextFrameId;
+
+	// ------------------ Points. Sorted by ID
+	private int numPoints;
+	private long pointId[] = new long[100];
+	// location in world coordinates.  3 elements each
+	private double pointLoc[] = new double[300];
+	// ID of the key frame the point was created in
+	private int pointFrame[] = new int[100];
+
+	// ------------------ Observations
+	private int numObs;
+	private int obsFrame[] = new int[200];
+	private long obsPoint[] = new long[200];
+	// normalized image coordinates.  left x, left y, right x, right y
+	private double obsNorm[] = new double[800];
+
+	// copy of the window which is being refined
+	private Snapshot snapshot = new Snapshot();
+	// thread which refines the snapshot in the background
+	private ExecutorService executor;
+	// background refinement which is being processed or has not been applied yet
+	private Future<?> pending;
+
+	// number of times refinement results have been applied
+	private int totalRefined;
+	// time the last refinement took in milliseconds
+	private double refineTime;
+
+	// work space
+	private Se3_F64 original = new Se3_F64();
+	private Se3_F64 refined = new Se3_F64();
+	private Se3_F64 tmp = new Se3_F64();
+	private Point3D_F64 point = new Point3D_F64();
+	private DenseMatrix64F R = new DenseMatrix64F(3,3);
+	// correction applied to each key frame.  world to world
+	private Se3_F64 corrections[];
+	// true if the point was in the snapshot
+	private boolean pointRefined[] = new boolean[100];
+
+	/**
+	 * Configures the window
+	 *
+	 * @param maxKeyFrames Maximum number of key frames in the window.  Must be at least 2.
+	 * @param bundle Optimization algorithm.
+	 * @param background If true then refinement is done in a background thread.
+	 */
+	public VisOdomBundleWindow( int maxKeyFrames , StereoPoseAndPointSchurLM bundle , boolean background ) {
+		if( maxKeyFrames < 2 )
+			throw new IllegalArgumentException("The window must contain at least two key frames");
+
+		this.maxKeyFrames = maxKeyFrames;
+		this.bundle = bundle;
+		this.background = background;
+
+		frameId = new int[maxKeyFrames];
+		frameWorldToLeft = new double[maxKeyFrames*12];
+		corrections = new Se3_F64[maxKeyFrames];
+		for( int i = 0; i < maxKeyFrames; i++ ) {
+			corrections[i] = new Se3_F64();
+		}
+	}
+
+	/**
+	 * Specifies the transform from the left to the right camera
+	 */
+	public void setLeftToRight( Se3_F64 leftToRight ) {
+		waitForRefine();
+		bundle.setLeftToRight(leftToRight);
+	}
+
+	/**
+	 * Discards all key frames, points, and observations.  If a background refinement is being processed it
+	 * waits for it to finish and discards its results.  The background thread is shut down and will be
+	 * created again if needed.
+	 */
+	public void reset() {
+		waitForRefine();
+		pending = null;
+		shutdownExecutor();
+		numFrames = 0;
+		numPoints = 0;
+		numObs = 0;
+	}
+
+	/**
+	 * Adds a new key frame to the window.  If the window is full the oldest key frame is removed.
+	 *
+	 * @param leftToWorld Transform from the left camera to the world frame
+	 * @return ID of the key frame
+	 */
+	public int addKeyFrame( Se3_F64 leftToWorld ) {
+		if( numFrames == maxKeyFrames )
+			removeOldestFrame();
+
+		leftToWorld.invert(tmp);
+		StereoPoseAndPointSchurLM.encode(tmp, frameWorldToLeft, numFrames*12);
+		frameId[numFrames++] = nextFrameId;
+		return nextFrameId++;
+	}
+
+	/**
+	 * Adds an observation of a point by a key frame.  If the point has not been seen before it's added to
+	 * the window at the specified location.
+	 *
+	 * @param frame ID of the key frame
+	 * @param id ID of the point
+	 * @param left Observation in the left camera.  Normalized image coordinates.
+	 * @param right Observation in the right camera.  Normalized image coordinates.
+	 * @param location Estimated location of a new point in world coordinates.  Ignored if the point is known.
+	 */
+	public void addObservation( int frame , long id , Point2D_F64 left , Point2D_F64 right , Point3D_F64 location ) {
+		if( findFrame(frame) < 0 )
+			throw new IllegalArgumentException("Unknown key frame "+frame);
+
+		int index = Arrays.binarySearch(pointId,0,numPoints,id);
+		if( index < 0 ) {
+			index = -(index+1);
+			growPoints(numPoints+1);
+			// shift points with a larger ID
+			System.arraycopy(pointId,index,pointId,index+1,numPoints-index);
+			System.arraycopy(pointFrame,index,pointFrame,index+1,numPoints-index);
+			System.arraycopy(pointLoc,index*3,pointLoc,index*3+3,(numPoints-index)*3);
+			pointId[index] = id;
+			pointFrame[index] = frame;
+			pointLoc[index*3  ] = location.x;
+			pointLoc[index*3+1] = location.y;
+			pointLoc[index*3+2] = location.z;
+			numPoints++;
+		}
+
+		if( obsFrame.length == numObs ) {
+			obsFrame = Arrays.copyOf(obsFrame,numObs*2);
+			obsPoint = Arrays.copyOf(obsPoint,numObs*2);
+			obsNorm = Arrays.copyOf(obsNorm,numObs*8);
+		}
+		obsFrame[numObs] = frame;
+		obsPoint[numObs] = id;
+		obsNorm[numObs*4  ] = left.x;
+		obsNorm[numObs*4+1] = left.y;
+		obsNorm[numObs*4+2] = right.x;
+		obsNorm[numObs*4+3] = right.y;
+		numObs++;
+	}
+
+	/**
+	 * Refines the key frames and points inside the window.  If refinement is done in the background then a
+	 * copy of the window is optimized by another thread and the results are applied later on by {@link #update()}.
+	 * If a background refinement is already being processed nothing is done.
+	 *
+	 * @return true if the window was modified and false if not
+	 */
+	public boolean refine() {
+		if( pending != null )
+			return false;
+		if( !snapshot.create() )
+			return false;
+
+		if( background ) {
+			pending = getExecutor().submit(new Runnable() {
+				@Override
+				public void run() {
+					snapshot.process();
+				}
+			});
+			return false;
+		} else {
+			snapshot.process();
+			applySnapshot();
+			return true;
+		}
+	}
+
+	/**
+	 * Applies the results of a background refinement if it has finished.
+	 *
+	 * @return true if the window was modified and false if not
+	 */
+	public boolean update() {
+		if( pending == null || !pending.isDone() )
+			return false;
+		waitForRefine();
+		pending = null;
+		applySnapshot();
+		return true;
+	}
+
+	/**
+	 * Returns true if a background refinement is being processed or its results have not been applied yet
+	 */
+	public boolean isRefining() {
+		return pending != null;
+	}
+
+	/**
+	 * Waits for a background refinement to finish.  If it threw an exception it is passed along.
+	 */
+	private void waitForRefine() {
+		if( pending == null )
+			return;
+		try {
+			pending.get();
+		} catch (InterruptedException e) {
+			throw new RuntimeException(e);
+		} catch (ExecutionException e) {
+			pending = null;
+			Throwable cause = e.getCause();
+			if( cause instanceof RuntimeException )
+				throw (RuntimeException)cause;
+			if( cause instanceof Error )
+				throw (Error)cause;
+			throw new RuntimeException(cause);
+		}
+	}
+
+	/**
+	 * Returns the executor used for background refinement.  Its thread exits after being idle for a second, so
+	 * a window which is no longer being used doesn't hold on to a thread even if it is never reset.
+	 */
+	private synchronized ExecutorService getExecutor() {
+		if( executor == null ) {
+			ThreadPoolExecutor pool = new ThreadPoolExecutor(1,1,1,TimeUnit.SECONDS,
+					new LinkedBlockingQueue<Runnable>(),new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable r) {
+					Thread t = new Thread(r,"VisOdomBundleWindow");
+					t.setDaemon(true);
+					return t;
+				}
+			});
+			pool.allowCoreThreadTimeOut(true);
+			executor = pool;
+		}
+		return executor;
+	}
+
+	private synchronized void shutdownExecutor() {
+		if( executor != null ) {
+			executor.shutdown();
+			executor = null;
+		}
+	}
+
+	/**
+	 * Updates the window using the refined snapshot.  Key frames and points which were not refined are moved by
+	 * the correction applied to the key frame they were created in.
+	 */
+	private void applySnapshot() {
+		Snapshot s = snapshot;
+		if( !s.success )
+			return;
+
+		// correction for the newest key frame in the snapshot is applied to newer key frames
+		Se3_F64 newest = null;
+		int snapshotView = 0;
+		for( int i = 0; i < numFrames; i++ ) {
+			Se3_F64 c = corrections[i];
+
+			while( snapshotView < s.numViews && s.frameId[snapshotView] < frameId[i] )
+				snapshotView++;
+
+			if( snapshotView < s.numViews && s.frameId[snapshotView] == frameId[i] ) {
+				// C = inv(refined)*original, applied to world coordinates
+				StereoPoseAndPointSchurLM.decode(s.original, snapshotView*12, original);
+				StereoPoseAndPointSchurLM.decode(s.views, snapshotView*12, refined);
+				refined.invert(tmp);
+				original.concat(tmp, c);
+				System.arraycopy(s.views,snapshotView*12,frameWorldToLeft,i*12,12);
+			} else if( frameId[i] > s.frameId[s.numViews-1] ) {
+				if( newest == null ) {
+					newest = new Se3_F64();
+					StereoPoseAndPointSchurLM.decode(s.original, (s.numViews-1)*12, original);
+					StereoPoseAndPointSchurLM.decode(s.views, (s.numViews-1)*12, refined);
+					refined.invert(tmp);
+					original.concat(tmp, newest);
+				}
+				c.set(newest);
+				// worldToLeft' = worldToLeft*inv(C)
+				StereoPoseAndPointSchurLM.decode(frameWorldToLeft, i*12, original);
+				newest.invert(tmp);
+				tmp.concat(original, refined);
+				// inverting assumes the rotation is orthonormal.  Round off error would otherwise grow each time
+				// a correction is applied, since the corrected pose is used to estimate the next key frame
+				RotationMatrixGenerator.approximateRotationMatrix(refined.getR(), R);
+				refined.getR().set(R);
+				StereoPoseAndPointSchurLM.encode(refined, frameWorldToLeft, i*12);
+			} else {
+				c.reset();
+			}
+		}
+
+		// refined points
+		if( pointRefined.length < numPoints )
+			pointRefined = new boolean[pointId.length];
+		Arrays.fill(pointRefined,0,numPoints,false);
+		for( int i = 0; i < s.numPoints; i++ ) {
+			int index = Arrays.binarySearch(pointId,0,numPoints,s.pointId[i]);
+			if( index < 0 )
+				continue;
+			System.arraycopy(s.points,i*3,pointLoc,index*3,3);
+			pointRefined[index] = true;
+		}
+
+		// move the other points along with the key frame they were created in
+		for( int i = 0; i < numPoints; i++ ) {
+			if( pointRefined[i] )
+				continue;
+			int frame = findFrame(pointFrame[i]);
+			if( frame < 0 )
+				continue;
+			point.set(pointLoc[i*3],pointLoc[i*3+1],pointLoc[i*3+2]);
+			SePointOps_F64.transform(corrections[frame], point, point);
+			pointLoc[i*3  ] = point.x;
+			pointLoc[i*3+1] = point.y;
+			pointLoc[i*3+2] = point.z;
+		}
+
+		totalRefined++;
+		refineTime = s.time;
+	}
+
+	/**
+	 * Removes the oldest key frame, its observations, and any points which are no longer observed
+	 */
+	private void removeOldestFrame() {
+		int removed = frameId[0];
+		System.arraycopy(frameId,1,frameId,0,numFrames-1);
+		System.arraycopy(frameWorldToLeft,12,frameWorldToLeft,0,(numFrames-1)*12);
+		numFrames--;
+
+		int count = 0;
+		for( int i = 0; i < numObs; i++ ) {
+			if( obsFrame[i] == removed )
+				continue;
+			obsFrame[count] = obsFrame[i];
+			obsPoint[count] = obsPoint[i];
+			System.arraycopy(obsNorm,i*4,obsNorm,count*4,4);
+			count++;
+		}
+		numObs = count;
+
+		// mark points which are still observed
+		if( pointRefined.length < numPoints )
+			pointRefined = new boolean[pointId.length];
+		Arrays.fill(pointRefined,0,numPoints,false);
+		for( int i = 0; i < numObs; i++ ) {
+			pointRefined[Arrays.binarySearch(pointId,0,numPoints,obsPoint[i])] = true;
+		}
+		count = 0;
+		for( int i = 0; i < numPoints; i++ ) {
+			if( !pointRefined[i] )
+				continue;
+			pointId[count] = pointId[i];
+			pointFrame[count] = pointFrame[i];
+			System.arraycopy(pointLoc,i*3,pointLoc,count*3,3);
+			count++;
+		}
+		numPoints = count;
+	}
+
+	private void growPoints( int length ) {
+		if( pointId.length >= length )
+			return;
+		length = Math.max(length,pointId.length*2);
+		pointId = Arrays.copyOf(pointId,length);
+		pointFrame = Arrays.copyOf(pointFrame,length);
+		pointLoc = Arrays.copyOf(pointLoc,length*3);
+	}
+
+	/**
+	 * Returns the index of the key frame with the specified ID or -1 if it isn't in the window
+	 */
+	private int findFrame( int id ) {
+		return Math.max(-1,Arrays.binarySearch(frameId,0,numFrames,id));
+	}
+
+	/**
+	 * Looks up the pose of a key frame
+	 *
+	 * @param id ID of the key frame
+	 * @param leftToWorld (Output) Transform from the left camera to the world frame
+	 * @return true if the key frame is in the window
+	 */
+	public boolean getLeftToWorld( int id , Se3_F64 leftToWorld ) {
+		int index = findFrame(id);
+		if( index < 0 )
+			return false;
+		StereoPoseAndPointSchurLM.decode(frameWorldToLeft, index*12, tmp);
+		tmp.invert(leftToWorld);
+		return true;
+	}
+
+	/**
+	 * Looks up the location of a point
+	 *
+	 * @param id ID of the point
+	 * @param location (Output) Location of the point in world coordinates
+	 * @return true if the point is in the window
+	 */
+	public boolean getPoint( long id , Point3D_F64 location ) {
+		int index = Arrays.binarySearch(pointId,0,numPoints,id);
+		if( index < 0 )
+			return false;
+		location.set(pointLoc[index*3],pointLoc[index*3+1],pointLoc[index*3+2]);
+		return true;
+	}
+
+	public int getNumKeyFrames() {
+		return numFrames;
+	}
+
+	public int getNumPoints() {
+		return numPoints;
+	}
+
+	public int getNumObservations() {
+		return numObs;
+	}
+
+	public int getMaxKeyFrames() {
+		return maxKeyFrames;
+	}
+
+	public boolean isBackground() {
+		return background;
+	}
+
+	/**
+	 * Number of times refinement results have been applied to the window
+	 */
+	public int getTotalRefined() {
+		return totalRefined;
+	}
+
+	/**
+	 * How long the last refinement which was applied took, in milliseconds
+	 */
+	public double getRefineTime() {
+		return refineTime;
+	}
+
+	/**
+	 * Copy of the window which is refined
+	 */
+	private class Snapshot {
+		int numViews;
+		int frameId[] = new int[0];
+		// refined and original world to left camera transforms
+		double views[] = new double[0];
+		double original[] = new double[0];
+
+		int numPoints;
+		long pointId[] = new long[0];
+		double points[] = new double[0];
+
+		int numObs;
+		int obsView[] = new int[0];
+		int obsPoint[] = new int[0];
+		double obs[] = new double[0];
+
+		// index of each window point in the snapshot or -1 if it's not included
+		int pointIndex[] = new int[0];
+		// number of key frames which observe each window point
+		int pointCount[] = new int[0];
+
+		// true if refinement didn't increase the cost
+		boolean success;
+		// time refinement took in milliseconds
+		double time;
+
+		/**
+		 * Copies the window.  Only points observed by two or more key frames are included.
+		 *
+		 * @return true if there is anything to refine
+		 */
+		boolean create() {
+			VisOdomBundleWindow w = VisOdomBundleWindow.this;
+			success = false;
+			if( w.numFrames < 2 )
+				return false;
+
+			numViews = w.numFrames;
+			if( frameId.length < numViews ) {
+				frameId = new int[w.maxKeyFrames];
+				views = new double[w.maxKeyFrames*12];
+				original = new double[w.maxKeyFrames*12];
+			}
+			System.arraycopy(w.frameId,0,frameId,0,numViews);
+			System.arraycopy(w.frameWorldToLeft,0,views,0,numViews*12);
+			System.arraycopy(w.frameWorldToLeft,0,original,0,numViews*12);
+
+			// count the number of key frames which see each point.  A point is only observed once by a key frame
+			if( pointIndex.length < w.numPoints ) {
+				pointIndex = new int[w.pointId.length];
+				pointCount = new int[w.pointId.length];
+			}
+			Arrays.fill(pointCount,0,w.numPoints,0);
+			for( int i = 0; i < w.numObs; i++ ) {
+				pointCount[Arrays.binarySearch(w.pointId,0,w.numPoints,w.obsPoint[i])]++;
+			}
+
+			numPoints = 0;
+			for( int i = 0; i < w.numPoints; i++ ) {
+				pointIndex[i] = pointCount[i] >= 2 ? numPoints++ : -1;
+			}
+			if( numPoints == 0 )
+				return false;
+
+			if( pointId.length < numPoints ) {
+				pointId = new long[w.pointId.length];
+				points = new double[w.pointId.length*3];
+			}
+			for( int i = 0; i < w.numPoints; i++ ) {
+				int index = pointIndex[i];
+				if( index < 0 )
+					continue;
+				pointId[index] = w.pointId[i];
+				System.arraycopy(w.pointLoc,i*3,points,index*3,3);
+			}
+
+			if( obsView.length < w.numObs ) {
+				obsView = new int[w.obsFrame.length];
+				obsPoint = new int[w.obsFrame.length];
+				obs = new double[w.obsFrame.length*4];
+			}
+			numObs = 0;
+			for( int i = 0; i < w.numObs; i++ ) {
+				int index = pointIndex[Arrays.binarySearch(w.pointId,0,w.numPoints,w.obsPoint[i])];
+				if( index < 0 )
+					continue;
+				obsView[numObs] = w.findFrame(w.obsFrame[i]);
+				obsPoint[numObs] = index;
+				System.arraycopy(w.obsNorm,i*4,obs,numObs*4,4);
+				numObs++;
+			}
+
+			return true;
+		}
+
+		/**
+		 * Refines the snapshot.  The oldest key frame is held constant.
+		 */
+		void process() {
+			long before = System.nanoTime();
+			success = bundle.process(numViews,1,views,numPoints,points,numObs,obsView,obsPoint,obs);
+			time = (System.nanoTime()-before)*1e-6;
+		}
+	}
+}
@@ -52,6 +52,11 @@ import java.util.List;
  *
  * Estimated motion is relative to left camera.
  *
+ * Optionally, recent key frames and the tracks they observe can be refined together using a
+ * {@link VisOdomBundleWindow}.  Each time the key frame changes it is added to the window along with its inlier
+ * and new tracks, then the window is refined.  The key frame's pose and the location of each track are then
+ * updated using the refined window.
+ *
  * @author Peter Abeles
  */
 public class VisOdomDualTrackPnP<T extends ImageSingleBand,Desc extends TupleDesc> {
@@ -102,6 +107,15 @@ public class VisOdomDualTrackPnP<T extends ImageSingleBand,Desc extends TupleDes
 	// transform from the current camera view to the world frame
 	private Se3_F64 currToWorld = new Se3_F64();
 
+	// optional sliding window bundle adjustment of recent key frames
+	private VisOdomBundleWindow bundle;
+	// ID of the current key frame inside the window
+	private int keyFrameId;
+	// work space for moving tracks in and out of the window
+	private Se3_F64 worldToKey = new Se3_F64();
+	private Point3D_F64 worldP3 = new Point3D_F64();
+	private List<PointTrack> allTracks = new ArrayList<PointTrack>();
+
 	// number of frames that have been processed
 	private int tick;
 	// is this the first frame
@@ -158,6 +172,25 @@ public class VisOdomDualTrackPnP<T extends ImageSingleBand,Desc extends TupleDes
 		leftImageToNorm = LensDistortionOps.transformRadialToNorm_F64(param.left );
 		rightImageToNorm = LensDistortionOps.transformRadialToNorm_F64(param.right);
 		stereoCheck.setCalibration(param);
+		if( bundle != null )
+			bundle.setLeftToRight(leftToRight);
+	}
+
+	/**
+	 * Specifies a sliding window bundle adjustment which is used to refine recent key frames.
+	 *
+	 * @param bundle The window or null to turn off refinement.
+	 */
+	public void setBundleWindow( VisOdomBundleWindow bundle ) {
+		this.bundle = bundle;
+		if( bundle != null ) {
+			bundle.reset();
+			bundle.setLeftToRight(leftToRight);
+		}
+	}
+
+	public VisOdomBundleWindow getBundleWindow() {
+		return bundle;
 	}
 
 	/**
@@ -168,6 +201,8 @@ public class VisOdomDualTrackPnP<T extends ImageSingleBand,Desc extends TupleDes
 		trackerRight.reset();
 		keyToWorld.reset();
 		currToKey.reset();
+		if( bundle != null )
+			bundle.reset();
 		first = true;
 		tick = 0;
 	}
@@ -183,11 +218,17 @@ public class VisOdomDualTrackPnP<T extends ImageSingleBand,Desc extends TupleDes
 //		System.out.println("----------- Process --------------");
 
 		tick++;
+		// results from a background refinement
+		if( bundle != null && bundle.update() )
+			applyBundle();
+
 		trackerLeft.process(left);
 		trackerRight.process(right);
 
 		if( first ) {
 			addNewTracks();
+			if( bundle != null )
+				addKeyFrameToBundle();
 			first = false;
 		} else {
 			mutualTrackDrop();
@@ -204,6 +245,8 @@ public class VisOdomDualTrackPnP<T extends ImageSingleBand,Desc extends TupleDes
 			if( thresholdAdd <= 0 || N < thresholdAdd ) {
 				changePoseToReference();
 				addNewTracks();
+				if( bundle != null )
+					addKeyFrameToBundle();
 			}
 		}
 		return true;
@@ -471,6 +514,46 @@ public class VisOdomDualTrackPnP<T extends ImageSingleBand,Desc extends TupleDes
 //		}
 	}
 
+	/**
+	 * Adds the current key frame to the window along with tracks in the inlier set and new tracks, then refines
+	 * the window.
+	 */
+	private void addKeyFrameToBundle() {
+		keyFrameId = bundle.addKeyFrame(keyToWorld);
+
+		allTracks.clear();
+		trackerLeft.getAllTracks(allTracks);
+		for( PointTrack t : allTracks ) {
+			LeftTrackInfo info = t.getCookie();
+			if( info.lastInlier != tick )
+				continue;
+
+			SePointOps_F64.transform(keyToWorld,info.location.location,worldP3);
+			bundle.addObservation(keyFrameId,t.featureId,info.location.leftObs,info.location.rightObs,worldP3);
+		}
+
+		if( bundle.refine() )
+			applyBundle();
+	}
+
+	/**
+	 * Updates the key frame's pose and each track's location using the refined window
+	 */
+	private void applyBundle() {
+		if( !bundle.getLeftToWorld(keyFrameId,keyToWorld) )
+			return;
+
+		keyToWorld.invert(worldToKey);
+
+		allTracks.clear();
+		trackerLeft.getAllTracks(allTracks);
+		for( PointTrack t : allTracks ) {
+			LeftTrackInfo info = t.getCookie();
+			if( bundle.getPoint(t.featureId,worldP3) )
+				SePointOps_F64.transform(worldToKey,worldP3,info.location.location);
+		}
+	}
+
 	private void addNewToList( PointTracker<T> tracker , ExtractTrackDescription<Desc> extract ,
 							   List<PointTrack> tracks ,
 							   FastQueue<Point2D_F64> points , FastQueue<Desc> descs )
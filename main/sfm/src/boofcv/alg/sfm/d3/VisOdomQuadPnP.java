@@ -34,11 +34,14 @@ import georegression.geometry.RotationMatrixGenerator;
 import georegression.struct.point.Point2D_F64;
 import georegression.struct.point.Point3D_F64;
 import georegression.struct.se.Se3_F64;
+import georegression.transform.se.SePointOps_F64;
 import org.ddogleg.fitting.modelset.ModelFitter;
 import org.ddogleg.fitting.modelset.ModelMatcher;
 import org.ddogleg.struct.FastQueue;
 import org.ddogleg.struct.GrowQueue_I32;
 
+import java.util.Arrays;
+
 /**
  * Stereo visual odometry algorithm which associates image features across two stereo pairs for a total of four images.
  * Image features are first matched between left and right images while applying epipolar constraints.  Then the two
@@ -56,6 +59,11 @@ import org.ddogleg.struct.GrowQueue_I32;
  *
  * Estimated motion is relative to left camera.
  *
+ * Optionally, recent frames can be refined together using a {@link VisOdomBundleWindow}.  Every frame is a key
+ * frame and each inlier is added to the window as an observation in the previous and current frame.  If an inlier's
+ * feature in the previous frame was also an inlier in the frame before then it's treated as the same point,
+ * allowing points to be observed by several frames.  After the window has been refined the current pose is updated.
+ *
  * @author Peter Abeles
  */
 public class VisOdomQuadPnP<T extends ImageSingleBand,TD extends TupleDesc> {
@@ -68,6 +76,8 @@ public class VisOdomQuadPnP<T extends ImageSingleBand,TD extends TupleDesc> {
 	private ModelFitter<Se3_F64, Stereo2D3D> modelRefiner;
 
 	private FastQueue<Stereo2D3D> modelFitData = new FastQueue<Stereo2D3D>(10,Stereo2D3D.class,true);
+	// index of the quad view each element in modelFitData was created from
+	private GrowQueue_I32 fitToQuad = new GrowQueue_I32(10);
 
 	// Detects feature inside the image
 	private DetectDescribeMulti<T,TD> detector;
@@ -97,6 +107,22 @@ public class VisOdomQuadPnP<T extends ImageSingleBand,TD extends TupleDesc> {
 	// transform from the current camera view to the world frame
 	private Se3_F64 leftCamToWorld = new Se3_F64();
 
+	// optional sliding window bundle adjustment of recent frames
+	private VisOdomBundleWindow bundle;
+	// ID of the previous frame inside the window or -1 if it isn't in the window
+	private int previousFrameId = -1;
+	// ID assigned to the next point added to the window
+	private long nextPointId;
+	// ID of the window point each feature in the previous and current left image is matched to.  -1 if none
+	private long previousIds[][];
+	private long currentIds[][];
+	// work space for adding frames to the window
+	private Se3_F64 oldToNewBundle = new Se3_F64();
+	private Se3_F64 oldToWorld = new Se3_F64();
+	private Point2D_F64 bundleLeft = new Point2D_F64();
+	private Point2D_F64 bundleRight = new Point2D_F64();
+	private Point3D_F64 worldP3 = new Point3D_F64();
+
 	// number of frames that have been processed
 	// is this the first frame
 	private boolean first = true;
@@ -130,6 +156,9 @@ public class VisOdomQuadPnP<T extends ImageSingleBand,TD extends TupleDesc> {
 		this.matcher = matcher;
 		this.modelRefiner = modelRefiner;
 
+		previousIds = new long[ detector.getNumberOfSets() ][0];
+		currentIds = new long[ detector.getNumberOfSets() ][0];
+
 		setMatches = new SetMatches[ detector.getNumberOfSets() ];
 		for( int i = 0; i < setMatches.length; i++ ) {
 			setMatches[i] = new SetMatches();
@@ -146,6 +175,26 @@ public class VisOdomQuadPnP<T extends ImageSingleBand,TD extends TupleDesc> {
 		param.rightToLeft.invert(leftToRight);
 		leftImageToNorm = LensDistortionOps.transformRadialToNorm_F64(param.left);
 		rightImageToNorm = LensDistortionOps.transformRadialToNorm_F64(param.right);
+		if( bundle != null )
+			bundle.setLeftToRight(leftToRight);
+	}
+
+	/**
+	 * Specifies a sliding window bundle adjustment which is used to refine recent frames.
+	 *
+	 * @param bundle The window or null to turn off refinement.
+	 */
+	public void setBundleWindow( VisOdomBundleWindow bundle ) {
+		this.bundle = bundle;
+		previousFrameId = -1;
+		if( bundle != null ) {
+			bundle.reset();
+			bundle.setLeftToRight(leftToRight);
+		}
+	}
+
+	public VisOdomBundleWindow getBundleWindow() {
+		return bundle;
 	}
 
 	/**
@@ -160,6 +209,9 @@ public class VisOdomQuadPnP<T extends ImageSingleBand,TD extends TupleDesc> {
 			m.reset();
 		newToOld.reset();
 		leftCamToWorld.reset();
+		if( bundle != null )
+			bundle.reset();
+		previousFrameId = -1;
 		first = true;
 	}
 
@@ -170,6 +222,9 @@ public class VisOdomQuadPnP<T extends ImageSingleBand,TD extends TupleDesc> {
 	 * @return true if motion was estimated and false if not
 	 */
 	public boolean process( T left , T right ) {
+		// results from a background refinement
+		if( bundle != null && bundle.update() )
+			bundle.getLeftToWorld(previousFrameId,leftCamToWorld);
 
 		if( first ) {
 			associateL2R(left, right);
@@ -182,8 +237,16 @@ public class VisOdomQuadPnP<T extends ImageSingleBand,TD extends TupleDesc> {
 //			long time2 = System.currentTimeMillis();
 			cyclicConsistency();
 //			long time3 = System.currentTimeMillis();
-			if( !estimateMotion() )
+			if( !estimateMotion() ) {
+				// the chain of frames is broken so start over
+				if( bundle != null ) {
+					bundle.reset();
+					previousFrameId = -1;
+				}
 				return false;
+			}
+			if( bundle != null )
+				addFrameToBundle();
 //			long time4 = System.currentTimeMillis();
 
 //			System.out.println("timing: "+(time1-time0)+" "+(time2-time1)+" "+(time3-time2)+" "+(time4-time3));
@@ -351,6 +414,9 @@ public class VisOdomQuadPnP<T extends ImageSingleBand,TD extends TupleDesc> {
 				// consistent association to new right camera image
 				if( indexIn3a == indexIn3b ) {
 					QuadView v = quadViews.grow();
+					v.set = i;
+					v.index0 = j;
+					v.index2 = indexIn2;
 					v.v0 = obs0.get(j);
 					v.v1 = obs1.get(indexIn1);
 					v.v2 = obs2.get(indexIn2);
@@ -396,6 +462,7 @@ public class VisOdomQuadPnP<T extends ImageSingleBand,TD extends TupleDesc> {
 	 */
 	private boolean estimateMotion() {
 		modelFitData.reset();
+		fitToQuad.reset();
 
 		Point2D_F64 normLeft = new Point2D_F64();
 		Point2D_F64 normRight = new Point2D_F64();
@@ -413,6 +480,7 @@ public class VisOdomQuadPnP<T extends ImageSingleBand,TD extends TupleDesc> {
 
 			// add to data set for fitting if not at infinity
 			if( !Double.isInfinite(obs.X.normSq()) ) {
+				fitToQuad.add(i);
 				Stereo2D3D data = modelFitData.grow();
 				leftImageToNorm.compute(obs.v2.x,obs.v2.y,data.leftObs);
 				rightImageToNorm.compute(obs.v3.x,obs.v3.y,data.rightObs);
@@ -449,6 +517,53 @@ public class VisOdomQuadPnP<T extends ImageSingleBand,TD extends TupleDesc> {
 		return true;
 	}
 
+	/**
+	 * Adds the current frame to the window along with the inliers, which are observed in the previous and current
+	 * frame, then refines the window.
+	 */
+	private void addFrameToBundle() {
+		newToOld.invert(oldToNewBundle).concat(leftCamToWorld,oldToWorld);
+
+		// points in the previous frame can only be looked up if it's in the window
+		boolean previousKnown = previousFrameId >= 0;
+		long tmp[][] = previousIds;
+		previousIds = currentIds;
+		currentIds = tmp;
+		for( int i = 0; i < currentIds.length; i++ ) {
+			int N = featsLeft1.location[i].size;
+			if( currentIds[i].length < N )
+				currentIds[i] = new long[N];
+			Arrays.fill(currentIds[i],0,N,-1);
+		}
+
+		if( previousFrameId < 0 )
+			previousFrameId = bundle.addKeyFrame(oldToWorld);
+		int currentFrameId = bundle.addKeyFrame(leftCamToWorld);
+
+		int N = matcher.getMatchSet().size();
+		for( int i = 0; i < N; i++ ) {
+			int index = matcher.getInputIndex(i);
+			QuadView obs = quadViews.get(fitToQuad.get(index));
+			Stereo2D3D data = modelFitData.get(index);
+
+			SePointOps_F64.transform(oldToWorld,obs.X,worldP3);
+
+			long id = previousKnown ? previousIds[obs.set][obs.index0] : -1;
+			if( id < 0 ) {
+				id = nextPointId++;
+				leftImageToNorm.compute(obs.v0.x,obs.v0.y,bundleLeft);
+				rightImageToNorm.compute(obs.v1.x,obs.v1.y,bundleRight);
+				bundle.addObservation(previousFrameId,id,bundleLeft,bundleRight,worldP3);
+			}
+			bundle.addObservation(currentFrameId,id,data.leftObs,data.rightObs,worldP3);
+			currentIds[obs.set][obs.index2] = id;
+		}
+		previousFrameId = currentFrameId;
+
+		if( bundle.refine() )
+			bundle.getLeftToWorld(currentFrameId,leftCamToWorld);
+	}
+
 	private String toString( Se3_F64 motion ) {
 		double euler[] = RotationMatrixGenerator.matrixToEulerXYZ(motion.getR());
 		return String.format("%5e %5e %5e",euler[0],euler[1],euler[2]);
@@ -530,6 +645,8 @@ public class VisOdomQuadPnP<T extends ImageSingleBand,TD extends TupleDesc> {
 		public Point3D_F64 X = new Point3D_F64();
 		// pixel observation in each camera view
 		public Point2D_F64 v0,v1,v2,v3;
+		// which set of features it belongs to and the feature's index in the previous and current left image
+		public int set,index0,index2;
 
 	}
 }
@@ -52,11 +52,15 @@ public class DistancePlane2DToPixelSq implements DistanceFromModel<Se2_F64,Plane
 	// given observations in normalized image coordinates, compute the error in pixels
 	private NormalizedToPixelError errorCamera = new NormalizedToPixelError();
 
+	// transform from plane to camera reference frame
+	private Se3_F64 planeToCamera;
+
 	/**
 	 * Specify extrinsic camera properties
 	 * @param planeToCamera Transform from plane to camera reference frame
 	 */
 	public void setExtrinsic(Se3_F64 planeToCamera) {
+		this.planeToCamera = planeToCamera;
 		planeProjection.setPlaneToCamera(planeToCamera, false);
 	}
 
@@ -70,6 +74,17 @@ public class DistancePlane2DToPixelSq implements DistanceFromModel<Se2_F64,Plane
 		errorCamera.set(fx, fy, skew);
 	}
 
+	public Se3_F64 getPlaneToCamera() {
+		return planeToCamera;
+	}
+
+	/**
+	 * Returns the intrinsic parameters used to compute the error in pixels
+	 */
+	public NormalizedToPixelError getErrorCamera() {
+		return errorCamera;
+	}
+
 	@Override
 	public void setModel(Se2_F64 keyToCurr) {
 		this.keyToCurr = keyToCurr;
@@ -36,6 +36,10 @@ public abstract class EstimatorToGenerator<Model,Point> implements ModelGenerato
 		this.alg = alg;
 	}
 
+	public GeoModelEstimator1<Model, Point> getEstimator() {
+		return alg;
+	}
+
 	@Override
 	public boolean generate(List<Point> dataSet, Model out) {
 		return alg.process(dataSet,out);
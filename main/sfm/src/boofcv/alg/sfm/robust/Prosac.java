@@ -0,0 +1,462 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.sfm.robust;
+
+import boofcv.struct.feature.MatchScoreType;
+import org.ddogleg.fitting.modelset.DistanceFromModel;
+import org.ddogleg.fitting.modelset.ModelGenerator;
+import org.ddogleg.fitting.modelset.ModelMatcher;
+import org.ddogleg.sorting.QuickSort_F64;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * <p>
+ * PROSAC (PROgressive SAmple Consensus) [1] is a variant of RANSAC which takes advantage of how good each
+ * observation is believed to be, e.g. the association score.  Instead of sampling uniformly from all the observations
+ * it starts by only sampling from the best few and then gradually adds worse observations.  If good scores are more
+ * likely to be inliers then a good hypothesis is found after far fewer iterations.  After the maximum number of
+ * iterations it is the same as RANSAC.
+ * </p>
+ *
+ * <p>
+ * Observations can either be passed in already sorted from best to worst using {@link #process(List)} or along
+ * with their scores using {@link #process(List, double[], MatchScoreType)}.
+ * </p>
+ *
+ * <p>
+ * Processing stops once enough iterations have been done to find an all inlier sample with the specified confidence.
+ * The number of iterations is computed from the inlier ratio of the n best observations, where n is selected to
+ * minimize the number of iterations.  So if the best observations are mostly inliers it can stop much sooner than
+ * RANSAC.  To prevent it from stopping with an incorrect model which happens to agree with a few points, n is
+ * only considered if its number of inliers is unlikely to be from chance, i.e. the non-randomness criteria from
+ * the paper.  Unlike the paper the number of iterations is compared against the total number of iterations and not
+ * just those drawn from the first n observations.
+ * </p>
+ *
+ * <p>
+ * Works with any {@link ModelGenerator}, e.g. {@link boofcv.abst.geo.fitting.GenerateEpipolarMatrix},
+ * {@link GenerateHomographyLinear}, and {@link boofcv.abst.geo.fitting.GenerateMotionPnP}.
+ * </p>
+ *
+ * <p>
+ * [1] Ondrej Chum and Jiri Matas, "Matching with PROSAC - Progressive Sample Consensus" CVPR 2005
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class Prosac<Model,Point> implements ModelMatcher<Model,Point> {
+
+	// random number generator used to select samples
+	private Random rand;
+
+	// creates a model from a sample
+	private ModelGenerator<Model,Point> generator;
+	// computes the distance of a point from a model
+	private DistanceFromModel<Model,Point> distance;
+
+	// number of points in a sample
+	private int sampleSize;
+	// maximum number of iterations.  After this many iterations it is sampling from all the points
+	private int maxIterations;
+	// a point is an inlier if its distance is less than this
+	private double thresholdFit;
+	// probability that an all inlier sample is found.  Used to decide when to stop.
+	private double confidence = 0.99;
+	// probability that an incorrect model is consistent with a random point
+	private double probabilityRandom = 0.05;
+	// probability that the inliers of an incorrect model are due to chance
+	private static final double PSI = 0.05;
+
+	// minimum number of inliers in the first n points for the inliers not to be due to chance
+	private int minInliers[] = new int[0];
+	// the number of points and probability that minInliers was computed for
+	private int minInliersN = -1;
+	private double minInliersProbability;
+
+	// index of points in the input list, sorted from best to worst
+	private int order[] = new int[0];
+	// sorted scores
+	private double work[] = new double[0];
+	private QuickSort_F64 sorter = new QuickSort_F64();
+
+	// sample and the index of each point in it
+	private List<Point> sample = new ArrayList<Point>();
+	private int sampleIndex[];
+
+	// the current hypothesis and the best found so far
+	private Model candidate;
+	private Model bestModel;
+	private int bestInliers;
+
+	// inliers of the best model and their index in the input list
+	private List<Point> matchSet = new ArrayList<Point>();
+	private int matchToInput[] = new int[0];
+
+	// number of iterations performed in the last call
+	private int iterations;
+	// iteration the best model was found in
+	private int iterationBest;
+
+	/**
+	 * Creates a new instance.  Parameters have the same meaning as in Ransac.
+	 *
+	 * @param randSeed Seed for the random number generator
+	 * @param generator Creates a model from a sample
+	 * @param distance Computes the distance of a point from a model
+	 * @param maxIterations Maximum number of iterations
+	 * @param thresholdFit A point is an inlier if its distance is less than this.
+	 */
+	public Prosac( long randSeed ,
+				   ModelGenerator<Model,Point> generator ,
+				   DistanceFromModel<Model,Point> distance ,
+				   int maxIterations , double thresholdFit ) {
+		this.rand = new Random(randSeed);
+		this.generator = generator;
+		this.distance = distance;
+		this.sampleSize = generator.getMinimumPoints();
+		this.maxIterations = maxIterations;
+		this.thresholdFit = thresholdFit;
+
+		sampleIndex = new int[sampleSize];
+		candidate = generator.createModelInstance();
+		bestModel = generator.createModelInstance();
+	}
+
+	/**
+	 * Finds the best model with the observations sorted by their scores.
+	 *
+	 * @param dataSet Observations.  Not modified.
+	 * @param scores Score for each observation, e.g. {@link boofcv.struct.feature.AssociatedIndex#fitScore}.
+	 * @param type Specifies if larger or smaller scores are better
+	 * @return true if a model was found
+	 */
+	public boolean process( List<Point> dataSet , double scores[] , MatchScoreType type ) {
+		int N = dataSet.size();
+		declareStorage(N);
+
+		// sort the scores so that the best is first
+		boolean zeroBest = type.isZeroBest();
+		for( int i = 0; i < N; i++ )
+			work[i] = zeroBest ? scores[i] : -scores[i];
+		sorter.sort(work,N,order);
+
+		return process(dataSet,order);
+	}
+
+	/**
+	 * Finds the best model.  The observations are assumed to be sorted from best to worst.
+	 *
+	 * @param dataSet Observations sorted from best to worst.  Not modified.
+	 * @return true if a model was found
+	 */
+	@Override
+	public boolean process(List<Point> dataSet) {
+		int N = dataSet.size();
+		declareStorage(N);
+		for( int i = 0; i < N; i++ )
+			order[i] = i;
+
+		return process(dataSet,order);
+	}
+
+	private void declareStorage( int N ) {
+		if( order.length < N ) {
+			order = new int[N];
+			work = new double[N];
+			matchToInput = new int[N];
+		}
+	}
+
+	/**
+	 * Performs PROSAC using the provided order
+	 */
+	private boolean process( List<Point> dataSet , int order[] ) {
+		matchSet.clear();
+		iterations = 0;
+		iterationBest = 0;
+		bestInliers = 0;
+
+		final int N = dataSet.size();
+		final int m = sampleSize;
+		if( N < m )
+			return false;
+
+		// size of the set of points being sampled from
+		int n = m;
+		// expected number of samples from the first n points in T_N samples
+		double T_n = maxIterations;
+		for( int i = 0; i < m; i++ )
+			T_n *= (double)(n-i)/(N-i);
+		// iteration when the next point is added to the set
+		int T_nPrime = 1;
+
+		int required = maxIterations;
+
+		while( iterations < required ) {
+			iterations++;
+
+			// grow the set being sampled from
+			if( iterations > T_nPrime && n < N ) {
+				double T_nNext = T_n*(n+1)/(n+1-m);
+				T_nPrime += (int)Math.ceil(T_nNext - T_n);
+				T_n = T_nNext;
+				n++;
+			}
+
+			if( T_nPrime < iterations ) {
+				// it's now regular RANSAC with the first n points
+				selectSample(dataSet,order,0,n);
+			} else {
+				// sample which contains the n-th point and m-1 points from the first n-1
+				selectSample(dataSet,order,1,n-1);
+				sample.add(dataSet.get(order[n-1]));
+			}
+
+			if( !generator.generate(sample,candidate) )
+				continue;
+
+			int inliers = countInliers(dataSet);
+			if( inliers > bestInliers ) {
+				bestInliers = inliers;
+				iterationBest = iterations;
+				Model tmp = bestModel;
+				bestModel = candidate;
+				candidate = tmp;
+
+				if( bestInliers == N )
+					break;
+				required = requiredIterations(dataSet,order);
+			}
+		}
+
+		if( bestInliers > 0 )
+			selectMatchSet(dataSet);
+
+		return matchSet.size() > 0;
+	}
+
+	/**
+	 * Randomly selects points from the first n in the sorted list without repeats
+	 *
+	 * @param numSkip Number of points at the end of the sample which are not selected here
+	 */
+	private void selectSample( List<Point> dataSet , int order[] , int numSkip , int n ) {
+		sample.clear();
+		for( int i = 0; i < sampleSize-numSkip; i++ ) {
+			int index;
+			boolean repeat;
+			do {
+				index = rand.nextInt(n);
+				repeat = false;
+				for( int j = 0; j < i; j++ ) {
+					if( sampleIndex[j] == index ) {
+						repeat = true;
+						break;
+					}
+				}
+			} while( repeat );
+			sampleIndex[i] = index;
+			sample.add(dataSet.get(order[index]));
+		}
+	}
+
+	/**
+	 * Counts the number of inliers for the candidate.  Stops early if it can't beat the best model.
+	 */
+	private int countInliers( List<Point> dataSet ) {
+		distance.setModel(candidate);
+
+		int N = dataSet.size();
+		int total = 0;
+		for( int i = 0; i < N; i++ ) {
+			if( distance.computeDistance(dataSet.get(i)) < thresholdFit )
+				total++;
+			else if( total + N-i-1 <= bestInliers )
+				break;
+		}
+		return total;
+	}
+
+	/**
+	 * Number of iterations needed to select a sample which is all inliers with the specified confidence.  Computed
+	 * using the inliers of the best model in the first n sorted points, for the n which requires the fewest
+	 * iterations and whose inliers are not due to chance.
+	 */
+	private int requiredIterations( List<Point> dataSet , int order[] ) {
+		if( confidence >= 1 )
+			return maxIterations;
+
+		int N = dataSet.size();
+		computeMinInliers(N);
+
+		distance.setModel(bestModel);
+		double best = maxIterations;
+		int inliers = 0;
+		for( int n = 1; n <= N; n++ ) {
+			if( distance.computeDistance(dataSet.get(order[n-1])) < thresholdFit )
+				inliers++;
+			if( n < sampleSize || inliers < minInliers[n] )
+				continue;
+
+			// probability of selecting a sample from the first n which is all inliers
+			double allInlier = 1;
+			for( int i = 0; i < sampleSize; i++ )
+				allInlier *= (double)(inliers-i)/(n-i);
+
+			double k = allInlier >= 1 ? 1 : Math.log(1-confidence)/Math.log(1-allInlier);
+			if( k < best )
+				best = k;
+		}
+		return (int)Math.ceil(best);
+	}
+
+	/**
+	 * Computes the minimum number of inliers in the first n points for the inliers of an incorrect model
+	 * to have a probability of less than PSI.  The number of points consistent with an incorrect model, besides
+	 * the sample, has a binomial distribution.
+	 */
+	private void computeMinInliers( int N ) {
+		if( N == minInliersN && probabilityRandom == minInliersProbability )
+			return;
+		minInliersN = N;
+		minInliersProbability = probabilityRandom;
+
+		if( minInliers.length < N+1 )
+			minInliers = new int[N+1];
+
+		double logP = Math.log(probabilityRandom);
+		double logOdds = Math.log((1-probabilityRandom)/probabilityRandom);
+
+		for( int n = sampleSize; n <= N; n++ ) {
+			int M = n-sampleSize;
+			// sum the probability of j or more points starting from the largest j
+			double logPmf = M*logP;
+			double tail = Math.exp(logPmf);
+			int j = M;
+			while( j > 0 ) {
+				double logPmfNext = logPmf + Math.log(j/(double)(M-j+1)) + logOdds;
+				if( tail + Math.exp(logPmfNext) >= PSI )
+					break;
+				logPmf = logPmfNext;
+				tail += Math.exp(logPmf);
+				j--;
+			}
+			// if even all the points don't have a small enough probability then it can't be used
+			if( tail >= PSI )
+				j = M+1;
+			minInliers[n] = sampleSize + j;
+		}
+	}
+
+	private void selectMatchSet( List<Point> dataSet ) {
+		distance.setModel(bestModel);
+		for( int i = 0; i < dataSet.size(); i++ ) {
+			Point p = dataSet.get(i);
+			if( distance.computeDistance(p) < thresholdFit ) {
+				matchToInput[matchSet.size()] = i;
+				matchSet.add(p);
+			}
+		}
+	}
+
+	@Override
+	public Model getModel() {
+		return bestModel;
+	}
+
+	@Override
+	public List<Point> getMatchSet() {
+		return matchSet;
+	}
+
+	@Override
+	public int getInputIndex(int matchIndex) {
+		return matchToInput[matchIndex];
+	}
+
+	/**
+	 * Same as Ransac, the number of inliers
+	 */
+	@Override
+	public double getError() {
+		return matchSet.size();
+	}
+
+	@Override
+	public int getMinimumSize() {
+		return sampleSize;
+	}
+
+	/**
+	 * Number of iterations performed in the last call to process
+	 */
+	public int getIterations() {
+		return iterations;
+	}
+
+	/**
+	 * Iteration that the best model was found in during the last call to process
+	 */
+	public int getIterationBest() {
+		return iterationBest;
+	}
+
+	public int getMaxIterations() {
+		return maxIterations;
+	}
+
+	public void setMaxIterations(int maxIterations) {
+		this.maxIterations = maxIterations;
+	}
+
+	public double getThresholdFit() {
+		return thresholdFit;
+	}
+
+	public void setThresholdFit(double thresholdFit) {
+		this.thresholdFit = thresholdFit;
+	}
+
+	public double getConfidence() {
+		return confidence;
+	}
+
+	/**
+	 * Probability that a sample with only inliers has been selected, used to decide when to stop.  Set to 1 to
+	 * always perform the maximum number of iterations.  Default is 0.99.
+	 */
+	public void setConfidence(double confidence) {
+		this.confidence = confidence;
+	}
+
+	public double getProbabilityRandom() {
+		return probabilityRandom;
+	}
+
+	/**
+	 * Probability that a point is consistent with an incorrect model by chance.  Used to decide if the inliers of
+	 * the best model could be due to chance.  Default is 0.05.
+	 */
+	public void setProbabilityRandom(double probabilityRandom) {
+		this.probabilityRandom = probabilityRandom;
+	}
+}
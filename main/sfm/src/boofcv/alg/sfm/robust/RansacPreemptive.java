@@ -0,0 +1,531 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.sfm.robust;
+
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeTask;
+import boofcv.concurrency.WorkerPool;
+import org.ddogleg.fitting.modelset.DistanceFromModel;
+import org.ddogleg.fitting.modelset.ModelGenerator;
+import org.ddogleg.fitting.modelset.ModelMatcher;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * <p>
+ * RANSAC which generates and scores hypotheses in parallel, discards poor hypotheses early using preemptive
+ * scoring, and stops once enough hypotheses have been considered for the current inlier ratio. It can be
+ * used instead of {@link org.ddogleg.fitting.modelset.ransac.Ransac}.
+ * </p>
+ *
+ * <p>
+ * Hypotheses are generated in batches.  Within a batch every hypothesis is scored against the same block of
+ * observations, then the worst half are discarded before the next block is scored [1].  This continues until the
+ * observations run out and the best remaining hypothesis is compared against the best so far.  Observations are
+ * scored in a random order which is selected once per call.  If the block size is &le; 0 then every hypothesis is
+ * scored against every observation, like regular RANSAC.  After each batch the number of hypotheses needed to
+ * find an all inlier sample with the specified confidence is computed from the best inlier ratio.  Processing stops
+ * once that number or the maximum number of hypotheses has been reached.
+ * </p>
+ *
+ * <p>
+ * If {@link BoofConcurrency#USE_CONCURRENT} is true then hypotheses are generated and scored in parallel.  Model
+ * generators and distance functions are not thread safe, so each thread uses its own instances created by
+ * {@link #createGenerator()} and {@link #createDistance()}.  If they need to be configured, e.g. with camera
+ * calibration, override {@link #configureWorker}.  Each hypothesis's sample is selected using its own seed,
+ * drawn sequentially from the main random number generator, so the results only depend on the seed and not on
+ * the number of threads.
+ * </p>
+ *
+ * <p>
+ * [1] David Nist&eacute;r, "Preemptive RANSAC for Live Structure and Motion Estimation" ICCV 2003
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public abstract class RansacPreemptive<Model,Point> implements ModelMatcher<Model,Point> {
+
+	// minimum number of distance computations done by a thread when scoring
+	private static final int MIN_SCORE_WORK = 2000;
+
+	// generates the random seed for each hypothesis
+	private Random rand;
+
+	// number of points used to generate a hypothesis
+	private int sampleSize;
+	// a point is an inlier if its distance is less than this
+	private double thresholdFit;
+	// maximum number of hypotheses
+	private int maxHypotheses;
+	// number of hypotheses in a batch
+	private int batchSize = 64;
+	// number of observations scored before the worst hypotheses are discarded
+	private int blockSize = 50;
+	// probability that an all inlier sample is found.  Used for adaptive termination
+	private double confidence = 0.99;
+
+	// generator and distance provided by the user, used by the calling thread
+	private Worker prototype;
+	// workers which are not currently being used
+	private final WorkerPool<Worker> workers = new WorkerPool<Worker>() {
+		@Override
+		protected Worker createInstance() {
+			return new Worker(createGenerator(),createDistance());
+		}
+	};
+	// incremented for each call to process so that workers know if they need to be configured again
+	private int processID;
+
+	// hypotheses in the current batch
+	private List<Model> hypotheses = new ArrayList<Model>();
+	// seed used to select the sample for each hypothesis
+	private long seeds[] = new long[0];
+	// true if a model could be generated
+	private boolean valid[] = new boolean[0];
+	// number of inliers found so far for each hypothesis
+	private int inliers[] = new int[0];
+	// hypotheses which haven't been discarded yet
+	private int survivors[] = new int[0];
+	private int numSurvivors;
+
+	// order the observations are scored in
+	private int order[] = new int[0];
+
+	// the best model found so far and its number of inliers
+	private Model bestModel;
+	private int bestInliers;
+
+	// the observations being processed
+	private List<Point> dataSet;
+
+	// inliers of the best model and their index in the input list
+	private List<Point> matchSet = new ArrayList<Point>();
+	private int matchToInput[] = new int[0];
+
+	// total number of hypotheses generated in the last call
+	private int numHypotheses;
+
+	/**
+	 * Creates a new instance.  Parameters have the same meaning as in Ransac.
+	 *
+	 * @param randSeed Seed for the random number generator
+	 * @param generator Creates a model from a sample.  Used by the calling thread.
+	 * @param distance Computes the distance of a point from a model.  Used by the calling thread.
+	 * @param maxHypotheses Maximum number of hypotheses which are generated
+	 * @param thresholdFit A point is an inlier if its distance is less than this.
+	 */
+	public RansacPreemptive( long randSeed ,
+							 ModelGenerator<Model,Point> generator ,
+							 DistanceFromModel<Model,Point> distance ,
+							 int maxHypotheses , double thresholdFit ) {
+		this.rand = new Random(randSeed);
+		this.sampleSize = generator.getMinimumPoints();
+		this.maxHypotheses = maxHypotheses;
+		this.thresholdFit = thresholdFit;
+
+		prototype = new Worker(generator,distance);
+		workers.release(prototype);
+
+		bestModel = generator.createModelInstance();
+	}
+
+	/**
+	 * Creates a new model generator which will be used by a single thread.
+	 */
+	protected abstract ModelGenerator<Model,Point> createGenerator();
+
+	/**
+	 * Creates a new distance function which will be used by a single thread.
+	 */
+	protected abstract DistanceFromModel<Model,Point> createDistance();
+
+	/**
+	 * Called once per call to {@link #process} before a generator and distance created by {@link #createGenerator()}
+	 * and {@link #createDistance()} are used. Override to copy configuration, such as camera calibration, from
+	 * the instances passed to the constructor.
+	 *
+	 * @param generator Generator used by a thread
+	 * @param distance Distance used by a thread
+	 */
+	protected void configureWorker( ModelGenerator<Model,Point> generator ,
+									DistanceFromModel<Model,Point> distance ) {}
+
+	@Override
+	public boolean process(List<Point> dataSet) {
+		matchSet.clear();
+		numHypotheses = 0;
+
+		int N = dataSet.size();
+		if( N < sampleSize )
+			return false;
+
+		this.dataSet = dataSet;
+		processID++;
+		declareStorage(N);
+
+		// random order the observations are scored in
+		for( int i = 0; i < N; i++ )
+			order[i] = i;
+		for( int i = N-1; i > 0; i-- ) {
+			int j = rand.nextInt(i+1);
+			int tmp = order[i]; order[i] = order[j]; order[j] = tmp;
+		}
+
+		bestInliers = 0;
+		int required = maxHypotheses;
+
+		while( numHypotheses < required ) {
+			int count = Math.min(batchSize,required-numHypotheses);
+			for( int i = 0; i < count; i++ )
+				seeds[i] = rand.nextLong();
+
+			generateHypotheses(count);
+			numHypotheses += count;
+
+			int winner = scoreHypotheses(count);
+			if( winner >= 0 && inliers[winner] > bestInliers ) {
+				bestInliers = inliers[winner];
+				Model tmp = bestModel;
+				bestModel = hypotheses.get(winner);
+				hypotheses.set(winner,tmp);
+
+				if( bestInliers == N )
+					break;
+				required = Math.min(maxHypotheses,requiredHypotheses(bestInliers,N));
+			}
+		}
+
+		if( bestInliers > 0 )
+			selectMatchSet();
+
+		this.dataSet = null;
+		return matchSet.size() > 0;
+	}
+
+	private void declareStorage( int N ) {
+		if( order.length < N ) {
+			order = new int[N];
+			matchToInput = new int[N];
+		}
+		if( seeds.length < batchSize ) {
+			seeds = new long[batchSize];
+			valid = new boolean[batchSize];
+			inliers = new int[batchSize];
+			survivors = new int[batchSize];
+		}
+		while( hypotheses.size() < batchSize )
+			hypotheses.add(prototype.generator.createModelInstance());
+	}
+
+	/**
+	 * Number of hypotheses needed to select a sample which is all inliers with the specified confidence
+	 */
+	private int requiredHypotheses( int numInliers , int N ) {
+		if( confidence >= 1 )
+			return maxHypotheses;
+		double inlierRatio = numInliers/(double)N;
+		double allInlier = Math.pow(inlierRatio,sampleSize);
+		if( allInlier <= 0 )
+			return maxHypotheses;
+		if( allInlier >= 1 )
+			return 1;
+		double k = Math.log(1-confidence)/Math.log(1-allInlier);
+		return (int)Math.min(maxHypotheses,Math.ceil(k));
+	}
+
+	/**
+	 * Generates a model for each hypothesis in the batch
+	 */
+	private void generateHypotheses( final int count ) {
+		if( !BoofConcurrency.USE_CONCURRENT ) {
+			generateHypotheses(prototype,0,count);
+			return;
+		}
+
+		BoofConcurrency.loopBlocks(0,count,1,new IntRangeTask() {
+			@Override
+			public void process(int start, int end) {
+				Worker w = borrow();
+				try {
+					generateHypotheses(w,start,end);
+				} finally {
+					workers.release(w);
+				}
+			}
+		});
+	}
+
+	private void generateHypotheses( Worker w , int start , int end ) {
+		int N = dataSet.size();
+		for( int i = start; i < end; i++ ) {
+			// draw a sample without repeats
+			w.rand.setSeed(seeds[i]);
+			w.sample.clear();
+			for( int j = 0; j < sampleSize; j++ ) {
+				int index;
+				boolean repeat;
+				do {
+					index = w.rand.nextInt(N);
+					repeat = false;
+					for( int k = 0; k < j; k++ ) {
+						if( w.sampleIndex[k] == index ) {
+							repeat = true;
+							break;
+						}
+					}
+				} while( repeat );
+				w.sampleIndex[j] = index;
+				w.sample.add(dataSet.get(index));
+			}
+
+			valid[i] = w.generator.generate(w.sample,hypotheses.get(i));
+		}
+	}
+
+	/**
+	 * Scores the hypotheses in blocks of observations, discarding the worst after each block.
+	 *
+	 * @return Index of the best hypothesis or -1 if none are valid
+	 */
+	private int scoreHypotheses( int count ) {
+		numSurvivors = 0;
+		for( int i = 0; i < count; i++ ) {
+			inliers[i] = 0;
+			if( valid[i] )
+				survivors[numSurvivors++] = i;
+		}
+		if( numSurvivors == 0 )
+			return -1;
+
+		int N = dataSet.size();
+		int scored = 0;
+		int stage = 0;
+		while( scored < N ) {
+			int end = blockSize > 0 ? Math.min(N,scored+blockSize) : N;
+			scoreSurvivors(scored,end);
+			scored = end;
+
+			if( scored < N && numSurvivors > 1 ) {
+				int keep = Math.max(1,count >> (stage+1));
+				if( keep < numSurvivors ) {
+					sortSurvivors();
+					numSurvivors = keep;
+				}
+			}
+			stage++;
+		}
+
+		sortSurvivors();
+		return survivors[0];
+	}
+
+	/**
+	 * Adds the number of inliers in the observations from obs0 to obs1-1 for each surviving hypothesis
+	 */
+	private void scoreSurvivors( final int obs0 , final int obs1 ) {
+		if( !BoofConcurrency.USE_CONCURRENT ) {
+			scoreSurvivors(prototype,0,numSurvivors,obs0,obs1);
+			return;
+		}
+
+		int minBlock = Math.max(1,MIN_SCORE_WORK/(obs1-obs0));
+		BoofConcurrency.loopBlocks(0,numSurvivors,minBlock,new IntRangeTask() {
+			@Override
+			public void process(int start, int end) {
+				Worker w = borrow();
+				try {
+					scoreSurvivors(w,start,end,obs0,obs1);
+				} finally {
+					workers.release(w);
+				}
+			}
+		});
+	}
+
+	private void scoreSurvivors( Worker w , int start , int end , int obs0 , int obs1 ) {
+		for( int i = start; i < end; i++ ) {
+			int h = survivors[i];
+			w.distance.setModel(hypotheses.get(h));
+
+			int total = 0;
+			for( int j = obs0; j < obs1; j++ ) {
+				if( w.distance.computeDistance(dataSet.get(order[j])) < thresholdFit )
+					total++;
+			}
+			inliers[h] += total;
+		}
+	}
+
+	/**
+	 * Sorts the survivors by the number of inliers.  Ties are broken by the hypothesis index so that the results
+	 * are deterministic.
+	 */
+	private void sortSurvivors() {
+		for( int i = 1; i < numSurvivors; i++ ) {
+			int h = survivors[i];
+			int j = i-1;
+			while( j >= 0 && isBetter(h,survivors[j]) ) {
+				survivors[j+1] = survivors[j];
+				j--;
+			}
+			survivors[j+1] = h;
+		}
+	}
+
+	private boolean isBetter( int a , int b ) {
+		return inliers[a] > inliers[b] || (inliers[a] == inliers[b] && a < b);
+	}
+
+	/**
+	 * Finds the inliers of the best model
+	 */
+	private void selectMatchSet() {
+		DistanceFromModel<Model,Point> distance = prototype.distance;
+		distance.setModel(bestModel);
+		for( int i = 0; i < dataSet.size(); i++ ) {
+			Point p = dataSet.get(i);
+			if( distance.computeDistance(p) < thresholdFit ) {
+				matchToInput[matchSet.size()] = i;
+				matchSet.add(p);
+			}
+		}
+	}
+
+	/**
+	 * Gets a worker which isn't being used by another thread and makes sure it has been configured
+	 */
+	private Worker borrow() {
+		Worker w = workers.borrow();
+
+		if( w != prototype && w.processID != processID ) {
+			configureWorker(w.generator,w.distance);
+			w.processID = processID;
+		}
+		return w;
+	}
+
+	@Override
+	public Model getModel() {
+		return bestModel;
+	}
+
+	@Override
+	public List<Point> getMatchSet() {
+		return matchSet;
+	}
+
+	@Override
+	public int getInputIndex(int matchIndex) {
+		return matchToInput[matchIndex];
+	}
+
+	/**
+	 * Same as Ransac, the number of inliers
+	 */
+	@Override
+	public double getError() {
+		return matchSet.size();
+	}
+
+	@Override
+	public int getMinimumSize() {
+		return sampleSize;
+	}
+
+	/**
+	 * Number of hypotheses generated in the last call to {@link #process}
+	 */
+	public int getNumHypotheses() {
+		return numHypotheses;
+	}
+
+	public int getMaxHypotheses() {
+		return maxHypotheses;
+	}
+
+	public void setMaxHypotheses(int maxHypotheses) {
+		this.maxHypotheses = maxHypotheses;
+	}
+
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	/**
+	 * Number of hypotheses which are generated before the best is compared against the best so far.  Adaptive
+	 * termination is checked after each batch.  Default is 64.
+	 */
+	public void setBatchSize(int batchSize) {
+		if( batchSize <= 0 )
+			throw new IllegalArgumentException("Batch size must be more than zero");
+		this.batchSize = batchSize;
+	}
+
+	public int getBlockSize() {
+		return blockSize;
+	}
+
+	/**
+	 * Number of observations which all the hypotheses are scored against before the worst half are discarded.  If
+	 * &le; 0 then hypotheses are never discarded early.  Default is 50.
+	 */
+	public void setBlockSize(int blockSize) {
+		this.blockSize = blockSize;
+	}
+
+	public double getConfidence() {
+		return confidence;
+	}
+
+	/**
+	 * Probability that a sample with only inliers has been selected, used to decide when to stop.  Set to 1 to
+	 * always generate the maximum number of hypotheses.  Default is 0.99.
+	 */
+	public void setConfidence(double confidence) {
+		this.confidence = confidence;
+	}
+
+	public double getThresholdFit() {
+		return thresholdFit;
+	}
+
+	public void setThresholdFit(double thresholdFit) {
+		this.thresholdFit = thresholdFit;
+	}
+
+	/**
+	 * Generator, distance function, and work space used by a single thread
+	 */
+	private class Worker {
+		ModelGenerator<Model,Point> generator;
+		DistanceFromModel<Model,Point> distance;
+		Random rand = new Random();
+		List<Point> sample = new ArrayList<Point>();
+		int sampleIndex[] = new int[sampleSize];
+		// the call to process it was last configured for
+		int processID = -1;
+
+		Worker(ModelGenerator<Model, Point> generator, DistanceFromModel<Model, Point> distance) {
+			this.generator = generator;
+			this.distance = distance;
+		}
+	}
+}
@@ -19,6 +19,8 @@
 package boofcv.factory.sfm;
 
 import boofcv.abst.feature.tracker.PointTracker;
+import boofcv.abst.sfm.ConfigRansac;
+import boofcv.abst.sfm.ConfigRansacPreemptive;
 import boofcv.abst.sfm.d2.ImageMotion2D;
 import boofcv.abst.sfm.d2.WrapImageMotionPtkSmartRespawn;
 import boofcv.alg.distort.ImageDistort;
@@ -76,36 +78,53 @@ public class FactoryMotion2D {
 										double respawnCoverageFraction,
 										boolean refineEstimate ,
 										PointTracker<I> tracker , IT motionModel ) {
+		return createMotion2D(new ConfigRansac(123123,ransacIterations),inlierThreshold,outlierPrune,
+				absoluteMinimumTracks,respawnTrackFraction,respawnCoverageFraction,refineEstimate,tracker,motionModel);
+	}
+
+	/**
+	 * Same as {@link #createMotion2D(int, double, int, int, double, double, boolean, PointTracker, InvertibleTransform)}
+	 * but the robust estimator is specified using a configuration.
+	 *
+	 * @param ransac Configuration for robust motion estimation.  If a {@link ConfigRansacPreemptive} then
+	 *               {@link RansacPreemptive} is used.
+	 */
+	public static <I extends ImageBase, IT extends InvertibleTransform>
+	ImageMotion2D<I,IT> createMotion2D( ConfigRansac ransac , double inlierThreshold,int outlierPrune,
+										int absoluteMinimumTracks, double respawnTrackFraction,
+										double respawnCoverageFraction,
+										boolean refineEstimate ,
+										PointTracker<I> tracker , final IT motionModel ) {
+		ransac.checkValidity();
 
-		ModelGenerator<IT,AssociatedPair> fitter;
-		DistanceFromModel<IT,AssociatedPair> distance;
+		ModelGenerator<IT,AssociatedPair> fitter = createGenerator(motionModel);
+		DistanceFromModel<IT,AssociatedPair> distance = createDistance(motionModel);
 		ModelFitter<IT,AssociatedPair> modelRefiner = null;
 
-		if( motionModel instanceof Homography2D_F64) {
-			GenerateHomographyLinear mf = new GenerateHomographyLinear(true);
-			fitter = (ModelGenerator)mf;
-			if( refineEstimate )
-				modelRefiner = (ModelFitter)mf;
-			distance = (DistanceFromModel)new DistanceHomographySq();
-		} else if( motionModel instanceof Affine2D_F64) {
-			GenerateAffine2D mf = new GenerateAffine2D();
-			fitter = (ModelGenerator)mf;
-			if( refineEstimate )
-				modelRefiner = (ModelFitter)mf;
-			distance =  (DistanceFromModel)new DistanceAffine2DSq();
-		} else if( motionModel instanceof Se2_F64) {
-			MotionTransformPoint<Se2_F64, Point2D_F64> alg = new MotionSe2PointSVD_F64();
-			GenerateSe2_AssociatedPair mf = new GenerateSe2_AssociatedPair(alg);
-			fitter = (ModelGenerator)mf;
-			distance =  (DistanceFromModel)new DistanceSe2Sq();
-			// no refine, already optimal
+		// no refine for Se2_F64, already optimal
+		if( refineEstimate && !(motionModel instanceof Se2_F64) )
+			modelRefiner = (ModelFitter)fitter;
+
+		ModelMatcher<IT,AssociatedPair>  modelMatcher;
+		if( ransac instanceof ConfigRansacPreemptive ) {
+			RansacPreemptive<IT,AssociatedPair> alg = new RansacPreemptive<IT,AssociatedPair>(
+					ransac.randSeed,fitter,distance,ransac.maxIterations,inlierThreshold) {
+				@Override
+				protected ModelGenerator<IT, AssociatedPair> createGenerator() {
+					return FactoryMotion2D.createGenerator(motionModel);
+				}
+
+				@Override
+				protected DistanceFromModel<IT, AssociatedPair> createDistance() {
+					return FactoryMotion2D.createDistance(motionModel);
+				}
+			};
+			configure(alg,(ConfigRansacPreemptive)ransac);
+			modelMatcher = alg;
 		} else {
-			throw new RuntimeException("Unknown model type: "+motionModel.getClass().getSimpleName());
+			modelMatcher = new Ransac(ransac.randSeed,fitter,distance,ransac.maxIterations,inlierThreshold);
 		}
 
-		ModelMatcher<IT,AssociatedPair>  modelMatcher =
-				new Ransac(123123,fitter,distance,ransacIterations,inlierThreshold);
-
 		ImageMotionPointTrackerKey<I,IT> lowlevel =
 				new ImageMotionPointTrackerKey<I, IT>(tracker,modelMatcher,modelRefiner,motionModel,outlierPrune);
 
@@ -116,6 +135,42 @@ public class FactoryMotion2D {
 		return new WrapImageMotionPtkSmartRespawn<I, IT>(smartRespawn);
 	}
 
+	/**
+	 * Applies settings which are specific to {@link RansacPreemptive}.  Also used by {@link FactoryVisualOdometry}.
+	 */
+	static void configure( RansacPreemptive alg , ConfigRansacPreemptive config ) {
+		alg.setBatchSize(config.batchSize);
+		alg.setBlockSize(config.blockSize);
+		alg.setConfidence(config.confidence);
+	}
+
+	private static <IT extends InvertibleTransform>
+	ModelGenerator<IT,AssociatedPair> createGenerator( IT motionModel ) {
+		if( motionModel instanceof Homography2D_F64) {
+			return (ModelGenerator)new GenerateHomographyLinear(true);
+		} else if( motionModel instanceof Affine2D_F64) {
+			return (ModelGenerator)new GenerateAffine2D();
+		} else if( motionModel instanceof Se2_F64) {
+			MotionTransformPoint<Se2_F64, Point2D_F64> alg = new MotionSe2PointSVD_F64();
+			return (ModelGenerator)new GenerateSe2_AssociatedPair(alg);
+		} else {
+			throw new RuntimeException("Unknown model type: "+motionModel.getClass().getSimpleName());
+		}
+	}
+
+	private static <IT extends InvertibleTransform>
+	DistanceFromModel<IT,AssociatedPair> createDistance( IT motionModel ) {
+		if( motionModel instanceof Homography2D_F64) {
+			return (DistanceFromModel)new DistanceHomographySq();
+		} else if( motionModel instanceof Affine2D_F64) {
+			return (DistanceFromModel)new DistanceAffine2DSq();
+		} else if( motionModel instanceof Se2_F64) {
+			return (DistanceFromModel)new DistanceSe2Sq();
+		} else {
+			throw new RuntimeException("Unknown model type: "+motionModel.getClass().getSimpleName());
+		}
+	}
+
 	/**
 	 * Estimates the image motion then combines images together.  Typically used for mosaics and stabilization.
 	 *
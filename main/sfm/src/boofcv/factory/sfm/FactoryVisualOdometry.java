@@ -31,6 +31,9 @@ import boofcv.abst.geo.Estimate1ofPnP;
 import boofcv.abst.geo.EstimateNofPnP;
 import boofcv.abst.geo.RefinePnP;
 import boofcv.abst.geo.TriangulateTwoViewsCalibrated;
+import boofcv.abst.sfm.ConfigBundleWindow;
+import boofcv.abst.sfm.ConfigRansac;
+import boofcv.abst.sfm.ConfigRansacPreemptive;
 import boofcv.abst.sfm.DepthSparse3D_to_PixelTo3D;
 import boofcv.abst.sfm.ImagePixelTo3D;
 import boofcv.abst.sfm.d2.ImageMotion2D;
@@ -38,6 +41,7 @@ import boofcv.abst.sfm.d3.*;
 import boofcv.alg.feature.associate.AssociateMaxDistanceNaive;
 import boofcv.alg.feature.associate.AssociateStereo2D;
 import boofcv.alg.geo.DistanceModelMonoPixels;
+import boofcv.alg.geo.NormalizedToPixelError;
 import boofcv.alg.geo.pose.*;
 import boofcv.alg.sfm.DepthSparse3D;
 import boofcv.alg.sfm.StereoSparse3D;
@@ -46,6 +50,7 @@ import boofcv.alg.sfm.robust.DistancePlane2DToPixelSq;
 import boofcv.alg.sfm.robust.EstimatorToGenerator;
 import boofcv.alg.sfm.robust.GenerateSe2_PlanePtPixel;
 import boofcv.alg.sfm.robust.GeoModelRefineToModelFitter;
+import boofcv.alg.sfm.robust.RansacPreemptive;
 import boofcv.factory.feature.associate.FactoryAssociation;
 import boofcv.factory.geo.EnumPNP;
 import boofcv.factory.geo.FactoryMultiView;
@@ -59,7 +64,9 @@ import boofcv.struct.sfm.PlanePtPixel;
 import boofcv.struct.sfm.Stereo2D3D;
 import georegression.struct.se.Se2_F64;
 import georegression.struct.se.Se3_F64;
+import org.ddogleg.fitting.modelset.DistanceFromModel;
 import org.ddogleg.fitting.modelset.ModelFitter;
+import org.ddogleg.fitting.modelset.ModelGenerator;
 import org.ddogleg.fitting.modelset.ModelMatcher;
 import org.ddogleg.fitting.modelset.ransac.Ransac;
 
@@ -96,15 +103,64 @@ public class FactoryVisualOdometry {
 
 													  PointTracker<T> tracker,
 													  ImageDataType<T> imageType) {
+		return monoPlaneInfinity(thresholdAdd,thresholdRetire,inlierPixelTol,new ConfigRansac(ransacIterations),
+				tracker,imageType);
+	}
+
+	/**
+	 * Same as {@link #monoPlaneInfinity(int, int, double, int, PointTracker, ImageDataType)} but the robust
+	 * estimator is specified using a configuration.
+	 *
+	 * @param ransac Configuration for robust motion estimation.  If a {@link ConfigRansacPreemptive} then
+	 *               {@link RansacPreemptive} is used.
+	 */
+	public static <T extends ImageSingleBand>
+	MonocularPlaneVisualOdometry<T> monoPlaneInfinity(int thresholdAdd,
+													  int thresholdRetire,
+
+													  double inlierPixelTol,
+													  ConfigRansac ransac,
+
+													  PointTracker<T> tracker,
+													  ImageDataType<T> imageType) {
+		ransac.checkValidity();
 
 		//squared pixel error
 		double ransacTOL = inlierPixelTol * inlierPixelTol;
 
-		DistancePlane2DToPixelSq distance = new DistancePlane2DToPixelSq();
+		final DistancePlane2DToPixelSq distance = new DistancePlane2DToPixelSq();
 		GenerateSe2_PlanePtPixel generator = new GenerateSe2_PlanePtPixel();
 
-		ModelMatcher<Se2_F64, PlanePtPixel> motion =
-				new Ransac<Se2_F64, PlanePtPixel>(2323, generator, distance, ransacIterations, ransacTOL);
+		ModelMatcher<Se2_F64, PlanePtPixel> motion;
+		if( ransac instanceof ConfigRansacPreemptive ) {
+			RansacPreemptive<Se2_F64, PlanePtPixel> alg = new RansacPreemptive<Se2_F64, PlanePtPixel>(
+					ransac.randSeed, generator, distance, ransac.maxIterations, ransacTOL) {
+				@Override
+				protected ModelGenerator<Se2_F64, PlanePtPixel> createGenerator() {
+					return new GenerateSe2_PlanePtPixel();
+				}
+
+				@Override
+				protected DistanceFromModel<Se2_F64, PlanePtPixel> createDistance() {
+					return new DistancePlane2DToPixelSq();
+				}
+
+				@Override
+				protected void configureWorker(ModelGenerator<Se2_F64, PlanePtPixel> generator,
+											   DistanceFromModel<Se2_F64, PlanePtPixel> workerDistance) {
+					NormalizedToPixelError e = distance.getErrorCamera();
+					DistancePlane2DToPixelSq d = (DistancePlane2DToPixelSq)workerDistance;
+					d.setIntrinsic(e.getFx(), e.getFy(), e.getSkew());
+					d.setExtrinsic(distance.getPlaneToCamera());
+					((GenerateSe2_PlanePtPixel)generator).setExtrinsic(distance.getPlaneToCamera());
+				}
+			};
+			FactoryMotion2D.configure(alg,(ConfigRansacPreemptive)ransac);
+			motion = alg;
+		} else {
+			motion = new Ransac<Se2_F64, PlanePtPixel>(ransac.randSeed, generator, distance,
+					ransac.maxIterations, ransacTOL);
+		}
 
 		VisOdomMonoPlaneInfinity<T> alg =
 				new VisOdomMonoPlaneInfinity<T>(thresholdAdd,thresholdRetire,inlierPixelTol,motion,tracker);
@@ -187,26 +243,38 @@ public class FactoryVisualOdometry {
 										StereoDisparitySparse<T> sparseDisparity,
 										PointTrackerTwoPass<T> tracker ,
 										Class<T> imageType) {
+		return stereoDepth(inlierPixelTol,thresholdAdd,thresholdRetire,new ConfigRansac(ransacIterations),
+				refineIterations,doublePass,sparseDisparity,tracker,imageType);
+	}
+
+	/**
+	 * Same as {@link #stereoDepth(double, int, int, int, int, boolean, StereoDisparitySparse, PointTrackerTwoPass, Class)}
+	 * but the robust estimator is specified using a configuration.
+	 *
+	 * @param ransac Configuration for robust motion estimation.  If a {@link ConfigRansacPreemptive} then
+	 *               {@link RansacPreemptive} is used.
+	 */
+	public static <T extends ImageSingleBand>
+	StereoVisualOdometry<T> stereoDepth(double inlierPixelTol,
+										int thresholdAdd,
+										int thresholdRetire ,
+										ConfigRansac ransac ,
+										int refineIterations ,
+										boolean doublePass ,
+										StereoDisparitySparse<T> sparseDisparity,
+										PointTrackerTwoPass<T> tracker ,
+										Class<T> imageType) {
+		ransac.checkValidity();
 
 		// Range from sparse disparity
 		StereoSparse3D<T> pixelTo3D = new StereoSparse3D<T>(sparseDisparity,imageType);
 
-		Estimate1ofPnP estimator = FactoryMultiView.computePnP_1(EnumPNP.P3P_FINSTERWALDER,-1,2);
-		final DistanceModelMonoPixels<Se3_F64,Point2D3D> distance = new PnPDistanceReprojectionSq();
-
-		EstimatorToGenerator<Se3_F64,Point2D3D> generator =
-				new EstimatorToGenerator<Se3_F64,Point2D3D>(estimator) {
-					@Override
-					public Se3_F64 createModelInstance() {
-						return new Se3_F64();
-					}
-				};
+		PnPDistanceReprojectionSq distance = new PnPDistanceReprojectionSq();
 
 		// 1/2 a pixel tolerance for RANSAC inliers
 		double ransacTOL = inlierPixelTol * inlierPixelTol;
 
-		ModelMatcher<Se3_F64, Point2D3D> motion =
-				new Ransac<Se3_F64, Point2D3D>(2323, generator, distance, ransacIterations, ransacTOL);
+		ModelMatcher<Se3_F64, Point2D3D> motion = createMotionPnP(ransac,ransacTOL,distance);
 
 		RefinePnP refine = null;
 
@@ -244,26 +312,38 @@ public class FactoryVisualOdometry {
 												 DepthSparse3D<Depth> sparseDepth,
 												 PointTrackerTwoPass<Vis> tracker ,
 												 Class<Vis> visualType , Class<Depth> depthType ) {
+		return depthDepthPnP(inlierPixelTol,thresholdAdd,thresholdRetire,new ConfigRansac(ransacIterations),
+				refineIterations,doublePass,sparseDepth,tracker,visualType,depthType);
+	}
+
+	/**
+	 * Same as {@link #depthDepthPnP(double, int, int, int, int, boolean, DepthSparse3D, PointTrackerTwoPass, Class, Class)}
+	 * but the robust estimator is specified using a configuration.
+	 *
+	 * @param ransac Configuration for robust motion estimation.  If a {@link ConfigRansacPreemptive} then
+	 *               {@link RansacPreemptive} is used.
+	 */
+	public static <Vis extends ImageSingleBand, Depth extends ImageSingleBand>
+	DepthVisualOdometry<Vis,Depth> depthDepthPnP(double inlierPixelTol,
+												 int thresholdAdd,
+												 int thresholdRetire ,
+												 ConfigRansac ransac ,
+												 int refineIterations ,
+												 boolean doublePass ,
+												 DepthSparse3D<Depth> sparseDepth,
+												 PointTrackerTwoPass<Vis> tracker ,
+												 Class<Vis> visualType , Class<Depth> depthType ) {
+		ransac.checkValidity();
 
 		// Range from sparse disparity
 		ImagePixelTo3D pixelTo3D = new DepthSparse3D_to_PixelTo3D<Depth>(sparseDepth);
 
-		Estimate1ofPnP estimator = FactoryMultiView.computePnP_1(EnumPNP.P3P_FINSTERWALDER,-1,2);
-		final DistanceModelMonoPixels<Se3_F64,Point2D3D> distance = new PnPDistanceReprojectionSq();
-
-		EstimatorToGenerator<Se3_F64,Point2D3D> generator =
-				new EstimatorToGenerator<Se3_F64,Point2D3D>(estimator) {
-					@Override
-					public Se3_F64 createModelInstance() {
-						return new Se3_F64();
-					}
-				};
+		PnPDistanceReprojectionSq distance = new PnPDistanceReprojectionSq();
 
 		// 1/2 a pixel tolerance for RANSAC inliers
 		double ransacTOL = inlierPixelTol * inlierPixelTol;
 
-		ModelMatcher<Se3_F64, Point2D3D> motion =
-				new Ransac<Se3_F64, Point2D3D>(2323, generator, distance, ransacIterations, ransacTOL);
+		ModelMatcher<Se3_F64, Point2D3D> motion = createMotionPnP(ransac,ransacTOL,distance);
 
 		RefinePnP refine = null;
 
@@ -303,28 +383,48 @@ public class FactoryVisualOdometry {
 												 PointTracker<T> trackerLeft, PointTracker<T> trackerRight,
 												 Class<T> imageType)
 	{
+		return stereoDualTrackerPnP(thresholdAdd,thresholdRetire,inlierPixelTol,epipolarPixelTol,
+				new ConfigRansac(ransacIterations),refineIterations,null,trackerLeft,trackerRight,imageType);
+	}
+
+	/**
+	 * Same as {@link #stereoDualTrackerPnP(int, int, double, double, int, int, PointTracker, PointTracker, Class)}
+	 * but the robust estimator is specified using a configuration and recent key frames can be refined using
+	 * sliding window bundle adjustment.
+	 *
+	 * @see VisOdomBundleWindow
+	 *
+	 * @param ransac Configuration for robust motion estimation.  If a {@link ConfigRansacPreemptive} then
+	 *               {@link RansacPreemptive} is used.
+	 * @param bundle Configuration for sliding window bundle adjustment.  If null then it is not used.
+	 */
+	public static <T extends ImageSingleBand, Desc extends TupleDesc>
+	StereoVisualOdometry<T> stereoDualTrackerPnP(int thresholdAdd, int thresholdRetire,
+												 double inlierPixelTol,
+												 double epipolarPixelTol,
+												 ConfigRansac ransac,
+												 int refineIterations,
+												 ConfigBundleWindow bundle,
+												 PointTracker<T> trackerLeft, PointTracker<T> trackerRight,
+												 Class<T> imageType)
+	{
+		ransac.checkValidity();
+		if( bundle != null )
+			bundle.checkValidity();
+
 		if( !(trackerLeft instanceof ExtractTrackDescription) || !(trackerRight instanceof ExtractTrackDescription) ) {
 			throw new IllegalArgumentException("Both trackers must implement TrackDescription");
 		}
 
-		EstimateNofPnP pnp = FactoryMultiView.computePnP_N(EnumPNP.P3P_FINSTERWALDER, -1);
 		DistanceModelMonoPixels<Se3_F64,Point2D3D> distanceMono = new PnPDistanceReprojectionSq();
 		PnPStereoDistanceReprojectionSq distanceStereo = new PnPStereoDistanceReprojectionSq();
-		PnPStereoEstimator pnpStereo = new PnPStereoEstimator(pnp,distanceMono,0);
-
-		EstimatorToGenerator<Se3_F64,Stereo2D3D> generator =
-				new EstimatorToGenerator<Se3_F64,Stereo2D3D>(pnpStereo) {
-					@Override
-					public Se3_F64 createModelInstance() {
-						return new Se3_F64();
-					}
-				};
+		PnPStereoEstimator pnpStereo = createPnPStereo(distanceMono);
 
 		// Pixel tolerance for RANSAC inliers - euclidean error squared from left + right images
 		double ransacTOL = 2*inlierPixelTol * inlierPixelTol;
 
 		ModelMatcher<Se3_F64, Stereo2D3D> motion =
-				new Ransac<Se3_F64, Stereo2D3D>(2323, generator, distanceStereo, ransacIterations, ransacTOL);
+				createMotionStereo(ransac,ransacTOL,pnpStereo,distanceStereo);
 
 		RefinePnPStereo refinePnP = null;
 		ModelFitter<Se3_F64,Stereo2D3D> refine = null;
@@ -355,6 +455,8 @@ public class FactoryVisualOdometry {
 
 		VisOdomDualTrackPnP<T,Desc> alg =  new VisOdomDualTrackPnP<T,Desc>(thresholdAdd,thresholdRetire,epipolarPixelTol,
 				trackerLeft,trackerRight,associateUnique,triangulate,motion,refine);
+		if( bundle != null )
+			alg.setBundleWindow(createBundleWindow(bundle));
 
 		return new WrapVisOdomDualTrackPnP<T>(pnpStereo,distanceMono,distanceStereo,associateStereo,alg,refinePnP,imageType);
 	}
@@ -375,24 +477,45 @@ public class FactoryVisualOdometry {
 										   DetectDescribeMulti<T,Desc> detector,
 										   Class<T> imageType )
 	{
-		EstimateNofPnP pnp = FactoryMultiView.computePnP_N(EnumPNP.P3P_FINSTERWALDER, -1);
+		return stereoQuadPnP(inlierPixelTol,epipolarPixelTol,maxDistanceF2F,maxAssociationError,
+				new ConfigRansac(ransacIterations),refineIterations,null,detector,imageType);
+	}
+
+	/**
+	 * Same as {@link #stereoQuadPnP(double, double, double, double, int, int, DetectDescribeMulti, Class)}
+	 * but the robust estimator is specified using a configuration and recent frames can be refined using
+	 * sliding window bundle adjustment.
+	 *
+	 * @see VisOdomBundleWindow
+	 *
+	 * @param ransac Configuration for robust motion estimation.  If a {@link ConfigRansacPreemptive} then
+	 *               {@link RansacPreemptive} is used.
+	 * @param bundle Configuration for sliding window bundle adjustment.  If null then it is not used.
+	 */
+	public static <T extends ImageSingleBand,Desc extends TupleDesc>
+	StereoVisualOdometry<T> stereoQuadPnP( double inlierPixelTol ,
+										   double epipolarPixelTol ,
+										   double maxDistanceF2F,
+										   double maxAssociationError,
+										   ConfigRansac ransac ,
+										   int refineIterations ,
+										   ConfigBundleWindow bundle ,
+										   DetectDescribeMulti<T,Desc> detector,
+										   Class<T> imageType )
+	{
+		ransac.checkValidity();
+		if( bundle != null )
+			bundle.checkValidity();
+
 		DistanceModelMonoPixels<Se3_F64,Point2D3D> distanceMono = new PnPDistanceReprojectionSq();
 		PnPStereoDistanceReprojectionSq distanceStereo = new PnPStereoDistanceReprojectionSq();
-		PnPStereoEstimator pnpStereo = new PnPStereoEstimator(pnp,distanceMono,0);
-
-		EstimatorToGenerator<Se3_F64,Stereo2D3D> generator =
-				new EstimatorToGenerator<Se3_F64,Stereo2D3D>(pnpStereo) {
-					@Override
-					public Se3_F64 createModelInstance() {
-						return new Se3_F64();
-					}
-				};
+		PnPStereoEstimator pnpStereo = createPnPStereo(distanceMono);
 
 		// Pixel tolerance for RANSAC inliers - euclidean error squared from left + right images
 		double ransacTOL = 2*inlierPixelTol * inlierPixelTol;
 
 		ModelMatcher<Se3_F64, Stereo2D3D> motion =
-				new Ransac<Se3_F64, Stereo2D3D>(2323, generator, distanceStereo, ransacIterations, ransacTOL);
+				createMotionStereo(ransac,ransacTOL,pnpStereo,distanceStereo);
 
 		RefinePnPStereo refinePnP = null;
 		ModelFitter<Se3_F64,Stereo2D3D> refine = null;
@@ -424,10 +547,119 @@ public class FactoryVisualOdometry {
 
 		VisOdomQuadPnP<T,Desc> alg = new VisOdomQuadPnP<T,Desc>(
 				detector,assocSame,associateStereo,triangulate,motion,refine);
+		if( bundle != null )
+			alg.setBundleWindow(createBundleWindow(bundle));
 
 		return new WrapVisOdomQuadPnP<T,Desc>(alg,refinePnP,associateStereo,distanceStereo,distanceMono,imageType);
 	}
 
+	/**
+	 * Creates the robust estimator for monocular PnP motion.
+	 */
+	private static ModelMatcher<Se3_F64, Point2D3D> createMotionPnP( ConfigRansac ransac ,
+																	double ransacTOL ,
+																	final PnPDistanceReprojectionSq distance ) {
+		ModelGenerator<Se3_F64,Point2D3D> generator = createGeneratorPnP();
+
+		if( !(ransac instanceof ConfigRansacPreemptive) )
+			return new Ransac<Se3_F64, Point2D3D>(ransac.randSeed, generator, distance, ransac.maxIterations, ransacTOL);
+
+		RansacPreemptive<Se3_F64, Point2D3D> alg = new RansacPreemptive<Se3_F64, Point2D3D>(
+				ransac.randSeed, generator, distance, ransac.maxIterations, ransacTOL) {
+			@Override
+			protected ModelGenerator<Se3_F64, Point2D3D> createGenerator() {
+				return createGeneratorPnP();
+			}
+
+			@Override
+			protected DistanceFromModel<Se3_F64, Point2D3D> createDistance() {
+				return new PnPDistanceReprojectionSq();
+			}
+
+			@Override
+			protected void configureWorker(ModelGenerator<Se3_F64, Point2D3D> generator,
+										   DistanceFromModel<Se3_F64, Point2D3D> workerDistance) {
+				NormalizedToPixelError e = distance.getPixelError();
+				((PnPDistanceReprojectionSq)workerDistance).setIntrinsic(e.getFx(), e.getFy(), e.getSkew());
+			}
+		};
+		FactoryMotion2D.configure(alg,(ConfigRansacPreemptive)ransac);
+		return alg;
+	}
+
+	private static ModelGenerator<Se3_F64, Point2D3D> createGeneratorPnP() {
+		Estimate1ofPnP estimator = FactoryMultiView.computePnP_1(EnumPNP.P3P_FINSTERWALDER,-1,2);
+
+		return new EstimatorToGenerator<Se3_F64,Point2D3D>(estimator) {
+			@Override
+			public Se3_F64 createModelInstance() {
+				return new Se3_F64();
+			}
+		};
+	}
+
+	/**
+	 * Creates the robust estimator for stereo PnP motion.
+	 */
+	private static ModelMatcher<Se3_F64, Stereo2D3D> createMotionStereo( ConfigRansac ransac ,
+																		double ransacTOL ,
+																		final PnPStereoEstimator pnpStereo ,
+																		final PnPStereoDistanceReprojectionSq distanceStereo ) {
+		ModelGenerator<Se3_F64,Stereo2D3D> generator = createGeneratorStereo(pnpStereo);
+
+		if( !(ransac instanceof ConfigRansacPreemptive) )
+			return new Ransac<Se3_F64, Stereo2D3D>(ransac.randSeed, generator, distanceStereo,
+					ransac.maxIterations, ransacTOL);
+
+		RansacPreemptive<Se3_F64, Stereo2D3D> alg = new RansacPreemptive<Se3_F64, Stereo2D3D>(
+				ransac.randSeed, generator, distanceStereo, ransac.maxIterations, ransacTOL) {
+			@Override
+			protected ModelGenerator<Se3_F64, Stereo2D3D> createGenerator() {
+				return createGeneratorStereo(createPnPStereo(new PnPDistanceReprojectionSq()));
+			}
+
+			@Override
+			protected DistanceFromModel<Se3_F64, Stereo2D3D> createDistance() {
+				return new PnPStereoDistanceReprojectionSq();
+			}
+
+			@Override
+			protected void configureWorker(ModelGenerator<Se3_F64, Stereo2D3D> generator,
+										   DistanceFromModel<Se3_F64, Stereo2D3D> distance) {
+				PnPStereoEstimator workerPnP = (PnPStereoEstimator)
+						((EstimatorToGenerator<Se3_F64, Stereo2D3D>)generator).getEstimator();
+				workerPnP.setLeftToRight(pnpStereo.getLeftToRight());
+
+				NormalizedToPixelError e = ((PnPDistanceReprojectionSq)pnpStereo.getDistance()).getPixelError();
+				((PnPDistanceReprojectionSq)workerPnP.getDistance()).setIntrinsic(e.getFx(), e.getFy(), e.getSkew());
+
+				((PnPStereoDistanceReprojectionSq)distance).setStereoParameters(distanceStereo.getStereoParameters());
+			}
+		};
+		FactoryMotion2D.configure(alg,(ConfigRansacPreemptive)ransac);
+		return alg;
+	}
+
+	private static PnPStereoEstimator createPnPStereo( DistanceModelMonoPixels<Se3_F64,Point2D3D> distanceMono ) {
+		EstimateNofPnP pnp = FactoryMultiView.computePnP_N(EnumPNP.P3P_FINSTERWALDER, -1);
+		return new PnPStereoEstimator(pnp,distanceMono,0);
+	}
+
+	private static ModelGenerator<Se3_F64, Stereo2D3D> createGeneratorStereo( PnPStereoEstimator pnpStereo ) {
+		return new EstimatorToGenerator<Se3_F64,Stereo2D3D>(pnpStereo) {
+			@Override
+			public Se3_F64 createModelInstance() {
+				return new Se3_F64();
+			}
+		};
+	}
+
+	private static VisOdomBundleWindow createBundleWindow( ConfigBundleWindow config ) {
+		StereoPoseAndPointSchurLM sba = new StereoPoseAndPointSchurLM(config.ftol,config.maxIterations);
+		sba.setMaxTime(config.maxMilliseconds);
+		return new VisOdomBundleWindow(config.maxKeyFrames,sba,config.background);
+	}
+
 	/**
 	 * Wraps around a {@link StereoVisualOdometry} instance and will rescale the input images and adjust the cameras
 	 * intrinsic parameters automatically.  Rescaling input images is often an easy way to improve runtime performance
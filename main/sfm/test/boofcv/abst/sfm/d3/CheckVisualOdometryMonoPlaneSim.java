@@ -28,8 +28,10 @@ import georegression.struct.se.Se3_F64;
 import org.ejml.ops.MatrixFeatures;
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.List;
 
 import static org.junit.Assert.assertTrue;
 
@@ -145,7 +147,33 @@ public abstract class CheckVisualOdometryMonoPlaneSim<I extends ImageSingleBand>
 	}
 
 	public void motionCheck( double angleRate , double forwardRate ) {
+		List<Se3_F64> found = processSequence(angleRate,forwardRate);
 
+		Se3_F64 worldToCurr = new Se3_F64();
+		for( int i = 0; i < found.size(); i++ ) {
+			worldToCurr.getT().z = -i*forwardRate; // move forward
+			RotationMatrixGenerator.rotY(angleRate*i,worldToCurr.getR());
+
+			// Compare to truth.  Only go for a crude approximation
+			Se3_F64 foundWorldToCurr = found.get(i);
+
+//			worldToCurr.getT().print();
+//			foundWorldToCurr.getT().print();
+
+//			worldToCurr.getR().print();
+//			foundWorldToCurr.getR().print();
+
+			assertTrue(MatrixFeatures.isIdentical(foundWorldToCurr.getR(), worldToCurr.getR(), 0.1));
+			assertTrue(foundWorldToCurr.getT().distance(worldToCurr.getT()) < tolerance );
+		}
+	}
+
+	/**
+	 * Renders and processes a sequence where the camera moves forward and turns at a constant rate
+	 *
+	 * @return The estimated world to current transform for each frame
+	 */
+	protected List<Se3_F64> processSequence( double angleRate , double forwardRate ) {
 		// Easier to make up a plane in this direction
 		Se3_F64 cameraToPlane = new Se3_F64();
 		RotationMatrixGenerator.eulerXYZ(UtilAngle.degreeToRadian(cameraAngle), 0.1, 0.0, cameraToPlane.getR());
@@ -159,6 +187,7 @@ public abstract class CheckVisualOdometryMonoPlaneSim<I extends ImageSingleBand>
 		algorithm.reset();
 		algorithm.setCalibration(new MonoPlaneParameters(param,planeToCamera));
 
+		List<Se3_F64> found = new ArrayList<Se3_F64>();
 		for( int i = 0; i < 10; i++ ) {
 //			System.out.println("-------- Real rotY = "+angleRate*i);
 			worldToCurr.getT().z = -i*forwardRate; // move forward
@@ -173,18 +202,9 @@ public abstract class CheckVisualOdometryMonoPlaneSim<I extends ImageSingleBand>
 			// process the images
 			assertTrue(algorithm.process(left));
 
-			// Compare to truth.  Only go for a crude approximation
 			Se3_F64 foundWorldToCamera = algorithm.getCameraToWorld().invert(null);
-			Se3_F64 foundWorldToCurr =  foundWorldToCamera.concat(cameraToPlane,null);
-
-//			worldToCurr.getT().print();
-//			foundWorldToCurr.getT().print();
-
-//			worldToCurr.getR().print();
-//			foundWorldToCurr.getR().print();
-
-			assertTrue(MatrixFeatures.isIdentical(foundWorldToCurr.getR(), worldToCurr.getR(), 0.1));
-			assertTrue(foundWorldToCurr.getT().distance(worldToCurr.getT()) < tolerance );
+			found.add(foundWorldToCamera.concat(cameraToPlane,null));
 		}
+		return found;
 	}
 }
@@ -27,6 +27,9 @@ import georegression.struct.se.Se3_F64;
 import org.ejml.ops.MatrixFeatures;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -67,6 +70,29 @@ public abstract class CheckVisualOdometryStereoSim<I extends ImageSingleBand>
 
 	@Test
 	public void moveForward() {
+		List<Se3_F64> found = processSequence();
+
+		Se3_F64 worldToLeft = new Se3_F64();
+		for( int i = 0; i < found.size(); i++ ) {
+			worldToLeft.getT().z = i*0.05;
+
+			// Compare to truth.  Only go for a crude approximation
+			Se3_F64 foundWorldToLeft = found.get(i);
+
+//			worldToLeft.getT().print();
+//			foundWorldToLeft.getT().print();
+
+			assertTrue(MatrixFeatures.isIdentical(foundWorldToLeft.getR(),worldToLeft.getR(),0.1));
+			assertTrue(foundWorldToLeft.getT().distance(worldToLeft.getT()) < tolerance );
+		}
+	}
+
+	/**
+	 * Renders and processes a sequence where the camera moves forward
+	 *
+	 * @return The estimated world to left camera transform for each frame
+	 */
+	protected List<Se3_F64> processSequence() {
 		algorithm.reset();
 		algorithm.setCalibration(param);
 
@@ -74,6 +100,7 @@ public abstract class CheckVisualOdometryStereoSim<I extends ImageSingleBand>
 		Se3_F64 worldToRight = new Se3_F64();
 		Se3_F64 leftToRight = param.getRightToLeft().invert(null);
 
+		List<Se3_F64> found = new ArrayList<Se3_F64>();
 		for( int i = 0; i < 10; i++ ) {
 			worldToLeft.getT().z = i*0.05;
 
@@ -88,15 +115,9 @@ public abstract class CheckVisualOdometryStereoSim<I extends ImageSingleBand>
 			// process the images
 			assertTrue(algorithm.process(left,right));
 
-			// Compare to truth.  Only go for a crude approximation
-			Se3_F64 foundWorldToLeft = algorithm.getCameraToWorld().invert(null);
-
-//			worldToLeft.getT().print();
-//			foundWorldToLeft.getT().print();
-
-			assertTrue(MatrixFeatures.isIdentical(foundWorldToLeft.getR(),worldToLeft.getR(),0.1));
-			assertTrue(foundWorldToLeft.getT().distance(worldToLeft.getT()) < tolerance );
+			found.add(algorithm.getCameraToWorld().invert(null));
 		}
+		return found;
 	}
 
 
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.abst.sfm.d3;
+
+import boofcv.abst.feature.detect.interest.ConfigGeneralDetector;
+import boofcv.abst.feature.tracker.PkltConfig;
+import boofcv.abst.feature.tracker.PointTracker;
+import boofcv.abst.sfm.ConfigRansacPreemptive;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.factory.feature.tracker.FactoryPointTracker;
+import boofcv.factory.sfm.FactoryVisualOdometry;
+import boofcv.struct.image.ImageDataType;
+import boofcv.struct.image.ImageSInt16;
+import boofcv.struct.image.ImageUInt8;
+import boofcv.testing.CompareConcurrent;
+import georegression.struct.se.Se3_F64;
+import org.ejml.ops.MatrixFeatures;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Same as {@link TestMonoMotion2D_to_MonocularPlaneVisualOdometry} but with {@link
+ * boofcv.alg.sfm.robust.RansacPreemptive} running concurrently.  Each thread has its own plane generator and
+ * distance, which need the camera's intrinsic and extrinsic parameters.
+ *
+ * @author Peter Abeles
+ */
+public class TestMonoMotion2D_to_MonocularPlaneVisualOdometryPreemptive extends TestMonoMotion2D_to_MonocularPlaneVisualOdometry {
+
+	boolean concurrent;
+	int maxThreads;
+
+	@Before
+	public void turnOnConcurrency() {
+		concurrent = BoofConcurrency.USE_CONCURRENT;
+		maxThreads = BoofConcurrency.getMaxThreads();
+		BoofConcurrency.USE_CONCURRENT = true;
+		BoofConcurrency.setMaxThreads(3);
+	}
+
+	@After
+	public void restoreConcurrency() {
+		BoofConcurrency.USE_CONCURRENT = concurrent;
+		BoofConcurrency.setMaxThreads(maxThreads);
+	}
+
+	@Override
+	protected MonocularPlaneVisualOdometry<ImageUInt8> createAlgorithm() {
+		PkltConfig config =
+				PkltConfig.createDefault(ImageUInt8.class, ImageSInt16.class);
+		config.pyramidScaling = new int[]{1,2,4,8};
+		config.templateRadius = 3;
+		config.typeInput = ImageUInt8.class;
+		config.typeDeriv = ImageSInt16.class;
+		ConfigGeneralDetector configDetector = new ConfigGeneralDetector(600,3,1);
+
+		PointTracker<ImageUInt8> tracker = FactoryPointTracker.klt(config, configDetector);
+
+		return FactoryVisualOdometry.monoPlaneInfinity(50, 2, 1.5, new ConfigRansacPreemptive(300,64,0,0.99), tracker,
+				ImageDataType.single(ImageUInt8.class));
+	}
+
+	/**
+	 * A thread whose generator or distance was not configured the same as the main thread's would select a
+	 * different set of inliers and change the estimate
+	 */
+	@Test
+	public void compareToSingleThread() {
+		new CompareConcurrent<List<Se3_F64>>() {
+			@Override
+			protected List<Se3_F64> createOutput() {
+				return new ArrayList<Se3_F64>();
+			}
+
+			@Override
+			protected void process(List<Se3_F64> output) {
+				// the random number generator isn't reset, so a new instance is needed each time
+				setAlgorithm(createAlgorithm());
+				output.addAll(processSequence(0.02,0.1));
+			}
+
+			@Override
+			protected void compare(List<Se3_F64> expected, List<Se3_F64> found) {
+				assertEquals(expected.size(),found.size());
+				for( int i = 0; i < expected.size(); i++ ) {
+					Se3_F64 e = expected.get(i);
+					Se3_F64 f = found.get(i);
+					assertTrue(MatrixFeatures.isIdentical(e.getR(),f.getR(),1e-8));
+					assertEquals(0,e.getT().distance(f.getT()),1e-8);
+				}
+			}
+		}.perform();
+	}
+}
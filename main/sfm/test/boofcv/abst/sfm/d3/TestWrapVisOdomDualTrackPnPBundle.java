@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.abst.sfm.d3;
+
+import boofcv.abst.feature.detect.interest.ConfigGeneralDetector;
+import boofcv.abst.feature.tracker.PointTracker;
+import boofcv.abst.sfm.ConfigBundleWindow;
+import boofcv.abst.sfm.ConfigRansac;
+import boofcv.factory.feature.tracker.FactoryPointTracker;
+import boofcv.factory.sfm.FactoryVisualOdometry;
+import boofcv.struct.image.ImageFloat32;
+
+/**
+ * Same as {@link TestWrapVisOdomDualTrackPnP} but with sliding window bundle adjustment
+ *
+ * @author Peter Abeles
+ */
+public class TestWrapVisOdomDualTrackPnPBundle extends TestWrapVisOdomDualTrackPnP {
+
+	@Override
+	protected StereoVisualOdometry<ImageFloat32> createAlgorithm() {
+		ConfigGeneralDetector configDetector = new ConfigGeneralDetector(600,2,1);
+		PointTracker trackerLeft = FactoryPointTracker.
+				combined_ST_SURF_KLT(configDetector, 3, new int[]{1, 2, 4, 8}, 100000, null, null,
+						ImageFloat32.class, ImageFloat32.class);
+		PointTracker trackerRight = FactoryPointTracker.
+				combined_ST_SURF_KLT(configDetector, 3, new int[]{1, 2, 4, 8}, 100000, null, null,
+						ImageFloat32.class, ImageFloat32.class);
+
+		return FactoryVisualOdometry.stereoDualTrackerPnP(90, 2, 1.5, 1.5, new ConfigRansac(200), 50,
+				new ConfigBundleWindow(4,10,-1,false),trackerLeft, trackerRight, ImageFloat32.class);
+	}
+}
@@ -0,0 +1,239 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.sfm.d3;
+
+import georegression.geometry.RotationMatrixGenerator;
+import georegression.struct.point.Point3D_F64;
+import georegression.struct.se.Se3_F64;
+import georegression.transform.se.SePointOps_F64;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestStereoPoseAndPointSchurLM {
+
+	Random rand = new Random(234);
+
+	Se3_F64 leftToRight = new Se3_F64();
+
+	int numViews = 4;
+	int numPoints = 60;
+
+	double views[];
+	double points[];
+	int numObs;
+	int obsView[];
+	int obsPoint[];
+	double obs[];
+
+	public TestStereoPoseAndPointSchurLM() {
+		leftToRight.getT().set(-0.2,0.01,0);
+		RotationMatrixGenerator.eulerXYZ(0.01,-0.02,0.005,leftToRight.getR());
+	}
+
+	/**
+	 * Creates a scene where the camera moves forward and rotates a bit.  Every point is seen by every view.
+	 */
+	private void createScene() {
+		views = new double[numViews*12];
+		points = new double[numPoints*3];
+
+		for( int i = 0; i < numViews; i++ ) {
+			Se3_F64 worldToLeft = new Se3_F64();
+			RotationMatrixGenerator.eulerXYZ(0.02*i,-0.03*i,0.01*i,worldToLeft.getR());
+			worldToLeft.getT().set(0.05*i,-0.02*i,-0.3*i);
+			StereoPoseAndPointSchurLM.encode(worldToLeft,views,i*12);
+		}
+
+		for( int i = 0; i < numPoints; i++ ) {
+			points[i*3  ] = rand.nextGaussian()*2;
+			points[i*3+1] = rand.nextGaussian()*2;
+			points[i*3+2] = 8 + rand.nextDouble()*4;
+		}
+
+		numObs = numViews*numPoints;
+		obsView = new int[numObs];
+		obsPoint = new int[numObs];
+		obs = new double[numObs*4];
+
+		Se3_F64 worldToLeft = new Se3_F64();
+		Point3D_F64 X = new Point3D_F64();
+		Point3D_F64 left = new Point3D_F64();
+		Point3D_F64 right = new Point3D_F64();
+		int k = 0;
+		for( int i = 0; i < numViews; i++ ) {
+			StereoPoseAndPointSchurLM.decode(views,i*12,worldToLeft);
+			for( int j = 0; j < numPoints; j++ , k++ ) {
+				X.set(points[j*3],points[j*3+1],points[j*3+2]);
+				SePointOps_F64.transform(worldToLeft,X,left);
+				SePointOps_F64.transform(leftToRight,left,right);
+				obsView[k] = i;
+				obsPoint[k] = j;
+				obs[k*4  ] = left.x/left.z;
+				obs[k*4+1] = left.y/left.z;
+				obs[k*4+2] = right.x/right.z;
+				obs[k*4+3] = right.y/right.z;
+			}
+		}
+	}
+
+	/**
+	 * Perfect observations with a perturbed initial estimate.  Should converge back to the true solution.
+	 */
+	@Test
+	public void perturbed() {
+		createScene();
+		double expectedViews[] = views.clone();
+		double expectedPoints[] = points.clone();
+
+		// known view isn't modified
+		for( int i = 12; i < views.length; i += 12 ) {
+			views[i+9] += 0.05;
+			views[i+11] -= 0.05;
+			Se3_F64 a = new Se3_F64();
+			StereoPoseAndPointSchurLM.decode(views,i,a);
+			Se3_F64 rot = new Se3_F64();
+			RotationMatrixGenerator.eulerXYZ(0.01,0.005,-0.01,rot.getR());
+			Se3_F64 b = a.concat(rot,null);
+			StereoPoseAndPointSchurLM.encode(b,views,i);
+		}
+		for( int i = 0; i < points.length; i++ ) {
+			points[i] += rand.nextGaussian()*0.05;
+		}
+
+		StereoPoseAndPointSchurLM alg = new StereoPoseAndPointSchurLM(1e-12,100);
+		alg.setLeftToRight(leftToRight);
+
+		assertTrue(alg.process(numViews,1,views,numPoints,points,numObs,obsView,obsPoint,obs));
+		assertTrue(alg.getInitialCost() > 1e-4);
+		assertEquals(0,alg.getCost(),1e-12);
+
+		for( int i = 0; i < views.length; i++ ) {
+			assertEquals(expectedViews[i],views[i],1e-5);
+		}
+		for( int i = 0; i < points.length; i++ ) {
+			assertEquals(expectedPoints[i],points[i],1e-4);
+		}
+	}
+
+	/**
+	 * Views marked as known should not be modified
+	 */
+	@Test
+	public void knownViews() {
+		createScene();
+		for( int i = 0; i < points.length; i++ ) {
+			points[i] += rand.nextGaussian()*0.05;
+		}
+		double original[] = views.clone();
+
+		StereoPoseAndPointSchurLM alg = new StereoPoseAndPointSchurLM(1e-12,100);
+		alg.setLeftToRight(leftToRight);
+		assertTrue(alg.process(numViews,2,views,numPoints,points,numObs,obsView,obsPoint,obs));
+
+		for( int i = 0; i < 24; i++ ) {
+			assertEquals(original[i],views[i],0);
+		}
+		assertEquals(0,alg.getCost(),1e-12);
+	}
+
+	/**
+	 * An observation of a point behind the camera should be ignored and not cause it to blow up
+	 */
+	@Test
+	public void behindCamera() {
+		createScene();
+		// move the point behind every camera
+		points[2] = -10;
+		for( int i = 3; i < points.length; i++ ) {
+			points[i] += rand.nextGaussian()*0.02;
+		}
+
+		StereoPoseAndPointSchurLM alg = new StereoPoseAndPointSchurLM(1e-12,100);
+		alg.setLeftToRight(leftToRight);
+		assertTrue(alg.process(numViews,1,views,numPoints,points,numObs,obsView,obsPoint,obs));
+
+		for( int i = 0; i < views.length; i++ ) {
+			assertTrue(!Double.isNaN(views[i]));
+		}
+		assertEquals(0,alg.getCost(),1e-12);
+		// it was ignored so shouldn't have moved
+		assertEquals(-10,points[2],0);
+	}
+
+	/**
+	 * Observations don't need to be sorted by view.  Should produce the same solution as when they are.
+	 */
+	@Test
+	public void unsortedObservations() {
+		createScene();
+		for( int i = 0; i < points.length; i++ ) {
+			points[i] += rand.nextGaussian()*0.05;
+		}
+		double sortedViews[] = views.clone();
+		double sortedPoints[] = points.clone();
+
+		// reverse the order of the observations
+		int reversedView[] = new int[numObs];
+		int reversedPoint[] = new int[numObs];
+		double reversedObs[] = new double[numObs*4];
+		for( int k = 0; k < numObs; k++ ) {
+			int j = numObs-1-k;
+			reversedView[j] = obsView[k];
+			reversedPoint[j] = obsPoint[k];
+			System.arraycopy(obs,k*4,reversedObs,j*4,4);
+		}
+
+		StereoPoseAndPointSchurLM alg = new StereoPoseAndPointSchurLM(1e-12,3);
+		alg.setLeftToRight(leftToRight);
+		alg.process(numViews,1,sortedViews,numPoints,sortedPoints,numObs,obsView,obsPoint,obs);
+		alg.process(numViews,1,views,numPoints,points,numObs,reversedView,reversedPoint,reversedObs);
+
+		for( int i = 0; i < views.length; i++ ) {
+			assertEquals(sortedViews[i],views[i],1e-8);
+		}
+		for( int i = 0; i < points.length; i++ ) {
+			assertEquals(sortedPoints[i],points[i],1e-8);
+		}
+	}
+
+	/**
+	 * Stops when the maximum number of iterations has been reached
+	 */
+	@Test
+	public void maxIterations() {
+		createScene();
+		for( int i = 0; i < points.length; i++ ) {
+			points[i] += rand.nextGaussian()*0.05;
+		}
+
+		StereoPoseAndPointSchurLM alg = new StereoPoseAndPointSchurLM(1e-12,1);
+		alg.setLeftToRight(leftToRight);
+		alg.process(numViews,1,views,numPoints,points,numObs,obsView,obsPoint,obs);
+
+		assertEquals(1,alg.getIterations());
+		assertTrue(alg.getCost() < alg.getInitialCost());
+	}
+}
@@ -0,0 +1,325 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.sfm.d3;
+
+import georegression.geometry.RotationMatrixGenerator;
+import georegression.metric.UtilAngle;
+import georegression.struct.point.Point2D_F64;
+import georegression.struct.point.Point3D_F64;
+import georegression.struct.se.Se3_F64;
+import georegression.transform.se.SePointOps_F64;
+import org.ejml.ops.CommonOps;
+import org.ejml.ops.MatrixFeatures;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestVisOdomBundleWindow {
+
+	Random rand = new Random(234);
+
+	Se3_F64 leftToRight = new Se3_F64();
+
+	// true location of points in world frame
+	List<Point3D_F64> points = new ArrayList<Point3D_F64>();
+	// true location of each frame
+	List<Se3_F64> truth = new ArrayList<Se3_F64>();
+
+	public TestVisOdomBundleWindow() {
+		leftToRight.getT().set(-0.2,0,0);
+
+		for( int i = 0; i < 400; i++ ) {
+			points.add(new Point3D_F64(rand.nextGaussian()*3,rand.nextGaussian()*2,5+rand.nextDouble()*15));
+		}
+		for( int i = 0; i < 10; i++ ) {
+			Se3_F64 leftToWorld = new Se3_F64();
+			RotationMatrixGenerator.eulerXYZ(0,0.01*i,0,leftToWorld.getR());
+			leftToWorld.getT().set(0.02*i,0,0.4*i);
+			truth.add(leftToWorld);
+		}
+	}
+
+	private VisOdomBundleWindow createWindow( int maxKeyFrames , boolean background ) {
+		StereoPoseAndPointSchurLM sba = new StereoPoseAndPointSchurLM(1e-12,50);
+		VisOdomBundleWindow alg = new VisOdomBundleWindow(maxKeyFrames,sba,background);
+		alg.setLeftToRight(leftToRight);
+		return alg;
+	}
+
+	/**
+	 * Adds a frame with the estimated pose and observations of every visible point.  Point estimates are
+	 * in error by a constant offset in the estimated frame.
+	 */
+	private int addFrame( VisOdomBundleWindow alg , int index , Se3_F64 estimated ) {
+		int frame = alg.addKeyFrame(estimated);
+
+		Se3_F64 worldToLeft = truth.get(index).invert(null);
+		Point3D_F64 left = new Point3D_F64();
+		Point3D_F64 right = new Point3D_F64();
+		Point3D_F64 guess = new Point3D_F64();
+		for( int i = 0; i < points.size(); i++ ) {
+			SePointOps_F64.transform(worldToLeft,points.get(i),left);
+			if( left.z < 1 )
+				continue;
+			SePointOps_F64.transform(leftToRight,left,right);
+
+			// where the point would be if the estimated pose was correct
+			SePointOps_F64.transform(estimated,left,guess);
+			guess.x += rand.nextGaussian()*0.02;
+			guess.y += rand.nextGaussian()*0.02;
+			guess.z += rand.nextGaussian()*0.1;
+
+			alg.addObservation(frame,i,new Point2D_F64(left.x/left.z,left.y/left.z),
+					new Point2D_F64(right.x/right.z,right.y/right.z),guess);
+		}
+		return frame;
+	}
+
+	/**
+	 * Estimated pose which has drifted away from the truth
+	 */
+	private Se3_F64 drifted( int index ) {
+		Se3_F64 drift = new Se3_F64();
+		RotationMatrixGenerator.eulerXYZ(0.003*index,-0.002*index,0.001*index,drift.getR());
+		drift.getT().set(0.01*index,-0.01*index,0.02*index);
+		return drift.concat(truth.get(index),null);
+	}
+
+	/**
+	 * Refining a window with drift in its estimated poses should move them back to their true location
+	 */
+	@Test
+	public void refine_removeDrift() {
+		VisOdomBundleWindow alg = createWindow(5,false);
+
+		int frames[] = new int[5];
+		for( int i = 0; i < 5; i++ ) {
+			frames[i] = addFrame(alg,i,drifted(i));
+		}
+
+		Se3_F64 before = new Se3_F64();
+		alg.getLeftToWorld(frames[4],before);
+		double errorBefore = before.getT().distance(truth.get(4).getT());
+
+		assertTrue(alg.refine());
+		assertEquals(1,alg.getTotalRefined());
+
+		// the oldest frame is fixed and has no error, so the others should be very close to the truth
+		Se3_F64 found = new Se3_F64();
+		for( int i = 0; i < 5; i++ ) {
+			assertTrue(alg.getLeftToWorld(frames[i],found));
+			assertEquals(0,found.getT().distance(truth.get(i).getT()),1e-4);
+			assertEquals(0,rotationError(found,truth.get(i)),1e-4);
+		}
+		assertTrue(errorBefore > 0.05);
+
+		Point3D_F64 p = new Point3D_F64();
+		assertTrue(alg.getPoint(10,p));
+		assertEquals(0,p.distance(points.get(10)),1e-4);
+	}
+
+	/**
+	 * Frames and points which are added while a background refinement is running should be moved by the
+	 * correction.  Results should be the same as when refinement is done in the calling thread.
+	 */
+	@Test
+	public void refine_background() {
+		VisOdomBundleWindow sync = createWindow(5,false);
+		VisOdomBundleWindow async = createWindow(5,true);
+
+		for( int i = 0; i < 3; i++ ) {
+			Random seed = rand;
+			rand = new Random(i);
+			addFrame(sync,i,drifted(i));
+			rand = new Random(i);
+			addFrame(async,i,drifted(i));
+			rand = seed;
+		}
+
+		assertTrue(sync.refine());
+		assertFalse(async.refine());
+		assertTrue(async.isRefining());
+		// can't start a second refinement
+		assertFalse(async.refine());
+
+		// add a new frame while it's being refined
+		rand = new Random(10);
+		int frameSync = addFrame(sync,3,drifted(3));
+		rand = new Random(10);
+		int frameAsync = addFrame(async,3,drifted(3));
+
+		// wait for it to finish
+		while( !async.update() ) {
+			Thread.yield();
+		}
+		assertFalse(async.isRefining());
+		assertEquals(1,async.getTotalRefined());
+
+		// the new frame in the sync window was added after refinement, so to compare it needs to be corrected
+		// the same way.  Compare against the previous frame instead, which was refined in both
+		Se3_F64 a = new Se3_F64();
+		Se3_F64 b = new Se3_F64();
+		sync.getLeftToWorld(frameSync-1,a);
+		async.getLeftToWorld(frameAsync-1,b);
+		assertEquals(0,a.getT().distance(b.getT()),1e-8);
+		assertEquals(0,rotationError(a,b),1e-8);
+
+		// the frame added during refinement was moved by the correction and is now closer to the truth
+		Se3_F64 before = drifted(3);
+		async.getLeftToWorld(frameAsync,b);
+		double errorBefore = before.getT().distance(truth.get(3).getT());
+		double errorAfter = b.getT().distance(truth.get(3).getT());
+		assertTrue(errorAfter < errorBefore*0.7);
+	}
+
+	/**
+	 * Frames which are moved by the correction should have a rotation matrix, even if their original rotation
+	 * had accumulated some round off error.  Otherwise the error grows each time a correction is applied.
+	 */
+	@Test
+	public void refine_background_orthonormal() {
+		VisOdomBundleWindow alg = createWindow(5,true);
+		for( int i = 0; i < 3; i++ ) {
+			addFrame(alg,i,drifted(i));
+		}
+		assertFalse(alg.refine());
+
+		Se3_F64 estimated = drifted(3);
+		CommonOps.scale(1+1e-3,estimated.getR());
+		int frame = addFrame(alg,3,estimated);
+
+		while( !alg.update() ) {
+			Thread.yield();
+		}
+
+		Se3_F64 found = new Se3_F64();
+		alg.getLeftToWorld(frame,found);
+		assertTrue(MatrixFeatures.isOrthogonal(found.getR(),1e-12));
+		assertEquals(1,CommonOps.det(found.getR()),1e-12);
+	}
+
+	/**
+	 * When the window is full the oldest frame should be removed along with points which are no longer observed
+	 */
+	@Test
+	public void addKeyFrame_removeOldest() {
+		VisOdomBundleWindow alg = createWindow(2,false);
+
+		Point2D_F64 obs = new Point2D_F64(0.1,0.2);
+		Point3D_F64 X = new Point3D_F64(1,2,3);
+
+		int frame0 = alg.addKeyFrame(new Se3_F64());
+		alg.addObservation(frame0,5,obs,obs,X);
+		alg.addObservation(frame0,2,obs,obs,X);
+		int frame1 = alg.addKeyFrame(new Se3_F64());
+		alg.addObservation(frame1,5,obs,obs,X);
+		alg.addObservation(frame1,7,obs,obs,X);
+
+		assertEquals(2,alg.getNumKeyFrames());
+		assertEquals(3,alg.getNumPoints());
+		assertEquals(4,alg.getNumObservations());
+
+		int frame2 = alg.addKeyFrame(new Se3_F64());
+		assertEquals(2,alg.getNumKeyFrames());
+		assertEquals(2,alg.getNumPoints());
+		assertEquals(2,alg.getNumObservations());
+
+		assertFalse(alg.getLeftToWorld(frame0,new Se3_F64()));
+		assertTrue(alg.getLeftToWorld(frame1,new Se3_F64()));
+		assertTrue(alg.getLeftToWorld(frame2,new Se3_F64()));
+
+		assertFalse(alg.getPoint(2,X));
+		assertTrue(alg.getPoint(5,X));
+		assertTrue(alg.getPoint(7,X));
+	}
+
+	/**
+	 * Nothing to refine if there are no points observed by two frames
+	 */
+	@Test
+	public void refine_nothing() {
+		VisOdomBundleWindow alg = createWindow(3,false);
+
+		Point2D_F64 obs = new Point2D_F64(0.1,0.2);
+		Point3D_F64 X = new Point3D_F64(1,2,3);
+
+		int frame0 = alg.addKeyFrame(new Se3_F64());
+		alg.addObservation(frame0,1,obs,obs,X);
+		assertFalse(alg.refine());
+		int frame1 = alg.addKeyFrame(new Se3_F64());
+		alg.addObservation(frame1,2,obs,obs,X);
+		assertFalse(alg.refine());
+		assertEquals(0,alg.getTotalRefined());
+	}
+
+	@Test
+	public void reset() {
+		VisOdomBundleWindow alg = createWindow(5,true);
+		for( int i = 0; i < 3; i++ ) {
+			addFrame(alg,i,drifted(i));
+		}
+		alg.refine();
+		alg.reset();
+
+		assertFalse(alg.isRefining());
+		assertFalse(alg.update());
+		assertEquals(0,alg.getNumKeyFrames());
+		assertEquals(0,alg.getNumPoints());
+		assertEquals(0,alg.getNumObservations());
+	}
+
+	/**
+	 * Reset shuts down the background thread.  It should be created again the next time it's needed.
+	 */
+	@Test
+	public void reset_refineBackgroundAgain() {
+		VisOdomBundleWindow alg = createWindow(5,true);
+		for( int i = 0; i < 3; i++ ) {
+			addFrame(alg,i,drifted(i));
+		}
+		alg.refine();
+		alg.reset();
+
+		for( int i = 0; i < 3; i++ ) {
+			addFrame(alg,i,drifted(i));
+		}
+		assertFalse(alg.refine());
+		while( !alg.update() ) {
+			Thread.yield();
+		}
+		assertEquals(1,alg.getTotalRefined());
+	}
+
+	private static double rotationError( Se3_F64 a , Se3_F64 b ) {
+		Se3_F64 diff = a.concat(b.invert(null),null);
+		double euler[] = RotationMatrixGenerator.matrixToEulerXYZ(diff.getR());
+		double error = 0;
+		for( int i = 0; i < 3; i++ ) {
+			error = Math.max(error,Math.abs(UtilAngle.bound(euler[i])));
+		}
+		return error;
+	}
+}
@@ -0,0 +1,215 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.sfm.robust;
+
+import boofcv.struct.feature.MatchScoreType;
+import boofcv.struct.geo.AssociatedPair;
+import georegression.struct.affine.Affine2D_F64;
+import georegression.struct.point.Point2D_F64;
+import georegression.transform.affine.AffinePointOps;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestProsac {
+
+	Random rand = new Random(234);
+
+	Affine2D_F64 model = new Affine2D_F64(1.1,0.1,-0.2,0.9,2,-3);
+
+	List<AssociatedPair> obs = new ArrayList<AssociatedPair>();
+	// smaller is better.  Inliers tend to have better scores
+	double scores[];
+
+	/**
+	 * Creates observations where the specified fraction are outliers.  Every other inlier has a good score
+	 * and the remaining observations have scores which are randomly distributed.
+	 */
+	private void createObservations( int N , double fractionOutlier ) {
+		obs.clear();
+		scores = new double[N];
+
+		for( int i = 0; i < N; i++ ) {
+			AssociatedPair p = new AssociatedPair();
+			p.p1.set(rand.nextDouble()*100,rand.nextDouble()*100);
+			if( i < N*fractionOutlier ) {
+				p.p2.set(rand.nextDouble()*100,rand.nextDouble()*100);
+				scores[i] = 1 + rand.nextDouble();
+			} else {
+				AffinePointOps.transform(model,p.p1,p.p2);
+				scores[i] = i % 2 == 0 ? rand.nextDouble() : 1 + rand.nextDouble();
+			}
+			obs.add(p);
+		}
+	}
+
+	private Prosac<Affine2D_F64,AssociatedPair> createAlg( int maxIterations ) {
+		return new Prosac<Affine2D_F64,AssociatedPair>(
+				234,new GenerateAffine2D(),new DistanceAffine2DSq(),maxIterations,0.5);
+	}
+
+	/**
+	 * Finds the model when provided with scores
+	 */
+	@Test
+	public void process_scores() {
+		createObservations(300, 0.7);
+
+		Prosac<Affine2D_F64,AssociatedPair> alg = createAlg(5000);
+		assertTrue(alg.process(obs,scores,MatchScoreType.NORM_ERROR));
+		checkResults(alg,90);
+	}
+
+	/**
+	 * Larger scores are better with correlation
+	 */
+	@Test
+	public void process_scores_correlation() {
+		createObservations(300, 0.7);
+		for( int i = 0; i < scores.length; i++ )
+			scores[i] = -scores[i];
+
+		Prosac<Affine2D_F64,AssociatedPair> alg = createAlg(5000);
+		assertTrue(alg.process(obs,scores,MatchScoreType.CORRELATION));
+		checkResults(alg,90);
+		assertTrue(alg.getIterationBest() < 30);
+	}
+
+	/**
+	 * Finds the model when the input list is already sorted
+	 */
+	@Test
+	public void process_sorted() {
+		createObservations(300, 0.7);
+
+		// put the best scores first
+		List<AssociatedPair> sorted = new ArrayList<AssociatedPair>();
+		for( int i = 0; i < obs.size(); i++ ) {
+			if( scores[i] < 1 )
+				sorted.add(obs.get(i));
+		}
+		for( int i = 0; i < obs.size(); i++ ) {
+			if( scores[i] >= 1 )
+				sorted.add(obs.get(i));
+		}
+		obs = sorted;
+
+		Prosac<Affine2D_F64,AssociatedPair> alg = createAlg(5000);
+		assertTrue(alg.process(obs));
+		checkResults(alg,90);
+		assertTrue(alg.getIterationBest() < 30);
+	}
+
+	/**
+	 * Good scores should result in the solution being found much sooner than with scores with no
+	 * information
+	 */
+	@Test
+	public void fewerIterations() {
+		createObservations(300, 0.7);
+
+		Prosac<Affine2D_F64,AssociatedPair> alg = createAlg(5000);
+		alg.setConfidence(1);
+		assertTrue(alg.process(obs,scores,MatchScoreType.NORM_ERROR));
+		int good = alg.getIterationBest();
+		assertEquals(5000,alg.getIterations());
+
+		for( int i = 0; i < scores.length; i++ )
+			scores[i] = rand.nextDouble();
+		assertTrue(alg.process(obs,scores,MatchScoreType.NORM_ERROR));
+		int random = alg.getIterationBest();
+
+		assertTrue(good*4 < random);
+		assertEquals(5000,alg.getIterations());
+	}
+
+	/**
+	 * If the best observations are mostly inliers it should stop much sooner than RANSAC would
+	 */
+	@Test
+	public void stopEarly() {
+		createObservations(300, 0.7);
+
+		Prosac<Affine2D_F64,AssociatedPair> alg = createAlg(5000);
+		assertTrue(alg.process(obs,scores,MatchScoreType.NORM_ERROR));
+		checkResults(alg,90);
+		// RANSAC needs 168 iterations with this inlier ratio
+		assertTrue(alg.getIterations() < 50);
+
+		// no information in the scores so the inlier ratio is the same for all n
+		for( int i = 0; i < scores.length; i++ )
+			scores[i] = rand.nextDouble();
+		assertTrue(alg.process(obs,scores,MatchScoreType.NORM_ERROR));
+		checkResults(alg,90);
+		assertTrue(alg.getIterations() > 100);
+	}
+
+	/**
+	 * An incorrect model will agree with a few of the best observations by chance.  Make sure it doesn't stop
+	 * because of that.
+	 */
+	@Test
+	public void stopEarly_random() {
+		createObservations(300, 0.7);
+
+		// the best observations are outliers
+		for( int i = 0; i < scores.length; i++ )
+			scores[i] = i < 210 ? rand.nextDouble() : 1 + rand.nextDouble();
+
+		Prosac<Affine2D_F64,AssociatedPair> alg = createAlg(5000);
+		assertTrue(alg.process(obs,scores,MatchScoreType.NORM_ERROR));
+		checkResults(alg,90);
+	}
+
+	@Test
+	public void tooFewPoints() {
+		createObservations(2, 0);
+		Prosac<Affine2D_F64,AssociatedPair> alg = createAlg(200);
+		assertFalse(alg.process(obs));
+		assertEquals(0,alg.getMatchSet().size());
+	}
+
+	private void checkResults( Prosac<Affine2D_F64, AssociatedPair> alg , int numInliers ) {
+		Affine2D_F64 found = alg.getModel();
+		assertEquals(model.a11,found.a11,1e-8);
+		assertEquals(model.a12,found.a12,1e-8);
+		assertEquals(model.a21,found.a21,1e-8);
+		assertEquals(model.a22,found.a22,1e-8);
+		assertEquals(model.tx,found.tx,1e-8);
+		assertEquals(model.ty,found.ty,1e-8);
+
+		List<AssociatedPair> inliers = alg.getMatchSet();
+		assertEquals(numInliers,inliers.size());
+		assertEquals(numInliers,alg.getError(),1e-8);
+		Point2D_F64 expected = new Point2D_F64();
+		for( int i = 0; i < inliers.size(); i++ ) {
+			AssociatedPair p = inliers.get(i);
+			assertTrue(p == obs.get(alg.getInputIndex(i)));
+			AffinePointOps.transform(model,p.p1,expected);
+			assertEquals(0,expected.distance(p.p2),1e-8);
+		}
+	}
+}
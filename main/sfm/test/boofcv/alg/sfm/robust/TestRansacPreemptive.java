@@ -0,0 +1,213 @@
+/*
+ * Copyright (c) 2011-2013, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.sfm.robust;
+
+import boofcv.struct.geo.AssociatedPair;
+import boofcv.testing.CompareConcurrent;
+import georegression.struct.affine.Affine2D_F64;
+import georegression.struct.point.Point2D_F64;
+import georegression.transform.affine.AffinePointOps;
+import org.ddogleg.fitting.modelset.DistanceFromModel;
+import org.ddogleg.fitting.modelset.ModelGenerator;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestRansacPreemptive {
+
+	Random rand = new Random(234);
+
+	Affine2D_F64 model = new Affine2D_F64(1.1,0.1,-0.2,0.9,2,-3);
+
+	/**
+	 * Creates a set of observations where the specified fraction are outliers
+	 */
+	private List<AssociatedPair> createObservations( int N , double fractionOutlier ) {
+		List<AssociatedPair> list = new ArrayList<AssociatedPair>();
+
+		for( int i = 0; i < N; i++ ) {
+			AssociatedPair p = new AssociatedPair();
+			p.p1.set(rand.nextDouble()*100,rand.nextDouble()*100);
+			if( i < N*fractionOutlier ) {
+				p.p2.set(rand.nextDouble()*100,rand.nextDouble()*100);
+			} else {
+				AffinePointOps.transform(model,p.p1,p.p2);
+			}
+			list.add(p);
+		}
+
+		return list;
+	}
+
+	private RansacPreemptive<Affine2D_F64,AssociatedPair> createAlg( int maxHypotheses ) {
+		return new RansacPreemptive<Affine2D_F64,AssociatedPair>(
+				234,new GenerateAffine2D(),new DistanceAffine2DSq(),maxHypotheses,0.5) {
+			@Override
+			protected ModelGenerator<Affine2D_F64, AssociatedPair> createGenerator() {
+				return new GenerateAffine2D();
+			}
+
+			@Override
+			protected DistanceFromModel<Affine2D_F64, AssociatedPair> createDistance() {
+				return new DistanceAffine2DSq();
+			}
+		};
+	}
+
+	/**
+	 * Finds the model and all the inliers when there are a lot of outliers
+	 */
+	@Test
+	public void findModel() {
+		List<AssociatedPair> obs = createObservations(300,0.6);
+
+		RansacPreemptive<Affine2D_F64,AssociatedPair> alg = createAlg(1000);
+
+		assertTrue(alg.process(obs));
+
+		checkResults(alg, obs, 120);
+	}
+
+	/**
+	 * Every hypothesis is scored against every observation
+	 */
+	@Test
+	public void findModel_noPreemption() {
+		List<AssociatedPair> obs = createObservations(300,0.6);
+
+		RansacPreemptive<Affine2D_F64,AssociatedPair> alg = createAlg(1000);
+		alg.setBlockSize(0);
+
+		assertTrue(alg.process(obs));
+
+		checkResults(alg, obs, 120);
+	}
+
+	private void checkResults(RansacPreemptive<Affine2D_F64, AssociatedPair> alg, List<AssociatedPair> obs, int numInliers ) {
+		Affine2D_F64 found = alg.getModel();
+		assertEquals(model.a11,found.a11,1e-8);
+		assertEquals(model.a12,found.a12,1e-8);
+		assertEquals(model.a21,found.a21,1e-8);
+		assertEquals(model.a22,found.a22,1e-8);
+		assertEquals(model.tx,found.tx,1e-8);
+		assertEquals(model.ty,found.ty,1e-8);
+
+		List<AssociatedPair> inliers = alg.getMatchSet();
+		assertEquals(numInliers,inliers.size());
+		assertEquals(numInliers,alg.getError(),1e-8);
+		Point2D_F64 expected = new Point2D_F64();
+		for( int i = 0; i < inliers.size(); i++ ) {
+			AssociatedPair p = inliers.get(i);
+			assertTrue(p == obs.get(alg.getInputIndex(i)));
+			AffinePointOps.transform(model,p.p1,expected);
+			assertEquals(0,expected.distance(p.p2),1e-8);
+		}
+	}
+
+	/**
+	 * Fewer hypotheses are needed when most of the observations are inliers
+	 */
+	@Test
+	public void adaptiveTermination() {
+		RansacPreemptive<Affine2D_F64,AssociatedPair> alg = createAlg(10000);
+		alg.setBatchSize(16);
+
+		assertTrue(alg.process(createObservations(300, 0.1)));
+		int fewOutliers = alg.getNumHypotheses();
+
+		assertTrue(alg.process(createObservations(300, 0.6)));
+		int manyOutliers = alg.getNumHypotheses();
+
+		assertTrue(fewOutliers < manyOutliers);
+		assertTrue(manyOutliers < 10000);
+
+		// always generate the maximum number when the confidence is one
+		alg.setConfidence(1);
+		assertTrue(alg.process(createObservations(300, 0.6)));
+		assertEquals(10000,alg.getNumHypotheses());
+	}
+
+	/**
+	 * The input list should not be modified
+	 */
+	@Test
+	public void inputNotModified() {
+		List<AssociatedPair> obs = createObservations(100,0.5);
+		List<AssociatedPair> copy = new ArrayList<AssociatedPair>(obs);
+
+		RansacPreemptive<Affine2D_F64,AssociatedPair> alg = createAlg(200);
+		alg.process(obs);
+
+		assertEquals(copy.size(),obs.size());
+		for( int i = 0; i < obs.size(); i++ )
+			assertTrue(copy.get(i) == obs.get(i));
+	}
+
+	@Test
+	public void tooFewPoints() {
+		RansacPreemptive<Affine2D_F64,AssociatedPair> alg = createAlg(200);
+		assertFalse(alg.process(createObservations(2,0)));
+		assertEquals(0,alg.getMatchSet().size());
+	}
+
+	/**
+	 * Results should be identical when run with one thread or multiple threads
+	 */
+	@Test
+	public void concurrent() {
+		// outliers with a larger tolerance so that hypotheses have a variety of scores
+		final List<AssociatedPair> obs = createObservations(500,0.7);
+		for( int i = 0; i < obs.size(); i++ ) {
+			obs.get(i).p2.x += rand.nextGaussian()*0.3;
+		}
+
+		RansacPreemptive<Affine2D_F64,AssociatedPair> expected = createAlg(500);
+		assertTrue(expected.process(obs));
+
+		final RansacPreemptive<Affine2D_F64,AssociatedPair> alg = createAlg(500);
+		// process twice to make sure worker state is reset correctly
+		for( int trial = 0; trial < 2; trial++ ) {
+			CompareConcurrent.runConcurrent(3, new Runnable() {
+				@Override
+				public void run() {
+					assertTrue(alg.process(obs));
+				}
+			});
+
+			assertEquals(expected.getNumHypotheses(),alg.getNumHypotheses());
+			assertEquals(expected.getMatchSet().size(),alg.getMatchSet().size());
+			for( int i = 0; i < alg.getMatchSet().size(); i++ )
+				assertEquals(expected.getInputIndex(i),alg.getInputIndex(i));
+
+			Affine2D_F64 a = expected.getModel();
+			Affine2D_F64 b = alg.getModel();
+			assertTrue(a.a11 == b.a11 && a.a12 == b.a12 && a.a21 == b.a21 && a.a22 == b.a22);
+			assertTrue(a.tx == b.tx && a.ty == b.ty);
+
+			expected.process(obs);
+		}
+	}
+}